@@ -18,7 +18,6 @@ package org.ehcache.jsr107;
 import org.ehcache.core.InternalCache;
 import org.ehcache.Status;
 import org.ehcache.core.Jsr107Cache;
-import org.ehcache.core.spi.service.StatisticsService;
 import org.ehcache.event.EventFiring;
 import org.ehcache.event.EventOrdering;
 import org.ehcache.core.exceptions.StorePassThroughException;
@@ -28,11 +27,18 @@ import org.ehcache.spi.loaderwriter.CacheLoaderWriter;
 import org.ehcache.spi.loaderwriter.CacheLoadingException;
 import org.ehcache.spi.loaderwriter.CacheWritingException;
 
+import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -63,17 +69,19 @@ class Eh107Cache<K, V> implements Cache<K, V> {
   private final Eh107CacheStatisticsMXBean statisticsBean;
   private final Eh107Configuration<K, V> config;
   private final Jsr107CacheLoaderWriter<? super K, V> cacheLoaderWriter;
+  private final Jsr107Service jsr107Service;
 
   Eh107Cache(String name, Eh107Configuration<K, V> config, CacheResources<K, V> cacheResources,
-             InternalCache<K, V> ehCache, StatisticsService statisticsService, Eh107CacheManager cacheManager) {
+             InternalCache<K, V> ehCache, Jsr107Service jsr107Service, Eh107CacheManager cacheManager) {
     this.cacheLoaderWriter = cacheResources.getCacheLoaderWriter();
+    this.jsr107Service = jsr107Service;
     this.config = config;
     this.ehCache = ehCache;
     this.cacheManager = cacheManager;
     this.name = name;
     this.cacheResources = cacheResources;
     this.managementBean = new Eh107CacheMXBean(name, cacheManager.getURI(), config);
-    this.statisticsBean = new Eh107CacheStatisticsMXBean(name, cacheManager.getURI(), statisticsService);
+    this.statisticsBean = new Eh107CacheStatisticsMXBean(name, cacheManager.getURI(), jsr107Service.getStatistics());
 
     for (Map.Entry<CacheEntryListenerConfiguration<K, V>, ListenerResources<K, V>> entry : cacheResources
         .getListenerResources().entrySet()) {
@@ -130,16 +138,74 @@ class Eh107Cache<K, V> implements Cache<K, V> {
       return;
     }
 
+    Executor executor;
     try {
-      jsr107Cache.loadAll(keys, replaceExistingValues, this::loadAllFunction);
-    } catch (Exception e) {
-      final CacheLoaderException cle;
-      cle = getCacheLoaderException(e);
-      completionListener.onException(cle);
+      executor = jsr107Service.getLoadAllExecutor();
+    } catch (IllegalStateException e) {
+      completionListener.onException(new CacheLoaderException(e));
       return;
     }
 
-    completionListener.onCompletion();
+    /*
+     * The calling thread loads the last chunk itself.
+     */
+    List<CompletableFuture<Void>> chunks = new ArrayList<>();
+    int chunkSize = jsr107Service.getLoadAllChunkSize();
+    Iterator<? extends K> iterator = keys.iterator();
+    while (iterator.hasNext()) {
+      Set<K> chunk = new LinkedHashSet<>();
+      while (iterator.hasNext() && chunk.size() < chunkSize) {
+        chunk.add(iterator.next());
+      }
+      Runnable load = () -> jsr107Cache.loadAll(chunk, replaceExistingValues, this::loadAllFunction);
+      if (iterator.hasNext()) {
+        chunks.add(CompletableFuture.runAsync(load, executor));
+      } else {
+        CompletableFuture<Void> lastChunk = new CompletableFuture<>();
+        try {
+          load.run();
+          lastChunk.complete(null);
+        } catch (RuntimeException e) {
+          lastChunk.completeExceptionally(e);
+        }
+        chunks.add(lastChunk);
+      }
+    }
+
+    CompletionListener listener = completionListener;
+    CompletableFuture.allOf(chunks.toArray(new CompletableFuture<?>[0])).whenComplete((ignored, failure) -> {
+      if (failure == null) {
+        listener.onCompletion();
+      } else {
+        listener.onException(getLoadAllException(chunks));
+      }
+    });
+  }
+
+  /**
+   * Builds the exception reported for a {@code loadAll} some of whose chunks failed. A single failure is reported as
+   * is, several failures are reported together with the failures of the other chunks attached as suppressed.
+   */
+  private CacheLoaderException getLoadAllException(List<CompletableFuture<Void>> chunks) {
+    List<CacheLoaderException> failures = new ArrayList<>();
+    for (CompletableFuture<Void> chunk : chunks) {
+      try {
+        chunk.join();
+      } catch (CompletionException e) {
+        Throwable cause = e.getCause();
+        failures.add(getCacheLoaderException(cause instanceof Exception ? (Exception) cause : e));
+      }
+    }
+    if (failures.size() == 1) {
+      return failures.get(0);
+    } else {
+      CacheLoaderException cle = new CacheLoaderException("loadAll failed for " + failures.size() + " of " + chunks.size()
+                                                          + " chunks", failures.get(0));
+      for (CacheLoaderException failure : failures.subList(1, failures.size())) {
+        cle.addSuppressed(failure);
+      }
+      return cle;
+    }
   }
 
   private CacheLoaderException getCacheLoaderException(Exception e) {
@@ -383,7 +449,56 @@ class Eh107Cache<K, V> implements Cache<K, V> {
       }
     }
 
-    Map<K, EntryProcessorResult<T>> results = new HashMap<>(keys.size());
+    int parallelism = Math.min(jsr107Service.getInvokeAllParallelism(), keys.size());
+    Executor executor = null;
+    if (parallelism > 1) {
+      try {
+        executor = jsr107Service.getLoadAllExecutor();
+      } catch (IllegalStateException e) {
+        // the configured pool cannot be used: process every key on the calling thread
+        parallelism = 1;
+      }
+    }
+    if (parallelism <= 1) {
+      Map<K, EntryProcessorResult<T>> results = new HashMap<>(keys.size());
+      invokeAll(keys, entryProcessor, arguments, results);
+      return results;
+    }
+
+    /*
+     * Keys are spread over the partitions by hash. The calling thread processes the last partition itself.
+     */
+    List<List<K>> partitions = new ArrayList<>(parallelism);
+    for (int i = 0; i < parallelism; i++) {
+      partitions.add(new ArrayList<>());
+    }
+    for (K key : keys) {
+      partitions.get(Math.floorMod(spread(key.hashCode()), parallelism)).add(key);
+    }
+
+    Map<K, EntryProcessorResult<T>> results = new ConcurrentHashMap<>(keys.size());
+    List<CompletableFuture<Void>> futures = new ArrayList<>(parallelism - 1);
+    for (List<K> partition : partitions.subList(0, parallelism - 1)) {
+      futures.add(CompletableFuture.runAsync(() -> invokeAll(partition, entryProcessor, arguments, results), executor));
+    }
+    invokeAll(partitions.get(parallelism - 1), entryProcessor, arguments, results);
+    try {
+      CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+    } catch (CompletionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      } else {
+        throw e;
+      }
+    }
+    return results;
+  }
+
+  private <T> void invokeAll(Iterable<? extends K> keys, EntryProcessor<K, V, T> entryProcessor, Object[] arguments,
+                             Map<K, EntryProcessorResult<T>> results) {
     for (K key : keys) {
       EntryProcessorResult<T> result = null;
       try {
@@ -399,8 +514,10 @@ class Eh107Cache<K, V> implements Cache<K, V> {
         results.put(key, result);
       }
     }
+  }
 
-    return results;
+  private static int spread(int hash) {
+    return hash ^ (hash >>> 16);
   }
 
   @Override
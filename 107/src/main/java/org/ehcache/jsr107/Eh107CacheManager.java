@@ -20,7 +20,6 @@ import org.ehcache.PersistentCacheManager;
 import org.ehcache.Status;
 import org.ehcache.config.CacheConfiguration;
 import org.ehcache.core.InternalCache;
-import org.ehcache.core.spi.service.StatisticsService;
 import org.ehcache.impl.config.copy.DefaultCopierConfiguration;
 import org.ehcache.impl.copy.IdentityCopier;
 import org.ehcache.jsr107.internal.Jsr107CacheLoaderWriter;
@@ -70,7 +69,7 @@ class Eh107CacheManager implements CacheManager {
   private final URI uri;
   private final Properties props;
   private final ConfigurationMerger configurationMerger;
-  private final StatisticsService statisticsService;
+  private final Jsr107Service jsr107Service;
 
   Eh107CacheManager(EhcacheCachingProvider cachingProvider, org.ehcache.CacheManager ehCacheManager, Jsr107Service jsr107Service,
                     Properties props, ClassLoader classLoader, URI uri, ConfigurationMerger configurationMerger) {
@@ -80,7 +79,7 @@ class Eh107CacheManager implements CacheManager {
     this.classLoader = classLoader;
     this.uri = uri;
     this.configurationMerger = configurationMerger;
-    this.statisticsService = jsr107Service.getStatistics();
+    this.jsr107Service = jsr107Service;
 
     refreshAllCaches();
   }
@@ -127,7 +126,7 @@ class Eh107CacheManager implements CacheManager {
     configurationMerger.setUpManagementAndStats(cache, config);
     Eh107Expiry<K, V> expiry = new EhcacheExpiryWrapper<>(cache.getRuntimeConfiguration().getExpiryPolicy());
     CacheResources<K, V> resources = new CacheResources<>(alias, wrapCacheLoaderWriter(cacheLoaderWriter), expiry);
-    return new Eh107Cache<>(alias, config, resources, cache, statisticsService, this);
+    return new Eh107Cache<>(alias, config, resources, cache, jsr107Service, this);
   }
 
   private <K, V> Jsr107CacheLoaderWriter<K, V> wrapCacheLoaderWriter(CacheLoaderWriter<K, V> cacheLoaderWriter) {
@@ -214,7 +213,7 @@ class Eh107CacheManager implements CacheManager {
             cacheResources.getExpiryPolicy(), cacheResources.getListenerResources());
         }
         cache = new Eh107Cache<>(cacheName, new Eh107CompleteConfiguration<>(configHolder.jsr107Configuration, ehCache
-          .getRuntimeConfiguration()), cacheResources, ehCache, statisticsService, this);
+          .getRuntimeConfiguration()), cacheResources, ehCache, jsr107Service, this);
 
         caches.put(cacheName, cache);
 
@@ -20,6 +20,8 @@ import org.ehcache.core.spi.service.StatisticsService;
 import org.ehcache.jsr107.config.ConfigurationElementState;
 import org.ehcache.spi.service.Service;
 
+import java.util.concurrent.Executor;
+
 /**
  * {@link Service} interface for JSR-107 integration.
  */
@@ -62,4 +64,30 @@ public interface Jsr107Service extends Service {
    * @return the statistics service
    */
   StatisticsService getStatistics();
+
+  /**
+   * Returns the maximum number of keys handed to the loader in a single invocation by {@code loadAll}.
+   *
+   * @return the {@code loadAll} chunk size
+   */
+  int getLoadAllChunkSize();
+
+  /**
+   * Returns the maximum number of threads an {@code invokeAll} is spread over.
+   *
+   * @return the {@code invokeAll} parallelism
+   */
+  int getInvokeAllParallelism();
+
+  /**
+   * Returns the executor on which {@code loadAll} chunks are loaded.
+   * <p>
+   * Parallel {@code invokeAll} partitions run on the same executor. Without a configured thread pool alias nor
+   * a default pool, the returned executor runs the tasks on the calling thread.
+   *
+   * @return the {@code loadAll} executor
+   *
+   * @throws IllegalStateException if the configured {@code loadAll} thread pool cannot be used
+   */
+  Executor getLoadAllExecutor();
 }
@@ -27,11 +27,19 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class Jsr107Configuration implements ServiceCreationConfiguration<Jsr107Service, Void> {
 
+  /**
+   * Default number of keys handed to the loader in a single {@code loadAll} invocation.
+   */
+  public static final int DEFAULT_LOAD_ALL_CHUNK_SIZE = 1000;
+
   private final String defaultTemplate;
   private final boolean jsr107CompliantAtomics;
   private final ConfigurationElementState enableManagementAll;
   private final ConfigurationElementState enableStatisticsAll;
   private final Map<String, String> templates;
+  private final int loadAllChunkSize;
+  private final String loadAllThreadPoolAlias;
+  private final int invokeAllParallelism;
 
   /**
    * Creates a new configuration with the provided parameters.
@@ -43,11 +51,55 @@ public class Jsr107Configuration implements ServiceCreationConfiguration<Jsr107S
    */
   public Jsr107Configuration(final String defaultTemplate, final Map<String, String> templates,
                              boolean jsr107CompliantAtomics, ConfigurationElementState enableManagementAll, ConfigurationElementState enableStatisticsAll) {
+    this(defaultTemplate, templates, jsr107CompliantAtomics, enableManagementAll, enableStatisticsAll, DEFAULT_LOAD_ALL_CHUNK_SIZE, null);
+  }
+
+  /**
+   * Creates a new configuration with the provided parameters.
+   *
+   * @param defaultTemplate the default template
+   * @param templates cache alias to template name map
+   * @param jsr107CompliantAtomics behaviour of loader writer in atomic operations
+   * @param enableManagementAll enable management JMX
+   * @param enableStatisticsAll enable statistics JMX
+   * @param loadAllChunkSize maximum number of keys loaded in a single loader invocation by {@code loadAll}
+   * @param loadAllThreadPoolAlias the thread pool running {@code loadAll}, {@code null} for the default pool
+   */
+  public Jsr107Configuration(final String defaultTemplate, final Map<String, String> templates,
+                             boolean jsr107CompliantAtomics, ConfigurationElementState enableManagementAll, ConfigurationElementState enableStatisticsAll,
+                             int loadAllChunkSize, String loadAllThreadPoolAlias) {
+    this(defaultTemplate, templates, jsr107CompliantAtomics, enableManagementAll, enableStatisticsAll, loadAllChunkSize, loadAllThreadPoolAlias, 1);
+  }
+
+  /**
+   * Creates a new configuration with the provided parameters.
+   *
+   * @param defaultTemplate the default template
+   * @param templates cache alias to template name map
+   * @param jsr107CompliantAtomics behaviour of loader writer in atomic operations
+   * @param enableManagementAll enable management JMX
+   * @param enableStatisticsAll enable statistics JMX
+   * @param loadAllChunkSize maximum number of keys loaded in a single loader invocation by {@code loadAll}
+   * @param loadAllThreadPoolAlias the thread pool running {@code loadAll} and parallel {@code invokeAll}, {@code null} for the default pool
+   * @param invokeAllParallelism maximum number of threads an {@code invokeAll} is spread over, {@code 1} to run it on the calling thread
+   */
+  public Jsr107Configuration(final String defaultTemplate, final Map<String, String> templates,
+                             boolean jsr107CompliantAtomics, ConfigurationElementState enableManagementAll, ConfigurationElementState enableStatisticsAll,
+                             int loadAllChunkSize, String loadAllThreadPoolAlias, int invokeAllParallelism) {
+    if (loadAllChunkSize < 1) {
+      throw new IllegalArgumentException("loadAll chunk size must be positive: " + loadAllChunkSize);
+    }
+    if (invokeAllParallelism < 1) {
+      throw new IllegalArgumentException("invokeAll parallelism must be positive: " + invokeAllParallelism);
+    }
     this.defaultTemplate = defaultTemplate;
     this.jsr107CompliantAtomics = jsr107CompliantAtomics;
     this.enableManagementAll = enableManagementAll;
     this.enableStatisticsAll = enableStatisticsAll;
     this.templates = new ConcurrentHashMap<>(templates);
+    this.loadAllChunkSize = loadAllChunkSize;
+    this.loadAllThreadPoolAlias = loadAllThreadPoolAlias;
+    this.invokeAllParallelism = invokeAllParallelism;
   }
 
   /**
@@ -104,4 +156,33 @@ public class Jsr107Configuration implements ServiceCreationConfiguration<Jsr107S
   public ConfigurationElementState isEnableStatisticsAll() {
     return enableStatisticsAll;
   }
+
+  /**
+   * Returns the maximum number of keys handed to the loader in a single invocation by {@code loadAll}.
+   *
+   * @return the {@code loadAll} chunk size
+   */
+  public int getLoadAllChunkSize() {
+    return loadAllChunkSize;
+  }
+
+  /**
+   * Returns the alias of the thread pool running {@code loadAll}, or {@code null} for the default pool.
+   * <p>
+   * Parallel {@code invokeAll} partitions run on the same pool.
+   *
+   * @return the {@code loadAll} thread pool alias or {@code null}
+   */
+  public String getLoadAllThreadPoolAlias() {
+    return loadAllThreadPoolAlias;
+  }
+
+  /**
+   * Returns the maximum number of threads an {@code invokeAll} is spread over.
+   *
+   * @return the {@code invokeAll} parallelism, {@code 1} when it runs on the calling thread
+   */
+  public int getInvokeAllParallelism() {
+    return invokeAllParallelism;
+  }
 }
@@ -16,6 +16,7 @@
 
 package org.ehcache.jsr107.internal;
 
+import org.ehcache.core.spi.service.ExecutionService;
 import org.ehcache.core.spi.service.StatisticsService;
 import org.ehcache.jsr107.config.ConfigurationElementState;
 import org.ehcache.jsr107.config.Jsr107Configuration;
@@ -23,14 +24,24 @@ import org.ehcache.jsr107.Jsr107Service;
 import org.ehcache.spi.service.ServiceDependencies;
 import org.ehcache.spi.service.ServiceProvider;
 import org.ehcache.spi.service.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
 
 import static java.util.Objects.requireNonNull;
 
-@ServiceDependencies(StatisticsService.class)
+@ServiceDependencies({StatisticsService.class, ExecutionService.class})
 public class DefaultJsr107Service implements Jsr107Service {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(DefaultJsr107Service.class);
+
   private final Jsr107Configuration configuration;
   private volatile StatisticsService statisticsService;
+  private volatile ExecutionService executionService;
+  private Executor loadAllExecutor;
 
   public DefaultJsr107Service(Jsr107Configuration configuration) {
     this.configuration = configuration;
@@ -39,6 +50,7 @@ public class DefaultJsr107Service implements Jsr107Service {
   @Override
   public void start(final ServiceProvider<Service> serviceProvider) {
     this.statisticsService = serviceProvider.getService(StatisticsService.class);
+    this.executionService = serviceProvider.getService(ExecutionService.class);
   }
 
   @Override
@@ -55,8 +67,11 @@ public class DefaultJsr107Service implements Jsr107Service {
   }
 
   @Override
-  public void stop() {
-    // no-op
+  public synchronized void stop() {
+    if (loadAllExecutor instanceof ExecutorService) {
+      ((ExecutorService) loadAllExecutor).shutdown();
+    }
+    loadAllExecutor = null;
   }
 
   @Override
@@ -90,4 +105,40 @@ public class DefaultJsr107Service implements Jsr107Service {
   public StatisticsService getStatistics() {
     return requireNonNull(statisticsService);
   }
+
+  @Override
+  public int getLoadAllChunkSize() {
+    final Jsr107Configuration cfg = configuration;
+    if (cfg == null) {
+      return Jsr107Configuration.DEFAULT_LOAD_ALL_CHUNK_SIZE;
+    }
+    return cfg.getLoadAllChunkSize();
+  }
+
+  @Override
+  public int getInvokeAllParallelism() {
+    final Jsr107Configuration cfg = configuration;
+    if (cfg == null) {
+      return 1;
+    }
+    return cfg.getInvokeAllParallelism();
+  }
+
+  @Override
+  public synchronized Executor getLoadAllExecutor() {
+    if (loadAllExecutor == null) {
+      String poolAlias = configuration == null ? null : configuration.getLoadAllThreadPoolAlias();
+      try {
+        loadAllExecutor = requireNonNull(executionService).getUnorderedExecutor(poolAlias, new LinkedBlockingQueue<>());
+      } catch (IllegalArgumentException e) {
+        if (poolAlias == null) {
+          LOGGER.info("No default thread pool configured: JCache loadAll and invokeAll will run on the calling thread");
+          loadAllExecutor = Runnable::run;
+        } else {
+          throw new IllegalStateException("Thread pool '" + poolAlias + "' configured for JCache loadAll cannot be used", e);
+        }
+      }
+    }
+    return loadAllExecutor;
+  }
 }
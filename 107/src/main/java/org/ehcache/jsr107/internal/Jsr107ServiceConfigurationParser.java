@@ -49,6 +49,9 @@ public class Jsr107ServiceConfigurationParser implements CacheManagerServiceConf
   private static final String JSR_107_COMPLIANT_ATOMICS_ATTRIBUTE = "jsr-107-compliant-atomics";
   private static final String ENABLE_STATISTICS_ALL_ATTRIBUTE = "enable-statistics";
   private static final String DEFAULT_TEMPLATE_ATTRIBUTE = "default-template";
+  private static final String LOAD_ALL_CHUNK_SIZE_ATTRIBUTE = "load-all-chunk-size";
+  private static final String LOAD_ALL_THREAD_POOL_ATTRIBUTE = "load-all-thread-pool";
+  private static final String INVOKE_ALL_PARALLELISM_ATTRIBUTE = "invoke-all-parallelism";
   private static final String CACHE_NAME_ATTRIBUTE = "name";
   private static final String TEMPLATE_NAME_ATTRIBUTE = "template";
 
@@ -76,6 +79,18 @@ public class Jsr107ServiceConfigurationParser implements CacheManagerServiceConf
     if (fragment.hasAttribute(ENABLE_STATISTICS_ALL_ATTRIBUTE)) {
       enableStatisticsAll = parseBoolean(fragment.getAttribute(ENABLE_STATISTICS_ALL_ATTRIBUTE)) ? ConfigurationElementState.ENABLED : ConfigurationElementState.DISABLED;
     }
+    int loadAllChunkSize = Jsr107Configuration.DEFAULT_LOAD_ALL_CHUNK_SIZE;
+    if (fragment.hasAttribute(LOAD_ALL_CHUNK_SIZE_ATTRIBUTE)) {
+      loadAllChunkSize = Integer.parseInt(fragment.getAttribute(LOAD_ALL_CHUNK_SIZE_ATTRIBUTE));
+    }
+    String loadAllThreadPool = null;
+    if (fragment.hasAttribute(LOAD_ALL_THREAD_POOL_ATTRIBUTE)) {
+      loadAllThreadPool = fragment.getAttribute(LOAD_ALL_THREAD_POOL_ATTRIBUTE);
+    }
+    int invokeAllParallelism = 1;
+    if (fragment.hasAttribute(INVOKE_ALL_PARALLELISM_ATTRIBUTE)) {
+      invokeAllParallelism = Integer.parseInt(fragment.getAttribute(INVOKE_ALL_PARALLELISM_ATTRIBUTE));
+    }
     final String defaultTemplate = fragment.getAttribute(DEFAULT_TEMPLATE_ATTRIBUTE);
     final HashMap<String, String> templates = new HashMap<>();
     final NodeList childNodes = fragment.getChildNodes();
@@ -87,7 +102,8 @@ public class Jsr107ServiceConfigurationParser implements CacheManagerServiceConf
       }
     }
 
-    return new Jsr107Configuration(defaultTemplate, templates, jsr107CompliantAtomics, enableManagementAll, enableStatisticsAll);
+    return new Jsr107Configuration(defaultTemplate, templates, jsr107CompliantAtomics, enableManagementAll, enableStatisticsAll,
+      loadAllChunkSize, loadAllThreadPool, invokeAllParallelism);
   }
 
   @Override
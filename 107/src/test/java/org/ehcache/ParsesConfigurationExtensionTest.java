@@ -61,6 +61,8 @@ public class ParsesConfigurationExtensionTest {
 
     assertThat(jsr107Service.getTemplateNameForCache("foos"), equalTo("stringCache"));
     assertThat(jsr107Service.getTemplateNameForCache("bars"), equalTo("tinyCache"));
+    assertThat(jsr107Service.getLoadAllChunkSize(), equalTo(500));
+    assertThat(jsr107Service.getInvokeAllParallelism(), equalTo(4));
   }
 
   @SuppressWarnings("rawtypes")
@@ -0,0 +1,116 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ehcache.jsr107;
+
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.impl.config.executor.PooledExecutionServiceConfiguration;
+import org.ehcache.jsr107.config.ConfigurationElementState;
+import org.ehcache.jsr107.config.Jsr107Configuration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.configuration.MutableConfiguration;
+import javax.cache.processor.EntryProcessorException;
+import javax.cache.processor.EntryProcessorResult;
+import javax.cache.spi.CachingProvider;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+
+public class InvokeAllTest {
+
+  private CacheManager cacheManager;
+  private Cache<Long, Long> testCache;
+
+  @Before
+  public void setUp() throws Exception {
+    PooledExecutionServiceConfiguration executionConfiguration = new PooledExecutionServiceConfiguration();
+    executionConfiguration.addDefaultPool("default", 0, 4);
+    Jsr107Configuration jsr107Configuration = new Jsr107Configuration(null, Collections.emptyMap(), false,
+      ConfigurationElementState.UNSPECIFIED, ConfigurationElementState.UNSPECIFIED,
+      Jsr107Configuration.DEFAULT_LOAD_ALL_CHUNK_SIZE, null, 4);
+
+    CachingProvider provider = Caching.getCachingProvider();
+    cacheManager = ((EhcacheCachingProvider) provider).getCacheManager(new URI("InvokeAllTest"),
+      new DefaultConfiguration(getClass().getClassLoader(), executionConfiguration, jsr107Configuration));
+    testCache = cacheManager.createCache("testCache", new MutableConfiguration<Long, Long>().setTypes(Long.class, Long.class));
+  }
+
+  @After
+  public void tearDown() {
+    cacheManager.close();
+  }
+
+  @Test
+  public void testParallelInvokeAllProcessesEveryKey() {
+    Set<Long> keys = new HashSet<>();
+    for (long i = 0; i < 100; i++) {
+      keys.add(i);
+      testCache.put(i, i);
+    }
+
+    Map<Long, EntryProcessorResult<Long>> results = testCache.invokeAll(keys, (entry, arguments) -> {
+      entry.setValue(entry.getValue() + (Long) arguments[0]);
+      return entry.getValue();
+    }, 1000L);
+
+    assertThat(results.size(), is(100));
+    for (long i = 0; i < 100; i++) {
+      assertThat(results.get(i).get(), is(i + 1000L));
+      assertThat(testCache.get(i), is(i + 1000L));
+    }
+  }
+
+  @Test
+  public void testParallelInvokeAllReportsFailuresPerKey() {
+    Set<Long> keys = new HashSet<>();
+    for (long i = 0; i < 100; i++) {
+      keys.add(i);
+    }
+
+    Map<Long, EntryProcessorResult<Long>> results = testCache.invokeAll(keys, (entry, arguments) -> {
+      if (entry.getKey() % 10 == 0) {
+        throw new IllegalStateException("failed " + entry.getKey());
+      }
+      entry.setValue(entry.getKey());
+      return null;
+    });
+
+    assertThat(results.size(), is(10));
+    for (long i = 0; i < 100; i += 10) {
+      try {
+        results.get(i).get();
+        fail("Expected EntryProcessorException");
+      } catch (EntryProcessorException e) {
+        assertThat(e.getCause().getMessage(), is("failed " + i));
+      }
+      assertThat(testCache.containsKey(i), is(false));
+      assertThat(testCache.get(i + 1), is(i + 1));
+    }
+  }
+}
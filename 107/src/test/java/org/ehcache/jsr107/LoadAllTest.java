@@ -0,0 +1,207 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ehcache.jsr107;
+
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.impl.config.event.CacheEventDispatcherFactoryConfiguration;
+import org.ehcache.impl.config.executor.PooledExecutionServiceConfiguration;
+import org.ehcache.jsr107.config.ConfigurationElementState;
+import org.ehcache.jsr107.config.Jsr107Configuration;
+import org.ehcache.spi.service.ServiceCreationConfiguration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.configuration.MutableConfiguration;
+import javax.cache.integration.CacheLoader;
+import javax.cache.integration.CacheLoaderException;
+import javax.cache.integration.CompletionListenerFuture;
+import javax.cache.spi.CachingProvider;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+
+public class LoadAllTest {
+
+  private CacheManager cacheManager;
+
+  @Before
+  public void setUp() throws Exception {
+    PooledExecutionServiceConfiguration executionConfiguration = new PooledExecutionServiceConfiguration();
+    executionConfiguration.addDefaultPool("default", 4, 4);
+    cacheManager = newCacheManager("LoadAllTest", null, executionConfiguration);
+  }
+
+  @After
+  public void tearDown() {
+    cacheManager.close();
+  }
+
+  private CacheManager newCacheManager(String name, String loadAllThreadPoolAlias,
+                                       ServiceCreationConfiguration<?, ?>... serviceConfigurations) throws Exception {
+    List<ServiceCreationConfiguration<?, ?>> configurations = new ArrayList<>(Arrays.asList(serviceConfigurations));
+    configurations.add(new Jsr107Configuration(null, Collections.emptyMap(), false,
+      ConfigurationElementState.UNSPECIFIED, ConfigurationElementState.UNSPECIFIED, 1, loadAllThreadPoolAlias));
+
+    CachingProvider provider = Caching.getCachingProvider();
+    return ((EhcacheCachingProvider) provider).getCacheManager(new URI(name),
+      new DefaultConfiguration(getClass().getClassLoader(), configurations.toArray(new ServiceCreationConfiguration<?, ?>[0])));
+  }
+
+
+  @Test
+  public void testLoadAllChunksRunConcurrently() throws Exception {
+    Set<Long> keys = new HashSet<>(Arrays.asList(1L, 2L, 3L));
+    CountDownLatch chunksRunning = new CountDownLatch(keys.size());
+    AtomicBoolean concurrent = new AtomicBoolean(true);
+    CacheLoader<Long, Long> cacheLoader = new CacheLoader<Long, Long>() {
+      @Override
+      public Long load(Long key) {
+        return key;
+      }
+
+      @Override
+      public Map<Long, Long> loadAll(Iterable<? extends Long> chunk) {
+        chunksRunning.countDown();
+        try {
+          if (!chunksRunning.await(10, TimeUnit.SECONDS)) {
+            concurrent.set(false);
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new CacheLoaderException(e);
+        }
+        Map<Long, Long> loaded = new HashMap<>();
+        for (Long key : chunk) {
+          loaded.put(key, key);
+        }
+        return loaded;
+      }
+    };
+    Cache<Long, Long> testCache = cacheManager.createCache("testCache", new MutableConfiguration<Long, Long>()
+      .setTypes(Long.class, Long.class)
+      .setReadThrough(true)
+      .setCacheLoaderFactory(() -> cacheLoader));
+
+    CompletionListenerFuture completionListener = new CompletionListenerFuture();
+    testCache.loadAll(keys, false, completionListener);
+    completionListener.get(30, TimeUnit.SECONDS);
+
+    assertThat(concurrent.get(), is(true));
+    for (Long key : keys) {
+      assertThat(testCache.getAndRemove(key), is(key));
+    }
+  }
+
+  @Test
+  public void testLoadAllRunsOnTheCallingThreadWithoutADefaultPool() throws Exception {
+    PooledExecutionServiceConfiguration executionConfiguration = new PooledExecutionServiceConfiguration();
+    executionConfiguration.addPool("other", 1, 1);
+    CacheManager noDefaultPoolManager = newCacheManager("LoadAllTestNoDefaultPool", null, executionConfiguration,
+      new CacheEventDispatcherFactoryConfiguration("other"));
+    try {
+      Thread caller = Thread.currentThread();
+      AtomicBoolean onCaller = new AtomicBoolean();
+      Cache<Long, Long> testCache = noDefaultPoolManager.createCache("testCache", new MutableConfiguration<Long, Long>()
+        .setTypes(Long.class, Long.class)
+        .setReadThrough(true)
+        .setCacheLoaderFactory(() -> new CacheLoader<Long, Long>() {
+          @Override
+          public Long load(Long key) {
+            return key;
+          }
+
+          @Override
+          public Map<Long, Long> loadAll(Iterable<? extends Long> chunk) {
+            onCaller.set(Thread.currentThread() == caller);
+            Map<Long, Long> loaded = new HashMap<>();
+            for (Long key : chunk) {
+              loaded.put(key, key);
+            }
+            return loaded;
+          }
+        }));
+
+      CompletionListenerFuture completionListener = new CompletionListenerFuture();
+      testCache.loadAll(Collections.singleton(1L), false, completionListener);
+
+      assertThat(completionListener.isDone(), is(true));
+      completionListener.get();
+      assertThat(onCaller.get(), is(true));
+      assertThat(testCache.get(1L), is(1L));
+    } finally {
+      noDefaultPoolManager.close();
+    }
+  }
+
+  @Test
+  public void testLoadAllReportsAnUnusableThreadPool() throws Exception {
+    PooledExecutionServiceConfiguration executionConfiguration = new PooledExecutionServiceConfiguration();
+    executionConfiguration.addDefaultPool("default", 1, 1);
+    CacheManager unknownPoolManager = newCacheManager("LoadAllTestUnknownPool", "unknown", executionConfiguration);
+    try {
+      Cache<Long, Long> testCache = unknownPoolManager.createCache("testCache", new MutableConfiguration<Long, Long>()
+        .setTypes(Long.class, Long.class)
+        .setReadThrough(true)
+        .setCacheLoaderFactory(() -> new CacheLoader<Long, Long>() {
+          @Override
+          public Long load(Long key) {
+            return key;
+          }
+
+          @Override
+          public Map<Long, Long> loadAll(Iterable<? extends Long> keys) {
+            throw new AssertionError("Should not load");
+          }
+        }));
+
+      CompletionListenerFuture completionListener = new CompletionListenerFuture();
+      testCache.loadAll(Collections.singleton(1L), false, completionListener);
+
+      try {
+        completionListener.get();
+        fail("Expected ExecutionException");
+      } catch (ExecutionException e) {
+        assertThat(e.getCause(), instanceOf(CacheLoaderException.class));
+        assertThat(e.getCause().getCause().getMessage(), containsString("'unknown'"));
+      }
+    } finally {
+      unknownPoolManager.close();
+    }
+  }
+}
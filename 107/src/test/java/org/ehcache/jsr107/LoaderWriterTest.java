@@ -26,17 +26,30 @@ import org.mockito.MockitoAnnotations;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
 import javax.cache.Cache;
 import javax.cache.CacheManager;
 import javax.cache.Caching;
 import javax.cache.configuration.Factory;
 import javax.cache.configuration.MutableConfiguration;
 import javax.cache.integration.CacheLoader;
+import javax.cache.integration.CacheLoaderException;
+import javax.cache.integration.CompletionListenerFuture;
 import javax.cache.integration.CacheWriter;
 import javax.cache.spi.CachingProvider;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -75,6 +88,50 @@ public class LoaderWriterTest {
     cacheManager.close();
   }
 
+  @Test
+  public void testLoadAllInChunks() throws Exception {
+    Set<Number> keys = new HashSet<>();
+    for (int i = 0; i < 2500; i++) {
+      keys.add(i);
+    }
+    Set<Number> requested = ConcurrentHashMap.newKeySet();
+    when(cacheLoader.loadAll(any())).thenAnswer(invocation -> {
+      Map<Number, CharSequence> loaded = new HashMap<>();
+      for (Number key : invocation.<Iterable<Number>>getArgument(0)) {
+        requested.add(key);
+        loaded.put(key, "value" + key);
+      }
+      assertThat(loaded.size() <= 1000, is(true));
+      return loaded;
+    });
+
+    CompletionListenerFuture completionListener = new CompletionListenerFuture();
+    testCache.loadAll(keys, false, completionListener);
+    completionListener.get(10, TimeUnit.SECONDS);
+
+    verify(cacheLoader, times(3)).loadAll(any());
+    assertThat(requested, is(keys));
+  }
+
+  @Test
+  public void testLoadAllReportsFailedChunks() throws Exception {
+    Set<Number> keys = new HashSet<>();
+    for (int i = 0; i < 2500; i++) {
+      keys.add(i);
+    }
+    when(cacheLoader.loadAll(any())).thenThrow(new CacheLoaderException("failed"));
+
+    CompletionListenerFuture completionListener = new CompletionListenerFuture();
+    testCache.loadAll(keys, false, completionListener);
+    try {
+      completionListener.get(10, TimeUnit.SECONDS);
+      fail("Expected ExecutionException");
+    } catch (ExecutionException e) {
+      assertThat(e.getCause(), instanceOf(CacheLoaderException.class));
+      assertThat(e.getCause().getSuppressed().length, is(2));
+    }
+  }
+
   @Test
   public void testSimplePutIfAbsentWithLoaderAndWriter_absent() throws Exception {
     assertThat(testCache.containsKey(1), is(false));
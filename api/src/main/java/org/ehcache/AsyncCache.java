@@ -0,0 +1,211 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ehcache;
+
+import org.ehcache.spi.loaderwriter.BulkCacheLoadingException;
+import org.ehcache.spi.loaderwriter.BulkCacheWritingException;
+import org.ehcache.spi.loaderwriter.CacheLoadingException;
+import org.ehcache.spi.loaderwriter.CacheWritingException;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionStage;
+import java.util.function.BiFunction;
+
+/**
+ * A non-blocking view of a {@link Cache}.
+ * <p>
+ * Every operation mirrors its synchronous counterpart on {@link Cache} but returns immediately with a
+ * {@link CompletionStage} that completes once the operation has been performed. Exceptions that the synchronous
+ * method would have thrown, such as {@link CacheLoadingException} or {@link CacheWritingException}, complete the
+ * returned stage exceptionally instead. Invalid arguments, such as {@code null} keys or values, are still rejected
+ * eagerly by throwing a {@link NullPointerException}.
+ * <p>
+ * No ordering is guaranteed between operations issued through this view without waiting for their completion.
+ *
+ * @param <K> the key type for the cache
+ * @param <V> the value type for the cache
+ *
+ * @see CacheManager#getAsyncCache(String, Class, Class)
+ */
+public interface AsyncCache<K, V> {
+
+  /**
+   * Asynchronously retrieves the value currently mapped to the provided key.
+   *
+   * @param key the key, may not be {@code null}
+   * @return a stage completing with the value mapped to the key, {@code null} if none
+   *
+   * @throws NullPointerException if the provided key is {@code null}
+   *
+   * @see Cache#get(Object)
+   */
+  CompletionStage<V> getAsync(K key);
+
+  /**
+   * Asynchronously associates the given value to the given key.
+   *
+   * @param key the key, may not be {@code null}
+   * @param value the value, may not be {@code null}
+   * @return a stage completing once the mapping is installed
+   *
+   * @throws NullPointerException if either key or value is {@code null}
+   *
+   * @see Cache#put(Object, Object)
+   */
+  CompletionStage<Void> putAsync(K key, V value);
+
+  /**
+   * Asynchronously checks whether a mapping for the given key is present.
+   *
+   * @param key the key, may not be {@code null}
+   * @return a stage completing with {@code true} if a mapping is present, {@code false} otherwise
+   *
+   * @throws NullPointerException if the provided key is {@code null}
+   *
+   * @see Cache#containsKey(Object)
+   */
+  CompletionStage<Boolean> containsKeyAsync(K key);
+
+  /**
+   * Asynchronously removes the value, if any, associated with the provided key.
+   *
+   * @param key the key, may not be {@code null}
+   * @return a stage completing once the mapping is removed
+   *
+   * @throws NullPointerException if the provided key is {@code null}
+   *
+   * @see Cache#remove(Object)
+   */
+  CompletionStage<Void> removeAsync(K key);
+
+  /**
+   * Asynchronously retrieves all values associated with the given key set.
+   * <p>
+   * The stage completes exceptionally with a {@link BulkCacheLoadingException} if some keys could not be loaded.
+   *
+   * @param keys keys to query for, may not contain {@code null}
+   * @return a stage completing with a map from keys to values, or {@code null} if the key was not mapped
+   *
+   * @throws NullPointerException if the {@code Set} or any of the contained keys are {@code null}
+   *
+   * @see Cache#getAll(Set)
+   */
+  CompletionStage<Map<K, V>> getAllAsync(Set<? extends K> keys);
+
+  /**
+   * Asynchronously associates all the provided key:value pairs.
+   * <p>
+   * The stage completes exceptionally with a {@link BulkCacheWritingException} if some entries could not be written.
+   *
+   * @param entries key:value pairs to associate, keys or values may not be {@code null}
+   * @return a stage completing once all mappings are installed
+   *
+   * @throws NullPointerException if the {@code Map} or any of the contained keys or values are {@code null}
+   *
+   * @see Cache#putAll(Map)
+   */
+  CompletionStage<Void> putAllAsync(Map<? extends K, ? extends V> entries);
+
+  /**
+   * Asynchronously removes any associated value for the given key set.
+   * <p>
+   * The stage completes exceptionally with a {@link BulkCacheWritingException} if some keys could not be removed.
+   *
+   * @param keys keys to remove values for, may not be {@code null}
+   * @return a stage completing once all mappings are removed
+   *
+   * @throws NullPointerException if the {@code Set} or any of the contained keys are {@code null}
+   *
+   * @see Cache#removeAll(Set)
+   */
+  CompletionStage<Void> removeAllAsync(Set<? extends K> keys);
+
+  /**
+   * Asynchronously maps the specified key to the specified value, if the key is not currently mapped.
+   *
+   * @param key the key, may not be {@code null}
+   * @param value the value, may not be {@code null}
+   * @return a stage completing with the value to which the key was previously mapped, or {@code null} if none
+   *
+   * @throws NullPointerException if either key or value is {@code null}
+   *
+   * @see Cache#putIfAbsent(Object, Object)
+   */
+  CompletionStage<V> putIfAbsentAsync(K key, V value);
+
+  /**
+   * Asynchronously removes the entry for a key only if currently mapped to the given value.
+   *
+   * @param key the key, may not be {@code null}
+   * @param value the value, may not be {@code null}
+   * @return a stage completing with {@code true} if the entry was removed
+   *
+   * @throws NullPointerException if either key or value is {@code null}
+   *
+   * @see Cache#remove(Object, Object)
+   */
+  CompletionStage<Boolean> removeAsync(K key, V value);
+
+  /**
+   * Asynchronously replaces the entry for a key only if currently mapped to some value.
+   *
+   * @param key the key, may not be {@code null}
+   * @param value the value, may not be {@code null}
+   * @return a stage completing with the value previously associated with the key, or {@code null} if none
+   *
+   * @throws NullPointerException if either key or value is {@code null}
+   *
+   * @see Cache#replace(Object, Object)
+   */
+  CompletionStage<V> replaceAsync(K key, V value);
+
+  /**
+   * Asynchronously replaces the entry for a key only if currently mapped to the given value.
+   *
+   * @param key the key, may not be {@code null}
+   * @param oldValue value expected to be associated with the specified key, may not be {@code null}
+   * @param newValue value to be associated with the specified key, may not be {@code null}
+   * @return a stage completing with {@code true} if the value was replaced
+   *
+   * @throws NullPointerException if any of the values, or the key is {@code null}
+   *
+   * @see Cache#replace(Object, Object, Object)
+   */
+  CompletionStage<Boolean> replaceAsync(K key, V oldValue, V newValue);
+
+  /**
+   * Asynchronously and atomically computes a new mapping for the given key.
+   * <p>
+   * The remapping function is passed the key and the currently mapped value, or {@code null} if none, and returns
+   * the new value or {@code null} to remove the mapping. It runs while the mapping is locked and so must not block
+   * or access this cache.
+   *
+   * @param key the key, may not be {@code null}
+   * @param remappingFunction the function computing the new value, may not be {@code null}
+   * @return a stage completing with the new value associated with the key, or {@code null} if none
+   *
+   * @throws NullPointerException if either key or function is {@code null}
+   */
+  CompletionStage<V> computeAsync(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction);
+
+  /**
+   * Returns the blocking {@link Cache} this view operates on.
+   *
+   * @return the synchronous cache
+   */
+  Cache<K, V> synchronous();
+}
@@ -74,6 +74,26 @@ public interface CacheManager extends Closeable {
    */
   <K, V> Cache<K, V> getCache(String alias, Class<K> keyType, Class<V> valueType);
 
+  /**
+   * Retrieves a non-blocking {@link AsyncCache} view of the {@link Cache} associated with the given alias, if one is
+   * known.
+   * <p>
+   * The view shares all mappings, statistics and events with the cache returned by
+   * {@link #getCache(String, Class, Class)} and becomes unusable once that cache is removed.
+   *
+   * @param alias the alias under which to look the {@link Cache} up
+   * @param keyType the {@link Cache} key class
+   * @param valueType the {@link Cache} value class
+   * @param <K> the key type for the cache
+   * @param <V> the value type for the cache
+   * @return an {@link AsyncCache} view of the cache associated with the given alias, {@code null} if no such cache
+   * exists
+   *
+   * @throws java.lang.IllegalArgumentException if the keyType or valueType do not match the ones with which the
+   * {@code Cache} was created
+   */
+  <K, V> AsyncCache<K, V> getAsyncCache(String alias, Class<K> keyType, Class<V> valueType);
+
   /**
    * Removes the {@link Cache} associated with the alias provided, if one is known.
    * <p>
@@ -0,0 +1,57 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ehcache.event;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A {@link CacheEventListener} that receives {@link CacheEvent}s in batches.
+ * <p>
+ * When registered for {@link EventFiring#ASYNCHRONOUS asynchronous} firing, events are buffered by the cache and
+ * handed over in batches, which avoids paying for a dispatch task per event. Within a batch, and across batches,
+ * events for a given key are delivered in the order they were produced.
+ * <p>
+ * When registered for {@link EventFiring#SYNCHRONOUS synchronous} firing, each event is delivered on its own through
+ * {@link #onEvent(CacheEvent)}, which by default hands over a single element batch.
+ *
+ * @param <K> the key type for the observed cache
+ * @param <V> the value type for the observed cache
+ */
+public interface BatchCacheEventListener<K, V> extends CacheEventListener<K, V> {
+
+  /**
+   * Invoked with a batch of {@link CacheEvent}s.
+   * <p>
+   * Only events matching the {@link EventType}s provided at listener registration time are part of the batch.
+   * <p>
+   * Any exception thrown from this listener will be swallowed and logged but will not prevent other listeners to run.
+   *
+   * @param events the batch of events, never empty
+   */
+  void onEvents(List<? extends CacheEvent<? extends K, ? extends V>> events);
+
+  /**
+   * Delivers {@code event} as a single element batch.
+   *
+   * @param event the actual {@code CacheEvent}
+   */
+  @Override
+  default void onEvent(CacheEvent<? extends K, ? extends V> event) {
+    onEvents(Collections.singletonList(event));
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ehcache.spi.serialization;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Implementations of this interface can write the serial form of an instance into a buffer supplied by the caller.
+ * Tiers that reuse their encoding buffers then avoid allocating a new buffer on each write.
+ * 此接口的实现可以将实例的序列形式写入调用方提供的缓冲区。重用编码缓冲区的层因此无需在每次写入时分配新的缓冲区。
+ * <p>
+ * Implementations must be thread-safe.
+ * 实现必须是线程安全的。
+ * <p>
+ * The serial form written by {@link #serialize(Object, ByteBuffer)} must be identical to the one returned by
+ * {@link #serialize(Object)}.
+ * {@link #serialize(Object, ByteBuffer)}写入的序列形式必须与{@link #serialize(Object)}返回的序列形式相同。
+ *
+ * @param <T> the type of the instances to serialize
+ *
+ * @see Serializer
+ */
+public interface BufferSerializer<T> extends Serializer<T> {
+
+  /**
+   * Writes the serial form of the given instance into the given buffer, starting at its current position.
+   * 从给定缓冲区的当前位置开始，将给定实例的序列形式写入该缓冲区。
+   * <p>
+   * On return the position of the buffer is just past the serial form. If the serial form does not fit in the
+   * remaining space of the buffer, a {@link java.nio.BufferOverflowException} is thrown and the content of the
+   * buffer past its initial position is undefined: the caller is expected to retry with a larger buffer.
+   * 返回时缓冲区的位置紧接在序列形式之后。如果序列形式无法放入缓冲区的剩余空间，则抛出
+   * {@link java.nio.BufferOverflowException}，缓冲区初始位置之后的内容未定义：调用方应使用更大的缓冲区重试。
+   *
+   * @param object the instance to serialize
+   * @param target the buffer to write the serial form to
+   *
+   * @throws SerializerException if serialization fails
+   * @throws java.nio.BufferOverflowException if the serial form does not fit in the buffer
+   */
+  void serialize(T object, ByteBuffer target) throws SerializerException;
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ehcache.benchmarks;
+
+import java.util.Random;
+
+/**
+ * Generates a skewed key access trace interrupted by one-off scans, used when no recorded trace is provided.
+ * <p>
+ * Outside of scans, key {@code k} out of {@code n} is accessed with a probability decreasing as a power law of
+ * {@code k}. The last fifth of every 100&nbsp;000 accesses scans keys never seen before.
+ */
+public final class SyntheticTrace {
+
+  public static final int DEFAULT_ACCESSES = 1_000_000;
+  public static final int DEFAULT_KEYS = 100_000;
+
+  private static final int SCAN_INTERVAL = 100_000;
+  private static final int SCAN_LENGTH = 20_000;
+
+  private SyntheticTrace() {
+  }
+
+  /**
+   * Generates a trace with the default number of accesses and keys.
+   *
+   * @param seed the random seed
+   * @return the accessed keys, in order
+   */
+  public static long[] generate(long seed) {
+    return generate(DEFAULT_ACCESSES, DEFAULT_KEYS, seed);
+  }
+
+  /**
+   * Generates a trace.
+   *
+   * @param accesses the number of accesses
+   * @param keys the number of keys of the skewed part of the trace
+   * @param seed the random seed
+   * @return the accessed keys, in order
+   */
+  public static long[] generate(int accesses, int keys, long seed) {
+    Random random = new Random(seed);
+    long[] trace = new long[accesses];
+    long scanKey = keys;
+    for (int i = 0; i < accesses; i++) {
+      if (i % SCAN_INTERVAL >= SCAN_INTERVAL - SCAN_LENGTH) {
+        trace[i] = scanKey++;
+      } else {
+        trace[i] = (long) (keys * Math.pow(random.nextDouble(), 4));
+      }
+    }
+    return trace;
+  }
+}
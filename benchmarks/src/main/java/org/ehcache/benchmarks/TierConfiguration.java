@@ -0,0 +1,106 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ehcache.benchmarks;
+
+import org.ehcache.config.ResourcePools;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.config.units.EntryUnit;
+import org.ehcache.config.units.MemoryUnit;
+
+import static org.ehcache.config.builders.ResourcePoolsBuilder.newResourcePoolsBuilder;
+
+/**
+ * The tier combinations a trace can be replayed against, and the store each of them ends up using.
+ */
+public enum TierConfiguration {
+
+  /**
+   * {@code OnHeapStore} alone.
+   */
+  HEAP(true, false, false),
+  /**
+   * {@code OffHeapStore} alone.
+   */
+  OFFHEAP(false, true, false),
+  /**
+   * {@code OffHeapDiskStore} alone.
+   */
+  DISK(false, false, true),
+  /**
+   * {@code TieredStore} with an {@code OnHeapStore} caching tier over an {@code OffHeapStore} authority.
+   */
+  HEAP_OFFHEAP(true, true, false),
+  /**
+   * {@code TieredStore} with an {@code OnHeapStore} caching tier over an {@code OffHeapDiskStore} authority.
+   */
+  HEAP_DISK(true, false, true),
+  /**
+   * {@code TieredStore} with a {@code CompoundCachingTier} of heap and offheap over an {@code OffHeapDiskStore}
+   * authority.
+   */
+  HEAP_OFFHEAP_DISK(true, true, true);
+
+  private final boolean heap;
+  private final boolean offheap;
+  private final boolean disk;
+
+  TierConfiguration(boolean heap, boolean offheap, boolean disk) {
+    this.heap = heap;
+    this.offheap = offheap;
+    this.disk = disk;
+  }
+
+  /**
+   * Returns whether this configuration has a heap tier.
+   *
+   * @return {@code true} if there is a heap tier
+   */
+  public boolean hasHeap() {
+    return heap;
+  }
+
+  /**
+   * Returns whether this configuration needs a persistence directory.
+   *
+   * @return {@code true} if there is a disk tier
+   */
+  public boolean hasDisk() {
+    return disk;
+  }
+
+  /**
+   * Builds the resource pools of this configuration.
+   *
+   * @param heapEntries the heap tier size in entries
+   * @param offheapMb the offheap tier size in megabytes
+   * @param diskMb the disk tier size in megabytes
+   * @return the resource pools
+   */
+  public ResourcePools resourcePools(long heapEntries, long offheapMb, long diskMb) {
+    ResourcePoolsBuilder builder = newResourcePoolsBuilder();
+    if (heap) {
+      builder = builder.heap(heapEntries, EntryUnit.ENTRIES);
+    }
+    if (offheap) {
+      builder = builder.offheap(offheapMb, MemoryUnit.MB);
+    }
+    if (disk) {
+      builder = builder.disk(diskMb, MemoryUnit.MB);
+    }
+    return builder.build();
+  }
+}
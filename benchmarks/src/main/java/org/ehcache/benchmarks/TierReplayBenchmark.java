@@ -0,0 +1,123 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ehcache.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of replaying a trace against each {@link TierConfiguration}, reporting hits and misses as
+ * secondary results.
+ * <p>
+ * Latency percentiles are available by running in sample mode ({@code -bm sample}) and allocation rates through the
+ * GC profiler ({@code -prof gc}). The trace is replayed in a loop, so after the first pass the hit ratio reflects a
+ * warm cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(1)
+@Fork(1)
+public class TierReplayBenchmark {
+
+  @Param({"HEAP", "OFFHEAP", "DISK", "HEAP_OFFHEAP", "HEAP_DISK", "HEAP_OFFHEAP_DISK"})
+  public TierConfiguration tiers;
+
+  @Param({"SAMPLED_LRU"})
+  public TraceReplay.HeapPolicy heapPolicy;
+
+  @Param({""})
+  public String trace;
+
+  @Param({"LIRS"})
+  public TraceFormat format;
+
+  @Param({"5000"})
+  public long heapEntries;
+
+  @Param({"16"})
+  public long offheapMb;
+
+  @Param({"64"})
+  public long diskMb;
+
+  @Param({"64"})
+  public int valueSize;
+
+  private long[] keys;
+  private TraceReplay replay;
+  private int position;
+
+  /**
+   * Hits and misses of the current iteration.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Counters {
+    public long hits;
+    public long misses;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      hits = 0;
+      misses = 0;
+    }
+  }
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    keys = trace.isEmpty() ? SyntheticTrace.generate(42) : format.read(Paths.get(trace));
+    replay = new TraceReplay(tiers, new TraceReplay.Settings().heapEntries(heapEntries).offheapMb(offheapMb)
+      .diskMb(diskMb).valueSize(valueSize).heapPolicy(heapPolicy));
+    position = 0;
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    replay.close();
+  }
+
+  @Benchmark
+  public void replay(Counters counters) {
+    if (replay.access(keys[position])) {
+      counters.hits++;
+    } else {
+      counters.misses++;
+    }
+    if (++position == keys.length) {
+      position = 0;
+    }
+  }
+}
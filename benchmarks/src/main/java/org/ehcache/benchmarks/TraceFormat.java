@@ -0,0 +1,123 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ehcache.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Text formats of key access traces.
+ * <p>
+ * Blank lines and lines starting with {@code #} are ignored in all formats.
+ */
+public enum TraceFormat {
+
+  /**
+   * LIRS traces: one block number per line. Lines that are not a number, such as the {@code *} separators of some
+   * traces, are ignored.
+   */
+  LIRS {
+    @Override
+    LongStream keys(String line, Map<String, Long> identifiers) {
+      String token = firstToken(line);
+      return isNumber(token) ? LongStream.of(Long.parseLong(token)) : LongStream.empty();
+    }
+  },
+
+  /**
+   * ARC traces: {@code <start block> <block count> <ignored> <request number>} per line, each line accessing
+   * {@code <block count>} consecutive blocks.
+   */
+  ARC {
+    @Override
+    LongStream keys(String line, Map<String, Long> identifiers) {
+      String[] tokens = line.split("\\s+");
+      if (tokens.length < 2) {
+        throw new IllegalArgumentException("Malformed ARC trace line: " + line);
+      }
+      long start = Long.parseLong(tokens[0]);
+      return LongStream.range(start, start + Long.parseLong(tokens[1]));
+    }
+  },
+
+  /**
+   * Comma separated values, the key being the first column. Keys can be any string, distinct keys are numbered in
+   * order of first appearance.
+   */
+  CSV {
+    @Override
+    LongStream keys(String line, Map<String, Long> identifiers) {
+      int comma = line.indexOf(',');
+      String key = (comma < 0 ? line : line.substring(0, comma)).trim();
+      return LongStream.of(identifiers.computeIfAbsent(key, k -> (long) identifiers.size()));
+    }
+  };
+
+  /**
+   * Reads all key accesses of a trace file.
+   *
+   * @param file the trace file
+   * @return the accessed keys, in order
+   * @throws IOException if the file cannot be read
+   */
+  public long[] read(Path file) throws IOException {
+    try (Stream<String> lines = Files.lines(file)) {
+      return parse(lines);
+    }
+  }
+
+  /**
+   * Parses key accesses from trace lines.
+   *
+   * @param lines the trace lines
+   * @return the accessed keys, in order
+   */
+  public long[] parse(Stream<String> lines) {
+    Map<String, Long> identifiers = new HashMap<>();
+    return lines.map(String::trim)
+      .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+      .flatMapToLong(line -> keys(line, identifiers))
+      .toArray();
+  }
+
+  abstract LongStream keys(String line, Map<String, Long> identifiers);
+
+  private static String firstToken(String line) {
+    int end = 0;
+    while (end < line.length() && !Character.isWhitespace(line.charAt(end))) {
+      end++;
+    }
+    return line.substring(0, end);
+  }
+
+  private static boolean isNumber(String token) {
+    if (token.isEmpty()) {
+      return false;
+    }
+    for (int i = token.charAt(0) == '-' ? 1 : 0; i < token.length(); i++) {
+      if (!Character.isDigit(token.charAt(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
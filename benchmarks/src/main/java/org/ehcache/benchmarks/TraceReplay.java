@@ -0,0 +1,335 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ehcache.benchmarks;
+
+import org.ehcache.Cache;
+import org.ehcache.CacheManager;
+import org.ehcache.CachePersistenceException;
+import org.ehcache.PersistentCacheManager;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.CacheManagerBuilder;
+import org.ehcache.impl.config.store.heap.HeapEvictionPolicyConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toCollection;
+import static org.ehcache.config.builders.CacheConfigurationBuilder.newCacheConfigurationBuilder;
+import static org.ehcache.config.builders.CacheManagerBuilder.newCacheManagerBuilder;
+import static org.ehcache.config.builders.CacheManagerBuilder.persistence;
+
+/**
+ * Replays a key access trace against a cache, the way a cache-aside application would: every access is a get, and
+ * a miss is followed by a put of the key.
+ * <p>
+ * Run through {@link #main(String[])} to replay a trace against each {@link TierConfiguration} in turn and print the
+ * hit ratio, throughput, latency percentiles and allocations per access of each. Supported options:
+ * <ul>
+ *   <li>{@code --trace <file>} the trace to replay, a synthetic skewed workload with scans by default</li>
+ *   <li>{@code --format LIRS|ARC|CSV} the trace {@link TraceFormat format}, {@code LIRS} by default</li>
+ *   <li>{@code --tiers HEAP,OFFHEAP,...} the tier configurations to replay against, all by default</li>
+ *   <li>{@code --heap <entries>}, {@code --offheap <MB>}, {@code --disk <MB>} the tier sizes</li>
+ *   <li>{@code --value-size <bytes>} the size of the cached values</li>
+ *   <li>{@code --heap-policy SAMPLED_LRU|W_TINY_LFU} the heap tier eviction policy</li>
+ *   <li>{@code --no-warmup} skips the replay on a throwaway cache that warms the JIT up before measuring</li>
+ * </ul>
+ * Allocations are those of the replaying thread only, work done by background threads is not accounted for.
+ */
+public final class TraceReplay implements AutoCloseable {
+
+  private static final String CACHE_ALIAS = "trace";
+
+  /**
+   * Heap tier eviction policies.
+   */
+  public enum HeapPolicy {
+    SAMPLED_LRU {
+      @Override
+      HeapEvictionPolicyConfiguration configuration() {
+        return HeapEvictionPolicyConfiguration.sampledLru();
+      }
+    },
+    W_TINY_LFU {
+      @Override
+      HeapEvictionPolicyConfiguration configuration() {
+        return HeapEvictionPolicyConfiguration.windowTinyLfu();
+      }
+    };
+
+    abstract HeapEvictionPolicyConfiguration configuration();
+  }
+
+  /**
+   * Sizes and settings of the replayed cache.
+   */
+  public static final class Settings {
+    long heapEntries = 5000;
+    long offheapMb = 16;
+    long diskMb = 64;
+    int valueSize = 64;
+    HeapPolicy heapPolicy = HeapPolicy.SAMPLED_LRU;
+
+    public Settings heapEntries(long heapEntries) {
+      this.heapEntries = heapEntries;
+      return this;
+    }
+
+    public Settings offheapMb(long offheapMb) {
+      this.offheapMb = offheapMb;
+      return this;
+    }
+
+    public Settings diskMb(long diskMb) {
+      this.diskMb = diskMb;
+      return this;
+    }
+
+    public Settings valueSize(int valueSize) {
+      this.valueSize = valueSize;
+      return this;
+    }
+
+    public Settings heapPolicy(HeapPolicy heapPolicy) {
+      this.heapPolicy = heapPolicy;
+      return this;
+    }
+  }
+
+  private final CacheManager cacheManager;
+  private final Cache<Long, byte[]> cache;
+  private final byte[] value;
+  private final Path directory;
+
+  /**
+   * Creates a cache using the given tiers.
+   *
+   * @param tiers the tier configuration
+   * @param settings the tier sizes and cache settings
+   * @throws IOException if the persistence directory cannot be created
+   */
+  public TraceReplay(TierConfiguration tiers, Settings settings) throws IOException {
+    CacheConfigurationBuilder<Long, byte[]> cacheConfiguration = newCacheConfigurationBuilder(Long.class, byte[].class,
+      tiers.resourcePools(settings.heapEntries, settings.offheapMb, settings.diskMb));
+    if (tiers.hasHeap()) {
+      cacheConfiguration = cacheConfiguration.withService(settings.heapPolicy.configuration());
+    }
+    if (tiers.hasDisk()) {
+      this.directory = Files.createTempDirectory("ehcache-replay");
+      this.cacheManager = newCacheManagerBuilder().with(persistence(directory.toFile()))
+        .withCache(CACHE_ALIAS, cacheConfiguration).build(true);
+    } else {
+      this.directory = null;
+      this.cacheManager = newCacheManagerBuilder().withCache(CACHE_ALIAS, cacheConfiguration).build(true);
+    }
+    this.cache = cacheManager.getCache(CACHE_ALIAS, Long.class, byte[].class);
+    this.value = new byte[settings.valueSize];
+  }
+
+  /**
+   * Accesses a key, putting it in the cache on a miss.
+   *
+   * @param key the accessed key
+   * @return {@code true} on a hit
+   */
+  public boolean access(long key) {
+    if (cache.get(key) == null) {
+      cache.put(key, value);
+      return false;
+    } else {
+      return true;
+    }
+  }
+
+  /**
+   * Replays all accesses of a trace, measuring each of them.
+   *
+   * @param keys the accessed keys
+   * @return the replay measurements
+   */
+  public Result replay(long[] keys) {
+    LatencyHistogram latencies = new LatencyHistogram();
+    long hits = 0;
+    long allocatedBefore = allocatedBytes();
+    long start = System.nanoTime();
+    for (long key : keys) {
+      long accessStart = System.nanoTime();
+      if (access(key)) {
+        hits++;
+      }
+      latencies.record(System.nanoTime() - accessStart);
+    }
+    long elapsed = System.nanoTime() - start;
+    long allocatedAfter = allocatedBytes();
+    long allocated = allocatedBefore < 0 ? -1 : allocatedAfter - allocatedBefore;
+    return new Result(keys.length, hits, elapsed, latencies, allocated);
+  }
+
+  @Override
+  public void close() throws CachePersistenceException, IOException {
+    cacheManager.close();
+    if (directory != null) {
+      ((PersistentCacheManager) cacheManager).destroy();
+      if (Files.exists(directory)) {
+        try (Stream<Path> files = Files.walk(directory)) {
+          files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+      }
+    }
+  }
+
+  /**
+   * Measurements of a replay.
+   */
+  public static final class Result {
+    private final long accesses;
+    private final long hits;
+    private final long elapsedNanos;
+    private final LatencyHistogram latencies;
+    private final long allocatedBytes;
+
+    Result(long accesses, long hits, long elapsedNanos, LatencyHistogram latencies, long allocatedBytes) {
+      this.accesses = accesses;
+      this.hits = hits;
+      this.elapsedNanos = elapsedNanos;
+      this.latencies = latencies;
+      this.allocatedBytes = allocatedBytes;
+    }
+
+    public double hitRatio() {
+      return accesses == 0 ? 0 : (double) hits / accesses;
+    }
+
+    public double throughput() {
+      return elapsedNanos == 0 ? 0 : accesses * 1e9 / elapsedNanos;
+    }
+
+    public LatencyHistogram latencies() {
+      return latencies;
+    }
+
+    /**
+     * Returns the bytes allocated per access by the replaying thread.
+     *
+     * @return bytes allocated per access, or {@code -1} if the JVM does not measure thread allocations
+     */
+    public double allocatedBytesPerAccess() {
+      return allocatedBytes < 0 || accesses == 0 ? -1 : (double) allocatedBytes / accesses;
+    }
+  }
+
+  private static long allocatedBytes() {
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    if (threads instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+      if (allocations.isThreadAllocatedMemorySupported() && allocations.isThreadAllocatedMemoryEnabled()) {
+        return allocations.getThreadAllocatedBytes(Thread.currentThread().getId());
+      }
+    }
+    return -1;
+  }
+
+  public static void main(String[] args) throws Exception {
+    Settings settings = new Settings();
+    String trace = null;
+    TraceFormat format = TraceFormat.LIRS;
+    Set<TierConfiguration> tiers = EnumSet.allOf(TierConfiguration.class);
+    boolean warmup = true;
+
+    for (Iterator<String> it = Arrays.asList(args).iterator(); it.hasNext(); ) {
+      String option = it.next();
+      switch (option) {
+        case "--trace":
+          trace = argument(option, it);
+          break;
+        case "--format":
+          format = TraceFormat.valueOf(argument(option, it).toUpperCase(Locale.ROOT));
+          break;
+        case "--tiers":
+          tiers = Stream.of(argument(option, it).split(","))
+            .map(t -> TierConfiguration.valueOf(t.trim().toUpperCase(Locale.ROOT)))
+            .collect(toCollection(() -> EnumSet.noneOf(TierConfiguration.class)));
+          break;
+        case "--heap":
+          settings.heapEntries(Long.parseLong(argument(option, it)));
+          break;
+        case "--offheap":
+          settings.offheapMb(Long.parseLong(argument(option, it)));
+          break;
+        case "--disk":
+          settings.diskMb(Long.parseLong(argument(option, it)));
+          break;
+        case "--value-size":
+          settings.valueSize(Integer.parseInt(argument(option, it)));
+          break;
+        case "--heap-policy":
+          settings.heapPolicy(HeapPolicy.valueOf(argument(option, it).toUpperCase(Locale.ROOT)));
+          break;
+        case "--no-warmup":
+          warmup = false;
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown option: " + option);
+      }
+    }
+
+    long[] keys = trace == null ? SyntheticTrace.generate(42) : format.read(Paths.get(trace));
+    System.out.printf(Locale.ROOT, "%s: %d accesses, heap %d entries, offheap %d MB, disk %d MB, %d byte values, %s heap policy%n",
+      trace == null ? "synthetic trace" : trace, keys.length, settings.heapEntries, settings.offheapMb, settings.diskMb,
+      settings.valueSize, settings.heapPolicy);
+    System.out.printf(Locale.ROOT, "%-18s %9s %11s %9s %9s %9s %9s %9s %10s%n",
+      "tiers", "hit ratio", "ops/s", "p50 us", "p90 us", "p99 us", "p99.9 us", "max us", "bytes/op");
+
+    for (TierConfiguration configuration : tiers) {
+      if (warmup) {
+        try (TraceReplay replay = new TraceReplay(configuration, settings)) {
+          replay.replay(keys);
+        }
+      }
+      try (TraceReplay replay = new TraceReplay(configuration, settings)) {
+        Result result = replay.replay(keys);
+        LatencyHistogram latencies = result.latencies();
+        System.out.printf(Locale.ROOT, "%-18s %8.2f%% %11.0f %9.2f %9.2f %9.2f %9.2f %9.2f %10.1f%n",
+          configuration, 100 * result.hitRatio(), result.throughput(),
+          micros(latencies.percentile(50)), micros(latencies.percentile(90)), micros(latencies.percentile(99)),
+          micros(latencies.percentile(99.9)), micros(latencies.max()), result.allocatedBytesPerAccess());
+      }
+    }
+  }
+
+  private static String argument(String option, Iterator<String> it) {
+    if (!it.hasNext()) {
+      throw new IllegalArgumentException("Missing value for " + option);
+    }
+    return it.next();
+  }
+
+  private static double micros(long nanos) {
+    return nanos / 1000.0;
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ehcache.benchmarks;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class LatencyHistogramTest {
+
+  @Test
+  public void testBucketsCoverAllValues() {
+    for (long value : new long[] {0, 1, 15, 16, 17, 31, 32, 1000, 123456789, Long.MAX_VALUE}) {
+      long highest = LatencyHistogram.highestValueAt(LatencyHistogram.indexOf(value));
+      assertThat(highest, greaterThanOrEqualTo(value));
+      assertThat(highest - value, lessThanOrEqualTo(value / 16));
+    }
+  }
+
+  @Test
+  public void testPercentiles() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 1; i <= 1000; i++) {
+      histogram.record(i * 1000L);
+    }
+    assertThat(histogram.count(), is(1000L));
+    assertThat(histogram.max(), is(1_000_000L));
+    assertThat(histogram.percentile(50), allOf(greaterThanOrEqualTo(500_000L), lessThanOrEqualTo(532_000L)));
+    assertThat(histogram.percentile(99), allOf(greaterThanOrEqualTo(990_000L), lessThanOrEqualTo(1_000_000L)));
+    assertThat(histogram.percentile(100), is(1_000_000L));
+  }
+
+  @Test
+  public void testEmpty() {
+    assertThat(new LatencyHistogram().percentile(99), is(0L));
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ehcache.benchmarks;
+
+import org.junit.Test;
+
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class TraceFormatTest {
+
+  @Test
+  public void testLirs() {
+    long[] keys = TraceFormat.LIRS.parse(Stream.of("# comment", "12", "*", "", "7 extra", "12"));
+    assertThat(keys, is(new long[] {12, 7, 12}));
+  }
+
+  @Test
+  public void testArcExpandsBlockRanges() {
+    long[] keys = TraceFormat.ARC.parse(Stream.of("100 3 0 1", "5 1 0 2"));
+    assertThat(keys, is(new long[] {100, 101, 102, 5}));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMalformedArcLine() {
+    TraceFormat.ARC.parse(Stream.of("100"));
+  }
+
+  @Test
+  public void testCsvNumbersDistinctKeys() {
+    long[] keys = TraceFormat.CSV.parse(Stream.of("#key,timestamp", "foo,1", "bar,2", "foo,3", "baz"));
+    assertThat(keys, is(new long[] {0, 1, 0, 2}));
+  }
+}
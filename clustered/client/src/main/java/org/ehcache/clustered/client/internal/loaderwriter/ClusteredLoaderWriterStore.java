@@ -125,6 +125,12 @@ public class ClusteredLoaderWriterStore<K, V> extends ClusteredStore<K, V> imple
     storeProxy.append(extractedKey, payload);
   }
 
+  @Override
+  protected boolean batchesBulkOperations() {
+    // misses and mutations go through the loader-writer one key at a time
+    return false;
+  }
+
   @Override
   protected void silentPut(K key, V value) throws StoreAccessException {
     try {
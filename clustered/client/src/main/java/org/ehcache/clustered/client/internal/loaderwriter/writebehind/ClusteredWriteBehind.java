@@ -25,77 +25,311 @@ import org.ehcache.clustered.common.internal.store.operations.codecs.OperationsC
 import org.ehcache.clustered.common.internal.store.Chain;
 import org.ehcache.clustered.common.internal.store.Element;
 import org.ehcache.spi.loaderwriter.CacheLoaderWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeoutException;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Flushes the pending writer operations held in the chains of a {@link ClusteredWriteBehindStore}.
+ * <p>
+ * Hashes signalled for compaction are accumulated until {@code batchSize} of them are pending or {@code maxDelayMs}
+ * has elapsed. A flush then locks all of them, resolves their chains and hands the resulting operations to the
+ * loader-writer as {@code writeAll}/{@code deleteAll} batches of at most {@code batchSize} entries, before replacing
+ * the chains and releasing the locks.
+ */
 class ClusteredWriteBehind<K, V> {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ClusteredWriteBehind.class);
+
   private final ClusteredWriteBehindStore<K, V> clusteredWriteBehindStore;
   private final ExecutorService executorService;
+  private final ScheduledExecutorService scheduledExecutor;
   private final CacheLoaderWriter<? super K, V> cacheLoaderWriter;
   private final OperationsCodec<K, V> codec;
   private final ChainResolver<K, V> resolver;
 
+  private final int batchSize;
+  private final long maxDelayMs;
+  private final boolean coalescing;
+
+  private Set<Long> pendingHashes = new TreeSet<>();
+  private ScheduledFuture<?> expireTask;
+  private boolean stopped;
+
   ClusteredWriteBehind(ClusteredWriteBehindStore<K, V> clusteredWriteBehindStore,
                        ExecutorService executorService,
                        ChainResolver<K, V> resolver,
                        CacheLoaderWriter<? super K, V> cacheLoaderWriter,
                        OperationsCodec<K, V> codec) {
+    this(clusteredWriteBehindStore, executorService, null, resolver, cacheLoaderWriter, codec, 1, 0L, false);
+  }
+
+  ClusteredWriteBehind(ClusteredWriteBehindStore<K, V> clusteredWriteBehindStore,
+                       ExecutorService executorService,
+                       ScheduledExecutorService scheduledExecutor,
+                       ChainResolver<K, V> resolver,
+                       CacheLoaderWriter<? super K, V> cacheLoaderWriter,
+                       OperationsCodec<K, V> codec,
+                       int batchSize, long maxDelayMs, boolean coalescing) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+    }
+    if (batchSize > 1 && scheduledExecutor == null) {
+      throw new IllegalArgumentException("Batching requires a scheduled executor");
+    }
     this.clusteredWriteBehindStore = clusteredWriteBehindStore;
     this.executorService = executorService;
+    this.scheduledExecutor = scheduledExecutor;
     this.resolver = resolver;
     this.cacheLoaderWriter = cacheLoaderWriter;
     this.codec = codec;
+    this.batchSize = batchSize;
+    this.maxDelayMs = maxDelayMs;
+    this.coalescing = coalescing;
   }
 
   void flushWriteBehindQueue(Chain ignored, long hash) {
-    executorService.submit(() -> {
-      try {
-        Chain chain = clusteredWriteBehindStore.lock(hash);
+    Set<Long> batch;
+    synchronized (this) {
+      pendingHashes.add(hash);
+      if (pendingHashes.size() < batchSize && !stopped) {
+        if (expireTask == null) {
+          expireTask = scheduledExecutor.schedule(this::flushPending, maxDelayMs, MILLISECONDS);
+        }
+        return;
+      }
+      batch = takePending();
+    }
+    submit(batch);
+  }
+
+  /**
+   * Flushes whatever hashes are still pending, waits for that flush to complete and shuts the scheduled executor
+   * down.  Hashes signalled afterwards are flushed straight away.
+   */
+  void stop() {
+    Set<Long> batch;
+    synchronized (this) {
+      stopped = true;
+      batch = takePending();
+    }
+    try {
+      if (!batch.isEmpty()) {
+        Future<?> flush = submit(batch);
+        boolean interrupted = false;
         try {
-          if (!chain.isEmpty()) {
-            Map<K, PutOperation<K, V>> currentState = new HashMap<>();
-            for (Element element : chain) {
-              ByteBuffer payload = element.getPayload();
-              Operation<K, V> operation = codec.decode(payload);
-              K key = operation.getKey();
-              PutOperation<K, V> result = resolver.applyOperation(key,
-                                                                  currentState.get(key),
-                                                                  operation);
-              try {
-                if (result != null) {
-                  if (result != currentState.get(key) && !(operation instanceof PutOperation)) {
-                    cacheLoaderWriter.write(result.getKey(), result.getValue());
-                  }
-                  currentState.put(key, result.asOperationExpiringAt(result.expirationTime()));
-                } else {
-                  if (currentState.get(key) != null && (operation instanceof RemoveOperation
-                                                        || operation instanceof ConditionalRemoveOperation)) {
-                    cacheLoaderWriter.delete(key);
-                  }
-                  currentState.remove(key);
-                }
-              } catch (Exception e) {
-                throw new RuntimeException(e);
-              }
+          while (true) {
+            try {
+              flush.get();
+              break;
+            } catch (InterruptedException e) {
+              interrupted = true;
             }
+          }
+        } finally {
+          if (interrupted) {
+            Thread.currentThread().interrupt();
+          }
+        }
+      }
+    } catch (ExecutionException e) {
+      LOGGER.error("Exception flushing write behind batch on shutdown", e.getCause());
+    } finally {
+      /*
+       * The scheduled executor only holds the cancelled expiry task by now, which could stall a regular shutdown
+       * for up to the max write delay.
+       */
+      if (scheduledExecutor != null) {
+        scheduledExecutor.shutdownNow();
+      }
+    }
+  }
 
-            ChainBuilder builder = new ChainBuilder();
-            for (PutOperation<K, V> operation : currentState.values()) {
-              builder = builder.add(codec.encode(operation));
-            }
+  private void flushPending() {
+    Set<Long> batch;
+    synchronized (this) {
+      batch = takePending();
+    }
+    if (!batch.isEmpty()) {
+      submit(batch);
+    }
+  }
+
+  private Set<Long> takePending() {
+    Set<Long> batch = pendingHashes;
+    pendingHashes = new TreeSet<>();
+    if (expireTask != null) {
+      expireTask.cancel(false);
+      expireTask = null;
+    }
+    return batch;
+  }
 
-            clusteredWriteBehindStore.replaceAtHead(hash, chain, builder.build());
+  private Future<?> submit(Set<Long> hashes) {
+    return executorService.submit(() -> flush(hashes));
+  }
+
+  /*
+   * Hashes are locked in ascending order so that concurrent flushes from several clients can never deadlock on
+   * each other's locks.
+   */
+  private void flush(Set<Long> hashes) {
+    Map<Long, Chain> locked = new LinkedHashMap<>();
+    try {
+      try {
+        Map<Long, Chain> replacements = new HashMap<>();
+        List<WriterOperation<K, V>> operations = new ArrayList<>();
+        for (long hash : hashes) {
+          Chain chain = clusteredWriteBehindStore.lock(hash);
+          locked.put(hash, chain);
+          if (!chain.isEmpty()) {
+            replacements.put(hash, resolve(chain, operations));
           }
-        } finally {
+        }
+
+        performOperations(coalescing ? coalesce(operations) : operations);
+
+        for (Map.Entry<Long, Chain> replacement : replacements.entrySet()) {
+          long hash = replacement.getKey();
+          clusteredWriteBehindStore.replaceAtHead(hash, locked.get(hash), replacement.getValue());
+        }
+      } finally {
+        for (long hash : locked.keySet()) {
           clusteredWriteBehindStore.unlock(hash, false);
         }
-      } catch (TimeoutException e) {
-        throw new RuntimeException(e);
       }
-    });
+    } catch (TimeoutException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private Chain resolve(Chain chain, List<WriterOperation<K, V>> operations) {
+    Map<K, PutOperation<K, V>> currentState = new HashMap<>();
+    for (Element element : chain) {
+      ByteBuffer payload = element.getPayload();
+      Operation<K, V> operation = codec.decode(payload);
+      K key = operation.getKey();
+      PutOperation<K, V> result = resolver.applyOperation(key,
+                                                          currentState.get(key),
+                                                          operation);
+      if (result != null) {
+        if (result != currentState.get(key) && !(operation instanceof PutOperation)) {
+          operations.add(new WriterOperation<>(key, result.getValue()));
+        }
+        currentState.put(key, result.asOperationExpiringAt(result.expirationTime()));
+      } else {
+        if (currentState.get(key) != null && (operation instanceof RemoveOperation
+                                              || operation instanceof ConditionalRemoveOperation)) {
+          operations.add(new WriterOperation<>(key, null));
+        }
+        currentState.remove(key);
+      }
+    }
+
+    ChainBuilder builder = new ChainBuilder();
+    for (PutOperation<K, V> operation : currentState.values()) {
+      builder = builder.add(codec.encode(operation));
+    }
+    return builder.build();
+  }
+
+  private static <K, V> Iterable<WriterOperation<K, V>> coalesce(List<WriterOperation<K, V>> operations) {
+    Map<K, WriterOperation<K, V>> latest = new LinkedHashMap<>();
+    for (WriterOperation<K, V> operation : operations) {
+      latest.put(operation.key, operation);
+    }
+    return latest.values();
+  }
+
+  /*
+   * Writes and deletes are grouped in to monomorphic batches. Both open batches are closed as soon as an operation
+   * touches a key one of them already contains, so the writer always sees the operations on a given key in chain
+   * order.
+   */
+  private void performOperations(Iterable<WriterOperation<K, V>> operations) {
+    Map<K, V> writes = new LinkedHashMap<>();
+    Set<K> deletes = new LinkedHashSet<>();
+
+    for (WriterOperation<K, V> operation : operations) {
+      if (writes.containsKey(operation.key) || deletes.contains(operation.key)) {
+        writeAll(writes);
+        deleteAll(deletes);
+      }
+      if (operation.isDelete()) {
+        deletes.add(operation.key);
+        if (deletes.size() >= batchSize) {
+          deleteAll(deletes);
+        }
+      } else {
+        writes.put(operation.key, operation.value);
+        if (writes.size() >= batchSize) {
+          writeAll(writes);
+        }
+      }
+    }
+
+    writeAll(writes);
+    deleteAll(deletes);
+  }
+
+  private void writeAll(Map<K, V> writes) {
+    try {
+      if (writes.size() == 1) {
+        Map.Entry<K, V> write = writes.entrySet().iterator().next();
+        cacheLoaderWriter.write(write.getKey(), write.getValue());
+      } else if (!writes.isEmpty()) {
+        cacheLoaderWriter.writeAll(new ArrayList<>(writes.entrySet()));
+      }
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    } finally {
+      writes.clear();
+    }
+  }
+
+  private void deleteAll(Set<K> deletes) {
+    try {
+      if (deletes.size() == 1) {
+        cacheLoaderWriter.delete(deletes.iterator().next());
+      } else if (!deletes.isEmpty()) {
+        cacheLoaderWriter.deleteAll(new ArrayList<>(deletes));
+      }
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    } finally {
+      deletes.clear();
+    }
+  }
+
+  private static final class WriterOperation<K, V> {
+
+    private final K key;
+    private final V value;
+
+    WriterOperation(K key, V value) {
+      this.key = key;
+      this.value = value;
+    }
+
+    boolean isDelete() {
+      return value == null;
+    }
   }
 }
@@ -34,12 +34,14 @@ import org.ehcache.clustered.common.internal.store.Chain;
 import org.ehcache.config.ResourceType;
 import org.ehcache.core.events.StoreEventDispatcher;
 import org.ehcache.core.spi.service.StatisticsService;
+import org.ehcache.core.spi.store.Store;
 import org.ehcache.core.spi.store.tiering.AuthoritativeTier;
 import org.ehcache.core.spi.time.TimeSource;
 import org.ehcache.core.spi.time.TimeSourceService;
 import org.ehcache.impl.store.DefaultStoreEventDispatcher;
 import org.ehcache.spi.loaderwriter.CacheLoaderWriter;
 import org.ehcache.spi.loaderwriter.WriteBehindConfiguration;
+import org.ehcache.spi.loaderwriter.WriteBehindConfiguration.BatchingConfiguration;
 import org.ehcache.spi.resilience.StoreAccessException;
 import org.ehcache.spi.service.ServiceConfiguration;
 import org.ehcache.spi.service.ServiceDependencies;
@@ -49,6 +51,7 @@ import java.util.Collection;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeoutException;
 
 import static org.ehcache.core.exceptions.StorePassThroughException.handleException;
@@ -65,13 +68,25 @@ public class ClusteredWriteBehindStore<K, V> extends ClusteredStore<K, V> implem
                                     TimeSource timeSource,
                                     CacheLoaderWriter<? super K, V> loaderWriter,
                                     ExecutorService executorService,
+                                    ScheduledExecutorService scheduledExecutor,
+                                    BatchingConfiguration batchingConfiguration,
                                     StoreEventDispatcher<K, V> storeEventDispatcher, StatisticsService statisticsService) {
     super(config, codec, resolver, timeSource, storeEventDispatcher, statisticsService);
     this.cacheLoaderWriter = loaderWriter;
-    this.clusteredWriteBehind = new ClusteredWriteBehind<>(this, executorService,
-                                                         resolver,
-                                                         this.cacheLoaderWriter,
-                                                         codec);
+    if (batchingConfiguration == null) {
+      this.clusteredWriteBehind = new ClusteredWriteBehind<>(this, executorService,
+                                                             resolver,
+                                                             this.cacheLoaderWriter,
+                                                             codec);
+    } else {
+      this.clusteredWriteBehind = new ClusteredWriteBehind<>(this, executorService, scheduledExecutor,
+                                                             resolver,
+                                                             this.cacheLoaderWriter,
+                                                             codec,
+                                                             batchingConfiguration.getBatchSize(),
+                                                             batchingConfiguration.getMaxDelayUnit().toMillis(batchingConfiguration.getMaxDelay()),
+                                                             batchingConfiguration.isCoalescing());
+    }
   }
 
 
@@ -129,6 +144,12 @@ public class ClusteredWriteBehindStore<K, V> extends ClusteredStore<K, V> implem
     storeProxy.append(extractedKey, payload);
   }
 
+  @Override
+  protected boolean batchesBulkOperations() {
+    // misses go through the loader and mutations through the write-behind queue one key at a time
+    return false;
+  }
+
   @Override
   protected void silentPut(final K key, final V value) throws StoreAccessException {
     try {
@@ -274,6 +295,9 @@ public class ClusteredWriteBehindStore<K, V> extends ClusteredStore<K, V> implem
         ExecutorService executorService =
           executionService.getOrderedExecutor(writeBehindConfiguration.getThreadPoolAlias(),
                                               new LinkedBlockingQueue<>());
+        BatchingConfiguration batchingConfiguration = writeBehindConfiguration.getBatchingConfiguration();
+        ScheduledExecutorService scheduledExecutor = batchingConfiguration == null ? null :
+          executionService.getScheduledExecutor(writeBehindConfiguration.getThreadPoolAlias());
         StoreEventDispatcher<K, V> storeEventDispatcher = new DefaultStoreEventDispatcher<>(storeConfig.getDispatcherConcurrency());
         return new ClusteredWriteBehindStore<>(storeConfig,
                                                codec,
@@ -281,11 +305,21 @@ public class ClusteredWriteBehindStore<K, V> extends ClusteredStore<K, V> implem
                                                timeSource,
                                                storeConfig.getCacheLoaderWriter(),
                                                executorService,
+                                               scheduledExecutor,
+                                               batchingConfiguration,
                                                storeEventDispatcher, getServiceProvider().getService(StatisticsService.class));
       }
       throw new AssertionError();
     }
 
+    @Override
+    public void releaseStore(Store<?, ?> resource) {
+      if (resource instanceof ClusteredWriteBehindStore) {
+        ((ClusteredWriteBehindStore<?, ?>) resource).clusteredWriteBehind.stop();
+      }
+      super.releaseStore(resource);
+    }
+
     @Override
     protected <K, V> ServerStoreProxy.ServerCallback getServerCallback(ClusteredStore<K, V> clusteredStore) {
       if (clusteredStore instanceof ClusteredWriteBehindStore) {
@@ -26,6 +26,7 @@ import org.ehcache.clustered.common.internal.messages.EhcacheOperationMessage;
 import org.ehcache.clustered.common.internal.messages.StateRepositoryOpMessage;
 import org.terracotta.connection.entity.Entity;
 
+import java.util.List;
 import java.util.concurrent.TimeoutException;
 
 /**
@@ -47,6 +48,12 @@ public interface ClusterTierClientEntity extends Entity {
 
   EhcacheEntityResponse invokeAndWaitForRetired(EhcacheOperationMessage message, boolean track) throws ClusterException, TimeoutException;
 
+  void invokeAllAndWaitForReceive(List<? extends EhcacheOperationMessage> messages, boolean track) throws ClusterException, TimeoutException;
+
+  List<EhcacheEntityResponse> invokeAllAndWaitForComplete(List<? extends EhcacheOperationMessage> messages, boolean track) throws ClusterException, TimeoutException;
+
+  List<EhcacheEntityResponse> invokeAllAndWaitForRetired(List<? extends EhcacheOperationMessage> messages, boolean track) throws ClusterException, TimeoutException;
+
   EhcacheEntityResponse invokeStateRepositoryOperation(StateRepositoryOpMessage message, boolean track) throws ClusterException, TimeoutException;
 
   <T extends EhcacheEntityResponse> void addResponseListener(Class<T> responseType, ResponseListener<T> responseListener);
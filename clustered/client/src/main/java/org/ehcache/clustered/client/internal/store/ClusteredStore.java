@@ -78,6 +78,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -191,6 +193,49 @@ public class ClusteredStore<K, V> extends BaseStore<K, V> implements Authoritati
     }
   }
 
+  /**
+   * Tells whether bulk operations can be batched into multi-key gets and pipelined appends.
+   * <p>
+   * Stores that involve a loader-writer or a write-behind queue in every mutation return {@code false}, their bulk
+   * operations then go through the single key paths one key at a time.
+   *
+   * @return {@code true} if bulk operations are batched
+   */
+  protected boolean batchesBulkOperations() {
+    return true;
+  }
+
+  protected Map<K, ValueHolder<V>> getAllInternal(Set<? extends K> keys) throws StoreAccessException, TimeoutException {
+    if (!batchesBulkOperations()) {
+      Map<K, ValueHolder<V>> values = new HashMap<>(keys.size());
+      for (K key : keys) {
+        ValueHolder<V> value;
+        try {
+          value = getInternal(key);
+        } catch (TimeoutException e) {
+          // This timeout handling is safe **only** in the context of a get/read operation!
+          value = null;
+        }
+        values.put(key, value);
+      }
+      return values;
+    }
+    try {
+      Set<Long> extractedKeys = new HashSet<>(keys.size());
+      for (K key : keys) {
+        extractedKeys.add(extractLongKey(key));
+      }
+      Map<Long, ServerStoreProxy.ChainEntry> entries = storeProxy.getAll(extractedKeys);
+      Map<K, ValueHolder<V>> values = new HashMap<>(keys.size());
+      for (K key : keys) {
+        values.put(key, resolver.resolve(entries.get(extractLongKey(key)), key, timeSource.getTimeMillis()));
+      }
+      return values;
+    } catch (RuntimeException re) {
+      throw handleException(re);
+    }
+  }
+
   protected long extractLongKey(K key) {
     return HashUtils.intHashToLong(key.hashCode());
   }
@@ -223,6 +268,25 @@ public class ClusteredStore<K, V> extends BaseStore<K, V> implements Authoritati
     }
   }
 
+  protected void silentPutAll(Map<K, V> entries) throws StoreAccessException {
+    if (!batchesBulkOperations()) {
+      for (Map.Entry<K, V> entry : entries.entrySet()) {
+        silentPut(entry.getKey(), entry.getValue());
+      }
+      return;
+    }
+    try {
+      List<Map.Entry<Long, ByteBuffer>> payloads = new ArrayList<>(entries.size());
+      for (Map.Entry<K, V> entry : entries.entrySet()) {
+        PutOperation<K, V> operation = new PutOperation<>(entry.getKey(), entry.getValue(), timeSource.getTimeMillis());
+        payloads.add(new AbstractMap.SimpleImmutableEntry<>(extractLongKey(entry.getKey()), codec.encode(operation)));
+      }
+      storeProxy.appendAll(payloads);
+    } catch (Exception re) {
+      throw handleException(re);
+    }
+  }
+
   @Override
   public ValueHolder<V> getAndPut(K key, V value) throws StoreAccessException {
     putObserver.begin();
@@ -303,6 +367,33 @@ public class ClusteredStore<K, V> extends BaseStore<K, V> implements Authoritati
     }
   }
 
+  protected Map<K, ValueHolder<V>> silentRemoveAll(Set<? extends K> keys) throws StoreAccessException {
+    if (!batchesBulkOperations()) {
+      Map<K, ValueHolder<V>> removed = new HashMap<>(keys.size());
+      for (K key : keys) {
+        removed.put(key, silentRemove(key));
+      }
+      return removed;
+    }
+    try {
+      List<K> orderedKeys = new ArrayList<>(keys);
+      List<Map.Entry<Long, ByteBuffer>> payloads = new ArrayList<>(orderedKeys.size());
+      for (K key : orderedKeys) {
+        RemoveOperation<K, V> operation = new RemoveOperation<>(key, timeSource.getTimeMillis());
+        payloads.add(new AbstractMap.SimpleImmutableEntry<>(extractLongKey(key), codec.encode(operation)));
+      }
+      List<ServerStoreProxy.ChainEntry> chains = storeProxy.getAndAppendAll(payloads);
+      Map<K, ValueHolder<V>> removed = new HashMap<>(orderedKeys.size());
+      for (int i = 0; i < orderedKeys.size(); i++) {
+        K key = orderedKeys.get(i);
+        removed.put(key, resolver.resolve(chains.get(i), key, timeSource.getTimeMillis()));
+      }
+      return removed;
+    } catch (Exception re) {
+      throw handleException(re);
+    }
+  }
+
   protected ValueHolder<V> silentRemove(K key, V value) throws StoreAccessException {
     try {
       ConditionalRemoveOperation<K, V> operation = new ConditionalRemoveOperation<>(key, value, timeSource.getTimeMillis());
@@ -505,16 +596,15 @@ public class ClusteredStore<K, V> extends BaseStore<K, V> implements Authoritati
     if(remappingFunction instanceof Ehcache.PutAllFunction) {
       Ehcache.PutAllFunction<K, V> putAllFunction = (Ehcache.PutAllFunction<K, V>)remappingFunction;
       Map<K, V> entriesToRemap = putAllFunction.getEntriesToRemap();
+      silentPutAll(entriesToRemap);
+      putAllFunction.getActualPutCount().addAndGet(entriesToRemap.size());
       for(Map.Entry<K, V> entry: entriesToRemap.entrySet()) {
-        silentPut(entry.getKey(), entry.getValue());
-        putAllFunction.getActualPutCount().incrementAndGet();
         valueHolderMap.put(entry.getKey(), new ClusteredValueHolder<>(entry.getValue()));
       }
     } else if(remappingFunction instanceof Ehcache.RemoveAllFunction) {
       Ehcache.RemoveAllFunction<K, V> removeAllFunction = (Ehcache.RemoveAllFunction<K, V>)remappingFunction;
-      for (K key : keys) {
-        boolean removed = silentRemove(key) != null;
-        if(removed) {
+      for (ValueHolder<V> removed : silentRemoveAll(keys).values()) {
+        if(removed != null) {
           removeAllFunction.getActualRemoveCount().incrementAndGet();
         }
       }
@@ -537,18 +627,16 @@ public class ClusteredStore<K, V> extends BaseStore<K, V> implements Authoritati
   public Map<K, ValueHolder<V>> bulkComputeIfAbsent(final Set<? extends K> keys, final Function<Iterable<? extends K>, Iterable<? extends Map.Entry<? extends K, ? extends V>>> mappingFunction)
       throws StoreAccessException {
     if(mappingFunction instanceof Ehcache.GetAllFunction) {
-      Map<K, ValueHolder<V>> map  = new HashMap<>();
-      for (K key : keys) {
-        ValueHolder<V> value;
-        try {
-          value = getInternal(key);
-        } catch (TimeoutException e) {
-          // This timeout handling is safe **only** in the context of a get/read operation!
-          value = null;
+      try {
+        return getAllInternal(keys);
+      } catch (TimeoutException e) {
+        // This timeout handling is safe **only** in the context of a get/read operation!
+        Map<K, ValueHolder<V>> map  = new HashMap<>();
+        for (K key : keys) {
+          map.put(key, null);
         }
-        map.put(key, value);
+        return map;
       }
-      return map;
     } else {
       throw new UnsupportedOperationException("This bulkComputeIfAbsent method is not yet capable of handling generic computation functions");
     }
@@ -20,13 +20,16 @@ import org.ehcache.clustered.common.internal.exceptions.ClusterException;
 import org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse;
 import org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.ClientInvalidateAll;
 import org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.ClientInvalidateHash;
+import org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.ClientInvalidateHashes;
 import org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.ServerAppend;
 import org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.ServerInvalidateHash;
 import org.ehcache.clustered.common.internal.messages.EhcacheOperationMessage;
 import org.ehcache.clustered.common.internal.messages.EhcacheResponseType;
 import org.ehcache.clustered.common.internal.messages.ServerStoreOpMessage;
 import org.ehcache.clustered.common.internal.messages.ServerStoreOpMessage.AppendMessage;
+import org.ehcache.clustered.common.internal.messages.ServerStoreOpMessage.BatchedGetMessage;
 import org.ehcache.clustered.common.internal.messages.ServerStoreOpMessage.ClientInvalidationAck;
+import org.ehcache.clustered.common.internal.messages.ServerStoreOpMessage.ClientInvalidationAcks;
 import org.ehcache.clustered.common.internal.messages.ServerStoreOpMessage.ClientInvalidationAllAck;
 import org.ehcache.clustered.common.internal.messages.ServerStoreOpMessage.GetAndAppendMessage;
 import org.ehcache.clustered.common.internal.messages.ServerStoreOpMessage.GetMessage;
@@ -38,8 +41,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.TimeoutException;
 
@@ -52,6 +60,7 @@ import static java.util.Objects.requireNonNull;
 class CommonServerStoreProxy implements ServerStoreProxy {
 
   private static final int ITERATOR_BATCH_SIZE = toIntExact(MemoryUnit.KB.toBytes(100));
+  private static final int GET_ALL_BATCH_SIZE = 256;
 
   private static final Logger LOGGER = LoggerFactory.getLogger(CommonServerStoreProxy.class);
 
@@ -90,6 +99,22 @@ class CommonServerStoreProxy implements ServerStoreProxy {
         LOGGER.error("error acking client invalidation of hash {} on cache {}", key, cacheId, e);
       }
     });
+    entity.addResponseListener(ClientInvalidateHashes.class, response -> {
+      List<Integer> invalidationIds = new ArrayList<>(response.getInvalidations().size());
+      for (ClientInvalidateHash hashInvalidation : response.getInvalidations()) {
+        long key = hashInvalidation.getKey();
+        LOGGER.debug("CLIENT: doing work to invalidate hash {} from cache {} (ID {})", key, cacheId, hashInvalidation.getInvalidationId());
+        invalidation.onInvalidateHash(key, null);
+        invalidationIds.add(hashInvalidation.getInvalidationId());
+      }
+
+      try {
+        LOGGER.debug("CLIENT: ack'ing invalidations from cache {} (IDs {})", cacheId, invalidationIds);
+        entity.invokeAndWaitForSend(new ClientInvalidationAcks(invalidationIds), false);
+      } catch (ClusterException e) {
+        LOGGER.error("error acking client invalidations on cache {}", cacheId, e);
+      }
+    });
     entity.addResponseListener(ClientInvalidateAll.class, response -> {
       int invalidationId = response.getInvalidationId();
 
@@ -168,6 +193,83 @@ class CommonServerStoreProxy implements ServerStoreProxy {
     }
   }
 
+  @Override
+  public Map<Long, ChainEntry> getAll(Set<Long> keys) throws TimeoutException {
+    List<BatchedGetMessage> messages = new ArrayList<>(keys.size() / GET_ALL_BATCH_SIZE + 1);
+    Set<Long> batch = new LinkedHashSet<>();
+    for (Long key : keys) {
+      batch.add(key);
+      if (batch.size() == GET_ALL_BATCH_SIZE) {
+        messages.add(new BatchedGetMessage(batch));
+        batch = new LinkedHashSet<>();
+      }
+    }
+    if (!batch.isEmpty()) {
+      messages.add(new BatchedGetMessage(batch));
+    }
+
+    List<EhcacheEntityResponse> responses;
+    try {
+      responses = entity.invokeAllAndWaitForComplete(messages, false);
+    } catch (TimeoutException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new ServerStoreProxyException(e);
+    }
+    Map<Long, ChainEntry> chains = new HashMap<>(keys.size());
+    for (EhcacheEntityResponse response : responses) {
+      if (response != null && response.getResponseType() == EhcacheResponseType.BATCHED_GET_RESPONSE) {
+        for (Map.Entry<Long, Chain> chain : ((EhcacheEntityResponse.BatchedGetResponse) response).getChains()) {
+          chains.put(chain.getKey(), new SimpleEntry(chain.getKey(), chain.getValue()));
+        }
+      } else {
+        throw new ServerStoreProxyException("Response for getAll operation was invalid : " +
+                                            (response != null ? response.getResponseType() : "null message"));
+      }
+    }
+    return chains;
+  }
+
+  @Override
+  public void appendAll(List<Map.Entry<Long, ByteBuffer>> payLoads) {
+    List<AppendMessage> messages = new ArrayList<>(payLoads.size());
+    for (Map.Entry<Long, ByteBuffer> payLoad : payLoads) {
+      messages.add(new AppendMessage(payLoad.getKey(), payLoad.getValue()));
+    }
+    try {
+      entity.invokeAllAndWaitForReceive(messages, true);
+    } catch (Exception e) {
+      throw new ServerStoreProxyException(e);
+    }
+  }
+
+  @Override
+  public List<ChainEntry> getAndAppendAll(List<Map.Entry<Long, ByteBuffer>> payLoads) throws TimeoutException {
+    List<GetAndAppendMessage> messages = new ArrayList<>(payLoads.size());
+    for (Map.Entry<Long, ByteBuffer> payLoad : payLoads) {
+      messages.add(new GetAndAppendMessage(payLoad.getKey(), payLoad.getValue()));
+    }
+    List<EhcacheEntityResponse> responses;
+    try {
+      responses = entity.invokeAllAndWaitForRetired(messages, true);
+    } catch (TimeoutException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new ServerStoreProxyException(e);
+    }
+    List<ChainEntry> chains = new ArrayList<>(responses.size());
+    for (int i = 0; i < responses.size(); i++) {
+      EhcacheEntityResponse response = responses.get(i);
+      if (response != null && response.getResponseType() == EhcacheResponseType.GET_RESPONSE) {
+        chains.add(new SimpleEntry(payLoads.get(i).getKey(), ((EhcacheEntityResponse.GetResponse)response).getChain()));
+      } else {
+        throw new ServerStoreProxyException("Response for getAndAppend operation was invalid : " +
+                                            (response != null ? response.getResponseType() : "null message"));
+      }
+    }
+    return chains;
+  }
+
   @Override
   public void enableEvents(boolean enable) {
     try {
@@ -19,7 +19,9 @@ import org.ehcache.clustered.common.internal.store.Chain;
 
 import java.nio.ByteBuffer;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeoutException;
 
 public class EventualServerStoreProxy implements ServerStoreProxy {
@@ -55,6 +57,21 @@ public class EventualServerStoreProxy implements ServerStoreProxy {
     return delegate.getAndAppend(key, payLoad);
   }
 
+  @Override
+  public Map<Long, ChainEntry> getAll(Set<Long> keys) throws TimeoutException {
+    return delegate.getAll(keys);
+  }
+
+  @Override
+  public void appendAll(List<Map.Entry<Long, ByteBuffer>> payLoads) throws TimeoutException {
+    delegate.appendAll(payLoads);
+  }
+
+  @Override
+  public List<ChainEntry> getAndAppendAll(List<Map.Entry<Long, ByteBuffer>> payLoads) throws TimeoutException {
+    return delegate.getAndAppendAll(payLoads);
+  }
+
   @Override
   public void enableEvents(boolean enable) throws TimeoutException {
     delegate.enableEvents(enable);
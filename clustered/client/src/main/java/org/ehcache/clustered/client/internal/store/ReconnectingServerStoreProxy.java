@@ -25,7 +25,9 @@ import org.terracotta.exception.ConnectionShutdownException;
 
 import java.nio.ByteBuffer;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -77,6 +79,24 @@ public class ReconnectingServerStoreProxy implements LockingServerStoreProxy {
     return onStoreProxy(serverStoreProxy -> serverStoreProxy.getAndAppend(key, payLoad));
   }
 
+  @Override
+  public Map<Long, ChainEntry> getAll(Set<Long> keys) throws TimeoutException {
+    return onStoreProxy(serverStoreProxy -> serverStoreProxy.getAll(keys));
+  }
+
+  @Override
+  public void appendAll(List<Map.Entry<Long, ByteBuffer>> payLoads) throws TimeoutException {
+    onStoreProxy(serverStoreProxy -> {
+      serverStoreProxy.appendAll(payLoads);
+      return null;
+    });
+  }
+
+  @Override
+  public List<ChainEntry> getAndAppendAll(List<Map.Entry<Long, ByteBuffer>> payLoads) throws TimeoutException {
+    return onStoreProxy(serverStoreProxy -> serverStoreProxy.getAndAppendAll(payLoads));
+  }
+
   @Override
   public void enableEvents(boolean enable) throws TimeoutException {
     onStoreProxy(serverStoreProxy -> {
@@ -234,6 +254,21 @@ public class ReconnectingServerStoreProxy implements LockingServerStoreProxy {
         return serverStoreProxy.getAndAppend(key, payLoad);
       }
 
+      @Override
+      public Map<Long, ChainEntry> getAll(Set<Long> keys) throws TimeoutException {
+        return serverStoreProxy.getAll(keys);
+      }
+
+      @Override
+      public void appendAll(List<Map.Entry<Long, ByteBuffer>> payLoads) throws TimeoutException {
+        serverStoreProxy.appendAll(payLoads);
+      }
+
+      @Override
+      public List<ChainEntry> getAndAppendAll(List<Map.Entry<Long, ByteBuffer>> payLoads) throws TimeoutException {
+        return serverStoreProxy.getAndAppendAll(payLoads);
+      }
+
       @Override
       public void enableEvents(boolean enable) throws TimeoutException {
         serverStoreProxy.enableEvents(enable);
@@ -20,6 +20,11 @@ import org.ehcache.clustered.common.internal.store.Element;
 import org.ehcache.clustered.common.internal.store.ServerStore;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeoutException;
 
 /**
@@ -47,6 +52,60 @@ public interface ServerStoreProxy extends ServerStore {
   @Override
   ChainEntry getAndAppend(long key, ByteBuffer payLoad) throws TimeoutException;
 
+  /**
+   * Returns the chains associated with the provided hashes.
+   * <p>
+   * Implementations are expected to fetch the chains in as few round trips as possible, the default implementation
+   * falls back to one {@link #get(long)} per hash.
+   *
+   * @param keys hashcodes of the keys
+   * @return the chain entry associated with each hash
+   *
+   * @throws TimeoutException if the get exceeds the timeout configured for read operations
+   */
+  default Map<Long, ChainEntry> getAll(Set<Long> keys) throws TimeoutException {
+    Map<Long, ChainEntry> chains = new HashMap<>(keys.size());
+    for (long key : keys) {
+      chains.put(key, get(key));
+    }
+    return chains;
+  }
+
+  /**
+   * Appends each payload to the chain associated with its hash.
+   * <p>
+   * Payloads sharing a hash are appended in list order. Implementations are expected to pipeline the appends, the
+   * default implementation falls back to one {@link #append(long, ByteBuffer)} per payload.
+   *
+   * @param payLoads the hash and payload pairs to append
+   *
+   * @throws TimeoutException if the append exceeds the timeout configured for write operations
+   */
+  default void appendAll(List<Map.Entry<Long, ByteBuffer>> payLoads) throws TimeoutException {
+    for (Map.Entry<Long, ByteBuffer> payLoad : payLoads) {
+      append(payLoad.getKey(), payLoad.getValue());
+    }
+  }
+
+  /**
+   * Appends each payload to the chain associated with its hash, returning the chains as they were before each append.
+   * <p>
+   * Payloads sharing a hash are appended in list order. Implementations are expected to pipeline the appends, the
+   * default implementation falls back to one {@link #getAndAppend(long, ByteBuffer)} per payload.
+   *
+   * @param payLoads the hash and payload pairs to append
+   * @return the chain entries preceding each append, in list order
+   *
+   * @throws TimeoutException if the append exceeds the timeout configured for write operations
+   */
+  default List<ChainEntry> getAndAppendAll(List<Map.Entry<Long, ByteBuffer>> payLoads) throws TimeoutException {
+    List<ChainEntry> chains = new ArrayList<>(payLoads.size());
+    for (Map.Entry<Long, ByteBuffer> payLoad : payLoads) {
+      chains.add(getAndAppend(payLoad.getKey(), payLoad.getValue()));
+    }
+    return chains;
+  }
+
   /**
    * The invalidation listener
    */
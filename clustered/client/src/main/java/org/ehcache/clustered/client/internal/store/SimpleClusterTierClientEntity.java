@@ -42,6 +42,7 @@ import org.terracotta.entity.MessageCodecException;
 import org.terracotta.exception.EntityException;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
@@ -52,6 +53,7 @@ import java.util.concurrent.Executor;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeoutException;
 import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
@@ -65,6 +67,7 @@ public class SimpleClusterTierClientEntity implements InternalClusterTierClientE
   private static final Logger LOGGER = LoggerFactory.getLogger(SimpleClusterTierClientEntity.class);
   private static final Set<EhcacheMessageType> GET_STORE_OPS = EnumSet.of(
     EhcacheMessageType.GET_STORE,
+    EhcacheMessageType.BATCHED_GET,
     EhcacheMessageType.ITERATOR_ADVANCE,
     EhcacheMessageType.ITERATOR_OPEN,
     EhcacheMessageType.ITERATOR_CLOSE);
@@ -234,6 +237,63 @@ public class SimpleClusterTierClientEntity implements InternalClusterTierClientE
     return invokeInternalAndWait(endpoint.beginInvoke().blockGetOnRetire(true), message, track);
   }
 
+  @Override
+  public void invokeAllAndWaitForReceive(List<? extends EhcacheOperationMessage> messages, boolean track)
+    throws ClusterException, TimeoutException {
+    invokeAllInternalAndWait(() -> endpoint.beginInvoke().ackReceived(), messages, track);
+  }
+
+  @Override
+  public List<EhcacheEntityResponse> invokeAllAndWaitForComplete(List<? extends EhcacheOperationMessage> messages, boolean track)
+    throws ClusterException, TimeoutException {
+    return invokeAllInternalAndWait(() -> endpoint.beginInvoke().blockGetOnRetire(false), messages, track);
+  }
+
+  @Override
+  public List<EhcacheEntityResponse> invokeAllAndWaitForRetired(List<? extends EhcacheOperationMessage> messages, boolean track)
+    throws ClusterException, TimeoutException {
+    return invokeAllInternalAndWait(() -> endpoint.beginInvoke().blockGetOnRetire(true), messages, track);
+  }
+
+  /**
+   * Sends all the messages before waiting on any of their responses, so that the whole batch costs a single round trip
+   * instead of one per message. Each message keeps its own time limit, all starting from the call.
+   */
+  private List<EhcacheEntityResponse> invokeAllInternalAndWait(Supplier<InvocationBuilder<EhcacheEntityMessage, EhcacheEntityResponse>> invocationBuilders,
+                                                               List<? extends EhcacheOperationMessage> messages, boolean track)
+      throws ClusterException, TimeoutException {
+    List<LongSupplier> nanosRemaining = new ArrayList<>(messages.size());
+    List<InvokeFuture<EhcacheEntityResponse>> futures = new ArrayList<>(messages.size());
+    List<EhcacheEntityResponse> responses = new ArrayList<>(messages.size());
+    EhcacheOperationMessage message = null;
+    try {
+      for (EhcacheOperationMessage m : messages) {
+        message = m;
+        LongSupplier remaining = nanosStartingFromNow(getTimeoutDuration(message));
+        nanosRemaining.add(remaining);
+        futures.add(invokeInternal(invocationBuilders.get(), Duration.ofNanos(remaining.getAsLong()), message, track));
+      }
+      for (int i = 0; i < futures.size(); i++) {
+        message = messages.get(i);
+        EhcacheEntityResponse response = waitFor(nanosRemaining.get(i).getAsLong(), futures.get(i));
+        if (EhcacheResponseType.FAILURE.equals(response.getResponseType())) {
+          throw ((Failure)response).getCause();
+        } else {
+          responses.add(response);
+        }
+      }
+      return responses;
+    } catch (EntityException e) {
+      throw new RuntimeException(message + " error: " + e.toString(), e);
+    } catch (TimeoutException e) {
+      String msg = "Timeout exceeded for " + message + " message; " + getTimeoutDuration(message);
+      TimeoutException timeoutException = new TimeoutException(msg);
+      timeoutException.initCause(e);
+      LOGGER.info(msg, timeoutException);
+      throw timeoutException;
+    }
+  }
+
   private EhcacheEntityResponse invokeInternalAndWait(InvocationBuilder<EhcacheEntityMessage, EhcacheEntityResponse> invocationBuilder, EhcacheOperationMessage message, boolean track)
       throws ClusterException, TimeoutException {
     return invokeInternalAndWait(invocationBuilder, getTimeoutDuration(message), message, track);
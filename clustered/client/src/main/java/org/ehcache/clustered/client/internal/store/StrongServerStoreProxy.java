@@ -23,9 +23,14 @@ import org.slf4j.LoggerFactory;
 
 import java.nio.ByteBuffer;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -130,6 +135,59 @@ public class StrongServerStoreProxy implements ServerStoreProxy {
     }
   }
 
+  private <T> T performWaitingForHashInvalidations(Collection<Long> keys, Callable<T> c, Duration timeout) throws TimeoutException {
+    LongSupplier nanosRemaining = nanosStartingFromNow(timeout);
+
+    // latches are taken in hash order so that two concurrent batches never end up waiting on each other
+    Map<Long, CountDownLatch> latches = new HashMap<>();
+    try {
+      for (long key : new TreeSet<>(keys)) {
+        CountDownLatch latch = new CountDownLatch(1);
+        while (true) {
+          if (!entity.isConnected()) {
+            throw new IllegalStateException("Cluster tier manager disconnected");
+          }
+          CountDownLatch countDownLatch = hashInvalidationsInProgress.putIfAbsent(key, latch);
+          if (countDownLatch == null) {
+            latches.put(key, latch);
+            break;
+          }
+          awaitOnLatch(countDownLatch, nanosRemaining);
+        }
+      }
+    } catch (TimeoutException | RuntimeException e) {
+      releaseLatches(latches);
+      throw e;
+    }
+
+    try {
+      T result = c.call();
+      LOGGER.debug("CLIENT: Waiting for invalidations on keys {}", latches.keySet());
+      for (CountDownLatch latch : latches.values()) {
+        awaitOnLatch(latch, nanosRemaining);
+      }
+      LOGGER.debug("CLIENT: keys {} invalidated on all clients, unblocking call", latches.keySet());
+      return result;
+    } catch (Exception ex) {
+      releaseLatches(latches);
+
+      if (ex instanceof TimeoutException) {
+        throw (TimeoutException)ex;
+      }
+      if (ex instanceof ServerStoreProxyException) {
+        throw (ServerStoreProxyException)ex;
+      }
+      throw new RuntimeException(ex);
+    }
+  }
+
+  private void releaseLatches(Map<Long, CountDownLatch> latches) {
+    latches.forEach((key, latch) -> {
+      hashInvalidationsInProgress.remove(key, latch);
+      latch.countDown();
+    });
+  }
+
   private <T> T performWaitingForAllInvalidation(Callable<T> c, Duration timeout) throws TimeoutException {
     LongSupplier nanosRemaining = nanosStartingFromNow(timeout);
 
@@ -222,6 +280,62 @@ public class StrongServerStoreProxy implements ServerStoreProxy {
     return performWaitingForHashInvalidation(key, () -> delegate.getAndAppend(key, payLoad), entity.getTimeouts().getWriteOperationTimeout());
   }
 
+  @Override
+  public Map<Long, ChainEntry> getAll(Set<Long> keys) throws TimeoutException {
+    return delegate.getAll(keys);
+  }
+
+  @Override
+  public void appendAll(List<Map.Entry<Long, ByteBuffer>> payLoads) throws TimeoutException {
+    for (List<Map.Entry<Long, ByteBuffer>> round : distinctKeyRounds(payLoads)) {
+      performWaitingForHashInvalidations(keysOf(round), () -> {
+        delegate.appendAll(round);
+        return null;
+      }, entity.getTimeouts().getWriteOperationTimeout());
+    }
+  }
+
+  @Override
+  public List<ChainEntry> getAndAppendAll(List<Map.Entry<Long, ByteBuffer>> payLoads) throws TimeoutException {
+    List<Iterator<ChainEntry>> roundResults = new ArrayList<>();
+    for (List<Map.Entry<Long, ByteBuffer>> round : distinctKeyRounds(payLoads)) {
+      roundResults.add(performWaitingForHashInvalidations(keysOf(round), () -> delegate.getAndAppendAll(round),
+        entity.getTimeouts().getWriteOperationTimeout()).iterator());
+    }
+
+    Map<Long, Integer> occurrences = new HashMap<>();
+    List<ChainEntry> chains = new ArrayList<>(payLoads.size());
+    for (Map.Entry<Long, ByteBuffer> payLoad : payLoads) {
+      chains.add(roundResults.get(occurrences.merge(payLoad.getKey(), 1, Integer::sum) - 1).next());
+    }
+    return chains;
+  }
+
+  /**
+   * Splits the payloads in successive rounds holding each hash at most once, as a hash can only have a single
+   * invalidation in progress at a time. The n-th payload of a given hash ends up in the n-th round.
+   */
+  private static List<List<Map.Entry<Long, ByteBuffer>>> distinctKeyRounds(List<Map.Entry<Long, ByteBuffer>> payLoads) {
+    Map<Long, Integer> occurrences = new HashMap<>();
+    List<List<Map.Entry<Long, ByteBuffer>>> rounds = new ArrayList<>();
+    for (Map.Entry<Long, ByteBuffer> payLoad : payLoads) {
+      int round = occurrences.merge(payLoad.getKey(), 1, Integer::sum) - 1;
+      if (round == rounds.size()) {
+        rounds.add(new ArrayList<>());
+      }
+      rounds.get(round).add(payLoad);
+    }
+    return rounds;
+  }
+
+  private static List<Long> keysOf(List<Map.Entry<Long, ByteBuffer>> payLoads) {
+    List<Long> keys = new ArrayList<>(payLoads.size());
+    for (Map.Entry<Long, ByteBuffer> payLoad : payLoads) {
+      keys.add(payLoad.getKey());
+    }
+    return keys;
+  }
+
   @Override
   public void enableEvents(boolean enable) {
     delegate.enableEvents(enable);
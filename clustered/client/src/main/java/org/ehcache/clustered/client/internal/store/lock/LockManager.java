@@ -14,58 +14,191 @@
  * limitations under the License.
  */
 package org.ehcache.clustered.client.internal.store.lock;
-
 import org.ehcache.clustered.client.internal.store.ClusterTierClientEntity;
 import org.ehcache.clustered.client.internal.store.ServerStoreProxyException;
+import org.ehcache.clustered.common.internal.exceptions.ClusterException;
 import org.ehcache.clustered.common.internal.messages.ClusterTierReconnectMessage;
 import org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse;
+import org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.LockGranted;
 import org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.LockSuccess;
 import org.ehcache.clustered.common.internal.messages.ServerStoreOpMessage.LockMessage;
 import org.ehcache.clustered.common.internal.messages.ServerStoreOpMessage.UnlockMessage;
 import org.ehcache.clustered.common.internal.store.Chain;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
 
-import static org.ehcache.clustered.common.internal.messages.EhcacheResponseType.LOCK_FAILURE;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.ehcache.clustered.common.internal.messages.EhcacheResponseType.LOCK_PENDING;
+import static org.ehcache.clustered.common.internal.messages.EhcacheResponseType.LOCK_SUCCESS;
 
+/**
+ * Acquires hash locks from the server.
+ * <p>
+ * A contended lock queues the client on the server, which pushes a {@link LockGranted} to it once the lock is handed
+ * over, so that threads wait locally instead of retrying. Grants are passed to the threads of this client waiting on
+ * the hash in FIFO order; a grant that no thread waits for anymore, because they timed out, is released straight away.
+ */
 public class LockManager {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(LockManager.class);
+
   private final ClusterTierClientEntity clientEntity;
   private final Set<Long> locksHeld = Collections.newSetFromMap(new ConcurrentHashMap<>());
+  // a waiter completed with null lost its place in the queue of the server and has to ask for the lock again
+  private final Map<Long, Deque<CompletableFuture<Chain>>> waiters = new HashMap<>();
 
   public LockManager(ClusterTierClientEntity clientEntity) {
     this.clientEntity = clientEntity;
     clientEntity.addReconnectListener(this::reconnectListener);
+    clientEntity.addResponseListener(LockGranted.class, this::lockGranted);
   }
 
   void reconnectListener(ClusterTierReconnectMessage reconnectMessage) {
     reconnectMessage.addLocksHeld(locksHeld);
+    // the lock queues are not replicated: waiters have to queue again on the new active
+    List<CompletableFuture<Chain>> lost = new ArrayList<>();
+    synchronized (waiters) {
+      waiters.values().forEach(lost::addAll);
+      waiters.clear();
+    }
+    lost.forEach(waiter -> waiter.complete(null));
+  }
+
+  void lockGranted(LockGranted grant) throws TimeoutException {
+    long hash = grant.getHash();
+    if (!handOver(hash, grant.getChain())) {
+      LOGGER.debug("CLIENT: no thread waits anymore for the lock on hash {}, releasing it", hash);
+      try {
+        clientEntity.invokeAndWaitForSend(new UnlockMessage(hash), false);
+      } catch (ClusterException e) {
+        LOGGER.error("error releasing the lock on hash {}", hash, e);
+      }
+    }
   }
 
   public Chain lock(long hash) throws TimeoutException {
-    LockSuccess response = getlockResponse(hash);
+    Chain chain = getlockResponse(hash);
     locksHeld.add(hash);
-    return response.getChain();
+    return chain;
   }
 
-  private LockSuccess getlockResponse(long hash) throws TimeoutException {
-    EhcacheEntityResponse response;
-    do {
+  private Chain getlockResponse(long hash) throws TimeoutException {
+    while (true) {
+      // the grant can be pushed before the response to the lock message is received
+      CompletableFuture<Chain> waiter = addWaiter(hash);
+      EhcacheEntityResponse response;
       try {
-        response = clientEntity.invokeAndWaitForComplete(new LockMessage(hash), false);
+        response = clientEntity.invokeAndWaitForComplete(new LockMessage(hash, true), false);
       } catch (TimeoutException tme) {
+        abandon(hash, waiter);
         throw tme;
       } catch (Exception e) {
+        abandon(hash, waiter);
         throw new ServerStoreProxyException(e);
       }
       if (response == null) {
+        abandon(hash, waiter);
         throw new ServerStoreProxyException("Response for acquiring lock was invalid null message");
+      } else if (response.getResponseType() == LOCK_SUCCESS) {
+        abandon(hash, waiter);
+        return ((LockSuccess) response).getChain();
+      } else if (response.getResponseType() == LOCK_PENDING) {
+        Chain chain = awaitGrant(hash, waiter);
+        if (chain != null) {
+          return chain;
+        }
+      } else {
+        // servers without lock queues answer a failure: ask again
+        abandon(hash, waiter);
+      }
+    }
+  }
+
+  private Chain awaitGrant(long hash, CompletableFuture<Chain> waiter) throws TimeoutException {
+    boolean interrupted = false;
+    long deadline = System.nanoTime() + clientEntity.getTimeouts().getWriteOperationTimeout().toNanos();
+    try {
+      while (true) {
+        try {
+          return waiter.get(deadline - System.nanoTime(), NANOSECONDS);
+        } catch (InterruptedException e) {
+          interrupted = true;
+        } catch (ExecutionException e) {
+          throw new AssertionError("Lock waiters are never completed exceptionally", e);
+        } catch (TimeoutException e) {
+          if (waiter.cancel(false)) {
+            removeWaiter(hash, waiter);
+            throw new TimeoutException("Timeout exceeded waiting for the lock on hash " + hash);
+          }
+        }
+      }
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private CompletableFuture<Chain> addWaiter(long hash) {
+    CompletableFuture<Chain> waiter = new CompletableFuture<>();
+    synchronized (waiters) {
+      waiters.computeIfAbsent(hash, h -> new ArrayDeque<>()).add(waiter);
+    }
+    return waiter;
+  }
+
+  private void removeWaiter(long hash, CompletableFuture<Chain> waiter) {
+    synchronized (waiters) {
+      Deque<CompletableFuture<Chain>> queue = waiters.get(hash);
+      if (queue != null && queue.remove(waiter) && queue.isEmpty()) {
+        waiters.remove(hash);
+      }
+    }
+  }
+
+  /**
+   * Withdraws a waiter that does not need a grant, passing on any grant it was handed in the meantime.
+   */
+  private void abandon(long hash, CompletableFuture<Chain> waiter) throws TimeoutException {
+    removeWaiter(hash, waiter);
+    if (!waiter.cancel(false)) {
+      Chain chain = waiter.join();
+      if (chain != null) {
+        lockGranted(EhcacheEntityResponse.lockGranted(hash, chain));
+      }
+    }
+  }
+
+  private boolean handOver(long hash, Chain chain) {
+    while (true) {
+      CompletableFuture<Chain> waiter;
+      synchronized (waiters) {
+        Deque<CompletableFuture<Chain>> queue = waiters.get(hash);
+        if (queue == null) {
+          return false;
+        }
+        waiter = queue.poll();
+        if (queue.isEmpty()) {
+          waiters.remove(hash);
+        }
       }
-    } while (response.getResponseType() == LOCK_FAILURE);
-    return (LockSuccess) response;
+      if (waiter.complete(chain)) {
+        return true;
+      }
+    }
   }
 
   public void unlock(long hash, boolean localonly) throws TimeoutException {
@@ -21,7 +21,9 @@ import org.ehcache.clustered.common.internal.store.Element;
 
 import java.nio.ByteBuffer;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeoutException;
 
 public class LockingServerStoreProxyImpl implements LockingServerStoreProxy {
@@ -95,6 +97,21 @@ public class LockingServerStoreProxyImpl implements LockingServerStoreProxy {
     return storeProxy.getAndAppend(key, payLoad);
   }
 
+  @Override
+  public Map<Long, ChainEntry> getAll(Set<Long> keys) throws TimeoutException {
+    return storeProxy.getAll(keys);
+  }
+
+  @Override
+  public void appendAll(List<Map.Entry<Long, ByteBuffer>> payLoads) throws TimeoutException {
+    storeProxy.appendAll(payLoads);
+  }
+
+  @Override
+  public List<ChainEntry> getAndAppendAll(List<Map.Entry<Long, ByteBuffer>> payLoads) throws TimeoutException {
+    return storeProxy.getAndAppendAll(payLoads);
+  }
+
   @Override
   public void enableEvents(boolean enable) throws TimeoutException {
     storeProxy.enableEvents(enable);
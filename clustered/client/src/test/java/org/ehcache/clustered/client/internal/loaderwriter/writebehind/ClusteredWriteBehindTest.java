@@ -34,8 +34,10 @@ import org.ehcache.core.spi.time.TimeSource;
 import org.ehcache.expiry.ExpiryPolicy;
 import org.ehcache.impl.serialization.LongSerializer;
 import org.ehcache.impl.serialization.StringSerializer;
+import org.ehcache.spi.loaderwriter.CacheLoaderWriter;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
@@ -46,6 +48,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.AbstractExecutorService;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -53,7 +57,11 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -148,6 +156,142 @@ public class ClusteredWriteBehindTest {
     verifyEvents(eventInfoList, result);
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testBatchedFlushUsesWriteAllAcrossHashes() throws Exception {
+    ClusteredWriteBehindStore<Long, String> clusteredWriteBehindStore = mock(ClusteredWriteBehindStore.class);
+    ScheduledExecutorService scheduledExecutor = mock(ScheduledExecutorService.class);
+    CacheLoaderWriter<Long, String> cacheLoaderWriter = mock(CacheLoaderWriter.class);
+    OperationsCodec<Long, String> operationCodec = new OperationsCodec<>(new LongSerializer(), new StringSerializer());
+    ChainResolver<Long, String> resolver = new ExpiryChainResolver<>(operationCodec, ExpiryPolicy.NO_EXPIRY);
+
+    ClusteredWriteBehind<Long, String> clusteredWriteBehind = new ClusteredWriteBehind<>(clusteredWriteBehindStore,
+      new TestExecutorService(), scheduledExecutor, resolver, cacheLoaderWriter, operationCodec, 3, 1000L, false);
+
+    for (long hash = 1L; hash <= 3L; hash++) {
+      Chain chain = makeChain(Collections.singletonList(new EventInfo(hash,
+        new PutWithWriterOperation<>(hash, "Value " + hash, TIME_SOURCE.getTimeMillis()), null, true)), operationCodec);
+      when(clusteredWriteBehindStore.lock(hash)).thenReturn(chainEntry(chain));
+    }
+
+    clusteredWriteBehind.flushWriteBehindQueue(null, 3L);
+    clusteredWriteBehind.flushWriteBehindQueue(null, 1L);
+    verify(clusteredWriteBehindStore, never()).lock(anyLong());
+
+    clusteredWriteBehind.flushWriteBehindQueue(null, 2L);
+
+    ArgumentCaptor<Iterable<Map.Entry<Long, String>>> entries = ArgumentCaptor.forClass(Iterable.class);
+    verify(cacheLoaderWriter).writeAll(entries.capture());
+    Map<Long, String> written = new HashMap<>();
+    entries.getValue().forEach(e -> written.put(e.getKey(), e.getValue()));
+    assertThat(written.size(), is(3));
+    assertThat(written.get(2L), is("Value 2"));
+    verify(cacheLoaderWriter, never()).write(any(), any());
+
+    InOrder inOrder = inOrder(clusteredWriteBehindStore);
+    for (long hash = 1L; hash <= 3L; hash++) {
+      inOrder.verify(clusteredWriteBehindStore).lock(hash);
+    }
+    for (long hash = 1L; hash <= 3L; hash++) {
+      verify(clusteredWriteBehindStore).replaceAtHead(eq(hash), any(), any());
+      verify(clusteredWriteBehindStore).unlock(hash, false);
+    }
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testBatchedFlushPreservesPerKeyOrdering() throws Exception {
+    ClusteredWriteBehindStore<Long, String> clusteredWriteBehindStore = mock(ClusteredWriteBehindStore.class);
+    CacheLoaderWriter<Long, String> cacheLoaderWriter = mock(CacheLoaderWriter.class);
+    OperationsCodec<Long, String> operationCodec = new OperationsCodec<>(new LongSerializer(), new StringSerializer());
+    ChainResolver<Long, String> resolver = new ExpiryChainResolver<>(operationCodec, ExpiryPolicy.NO_EXPIRY);
+
+    ClusteredWriteBehind<Long, String> clusteredWriteBehind = new ClusteredWriteBehind<>(clusteredWriteBehindStore,
+      new TestExecutorService(), mock(ScheduledExecutorService.class), resolver, cacheLoaderWriter, operationCodec, 2, 1000L, false);
+
+    List<EventInfo> events = new ArrayList<>();
+    events.add(new EventInfo(1L, new PutWithWriterOperation<>(1L, "The one", TIME_SOURCE.getTimeMillis()), null, true));
+    events.add(new EventInfo(1L, new RemoveOperation<>(1L, TIME_SOURCE.getTimeMillis()), null, true));
+    events.add(new EventInfo(1L, new PutWithWriterOperation<>(1L, "The one one", TIME_SOURCE.getTimeMillis()), null, true));
+    when(clusteredWriteBehindStore.lock(1L)).thenReturn(chainEntry(makeChain(events, operationCodec)));
+    when(clusteredWriteBehindStore.lock(2L)).thenReturn(chainEntry(new ChainBuilder().build()));
+
+    clusteredWriteBehind.flushWriteBehindQueue(null, 1L);
+    clusteredWriteBehind.flushWriteBehindQueue(null, 2L);
+
+    InOrder inOrder = inOrder(cacheLoaderWriter);
+    inOrder.verify(cacheLoaderWriter).write(1L, "The one");
+    inOrder.verify(cacheLoaderWriter).delete(1L);
+    inOrder.verify(cacheLoaderWriter).write(1L, "The one one");
+    verify(clusteredWriteBehindStore, never()).replaceAtHead(eq(2L), any(), any());
+    verify(clusteredWriteBehindStore).unlock(2L, false);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testBatchedFlushAfterMaxDelay() throws Exception {
+    ClusteredWriteBehindStore<Long, String> clusteredWriteBehindStore = mock(ClusteredWriteBehindStore.class);
+    ScheduledExecutorService scheduledExecutor = mock(ScheduledExecutorService.class);
+    CacheLoaderWriter<Long, String> cacheLoaderWriter = mock(CacheLoaderWriter.class);
+    OperationsCodec<Long, String> operationCodec = new OperationsCodec<>(new LongSerializer(), new StringSerializer());
+    ChainResolver<Long, String> resolver = new ExpiryChainResolver<>(operationCodec, ExpiryPolicy.NO_EXPIRY);
+
+    ClusteredWriteBehind<Long, String> clusteredWriteBehind = new ClusteredWriteBehind<>(clusteredWriteBehindStore,
+      new TestExecutorService(), scheduledExecutor, resolver, cacheLoaderWriter, operationCodec, 10, 500L, true);
+    doReturn(mock(ScheduledFuture.class)).when(scheduledExecutor).schedule(any(Runnable.class), anyLong(), any());
+
+    List<EventInfo> events = new ArrayList<>();
+    events.add(new EventInfo(1L, new PutWithWriterOperation<>(1L, "The one", TIME_SOURCE.getTimeMillis()), null, true));
+    events.add(new EventInfo(1L, new PutWithWriterOperation<>(1L, "The one one", TIME_SOURCE.getTimeMillis()), null, true));
+    when(clusteredWriteBehindStore.lock(1L)).thenReturn(chainEntry(makeChain(events, operationCodec)));
+
+    clusteredWriteBehind.flushWriteBehindQueue(null, 1L);
+    clusteredWriteBehind.flushWriteBehindQueue(null, 1L);
+
+    ArgumentCaptor<Runnable> expiry = ArgumentCaptor.forClass(Runnable.class);
+    verify(scheduledExecutor).schedule(expiry.capture(), eq(500L), eq(TimeUnit.MILLISECONDS));
+    verify(clusteredWriteBehindStore, never()).lock(anyLong());
+
+    expiry.getValue().run();
+
+    verify(cacheLoaderWriter).write(1L, "The one one");
+    verify(cacheLoaderWriter, never()).write(1L, "The one");
+    verify(clusteredWriteBehindStore).unlock(1L, false);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testStopFlushesPendingHashesAndShutsDownScheduledExecutor() throws Exception {
+    ClusteredWriteBehindStore<Long, String> clusteredWriteBehindStore = mock(ClusteredWriteBehindStore.class);
+    ScheduledExecutorService scheduledExecutor = mock(ScheduledExecutorService.class);
+    CacheLoaderWriter<Long, String> cacheLoaderWriter = mock(CacheLoaderWriter.class);
+    OperationsCodec<Long, String> operationCodec = new OperationsCodec<>(new LongSerializer(), new StringSerializer());
+    ChainResolver<Long, String> resolver = new ExpiryChainResolver<>(operationCodec, ExpiryPolicy.NO_EXPIRY);
+
+    ClusteredWriteBehind<Long, String> clusteredWriteBehind = new ClusteredWriteBehind<>(clusteredWriteBehindStore,
+      new TestExecutorService(), scheduledExecutor, resolver, cacheLoaderWriter, operationCodec, 10, 500L, false);
+    doReturn(mock(ScheduledFuture.class)).when(scheduledExecutor).schedule(any(Runnable.class), anyLong(), any());
+
+    for (long hash = 1L; hash <= 2L; hash++) {
+      Chain chain = makeChain(Collections.singletonList(new EventInfo(hash,
+        new PutWithWriterOperation<>(hash, "Value " + hash, TIME_SOURCE.getTimeMillis()), null, true)), operationCodec);
+      when(clusteredWriteBehindStore.lock(hash)).thenReturn(chainEntry(chain));
+    }
+
+    clusteredWriteBehind.flushWriteBehindQueue(null, 1L);
+    verify(clusteredWriteBehindStore, never()).lock(anyLong());
+
+    clusteredWriteBehind.stop();
+
+    verify(cacheLoaderWriter).write(1L, "Value 1");
+    verify(scheduledExecutor).shutdownNow();
+
+    clusteredWriteBehind.flushWriteBehindQueue(null, 2L);
+
+    verify(cacheLoaderWriter).write(2L, "Value 2");
+    verify(scheduledExecutor).schedule(any(Runnable.class), anyLong(), any());
+  }
+
   @SuppressWarnings("unchecked")
   private void verifyEvents(List<EventInfo> expected, Map<Long, String> expectedChainContents) throws TimeoutException {
     ClusteredWriteBehindStore<Long, String> clusteredWriteBehindStore = mock(ClusteredWriteBehindStore.class);
@@ -163,32 +307,7 @@ public class ClusteredWriteBehindTest {
                                                                                          operationCodec);
     Chain elements = makeChain(expected, operationCodec);
 
-    when(clusteredWriteBehindStore.lock(1L)).thenReturn(new ServerStoreProxy.ChainEntry() {
-      @Override
-      public void append(ByteBuffer payLoad) throws TimeoutException {
-
-      }
-
-      @Override
-      public void replaceAtHead(Chain equivalent) {
-
-      }
-
-      @Override
-      public boolean isEmpty() {
-        return elements.isEmpty();
-      }
-
-      @Override
-      public int length() {
-        return elements.length();
-      }
-
-      @Override
-      public Iterator<Element> iterator() {
-        return elements.iterator();
-      }
-    });
+    when(clusteredWriteBehindStore.lock(1L)).thenReturn(chainEntry(elements));
 
     ArgumentCaptor<Chain> chainArgumentCaptor = ArgumentCaptor.forClass(Chain.class);
 
@@ -216,6 +335,35 @@ public class ClusteredWriteBehindTest {
     verify(clusteredWriteBehindStore).unlock(1L, false);
   }
 
+  private static ServerStoreProxy.ChainEntry chainEntry(Chain elements) {
+    return new ServerStoreProxy.ChainEntry() {
+      @Override
+      public void append(ByteBuffer payLoad) throws TimeoutException {
+
+      }
+
+      @Override
+      public void replaceAtHead(Chain equivalent) {
+
+      }
+
+      @Override
+      public boolean isEmpty() {
+        return elements.isEmpty();
+      }
+
+      @Override
+      public int length() {
+        return elements.length();
+      }
+
+      @Override
+      public Iterator<Element> iterator() {
+        return elements.iterator();
+      }
+    };
+  }
+
   private Map<Long, String> convert(Chain chain, OperationsCodec<Long, String> codec,
                                     ChainResolver<Long, String> resolver, TimeSource timeSource) {
     Map<Long, String> result = new HashMap<>();
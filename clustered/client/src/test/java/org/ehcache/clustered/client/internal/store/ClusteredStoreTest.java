@@ -538,6 +538,18 @@ public class ClusteredStoreTest {
     assertThat(store.get(2L).get(), is("two"));
   }
 
+  @Test
+  public void testBulkComputeIfAbsentGetAllTimeout() throws Exception {
+    ServerStoreProxy proxy = mock(ServerStoreProxy.class);
+    when(proxy.getAll(any())).thenThrow(TimeoutException.class);
+    ClusteredStore<Long, String> store = new ClusteredStore<>(config, null, null, proxy, null, null, new DefaultStatisticsService());
+    Map<Long, Store.ValueHolder<String>> valueHolderMap = store.bulkComputeIfAbsent(new HashSet<>(Arrays.asList(1L, 2L)), new Ehcache.GetAllFunction<>());
+
+    assertThat(valueHolderMap.size(), is(2));
+    assertThat(valueHolderMap.get(1L), nullValue());
+    assertThat(valueHolderMap.get(2L), nullValue());
+  }
+
   @Test(expected = UnsupportedOperationException.class)
   public void testBulkComputeIfAbsentThrowsForGenericFunction() throws Exception {
     @SuppressWarnings("unchecked")
@@ -15,31 +15,40 @@
  */
 package org.ehcache.clustered.client.internal.store.lock;
 
+import org.ehcache.clustered.client.config.Timeouts;
 import org.ehcache.clustered.client.internal.store.ClusterTierClientEntity;
+import org.ehcache.clustered.client.internal.store.ClusterTierClientEntity.ResponseListener;
 import org.ehcache.clustered.client.internal.store.ServerStoreProxyException;
 import org.ehcache.clustered.common.internal.exceptions.UnknownClusterException;
 import org.ehcache.clustered.common.internal.messages.ClusterTierReconnectMessage;
 import org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse;
+import org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.LockGranted;
 import org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.LockSuccess;
 import org.ehcache.clustered.common.internal.messages.ServerStoreOpMessage.LockMessage;
+import org.ehcache.clustered.common.internal.messages.ServerStoreOpMessage.UnlockMessage;
 import org.ehcache.clustered.common.internal.store.Chain;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 
 import java.nio.ByteBuffer;
+import java.time.Duration;
 import java.util.Set;
 import java.util.concurrent.TimeoutException;
 
 import static org.ehcache.clustered.ChainUtils.chainOf;
 import static org.ehcache.clustered.ChainUtils.createPayload;
 import static org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.lockFailure;
+import static org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.lockGranted;
+import static org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.lockPending;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 public class LockManagerTest {
@@ -104,6 +113,50 @@ public class LockManagerTest {
     assertThat(lock.length(), is(3));
   }
 
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testLockWaitsForGrantWhenQueued() throws Exception {
+    ClusterTierClientEntity clusterTierClientEntity = mock(ClusterTierClientEntity.class);
+    when(clusterTierClientEntity.getTimeouts()).thenReturn(Timeouts.DEFAULT);
+    ArgumentCaptor<ResponseListener<LockGranted>> listener = ArgumentCaptor.forClass(ResponseListener.class);
+    doNothing().when(clusterTierClientEntity).addResponseListener(eq(LockGranted.class), listener.capture());
+
+    LockManager lockManager = new LockManager(clusterTierClientEntity);
+
+    Chain chain = getLockSuccessResponse().getChain();
+    when(clusterTierClientEntity.invokeAndWaitForComplete(any(LockMessage.class), anyBoolean())).thenAnswer(invocation -> {
+      // the grant overtakes the response
+      listener.getValue().onResponse(lockGranted(2L, chain));
+      return lockPending();
+    });
+
+    assertThat(lockManager.lock(2L), sameInstance(chain));
+    verify(clusterTierClientEntity, times(1)).invokeAndWaitForComplete(any(LockMessage.class), anyBoolean());
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testLockTimeoutReleasesLateGrant() throws Exception {
+    ClusterTierClientEntity clusterTierClientEntity = mock(ClusterTierClientEntity.class);
+    when(clusterTierClientEntity.getTimeouts()).thenReturn(new Timeouts(Duration.ofMillis(10), Duration.ofMillis(10), Duration.ofMillis(10)));
+    ArgumentCaptor<ResponseListener<LockGranted>> listener = ArgumentCaptor.forClass(ResponseListener.class);
+    doNothing().when(clusterTierClientEntity).addResponseListener(eq(LockGranted.class), listener.capture());
+
+    LockManager lockManager = new LockManager(clusterTierClientEntity);
+
+    when(clusterTierClientEntity.invokeAndWaitForComplete(any(LockMessage.class), anyBoolean())).thenReturn(lockPending());
+
+    try {
+      lockManager.lock(2L);
+      fail();
+    } catch (TimeoutException e) {
+      // expected
+    }
+
+    listener.getValue().onResponse(lockGranted(2L, getLockSuccessResponse().getChain()));
+    verify(clusterTierClientEntity).invokeAndWaitForSend(any(UnlockMessage.class), anyBoolean());
+  }
+
   @SuppressWarnings("unchecked")
   @Test
   public void testUnlockClearsLocksHeldState() throws Exception {
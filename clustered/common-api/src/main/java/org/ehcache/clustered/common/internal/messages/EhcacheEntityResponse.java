@@ -212,6 +212,28 @@ public abstract class EhcacheEntityResponse implements EntityResponse {
     }
   }
 
+  public static ClientInvalidateHashes clientInvalidateHashes(List<ClientInvalidateHash> invalidations) {
+    return new ClientInvalidateHashes(invalidations);
+  }
+
+  // batches the hash invalidations pending for a client
+  public static class ClientInvalidateHashes extends EhcacheEntityResponse {
+    private final List<ClientInvalidateHash> invalidations;
+
+    private ClientInvalidateHashes(List<ClientInvalidateHash> invalidations) {
+      this.invalidations = invalidations;
+    }
+
+    public List<ClientInvalidateHash> getInvalidations() {
+      return invalidations;
+    }
+
+    @Override
+    public final EhcacheResponseType getResponseType() {
+      return EhcacheResponseType.CLIENT_INVALIDATE_HASHES;
+    }
+  }
+
   public static ClientInvalidateAll clientInvalidateAll(int invalidationId) {
     return new ClientInvalidateAll(invalidationId);
   }
@@ -343,6 +365,56 @@ public abstract class EhcacheEntityResponse implements EntityResponse {
     }
   }
 
+  public static LockPending lockPending() {
+    return new LockPending();
+  }
+
+  /**
+   * The client was queued behind the current holder of the lock, and will be sent a {@link LockGranted} when its turn comes.
+   */
+  public static class LockPending extends EhcacheEntityResponse {
+
+    private LockPending() {
+
+    }
+
+    @Override
+    public EhcacheResponseType getResponseType() {
+      return EhcacheResponseType.LOCK_PENDING;
+    }
+  }
+
+  public static LockGranted lockGranted(long hash, Chain chain) {
+    return new LockGranted(hash, chain);
+  }
+
+  /**
+   * Sent by the server to a client queued on a lock when the lock is handed over to it.
+   */
+  public static class LockGranted extends EhcacheEntityResponse {
+
+    private final long hash;
+    private final Chain chain;
+
+    LockGranted(long hash, Chain chain) {
+      this.hash = hash;
+      this.chain = chain;
+    }
+
+    public long getHash() {
+      return hash;
+    }
+
+    public Chain getChain() {
+      return chain;
+    }
+
+    @Override
+    public EhcacheResponseType getResponseType() {
+      return EhcacheResponseType.LOCK_GRANTED;
+    }
+  }
+
   public static IteratorBatch iteratorBatchResponse(UUID id, List<Map.Entry<Long, Chain>> chains, boolean last) {
     return new IteratorBatch(id, chains, last);
   }
@@ -376,4 +448,26 @@ public abstract class EhcacheEntityResponse implements EntityResponse {
       return id;
     }
   }
+
+  public static BatchedGetResponse batchedGetResponse(List<Map.Entry<Long, Chain>> chains) {
+    return new BatchedGetResponse(chains);
+  }
+
+  public static class BatchedGetResponse extends EhcacheEntityResponse {
+
+    private final List<Map.Entry<Long, Chain>> chains;
+
+    private BatchedGetResponse(List<Map.Entry<Long, Chain>> chains) {
+      this.chains = chains;
+    }
+
+    public List<Map.Entry<Long, Chain>> getChains() {
+      return chains;
+    }
+
+    @Override
+    public final EhcacheResponseType getResponseType() {
+      return EhcacheResponseType.BATCHED_GET_RESPONSE;
+    }
+  }
 }
@@ -45,6 +45,8 @@ public enum EhcacheMessageType {
   ITERATOR_CLOSE,
   ITERATOR_ADVANCE,
   ENABLE_EVENT_LISTENER,
+  BATCHED_GET,
+  CLIENT_INVALIDATION_ACKS,
 
   // StateRepository operation messages
   GET_STATE_REPO,
@@ -63,7 +65,7 @@ public enum EhcacheMessageType {
   }
 
   public static final EnumSet<EhcacheMessageType> STORE_OPERATION_MESSAGES = of(GET_AND_APPEND, APPEND,
-          REPLACE, CLIENT_INVALIDATION_ACK, CLIENT_INVALIDATION_ALL_ACK, CLEAR, GET_STORE, LOCK, UNLOCK, ITERATOR_OPEN, ITERATOR_CLOSE, ITERATOR_ADVANCE, ENABLE_EVENT_LISTENER);
+          REPLACE, CLIENT_INVALIDATION_ACK, CLIENT_INVALIDATION_ALL_ACK, CLEAR, GET_STORE, LOCK, UNLOCK, ITERATOR_OPEN, ITERATOR_CLOSE, ITERATOR_ADVANCE, ENABLE_EVENT_LISTENER, BATCHED_GET, CLIENT_INVALIDATION_ACKS);
   public static boolean isStoreOperationMessage(EhcacheMessageType value) {
     return STORE_OPERATION_MESSAGES.contains(value);
   }
@@ -35,5 +35,9 @@ public enum EhcacheResponseType {
   LOCK_FAILURE,
   ITERATOR_BATCH,
   SERVER_APPEND,
+  BATCHED_GET_RESPONSE,
+  CLIENT_INVALIDATE_HASHES,
+  LOCK_PENDING,
+  LOCK_GRANTED,
   ;
 }
@@ -19,10 +19,12 @@ package org.ehcache.clustered.common.internal.messages;
 import org.terracotta.runnel.EnumMapping;
 
 import static org.ehcache.clustered.common.internal.messages.EhcacheMessageType.APPEND;
+import static org.ehcache.clustered.common.internal.messages.EhcacheMessageType.BATCHED_GET;
 import static org.ehcache.clustered.common.internal.messages.EhcacheMessageType.CHAIN_REPLICATION_OP;
 import static org.ehcache.clustered.common.internal.messages.EhcacheMessageType.CLEAR;
 import static org.ehcache.clustered.common.internal.messages.EhcacheMessageType.CLEAR_INVALIDATION_COMPLETE;
 import static org.ehcache.clustered.common.internal.messages.EhcacheMessageType.CLIENT_INVALIDATION_ACK;
+import static org.ehcache.clustered.common.internal.messages.EhcacheMessageType.CLIENT_INVALIDATION_ACKS;
 import static org.ehcache.clustered.common.internal.messages.EhcacheMessageType.CLIENT_INVALIDATION_ALL_ACK;
 import static org.ehcache.clustered.common.internal.messages.EhcacheMessageType.ENABLE_EVENT_LISTENER;
 import static org.ehcache.clustered.common.internal.messages.EhcacheMessageType.ENTRY_SET;
@@ -41,13 +43,17 @@ import static org.ehcache.clustered.common.internal.messages.EhcacheMessageType.
 import static org.ehcache.clustered.common.internal.messages.EhcacheMessageType.VALIDATE;
 import static org.ehcache.clustered.common.internal.messages.EhcacheMessageType.VALIDATE_SERVER_STORE;
 import static org.ehcache.clustered.common.internal.messages.EhcacheResponseType.ALL_INVALIDATION_DONE;
+import static org.ehcache.clustered.common.internal.messages.EhcacheResponseType.BATCHED_GET_RESPONSE;
 import static org.ehcache.clustered.common.internal.messages.EhcacheResponseType.CLIENT_INVALIDATE_ALL;
 import static org.ehcache.clustered.common.internal.messages.EhcacheResponseType.CLIENT_INVALIDATE_HASH;
+import static org.ehcache.clustered.common.internal.messages.EhcacheResponseType.CLIENT_INVALIDATE_HASHES;
 import static org.ehcache.clustered.common.internal.messages.EhcacheResponseType.FAILURE;
 import static org.ehcache.clustered.common.internal.messages.EhcacheResponseType.GET_RESPONSE;
 import static org.ehcache.clustered.common.internal.messages.EhcacheResponseType.HASH_INVALIDATION_DONE;
 import static org.ehcache.clustered.common.internal.messages.EhcacheResponseType.ITERATOR_BATCH;
 import static org.ehcache.clustered.common.internal.messages.EhcacheResponseType.LOCK_FAILURE;
+import static org.ehcache.clustered.common.internal.messages.EhcacheResponseType.LOCK_GRANTED;
+import static org.ehcache.clustered.common.internal.messages.EhcacheResponseType.LOCK_PENDING;
 import static org.ehcache.clustered.common.internal.messages.EhcacheResponseType.LOCK_SUCCESS;
 import static org.ehcache.clustered.common.internal.messages.EhcacheResponseType.MAP_VALUE;
 import static org.ehcache.clustered.common.internal.messages.EhcacheResponseType.RESOLVE_REQUEST;
@@ -78,6 +84,8 @@ public class BaseCodec {
     .mapping(ITERATOR_CLOSE, 31)
     .mapping(ITERATOR_ADVANCE, 32)
     .mapping(ENABLE_EVENT_LISTENER, 33)
+    .mapping(BATCHED_GET, 34)
+    .mapping(CLIENT_INVALIDATION_ACKS, 35)
 
     .mapping(GET_STATE_REPO, 41)
     .mapping(PUT_IF_ABSENT, 42)
@@ -108,6 +116,10 @@ public class BaseCodec {
     .mapping(LOCK_FAILURE, 92)
     .mapping(ITERATOR_BATCH, 93)
     .mapping(SERVER_APPEND, 94)
+    .mapping(BATCHED_GET_RESPONSE, 95)
+    .mapping(CLIENT_INVALIDATE_HASHES, 96)
+    .mapping(LOCK_PENDING, 97)
+    .mapping(LOCK_GRANTED, 98)
     .build();
 
 }
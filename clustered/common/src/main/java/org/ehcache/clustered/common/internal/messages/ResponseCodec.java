@@ -47,10 +47,13 @@ import static org.ehcache.clustered.common.internal.messages.ChainCodec.CHAIN_ST
 import static org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.allInvalidationDone;
 import static org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.clientInvalidateAll;
 import static org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.clientInvalidateHash;
+import static org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.clientInvalidateHashes;
 import static org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.failure;
 import static org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.getResponse;
 import static org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.hashInvalidationDone;
 import static org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.lockFailure;
+import static org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.lockGranted;
+import static org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.lockPending;
 import static org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.mapValue;
 import static org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.prepareForDestroy;
 import static org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.resolveRequest;
@@ -93,6 +96,14 @@ public class ResponseCodec {
     .int64(KEY_FIELD, 20)
     .int32(INVALIDATION_ID_FIELD, 30)
     .build();
+  private static final Struct HASH_INVALIDATION_STRUCT = StructBuilder.newStructBuilder()
+    .int64(KEY_FIELD, 10)
+    .int32(INVALIDATION_ID_FIELD, 20)
+    .build();
+  private static final Struct CLIENT_INVALIDATE_HASHES_RESPONSE_STRUCT = StructBuilder.newStructBuilder()
+    .enm(RESPONSE_TYPE_FIELD_NAME, RESPONSE_TYPE_FIELD_INDEX, EHCACHE_RESPONSE_TYPES_ENUM_MAPPING)
+    .structs("invalidations", 20, HASH_INVALIDATION_STRUCT)
+    .build();
   private static final Struct CLIENT_INVALIDATE_ALL_RESPONSE_STRUCT = StructBuilder.newStructBuilder()
     .enm(RESPONSE_TYPE_FIELD_NAME, RESPONSE_TYPE_FIELD_INDEX, EHCACHE_RESPONSE_TYPES_ENUM_MAPPING)
     .int32(INVALIDATION_ID_FIELD, 20)
@@ -124,12 +135,21 @@ public class ResponseCodec {
     .enm(RESPONSE_TYPE_FIELD_NAME, RESPONSE_TYPE_FIELD_INDEX, EHCACHE_RESPONSE_TYPES_ENUM_MAPPING)
     .struct(CHAIN_FIELD, 20, CHAIN_STRUCT)
     .build();
+  private static final Struct LOCK_GRANTED_RESPONSE_STRUCT = newStructBuilder()
+    .enm(RESPONSE_TYPE_FIELD_NAME, RESPONSE_TYPE_FIELD_INDEX, EHCACHE_RESPONSE_TYPES_ENUM_MAPPING)
+    .int64(KEY_FIELD, 20)
+    .struct(CHAIN_FIELD, 30, CHAIN_STRUCT)
+    .build();
   private static final Struct ITERATOR_BATCH_STRUCT = newStructBuilder()
     .enm(RESPONSE_TYPE_FIELD_NAME, RESPONSE_TYPE_FIELD_INDEX, EHCACHE_RESPONSE_TYPES_ENUM_MAPPING)
     .string("id", 20)
     .structs("chains", 30, CHAIN_ENTRY_STRUCT)
     .bool("last", 40)
     .build();
+  private static final Struct BATCHED_GET_RESPONSE_STRUCT = newStructBuilder()
+    .enm(RESPONSE_TYPE_FIELD_NAME, RESPONSE_TYPE_FIELD_INDEX, EHCACHE_RESPONSE_TYPES_ENUM_MAPPING)
+    .structs("chains", 20, CHAIN_ENTRY_STRUCT)
+    .build();
 
   public byte[] encode(EhcacheEntityResponse response) {
     switch (response.getResponseType()) {
@@ -170,6 +190,15 @@ public class ResponseCodec {
           .int32(INVALIDATION_ID_FIELD, clientInvalidateHash.getInvalidationId())
           .encode().array();
       }
+      case CLIENT_INVALIDATE_HASHES: {
+        EhcacheEntityResponse.ClientInvalidateHashes clientInvalidateHashes = (EhcacheEntityResponse.ClientInvalidateHashes) response;
+        return CLIENT_INVALIDATE_HASHES_RESPONSE_STRUCT.encoder()
+          .enm(RESPONSE_TYPE_FIELD_NAME, clientInvalidateHashes.getResponseType())
+          .structs("invalidations", clientInvalidateHashes.getInvalidations(), (encoder, invalidation) -> encoder
+            .int64(KEY_FIELD, invalidation.getKey())
+            .int32(INVALIDATION_ID_FIELD, invalidation.getInvalidationId()))
+          .encode().array();
+      }
       case CLIENT_INVALIDATE_ALL: {
         EhcacheEntityResponse.ClientInvalidateAll clientInvalidateAll = (EhcacheEntityResponse.ClientInvalidateAll) response;
         return CLIENT_INVALIDATE_ALL_RESPONSE_STRUCT.encoder()
@@ -235,6 +264,19 @@ public class ResponseCodec {
                 .enm(RESPONSE_TYPE_FIELD_NAME, lockFailure.getResponseType())
                 .encode().array();
       }
+      case LOCK_PENDING: {
+        return LOCK_RESPONSE_STRUCT.encoder()
+          .enm(RESPONSE_TYPE_FIELD_NAME, response.getResponseType())
+          .encode().array();
+      }
+      case LOCK_GRANTED: {
+        EhcacheEntityResponse.LockGranted lockGranted = (EhcacheEntityResponse.LockGranted) response;
+        return LOCK_GRANTED_RESPONSE_STRUCT.encoder()
+          .enm(RESPONSE_TYPE_FIELD_NAME, lockGranted.getResponseType())
+          .int64(KEY_FIELD, lockGranted.getHash())
+          .struct(CHAIN_FIELD, lockGranted.getChain(), ChainCodec::encodeChain)
+          .encode().array();
+      }
       case ITERATOR_BATCH: {
         EhcacheEntityResponse.IteratorBatch iteratorBatch = (EhcacheEntityResponse.IteratorBatch) response;
         return ITERATOR_BATCH_STRUCT.encoder()
@@ -244,6 +286,13 @@ public class ResponseCodec {
           .bool("last", iteratorBatch.isLast())
           .encode().array();
       }
+      case BATCHED_GET_RESPONSE: {
+        EhcacheEntityResponse.BatchedGetResponse batchedGetResponse = (EhcacheEntityResponse.BatchedGetResponse) response;
+        return BATCHED_GET_RESPONSE_STRUCT.encoder()
+          .enm(RESPONSE_TYPE_FIELD_NAME, batchedGetResponse.getResponseType())
+          .structs("chains", batchedGetResponse.getChains(), ChainCodec::encodeChainEntry)
+          .encode().array();
+      }
       default:
         throw new UnsupportedOperationException("The operation is not supported : " + response.getResponseType());
     }
@@ -295,6 +344,16 @@ public class ResponseCodec {
         int invalidationId = decoder.int32(INVALIDATION_ID_FIELD);
         return clientInvalidateHash(key, invalidationId);
       }
+      case CLIENT_INVALIDATE_HASHES: {
+        decoder = CLIENT_INVALIDATE_HASHES_RESPONSE_STRUCT.decoder(buffer);
+        StructArrayDecoder<StructDecoder<Void>> invalidationsDecoder = decoder.structs("invalidations");
+        List<EhcacheEntityResponse.ClientInvalidateHash> invalidations = new ArrayList<>(invalidationsDecoder.length());
+        while (invalidationsDecoder.hasNext()) {
+          StructDecoder<?> invalidationDecoder = invalidationsDecoder.next();
+          invalidations.add(clientInvalidateHash(invalidationDecoder.int64(KEY_FIELD), invalidationDecoder.int32(INVALIDATION_ID_FIELD)));
+        }
+        return clientInvalidateHashes(invalidations);
+      }
       case CLIENT_INVALIDATE_ALL: {
         decoder = CLIENT_INVALIDATE_ALL_RESPONSE_STRUCT.decoder(buffer);
         int invalidationId = decoder.int32(INVALIDATION_ID_FIELD);
@@ -335,6 +394,15 @@ public class ResponseCodec {
       case LOCK_FAILURE: {
         return lockFailure();
       }
+      case LOCK_PENDING: {
+        return lockPending();
+      }
+      case LOCK_GRANTED: {
+        decoder = LOCK_GRANTED_RESPONSE_STRUCT.decoder(buffer);
+        long hash = decoder.int64(KEY_FIELD);
+        Chain chain = ChainCodec.decodeChain(decoder.struct(CHAIN_FIELD));
+        return lockGranted(hash, chain);
+      }
       case ITERATOR_BATCH: {
         decoder = ITERATOR_BATCH_STRUCT.decoder(buffer);
         UUID id = UUID.fromString(decoder.string("id"));
@@ -346,6 +414,15 @@ public class ResponseCodec {
         boolean last = decoder.bool("last");
         return EhcacheEntityResponse.iteratorBatchResponse(id, chains, last);
       }
+      case BATCHED_GET_RESPONSE: {
+        decoder = BATCHED_GET_RESPONSE_STRUCT.decoder(buffer);
+        StructArrayDecoder<StructDecoder<Void>> chainsDecoder = decoder.structs("chains");
+        List<Map.Entry<Long, Chain>> chains = new ArrayList<>(chainsDecoder.length());
+        while (chainsDecoder.hasNext()) {
+          chains.add(ChainCodec.decodeChainEntry(chainsDecoder.next()));
+        }
+        return EhcacheEntityResponse.batchedGetResponse(chains);
+      }
 
       default:
         throw new UnsupportedOperationException("The operation is not supported with opCode : " + opCode);
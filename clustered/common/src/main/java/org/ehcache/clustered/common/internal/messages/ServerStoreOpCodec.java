@@ -17,19 +17,29 @@
 package org.ehcache.clustered.common.internal.messages;
 
 import org.ehcache.clustered.common.internal.messages.ServerStoreOpMessage.AppendMessage;
+import org.ehcache.clustered.common.internal.messages.ServerStoreOpMessage.BatchedGetMessage;
 import org.ehcache.clustered.common.internal.messages.ServerStoreOpMessage.ClearMessage;
 import org.ehcache.clustered.common.internal.messages.ServerStoreOpMessage.ClientInvalidationAck;
+import org.ehcache.clustered.common.internal.messages.ServerStoreOpMessage.ClientInvalidationAcks;
 import org.ehcache.clustered.common.internal.messages.ServerStoreOpMessage.ClientInvalidationAllAck;
 import org.ehcache.clustered.common.internal.messages.ServerStoreOpMessage.GetAndAppendMessage;
 import org.ehcache.clustered.common.internal.messages.ServerStoreOpMessage.GetMessage;
 import org.ehcache.clustered.common.internal.messages.ServerStoreOpMessage.ReplaceAtHeadMessage;
 import org.ehcache.clustered.common.internal.store.Chain;
 import org.terracotta.runnel.Struct;
+import org.terracotta.runnel.decoding.ArrayDecoder;
 import org.terracotta.runnel.decoding.StructDecoder;
+import org.terracotta.runnel.encoding.ArrayEncoder;
+import org.terracotta.runnel.encoding.StructEncoder;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
+import static java.lang.Math.toIntExact;
 import static org.ehcache.clustered.common.internal.messages.BaseCodec.EHCACHE_MESSAGE_TYPES_ENUM_MAPPING;
 import static org.ehcache.clustered.common.internal.messages.BaseCodec.MESSAGE_TYPE_FIELD_INDEX;
 import static org.ehcache.clustered.common.internal.messages.BaseCodec.MESSAGE_TYPE_FIELD_NAME;
@@ -70,6 +80,11 @@ public class ServerStoreOpCodec {
     .int32("invalidationId", 40)
     .build();
 
+  private static final Struct CLIENT_INVALIDATION_ACKS_MESSAGE_STRUCT = newStructBuilder()
+    .enm(MESSAGE_TYPE_FIELD_NAME, MESSAGE_TYPE_FIELD_INDEX, EHCACHE_MESSAGE_TYPES_ENUM_MAPPING)
+    .int64s("invalidationIds", 20)
+    .build();
+
   private static final Struct CLEAR_MESSAGE_STRUCT = newStructBuilder()
     .enm(MESSAGE_TYPE_FIELD_NAME, MESSAGE_TYPE_FIELD_INDEX, EHCACHE_MESSAGE_TYPES_ENUM_MAPPING)
     .build();
@@ -82,6 +97,7 @@ public class ServerStoreOpCodec {
   private static final Struct LOCK_STRUCT = newStructBuilder()
     .enm(MESSAGE_TYPE_FIELD_NAME, MESSAGE_TYPE_FIELD_INDEX, EHCACHE_MESSAGE_TYPES_ENUM_MAPPING)
     .int64("hash", 30)
+    .bool("wait", 40)
     .build();
 
   private static final Struct ITERATOR_OPEN_STRUCT = newStructBuilder()
@@ -105,6 +121,11 @@ public class ServerStoreOpCodec {
     .bool("enable", 20)
     .build();
 
+  private static final Struct BATCHED_GET_STRUCT = newStructBuilder()
+    .enm(MESSAGE_TYPE_FIELD_NAME, MESSAGE_TYPE_FIELD_INDEX, EHCACHE_MESSAGE_TYPES_ENUM_MAPPING)
+    .int64s("keys", 20)
+    .build();
+
   public byte[] encode(ServerStoreOpMessage message) {
     switch (message.getMessageType()) {
       case GET_STORE:
@@ -142,6 +163,12 @@ public class ServerStoreOpCodec {
         return encodeMandatoryFields(CLIENT_INVALIDATION_ALL_ACK_MESSAGE_STRUCT, message)
           .int32("invalidationId", clientInvalidationAllAckMessage.getInvalidationId())
           .encode().array();
+      case CLIENT_INVALIDATION_ACKS: {
+        StructEncoder<Void> encoder = encodeMandatoryFields(CLIENT_INVALIDATION_ACKS_MESSAGE_STRUCT, message);
+        ArrayEncoder<Long, StructEncoder<Void>> idsEncoder = encoder.int64s("invalidationIds");
+        ((ClientInvalidationAcks) message).getInvalidationIds().forEach(id -> idsEncoder.value(id.longValue()));
+        return encoder.encode().array();
+      }
       case CLEAR:
         return encodeMandatoryFields(CLEAR_MESSAGE_STRUCT, message)
           .encode().array();
@@ -149,6 +176,7 @@ public class ServerStoreOpCodec {
         ServerStoreOpMessage.LockMessage lockMessage = (ServerStoreOpMessage.LockMessage) message;
         return encodeMandatoryFields(LOCK_STRUCT, message)
           .int64("hash", lockMessage.getHash())
+          .bool("wait", lockMessage.isWait())
           .encode().array();
       case UNLOCK:
         ServerStoreOpMessage.UnlockMessage unlockMessage = (ServerStoreOpMessage.UnlockMessage) message;
@@ -172,6 +200,12 @@ public class ServerStoreOpCodec {
         return encodeMandatoryFields(ENABLE_EVENT_LISTENER_STRUCT, message)
           .bool("enable", ((ServerStoreOpMessage.EnableEventListenerMessage) message).isEnable())
           .encode().array();
+      case BATCHED_GET: {
+        StructEncoder<Void> encoder = encodeMandatoryFields(BATCHED_GET_STRUCT, message);
+        ArrayEncoder<Long, StructEncoder<Void>> keysEncoder = encoder.int64s("keys");
+        ((BatchedGetMessage) message).getKeys().forEach(keysEncoder::value);
+        return encoder.encode().array();
+      }
       default:
         throw new RuntimeException("Unhandled message operation : " + message.getMessageType());
     }
@@ -214,13 +248,25 @@ public class ServerStoreOpCodec {
         Integer invalidationId = decoder.int32("invalidationId");
         return new ClientInvalidationAllAck(invalidationId);
       }
+      case CLIENT_INVALIDATION_ACKS: {
+        StructDecoder<Void> decoder = CLIENT_INVALIDATION_ACKS_MESSAGE_STRUCT.decoder(messageBuffer);
+        ArrayDecoder<Long, StructDecoder<Void>> idsDecoder = decoder.int64s("invalidationIds");
+        List<Integer> invalidationIds = new ArrayList<>();
+        if (idsDecoder != null) {
+          for (int i = 0; i < idsDecoder.length(); i++) {
+            invalidationIds.add(toIntExact(idsDecoder.value()));
+          }
+        }
+        return new ClientInvalidationAcks(invalidationIds);
+      }
       case CLEAR: {
         return new ClearMessage();
       }
       case LOCK: {
         StructDecoder<Void> decoder = LOCK_STRUCT.decoder(messageBuffer);
         long hash = decoder.int64("hash");
-        return new ServerStoreOpMessage.LockMessage(hash);
+        Boolean wait = decoder.bool("wait");
+        return new ServerStoreOpMessage.LockMessage(hash, wait != null && wait);
       }
       case UNLOCK: {
         StructDecoder<Void> decoder = LOCK_STRUCT.decoder(messageBuffer);
@@ -248,6 +294,17 @@ public class ServerStoreOpCodec {
         Boolean enable = decoder.bool("enable");
         return new ServerStoreOpMessage.EnableEventListenerMessage(enable);
       }
+      case BATCHED_GET: {
+        StructDecoder<Void> decoder = BATCHED_GET_STRUCT.decoder(messageBuffer);
+        ArrayDecoder<Long, StructDecoder<Void>> keysDecoder = decoder.int64s("keys");
+        Set<Long> keys = new LinkedHashSet<>();
+        if (keysDecoder != null) {
+          for (int i = 0; i < keysDecoder.length(); i++) {
+            keys.add(keysDecoder.value());
+          }
+        }
+        return new BatchedGetMessage(keys);
+      }
       default:
         throw new RuntimeException("Unhandled message operation : " + opCode);
     }
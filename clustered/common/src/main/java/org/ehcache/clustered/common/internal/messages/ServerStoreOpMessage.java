@@ -19,6 +19,8 @@ package org.ehcache.clustered.common.internal.messages;
 import org.ehcache.clustered.common.internal.store.Chain;
 
 import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 public abstract class ServerStoreOpMessage extends EhcacheOperationMessage {
@@ -159,6 +161,25 @@ public abstract class ServerStoreOpMessage extends EhcacheOperationMessage {
     }
   }
 
+  public static class ClientInvalidationAcks extends ServerStoreOpMessage {
+
+    private final List<Integer> invalidationIds;
+
+    public ClientInvalidationAcks(List<Integer> invalidationIds) {
+      super();
+      this.invalidationIds = invalidationIds;
+    }
+
+    @Override
+    public EhcacheMessageType getMessageType() {
+      return EhcacheMessageType.CLIENT_INVALIDATION_ACKS;
+    }
+
+    public List<Integer> getInvalidationIds() {
+      return invalidationIds;
+    }
+  }
+
   public static class ClearMessage extends ServerStoreOpMessage {
 
     @Override
@@ -170,15 +191,29 @@ public abstract class ServerStoreOpMessage extends EhcacheOperationMessage {
   public static class LockMessage extends ServerStoreOpMessage {
 
     private final long hash;
+    private final boolean wait;
 
     public LockMessage(long hash) {
+      this(hash, false);
+    }
+
+    /**
+     * @param hash the hash to lock
+     * @param wait {@code true} to be queued on the server if the lock is held, rather than being answered a failure
+     */
+    public LockMessage(long hash, boolean wait) {
       this.hash = hash;
+      this.wait = wait;
     }
 
     public long getHash() {
       return hash;
     }
 
+    public boolean isWait() {
+      return wait;
+    }
+
     @Override
     public EhcacheMessageType getMessageType() {
       return EhcacheMessageType.LOCK;
@@ -281,5 +316,22 @@ public abstract class ServerStoreOpMessage extends EhcacheOperationMessage {
     }
   }
 
-}
+  public static class BatchedGetMessage extends ServerStoreOpMessage {
+
+    private final Set<Long> keys;
+
+    public BatchedGetMessage(Set<Long> keys) {
+      this.keys = keys;
+    }
+
+    public Set<Long> getKeys() {
+      return keys;
+    }
 
+    @Override
+    public EhcacheMessageType getMessageType() {
+      return EhcacheMessageType.BATCHED_GET;
+    }
+  }
+
+}
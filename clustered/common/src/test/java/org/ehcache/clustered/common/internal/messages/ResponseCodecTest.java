@@ -35,6 +35,7 @@ import static org.ehcache.clustered.Matchers.hasPayloads;
 import static org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.allInvalidationDone;
 import static org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.clientInvalidateAll;
 import static org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.clientInvalidateHash;
+import static org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.clientInvalidateHashes;
 import static org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.failure;
 import static org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.getResponse;
 import static org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.hashInvalidationDone;
@@ -119,6 +120,21 @@ public class ResponseCodecTest {
     assertThat(decodedResponse.getInvalidationId(), is(INVALIDATION_ID));
   }
 
+  @Test
+  public void testClientInvalidateHashes() throws Exception {
+    EhcacheEntityResponse.ClientInvalidateHashes response = clientInvalidateHashes(asList(
+      clientInvalidateHash(KEY, INVALIDATION_ID), clientInvalidateHash(KEY + 1, INVALIDATION_ID + 1)));
+    byte[] encoded = RESPONSE_CODEC.encode(response);
+    EhcacheEntityResponse.ClientInvalidateHashes decodedResponse = (EhcacheEntityResponse.ClientInvalidateHashes) RESPONSE_CODEC.decode(encoded);
+
+    assertThat(decodedResponse.getResponseType(), is(EhcacheResponseType.CLIENT_INVALIDATE_HASHES));
+    assertThat(decodedResponse.getInvalidations().size(), is(2));
+    assertThat(decodedResponse.getInvalidations().get(0).getKey(), is(KEY));
+    assertThat(decodedResponse.getInvalidations().get(0).getInvalidationId(), is(INVALIDATION_ID));
+    assertThat(decodedResponse.getInvalidations().get(1).getKey(), is(KEY + 1));
+    assertThat(decodedResponse.getInvalidations().get(1).getInvalidationId(), is(INVALIDATION_ID + 1));
+  }
+
   @Test
   public void testClientInvalidateAll() throws Exception {
     EhcacheEntityResponse.ClientInvalidateAll response = clientInvalidateAll(INVALIDATION_ID);
@@ -198,6 +214,19 @@ public class ResponseCodecTest {
     assertThat(failureDecoded.getResponseType(), is(EhcacheResponseType.LOCK_FAILURE));
   }
 
+  @Test
+  public void testLockQueueResponses() {
+    byte[] pendingEncoded = RESPONSE_CODEC.encode(EhcacheEntityResponse.lockPending());
+    assertThat(RESPONSE_CODEC.decode(pendingEncoded).getResponseType(), is(EhcacheResponseType.LOCK_PENDING));
+
+    EhcacheEntityResponse.LockGranted lockGranted = EhcacheEntityResponse.lockGranted(42L, chainOf(createPayload(1L), createPayload(10L)));
+    EhcacheEntityResponse.LockGranted grantedDecoded = (EhcacheEntityResponse.LockGranted) RESPONSE_CODEC.decode(RESPONSE_CODEC.encode(lockGranted));
+
+    assertThat(grantedDecoded.getResponseType(), is(EhcacheResponseType.LOCK_GRANTED));
+    assertThat(grantedDecoded.getHash(), is(42L));
+    assertThat(grantedDecoded.getChain(), hasPayloads(1L, 10L));
+  }
+
   @Test
   public void testIteratorBatchResponse() {
     UUID uuid = UUID.randomUUID();
@@ -227,4 +256,21 @@ public class ResponseCodecTest {
     assertThat(appendDecoded.getAppended().asLongBuffer().get(), is(3L));
     assertThat(appendDecoded.getBeforeAppend(), hasPayloads(1L, 2L));
   }
+
+  @Test
+  public void testBatchedGetResponse() {
+    List<Map.Entry<Long, Chain>> chains = asList(
+    new AbstractMap.SimpleImmutableEntry<>(1L, chainOf(createPayload(1L), createPayload(10L))),
+    new AbstractMap.SimpleImmutableEntry<>(2L, chainOf()));
+    EhcacheEntityResponse.BatchedGetResponse batchedGetResponse = EhcacheEntityResponse.batchedGetResponse(chains);
+
+    byte[] encoded = RESPONSE_CODEC.encode(batchedGetResponse);
+    EhcacheEntityResponse.BatchedGetResponse decoded = (EhcacheEntityResponse.BatchedGetResponse) RESPONSE_CODEC.decode(encoded);
+
+    assertThat(decoded.getResponseType(), is(EhcacheResponseType.BATCHED_GET_RESPONSE));
+    assertThat(decoded.getChains().get(0).getKey(), is(1L));
+    assertThat(decoded.getChains().get(0).getValue(), hasPayloads(1L, 10L));
+    assertThat(decoded.getChains().get(1).getKey(), is(2L));
+    assertThat(decoded.getChains().get(1).getValue().isEmpty(), is(true));
+  }
 }
@@ -18,15 +18,18 @@ package org.ehcache.clustered.common.internal.messages;
 
 import org.junit.Test;
 
+import java.util.LinkedHashSet;
 import java.util.UUID;
 
 import static java.nio.ByteBuffer.wrap;
+import static java.util.Arrays.asList;
 import static org.ehcache.clustered.ChainUtils.chainOf;
 import static org.ehcache.clustered.ChainUtils.createPayload;
 import static org.ehcache.clustered.ChainUtils.readPayload;
 import static org.ehcache.clustered.ChainUtils.sequencedChainOf;
 import static org.ehcache.clustered.Matchers.hasPayloads;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.is;
 
 public class ServerStoreOpCodecTest {
@@ -59,6 +62,30 @@ public class ServerStoreOpCodecTest {
     assertThat(decodedGetMessage.getMessageType(), is(EhcacheMessageType.GET_STORE));
   }
 
+  @Test
+  public void testBatchedGetMessageCodec() {
+    ServerStoreOpMessage batchedGetMessage = new ServerStoreOpMessage.BatchedGetMessage(new LinkedHashSet<>(asList(2L, 1L, 3L)));
+
+    byte[] encoded = STORE_OP_CODEC.encode(batchedGetMessage);
+    EhcacheEntityMessage decodedMsg = STORE_OP_CODEC.decode(batchedGetMessage.getMessageType(), wrap(encoded));
+    ServerStoreOpMessage.BatchedGetMessage decodedBatchedGetMessage = (ServerStoreOpMessage.BatchedGetMessage) decodedMsg;
+
+    assertThat(decodedBatchedGetMessage.getKeys(), contains(2L, 1L, 3L));
+    assertThat(decodedBatchedGetMessage.getMessageType(), is(EhcacheMessageType.BATCHED_GET));
+  }
+
+  @Test
+  public void testClientInvalidationAcksCodec() {
+    ServerStoreOpMessage acks = new ServerStoreOpMessage.ClientInvalidationAcks(asList(5, 3, 8));
+
+    byte[] encoded = STORE_OP_CODEC.encode(acks);
+    EhcacheEntityMessage decodedMsg = STORE_OP_CODEC.decode(acks.getMessageType(), wrap(encoded));
+    ServerStoreOpMessage.ClientInvalidationAcks decodedAcks = (ServerStoreOpMessage.ClientInvalidationAcks) decodedMsg;
+
+    assertThat(decodedAcks.getInvalidationIds(), contains(5, 3, 8));
+    assertThat(decodedAcks.getMessageType(), is(EhcacheMessageType.CLIENT_INVALIDATION_ACKS));
+  }
+
   @Test
   public void testGetAndAppendMessageCodec() {
     ServerStoreOpMessage getAndAppendMessage = new ServerStoreOpMessage.GetAndAppendMessage(10L, createPayload(10L));
@@ -121,9 +148,21 @@ public class ServerStoreOpCodecTest {
     ServerStoreOpMessage.LockMessage decodedLockMessage = (ServerStoreOpMessage.LockMessage) decoded;
 
     assertThat(decodedLockMessage.getHash(), is(2L));
+    assertThat(decodedLockMessage.isWait(), is(false));
     assertThat(decodedLockMessage.getMessageType(), is(EhcacheMessageType.LOCK));
   }
 
+  @Test
+  public void testWaitingLockMessage() throws Exception {
+    ServerStoreOpMessage lockMessage = new ServerStoreOpMessage.LockMessage(2L, true);
+
+    byte[] encoded = STORE_OP_CODEC.encode(lockMessage);
+    ServerStoreOpMessage.LockMessage decoded = (ServerStoreOpMessage.LockMessage) STORE_OP_CODEC.decode(lockMessage.getMessageType(), wrap(encoded));
+
+    assertThat(decoded.getHash(), is(2L));
+    assertThat(decoded.isWait(), is(true));
+  }
+
   @Test
   public void testUnlockMessage() throws Exception {
     ServerStoreOpMessage unlockMessage = new ServerStoreOpMessage.UnlockMessage(2L);
@@ -127,7 +127,13 @@ public class ClusteringManagementServiceTest extends AbstractClusteringManagemen
     new StatisticDescriptor("Store:VitalMemory", "GAUGE"),
     new StatisticDescriptor("Store:RemovedSlotCount", "COUNTER"),
     new StatisticDescriptor("Store:DataSize", "GAUGE"),
-    new StatisticDescriptor("Store:TableCapacity", "GAUGE")
+    new StatisticDescriptor("Store:TableCapacity", "GAUGE"),
+    new StatisticDescriptor("Store:ReplicatedBytes", "COUNTER"),
+    new StatisticDescriptor("Store:FullReplications", "COUNTER"),
+    new StatisticDescriptor("Store:DeltaReplications", "COUNTER"),
+    new StatisticDescriptor("Store:ReplicationMismatches", "COUNTER"),
+    new StatisticDescriptor("Store:GlobalLockAcquisitions", "COUNTER"),
+    new StatisticDescriptor("Store:GlobalLockTime", "COUNTER")
   );
   private static final Collection<StatisticDescriptor> OFFHEAP_RES_DESCRIPTORS =  Arrays.asList(
     new StatisticDescriptor("OffHeapResource:AllocatedMemory", "GAUGE")
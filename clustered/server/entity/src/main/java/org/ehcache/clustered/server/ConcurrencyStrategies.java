@@ -66,7 +66,7 @@ public final class ConcurrencyStrategies {
 
     @Override
     public int concurrencyKey(EhcacheEntityMessage entityMessage) {
-      if (entityMessage instanceof ServerStoreOpMessage.GetMessage) {
+      if (entityMessage instanceof ServerStoreOpMessage.GetMessage || entityMessage instanceof ServerStoreOpMessage.BatchedGetMessage) {
         return UNIVERSAL_KEY;
       } else if (entityMessage instanceof ConcurrentEntityMessage) {
         ConcurrentEntityMessage concurrentEntityMessage = (ConcurrentEntityMessage) entityMessage;
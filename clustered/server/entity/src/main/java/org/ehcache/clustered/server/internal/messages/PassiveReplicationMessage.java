@@ -22,6 +22,7 @@ import org.ehcache.clustered.common.internal.messages.EhcacheOperationMessage;
 import org.ehcache.clustered.common.internal.store.Chain;
 import org.ehcache.clustered.common.internal.store.Element;
 
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
@@ -35,18 +36,74 @@ public abstract class PassiveReplicationMessage extends EhcacheOperationMessage
 
   public static class ChainReplicationMessage extends PassiveReplicationMessage implements ConcurrentEntityMessage {
 
+    /**
+     * Checkpoint value of a message carrying the full chain.
+     */
+    public static final long FULL_CHAIN = -1L;
+
     private final long clientId;
     private final long key;
     private final Chain chain;
     private final long transactionId;
     private final long oldestTransactionId;
+    private final long checkpoint;
+    private final long checkpointHash;
 
     public ChainReplicationMessage(long key, Chain chain, long transactionId, long oldestTransactionId, long clientId) {
+      this(key, chain, transactionId, oldestTransactionId, clientId, FULL_CHAIN, 0L);
+    }
+
+    /**
+     * Creates a replication message.
+     * <p>
+     * With a {@code checkpoint} of {@link #FULL_CHAIN} the message carries the whole chain to be saved. Otherwise it only
+     * carries the appended element, {@code checkpoint} is the length of the chain on the active before the append and
+     * {@code checkpointHash} the {@link #contentHash(Chain) content hash} of that chain.
+     */
+    public ChainReplicationMessage(long key, Chain chain, long transactionId, long oldestTransactionId, long clientId, long checkpoint, long checkpointHash) {
       this.clientId = clientId;
       this.transactionId = transactionId;
       this.oldestTransactionId = oldestTransactionId;
       this.key = key;
       this.chain = chain;
+      this.checkpoint = checkpoint;
+      this.checkpointHash = checkpointHash;
+    }
+
+    /**
+     * Hashes the payloads of the first {@code length} elements of a chain.
+     * <p>
+     * Sequence numbers are assigned locally by each server, so only payloads take part in the hash.
+     *
+     * @param chain the chain to hash
+     * @param length the number of leading elements to hash
+     * @return a 64 bit FNV-1a hash of the element payloads
+     */
+    public static long contentHash(Chain chain, long length) {
+      long hash = 0xcbf29ce484222325L;
+      long remaining = length;
+      for (Element element : chain) {
+        if (remaining-- == 0) {
+          break;
+        }
+        ByteBuffer payload = element.getPayload();
+        hash = (hash ^ payload.remaining()) * 0x100000001b3L;
+        for (int i = payload.position(); i < payload.limit(); i++) {
+          hash = (hash ^ (payload.get(i) & 0xff)) * 0x100000001b3L;
+        }
+      }
+      return hash;
+    }
+
+    /**
+     * Hashes the payloads of all elements of a chain.
+     *
+     * @param chain the chain to hash
+     * @return a 64 bit FNV-1a hash of the element payloads
+     * @see #contentHash(Chain, long)
+     */
+    public static long contentHash(Chain chain) {
+      return contentHash(chain, Long.MAX_VALUE);
     }
 
     private Chain dropLastElement(Chain chain) {
@@ -73,13 +130,36 @@ public abstract class PassiveReplicationMessage extends EhcacheOperationMessage
     }
 
     /**
-     * @return chain that needs to be save in the store
+     * @return chain that needs to be save in the store, or the appended element alone for a delta message
      */
     public Chain getChain() {
       return chain;
     }
 
     /**
+     * @return {@code true} if this message only carries the appended element
+     */
+    public boolean isDelta() {
+      return checkpoint != FULL_CHAIN;
+    }
+
+    /**
+     * @return length of the chain before the append, or {@link #FULL_CHAIN} for a full chain message
+     */
+    public long getCheckpoint() {
+      return checkpoint;
+    }
+
+    /**
+     * @return content hash of the chain before the append, only meaningful for a delta message
+     */
+    public long getCheckpointHash() {
+      return checkpointHash;
+    }
+
+    /**
+     * Only meaningful for a full chain message, the result of a delta message being the chain found before the append.
+     *
      * @return result that should be returned is the original message is sent again to this server after a failover
      */
     public Chain getResult() {
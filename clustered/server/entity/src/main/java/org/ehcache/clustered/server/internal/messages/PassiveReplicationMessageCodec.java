@@ -22,6 +22,7 @@ import org.ehcache.clustered.common.internal.messages.EhcacheMessageType;
 import org.ehcache.clustered.common.internal.store.Chain;
 import org.terracotta.runnel.Struct;
 import org.terracotta.runnel.decoding.StructDecoder;
+import org.terracotta.runnel.encoding.StructEncoder;
 
 import java.nio.ByteBuffer;
 
@@ -39,6 +40,8 @@ public class PassiveReplicationMessageCodec {
   private static final String OLDEST_TRANSACTION_ID_FIELD = "otId";
   private static final String TRANSACTION_ID_FIELD = "tId";
   private static final String CLIENT_ID_FIELD = "cId";
+  private static final String CHECKPOINT_FIELD = "checkpoint";
+  private static final String CHECKPOINT_HASH_FIELD = "checkpointHash";
 
   private static final Struct CHAIN_REPLICATION_STRUCT = newStructBuilder()
     .enm(MESSAGE_TYPE_FIELD_NAME, MESSAGE_TYPE_FIELD_INDEX, EHCACHE_MESSAGE_TYPES_ENUM_MAPPING)
@@ -48,6 +51,8 @@ public class PassiveReplicationMessageCodec {
     .int64(OLDEST_TRANSACTION_ID_FIELD, 35)
     .int64(KEY_FIELD, 40)
     .struct(CHAIN_FIELD, 45, ChainCodec.CHAIN_STRUCT)
+    .int64(CHECKPOINT_FIELD, 50)
+    .int64(CHECKPOINT_HASH_FIELD, 55)
     .build();
 
   private static final Struct CLEAR_INVALIDATION_COMPLETE_STRUCT = newStructBuilder()
@@ -84,13 +89,17 @@ public class PassiveReplicationMessageCodec {
   }
 
   private byte[] encodeChainReplicationMessage(PassiveReplicationMessage.ChainReplicationMessage message) {
-    return encodeMandatoryFields(CHAIN_REPLICATION_STRUCT, message)
+    StructEncoder<Void> encoder = encodeMandatoryFields(CHAIN_REPLICATION_STRUCT, message)
       .int64(TRANSACTION_ID_FIELD, message.getTransactionId())
       .int64(CLIENT_ID_FIELD, message.getClientId())
       .int64(OLDEST_TRANSACTION_ID_FIELD, message.getOldestTransactionId())
       .int64(KEY_FIELD, message.getKey())
-      .struct(CHAIN_FIELD, message.getChain(), ChainCodec::encodeChain)
-      .encode().array();
+      .struct(CHAIN_FIELD, message.getChain(), ChainCodec::encodeChain);
+    if (message.isDelta()) {
+      encoder.int64(CHECKPOINT_FIELD, message.getCheckpoint());
+      encoder.int64(CHECKPOINT_HASH_FIELD, message.getCheckpointHash());
+    }
+    return encoder.encode().array();
   }
 
   public EhcacheEntityMessage decode(EhcacheMessageType messageType, ByteBuffer messageBuffer) {
@@ -129,8 +138,14 @@ public class PassiveReplicationMessageCodec {
     Long key = decoder.int64(KEY_FIELD);
 
     Chain chain = ChainCodec.decodeChain(decoder.struct(CHAIN_FIELD));
-
-    return new PassiveReplicationMessage.ChainReplicationMessage(key, chain, currentTransactionId, oldestTransactionId, clientId);
+    Long checkpoint = decoder.int64(CHECKPOINT_FIELD);
+    if (checkpoint == null) {
+      return new PassiveReplicationMessage.ChainReplicationMessage(key, chain, currentTransactionId, oldestTransactionId, clientId);
+    } else {
+      Long checkpointHash = decoder.int64(CHECKPOINT_HASH_FIELD);
+      return new PassiveReplicationMessage.ChainReplicationMessage(key, chain, currentTransactionId, oldestTransactionId, clientId,
+        checkpoint, checkpointHash);
+    }
   }
 
 }
@@ -59,6 +59,12 @@ class ServerStoreStatisticsManagementProvider extends AbstractStatisticsManageme
       getStatisticRegistry().registerStatistic("RemovedSlotCount", descriptor("removedSlotCount", tags("tier", "Store")));
       getStatisticRegistry().registerStatistic("DataSize", descriptor("dataSize", tags("tier", "Store")));
       getStatisticRegistry().registerStatistic("TableCapacity", descriptor("tableCapacity", tags("tier", "Store")));
+      getStatisticRegistry().registerStatistic("ReplicatedBytes", descriptor("replicatedBytes", tags("tier", "Store")));
+      getStatisticRegistry().registerStatistic("FullReplications", descriptor("fullReplications", tags("tier", "Store")));
+      getStatisticRegistry().registerStatistic("DeltaReplications", descriptor("deltaReplications", tags("tier", "Store")));
+      getStatisticRegistry().registerStatistic("ReplicationMismatches", descriptor("replicationMismatches", tags("tier", "Store")));
+      getStatisticRegistry().registerStatistic("GlobalLockAcquisitions", descriptor("globalLockAcquisitions", tags("tier", "Store")));
+      getStatisticRegistry().registerStatistic("GlobalLockTime", descriptor("globalLockTime", tags("tier", "Store")));
     }
 
   }
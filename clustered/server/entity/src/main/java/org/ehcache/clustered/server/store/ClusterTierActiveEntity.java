@@ -33,7 +33,9 @@ import org.ehcache.clustered.common.internal.messages.LifecycleMessage.ValidateS
 import org.ehcache.clustered.common.internal.messages.ReconnectMessageCodec;
 import org.ehcache.clustered.common.internal.messages.ServerStoreOpMessage;
 import org.ehcache.clustered.common.internal.messages.ServerStoreOpMessage.AppendMessage;
+import org.ehcache.clustered.common.internal.messages.ServerStoreOpMessage.BatchedGetMessage;
 import org.ehcache.clustered.common.internal.messages.ServerStoreOpMessage.ClientInvalidationAck;
+import org.ehcache.clustered.common.internal.messages.ServerStoreOpMessage.ClientInvalidationAcks;
 import org.ehcache.clustered.common.internal.messages.ServerStoreOpMessage.ClientInvalidationAllAck;
 import org.ehcache.clustered.common.internal.messages.ServerStoreOpMessage.EnableEventListenerMessage;
 import org.ehcache.clustered.common.internal.messages.ServerStoreOpMessage.GetMessage;
@@ -101,6 +103,7 @@ import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -110,16 +113,19 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonList;
 import static java.util.stream.Collectors.toMap;
 import static java.util.stream.Collectors.toSet;
 import static org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.allInvalidationDone;
+import static org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.batchedGetResponse;
 import static org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.clientInvalidateAll;
-import static org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.clientInvalidateHash;
 import static org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.failure;
 import static org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.getResponse;
 import static org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.hashInvalidationDone;
 import static org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.iteratorBatchResponse;
 import static org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.lockFailure;
+import static org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.lockGranted;
+import static org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.lockPending;
 import static org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.lockSuccess;
 import static org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.resolveRequest;
 import static org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.serverAppend;
@@ -128,6 +134,7 @@ import static org.ehcache.clustered.common.internal.messages.EhcacheEntityRespon
 import static org.ehcache.clustered.common.internal.messages.EhcacheMessageType.isLifecycleMessage;
 import static org.ehcache.clustered.common.internal.messages.EhcacheMessageType.isStateRepoOperationMessage;
 import static org.ehcache.clustered.common.internal.messages.EhcacheMessageType.isStoreOperationMessage;
+import static org.ehcache.clustered.common.internal.util.ChainBuilder.chainFromList;
 import static org.ehcache.clustered.server.ConcurrencyStrategies.DEFAULT_KEY;
 import static org.ehcache.clustered.server.ConcurrencyStrategies.DefaultConcurrencyStrategy.TRACKER_SYNC_KEY;
 
@@ -148,6 +155,22 @@ public class ClusterTierActiveEntity implements ActiveServerEntity<EhcacheEntity
   static final String CHAIN_COMPACTION_THRESHOLD_PROP = "ehcache.server.chain.compaction.threshold";
   private static final int DEFAULT_CHAIN_COMPACTION_THRESHOLD = 8;
 
+  // opt-in: replicate appends to the passives as the appended element alone rather than the whole resulting chain
+  static final String DELTA_REPLICATION_PROP = "ehcache.server.delta.replication";
+  // every append bringing a chain to a multiple of this length is still replicated as the whole chain, which bounds
+  // how long a passive keeps a chain that diverged on a checkpoint mismatch
+  static final String FULL_REPLICATION_INTERVAL_PROP = "ehcache.server.delta.replication.full.interval";
+  private static final int DEFAULT_FULL_REPLICATION_INTERVAL = 4;
+
+  // hash invalidations pending for a client are sent together, up to the batch size or once the window (in micros) elapsed
+  static final String INVALIDATION_BATCH_SIZE_PROP = "ehcache.server.invalidation.batch.size";
+  private static final int DEFAULT_INVALIDATION_BATCH_SIZE = 128;
+  static final String INVALIDATION_BATCH_WINDOW_PROP = "ehcache.server.invalidation.batch.window";
+  private static final long DEFAULT_INVALIDATION_BATCH_WINDOW = 1000;
+  // writers on strong tiers wait for the invalidations to be acked: their window is kept separate, and zero by default
+  static final String STRONG_INVALIDATION_BATCH_WINDOW_PROP = "ehcache.server.invalidation.batch.strong.window";
+  private static final long DEFAULT_STRONG_INVALIDATION_BATCH_WINDOW = 0;
+
   private final Executor syncGetsExecutor;
 
   private final String storeIdentifier;
@@ -170,13 +193,21 @@ public class ClusterTierActiveEntity implements ActiveServerEntity<EhcacheEntity
   private final Map<ClientDescriptor, Map<UUID, Iterator<Map.Entry<Long, Chain>>>> liveIterators = new ConcurrentHashMap<>();
   private final int chainCompactionLimit;
   private final ServerLockManager lockManager;
+  private final boolean deltaReplication;
+  private final int fullReplicationInterval;
+  private final InvalidationBatcher invalidationBatcher;
 
   private final long dataSizeThreshold = Long.getLong(SYNC_DATA_SIZE_PROP, DEFAULT_SYNC_DATA_SIZE_THRESHOLD);
   private final int dataGetsThreshold = Integer.getInteger(SYNC_DATA_GETS_PROP, DEFAULT_SYNC_DATA_GETS_THRESHOLD);
   private volatile Integer dataMapInitialCapacity = null;
 
-  @SuppressWarnings("unchecked")
   public ClusterTierActiveEntity(ServiceRegistry registry, ClusterTierEntityConfiguration entityConfiguration, KeySegmentMapper defaultMapper, Executor getSyncExecutor) throws ConfigurationException {
+    this(registry, entityConfiguration, defaultMapper, getSyncExecutor, null);
+  }
+
+  @SuppressWarnings("unchecked")
+  public ClusterTierActiveEntity(ServiceRegistry registry, ClusterTierEntityConfiguration entityConfiguration, KeySegmentMapper defaultMapper,
+                                 Executor getSyncExecutor, ScheduledExecutorService invalidationScheduler) throws ConfigurationException {
     if (entityConfiguration == null) {
       throw new ConfigurationException("ClusteredStoreEntityConfiguration cannot be null");
     }
@@ -197,6 +228,14 @@ public class ClusterTierActiveEntity implements ActiveServerEntity<EhcacheEntity
     }
     management = new ClusterTierManagement(registry, stateService, true, storeIdentifier, entityConfiguration.getManagerIdentifier());
     chainCompactionLimit = Integer.getInteger(CHAIN_COMPACTION_THRESHOLD_PROP, DEFAULT_CHAIN_COMPACTION_THRESHOLD);
+    // a write-behind tier holds writes still pending on the passives: never leave them to a delta
+    deltaReplication = Boolean.getBoolean(DELTA_REPLICATION_PROP) && !configuration.isWriteBehindConfigured();
+    fullReplicationInterval = Math.max(1, Integer.getInteger(FULL_REPLICATION_INTERVAL_PROP, DEFAULT_FULL_REPLICATION_INTERVAL));
+    long invalidationBatchWindow = isStrong() ?
+      Long.getLong(STRONG_INVALIDATION_BATCH_WINDOW_PROP, DEFAULT_STRONG_INVALIDATION_BATCH_WINDOW) :
+      Long.getLong(INVALIDATION_BATCH_WINDOW_PROP, DEFAULT_INVALIDATION_BATCH_WINDOW);
+    invalidationBatcher = new InvalidationBatcher(clientCommunicator, invalidationScheduler,
+      Integer.getInteger(INVALIDATION_BATCH_SIZE_PROP, DEFAULT_INVALIDATION_BATCH_SIZE), invalidationBatchWindow);
     if (configuration.isLoaderWriterConfigured()) {
       lockManager = new LockManagerImpl();
     } else {
@@ -289,6 +328,8 @@ public class ClusterTierActiveEntity implements ActiveServerEntity<EhcacheEntity
 
   @Override
   public void disconnected(ClientDescriptor clientDescriptor) {
+    invalidationBatcher.disconnected(clientDescriptor);
+
     // cleanup all invalidation requests waiting for a ack from this client
     Set<Integer> invalidationIds = clientsWaitingForInvalidation.keySet();
     for (Integer invalidationId : invalidationIds) {
@@ -305,7 +346,8 @@ public class ClusterTierActiveEntity implements ActiveServerEntity<EhcacheEntity
     }
 
     lockManager.sweepLocksForClient(clientDescriptor,
-                                    configuration.isWriteBehindConfigured() ? null : heldKeys -> heldKeys.forEach(stateService.getStore(storeIdentifier)::remove));
+                                    configuration.isWriteBehindConfigured() ? null : heldKeys -> heldKeys.forEach(stateService.getStore(storeIdentifier)::remove))
+      .forEach((key, nextHolder) -> grantLock(nextHolder, key));
 
     liveIterators.remove(clientDescriptor);
 
@@ -413,6 +455,18 @@ public class ClusterTierActiveEntity implements ActiveServerEntity<EhcacheEntity
           throw new AssertionError("Server side store is not expected to throw timeout exception", e);
         }
       }
+      case BATCHED_GET: {
+        BatchedGetMessage batchedGetMessage = (BatchedGetMessage) message;
+        List<Map.Entry<Long, Chain>> chains = new ArrayList<>(batchedGetMessage.getKeys().size());
+        try {
+          for (long key : batchedGetMessage.getKeys()) {
+            chains.add(new AbstractMap.SimpleImmutableEntry<>(key, cacheStore.get(key)));
+          }
+        } catch (TimeoutException e) {
+          throw new AssertionError("Server side store is not expected to throw timeout exception", e);
+        }
+        return batchedGetResponse(chains);
+      }
       case APPEND: {
         AppendMessage appendMessage = (AppendMessage)message;
 
@@ -429,13 +483,13 @@ public class ClusterTierActiveEntity implements ActiveServerEntity<EhcacheEntity
         } catch (TimeoutException e) {
           throw new AssertionError("Server side store is not expected to throw timeout exception", e);
         }
-        sendMessageToSelfAndDeferRetirement(activeInvokeContext, appendMessage, newChain);
+        sendMessageToSelfAndDeferRetirement(activeInvokeContext, cacheStore, appendMessage, newChain);
         invalidateHashForClient(clientDescriptor, key);
         if (newChain.length() > chainCompactionLimit) {
           requestChainResolution(clientDescriptor, key, newChain);
         }
         if (!configuration.isWriteBehindConfigured()) {
-          lockManager.unlock(key);
+          grantLock(lockManager.unlock(key), key);
         }
         return success();
       }
@@ -456,7 +510,7 @@ public class ClusterTierActiveEntity implements ActiveServerEntity<EhcacheEntity
         } catch (TimeoutException e) {
           throw new AssertionError("Server side store is not expected to throw timeout exception", e);
         }
-        sendMessageToSelfAndDeferRetirement(activeInvokeContext, getAndAppendMessage, newChain);
+        sendMessageToSelfAndDeferRetirement(activeInvokeContext, cacheStore, getAndAppendMessage, newChain);
         LOGGER.debug("Send invalidations for key {}", getAndAppendMessage.getKey());
         invalidateHashForClient(clientDescriptor, getAndAppendMessage.getKey());
         return getResponse(result);
@@ -473,6 +527,15 @@ public class ClusterTierActiveEntity implements ActiveServerEntity<EhcacheEntity
         clientInvalidated(clientDescriptor, invalidationId);
         return success();
       }
+      case CLIENT_INVALIDATION_ACKS: {
+        ClientInvalidationAcks clientInvalidationAcks = (ClientInvalidationAcks) message;
+        List<Integer> invalidationIds = clientInvalidationAcks.getInvalidationIds();
+        LOGGER.debug("SERVER: got notification of invalidation acks in cache {} from {} (IDs {})", storeIdentifier, clientDescriptor, invalidationIds);
+        for (int invalidationId : invalidationIds) {
+          clientInvalidated(clientDescriptor, invalidationId);
+        }
+        return success();
+      }
       case CLIENT_INVALIDATION_ALL_ACK: {
         ClientInvalidationAllAck clientInvalidationAllAck = (ClientInvalidationAllAck) message;
         int invalidationId = clientInvalidationAllAck.getInvalidationId();
@@ -497,20 +560,25 @@ public class ClusterTierActiveEntity implements ActiveServerEntity<EhcacheEntity
       }
       case LOCK: {
         LockMessage lockMessage = (LockMessage) message;
-        if (lockManager.lock(lockMessage.getHash(), activeInvokeContext.getClientDescriptor())) {
+        boolean locked = lockMessage.isWait()
+          ? lockManager.lockOrQueue(lockMessage.getHash(), activeInvokeContext.getClientDescriptor())
+          : lockManager.lock(lockMessage.getHash(), activeInvokeContext.getClientDescriptor());
+        if (locked) {
           try {
             Chain chain = cacheStore.get(lockMessage.getHash());
             return lockSuccess(chain);
           } catch (TimeoutException e) {
             throw new AssertionError("Server side store is not expected to throw timeout exception", e);
           }
+        } else if (lockMessage.isWait()) {
+          return lockPending();
         } else {
           return lockFailure();
         }
       }
       case UNLOCK: {
         UnlockMessage unlockMessage = (UnlockMessage) message;
-        lockManager.unlock(unlockMessage.getHash());
+        grantLock(lockManager.unlock(unlockMessage.getHash()), unlockMessage.getHash());
         return success();
       }
       case ITERATOR_OPEN: {
@@ -711,11 +779,7 @@ public class ClusterTierActiveEntity implements ActiveServerEntity<EhcacheEntity
     LOGGER.debug("SERVER: requesting {} client(s) invalidation of hash {} in cache {} (ID {})", clientsToInvalidate.size(), key, storeIdentifier, invalidationId);
     for (ClientDescriptor clientDescriptorThatHasToInvalidate : clientsToInvalidate) {
       LOGGER.debug("SERVER: asking client {} to invalidate hash {} from cache {} (ID {})", clientDescriptorThatHasToInvalidate, key, storeIdentifier, invalidationId);
-      try {
-        clientCommunicator.sendNoResponse(clientDescriptorThatHasToInvalidate, clientInvalidateHash(key, invalidationId));
-      } catch (MessageCodecException mce) {
-        throw new AssertionError("Codec error", mce);
-      }
+      invalidationBatcher.invalidateHash(clientDescriptorThatHasToInvalidate, key, invalidationId);
     }
 
     if (clientsToInvalidate.isEmpty()) {
@@ -723,6 +787,22 @@ public class ClusterTierActiveEntity implements ActiveServerEntity<EhcacheEntity
     }
   }
 
+  /**
+   * Sends the current chain of a hash whose lock was handed over to a queued client.
+   */
+  private void grantLock(ClientDescriptor clientDescriptor, long key) {
+    if (clientDescriptor != null) {
+      LOGGER.debug("SERVER: lock on hash {} of cache {} handed over to client {}", key, storeIdentifier, clientDescriptor);
+      try {
+        clientCommunicator.sendNoResponse(clientDescriptor, lockGranted(key, stateService.getStore(storeIdentifier).get(key)));
+      } catch (MessageCodecException e) {
+        throw new AssertionError("Codec error", e);
+      } catch (TimeoutException e) {
+        throw new AssertionError("Server side store is not expected to throw timeout exception", e);
+      }
+    }
+  }
+
   private void requestChainResolution(ClientDescriptor clientDescriptor, long key, Chain chain) {
     try {
       clientCommunicator.sendNoResponse(clientDescriptor, resolveRequest(key, chain));
@@ -735,21 +815,62 @@ public class ClusterTierActiveEntity implements ActiveServerEntity<EhcacheEntity
    * Send a {@link PassiveReplicationMessage} to the passive, reuse the same transaction id and client id as the original message since this
    * original message won't ever be sent to the passive and these ids will be used to prevent duplication if the active goes down and the
    * client resends the original message to the passive (now our new active).
+   * <p>
+   * When delta replication is enabled, and the tier is not a write-behind one, an append to a chain of at least two
+   * elements only ships the appended element, along with the length and the content hash of the chain it was appended
+   * to. Passives have no way to ask the active for a chain, so the whole chain is still shipped:
+   * <ul>
+   *   <li>for appends to an empty or single element chain, which covers the first append after a replace since
+   *   passives compare the expected chain against their own sequence numbers and may not apply the replace;</li>
+   *   <li>every time the chain length reaches a multiple of the full replication interval, which realigns any chain a
+   *   passive kept on a mismatch.</li>
+   * </ul>
    *
    * @param context context of the message
+   * @param cacheStore store the append happened on
    * @param message message to be forwarded
    * @param newChain resulting chain to send
    */
-  private void sendMessageToSelfAndDeferRetirement(ActiveInvokeContext<EhcacheEntityResponse> context, KeyBasedServerStoreOpMessage message, Chain newChain) {
+  private void sendMessageToSelfAndDeferRetirement(ActiveInvokeContext<EhcacheEntityResponse> context, ServerSideServerStore cacheStore,
+                                                   KeyBasedServerStoreOpMessage message, Chain newChain) {
+    long key = message.getKey();
+    long checkpoint = newChain.length() - 1;
+    boolean fullChain = !deltaReplication || checkpoint <= 1 || newChain.length() % fullReplicationInterval == 0;
+    PassiveReplicationMessage.ChainReplicationMessage replicationMessage;
+    long clientId = context.getClientSource().toLong();
+    if (fullChain) {
+      replicationMessage = new PassiveReplicationMessage.ChainReplicationMessage(key, newChain,
+        context.getCurrentTransactionId(), context.getOldestTransactionId(), clientId);
+    } else {
+      replicationMessage = new PassiveReplicationMessage.ChainReplicationMessage(key, chainFromList(singletonList(lastElement(newChain))),
+        context.getCurrentTransactionId(), context.getOldestTransactionId(), clientId, checkpoint,
+        PassiveReplicationMessage.ChainReplicationMessage.contentHash(newChain, checkpoint));
+    }
     try {
-      long clientId = context.getClientSource().toLong();
-      entityMessenger.messageSelfAndDeferRetirement(message, new PassiveReplicationMessage.ChainReplicationMessage(message.getKey(), newChain,
-        context.getCurrentTransactionId(), context.getOldestTransactionId(), clientId));
+      entityMessenger.messageSelfAndDeferRetirement(message, replicationMessage);
     } catch (MessageCodecException e) {
       throw new AssertionError("Codec error", e);
     }
+    cacheStore.recordReplication(payloadSize(replicationMessage.getChain()), !fullChain);
+  }
+
+  private static Element lastElement(Chain chain) {
+    Element last = null;
+    for (Element element : chain) {
+      last = element;
+    }
+    return last;
   }
 
+  private static long payloadSize(Chain chain) {
+    long size = 0;
+    for (Element element : chain) {
+      size += element.getPayload().remaining();
+    }
+    return size;
+  }
+
+
   private void addInflightInvalidationsForEventualCaches() {
     InvalidationTracker invalidationTracker = stateService.getInvalidationTracker(storeIdentifier);
     if (invalidationTracker != null) {
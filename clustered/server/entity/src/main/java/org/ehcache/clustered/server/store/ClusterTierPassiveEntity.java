@@ -26,6 +26,7 @@ import org.ehcache.clustered.common.internal.messages.EhcacheMessageType;
 import org.ehcache.clustered.common.internal.messages.EhcacheOperationMessage;
 import org.ehcache.clustered.common.internal.messages.ServerStoreOpMessage;
 import org.ehcache.clustered.common.internal.messages.StateRepositoryOpMessage;
+import org.ehcache.clustered.common.internal.store.Chain;
 import org.ehcache.clustered.common.internal.store.ClusterTierEntityConfiguration;
 import org.ehcache.clustered.server.KeySegmentMapper;
 import org.ehcache.clustered.server.ServerSideServerStore;
@@ -296,6 +297,9 @@ public class ClusterTierPassiveEntity implements PassiveServerEntity<EhcacheEnti
         if (isEventual()) {
           stateService.getInvalidationTracker(storeIdentifier).trackHashInvalidation(retirementMessage.getKey());
         }
+        if (retirementMessage.isDelta()) {
+          return getResponse(applyDelta(cacheStore, retirementMessage));
+        }
         cacheStore.put(retirementMessage.getKey(), retirementMessage.getChain());
         // Returns the real original result of the operation. We consider that it's always a GET_AND_APPEND since APPEND
         // is unused right now. Other types of messages are not tracked so we don't care that they return the right result
@@ -317,6 +321,37 @@ public class ClusterTierPassiveEntity implements PassiveServerEntity<EhcacheEnti
     return null;
   }
 
+  /**
+   * Appends the replicated element to the local chain.
+   * <p>
+   * The local chain matches the one the element was appended to on the active when both its length and its content
+   * hash are the ones the active recorded. Passives have no way to ask the active for the full chain, so on a mismatch
+   * the local chain is kept, with the element appended, rather than losing the mapping: a chain only diverges this way
+   * when a replace compacting it was not applied locally, which leaves an equivalent operation log. The active replicates
+   * the whole chain at a bounded interval, which realigns it. A key this passive no longer holds at all stays absent, as
+   * it was before the append.
+   *
+   * @return the chain found before the append
+   */
+  private Chain applyDelta(ServerSideServerStore cacheStore, ChainReplicationMessage message) {
+    long key = message.getKey();
+    Chain previous;
+    try {
+      previous = cacheStore.getAndAppend(key, message.getChain().iterator().next().getPayload());
+    } catch (TimeoutException e) {
+      throw new AssertionError("Server side store is not expected to throw timeout exception", e);
+    }
+    if (previous.length() != message.getCheckpoint() || ChainReplicationMessage.contentHash(previous) != message.getCheckpointHash()) {
+      LOGGER.debug("Chain replication checkpoint mismatch on key {} (expected length {} but was {}, or content differs)", key, message.getCheckpoint(), previous.length());
+      cacheStore.recordReplicationMismatch();
+      if (previous.isEmpty()) {
+        // the appended element alone is not the mapping the active holds
+        cacheStore.remove(key);
+      }
+    }
+    return previous;
+  }
+
   private void invokeServerStoreOperation(ServerStoreOpMessage message) throws ClusterException {
     ServerSideServerStore cacheStore = stateService.getStore(storeIdentifier);
     if (cacheStore == null) {
@@ -20,6 +20,8 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import org.ehcache.clustered.common.internal.messages.CommonConfigCodec;
@@ -61,6 +63,7 @@ public class ClusterTierServerEntityService implements EntityServerService<Ehcac
   private static final int MAX_SYNC_CONCURRENCY = 1;
   private final ExecutorService syncGets = new ThreadPoolExecutor(0, MAX_SYNC_CONCURRENCY,
     20, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+  private final ScheduledExecutorService invalidationFlushes = newInvalidationScheduler();
 
   private final EntityConfigurationCodec configCodec = new EntityConfigurationCodec(CONFIG_CODEC);
 
@@ -77,12 +80,13 @@ public class ClusterTierServerEntityService implements EntityServerService<Ehcac
   @Override
   public void close() throws IOException {
     syncGets.shutdownNow();
+    invalidationFlushes.shutdownNow();
   }
 
   @Override
   public ClusterTierActiveEntity createActiveEntity(ServiceRegistry registry, byte[] configuration) throws ConfigurationException {
     ClusterTierEntityConfiguration clusterTierEntityConfiguration = configCodec.decodeClusteredStoreConfiguration(configuration);
-    return new ClusterTierActiveEntity(registry, clusterTierEntityConfiguration, DEFAULT_MAPPER, syncGets);
+    return new ClusterTierActiveEntity(registry, clusterTierEntityConfiguration, DEFAULT_MAPPER, syncGets, invalidationFlushes);
   }
 
   @Override
@@ -113,6 +117,16 @@ public class ClusterTierServerEntityService implements EntityServerService<Ehcac
     return new EhcacheExecutionStrategy();
   }
 
+  private static ScheduledExecutorService newInvalidationScheduler() {
+    ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+      Thread thread = new Thread(runnable, "ehcache-invalidation-batches");
+      thread.setDaemon(true);
+      return thread;
+    });
+    executor.setRemoveOnCancelPolicy(true);
+    return executor;
+  }
+
   @Override
   public <AP extends CommonServerEntity<EhcacheEntityMessage, EhcacheEntityResponse>> AP reconfigureEntity(ServiceRegistry registry, AP oldEntity, byte[] configuration) {
     throw new UnsupportedOperationException("Reconfigure not supported in Ehcache");
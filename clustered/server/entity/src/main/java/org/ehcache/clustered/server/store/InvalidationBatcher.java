@@ -0,0 +1,142 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ehcache.clustered.server.store;
+
+import org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse;
+import org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.ClientInvalidateHash;
+import org.terracotta.entity.ClientCommunicator;
+import org.terracotta.entity.ClientDescriptor;
+import org.terracotta.entity.MessageCodecException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.clientInvalidateHash;
+import static org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.clientInvalidateHashes;
+
+/**
+ * Groups the hash invalidations pending for a client into a single message.
+ * <p>
+ * Invalidations are sent as soon as {@code maxBatchSize} of them are pending for a client, or once {@code window}
+ * microseconds elapsed since the first one got queued. With a zero window, or without a scheduler, a batch only
+ * gathers the invalidations queued while the previous one was being sent.
+ */
+class InvalidationBatcher {
+
+  private final ClientCommunicator clientCommunicator;
+  private final ScheduledExecutorService scheduler;
+  private final int maxBatchSize;
+  private final long window;
+  private final ConcurrentMap<ClientDescriptor, PendingInvalidations> pendingInvalidations = new ConcurrentHashMap<>();
+
+  InvalidationBatcher(ClientCommunicator clientCommunicator, ScheduledExecutorService scheduler, int maxBatchSize, long window) {
+    if (maxBatchSize < 1) {
+      throw new IllegalArgumentException("Invalidation batch size must be positive: " + maxBatchSize);
+    }
+    this.clientCommunicator = clientCommunicator;
+    this.scheduler = scheduler;
+    this.maxBatchSize = maxBatchSize;
+    this.window = window;
+  }
+
+  void invalidateHash(ClientDescriptor clientDescriptor, long key, int invalidationId) {
+    PendingInvalidations pending = pendingInvalidations.computeIfAbsent(clientDescriptor, PendingInvalidations::new);
+    int size = pending.add(clientInvalidateHash(key, invalidationId));
+    if (window <= 0 || scheduler == null || size >= maxBatchSize) {
+      pending.flush();
+    } else if (pending.scheduled.compareAndSet(false, true)) {
+      scheduler.schedule(pending::scheduledFlush, window, MICROSECONDS);
+    }
+  }
+
+  /**
+   * Drops the invalidations pending for a disconnected client, the caller being in charge of releasing their
+   * invalidation ids.
+   */
+  void disconnected(ClientDescriptor clientDescriptor) {
+    PendingInvalidations pending = pendingInvalidations.remove(clientDescriptor);
+    if (pending != null) {
+      pending.queue.clear();
+    }
+  }
+
+  private class PendingInvalidations {
+
+    private final ClientDescriptor clientDescriptor;
+    private final Queue<ClientInvalidateHash> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean flushing = new AtomicBoolean();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    PendingInvalidations(ClientDescriptor clientDescriptor) {
+      this.clientDescriptor = clientDescriptor;
+    }
+
+    int add(ClientInvalidateHash invalidation) {
+      queue.add(invalidation);
+      return size.incrementAndGet();
+    }
+
+    void scheduledFlush() {
+      scheduled.set(false);
+      flush();
+    }
+
+    /**
+     * Sends the queued invalidations, unless another thread is already sending them. The queue is checked again once
+     * the flush is released so that an invalidation added by a thread losing the race is never left behind.
+     */
+    void flush() {
+      while (!queue.isEmpty() && flushing.compareAndSet(false, true)) {
+        try {
+          List<ClientInvalidateHash> batch;
+          while (!(batch = drain()).isEmpty()) {
+            send(batch);
+          }
+        } finally {
+          flushing.set(false);
+        }
+      }
+    }
+
+    private List<ClientInvalidateHash> drain() {
+      List<ClientInvalidateHash> batch = new ArrayList<>();
+      ClientInvalidateHash invalidation;
+      while (batch.size() < maxBatchSize && (invalidation = queue.poll()) != null) {
+        batch.add(invalidation);
+      }
+      size.addAndGet(-batch.size());
+      return batch;
+    }
+
+    private void send(List<ClientInvalidateHash> batch) {
+      EhcacheEntityResponse message = batch.size() == 1 ? batch.get(0) : clientInvalidateHashes(batch);
+      try {
+        clientCommunicator.sendNoResponse(clientDescriptor, message);
+      } catch (MessageCodecException mce) {
+        throw new AssertionError("Codec error", mce);
+      }
+    }
+  }
+}
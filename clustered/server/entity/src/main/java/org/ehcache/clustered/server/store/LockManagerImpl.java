@@ -17,21 +17,26 @@ package org.ehcache.clustered.server.store;
 
 import org.terracotta.entity.ClientDescriptor;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
+/**
+ * Hash locks held by clients, with a FIFO queue of the clients waiting for each held lock.
+ */
 public class LockManagerImpl implements ServerLockManager {
 
-  private final Map<Long, ClientDescriptor> blockedKeys = new ConcurrentHashMap<>();
+  private final Map<Long, ClientDescriptor> blockedKeys = new HashMap<>();
+  private final Map<Long, Deque<ClientDescriptor>> waiters = new HashMap<>();
 
   @Override
-  public boolean lock(long key, ClientDescriptor client) {
+  public synchronized boolean lock(long key, ClientDescriptor client) {
     if (blockedKeys.containsKey(key)) {
       return false;
     }
@@ -40,12 +45,31 @@ public class LockManagerImpl implements ServerLockManager {
   }
 
   @Override
-  public void unlock(long key) {
-    blockedKeys.remove(key);
+  public synchronized boolean lockOrQueue(long key, ClientDescriptor client) {
+    if (lock(key, client)) {
+      return true;
+    }
+    waiters.computeIfAbsent(key, k -> new ArrayDeque<>()).add(client);
+    return false;
+  }
+
+  @Override
+  public synchronized ClientDescriptor unlock(long key) {
+    Deque<ClientDescriptor> queue = waiters.get(key);
+    if (queue == null) {
+      blockedKeys.remove(key);
+      return null;
+    }
+    ClientDescriptor next = queue.poll();
+    if (queue.isEmpty()) {
+      waiters.remove(key);
+    }
+    blockedKeys.put(key, next);
+    return next;
   }
 
   @Override
-  public void createLockStateAfterFailover(ClientDescriptor client, Set<Long> locksHeld) {
+  public synchronized void createLockStateAfterFailover(ClientDescriptor client, Set<Long> locksHeld) {
     locksHeld.forEach(key -> {
       ClientDescriptor absent = blockedKeys.putIfAbsent(key, client);
       if (absent != null) {
@@ -55,18 +79,34 @@ public class LockManagerImpl implements ServerLockManager {
   }
 
   @Override
-  public void sweepLocksForClient(ClientDescriptor client, Consumer<List<Long>> removeHeldKeys) {
-    Set<Map.Entry<Long, ClientDescriptor>> entries = new HashSet<>(Collections.unmodifiableSet(blockedKeys.entrySet()));
+  public Map<Long, ClientDescriptor> sweepLocksForClient(ClientDescriptor client, Consumer<List<Long>> removeHeldKeys) {
     List<Long> heldKeys = new ArrayList<>();
-    entries.forEach(entry -> {
-      if (entry.getValue().equals(client)) {
-        heldKeys.add(entry.getKey());
-        blockedKeys.remove(entry.getKey());
+    synchronized (this) {
+      for (Iterator<Deque<ClientDescriptor>> it = waiters.values().iterator(); it.hasNext(); ) {
+        Deque<ClientDescriptor> queue = it.next();
+        queue.removeIf(client::equals);
+        if (queue.isEmpty()) {
+          it.remove();
+        }
       }
-    });
+      blockedKeys.forEach((key, holder) -> {
+        if (holder.equals(client)) {
+          heldKeys.add(key);
+        }
+      });
+    }
 
     if (removeHeldKeys != null) {
       removeHeldKeys.accept(heldKeys);
     }
+
+    Map<Long, ClientDescriptor> grants = new HashMap<>();
+    for (Long key : heldKeys) {
+      ClientDescriptor next = unlock(key);
+      if (next != null) {
+        grants.put(key, next);
+      }
+    }
+    return grants;
   }
 }
@@ -17,7 +17,9 @@ package org.ehcache.clustered.server.store;
 
 import org.terracotta.entity.ClientDescriptor;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Consumer;
 
@@ -28,7 +30,13 @@ public class NoopLockManager implements ServerLockManager {
   }
 
   @Override
-  public void unlock(long key) {
+  public boolean lockOrQueue(long key, ClientDescriptor client) {
+    return false;
+  }
+
+  @Override
+  public ClientDescriptor unlock(long key) {
+    return null;
   }
 
   @Override
@@ -37,7 +45,7 @@ public class NoopLockManager implements ServerLockManager {
   }
 
   @Override
-  public void sweepLocksForClient(ClientDescriptor client, Consumer<List<Long>> removeHeldKeys) {
-
+  public Map<Long, ClientDescriptor> sweepLocksForClient(ClientDescriptor client, Consumer<List<Long>> removeHeldKeys) {
+    return Collections.emptyMap();
   }
 }
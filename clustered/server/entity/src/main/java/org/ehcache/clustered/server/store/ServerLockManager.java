@@ -18,6 +18,7 @@ package org.ehcache.clustered.server.store;
 import org.terracotta.entity.ClientDescriptor;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Consumer;
 
@@ -25,10 +26,33 @@ public interface ServerLockManager {
 
   boolean lock(long key, ClientDescriptor client);
 
-  void unlock(long key);
+  /**
+   * Acquires the lock on the given key if it is free, or queues the client behind the current holder otherwise.
+   * Queued clients are handed the lock in FIFO order by {@link #unlock(long)}.
+   *
+   * @param key the key to lock
+   * @param client the client requesting the lock
+   * @return {@code true} if the lock was acquired, {@code false} if the client was queued
+   */
+  boolean lockOrQueue(long key, ClientDescriptor client);
+
+  /**
+   * Releases the lock on the given key, handing it over to the first queued client if any.
+   *
+   * @param key the key to unlock
+   * @return the client now holding the lock, {@code null} if no client was queued
+   */
+  ClientDescriptor unlock(long key);
 
   void createLockStateAfterFailover(ClientDescriptor client, Set<Long> locksHeld);
 
-  void sweepLocksForClient(ClientDescriptor client, Consumer<List<Long>> removeHeldKeys);
+  /**
+   * Releases the locks held by the given client, and drops it from the queues it waits in.
+   *
+   * @param client the client to sweep
+   * @param removeHeldKeys consumer of the keys the client was holding, invoked before the locks are handed over
+   * @return the keys whose lock was handed over to a queued client, with that client
+   */
+  Map<Long, ClientDescriptor> sweepLocksForClient(ClientDescriptor client, Consumer<List<Long>> removeHeldKeys);
 
 }
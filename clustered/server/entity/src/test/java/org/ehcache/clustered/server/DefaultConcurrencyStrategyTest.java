@@ -60,6 +60,13 @@ public class DefaultConcurrencyStrategyTest {
     assertThat(strategy.concurrencyKey(getMessage), is(UNIVERSAL_KEY));
   }
 
+  @Test
+  public void testConcurrencyKeyForServerStoreBatchedGetOperation() throws Exception {
+    ConcurrencyStrategy<EhcacheEntityMessage> strategy = ConcurrencyStrategies.clusterTierConcurrency(DEFAULT_MAPPER);
+    ServerStoreOpMessage.BatchedGetMessage batchedGetMessage = mock(ServerStoreOpMessage.BatchedGetMessage.class);
+    assertThat(strategy.concurrencyKey(batchedGetMessage), is(UNIVERSAL_KEY));
+  }
+
   @Test
   public void testKeysForSynchronization() throws Exception {
     final int concurrency = 111;
@@ -48,9 +48,25 @@ public class PassiveReplicationMessageCodecTest {
     assertThat(decodedMsg.getOldestTransactionId(), is(chainReplicationMessage.getOldestTransactionId()));
     assertThat(decodedMsg.getKey(), is(chainReplicationMessage.getKey()));
     assertThat(decodedMsg.getChain(), matchesChain(chainReplicationMessage.getChain()));
+    assertThat(decodedMsg.isDelta(), is(false));
 
   }
 
+  @Test
+  public void testDeltaChainReplicationMessageCodec() {
+    Chain chain = chainOf(createPayload(20L));
+    ChainReplicationMessage chainReplicationMessage = new ChainReplicationMessage(2L, chain, 200L, 100L, 1L, 3L, 42L);
+
+    byte[] encoded = codec.encode(chainReplicationMessage);
+    ChainReplicationMessage decodedMsg = (ChainReplicationMessage) codec.decode(EhcacheMessageType.CHAIN_REPLICATION_OP, wrap(encoded));
+
+    assertThat(decodedMsg.isDelta(), is(true));
+    assertThat(decodedMsg.getCheckpoint(), is(3L));
+    assertThat(decodedMsg.getCheckpointHash(), is(42L));
+    assertThat(decodedMsg.getKey(), is(chainReplicationMessage.getKey()));
+    assertThat(decodedMsg.getChain(), matchesChain(chainReplicationMessage.getChain()));
+  }
+
   @Test
   public void testClearInvalidationCompleteMessage() {
     ClearInvalidationCompleteMessage clearInvalidationCompleteMessage = new ClearInvalidationCompleteMessage();
@@ -77,6 +77,7 @@ import java.nio.ByteBuffer;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
@@ -87,9 +88,12 @@ import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
 
+import static org.ehcache.clustered.ChainUtils.chainOf;
 import static org.ehcache.clustered.ChainUtils.createPayload;
 import static org.ehcache.clustered.Matchers.entry;
 import static org.ehcache.clustered.Matchers.hasPayloads;
+import static org.ehcache.clustered.Matchers.matchesChain;
+import static org.ehcache.clustered.server.internal.messages.PassiveReplicationMessage.ChainReplicationMessage.contentHash;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
@@ -110,6 +114,7 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNotNull;
 import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
@@ -968,6 +973,100 @@ public class ClusterTierActiveEntityTest {
     assertThat(replicatedMessage.concurrencyKey(), is(((ConcurrentEntityMessage) getAndAppend).concurrencyKey()));
   }
 
+  @Test
+  public void testAppendReplicatesFullChainByDefault() throws Exception {
+    assertThat(replicateAppends(defaultConfiguration, defaultStoreConfiguration, 3).stream()
+      .noneMatch(PassiveReplicationMessage.ChainReplicationMessage::isDelta), is(true));
+  }
+
+  @Test
+  public void testWriteBehindTierNeverReplicatesDelta() throws Exception {
+    ServerStoreConfiguration serverStoreConfiguration = new ServerStoreConfigBuilder()
+      .dedicated(defaultResource, 1024, MemoryUnit.KILOBYTES)
+      .writeBehind()
+      .build();
+    System.setProperty(ClusterTierActiveEntity.DELTA_REPLICATION_PROP, "true");
+    try {
+      assertThat(replicateAppends(new ClusterTierEntityConfiguration(identifier, defaultStoreName, serverStoreConfiguration), serverStoreConfiguration, 3).stream()
+        .noneMatch(PassiveReplicationMessage.ChainReplicationMessage::isDelta), is(true));
+    } finally {
+      System.clearProperty(ClusterTierActiveEntity.DELTA_REPLICATION_PROP);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<PassiveReplicationMessage.ChainReplicationMessage> replicateAppends(ClusterTierEntityConfiguration configuration,
+                                                                                 ServerStoreConfiguration storeConfiguration, int appends) throws Exception {
+    ClusterTierActiveEntity activeEntity = new ClusterTierActiveEntity(defaultRegistry, configuration, DEFAULT_MAPPER, SYNC_GETS_EXECUTOR);
+    activeEntity.createNew();
+
+    IEntityMessenger<EhcacheEntityMessage, EhcacheEntityResponse> entityMessenger = defaultRegistry.getEntityMessenger();
+
+    TestClientDescriptor client = TestClientDescriptor.newClient();
+    activeEntity.connected(client);
+
+    assertThat(activeEntity.invokeActive(client.invokeContext(), new LifecycleMessage.ValidateServerStore(defaultStoreName, storeConfiguration)), succeeds());
+
+    reset(entityMessenger);
+    for (long i = 1; i <= appends; i++) {
+      activeEntity.invokeActive(client.invokeContext(), new ServerStoreOpMessage.GetAndAppendMessage(1L, createPayload(i)));
+    }
+
+    ArgumentCaptor<PassiveReplicationMessage.ChainReplicationMessage> captor = ArgumentCaptor.forClass(PassiveReplicationMessage.ChainReplicationMessage.class);
+    verify(entityMessenger, times(appends)).messageSelfAndDeferRetirement(isNotNull(), captor.capture());
+    return captor.getAllValues();
+  }
+
+  @Test
+  public void testAppendToNonEmptyChainReplicatesDelta() throws Exception {
+    System.setProperty(ClusterTierActiveEntity.DELTA_REPLICATION_PROP, "true");
+    try {
+      appendToNonEmptyChainReplicatesDelta();
+    } finally {
+      System.clearProperty(ClusterTierActiveEntity.DELTA_REPLICATION_PROP);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void appendToNonEmptyChainReplicatesDelta() throws Exception {
+    ClusterTierActiveEntity activeEntity = new ClusterTierActiveEntity(defaultRegistry, defaultConfiguration, DEFAULT_MAPPER, SYNC_GETS_EXECUTOR);
+    activeEntity.createNew();
+
+    IEntityMessenger<EhcacheEntityMessage, EhcacheEntityResponse> entityMessenger = defaultRegistry.getEntityMessenger();
+
+    TestClientDescriptor client = TestClientDescriptor.newClient();
+    activeEntity.connected(client);
+
+    assertThat(activeEntity.invokeActive(client.invokeContext(), new LifecycleMessage.ValidateServerStore(defaultStoreName, defaultStoreConfiguration)), succeeds());
+
+    reset(entityMessenger);
+    for (long i = 1; i <= 5; i++) {
+      activeEntity.invokeActive(client.invokeContext(), new ServerStoreOpMessage.GetAndAppendMessage(1L, createPayload(i)));
+    }
+    Chain chain = ((EhcacheEntityResponse.GetResponse) activeEntity.invokeActive(client.invokeContext(), new ServerStoreOpMessage.GetMessage(1L))).getChain();
+    activeEntity.invokeActive(client.invokeContext(), new ServerStoreOpMessage.ReplaceAtHeadMessage(1L, chain, chainOf(createPayload(6L))));
+    activeEntity.invokeActive(client.invokeContext(), new ServerStoreOpMessage.GetAndAppendMessage(1L, createPayload(7L)));
+
+    ArgumentCaptor<PassiveReplicationMessage.ChainReplicationMessage> captor = ArgumentCaptor.forClass(PassiveReplicationMessage.ChainReplicationMessage.class);
+    verify(entityMessenger, times(6)).messageSelfAndDeferRetirement(isNotNull(), captor.capture());
+    List<PassiveReplicationMessage.ChainReplicationMessage> replicatedMessages = captor.getAllValues();
+
+    // empty and single element chains are replicated in full
+    assertThat(replicatedMessages.get(0).isDelta(), is(false));
+    assertThat(replicatedMessages.get(1).isDelta(), is(false));
+    assertThat(replicatedMessages.get(2).isDelta(), is(true));
+    assertThat(replicatedMessages.get(2).getCheckpoint(), is(2L));
+    assertThat(replicatedMessages.get(2).getCheckpointHash(), is(contentHash(chainOf(createPayload(1L), createPayload(2L)))));
+    assertThat(replicatedMessages.get(2).getChain(), matchesChain(chainOf(createPayload(3L))));
+    // a chain reaching the full replication interval is replicated in full
+    assertThat(replicatedMessages.get(3).isDelta(), is(false));
+    assertThat(replicatedMessages.get(3).getChain(), matchesChain(chainOf(createPayload(1L), createPayload(2L), createPayload(3L), createPayload(4L))));
+    assertThat(replicatedMessages.get(4).isDelta(), is(true));
+    // the replace may not have been applied on the passive
+    assertThat(replicatedMessages.get(5).isDelta(), is(false));
+    assertThat(replicatedMessages.get(5).getChain(), matchesChain(chainOf(createPayload(6L), createPayload(7L))));
+  }
+
   @Test
   public void testInvalidMessageThrowsError() throws Exception {
     ClusterTierActiveEntity activeEntity = new ClusterTierActiveEntity(defaultRegistry, defaultConfiguration, DEFAULT_MAPPER, SYNC_GETS_EXECUTOR);
@@ -1207,6 +1306,7 @@ public class ClusterTierActiveEntityTest {
     private String keySerializerType;
     private String valueSerializerType;
     private Consistency consistency = Consistency.EVENTUAL;
+    private boolean writeBehind;
 
 
     ServerStoreConfigBuilder consistency(Consistency consistency) {
@@ -1214,6 +1314,11 @@ public class ClusterTierActiveEntityTest {
       return this;
     }
 
+    ServerStoreConfigBuilder writeBehind() {
+      this.writeBehind = true;
+      return this;
+    }
+
     ServerStoreConfigBuilder dedicated(String resourceName, int size, MemoryUnit unit) {
       this.poolAllocation = new Dedicated(resourceName, unit.toBytes(size));
       return this;
@@ -1251,7 +1356,7 @@ public class ClusterTierActiveEntityTest {
 
     ServerStoreConfiguration build() {
       return new ServerStoreConfiguration(poolAllocation, storedKeyType, storedValueType,
-        keySerializerType, valueSerializerType, consistency, false, false);
+        keySerializerType, valueSerializerType, consistency, writeBehind, writeBehind);
     }
   }
 
@@ -25,6 +25,7 @@ import org.ehcache.clustered.common.internal.store.Chain;
 import org.ehcache.clustered.common.internal.store.ClusterTierEntityConfiguration;
 import org.ehcache.clustered.server.EhcacheStateServiceImpl;
 import org.ehcache.clustered.server.KeySegmentMapper;
+import org.ehcache.clustered.server.ServerSideServerStore;
 import org.ehcache.clustered.server.TestClientDescriptor;
 import org.ehcache.clustered.server.internal.messages.PassiveReplicationMessage;
 import org.ehcache.clustered.server.state.EhcacheStateService;
@@ -53,8 +54,11 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
+import static org.ehcache.clustered.ChainUtils.chainOf;
 import static org.ehcache.clustered.ChainUtils.createPayload;
 import static org.ehcache.clustered.ChainUtils.sequencedChainOf;
+import static org.ehcache.clustered.Matchers.matchesChain;
+import static org.ehcache.clustered.server.internal.messages.PassiveReplicationMessage.ChainReplicationMessage.contentHash;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.containsString;
@@ -169,6 +173,56 @@ public class ClusterTierPassiveEntityTest {
     assertThat(passiveEntity.getStateService().getStore(passiveEntity.getStoreIdentifier()).get(2).isEmpty(), is(false));
   }
 
+  @Test
+  public void testDeltaChainReplicationMessage() throws Exception {
+    ClusterTierPassiveEntity passiveEntity = new ClusterTierPassiveEntity(defaultRegistry, defaultConfiguration, DEFAULT_MAPPER);
+    passiveEntity.createNew();
+    TestClientDescriptor client = TestClientDescriptor.newClient();
+    ServerSideServerStore store = passiveEntity.getStateService().getStore(passiveEntity.getStoreIdentifier());
+
+    passiveEntity.invokePassive(client.invokeContext(), new PassiveReplicationMessage.ChainReplicationMessage(2L, sequencedChainOf(createPayload(1L)), 2L, 1L, 3L));
+    passiveEntity.invokePassive(client.invokeContext(), new PassiveReplicationMessage.ChainReplicationMessage(2L, sequencedChainOf(createPayload(2L)), 3L, 1L, 3L,
+      1L, contentHash(chainOf(createPayload(1L)))));
+
+    // Should be appended, the checkpoint matches
+    assertThat(store.get(2L), matchesChain(chainOf(createPayload(1L), createPayload(2L))));
+
+    passiveEntity.invokePassive(client.invokeContext(), new PassiveReplicationMessage.ChainReplicationMessage(2L, sequencedChainOf(createPayload(3L)), 4L, 1L, 3L,
+      5L, contentHash(chainOf(createPayload(1L), createPayload(2L)))));
+
+    // Should be kept and appended, the checkpoint length does not match but the mapping must survive
+    assertThat(store.get(2L), matchesChain(chainOf(createPayload(1L), createPayload(2L), createPayload(3L))));
+  }
+
+  @Test
+  public void testDeltaChainReplicationMessageWithDivergedContent() throws Exception {
+    ClusterTierPassiveEntity passiveEntity = new ClusterTierPassiveEntity(defaultRegistry, defaultConfiguration, DEFAULT_MAPPER);
+    passiveEntity.createNew();
+    TestClientDescriptor client = TestClientDescriptor.newClient();
+    ServerSideServerStore store = passiveEntity.getStateService().getStore(passiveEntity.getStoreIdentifier());
+
+    passiveEntity.invokePassive(client.invokeContext(), new PassiveReplicationMessage.ChainReplicationMessage(2L, sequencedChainOf(createPayload(1L)), 2L, 1L, 3L));
+    passiveEntity.invokePassive(client.invokeContext(), new PassiveReplicationMessage.ChainReplicationMessage(2L, sequencedChainOf(createPayload(3L)), 3L, 1L, 3L,
+      1L, contentHash(chainOf(createPayload(2L)))));
+
+    // Should be kept and appended, the lengths match but the content does not
+    assertThat(store.get(2L), matchesChain(chainOf(createPayload(1L), createPayload(3L))));
+  }
+
+  @Test
+  public void testDeltaChainReplicationMessageForAbsentKey() throws Exception {
+    ClusterTierPassiveEntity passiveEntity = new ClusterTierPassiveEntity(defaultRegistry, defaultConfiguration, DEFAULT_MAPPER);
+    passiveEntity.createNew();
+    TestClientDescriptor client = TestClientDescriptor.newClient();
+    ServerSideServerStore store = passiveEntity.getStateService().getStore(passiveEntity.getStoreIdentifier());
+
+    passiveEntity.invokePassive(client.invokeContext(), new PassiveReplicationMessage.ChainReplicationMessage(2L, sequencedChainOf(createPayload(3L)), 3L, 1L, 3L,
+      2L, contentHash(chainOf(createPayload(1L), createPayload(2L)))));
+
+    // Should stay absent, the appended element alone is not the mapping of the active
+    assertThat(store.get(2L).isEmpty(), is(true));
+  }
+
   @Test
   public void testOversizeReplaceAtHeadMessage() throws Exception {
     ClusterTierPassiveEntity passiveEntity = new ClusterTierPassiveEntity(defaultRegistry, defaultConfiguration, DEFAULT_MAPPER);
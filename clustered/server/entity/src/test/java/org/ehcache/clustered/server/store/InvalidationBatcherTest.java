@@ -0,0 +1,116 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ehcache.clustered.server.store;
+
+import org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse;
+import org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.ClientInvalidateHash;
+import org.ehcache.clustered.common.internal.messages.EhcacheEntityResponse.ClientInvalidateHashes;
+import org.ehcache.clustered.server.TestClientDescriptor;
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.terracotta.entity.ClientCommunicator;
+import org.terracotta.entity.ClientDescriptor;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+public class InvalidationBatcherTest {
+
+  private final ClientCommunicator clientCommunicator = mock(ClientCommunicator.class);
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+  @After
+  public void tearDown() {
+    scheduler.shutdownNow();
+  }
+
+  @Test
+  public void testZeroWindowSendsImmediately() throws Exception {
+    InvalidationBatcher batcher = new InvalidationBatcher(clientCommunicator, scheduler, 16, 0);
+    ClientDescriptor client = TestClientDescriptor.newClient();
+
+    batcher.invalidateHash(client, 1L, 10);
+
+    ArgumentCaptor<EhcacheEntityResponse> captor = ArgumentCaptor.forClass(EhcacheEntityResponse.class);
+    verify(clientCommunicator).sendNoResponse(eq(client), captor.capture());
+    ClientInvalidateHash invalidation = (ClientInvalidateHash) captor.getValue();
+    assertThat(invalidation.getKey(), is(1L));
+    assertThat(invalidation.getInvalidationId(), is(10));
+  }
+
+  @Test
+  public void testFullBatchIsSentWithoutWaitingForTheWindow() throws Exception {
+    InvalidationBatcher batcher = new InvalidationBatcher(clientCommunicator, scheduler, 3, 60_000_000L);
+    ClientDescriptor client = TestClientDescriptor.newClient();
+
+    batcher.invalidateHash(client, 1L, 10);
+    batcher.invalidateHash(client, 2L, 11);
+    verify(clientCommunicator, never()).sendNoResponse(any(), any());
+
+    batcher.invalidateHash(client, 3L, 12);
+
+    ArgumentCaptor<EhcacheEntityResponse> captor = ArgumentCaptor.forClass(EhcacheEntityResponse.class);
+    verify(clientCommunicator).sendNoResponse(eq(client), captor.capture());
+    assertThat(captor.getValue(), instanceOf(ClientInvalidateHashes.class));
+    List<Integer> invalidationIds = ((ClientInvalidateHashes) captor.getValue()).getInvalidations().stream()
+      .map(ClientInvalidateHash::getInvalidationId).collect(toList());
+    assertThat(invalidationIds, contains(10, 11, 12));
+  }
+
+  @Test
+  public void testPendingInvalidationsAreSentOnceTheWindowElapsed() throws Exception {
+    InvalidationBatcher batcher = new InvalidationBatcher(clientCommunicator, scheduler, 16, 200_000L);
+    ClientDescriptor client = TestClientDescriptor.newClient();
+
+    batcher.invalidateHash(client, 1L, 10);
+    batcher.invalidateHash(client, 2L, 11);
+
+    ArgumentCaptor<EhcacheEntityResponse> captor = ArgumentCaptor.forClass(EhcacheEntityResponse.class);
+    verify(clientCommunicator, timeout(5000)).sendNoResponse(eq(client), captor.capture());
+    assertThat(((ClientInvalidateHashes) captor.getValue()).getInvalidations().size(), is(2));
+  }
+
+  @Test
+  public void testDisconnectedClientPendingInvalidationsAreDropped() throws Exception {
+    InvalidationBatcher batcher = new InvalidationBatcher(clientCommunicator, scheduler, 2, 60_000_000L);
+    ClientDescriptor client = TestClientDescriptor.newClient();
+
+    batcher.invalidateHash(client, 1L, 10);
+    batcher.disconnected(client);
+    batcher.invalidateHash(client, 2L, 11);
+    batcher.invalidateHash(client, 3L, 12);
+
+    ArgumentCaptor<EhcacheEntityResponse> captor = ArgumentCaptor.forClass(EhcacheEntityResponse.class);
+    verify(clientCommunicator).sendNoResponse(eq(client), captor.capture());
+    List<Long> keys = ((ClientInvalidateHashes) captor.getValue()).getInvalidations().stream()
+      .map(ClientInvalidateHash::getKey).collect(toList());
+    assertThat(keys, contains(2L, 3L));
+  }
+}
@@ -26,9 +26,11 @@ import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
+import static java.util.Collections.singletonMap;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 
@@ -52,6 +54,40 @@ public class LockManagerImplTest {
     assertThat(lockManager.lock(1L, clientDescriptor), is(true));
   }
 
+  @Test
+  public void testLockOrQueueHandsOverInFifoOrder() {
+    LockManagerImpl lockManager = new LockManagerImpl();
+    ClientDescriptor clientDescriptor1 = TestClientDescriptor.newClient();
+    ClientDescriptor clientDescriptor2 = TestClientDescriptor.newClient();
+    ClientDescriptor clientDescriptor3 = TestClientDescriptor.newClient();
+
+    assertThat(lockManager.lockOrQueue(1L, clientDescriptor1), is(true));
+    assertThat(lockManager.lockOrQueue(1L, clientDescriptor2), is(false));
+    assertThat(lockManager.lockOrQueue(1L, clientDescriptor3), is(false));
+
+    assertThat(lockManager.unlock(1L), is(clientDescriptor2));
+    assertThat(lockManager.lock(1L, clientDescriptor1), is(false));
+    assertThat(lockManager.unlock(1L), is(clientDescriptor3));
+    assertThat(lockManager.unlock(1L), nullValue());
+    assertThat(lockManager.lock(1L, clientDescriptor1), is(true));
+  }
+
+  @Test
+  public void testSweepLocksForClientHandsOverToQueuedClients() {
+    LockManagerImpl lockManager = new LockManagerImpl();
+    ClientDescriptor clientDescriptor1 = TestClientDescriptor.newClient();
+    ClientDescriptor clientDescriptor2 = TestClientDescriptor.newClient();
+    ClientDescriptor clientDescriptor3 = TestClientDescriptor.newClient();
+
+    assertThat(lockManager.lockOrQueue(1L, clientDescriptor1), is(true));
+    assertThat(lockManager.lockOrQueue(1L, clientDescriptor2), is(false));
+    assertThat(lockManager.lockOrQueue(1L, clientDescriptor3), is(false));
+
+    assertThat(lockManager.sweepLocksForClient(clientDescriptor2, null).isEmpty(), is(true));
+    assertThat(lockManager.sweepLocksForClient(clientDescriptor1, null), is(singletonMap(1L, clientDescriptor3)));
+    assertThat(lockManager.unlock(1L), nullValue());
+  }
+
   @Test
   @SuppressWarnings("unchecked")
   public void testSweepLocksForClient() {
@@ -29,4 +29,17 @@ public interface ServerSideServerStore extends ServerStore {
   List<Set<Long>> getSegmentKeySets();
   void put(long key, Chain chain);
   void remove(long key);
+
+  /**
+   * Records a chain replication message sent to the passive servers.
+   *
+   * @param bytes payload bytes carried by the message
+   * @param delta {@code true} if the message only carried the appended element
+   */
+  void recordReplication(long bytes, boolean delta);
+
+  /**
+   * Records a delta replication message whose checkpoint did not match the local chain.
+   */
+  void recordReplicationMismatch();
 }
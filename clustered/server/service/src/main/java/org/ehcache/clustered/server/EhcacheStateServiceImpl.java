@@ -50,8 +50,11 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.function.Function;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.stream.Collectors.toMap;
 import static org.terracotta.offheapresource.OffHeapResourceIdentifier.identifier;
 import static org.terracotta.statistics.StatisticsManager.tags;
@@ -69,7 +72,13 @@ public class EhcacheStateServiceImpl implements EhcacheStateService {
   private static final String PROPERTY_STORE_KEY = "storeName";
   private static final String PROPERTY_POOL_KEY = "poolName";
 
-  private static final Map<String, Function<ServerStoreImpl, ValueStatistic<Number>>> STAT_STORE_METHOD_REFERENCES = new HashMap<>(11);
+  static final String RECLAIM_HEADROOM_PROP = "ehcache.server.reclaim.headroom";
+  static final String RECLAIM_INTERVAL_PROP = "ehcache.server.reclaim.interval";
+  static final long DEFAULT_RECLAIM_HEADROOM = 0L;
+  static final long DEFAULT_RECLAIM_INTERVAL = 100L;
+  private static final int MAX_SHRINKS_PER_RECLAIM = 4;
+
+  private static final Map<String, Function<ServerStoreImpl, ValueStatistic<Number>>> STAT_STORE_METHOD_REFERENCES = new HashMap<>(17);
   private static final Map<String, Function<ResourcePageSource, ValueStatistic<Number>>> STAT_POOL_METHOD_REFERENCES = new HashMap<>(1);
 
   static {
@@ -84,6 +93,12 @@ public class EhcacheStateServiceImpl implements EhcacheStateService {
     STAT_STORE_METHOD_REFERENCES.put("removedSlotCount", store -> supply(COUNTER, store::getRemovedSlotCount));
     STAT_STORE_METHOD_REFERENCES.put("dataSize", store -> supply(GAUGE, store::getDataSize));
     STAT_STORE_METHOD_REFERENCES.put("tableCapacity", store -> supply(GAUGE, store::getTableCapacity));
+    STAT_STORE_METHOD_REFERENCES.put("replicatedBytes", store -> supply(COUNTER, store::getReplicatedBytes));
+    STAT_STORE_METHOD_REFERENCES.put("fullReplications", store -> supply(COUNTER, store::getFullReplications));
+    STAT_STORE_METHOD_REFERENCES.put("deltaReplications", store -> supply(COUNTER, store::getDeltaReplications));
+    STAT_STORE_METHOD_REFERENCES.put("replicationMismatches", store -> supply(COUNTER, store::getReplicationMismatches));
+    STAT_STORE_METHOD_REFERENCES.put("globalLockAcquisitions", store -> supply(COUNTER, store::getGlobalLockAcquisitions));
+    STAT_STORE_METHOD_REFERENCES.put("globalLockTime", store -> supply(COUNTER, store::getGlobalLockTime));
 
     STAT_POOL_METHOD_REFERENCES.put("allocatedSize", pool -> supply(GAUGE, pool::getAllocatedSize));
   }
@@ -122,12 +137,34 @@ public class EhcacheStateServiceImpl implements EhcacheStateService {
   private final KeySegmentMapper mapper;
   private final EhcacheStateServiceProvider.DestroyCallback destroyCallback;
 
+  /**
+   * Runs the background space reclamation of the stores, keeping some free space in their pools so that writers
+   * seldom need to lock a whole store to make room.  This value may be {@code null}, disabling the reclamation.
+   * The reclamation is disabled unless a headroom is set through {@value #RECLAIM_HEADROOM_PROP}.
+   */
+  private final ScheduledExecutorService reclaimScheduler;
+  private final long reclaimHeadroom = Long.getLong(RECLAIM_HEADROOM_PROP, DEFAULT_RECLAIM_HEADROOM);
+  private volatile ScheduledFuture<?> reclaimTask;
+
+  /**
+   * The names of the stores subject to the background space reclamation: the stores served by this server as
+   * an active, leaving out write-behind ones whose chains must not be evicted.  Passives never evict on their own.
+   */
+  private final Set<String> reclaimableStores = ConcurrentHashMap.newKeySet();
+
   public EhcacheStateServiceImpl(OffHeapResources offHeapResources, ServerSideConfiguration configuration,
                                  final KeySegmentMapper mapper, EhcacheStateServiceProvider.DestroyCallback destroyCallback) {
+    this(offHeapResources, configuration, mapper, destroyCallback, null);
+  }
+
+  public EhcacheStateServiceImpl(OffHeapResources offHeapResources, ServerSideConfiguration configuration,
+                                 final KeySegmentMapper mapper, EhcacheStateServiceProvider.DestroyCallback destroyCallback,
+                                 ScheduledExecutorService reclaimScheduler) {
     this.offHeapResources = offHeapResources;
     this.configuration = configuration;
     this.mapper = mapper;
     this.destroyCallback = destroyCallback;
+    this.reclaimScheduler = reclaimScheduler;
     this.stateRepositoryManager = new StateRepositoryManager();
   }
 
@@ -142,6 +179,9 @@ public class EhcacheStateServiceImpl implements EhcacheStateService {
       LOGGER.warn("Cluster tier {} not properly recovered on fail over.", name);
     }
     invalidationTrackers.remove(name);
+    if (store != null) {
+      registerForReclaim(name, serverStoreConfiguration);
+    }
     return store;
   }
 
@@ -252,6 +292,37 @@ public class EhcacheStateServiceImpl implements EhcacheStateService {
     configured = true;
   }
 
+  private void registerForReclaim(String name, ServerStoreConfiguration serverStoreConfiguration) {
+    if (reclaimScheduler == null || reclaimHeadroom <= 0 || serverStoreConfiguration.isWriteBehindConfigured()) {
+      return;
+    }
+    reclaimableStores.add(name);
+    synchronized (reclaimableStores) {
+      if (reclaimTask == null) {
+        long interval = Long.getLong(RECLAIM_INTERVAL_PROP, DEFAULT_RECLAIM_INTERVAL);
+        reclaimTask = reclaimScheduler.scheduleWithFixedDelay(this::reclaimSpace, interval, interval, MILLISECONDS);
+      }
+    }
+  }
+
+  /**
+   * Evicts from the reclaimable stores whose pool runs short of free space, a few segments at a time.
+   */
+  void reclaimSpace() {
+    for (String name : reclaimableStores) {
+      ServerStoreImpl store = stores.get(name);
+      if (store == null) {
+        continue;
+      }
+      try {
+        store.reclaimSpace(reclaimHeadroom, MAX_SHRINKS_PER_RECLAIM);
+      } catch (RuntimeException e) {
+        // the store may be getting destroyed concurrently
+        LOGGER.debug("Space reclamation failed for cluster tier '{}'", name, e);
+      }
+    }
+  }
+
   private Map<String, ResourcePageSource> createPools(Map<String, ServerSideConfiguration.Pool> resourcePools) throws ConfigurationException {
     Map<String, ResourcePageSource> pools = new HashMap<>();
     try {
@@ -348,6 +419,14 @@ public class EhcacheStateServiceImpl implements EhcacheStateService {
   }
 
   public void destroy() {
+    synchronized (reclaimableStores) {
+      ScheduledFuture<?> task = reclaimTask;
+      if (task != null) {
+        task.cancel(false);
+        reclaimTask = null;
+      }
+    }
+    reclaimableStores.clear();
     for (Map.Entry<String, ServerStoreImpl> storeEntry: stores.entrySet()) {
       unRegisterStoreStatistics(storeEntry.getValue());
       storeEntry.getValue().close();
@@ -409,11 +488,15 @@ public class EhcacheStateServiceImpl implements EhcacheStateService {
     }
 
     registerStoreStatistics(serverStore, name);
+    if (forActive) {
+      registerForReclaim(name, serverStoreConfiguration);
+    }
 
     return serverStore;
   }
 
   public void destroyServerStore(String name) throws ClusterException {
+    reclaimableStores.remove(name);
     final ServerStoreImpl store = stores.remove(name);
     unRegisterStoreStatistics(store);
     if (store == null) {
@@ -31,12 +31,24 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 public class ServerStoreImpl implements ServerSideServerStore, MapInternals {
 
+  /**
+   * Caps the space reclamation headroom to a sixteenth of the pool.
+   */
+  private static final int MAX_HEADROOM_SHIFT = 4;
+
   private final ServerStoreConfiguration storeConfiguration;
   private final ResourcePageSource pageSource;
   private final OffHeapServerStore store;
+  private final LongAdder replicatedBytes = new LongAdder();
+  private final LongAdder fullReplications = new LongAdder();
+  private final LongAdder deltaReplications = new LongAdder();
+  private final LongAdder replicationMismatches = new LongAdder();
 
   public ServerStoreImpl(ServerStoreConfiguration configuration, ResourcePageSource source, KeySegmentMapper mapper,
                          List<OffHeapChainMap<Long>> recoveredMaps) {
@@ -114,6 +126,35 @@ public class ServerStoreImpl implements ServerSideServerStore, MapInternals {
     store.close();
   }
 
+  @Override
+  public void recordReplication(long bytes, boolean delta) {
+    replicatedBytes.add(bytes);
+    if (delta) {
+      deltaReplications.increment();
+    } else {
+      fullReplications.increment();
+    }
+  }
+
+  @Override
+  public void recordReplicationMismatch() {
+    replicationMismatches.increment();
+  }
+
+  /**
+   * Evicts until the pool backing this store has {@code headroomPerSegment} free bytes for each segment of this store,
+   * or {@code maxShrinks} segments were shrunk.
+   *
+   * @param headroomPerSegment the free space to maintain per segment
+   * @param maxShrinks the maximum number of segments to shrink
+   * @return the number of segments shrunk
+   */
+  public int reclaimSpace(long headroomPerSegment, int maxShrinks) {
+    long poolSize = pageSource.getPool().getSize();
+    long headroom = Math.min(headroomPerSegment * store.getSegments().size(), poolSize >> MAX_HEADROOM_SHIFT);
+    return store.reclaim(() -> poolSize - pageSource.getAllocatedSize(), headroom, maxShrinks);
+  }
+
   @Override
   public List<Set<Long>> getSegmentKeySets() {
 
@@ -187,6 +228,30 @@ public class ServerStoreImpl implements ServerSideServerStore, MapInternals {
     return store.getDataSize();
   }
 
+  public long getReplicatedBytes() {
+    return replicatedBytes.sum();
+  }
+
+  public long getFullReplications() {
+    return fullReplications.sum();
+  }
+
+  public long getDeltaReplications() {
+    return deltaReplications.sum();
+  }
+
+  public long getReplicationMismatches() {
+    return replicationMismatches.sum();
+  }
+
+  public long getGlobalLockAcquisitions() {
+    return store.getGlobalLockAcquisitions();
+  }
+
+  public long getGlobalLockTime() {
+    return NANOSECONDS.toMillis(store.getGlobalLockNanos());
+  }
+
   @Override
   public int getReprobeLength() {
     //TODO
@@ -30,8 +30,11 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.LongConsumer;
 import java.util.function.LongFunction;
+import java.util.function.LongSupplier;
 
 import static org.terracotta.offheapstore.util.MemoryUnit.BYTES;
 import static org.terracotta.offheapstore.util.MemoryUnit.KILOBYTES;
@@ -45,6 +48,9 @@ public class OffHeapServerStore implements ServerStore, MapInternals {
   private final KeySegmentMapper mapper;
   private volatile ServerStoreEventListener listener;
   private volatile boolean fireEvents;
+  private final AtomicInteger reclaimIndex = new AtomicInteger();
+  private final LongAdder globalLockAcquisitions = new LongAdder();
+  private final LongAdder globalLockNanos = new LongAdder();
 
   public OffHeapServerStore(List<OffHeapChainMap<Long>> segments, KeySegmentMapper mapper) {
     this.mapper = mapper;
@@ -218,6 +224,7 @@ public class OffHeapServerStore implements ServerStore, MapInternals {
       }
     }
 
+    long start = System.nanoTime();
     writeLockAll();
     try {
       OversizeMappingException e;
@@ -231,6 +238,8 @@ public class OffHeapServerStore implements ServerStore, MapInternals {
       throw e;
     } finally {
       writeUnlockAll();
+      globalLockAcquisitions.increment();
+      globalLockNanos.add(System.nanoTime() - start);
     }
   }
 
@@ -247,6 +256,34 @@ public class OffHeapServerStore implements ServerStore, MapInternals {
     return evicted;
   }
 
+  /**
+   * Shrinks the segments in turn, holding a single segment lock at a time, until {@code freeSpace} reports at least
+   * {@code headroom} bytes or {@code maxShrinks} segments were shrunk.
+   * <p>
+   * Keeping some free space ahead of the writers lets them allocate without going through the all-segment lock
+   * of the oversize mapping handling.
+   *
+   * @param freeSpace the free space left in the page source backing this store
+   * @param headroom the free space to maintain
+   * @param maxShrinks the maximum number of segments to shrink
+   * @return the number of segments shrunk
+   */
+  public int reclaim(LongSupplier freeSpace, long headroom, int maxShrinks) {
+    int shrinks = 0;
+    int failures = 0;
+    int segmentCount = segments.size();
+    while (shrinks < maxShrinks && failures < segmentCount && freeSpace.getAsLong() < headroom) {
+      OffHeapChainMap<Long> segment = segments.get(Math.floorMod(reclaimIndex.getAndIncrement(), segmentCount));
+      if (segment.shrink()) {
+        shrinks++;
+        failures = 0;
+      } else {
+        failures++;
+      }
+    }
+    return shrinks;
+  }
+
   public void close() {
     writeLockAll();
     try {
@@ -367,6 +404,20 @@ public class OffHeapServerStore implements ServerStore, MapInternals {
     return total;
   }
 
+  /**
+   * @return the number of times an operation had to lock all segments to make room for a mapping
+   */
+  public long getGlobalLockAcquisitions() {
+    return globalLockAcquisitions.sum();
+  }
+
+  /**
+   * @return the total time, in nanoseconds, during which all segments were locked to make room for a mapping
+   */
+  public long getGlobalLockNanos() {
+    return globalLockNanos.sum();
+  }
+
   @Override
   public Iterator<Map.Entry<Long, Chain>> iterator() {
     return new AggregateIterator<Map.Entry<Long, Chain>>() {
@@ -39,6 +39,8 @@ import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 
 /**
  * {@link ServiceProvider} for {@link EhcacheStateService}
@@ -50,6 +52,7 @@ public class EhcacheStateServiceProvider implements ServiceProvider, Closeable {
 
   private final ConcurrentMap<String, EhcacheStateService> serviceMap = new ConcurrentHashMap<>();
   private OffHeapResources offHeapResourcesProvider;
+  private final ScheduledExecutorService reclaimScheduler = newReclaimScheduler();
 
   @Override
   public void addStateTo(StateDumpCollector dump) {
@@ -90,7 +93,7 @@ public class EhcacheStateServiceProvider implements ServiceProvider, Closeable {
         EhcacheStateServiceConfig stateServiceConfig = (EhcacheStateServiceConfig) configuration;
         EhcacheStateServiceImpl storeManagerService = new EhcacheStateServiceImpl(
           offHeapResourcesProvider, stateServiceConfig.getConfig().getConfiguration(), stateServiceConfig.getMapper(),
-          service -> serviceMap.remove(stateServiceConfig.getConfig().getIdentifier(), service));
+          service -> serviceMap.remove(stateServiceConfig.getConfig().getIdentifier(), service), reclaimScheduler);
         result = serviceMap.putIfAbsent(stateServiceConfig.getConfig().getIdentifier(), storeManagerService);
         if (result == null) {
           result = storeManagerService;
@@ -123,6 +126,17 @@ public class EhcacheStateServiceProvider implements ServiceProvider, Closeable {
   public void close() {
     //passthrough test cleanup
     serviceMap.values().forEach(EhcacheStateService::destroy);
+    reclaimScheduler.shutdownNow();
+  }
+
+  private static ScheduledExecutorService newReclaimScheduler() {
+    ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+      Thread thread = new Thread(runnable, "ehcache-space-reclamation");
+      thread.setDaemon(true);
+      return thread;
+    });
+    executor.setRemoveOnCancelPolicy(true);
+    return executor;
   }
 
   public interface DestroyCallback {
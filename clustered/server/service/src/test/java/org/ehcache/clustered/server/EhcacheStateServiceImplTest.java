@@ -16,13 +16,33 @@
 
 package org.ehcache.clustered.server;
 
+import org.ehcache.clustered.common.Consistency;
+import org.ehcache.clustered.common.PoolAllocation;
+import org.ehcache.clustered.common.ServerSideConfiguration;
+import org.ehcache.clustered.common.internal.ServerStoreConfiguration;
 import org.ehcache.clustered.common.internal.exceptions.DestroyInProgressException;
 import org.junit.Test;
+import org.terracotta.offheapresource.OffHeapResources;
+import org.terracotta.offheapresource.OffHeapResourcesProvider;
+import org.terracotta.offheapresource.config.MemoryUnit;
+import org.terracotta.offheapresource.config.OffheapResourcesType;
+import org.terracotta.offheapresource.config.ResourceType;
 
+import java.math.BigInteger;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Collections.emptyMap;
+import static org.ehcache.clustered.server.EhcacheStateServiceImpl.RECLAIM_HEADROOM_PROP;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 public class EhcacheStateServiceImplTest {
 
@@ -38,4 +58,58 @@ public class EhcacheStateServiceImplTest {
     }
   }
 
+  @Test
+  public void testReclaimIsDisabledByDefault() throws Exception {
+    ScheduledExecutorService reclaimScheduler = mock(ScheduledExecutorService.class);
+    EhcacheStateServiceImpl ehcacheStateService = newStateService(reclaimScheduler);
+    try {
+      ehcacheStateService.createStore("active", storeConfiguration(false), true);
+
+      verify(reclaimScheduler, never()).scheduleWithFixedDelay(any(Runnable.class), anyLong(), anyLong(), any(TimeUnit.class));
+    } finally {
+      ehcacheStateService.destroy();
+    }
+  }
+
+  @Test
+  public void testReclaimIsScheduledForActiveNonWriteBehindStoresOnly() throws Exception {
+    ScheduledExecutorService reclaimScheduler = mock(ScheduledExecutorService.class);
+    EhcacheStateServiceImpl ehcacheStateService;
+    System.setProperty(RECLAIM_HEADROOM_PROP, "1024");
+    try {
+      ehcacheStateService = newStateService(reclaimScheduler);
+    } finally {
+      System.clearProperty(RECLAIM_HEADROOM_PROP);
+    }
+    try {
+      ehcacheStateService.createStore("passive", storeConfiguration(false), false);
+      ehcacheStateService.createStore("writeBehind", storeConfiguration(true), true);
+      verify(reclaimScheduler, never()).scheduleWithFixedDelay(any(Runnable.class), anyLong(), anyLong(), any(TimeUnit.class));
+
+      ehcacheStateService.createStore("active", storeConfiguration(false), true);
+      verify(reclaimScheduler).scheduleWithFixedDelay(any(Runnable.class), anyLong(), anyLong(), any(TimeUnit.class));
+    } finally {
+      ehcacheStateService.destroy();
+    }
+  }
+
+  private static EhcacheStateServiceImpl newStateService(ScheduledExecutorService reclaimScheduler) throws Exception {
+    ResourceType resource = new ResourceType();
+    resource.setName("primary");
+    resource.setUnit(MemoryUnit.MB);
+    resource.setValue(BigInteger.valueOf(4L));
+    OffheapResourcesType configuration = new OffheapResourcesType();
+    configuration.getResource().add(resource);
+    OffHeapResources offHeapResources = new OffHeapResourcesProvider(configuration);
+
+    EhcacheStateServiceImpl ehcacheStateService = new EhcacheStateServiceImpl(offHeapResources,
+      new ServerSideConfiguration("primary", emptyMap()), new KeySegmentMapper(16), service -> {}, reclaimScheduler);
+    ehcacheStateService.configure();
+    return ehcacheStateService;
+  }
+
+  private static ServerStoreConfiguration storeConfiguration(boolean writeBehind) {
+    return new ServerStoreConfiguration(new PoolAllocation.Dedicated("primary", 1024 * 1024),
+      Long.class.getName(), String.class.getName(), null, null, Consistency.STRONG, writeBehind, writeBehind);
+  }
 }
@@ -20,6 +20,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
 
 import org.ehcache.clustered.common.internal.store.Chain;
 import org.ehcache.clustered.server.KeySegmentMapper;
@@ -41,16 +42,20 @@ import static java.util.Collections.singletonList;
 import static org.ehcache.clustered.ChainUtils.chainOf;
 import static org.ehcache.clustered.ChainUtils.createPayload;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -296,6 +301,89 @@ public class OffHeapServerStoreTest extends ServerStoreTest {
     }
   }
 
+  @Test
+  public void testGlobalLockAcquisitionsAreCounted() throws Exception {
+    OffHeapChainMap<Long> offheapChainMap = getOffHeapChainMapLongMock();
+    when(offheapChainMap.writeLock()).thenReturn(new ReentrantLock());
+    doThrow(new OversizeMappingException()).when(offheapChainMap).put(anyLong(), any(Chain.class));
+
+    OffHeapServerStore offHeapServerStore = new OffHeapServerStore(singletonList(offheapChainMap), mock(KeySegmentMapper.class));
+    assertThat(offHeapServerStore.getGlobalLockAcquisitions(), is(0L));
+    try {
+      offHeapServerStore.put(43L, mock(Chain.class));
+      fail("Expected OversizeMappingException");
+    } catch (OversizeMappingException e) {
+      // expected
+    }
+
+    assertThat(offHeapServerStore.getGlobalLockAcquisitions(), is(1L));
+    assertThat(offHeapServerStore.getGlobalLockNanos(), greaterThan(0L));
+  }
+
+  @Test
+  public void testReclaimRestoresHeadroom() {
+    long maxBytes = MEGABYTES.toBytes(1);
+    UpfrontAllocatingPageSource pageSource = new UpfrontAllocatingPageSource(new OffHeapBufferSource(), maxBytes, MEGABYTES.toBytes(1));
+    OffHeapServerStore store = new OffHeapServerStore(pageSource, new KeySegmentMapper(16), false);
+
+    ByteBuffer value = ByteBuffer.allocate(1024);
+    for (long i = 0; i < 2000; i++) {
+      try {
+        store.getAndAppend(i, value.duplicate());
+      } catch (OversizeMappingException e) {
+        //ignore
+      }
+    }
+    long headroom = KILOBYTES.toBytes(256);
+    LongSupplier freeSpace = () -> maxBytes - pageSource.getAllocatedSizeUnSync();
+    assertThat(freeSpace.getAsLong(), lessThan(headroom));
+    long size = store.getSize();
+
+    int shrinks = store.reclaim(freeSpace, headroom, Integer.MAX_VALUE);
+
+    assertThat(shrinks, greaterThan(0));
+    assertThat(freeSpace.getAsLong(), greaterThanOrEqualTo(headroom));
+    assertThat(store.getSize(), lessThan(size));
+    assertThat(store.reclaim(freeSpace, headroom, Integer.MAX_VALUE), is(0));
+  }
+
+  @Test
+  public void testReclaimShrinksSegmentsInTurnUpToMaxShrinks() {
+    OffHeapChainMap<Long> segment = getOffHeapChainMapLongMock();
+    OffHeapChainMap<Long> otherSegment = getOffHeapChainMapLongMock();
+    when(segment.shrink()).thenReturn(true);
+    when(otherSegment.shrink()).thenReturn(true);
+    OffHeapServerStore store = new OffHeapServerStore(asList(segment, otherSegment), mock(KeySegmentMapper.class));
+
+    assertThat(store.reclaim(() -> 0L, 1L, 3), is(3));
+    verify(segment, times(2)).shrink();
+    verify(otherSegment, times(1)).shrink();
+
+    assertThat(store.reclaim(() -> 0L, 1L, 1), is(1));
+    verify(segment, times(2)).shrink();
+    verify(otherSegment, times(2)).shrink();
+  }
+
+  @Test
+  public void testReclaimStopsWhenNoSegmentCanShrink() {
+    OffHeapChainMap<Long> segment = getOffHeapChainMapLongMock();
+    OffHeapChainMap<Long> otherSegment = getOffHeapChainMapLongMock();
+    OffHeapServerStore store = new OffHeapServerStore(asList(segment, otherSegment), mock(KeySegmentMapper.class));
+
+    assertThat(store.reclaim(() -> 0L, 1L, Integer.MAX_VALUE), is(0));
+    verify(segment, times(1)).shrink();
+    verify(otherSegment, times(1)).shrink();
+  }
+
+  @Test
+  public void testReclaimDoesNotShrinkWhenHeadroomIsAvailable() {
+    OffHeapChainMap<Long> segment = getOffHeapChainMapLongMock();
+    OffHeapServerStore store = new OffHeapServerStore(singletonList(segment), mock(KeySegmentMapper.class));
+
+    assertThat(store.reclaim(() -> 1L, 1L, Integer.MAX_VALUE), is(0));
+    verify(segment, never()).shrink();
+  }
+
   @Test
   public void testServerSideUsageStats() {
 
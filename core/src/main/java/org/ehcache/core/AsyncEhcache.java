@@ -0,0 +1,166 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ehcache.core;
+
+import org.ehcache.AsyncCache;
+import org.ehcache.Cache;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Implementation of the {@link AsyncCache} interface that runs the operations of an {@link InternalCache} on an
+ * {@link Executor}.
+ * <p>
+ * {@code Ehcache} users should not have to depend on this type but rely exclusively on the api types in package
+ * {@code org.ehcache}.
+ */
+public class AsyncEhcache<K, V> implements AsyncCache<K, V> {
+
+  private final InternalCache<K, V> cache;
+  private final Executor executor;
+  private volatile Jsr107Cache<K, V> jsr107Cache;
+
+  /**
+   * Creates a new {@code AsyncEhcache} view.
+   *
+   * @param cache the cache the operations are delegated to
+   * @param executor the executor the operations are run on
+   */
+  public AsyncEhcache(InternalCache<K, V> cache, Executor executor) {
+    this.cache = requireNonNull(cache, "Cache cannot be null");
+    this.executor = requireNonNull(executor, "Executor cannot be null");
+  }
+
+  @Override
+  public CompletionStage<V> getAsync(K key) {
+    requireNonNull(key);
+    return CompletableFuture.supplyAsync(() -> cache.get(key), executor);
+  }
+
+  @Override
+  public CompletionStage<Void> putAsync(K key, V value) {
+    requireNonNull(key);
+    requireNonNull(value);
+    return CompletableFuture.runAsync(() -> cache.put(key, value), executor);
+  }
+
+  @Override
+  public CompletionStage<Boolean> containsKeyAsync(K key) {
+    requireNonNull(key);
+    return CompletableFuture.supplyAsync(() -> cache.containsKey(key), executor);
+  }
+
+  @Override
+  public CompletionStage<Void> removeAsync(K key) {
+    requireNonNull(key);
+    return CompletableFuture.runAsync(() -> cache.remove(key), executor);
+  }
+
+  @Override
+  public CompletionStage<Map<K, V>> getAllAsync(Set<? extends K> keys) {
+    checkNonNullContent(keys);
+    return CompletableFuture.supplyAsync(() -> cache.getAll(keys), executor);
+  }
+
+  @Override
+  public CompletionStage<Void> putAllAsync(Map<? extends K, ? extends V> entries) {
+    requireNonNull(entries);
+    for (Map.Entry<? extends K, ? extends V> entry : entries.entrySet()) {
+      requireNonNull(entry.getKey());
+      requireNonNull(entry.getValue());
+    }
+    return CompletableFuture.runAsync(() -> cache.putAll(entries), executor);
+  }
+
+  @Override
+  public CompletionStage<Void> removeAllAsync(Set<? extends K> keys) {
+    checkNonNullContent(keys);
+    return CompletableFuture.runAsync(() -> cache.removeAll(keys), executor);
+  }
+
+  @Override
+  public CompletionStage<V> putIfAbsentAsync(K key, V value) {
+    requireNonNull(key);
+    requireNonNull(value);
+    return CompletableFuture.supplyAsync(() -> cache.putIfAbsent(key, value), executor);
+  }
+
+  @Override
+  public CompletionStage<Boolean> removeAsync(K key, V value) {
+    requireNonNull(key);
+    requireNonNull(value);
+    return CompletableFuture.supplyAsync(() -> cache.remove(key, value), executor);
+  }
+
+  @Override
+  public CompletionStage<V> replaceAsync(K key, V value) {
+    requireNonNull(key);
+    requireNonNull(value);
+    return CompletableFuture.supplyAsync(() -> cache.replace(key, value), executor);
+  }
+
+  @Override
+  public CompletionStage<Boolean> replaceAsync(K key, V oldValue, V newValue) {
+    requireNonNull(key);
+    requireNonNull(oldValue);
+    requireNonNull(newValue);
+    return CompletableFuture.supplyAsync(() -> cache.replace(key, oldValue, newValue), executor);
+  }
+
+  @Override
+  public CompletionStage<V> computeAsync(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+    requireNonNull(key);
+    requireNonNull(remappingFunction);
+    return CompletableFuture.supplyAsync(() -> {
+      // the store may retry the function, only the value of the last invocation is installed
+      AtomicReference<V> computed = new AtomicReference<>();
+      jsr107Cache().compute(key, (k, v) -> {
+        V newValue = remappingFunction.apply(k, v);
+        computed.set(newValue);
+        return newValue;
+      }, () -> true, () -> true, () -> true);
+      return computed.get();
+    }, executor);
+  }
+
+  @Override
+  public Cache<K, V> synchronous() {
+    return cache;
+  }
+
+  private Jsr107Cache<K, V> jsr107Cache() {
+    Jsr107Cache<K, V> jsr107 = jsr107Cache;
+    if (jsr107 == null) {
+      jsr107 = jsr107Cache = cache.createJsr107Cache();
+    }
+    return jsr107;
+  }
+
+  private static void checkNonNullContent(Set<?> keys) {
+    requireNonNull(keys);
+    for (Object key : keys) {
+      requireNonNull(key);
+    }
+  }
+}
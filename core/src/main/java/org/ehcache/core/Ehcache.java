@@ -346,7 +346,7 @@ public class Ehcache<K, V> extends EhcacheBase<K, V> {
 
     @Override
     public Iterable<? extends Map.Entry<? extends K, ? extends V>> apply(final Iterable<? extends K> keys) {
-      int size = CollectionUtil.findBestCollectionSize(keys, 1); // in our current implementation, we have one entry all the time
+      int size = CollectionUtil.findBestCollectionSize(keys, 1);
 
       List<Map.Entry<K, V>> computeResult = new ArrayList<>(size);
 
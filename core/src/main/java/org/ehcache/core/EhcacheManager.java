@@ -28,6 +28,8 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.UnaryOperator;
 
@@ -36,6 +38,7 @@ import javax.naming.ldap.Rdn;
 import static org.ehcache.core.spi.ServiceLocator.dependencySet;
 import static org.ehcache.core.spi.service.ServiceUtils.findOptionalAmongst;
 import static org.ehcache.core.spi.service.ServiceUtils.findSingletonAmongst;
+import org.ehcache.AsyncCache;
 import org.ehcache.Cache;
 import org.ehcache.CachePersistenceException;
 import org.ehcache.PersistentCacheManager;
@@ -57,6 +60,7 @@ import org.ehcache.core.resilience.DefaultRecoveryStore;
 import org.ehcache.core.spi.LifeCycled;
 import org.ehcache.core.spi.LifeCycledAdapter;
 import org.ehcache.core.spi.ServiceLocator;
+import org.ehcache.core.spi.service.AsyncCacheExecutorProvider;
 import org.ehcache.core.spi.service.CacheManagerProviderService;
 import org.ehcache.core.spi.service.ServiceUtils;
 import org.ehcache.core.spi.store.InternalCacheManager;
@@ -184,6 +188,20 @@ public class EhcacheManager implements PersistentCacheManager, InternalCacheMana
 
   @Override
   public <K, V> Cache<K, V> getCache(String alias, Class<K> keyType, Class<V> valueType) {
+    return retrieveCache(alias, keyType, valueType);
+  }
+
+  @Override
+  public <K, V> AsyncCache<K, V> getAsyncCache(String alias, Class<K> keyType, Class<V> valueType) {
+    InternalCache<K, V> cache = retrieveCache(alias, keyType, valueType);
+    if (cache == null) {
+      return null;
+    } else {
+      return new AsyncEhcache<>(cache, getAsyncExecutor());
+    }
+  }
+
+  private <K, V> InternalCache<K, V> retrieveCache(String alias, Class<K> keyType, Class<V> valueType) {
     statusTransitioner.checkAvailable();
     final CacheHolder cacheHolder = caches.get(alias);
     if(cacheHolder == null) {
@@ -725,6 +743,23 @@ public class EhcacheManager implements PersistentCacheManager, InternalCacheMana
     }
   }
 
+  /**
+   * Returns the executor running the operations of the {@link AsyncCache} views handed out by this manager.
+   * <p>
+   * The executor comes from the {@link AsyncCacheExecutorProvider}, falling back to the common fork-join pool when no
+   * such service is configured.
+   *
+   * @return the asynchronous operations executor
+   */
+  private Executor getAsyncExecutor() {
+    AsyncCacheExecutorProvider executorProvider = serviceLocator.getService(AsyncCacheExecutorProvider.class);
+    if (executorProvider == null) {
+      return ForkJoinPool.commonPool();
+    } else {
+      return executorProvider.getExecutor();
+    }
+  }
+
   @Override
   public Configuration getRuntimeConfiguration() {
     return configuration;
@@ -0,0 +1,37 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ehcache.core.spi.service;
+
+import org.ehcache.spi.service.Service;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Provides the executor running the operations of the {@link org.ehcache.AsyncCache} views of a cache manager.
+ */
+public interface AsyncCacheExecutorProvider extends Service {
+
+  /**
+   * Returns the executor on which asynchronous cache operations run.
+   *
+   * @return the asynchronous operations executor
+   *
+   * @throws IllegalStateException if no thread pool can be resolved for asynchronous operations
+   */
+  Executor getExecutor() throws IllegalStateException;
+}
@@ -48,6 +48,22 @@ public interface AuthoritativeTier<K, V> extends Store<K, V> {
    */
   ValueHolder<V> getAndFault(K key) throws StoreAccessException;
 
+  /**
+   * Marks a mapping just written as not evictable and returns it atomically, for installation in the caching tier.
+   * <p>
+   * Unlike {@link #getAndFault(Object)} this is not a read of the mapping and is not recorded as one.
+   * <p>
+   * The default implementation delegates to {@link #getAndFault(Object)}.
+   *
+   * @param key the key written
+   * @return the value holder
+   *
+   * @throws StoreAccessException if the mapping can't be retrieved or updated.
+   */
+  default ValueHolder<V> faultWritten(K key) throws StoreAccessException {
+    return getAndFault(key);
+  }
+
   /**
    * Marks the mapping as not evictable and performs computeIfAbsent() atomically.
    * 将映射标记为不可逐出，并以原子方式执行ComputeFabSent（）。
@@ -73,6 +73,27 @@ public interface CachingTier<K, V> extends ConfigurationChangeSupport {
    */
   Store.ValueHolder<V> getOrDefault(K key, Function<K, Store.ValueHolder<V>> source) throws StoreAccessException;
 
+  /**
+   * Installs the value holder of a mapping just written to the {@link AuthoritativeTier}, unless the key is already
+   * present in this tier.
+   * <p>
+   * Unlike {@link #getOrComputeIfAbsent(Object, Function)} the installed mapping keeps the expiration of the written
+   * value holder: it is not treated as an access, so no access expiry is applied and no access is recorded. When the
+   * key is already present, {@code source} is not invoked and {@code null} is returned.
+   * <p>
+   * The default implementation installs nothing: it never invokes {@code source} and returns {@code null}.
+   *
+   * @param key the key
+   * @param source the function performing the write and returning the written value holder
+   *
+   * @return the installed value holder, or {@code null} if nothing was installed
+   *
+   * @throws StoreAccessException if the mapping cannot be installed
+   */
+  default Store.ValueHolder<V> installWritten(K key, Function<K, Store.ValueHolder<V>> source) throws StoreAccessException {
+    return null;
+  }
+
   /**
    * Removes a mapping, triggering the {@link InvalidationListener} if registered.
    * 删除映射，如果已注册，则触发{@link InvalidationListener}。
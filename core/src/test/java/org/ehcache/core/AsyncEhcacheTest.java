@@ -0,0 +1,145 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ehcache.core;
+
+import org.ehcache.Status;
+import org.ehcache.spi.loaderwriter.CacheLoadingException;
+import org.ehcache.spi.resilience.StoreAccessException;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
+
+/**
+ * Provides testing of the {@link AsyncEhcache} view over an {@link Ehcache}.
+ */
+public class AsyncEhcacheTest extends EhcacheBasicCrudBase {
+
+  @Test
+  public void testOperationsRunOnExecutor() throws Exception {
+    this.store = spy(new FakeStore(Collections.singletonMap("key", "value")));
+    AtomicInteger submitted = new AtomicInteger();
+    Executor executor = command -> {
+      submitted.incrementAndGet();
+      command.run();
+    };
+    AsyncEhcache<String, String> asyncCache = new AsyncEhcache<>(getEhcache(), executor);
+
+    assertThat(asyncCache.getAsync("key").toCompletableFuture().get(), is("value"));
+    asyncCache.putAsync("other", "otherValue").toCompletableFuture().get();
+    assertThat(asyncCache.containsKeyAsync("other").toCompletableFuture().get(), is(true));
+    assertThat(asyncCache.replaceAsync("other", "otherValue", "newValue").toCompletableFuture().get(), is(true));
+    assertThat(asyncCache.putIfAbsentAsync("other", "ignored").toCompletableFuture().get(), is("newValue"));
+    asyncCache.removeAsync("other").toCompletableFuture().get();
+    assertThat(asyncCache.synchronous().get("other"), nullValue());
+
+    assertThat(submitted.get(), is(6));
+  }
+
+  @Test
+  public void testBulkOperations() throws Exception {
+    this.store = spy(new FakeStore(Collections.emptyMap()));
+    AsyncEhcache<String, String> asyncCache = new AsyncEhcache<>(getEhcache(), Runnable::run);
+
+    Map<String, String> entries = new HashMap<>();
+    entries.put("key1", "value1");
+    entries.put("key2", "value2");
+    asyncCache.putAllAsync(entries).toCompletableFuture().get();
+
+    assertThat(asyncCache.getAllAsync(entries.keySet()).toCompletableFuture().get(), is(entries));
+
+    asyncCache.removeAllAsync(new HashSet<>(Arrays.asList("key1", "key2"))).toCompletableFuture().get();
+    assertThat(asyncCache.getAsync("key1").toCompletableFuture().get(), nullValue());
+  }
+
+  @Test
+  public void testComputeAsync() throws Exception {
+    this.store = spy(new FakeStore(Collections.singletonMap("key", "value")));
+    AsyncEhcache<String, String> asyncCache = new AsyncEhcache<>(getEhcache(), Runnable::run);
+
+    assertThat(asyncCache.computeAsync("key", (k, v) -> v + "-computed").toCompletableFuture().get(), is("value-computed"));
+    assertThat(asyncCache.getAsync("key").toCompletableFuture().get(), is("value-computed"));
+
+    assertThat(asyncCache.computeAsync("key", (k, v) -> null).toCompletableFuture().get(), nullValue());
+    assertThat(asyncCache.containsKeyAsync("key").toCompletableFuture().get(), is(false));
+  }
+
+  @Test
+  public void testFailureCompletesExceptionally() throws Exception {
+    this.store = spy(new FakeStore(Collections.emptyMap()));
+    StoreAccessException failure = new StoreAccessException("failed");
+    doThrow(failure).when(this.store).get(eq("key"));
+    when(this.resilienceStrategy.getFailure(eq("key"), any(StoreAccessException.class))).thenThrow(new CacheLoadingException(failure));
+    AsyncEhcache<String, String> asyncCache = new AsyncEhcache<>(getEhcache(), Runnable::run);
+
+    CompletableFuture<String> result = asyncCache.getAsync("key").toCompletableFuture();
+    try {
+      result.get();
+      fail("Expected ExecutionException");
+    } catch (ExecutionException e) {
+      assertThat(e.getCause(), instanceOf(CacheLoadingException.class));
+    }
+  }
+
+  @Test
+  public void testNullKeyRejectedEagerly() throws Exception {
+    this.store = spy(new FakeStore(Collections.emptyMap()));
+    AtomicInteger submitted = new AtomicInteger();
+    AsyncEhcache<String, String> asyncCache = new AsyncEhcache<>(getEhcache(), command -> submitted.incrementAndGet());
+
+    try {
+      asyncCache.getAsync(null);
+      fail("Expected NullPointerException");
+    } catch (NullPointerException e) {
+      // expected
+    }
+    try {
+      asyncCache.putAllAsync(Collections.singletonMap("key", null));
+      fail("Expected NullPointerException");
+    } catch (NullPointerException e) {
+      // expected
+    }
+    assertThat(submitted.get(), is(0));
+  }
+
+  private Ehcache<String, String> getEhcache() throws Exception {
+    final Ehcache<String, String> ehcache =
+      new Ehcache<>(CACHE_CONFIGURATION, this.store, resilienceStrategy, cacheEventDispatcher, LoggerFactory.getLogger(Ehcache.class + "-" + "AsyncEhcacheTest"));
+    ehcache.init();
+    assertThat("cache not initialized", ehcache.getStatus(), Matchers.is(Status.AVAILABLE));
+    return ehcache;
+  }
+}
@@ -16,6 +16,7 @@
 
 package org.ehcache.core;
 
+import org.ehcache.AsyncCache;
 import org.ehcache.Cache;
 import org.ehcache.CacheManager;
 import org.ehcache.CachePersistenceException;
@@ -33,6 +34,7 @@ import org.ehcache.core.events.CacheEventDispatcher;
 import org.ehcache.core.events.CacheEventDispatcherFactory;
 import org.ehcache.core.events.CacheEventListenerProvider;
 import org.ehcache.core.events.CacheManagerListener;
+import org.ehcache.core.spi.service.AsyncCacheExecutorProvider;
 import org.ehcache.core.spi.service.LocalPersistenceService;
 import org.ehcache.core.spi.store.Store;
 import org.ehcache.core.util.ClassLoading;
@@ -61,6 +63,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 
 import static org.hamcrest.CoreMatchers.containsString;
@@ -289,6 +292,42 @@ public class EhcacheManagerTest {
     }
   }
 
+  @Test
+  public void testAsyncCacheRunsOnAsyncCacheExecutorProvider() {
+    CacheConfiguration<Object, Object> cacheConfiguration = new TestCacheConfig<>(Object.class, Object.class);
+    final Store.Provider storeProvider = mock(Store.Provider.class);
+    when(storeProvider.rank(any(Set.class), any(Collection.class))).thenReturn(1);
+    final Store mock = mock(Store.class);
+    when(storeProvider
+        .createStore(ArgumentMatchers.<Store.Configuration>any(), ArgumentMatchers.<ServiceConfiguration[]>any())).thenReturn(mock);
+
+    final CacheEventDispatcherFactory cenlProvider = mock(CacheEventDispatcherFactory.class);
+    final CacheEventDispatcher<Object, Object> cenlServiceMock = mock(CacheEventDispatcher.class);
+    when(cenlProvider.createCacheEventDispatcher(mock)).thenReturn(cenlServiceMock);
+
+    final AsyncCacheExecutorProvider executorProvider = mock(AsyncCacheExecutorProvider.class);
+    final Executor executor = mock(Executor.class);
+    when(executorProvider.getExecutor()).thenReturn(executor);
+    final Collection<Service> services = getServices(storeProvider, cenlProvider);
+    services.add(executorProvider);
+
+    Map<String, CacheConfiguration<?, ?>> caches = newCacheMap();
+    caches.put("bar", cacheConfiguration);
+    DefaultConfiguration config = new DefaultConfiguration(caches, null);
+    EhcacheManager cacheManager = new EhcacheManager(config, services);
+    cacheManager.init();
+
+    assertThat(cacheManager.getAsyncCache("foo", Object.class, Object.class), nullValue());
+    AsyncCache<Object, Object> asyncCache = cacheManager.getAsyncCache("bar", Object.class, Object.class);
+    assertSame(cacheManager.getCache("bar", Object.class, Object.class), asyncCache.synchronous());
+
+    asyncCache.getAsync("key");
+    verify(executor).execute(any(Runnable.class));
+
+    cacheManager.close();
+    verify(executorProvider).stop();
+  }
+
   @Test
   public void testThrowsWhenNotInitialized() {
     final Store.Provider storeProvider = mock(Store.Provider.class);
@@ -0,0 +1,72 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ehcache.core.spi.time;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CachedTimeSourceTest {
+
+  private final CachedTimeSource cachedTimeSource = new CachedTimeSource(1L);
+
+  @After
+  public void after() {
+    cachedTimeSource.stop();
+  }
+
+  @Test
+  public void getTimeMillis() {
+    long currentTime = System.currentTimeMillis();
+    cachedTimeSource.start(null);
+
+    long actualTime = cachedTimeSource.getTimeMillis();
+
+    // time starts at the system time...
+    assertThat(actualTime).isGreaterThanOrEqualTo(currentTime);
+
+    // ... and moves along with it
+    long end = System.currentTimeMillis() + 30_000;
+    while(System.currentTimeMillis() < end) {
+      if(cachedTimeSource.getTimeMillis() > actualTime) {
+        break;
+      }
+    }
+
+    assertThat(cachedTimeSource.getTimeMillis()).isGreaterThan(actualTime);
+  }
+
+  @Test
+  public void stoppedTimeSourceIsFrozen() throws InterruptedException {
+    cachedTimeSource.start(null);
+    cachedTimeSource.stop();
+    Thread.sleep(20);
+
+    long frozen = cachedTimeSource.getTimeMillis();
+    Thread.sleep(20);
+
+    assertThat(cachedTimeSource.getTimeMillis()).isEqualTo(frozen);
+  }
+
+  @Test
+  public void rejectsNonPositiveGranularity() {
+    assertThatThrownBy(() -> new CachedTimeSource(0L)).isInstanceOf(IllegalArgumentException.class);
+  }
+}
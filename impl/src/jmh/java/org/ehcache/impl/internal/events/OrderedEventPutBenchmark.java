@@ -0,0 +1,107 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ehcache.impl.internal.events;
+
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.units.EntryUnit;
+import org.ehcache.core.internal.statistics.DefaultStatisticsService;
+import org.ehcache.core.spi.store.Store;
+import org.ehcache.core.spi.time.SystemTimeSource;
+import org.ehcache.core.store.StoreConfigurationImpl;
+import org.ehcache.impl.internal.sizeof.NoopSizeOfEngine;
+import org.ehcache.impl.internal.store.heap.OnHeapStore;
+import org.ehcache.impl.store.DefaultStoreEventDispatcher;
+import org.ehcache.spi.resilience.StoreAccessException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.ehcache.config.builders.ResourcePoolsBuilder.newResourcePoolsBuilder;
+import static org.ehcache.impl.copy.IdentityCopier.identityCopier;
+
+/**
+ * Measures the put throughput of an {@link OnHeapStore} with ordered store events enabled.
+ * <p>
+ * Run through {@link #main(String[])} to get the throughput for 1 to 32 writing threads. The registered listener does
+ * nothing, so the numbers reflect the cost of keeping events in sequence through the ordered queues.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderedEventPutBenchmark {
+
+  private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32};
+
+  @Param({"1", "8"})
+  public int dispatcherConcurrency;
+
+  @Param({"65536"})
+  public int entries;
+
+  private OnHeapStore<Long, String> store;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    Store.Configuration<Long, String> configuration = new StoreConfigurationImpl<>(Long.class, String.class, null,
+      getClass().getClassLoader(), ExpiryPolicyBuilder.noExpiration(), newResourcePoolsBuilder().heap(entries, EntryUnit.ENTRIES).build(),
+      dispatcherConcurrency, null, null);
+    store = new OnHeapStore<>(configuration, SystemTimeSource.INSTANCE, identityCopier(), identityCopier(),
+      new NoopSizeOfEngine(), new DefaultStoreEventDispatcher<>(dispatcherConcurrency), new DefaultStatisticsService());
+    store.getStoreEventSource().addEventListener(event -> {});
+    store.getStoreEventSource().setEventOrdering(true);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws StoreAccessException {
+    store.clear();
+  }
+
+  @Benchmark
+  public Store.PutStatus put() throws StoreAccessException {
+    return store.put(ThreadLocalRandom.current().nextLong(entries), "value");
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    for (int threads : THREAD_COUNTS) {
+      Options options = new OptionsBuilder()
+        .include(OrderedEventPutBenchmark.class.getSimpleName())
+        .threads(threads)
+        .build();
+      new Runner(options).run();
+    }
+  }
+}
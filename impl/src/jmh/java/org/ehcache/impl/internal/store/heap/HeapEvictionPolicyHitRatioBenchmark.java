@@ -0,0 +1,196 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ehcache.impl.internal.store.heap;
+
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.units.EntryUnit;
+import org.ehcache.core.internal.statistics.DefaultStatisticsService;
+import org.ehcache.core.spi.store.Store;
+import org.ehcache.core.spi.time.SystemTimeSource;
+import org.ehcache.core.store.StoreConfigurationImpl;
+import org.ehcache.impl.internal.concurrent.ConcurrentHashMap;
+import org.ehcache.impl.internal.sizeof.NoopSizeOfEngine;
+import org.ehcache.impl.store.DefaultStoreEventDispatcher;
+import org.ehcache.spi.resilience.StoreAccessException;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.ehcache.config.builders.ResourcePoolsBuilder.newResourcePoolsBuilder;
+import static org.ehcache.impl.copy.IdentityCopier.identityCopier;
+
+/**
+ * Replays a key access trace against an {@link OnHeapStore} using each {@link HeapEvictionPolicy}.
+ * <p>
+ * Every access is a read, a miss being followed by a put as a cache-aside application would do. The trace is either
+ * a text file with one access per line, the key being the first number on the line as in the LIRS and ARC traces,
+ * or, when no file is given, a synthetic skewed workload interrupted by large one-off scans.
+ * <p>
+ * Run through {@link #main(String[])} to print the hit ratio of each policy for a trace, optionally passing the trace
+ * file and the heap size in entries. Under JMH the hits and misses are reported as secondary results next to the
+ * replay throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(1)
+@Fork(1)
+public class HeapEvictionPolicyHitRatioBenchmark {
+
+  private static final int SYNTHETIC_ACCESSES = 1_000_000;
+  private static final int SYNTHETIC_KEYS = 100_000;
+  private static final int SYNTHETIC_SCAN_INTERVAL = 100_000;
+  private static final int SYNTHETIC_SCAN_LENGTH = 20_000;
+
+  /**
+   * The eviction policies being compared.
+   */
+  public enum Policy {
+    SAMPLED_LRU(SampledLruEvictionPolicy.FACTORY),
+    W_TINY_LFU(WindowTinyLfuEvictionPolicy.FACTORY);
+
+    private final HeapEvictionPolicy.Factory factory;
+
+    Policy(HeapEvictionPolicy.Factory factory) {
+      this.factory = factory;
+    }
+  }
+
+  @Param({"SAMPLED_LRU", "W_TINY_LFU"})
+  public Policy policy;
+
+  @Param({""})
+  public String trace;
+
+  @Param({"5000"})
+  public int entries;
+
+  private long[] keys;
+  private OnHeapStore<Long, Long> store;
+  private int position;
+
+  /**
+   * Hits and misses of the current iteration.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Counters {
+    public long hits;
+    public long misses;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      hits = 0;
+      misses = 0;
+    }
+  }
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    keys = trace.isEmpty() ? syntheticTrace(new Random(42)) : readTrace(trace);
+    store = newStore(policy.factory, entries);
+    position = 0;
+  }
+
+  @Benchmark
+  public void replay(Counters counters) throws StoreAccessException {
+    if (access(store, keys[position])) {
+      counters.hits++;
+    } else {
+      counters.misses++;
+    }
+    if (++position == keys.length) {
+      position = 0;
+    }
+  }
+
+  public static void main(String[] args) throws IOException, StoreAccessException {
+    long[] keys = args.length > 0 && !args[0].isEmpty() ? readTrace(args[0]) : syntheticTrace(new Random(42));
+    int entries = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+    System.out.printf("%d accesses, %d heap entries%n", keys.length, entries);
+    for (Policy policy : Policy.values()) {
+      OnHeapStore<Long, Long> store = newStore(policy.factory, entries);
+      long hits = 0;
+      for (long key : keys) {
+        if (access(store, key)) {
+          hits++;
+        }
+      }
+      System.out.printf("%-12s hit ratio %6.2f%%%n", policy, 100.0 * hits / keys.length);
+    }
+  }
+
+  private static boolean access(OnHeapStore<Long, Long> store, long key) throws StoreAccessException {
+    if (store.get(key) == null) {
+      store.put(key, key);
+      return false;
+    } else {
+      return true;
+    }
+  }
+
+  private static OnHeapStore<Long, Long> newStore(HeapEvictionPolicy.Factory policyFactory, int entries) {
+    Store.Configuration<Long, Long> configuration = new StoreConfigurationImpl<>(Long.class, Long.class, null,
+      HeapEvictionPolicyHitRatioBenchmark.class.getClassLoader(), ExpiryPolicyBuilder.noExpiration(),
+      newResourcePoolsBuilder().heap(entries, EntryUnit.ENTRIES).build(), 1, null, null);
+    return new OnHeapStore<>(configuration, SystemTimeSource.INSTANCE, identityCopier(), identityCopier(),
+      new NoopSizeOfEngine(), new DefaultStoreEventDispatcher<>(1), ConcurrentHashMap::new, new DefaultStatisticsService(),
+      policyFactory.create());
+  }
+
+  private static long[] readTrace(String file) throws IOException {
+    try (Stream<String> lines = Files.lines(Paths.get(file))) {
+      return lines.map(String::trim)
+        .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+        .mapToLong(line -> Long.parseLong(line.split("[\\s,]+", 2)[0]))
+        .toArray();
+    }
+  }
+
+  private static long[] syntheticTrace(Random random) {
+    long[] keys = new long[SYNTHETIC_ACCESSES];
+    long scanKey = SYNTHETIC_KEYS;
+    for (int i = 0; i < keys.length; i++) {
+      if (i % SYNTHETIC_SCAN_INTERVAL >= SYNTHETIC_SCAN_INTERVAL - SYNTHETIC_SCAN_LENGTH) {
+        keys[i] = scanKey++;
+      } else {
+        keys[i] = (long) (SYNTHETIC_KEYS * Math.pow(random.nextDouble(), 4));
+      }
+    }
+    return keys;
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ehcache.impl.internal.store.heap;
+
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.units.EntryUnit;
+import org.ehcache.core.internal.statistics.DefaultStatisticsService;
+import org.ehcache.core.spi.store.Store;
+import org.ehcache.core.spi.time.CachedTimeSource;
+import org.ehcache.core.spi.time.SystemTimeSource;
+import org.ehcache.core.spi.time.TimeSource;
+import org.ehcache.core.store.StoreConfigurationImpl;
+import org.ehcache.impl.internal.sizeof.NoopSizeOfEngine;
+import org.ehcache.spi.resilience.StoreAccessException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.ehcache.config.builders.ResourcePoolsBuilder.newResourcePoolsBuilder;
+import static org.ehcache.core.events.NullStoreEventDispatcher.nullStoreEventDispatcher;
+import static org.ehcache.impl.copy.IdentityCopier.identityCopier;
+
+/**
+ * Measures what the clock costs on the {@link OnHeapStore#get(Object)} hot path.
+ * <p>
+ * The {@code timeSource} parameter toggles between the {@link SystemTimeSource} and a 1ms {@link CachedTimeSource}, on a
+ * time-to-idle store where every hit checks its expiry and writes its access metadata back. The {@code clock} benchmark
+ * isolates the cost of a single time read.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OnHeapStoreTimeSourceBenchmark {
+
+  private static final int[] THREAD_COUNTS = {1, 4, 16};
+
+  @Param({"system", "cached"})
+  public String timeSource;
+
+  @Param({"65536"})
+  public int entries;
+
+  private TimeSource source;
+  private OnHeapStore<Long, Long> store;
+
+  @Setup(Level.Trial)
+  public void setUp() throws StoreAccessException {
+    if ("cached".equals(timeSource)) {
+      CachedTimeSource cachedTimeSource = new CachedTimeSource(1L);
+      cachedTimeSource.start(null);
+      source = cachedTimeSource;
+    } else {
+      source = SystemTimeSource.INSTANCE;
+    }
+    Store.Configuration<Long, Long> configuration = new StoreConfigurationImpl<>(Long.class, Long.class, null,
+      getClass().getClassLoader(), ExpiryPolicyBuilder.timeToIdleExpiration(Duration.ofHours(1)),
+      newResourcePoolsBuilder().heap(entries, EntryUnit.ENTRIES).build(), 1, null, null);
+    store = new OnHeapStore<>(configuration, source, identityCopier(), identityCopier(), new NoopSizeOfEngine(),
+      nullStoreEventDispatcher(), new DefaultStatisticsService());
+    for (long i = 0; i < entries; i++) {
+      store.put(i, i);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    if (source instanceof CachedTimeSource) {
+      ((CachedTimeSource) source).stop();
+    }
+  }
+
+  @Benchmark
+  public long clock() {
+    return source.getTimeMillis();
+  }
+
+  @Benchmark
+  public Store.ValueHolder<Long> get() throws StoreAccessException {
+    return store.get(ThreadLocalRandom.current().nextLong(entries));
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    for (int threads : THREAD_COUNTS) {
+      Options options = new OptionsBuilder()
+        .include(OnHeapStoreTimeSourceBenchmark.class.getSimpleName())
+        .threads(threads)
+        .build();
+      new Runner(options).run();
+    }
+  }
+}
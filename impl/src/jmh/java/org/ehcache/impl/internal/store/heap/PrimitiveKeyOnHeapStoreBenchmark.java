@@ -0,0 +1,121 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ehcache.impl.internal.store.heap;
+
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.units.EntryUnit;
+import org.ehcache.core.internal.statistics.DefaultStatisticsService;
+import org.ehcache.core.spi.store.Store;
+import org.ehcache.core.spi.time.SystemTimeSource;
+import org.ehcache.core.store.StoreConfigurationImpl;
+import org.ehcache.impl.internal.sizeof.NoopSizeOfEngine;
+import org.ehcache.spi.resilience.StoreAccessException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.ehcache.config.builders.ResourcePoolsBuilder.newResourcePoolsBuilder;
+import static org.ehcache.core.events.NullStoreEventDispatcher.nullStoreEventDispatcher;
+import static org.ehcache.impl.copy.IdentityCopier.identityCopier;
+
+/**
+ * Compares an {@link OnHeapStore} with a {@link PrimitiveKeyOnHeapStore} holding the same {@code Long} keyed mappings.
+ * <p>
+ * Run through {@link #main(String[])}, the GC profiler reports the bytes allocated per operation next to the
+ * throughput. Inserts of keys out of the mapped range measure the cost of inserting and evicting a mapping.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrimitiveKeyOnHeapStoreBenchmark {
+
+  private static final int[] THREAD_COUNTS = {1, 4, 16};
+
+  @Param({"onheap", "primitive"})
+  public String store;
+
+  @Param({"65536"})
+  public int entries;
+
+  private Store<Long, Long> heapStore;
+
+  @Setup(Level.Trial)
+  public void setUp() throws StoreAccessException {
+    Store.Configuration<Long, Long> configuration = new StoreConfigurationImpl<>(Long.class, Long.class, null,
+      getClass().getClassLoader(), ExpiryPolicyBuilder.noExpiration(),
+      newResourcePoolsBuilder().heap(entries, EntryUnit.ENTRIES).build(), 1, null, null);
+    if ("primitive".equals(store)) {
+      heapStore = new PrimitiveKeyOnHeapStore<>(configuration, SystemTimeSource.INSTANCE, nullStoreEventDispatcher(),
+        new DefaultStatisticsService());
+    } else {
+      heapStore = new OnHeapStore<>(configuration, SystemTimeSource.INSTANCE, identityCopier(), identityCopier(),
+        new NoopSizeOfEngine(), nullStoreEventDispatcher(), new DefaultStatisticsService());
+    }
+    for (long i = 0; i < entries; i++) {
+      heapStore.put(i, i);
+    }
+  }
+
+  @Benchmark
+  public Store.ValueHolder<Long> get() throws StoreAccessException {
+    return heapStore.get(ThreadLocalRandom.current().nextLong(entries));
+  }
+
+  @Benchmark
+  public Store.PutStatus update() throws StoreAccessException {
+    long key = ThreadLocalRandom.current().nextLong(entries);
+    return heapStore.put(key, key);
+  }
+
+  @Benchmark
+  public Store.PutStatus insert() throws StoreAccessException {
+    long key = ThreadLocalRandom.current().nextLong(entries, Long.MAX_VALUE);
+    return heapStore.put(key, key);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    for (int threads : THREAD_COUNTS) {
+      Options options = new OptionsBuilder()
+        .include(PrimitiveKeyOnHeapStoreBenchmark.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .threads(threads)
+        .build();
+      new Runner(options).run();
+    }
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ehcache.impl.internal.store.offheap;
+
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.core.internal.statistics.DefaultStatisticsService;
+import org.ehcache.core.spi.store.Store;
+import org.ehcache.core.spi.time.SystemTimeSource;
+import org.ehcache.core.store.StoreConfigurationImpl;
+import org.ehcache.expiry.ExpiryPolicy;
+import org.ehcache.impl.serialization.LongSerializer;
+import org.ehcache.impl.serialization.StringSerializer;
+import org.ehcache.spi.resilience.StoreAccessException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.ehcache.core.events.NullStoreEventDispatcher.nullStoreEventDispatcher;
+
+/**
+ * Measures the hit throughput of {@link OffHeapStore#get(Object)}.
+ * <p>
+ * Run through {@link #main(String[])} to get the throughput for 1 to 32 reading threads, the {@code expiry} parameter
+ * toggling between an eternal cache and a time-to-idle one where every hit writes its access metadata back.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OffHeapStoreGetBenchmark {
+
+  private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32};
+
+  @Param({"1024", "65536"})
+  public int entries;
+
+  @Param({"eternal", "tti"})
+  public String expiry;
+
+  private OffHeapStore<Long, String> store;
+
+  @Setup(Level.Trial)
+  public void setUp() throws StoreAccessException {
+    ExpiryPolicy<Object, Object> expiryPolicy = "tti".equals(expiry) ?
+      ExpiryPolicyBuilder.timeToIdleExpiration(Duration.ofHours(1)) : ExpiryPolicyBuilder.noExpiration();
+    ClassLoader classLoader = getClass().getClassLoader();
+    Store.Configuration<Long, String> configuration = new StoreConfigurationImpl<>(Long.class, String.class, null,
+      classLoader, expiryPolicy, null, 0, new LongSerializer(classLoader), new StringSerializer(classLoader));
+    store = new OffHeapStore<>(configuration, SystemTimeSource.INSTANCE, nullStoreEventDispatcher(),
+      MemoryUnit.MB.toBytes(64), new DefaultStatisticsService());
+    OffHeapStore.Provider.init(store);
+    for (long i = 0; i < entries; i++) {
+      store.put(i, "value-" + i);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    OffHeapStore.Provider.close(store);
+  }
+
+  @Benchmark
+  public Store.ValueHolder<String> get() throws StoreAccessException {
+    return store.get(ThreadLocalRandom.current().nextLong(entries));
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    for (int threads : THREAD_COUNTS) {
+      Options options = new OptionsBuilder()
+        .include(OffHeapStoreGetBenchmark.class.getSimpleName())
+        .threads(threads)
+        .build();
+      new Runner(options).run();
+    }
+  }
+}
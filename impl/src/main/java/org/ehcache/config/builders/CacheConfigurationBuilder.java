@@ -27,26 +27,36 @@ import org.ehcache.core.config.store.StoreEventSourceConfiguration;
 import org.ehcache.core.spi.store.heap.SizeOfEngine;
 import org.ehcache.expiry.ExpiryPolicy;
 import org.ehcache.impl.config.copy.DefaultCopierConfiguration;
+import org.ehcache.impl.config.event.CacheEventBatchingConfiguration;
 import org.ehcache.impl.config.event.DefaultCacheEventDispatcherConfiguration;
 import org.ehcache.impl.config.event.DefaultCacheEventListenerConfiguration;
 import org.ehcache.impl.config.event.DefaultEventSourceConfiguration;
+import org.ehcache.impl.config.event.OrderedEventQueueConfiguration;
 import org.ehcache.impl.config.loaderwriter.DefaultCacheLoaderWriterConfiguration;
 import org.ehcache.impl.config.resilience.DefaultResilienceStrategyConfiguration;
 import org.ehcache.impl.config.serializer.DefaultSerializerConfiguration;
 import org.ehcache.impl.config.store.disk.OffHeapDiskStoreConfiguration;
 import org.ehcache.impl.copy.SerializingCopier;
 import org.ehcache.impl.config.store.heap.DefaultSizeOfEngineConfiguration;
+import org.ehcache.impl.config.store.CachingTierWritePolicyConfiguration;
+import org.ehcache.impl.config.store.CostAwareEvictionConfiguration;
+import org.ehcache.impl.config.store.ExpiryReaperConfiguration;
+import org.ehcache.impl.config.store.heap.HeapEvictionPolicyConfiguration;
+import org.ehcache.impl.config.store.heap.PrimitiveKeyHeapStoreConfiguration;
+import org.ehcache.impl.internal.store.heap.HeapEvictionPolicy;
 import org.ehcache.spi.copy.Copier;
 import org.ehcache.spi.loaderwriter.CacheLoaderWriter;
 import org.ehcache.spi.resilience.ResilienceStrategy;
 import org.ehcache.spi.serialization.Serializer;
 import org.ehcache.spi.service.ServiceConfiguration;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.function.UnaryOperator;
@@ -480,6 +490,181 @@ public class CacheConfigurationBuilder<K, V> implements FluentCacheConfiguration
     return withoutServices(DefaultEventSourceConfiguration.class);
   }
 
+  /**
+   * Adds {@link OrderedEventQueueConfiguration} with the specified capacity and backpressure policy for the queues
+   * keeping ordered events in sequence.
+   *
+   * @param queueCapacity the capacity of each ordered event queue
+   * @param backpressure what a write does when its ordered event queue is full
+   * @return a new builder with the added configuration
+   *
+   * @see #withDefaultOrderedEventQueue()
+   */
+  public CacheConfigurationBuilder<K, V> withOrderedEventQueue(int queueCapacity, OrderedEventQueueConfiguration.Backpressure backpressure) {
+    return withService(new OrderedEventQueueConfiguration(queueCapacity, backpressure));
+  }
+
+  /**
+   * Restores the default ordered event queue settings.
+   *
+   * @return a new builder with the default ordered event queue settings
+   *
+   * @see #withOrderedEventQueue(int, OrderedEventQueueConfiguration.Backpressure)
+   */
+  public CacheConfigurationBuilder<K, V> withDefaultOrderedEventQueue() {
+    return withoutServices(OrderedEventQueueConfiguration.class);
+  }
+
+  /**
+   * Adds {@link HeapEvictionPolicyConfiguration} selecting the eviction policy of the heap tier.
+   *
+   * @param policyFactory the factory creating the heap tier eviction policy
+   * @return a new builder with the added configuration
+   *
+   * @see HeapEvictionPolicyConfiguration#windowTinyLfu()
+   * @see #withDefaultHeapEvictionPolicy()
+   */
+  public CacheConfigurationBuilder<K, V> withHeapEvictionPolicy(HeapEvictionPolicy.Factory policyFactory) {
+    return withService(new HeapEvictionPolicyConfiguration(policyFactory));
+  }
+
+  /**
+   * Restores the default, sampled LRU, heap tier eviction policy.
+   *
+   * @return a new builder with the default heap tier eviction policy
+   *
+   * @see #withHeapEvictionPolicy(HeapEvictionPolicy.Factory)
+   */
+  public CacheConfigurationBuilder<K, V> withDefaultHeapEvictionPolicy() {
+    return withoutServices(HeapEvictionPolicyConfiguration.class);
+  }
+
+  /**
+   * Adds {@link CostAwareEvictionConfiguration} making the heap and offheap tiers weigh the time each value took to
+   * load when choosing what to evict.
+   *
+   * @return a new builder with the added configuration
+   *
+   * @see #withoutCostAwareEviction()
+   */
+  public CacheConfigurationBuilder<K, V> withCostAwareEviction() {
+    return withService(new CostAwareEvictionConfiguration());
+  }
+
+  /**
+   * Restores the default, recency only, eviction of the heap and offheap tiers.
+   *
+   * @return a new builder without cost-aware eviction
+   *
+   * @see #withCostAwareEviction()
+   */
+  public CacheConfigurationBuilder<K, V> withoutCostAwareEviction() {
+    return withoutServices(CostAwareEvictionConfiguration.class);
+  }
+
+  /**
+   * Adds {@link PrimitiveKeyHeapStoreConfiguration} making the heap tier of a {@code Long} or {@code Integer} keyed cache
+   * hold its keys as primitives.
+   *
+   * @return a new builder with the added configuration
+   *
+   * @see #withoutPrimitiveKeyHeapStore()
+   */
+  public CacheConfigurationBuilder<K, V> withPrimitiveKeyHeapStore() {
+    return withService(new PrimitiveKeyHeapStoreConfiguration());
+  }
+
+  /**
+   * Restores the default heap tier, holding a key object per mapping.
+   *
+   * @return a new builder without the primitive keyed heap tier
+   *
+   * @see #withPrimitiveKeyHeapStore()
+   */
+  public CacheConfigurationBuilder<K, V> withoutPrimitiveKeyHeapStore() {
+    return withoutServices(PrimitiveKeyHeapStoreConfiguration.class);
+  }
+
+  /**
+   * Adds {@link CachingTierWritePolicyConfiguration} selecting how a tiered cache keeps its caching tier coherent on
+   * writes.
+   *
+   * @param writePolicy the caching tier write policy
+   * @return a new builder with the added configuration
+   *
+   * @see #withDefaultCachingTierWritePolicy()
+   */
+  public CacheConfigurationBuilder<K, V> withCachingTierWritePolicy(CachingTierWritePolicyConfiguration.WritePolicy writePolicy) {
+    return withService(new CachingTierWritePolicyConfiguration(writePolicy));
+  }
+
+  /**
+   * Restores the default, write-invalidate, caching tier write policy.
+   *
+   * @return a new builder with the default caching tier write policy
+   *
+   * @see #withCachingTierWritePolicy(CachingTierWritePolicyConfiguration.WritePolicy)
+   */
+  public CacheConfigurationBuilder<K, V> withDefaultCachingTierWritePolicy() {
+    return withoutServices(CachingTierWritePolicyConfiguration.class);
+  }
+
+  /**
+   * Adds {@link ExpiryReaperConfiguration} making the heap, offheap and disk tiers proactively remove their expired
+   * mappings, using the default tick interval and reaps per tick on the default thread pool.
+   *
+   * @return a new builder with the added configuration
+   *
+   * @see #withExpiryReaper(Duration, int, String)
+   * @see #withoutExpiryReaper()
+   */
+  public CacheConfigurationBuilder<K, V> withExpiryReaper() {
+    return withService(new ExpiryReaperConfiguration());
+  }
+
+  /**
+   * Adds {@link ExpiryReaperConfiguration} making the heap, offheap and disk tiers proactively remove their expired
+   * mappings.
+   *
+   * @param tickInterval the interval between two reaper runs
+   * @param maxReapsPerTick the maximum number of mappings examined by a single reaper run
+   * @param threadPoolAlias the thread pool the reaper runs on, {@code null} for the default pool
+   * @return a new builder with the added configuration
+   *
+   * @see #withExpiryReaper(Duration, int, int, String)
+   * @see #withoutExpiryReaper()
+   */
+  public CacheConfigurationBuilder<K, V> withExpiryReaper(Duration tickInterval, int maxReapsPerTick, String threadPoolAlias) {
+    return withService(new ExpiryReaperConfiguration(tickInterval, maxReapsPerTick, threadPoolAlias));
+  }
+
+  /**
+   * Adds {@link ExpiryReaperConfiguration} making the heap, offheap and disk tiers proactively remove their expired
+   * mappings, tracking a bounded number of keys.
+   *
+   * @param tickInterval the interval between two reaper runs
+   * @param maxReapsPerTick the maximum number of mappings examined by a single reaper run
+   * @param maxScheduledKeys the maximum number of keys tracked for reaping, others are left to lazy expiry
+   * @param threadPoolAlias the thread pool the reaper runs on, {@code null} for the default pool
+   * @return a new builder with the added configuration
+   *
+   * @see #withoutExpiryReaper()
+   */
+  public CacheConfigurationBuilder<K, V> withExpiryReaper(Duration tickInterval, int maxReapsPerTick, int maxScheduledKeys, String threadPoolAlias) {
+    return withService(new ExpiryReaperConfiguration(tickInterval, maxReapsPerTick, maxScheduledKeys, threadPoolAlias));
+  }
+
+  /**
+   * Restores the default, lazy only, removal of expired mappings.
+   *
+   * @return a new builder without the expiry reaper
+   *
+   * @see #withExpiryReaper()
+   */
+  public CacheConfigurationBuilder<K, V> withoutExpiryReaper() {
+    return withoutServices(ExpiryReaperConfiguration.class);
+  }
+
   /**
    * Adds a {@link ServiceConfiguration} for the {@link org.ehcache.core.events.CacheEventDispatcherFactory} specifying
    * the thread pool alias to use.
@@ -504,6 +689,32 @@ public class CacheConfigurationBuilder<K, V> implements FluentCacheConfiguration
     return withoutServices(DefaultCacheEventDispatcherConfiguration.class);
   }
 
+  /**
+   * Adds a {@link ServiceConfiguration} for the {@link org.ehcache.core.events.CacheEventDispatcherFactory} specifying
+   * how events are batched for asynchronous {@link org.ehcache.event.BatchCacheEventListener}s.
+   *
+   * @param batchSize the maximum number of events in a batch
+   * @param maxDelay the maximum time an event waits for its batch to fill up
+   * @param maxDelayUnit the unit of {@code maxDelay}
+   * @return a new builder with the added configuration
+   *
+   * @see #withDefaultEventBatching()
+   */
+  public CacheConfigurationBuilder<K, V> withEventBatching(int batchSize, long maxDelay, TimeUnit maxDelayUnit) {
+    return withService(new CacheEventBatchingConfiguration(batchSize, maxDelay, maxDelayUnit));
+  }
+
+  /**
+   * Restores the default event batching settings.
+   *
+   * @return a new builder with the default event batching settings
+   *
+   * @see #withEventBatching(int, long, TimeUnit)
+   */
+  public CacheConfigurationBuilder<K, V> withDefaultEventBatching() {
+    return withoutServices(CacheEventBatchingConfiguration.class);
+  }
+
   /**
    * Adds a {@link ServiceConfiguration} for the {@link org.ehcache.impl.internal.store.disk.OffHeapDiskStore.Provider}
    * indicating thread pool alias and write concurrency.
@@ -27,6 +27,7 @@ import org.ehcache.core.EhcacheManager;
 import org.ehcache.core.spi.store.heap.SizeOfEngine;
 import org.ehcache.impl.config.copy.DefaultCopyProviderConfiguration;
 import org.ehcache.impl.config.event.CacheEventDispatcherFactoryConfiguration;
+import org.ehcache.impl.config.executor.AsyncCacheExecutorProviderConfiguration;
 import org.ehcache.impl.config.loaderwriter.writebehind.WriteBehindProviderConfiguration;
 import org.ehcache.impl.config.persistence.CacheManagerPersistenceConfiguration;
 import org.ehcache.impl.config.serializer.DefaultSerializationProviderConfiguration;
@@ -295,6 +296,19 @@ public class CacheManagerBuilder<T extends CacheManager> implements Builder<T> {
     return using(new CacheEventDispatcherFactoryConfiguration(threadPoolAlias));
   }
 
+  /**
+   * Adds a {@link AsyncCacheExecutorProviderConfiguration}, that specifies the thread pool running the operations of
+   * {@link org.ehcache.AsyncCache} views, to the returned builder.
+   *
+   * @param threadPoolAlias the thread pool alias
+   * @return a new builder with the added configuration
+   *
+   * @see PooledExecutionServiceConfigurationBuilder
+   */
+  public CacheManagerBuilder<T> withDefaultAsyncCacheThreadPool(String threadPoolAlias) {
+    return using(new AsyncCacheExecutorProviderConfiguration(threadPoolAlias));
+  }
+
   /**
    * Adds a {@link ServiceCreationConfiguration} to the returned builder.
    * <p>
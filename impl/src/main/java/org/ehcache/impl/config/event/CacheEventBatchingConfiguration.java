@@ -0,0 +1,109 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ehcache.impl.config.event;
+
+import org.ehcache.core.events.CacheEventDispatcherFactory;
+import org.ehcache.spi.service.ServiceConfiguration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ServiceConfiguration} for the default {@link CacheEventDispatcherFactory} implementation.
+ * <p>
+ * Enables configuring how events are batched for asynchronous {@link org.ehcache.event.BatchCacheEventListener}s of
+ * a given cache.
+ */
+public class CacheEventBatchingConfiguration implements ServiceConfiguration<CacheEventDispatcherFactory, CacheEventBatchingConfiguration> {
+
+  public static final int DEFAULT_BATCH_SIZE = 256;
+  public static final long DEFAULT_MAX_DELAY = 0L;
+
+  private final int batchSize;
+  private final long maxDelay;
+  private final TimeUnit maxDelayUnit;
+
+  /**
+   * Creates a new configuration with the provided batching parameters.
+   * <p>
+   * A batch is delivered as soon as it reaches {@code batchSize} events, or once the oldest event it contains has
+   * been waiting for {@code maxDelay}. A {@code maxDelay} of zero delivers whatever accumulated while the previous
+   * batch was being processed.
+   *
+   * @param batchSize the maximum number of events in a batch
+   * @param maxDelay the maximum time an event waits for its batch to fill up
+   * @param maxDelayUnit the unit of {@code maxDelay}
+   */
+  public CacheEventBatchingConfiguration(int batchSize, long maxDelay, TimeUnit maxDelayUnit) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("Batch size must be at least 1: " + batchSize);
+    }
+    if (maxDelay < 0) {
+      throw new IllegalArgumentException("Max delay cannot be negative: " + maxDelay);
+    }
+    if (maxDelayUnit == null) {
+      throw new NullPointerException("Max delay unit cannot be null");
+    }
+    this.batchSize = batchSize;
+    this.maxDelay = maxDelay;
+    this.maxDelayUnit = maxDelayUnit;
+  }
+
+  /**
+   * Returns the maximum number of events in a batch.
+   *
+   * @return the batch size
+   */
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * Returns the maximum time an event waits for its batch to fill up.
+   *
+   * @return the max delay
+   */
+  public long getMaxDelay() {
+    return maxDelay;
+  }
+
+  /**
+   * Returns the unit of the max delay.
+   *
+   * @return the max delay unit
+   */
+  public TimeUnit getMaxDelayUnit() {
+    return maxDelayUnit;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Class<CacheEventDispatcherFactory> getServiceType() {
+    return CacheEventDispatcherFactory.class;
+  }
+
+  @Override
+  public CacheEventBatchingConfiguration derive() {
+    return new CacheEventBatchingConfiguration(batchSize, maxDelay, maxDelayUnit);
+  }
+
+  @Override
+  public CacheEventBatchingConfiguration build(CacheEventBatchingConfiguration configuration) {
+    return configuration;
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ehcache.impl.config.event;
+
+import org.ehcache.core.spi.store.Store;
+import org.ehcache.spi.service.ServiceConfiguration;
+
+/**
+ * {@link ServiceConfiguration} for a {@link org.ehcache.core.spi.store.Store.Provider} controlling the queues that
+ * keep ordered {@link org.ehcache.core.spi.store.events.StoreEvent}s in sequence.
+ * <p>
+ * Each of the {@link DefaultEventSourceConfiguration#getDispatcherConcurrency() dispatcher concurrency} queues is
+ * allocated upfront with the configured capacity, rounded up to the next power of two.
+ */
+public class OrderedEventQueueConfiguration implements ServiceConfiguration<Store.Provider, OrderedEventQueueConfiguration> {
+
+  public static final int DEFAULT_QUEUE_CAPACITY = 10000;
+
+  /**
+   * What a write does when the ordered event queue it needs to use is full.
+   */
+  public enum Backpressure {
+    /**
+     * Wait for the queue to have room.
+     */
+    BLOCK,
+    /**
+     * Discard the oldest event in the queue, listeners never see it.
+     */
+    DROP_OLDEST,
+    /**
+     * Fail the write with an {@link IllegalStateException}.
+     */
+    FAIL_FAST
+  }
+
+  private final int queueCapacity;
+  private final Backpressure backpressure;
+
+  /**
+   * Creates a new configuration with the provided queue capacity and backpressure policy.
+   *
+   * @param queueCapacity the capacity of each ordered event queue
+   * @param backpressure what to do when a queue is full
+   */
+  public OrderedEventQueueConfiguration(int queueCapacity, Backpressure backpressure) {
+    if (queueCapacity <= 0) {
+      throw new IllegalArgumentException("Queue capacity must be a value bigger than 0");
+    }
+    if (backpressure == null) {
+      throw new NullPointerException("Backpressure policy cannot be null");
+    }
+    this.queueCapacity = queueCapacity;
+    this.backpressure = backpressure;
+  }
+
+  /**
+   * Returns the capacity of each ordered event queue.
+   *
+   * @return the queue capacity
+   */
+  public int getQueueCapacity() {
+    return queueCapacity;
+  }
+
+  /**
+   * Returns what a write does when its ordered event queue is full.
+   *
+   * @return the backpressure policy
+   */
+  public Backpressure getBackpressure() {
+    return backpressure;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Class<Store.Provider> getServiceType() {
+    return Store.Provider.class;
+  }
+
+  @Override
+  public OrderedEventQueueConfiguration derive() {
+    return new OrderedEventQueueConfiguration(queueCapacity, backpressure);
+  }
+
+  @Override
+  public OrderedEventQueueConfiguration build(OrderedEventQueueConfiguration configuration) {
+    return configuration;
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ehcache.impl.config.executor;
+
+import org.ehcache.core.spi.service.AsyncCacheExecutorProvider;
+import org.ehcache.spi.service.ServiceCreationConfiguration;
+
+/**
+ * {@link ServiceCreationConfiguration} for the default {@link AsyncCacheExecutorProvider}.
+ * <p>
+ * Specifies the thread pool running the operations of {@link org.ehcache.AsyncCache} views.
+ */
+public class AsyncCacheExecutorProviderConfiguration implements ServiceCreationConfiguration<AsyncCacheExecutorProvider, String> {
+
+  private final String threadPoolAlias;
+
+  /**
+   * Creates a new configuration with the provided thread pool alias.
+   *
+   * @param threadPoolAlias the thread pool alias
+   */
+  public AsyncCacheExecutorProviderConfiguration(String threadPoolAlias) {
+    this.threadPoolAlias = threadPoolAlias;
+  }
+
+  /**
+   * Returns the alias of the thread pool running asynchronous cache operations.
+   *
+   * @return the thread pool alias
+   */
+  public String getThreadPoolAlias() {
+    return threadPoolAlias;
+  }
+
+  @Override
+  public Class<AsyncCacheExecutorProvider> getServiceType() {
+    return AsyncCacheExecutorProvider.class;
+  }
+
+  @Override
+  public String derive() {
+    return getThreadPoolAlias();
+  }
+
+  @Override
+  public AsyncCacheExecutorProviderConfiguration build(String alias) {
+    return new AsyncCacheExecutorProviderConfiguration(alias);
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ehcache.impl.config.store;
+
+import org.ehcache.core.spi.store.Store;
+import org.ehcache.spi.service.ServiceConfiguration;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * {@link ServiceConfiguration} for a {@link org.ehcache.core.spi.store.Store.Provider} selecting how a tiered store
+ * keeps its caching tier coherent on writes.
+ * <p>
+ * Without this configuration written keys are invalidated from the caching tier.
+ */
+public class CachingTierWritePolicyConfiguration implements ServiceConfiguration<Store.Provider, CachingTierWritePolicyConfiguration> {
+
+  /**
+   * The policies a tiered store can apply to its caching tier on writes.
+   */
+  public enum WritePolicy {
+    /**
+     * Written keys are invalidated from the caching tier, the next read faults them from the authority.
+     */
+    WRITE_INVALIDATE,
+    /**
+     * Written values are installed in the caching tier, so that the next read does not go back to the authority.
+     */
+    WRITE_UPDATE
+  }
+
+  private final WritePolicy writePolicy;
+
+  /**
+   * Creates a new configuration with the provided write policy.
+   *
+   * @param writePolicy the caching tier write policy
+   */
+  public CachingTierWritePolicyConfiguration(WritePolicy writePolicy) {
+    this.writePolicy = requireNonNull(writePolicy, "Write policy cannot be null");
+  }
+
+  /**
+   * Returns the caching tier write policy.
+   *
+   * @return the write policy
+   */
+  public WritePolicy getWritePolicy() {
+    return writePolicy;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Class<Store.Provider> getServiceType() {
+    return Store.Provider.class;
+  }
+
+  @Override
+  public CachingTierWritePolicyConfiguration derive() {
+    return new CachingTierWritePolicyConfiguration(writePolicy);
+  }
+
+  @Override
+  public CachingTierWritePolicyConfiguration build(CachingTierWritePolicyConfiguration configuration) {
+    return configuration;
+  }
+}
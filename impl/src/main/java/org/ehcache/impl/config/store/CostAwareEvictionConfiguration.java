@@ -0,0 +1,49 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ehcache.impl.config.store;
+
+import org.ehcache.core.spi.store.Store;
+import org.ehcache.spi.service.ServiceConfiguration;
+
+/**
+ * {@link ServiceConfiguration} for a {@link org.ehcache.core.spi.store.Store.Provider} enabling cost-aware eviction.
+ * <p>
+ * With this configuration the heap and offheap tiers record how long each value took to load when it was missing and
+ * favor evicting the mappings that are cheapest to load again, in the spirit of GreedyDual. Without it eviction only
+ * considers recency and the configured {@link org.ehcache.config.EvictionAdvisor}.
+ */
+public class CostAwareEvictionConfiguration implements ServiceConfiguration<Store.Provider, CostAwareEvictionConfiguration> {
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Class<Store.Provider> getServiceType() {
+    return Store.Provider.class;
+  }
+
+  @Override
+  public CostAwareEvictionConfiguration derive() {
+    return new CostAwareEvictionConfiguration();
+  }
+
+  @Override
+  public CostAwareEvictionConfiguration build(CostAwareEvictionConfiguration configuration) {
+    return configuration;
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ehcache.impl.config.store;
+
+import org.ehcache.core.spi.store.Store;
+import org.ehcache.spi.service.ServiceConfiguration;
+
+import java.time.Duration;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * {@link ServiceConfiguration} for a {@link org.ehcache.core.spi.store.Store.Provider} enabling the proactive removal
+ * of expired mappings from the heap, offheap and disk tiers.
+ * <p>
+ * Without this configuration expired mappings are only removed when accessed or evicted. With it a background task
+ * running every tick interval removes up to a bounded number of mappings whose expiration time has passed. The number
+ * of keys tracked by that task is bounded too, mappings beyond it are left to lazy expiry.
+ */
+public class ExpiryReaperConfiguration implements ServiceConfiguration<Store.Provider, ExpiryReaperConfiguration> {
+
+  /**
+   * Default interval between two reaper runs.
+   */
+  public static final Duration DEFAULT_TICK_INTERVAL = Duration.ofSeconds(1);
+
+  /**
+   * Default maximum number of mappings examined by a single reaper run.
+   */
+  public static final int DEFAULT_MAX_REAPS_PER_TICK = 10_000;
+
+  /**
+   * Default maximum number of keys tracked for reaping.
+   */
+  public static final int DEFAULT_MAX_SCHEDULED_KEYS = 100_000;
+
+  private final Duration tickInterval;
+  private final int maxReapsPerTick;
+  private final int maxScheduledKeys;
+  private final String threadPoolAlias;
+
+  /**
+   * Creates a new configuration with the default tick interval and reaps per tick, running on the default thread pool.
+   */
+  public ExpiryReaperConfiguration() {
+    this(DEFAULT_TICK_INTERVAL, DEFAULT_MAX_REAPS_PER_TICK, null);
+  }
+
+  /**
+   * Creates a new configuration with the provided settings, tracking at most {@link #DEFAULT_MAX_SCHEDULED_KEYS} keys.
+   *
+   * @param tickInterval the interval between two reaper runs, also the granularity at which expiration times are tracked
+   * @param maxReapsPerTick the maximum number of mappings examined by a single reaper run
+   * @param threadPoolAlias the thread pool the reaper runs on, {@code null} for the default pool
+   */
+  public ExpiryReaperConfiguration(Duration tickInterval, int maxReapsPerTick, String threadPoolAlias) {
+    this(tickInterval, maxReapsPerTick, DEFAULT_MAX_SCHEDULED_KEYS, threadPoolAlias);
+  }
+
+  /**
+   * Creates a new configuration with the provided settings.
+   *
+   * @param tickInterval the interval between two reaper runs, also the granularity at which expiration times are tracked
+   * @param maxReapsPerTick the maximum number of mappings examined by a single reaper run
+   * @param maxScheduledKeys the maximum number of keys tracked for reaping
+   * @param threadPoolAlias the thread pool the reaper runs on, {@code null} for the default pool
+   */
+  public ExpiryReaperConfiguration(Duration tickInterval, int maxReapsPerTick, int maxScheduledKeys, String threadPoolAlias) {
+    requireNonNull(tickInterval, "Tick interval cannot be null");
+    if (tickInterval.isNegative() || tickInterval.toMillis() == 0) {
+      throw new IllegalArgumentException("Tick interval must be at least one millisecond: " + tickInterval);
+    }
+    if (maxReapsPerTick <= 0) {
+      throw new IllegalArgumentException("Max reaps per tick must be positive: " + maxReapsPerTick);
+    }
+    if (maxScheduledKeys <= 0) {
+      throw new IllegalArgumentException("Max scheduled keys must be positive: " + maxScheduledKeys);
+    }
+    this.tickInterval = tickInterval;
+    this.maxReapsPerTick = maxReapsPerTick;
+    this.maxScheduledKeys = maxScheduledKeys;
+    this.threadPoolAlias = threadPoolAlias;
+  }
+
+  /**
+   * Returns the interval between two reaper runs.
+   *
+   * @return the tick interval
+   */
+  public Duration getTickInterval() {
+    return tickInterval;
+  }
+
+  /**
+   * Returns the maximum number of mappings examined by a single reaper run.
+   *
+   * @return the max reaps per tick
+   */
+  public int getMaxReapsPerTick() {
+    return maxReapsPerTick;
+  }
+
+  /**
+   * Returns the maximum number of keys tracked for reaping.
+   *
+   * @return the max scheduled keys
+   */
+  public int getMaxScheduledKeys() {
+    return maxScheduledKeys;
+  }
+
+  /**
+   * Returns the alias of the thread pool the reaper runs on.
+   *
+   * @return the thread pool alias, {@code null} for the default pool
+   */
+  public String getThreadPoolAlias() {
+    return threadPoolAlias;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Class<Store.Provider> getServiceType() {
+    return Store.Provider.class;
+  }
+
+  @Override
+  public ExpiryReaperConfiguration derive() {
+    return new ExpiryReaperConfiguration(tickInterval, maxReapsPerTick, maxScheduledKeys, threadPoolAlias);
+  }
+
+  @Override
+  public ExpiryReaperConfiguration build(ExpiryReaperConfiguration configuration) {
+    return configuration;
+  }
+}
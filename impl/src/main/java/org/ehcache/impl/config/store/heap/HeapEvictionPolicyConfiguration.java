@@ -0,0 +1,100 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ehcache.impl.config.store.heap;
+
+import org.ehcache.core.spi.store.Store;
+import org.ehcache.impl.internal.store.heap.HeapEvictionPolicy;
+import org.ehcache.impl.internal.store.heap.SampledLruEvictionPolicy;
+import org.ehcache.impl.internal.store.heap.WindowTinyLfuEvictionPolicy;
+import org.ehcache.spi.service.ServiceConfiguration;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * {@link ServiceConfiguration} for a {@link org.ehcache.core.spi.store.Store.Provider} selecting the
+ * {@link HeapEvictionPolicy} used by the heap tier.
+ * <p>
+ * Without this configuration the heap tier evicts the sampled least recently used mapping.
+ */
+public class HeapEvictionPolicyConfiguration implements ServiceConfiguration<Store.Provider, HeapEvictionPolicyConfiguration> {
+
+  private final HeapEvictionPolicy.Factory policyFactory;
+
+  /**
+   * Creates a new configuration with the provided policy factory.
+   *
+   * @param policyFactory the factory creating the eviction policy of each heap tier
+   */
+  public HeapEvictionPolicyConfiguration(HeapEvictionPolicy.Factory policyFactory) {
+    this.policyFactory = requireNonNull(policyFactory, "Eviction policy factory cannot be null");
+  }
+
+  /**
+   * Creates a configuration selecting the sampled LRU eviction policy.
+   *
+   * @return a sampled LRU configuration
+   */
+  public static HeapEvictionPolicyConfiguration sampledLru() {
+    return new HeapEvictionPolicyConfiguration(SampledLruEvictionPolicy.FACTORY);
+  }
+
+  /**
+   * Creates a configuration selecting the W-TinyLFU eviction policy with the default admission window.
+   *
+   * @return a W-TinyLFU configuration
+   */
+  public static HeapEvictionPolicyConfiguration windowTinyLfu() {
+    return new HeapEvictionPolicyConfiguration(WindowTinyLfuEvictionPolicy.FACTORY);
+  }
+
+  /**
+   * Creates a configuration selecting the W-TinyLFU eviction policy with the given admission window.
+   *
+   * @param windowPercentage the size of the admission window, as a fraction of the number of mappings
+   * @return a W-TinyLFU configuration
+   */
+  public static HeapEvictionPolicyConfiguration windowTinyLfu(float windowPercentage) {
+    return new HeapEvictionPolicyConfiguration(WindowTinyLfuEvictionPolicy.factory(windowPercentage));
+  }
+
+  /**
+   * Returns the factory creating the eviction policy of each heap tier.
+   *
+   * @return the policy factory
+   */
+  public HeapEvictionPolicy.Factory getPolicyFactory() {
+    return policyFactory;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Class<Store.Provider> getServiceType() {
+    return Store.Provider.class;
+  }
+
+  @Override
+  public HeapEvictionPolicyConfiguration derive() {
+    return new HeapEvictionPolicyConfiguration(policyFactory);
+  }
+
+  @Override
+  public HeapEvictionPolicyConfiguration build(HeapEvictionPolicyConfiguration configuration) {
+    return configuration;
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ehcache.impl.config.store.heap;
+
+import org.ehcache.core.spi.store.Store;
+import org.ehcache.spi.service.ServiceConfiguration;
+
+/**
+ * {@link ServiceConfiguration} for a {@link org.ehcache.core.spi.store.Store.Provider} storing the heap tier mappings in
+ * a primitive keyed table.
+ * <p>
+ * With this configuration the heap tier of a cache keyed by {@code Long} or {@code Integer} holds its keys as primitive
+ * longs, along with the mapping metadata, instead of one key box and value holder per mapping. The cache must then
+ * use an entry sized heap tier, by reference values and the default heap eviction policy, and neither cost-aware
+ * eviction nor the expiry reaper. Without this configuration the heap tier is always a regular heap store.
+ */
+public class PrimitiveKeyHeapStoreConfiguration implements ServiceConfiguration<Store.Provider, PrimitiveKeyHeapStoreConfiguration> {
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Class<Store.Provider> getServiceType() {
+    return Store.Provider.class;
+  }
+
+  @Override
+  public PrimitiveKeyHeapStoreConfiguration derive() {
+    return new PrimitiveKeyHeapStoreConfiguration();
+  }
+
+  @Override
+  public PrimitiveKeyHeapStoreConfiguration build(PrimitiveKeyHeapStoreConfiguration configuration) {
+    return configuration;
+  }
+}
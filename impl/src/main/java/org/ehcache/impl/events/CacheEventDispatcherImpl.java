@@ -22,11 +22,13 @@ import org.ehcache.core.CacheConfigurationProperty;
 import org.ehcache.core.events.CacheEventDispatcher;
 import org.ehcache.core.events.CacheEvents;
 import org.ehcache.core.events.EventListenerWrapper;
+import org.ehcache.event.BatchCacheEventListener;
 import org.ehcache.event.CacheEvent;
 import org.ehcache.event.CacheEventListener;
 import org.ehcache.event.EventFiring;
 import org.ehcache.event.EventOrdering;
 import org.ehcache.event.EventType;
+import org.ehcache.impl.config.event.CacheEventBatchingConfiguration;
 import org.ehcache.core.spi.store.events.StoreEvent;
 import org.ehcache.core.spi.store.events.StoreEventListener;
 import org.ehcache.core.spi.store.events.StoreEventSource;
@@ -39,6 +41,8 @@ import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Per-cache component that manages cache event listener registrations, and provides event delivery based on desired
@@ -49,6 +53,9 @@ import java.util.concurrent.Future;
  * <em>Note on event ordering guarantees:</em> Events are received and transmitted to register listeners through the
  * registration of a {@link StoreEventListener} on the linked {@link StoreEventSource} which is responsible for event
  * ordering.
+ * <p>
+ * Asynchronous {@link BatchCacheEventListener}s do not get a dispatch task per event: their events are buffered and
+ * delivered in batches, keeping the ordering of events for a given key.
  */
 public class CacheEventDispatcherImpl<K, V> implements CacheEventDispatcher<K, V> {
 
@@ -59,6 +66,9 @@ public class CacheEventDispatcherImpl<K, V> implements CacheEventDispatcher<K, V
   private int orderedListenerCount = 0;
   private final List<EventListenerWrapper<K, V>> syncListenersList = new CopyOnWriteArrayList<>();
   private final List<EventListenerWrapper<K, V>> aSyncListenersList = new CopyOnWriteArrayList<>();
+  private final List<EventListenerWrapper<K, V>> batchListenersList = new CopyOnWriteArrayList<>();
+  private final EventBatcher<K, V> eventBatcher;
+  private final ScheduledExecutorService batchScheduler;
   private final StoreEventListener<K, V> eventListener = new StoreListener();
 
   private volatile Cache<K, V> listenerSource;
@@ -72,8 +82,26 @@ public class CacheEventDispatcherImpl<K, V> implements CacheEventDispatcher<K, V
    * @param orderedExecutor the executor service used when ordering is required
    */
   public CacheEventDispatcherImpl(ExecutorService unOrderedExecutor, ExecutorService orderedExecutor) {
+    this(unOrderedExecutor, orderedExecutor, null, new CacheEventBatchingConfiguration(
+      CacheEventBatchingConfiguration.DEFAULT_BATCH_SIZE, CacheEventBatchingConfiguration.DEFAULT_MAX_DELAY, TimeUnit.MILLISECONDS));
+  }
+
+  /**
+   * Creates a new {@link CacheEventDispatcher} instance that will use the provided {@link ExecutorService} to handle
+   * events firing and batch events for asynchronous {@link BatchCacheEventListener}s as configured.
+   *
+   * @param unOrderedExecutor the executor service used when ordering is not required
+   * @param orderedExecutor the executor service used when ordering is required
+   * @param batchScheduler the scheduler used to wait for batches to fill up, may be {@code null} if batches are not delayed
+   * @param batchingConfiguration the batching configuration
+   */
+  public CacheEventDispatcherImpl(ExecutorService unOrderedExecutor, ExecutorService orderedExecutor,
+                                  ScheduledExecutorService batchScheduler, CacheEventBatchingConfiguration batchingConfiguration) {
     this.unOrderedExectuor = unOrderedExecutor;
     this.orderedExecutor = orderedExecutor;
+    this.batchScheduler = batchScheduler;
+    this.eventBatcher = new EventBatcher<>(batchListenersList, this::currentExecutor, batchScheduler,
+      batchingConfiguration.getBatchSize(), batchingConfiguration.getMaxDelayUnit().toNanos(batchingConfiguration.getMaxDelay()));
   }
 
   /**
@@ -94,7 +122,7 @@ public class CacheEventDispatcherImpl<K, V> implements CacheEventDispatcher<K, V
    * @param wrapper the listener wrapper to register
    */
   private synchronized void registerCacheEventListener(EventListenerWrapper<K, V> wrapper) {
-    if(aSyncListenersList.contains(wrapper) || syncListenersList.contains(wrapper)) {
+    if(aSyncListenersList.contains(wrapper) || syncListenersList.contains(wrapper) || batchListenersList.contains(wrapper)) {
       throw new IllegalStateException("Cache Event Listener already registered: " + wrapper.getListener());
     }
 
@@ -104,7 +132,11 @@ public class CacheEventDispatcherImpl<K, V> implements CacheEventDispatcher<K, V
 
     switch (wrapper.getFiringMode()) {
       case ASYNCHRONOUS:
-        aSyncListenersList.add(wrapper);
+        if (wrapper.getListener() instanceof BatchCacheEventListener) {
+          batchListenersList.add(wrapper);
+        } else {
+          aSyncListenersList.add(wrapper);
+        }
         break;
       case SYNCHRONOUS:
         if (syncListenersList.isEmpty()) {
@@ -129,8 +161,10 @@ public class CacheEventDispatcherImpl<K, V> implements CacheEventDispatcher<K, V
     EventListenerWrapper<K, V> wrapper = new EventListenerWrapper<>(listener);
 
     if (!removeWrapperFromList(wrapper, aSyncListenersList)) {
-      if (!removeWrapperFromList(wrapper, syncListenersList)) {
-        throw new IllegalStateException("Unknown cache event listener: " + listener);
+      if (!removeWrapperFromList(wrapper, batchListenersList)) {
+        if (!removeWrapperFromList(wrapper, syncListenersList)) {
+          throw new IllegalStateException("Unknown cache event listener: " + listener);
+        }
       }
     }
   }
@@ -169,6 +203,10 @@ public class CacheEventDispatcherImpl<K, V> implements CacheEventDispatcher<K, V
     storeEventSource.setSynchronous(false);
     syncListenersList.clear();
     aSyncListenersList.clear();
+    batchListenersList.clear();
+    if (batchScheduler != null) {
+      batchScheduler.shutdown();
+    }
     unOrderedExectuor.shutdown();
     orderedExecutor.shutdown();
   }
@@ -181,12 +219,18 @@ public class CacheEventDispatcherImpl<K, V> implements CacheEventDispatcher<K, V
     this.listenerSource = source;
   }
 
-  void onEvent(CacheEvent<K, V> event) {
-    ExecutorService executor;
+  private ExecutorService currentExecutor() {
     if (storeEventSource.isEventOrdering()) {
-      executor = orderedExecutor;
+      return orderedExecutor;
     } else {
-      executor = unOrderedExectuor;
+      return unOrderedExectuor;
+    }
+  }
+
+  void onEvent(CacheEvent<K, V> event) {
+    ExecutorService executor = currentExecutor();
+    if (!batchListenersList.isEmpty()) {
+      eventBatcher.onEvent(event);
     }
     if (!aSyncListenersList.isEmpty()) {
       executor.submit(new EventDispatchTask<>(event, aSyncListenersList));
@@ -0,0 +1,168 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ehcache.impl.events;
+
+import org.ehcache.core.events.EventListenerWrapper;
+import org.ehcache.event.BatchCacheEventListener;
+import org.ehcache.event.CacheEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Buffers cache events for asynchronous {@link BatchCacheEventListener}s and delivers them in batches.
+ * <p>
+ * Events are spread over a fixed number of partitions based on their key hash. Each partition has at most one drain
+ * task in flight at any time, so events for a given key are always delivered in the order they were received, whatever
+ * the executor used.
+ */
+class EventBatcher<K, V> {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(EventBatcher.class);
+
+  private static final int PARTITIONS = 16;
+
+  private static final int IDLE = 0;
+  private static final int LINGERING = 1;
+  private static final int DRAINING = 2;
+
+  private final Iterable<EventListenerWrapper<K, V>> listenerWrappers;
+  private final Supplier<Executor> executor;
+  private final ScheduledExecutorService scheduler;
+  private final int batchSize;
+  private final long maxDelayNanos;
+  private final List<Partition> partitions;
+
+  /**
+   * Creates a new batcher.
+   *
+   * @param listenerWrappers the batch listeners to deliver to
+   * @param executor supplies the executor drain tasks are submitted to
+   * @param scheduler the scheduler used to wait for batches to fill up, may be {@code null} if {@code maxDelayNanos} is zero
+   * @param batchSize the maximum number of events in a batch
+   * @param maxDelayNanos the maximum time an event waits for its batch to fill up
+   */
+  EventBatcher(Iterable<EventListenerWrapper<K, V>> listenerWrappers, Supplier<Executor> executor,
+               ScheduledExecutorService scheduler, int batchSize, long maxDelayNanos) {
+    if (maxDelayNanos > 0 && scheduler == null) {
+      throw new NullPointerException("scheduler cannot be null when batches can be delayed");
+    }
+    this.listenerWrappers = listenerWrappers;
+    this.executor = executor;
+    this.scheduler = scheduler;
+    this.batchSize = batchSize;
+    this.maxDelayNanos = maxDelayNanos;
+    this.partitions = new ArrayList<>(PARTITIONS);
+    for (int i = 0; i < PARTITIONS; i++) {
+      partitions.add(new Partition());
+    }
+  }
+
+  void onEvent(CacheEvent<K, V> event) {
+    int hash = event.getKey().hashCode();
+    partitions.get((hash ^ (hash >>> 16)) & (PARTITIONS - 1)).add(event);
+  }
+
+  private final class Partition implements Runnable {
+
+    private final Queue<CacheEvent<K, V>> events = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicInteger state = new AtomicInteger(IDLE);
+
+    void add(CacheEvent<K, V> event) {
+      events.add(event);
+      pending.incrementAndGet();
+      schedule();
+    }
+
+    private void schedule() {
+      int count = pending.get();
+      if (count == 0) {
+        return;
+      }
+      if (count >= batchSize || maxDelayNanos == 0) {
+        if (state.compareAndSet(IDLE, DRAINING) || state.compareAndSet(LINGERING, DRAINING)) {
+          submit();
+        }
+      } else if (state.compareAndSet(IDLE, LINGERING)) {
+        scheduler.schedule(() -> {
+          if (state.compareAndSet(LINGERING, DRAINING)) {
+            submit();
+          }
+        }, maxDelayNanos, TimeUnit.NANOSECONDS);
+      }
+    }
+
+    private void submit() {
+      try {
+        executor.get().execute(this);
+      } catch (RejectedExecutionException e) {
+        state.set(IDLE);
+        LOGGER.warn("Dropping {} cache events, the event executor rejected their delivery", pending.get(), e);
+      }
+    }
+
+    @Override
+    public void run() {
+      try {
+        // only drain what is already there so that a busy partition does not monopolize an executor thread
+        List<CacheEvent<K, V>> batch = new ArrayList<>(batchSize);
+        for (int remaining = pending.get(); remaining > 0; remaining--) {
+          batch.add(events.poll());
+          if (batch.size() == batchSize || remaining == 1) {
+            pending.addAndGet(-batch.size());
+            deliver(batch);
+            batch = new ArrayList<>(batchSize);
+          }
+        }
+      } finally {
+        state.set(IDLE);
+        // events added while the state was still DRAINING did not schedule anything
+        schedule();
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void deliver(List<CacheEvent<K, V>> batch) {
+    for (EventListenerWrapper<K, V> listenerWrapper : listenerWrappers) {
+      List<CacheEvent<K, V>> events = new ArrayList<>(batch.size());
+      for (CacheEvent<K, V> event : batch) {
+        if (listenerWrapper.isForEventType(event.getType())) {
+          events.add(event);
+        }
+      }
+      if (!events.isEmpty()) {
+        try {
+          ((BatchCacheEventListener<? super K, ? super V>) listenerWrapper.getListener()).onEvents(events);
+        } catch (Exception e) {
+          LOGGER.warn(listenerWrapper.getListener() + " Failed to fire Events due to ", e);
+        }
+      }
+    }
+  }
+}
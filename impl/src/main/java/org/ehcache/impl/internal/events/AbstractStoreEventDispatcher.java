@@ -20,11 +20,11 @@ import org.ehcache.core.events.StoreEventDispatcher;
 import org.ehcache.core.events.StoreEventSink;
 import org.ehcache.core.spi.store.events.StoreEventFilter;
 import org.ehcache.core.spi.store.events.StoreEventListener;
+import org.ehcache.impl.config.event.OrderedEventQueueConfiguration;
+import org.ehcache.impl.config.event.OrderedEventQueueConfiguration.Backpressure;
 
 import java.util.Set;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CopyOnWriteArraySet;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.function.Supplier;
 
 /**
@@ -76,20 +76,31 @@ public abstract class AbstractStoreEventDispatcher<K, V> implements StoreEventDi
 
   private final Set<StoreEventFilter<K, V>> filters = new CopyOnWriteArraySet<>();
   private final Set<StoreEventListener<K, V>> listeners = new CopyOnWriteArraySet<>();
-  private final BlockingQueue<FireableStoreEventHolder<K, V>>[] orderedQueues;
+  private final OrderedEventRingBuffer<K, V>[] orderedQueues;
+  private final Backpressure backpressure;
   private volatile boolean ordered = false;
 
   protected AbstractStoreEventDispatcher(int dispatcherConcurrency) {
+    this(dispatcherConcurrency, null);
+  }
+
+  protected AbstractStoreEventDispatcher(int dispatcherConcurrency, OrderedEventQueueConfiguration queueConfiguration) {
     if (dispatcherConcurrency <= 0) {
       throw new IllegalArgumentException("Dispatcher concurrency must be an integer greater than 0");
     }
+    int queueCapacity = OrderedEventQueueConfiguration.DEFAULT_QUEUE_CAPACITY;
+    Backpressure queueBackpressure = Backpressure.BLOCK;
+    if (queueConfiguration != null) {
+      queueCapacity = queueConfiguration.getQueueCapacity();
+      queueBackpressure = queueConfiguration.getBackpressure();
+    }
     @SuppressWarnings("unchecked")
-    LinkedBlockingQueue<FireableStoreEventHolder<K, V>>[] queues = (LinkedBlockingQueue<FireableStoreEventHolder<K, V>>[])
-      new LinkedBlockingQueue<?>[dispatcherConcurrency];
+    OrderedEventRingBuffer<K, V>[] queues = (OrderedEventRingBuffer<K, V>[]) new OrderedEventRingBuffer<?, ?>[dispatcherConcurrency];
     orderedQueues = queues;
     for (int i = 0; i < orderedQueues.length; i++) {
-      orderedQueues[i] = new LinkedBlockingQueue<>(10000);
+      orderedQueues[i] = new OrderedEventRingBuffer<>(queueCapacity);
     }
+    backpressure = queueBackpressure;
   }
 
   protected Set<StoreEventListener<K, V>> getListeners() {
@@ -100,10 +111,14 @@ public abstract class AbstractStoreEventDispatcher<K, V> implements StoreEventDi
     return filters;
   }
 
-  protected BlockingQueue<FireableStoreEventHolder<K, V>>[] getOrderedQueues() {
+  protected OrderedEventRingBuffer<K, V>[] getOrderedQueues() {
     return orderedQueues;
   }
 
+  protected Backpressure getBackpressure() {
+    return backpressure;
+  }
+
   @Override
   public void addEventListener(StoreEventListener<K, V> eventListener) {
     listeners.add(eventListener);
@@ -151,6 +166,6 @@ public abstract class AbstractStoreEventDispatcher<K, V> implements StoreEventDi
 
   @Override
   public StoreEventSink<K, V> eventSink() {
-    return new InvocationScopedEventSink<>(getFilters(), isEventOrdering(), getOrderedQueues(), getListeners());
+    return new InvocationScopedEventSink<>(getFilters(), isEventOrdering(), getOrderedQueues(), getBackpressure(), getListeners());
   }
 }
@@ -15,6 +15,7 @@
  */
 package org.ehcache.impl.internal.events;
 
+import org.ehcache.impl.config.event.CacheEventBatchingConfiguration;
 import org.ehcache.impl.config.event.CacheEventDispatcherFactoryConfiguration;
 import org.ehcache.impl.config.event.DefaultCacheEventDispatcherConfiguration;
 import org.ehcache.core.events.CacheEventDispatcherFactory;
@@ -29,6 +30,8 @@ import org.ehcache.spi.service.ServiceDependencies;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import static org.ehcache.core.spi.service.ServiceUtils.findSingletonAmongst;
 
@@ -71,7 +74,17 @@ public class CacheEventDispatcherFactoryImpl implements CacheEventDispatcherFact
     ExecutorService orderedExecutor = executionService.getOrderedExecutor(threadPoolAlias, new LinkedBlockingQueue<>());
     ExecutorService unOrderedExecutor = executionService.getUnorderedExecutor(threadPoolAlias, new LinkedBlockingQueue<>());
 
-    return new CacheEventDispatcherImpl<>(unOrderedExecutor, orderedExecutor);
+    CacheEventBatchingConfiguration batchingConfig = findSingletonAmongst(CacheEventBatchingConfiguration.class, (Object[]) serviceConfigs);
+    if (batchingConfig == null) {
+      batchingConfig = new CacheEventBatchingConfiguration(CacheEventBatchingConfiguration.DEFAULT_BATCH_SIZE,
+        CacheEventBatchingConfiguration.DEFAULT_MAX_DELAY, TimeUnit.MILLISECONDS);
+    }
+    ScheduledExecutorService batchScheduler = null;
+    if (batchingConfig.getMaxDelay() > 0) {
+      batchScheduler = executionService.getScheduledExecutor(threadPoolAlias);
+    }
+
+    return new CacheEventDispatcherImpl<>(unOrderedExecutor, orderedExecutor, batchScheduler, batchingConfig);
   }
 
   @Override
@@ -19,13 +19,14 @@ package org.ehcache.impl.internal.events;
 import org.ehcache.core.spi.store.events.StoreEvent;
 import org.ehcache.core.spi.store.events.StoreEventListener;
 
-import java.util.concurrent.atomic.AtomicReference;
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * FireableStoreEventHolder
+ * <p>
+ * Only the thread that produced the event ever waits for it to be fired, so a single waiter slot parked and unparked
+ * directly is enough. This keeps a holder down to a single allocation.
  */
 class FireableStoreEventHolder<K, V> {
 
@@ -33,56 +34,75 @@ class FireableStoreEventHolder<K, V> {
     CREATED, FIREABLE, FIRED
   }
 
-  private final Lock lock = new ReentrantLock();
-  private final AtomicReference<Status> status = new AtomicReference<>(Status.CREATED);
+  @SuppressWarnings("rawtypes")
+  private static final AtomicReferenceFieldUpdater<FireableStoreEventHolder, Status> STATUS_UPDATER =
+    AtomicReferenceFieldUpdater.newUpdater(FireableStoreEventHolder.class, Status.class, "status");
+
+  private volatile Status status = Status.CREATED;
+  private volatile Thread waiter;
   private volatile boolean failed = false;
 
   private final StoreEvent<K, V> event;
-  private final Condition condition;
 
   FireableStoreEventHolder(StoreEvent<K, V> event) {
     this.event = event;
-    this.condition = lock.newCondition();
   }
 
   void markFireable() {
-    status.compareAndSet(Status.CREATED, Status.FIREABLE);
+    STATUS_UPDATER.compareAndSet(this, Status.CREATED, Status.FIREABLE);
   }
 
   boolean isFireable() {
-    return status.get().equals(Status.FIREABLE);
+    return status == Status.FIREABLE;
   }
 
   void waitTillFired() {
-    while (!isFired()) {
-      lock.lock();
-      try {
-        if (!isFired()) {
-          condition.awaitUninterruptibly();
-        }
-      } finally {
-        lock.unlock();
+    waiter = Thread.currentThread();
+    try {
+      while (!isFired()) {
+        LockSupport.park(this);
       }
+    } finally {
+      waiter = null;
     }
   }
 
   private boolean isFired() {
-    return status.get() == Status.FIRED;
+    return status == Status.FIRED;
   }
 
   boolean markFired() {
-    boolean didIt = status.compareAndSet(Status.FIREABLE, Status.FIRED);
+    boolean didIt = STATUS_UPDATER.compareAndSet(this, Status.FIREABLE, Status.FIRED);
     if (didIt) {
-      lock.lock();
-      try {
-        condition.signal();
-      } finally {
-        lock.unlock();
-      }
+      wakeWaiter();
     }
     return didIt;
   }
 
+  /**
+   * Marks this event as failed and fired, whether or not its producer is done with it yet.
+   *
+   * @return {@code true} if this call did the marking, {@code false} if the event was already fired
+   */
+  boolean markDropped() {
+    Status current;
+    while ((current = status) != Status.FIRED) {
+      if (STATUS_UPDATER.compareAndSet(this, current, Status.FIRED)) {
+        failed = true;
+        wakeWaiter();
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void wakeWaiter() {
+    Thread thread = waiter;
+    if (thread != null) {
+      LockSupport.unpark(thread);
+    }
+  }
+
   void markFailed() {
     failed = true;
   }
@@ -103,6 +123,6 @@ class FireableStoreEventHolder<K, V> {
 
   @Override
   public String toString() {
-    return "FireableStoreEventHolder in state " + status.get() + " of " + event + (failed ? " (failed)":" (not failed)");
+    return "FireableStoreEventHolder in state " + status + " of " + event + (failed ? " (failed)":" (not failed)");
   }
 }
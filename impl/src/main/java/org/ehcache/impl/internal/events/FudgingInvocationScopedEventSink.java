@@ -19,10 +19,10 @@ package org.ehcache.impl.internal.events;
 import org.ehcache.event.EventType;
 import org.ehcache.core.spi.store.events.StoreEventFilter;
 import org.ehcache.core.spi.store.events.StoreEventListener;
+import org.ehcache.impl.config.event.OrderedEventQueueConfiguration.Backpressure;
 
 import java.util.Iterator;
 import java.util.Set;
-import java.util.concurrent.BlockingQueue;
 import java.util.function.Supplier;
 
 /**
@@ -39,9 +39,9 @@ import java.util.function.Supplier;
 class FudgingInvocationScopedEventSink<K, V> extends InvocationScopedEventSink<K, V> {
 
   FudgingInvocationScopedEventSink(Set<StoreEventFilter<K, V>> filters, boolean ordered,
-                                   BlockingQueue<FireableStoreEventHolder<K, V>>[] orderedQueues,
+                                   OrderedEventRingBuffer<K, V>[] orderedQueues, Backpressure backpressure,
                                    Set<StoreEventListener<K, V>> listeners) {
-    super(filters, ordered, orderedQueues, listeners);
+    super(filters, ordered, orderedQueues, backpressure, listeners);
   }
 
   @Override
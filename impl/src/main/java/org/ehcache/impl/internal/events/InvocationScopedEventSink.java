@@ -19,12 +19,13 @@ package org.ehcache.impl.internal.events;
 import org.ehcache.event.EventType;
 import org.ehcache.core.spi.store.events.StoreEventFilter;
 import org.ehcache.core.spi.store.events.StoreEventListener;
+import org.ehcache.impl.config.event.OrderedEventQueueConfiguration.Backpressure;
 
 import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.Iterator;
 import java.util.Set;
-import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Supplier;
 
 import static org.ehcache.impl.internal.events.StoreEvents.createEvent;
@@ -40,16 +41,18 @@ class InvocationScopedEventSink<K, V> implements CloseableStoreEventSink<K, V> {
 
   private final Set<StoreEventFilter<K, V>> filters;
   private final boolean ordered;
-  private final BlockingQueue<FireableStoreEventHolder<K, V>>[] orderedQueues;
+  private final OrderedEventRingBuffer<K, V>[] orderedQueues;
+  private final Backpressure backpressure;
   private final Set<StoreEventListener<K, V>> listeners;
   private final Deque<FireableStoreEventHolder<K, V>> events = new ArrayDeque<>(4);
 
   InvocationScopedEventSink(Set<StoreEventFilter<K, V>> filters, boolean ordered,
-                            BlockingQueue<FireableStoreEventHolder<K, V>>[] orderedQueues,
+                            OrderedEventRingBuffer<K, V>[] orderedQueues, Backpressure backpressure,
                             Set<StoreEventListener<K, V>> listeners) {
     this.filters = filters;
     this.ordered = ordered;
     this.orderedQueues = orderedQueues;
+    this.backpressure = backpressure;
     this.listeners = listeners;
   }
 
@@ -129,9 +132,10 @@ class InvocationScopedEventSink<K, V> implements CloseableStoreEventSink<K, V> {
     while (iterator.hasNext()) {
       FireableStoreEventHolder<K, V> next = iterator.next();
       if (ordered) {
-        BlockingQueue<FireableStoreEventHolder<K, V>> orderedQueue = getOrderedQueue(next);
-        orderedQueue.remove(next);
-        fireWaiters(listeners, orderedQueue);
+        // the ring cannot remove from its middle: the event is skipped once it reaches the head instead
+        next.markFailed();
+        next.markFireable();
+        fireWaiters(listeners, getOrderedQueue(next));
       }
       iterator.remove();
     }
@@ -144,16 +148,40 @@ class InvocationScopedEventSink<K, V> implements CloseableStoreEventSink<K, V> {
   protected void handleEvent(K key, FireableStoreEventHolder<K, V> event) {
     events.add(event);
     if (ordered) {
-      try {
-        getOrderedQueue(event).put(event);
-      } catch (InterruptedException e) {
-        events.removeLast();
-        Thread.currentThread().interrupt();
+      OrderedEventRingBuffer<K, V> orderedQueue = getOrderedQueue(event);
+      int spins = 0;
+      while (!orderedQueue.offer(event)) {
+        switch (backpressure) {
+          case FAIL_FAST:
+            events.removeLast();
+            throw new IllegalStateException("Ordered event queue is full, dropping " + event);
+          case DROP_OLDEST:
+            FireableStoreEventHolder<K, V> oldest = orderedQueue.peek();
+            if (oldest != null && oldest.markDropped()) {
+              orderedQueue.poll();
+              fireWaiters(listeners, orderedQueue);
+              continue;
+            }
+            break;
+          case BLOCK:
+            break;
+          default:
+            throw new AssertionError("Unhandled Backpressure value: " + backpressure);
+        }
+        if (Thread.currentThread().isInterrupted()) {
+          events.removeLast();
+          return;
+        }
+        if (++spins < 64) {
+          Thread.yield();
+        } else {
+          LockSupport.parkNanos(this, 1000L);
+        }
       }
     }
   }
 
-  private BlockingQueue<FireableStoreEventHolder<K, V>> getOrderedQueue(FireableStoreEventHolder<K, V> event) {
+  private OrderedEventRingBuffer<K, V> getOrderedQueue(FireableStoreEventHolder<K, V> event) {
     int i = Math.abs(event.eventKeyHash() % orderedQueues.length);
     return orderedQueues[i];
   }
@@ -162,7 +190,7 @@ class InvocationScopedEventSink<K, V> implements CloseableStoreEventSink<K, V> {
     for (FireableStoreEventHolder<K, V> fireableEvent : events) {
       fireableEvent.markFireable();
 
-      BlockingQueue<FireableStoreEventHolder<K, V>> orderedQueue = getOrderedQueue(fireableEvent);
+      OrderedEventRingBuffer<K, V> orderedQueue = getOrderedQueue(fireableEvent);
       FireableStoreEventHolder<K, V> head = orderedQueue.peek();
       if (head == fireableEvent) {
         // Need to fire my event, plus any it was blocking
@@ -186,7 +214,7 @@ class InvocationScopedEventSink<K, V> implements CloseableStoreEventSink<K, V> {
     }
   }
 
-  private void fireWaiters(Set<StoreEventListener<K, V>> listeners, BlockingQueue<FireableStoreEventHolder<K, V>> orderedQueue) {
+  private void fireWaiters(Set<StoreEventListener<K, V>> listeners, OrderedEventRingBuffer<K, V> orderedQueue) {
     FireableStoreEventHolder<K, V> head;
     while ((head = orderedQueue.peek()) != null && head.isFireable()) {
       if (head.markFired()) {
@@ -0,0 +1,120 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ehcache.impl.internal.events;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded multi-producer queue of ordered events backed by a pre-allocated ring.
+ * <p>
+ * Producers claim a slot with a single CAS on the tail and publish it through the slot sequence, so no lock is taken
+ * and no node is allocated. Removal is only ever performed by the thread that won the right to fire the head event
+ * (see {@link FireableStoreEventHolder#markFired()}), which makes the consumer side single-threaded at any point in
+ * time while {@link #peek()} can be called from any thread.
+ */
+class OrderedEventRingBuffer<K, V> {
+
+  private final AtomicReferenceArray<FireableStoreEventHolder<K, V>> slots;
+  private final AtomicLongArray sequences;
+  private final int mask;
+  private final AtomicLong tail = new AtomicLong();
+  private final AtomicLong head = new AtomicLong();
+
+  OrderedEventRingBuffer(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be a value bigger than 0");
+    }
+    int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+    this.slots = new AtomicReferenceArray<>(size);
+    this.sequences = new AtomicLongArray(size);
+    this.mask = size - 1;
+    for (int i = 0; i < size; i++) {
+      sequences.lazySet(i, i);
+    }
+  }
+
+  /**
+   * Appends an event if there is room for it.
+   *
+   * @param event the event to append
+   * @return {@code true} if the event was appended, {@code false} if the ring is full
+   */
+  boolean offer(FireableStoreEventHolder<K, V> event) {
+    long position = tail.get();
+    while (true) {
+      int index = (int) position & mask;
+      long difference = sequences.get(index) - position;
+      if (difference == 0) {
+        if (tail.compareAndSet(position, position + 1)) {
+          slots.lazySet(index, event);
+          sequences.set(index, position + 1);
+          return true;
+        }
+        position = tail.get();
+      } else if (difference < 0) {
+        return false;
+      } else {
+        position = tail.get();
+      }
+    }
+  }
+
+  /**
+   * Returns the head event, or {@code null} if the ring is empty or its head is not published yet.
+   *
+   * @return the head event
+   */
+  FireableStoreEventHolder<K, V> peek() {
+    while (true) {
+      long position = head.get();
+      int index = (int) position & mask;
+      if (sequences.get(index) != position + 1) {
+        if (head.get() == position) {
+          return null;
+        }
+        continue;
+      }
+      FireableStoreEventHolder<K, V> event = slots.get(index);
+      if (sequences.get(index) == position + 1 && head.get() == position) {
+        return event;
+      }
+    }
+  }
+
+  /**
+   * Removes the head event.
+   * <p>
+   * Must only be called by the thread that fired, or dropped, the event returned by {@link #peek()}.
+   */
+  void poll() {
+    long position = head.get();
+    int index = (int) position & mask;
+    slots.lazySet(index, null);
+    head.set(position + 1);
+    sequences.set(index, position + mask + 1);
+  }
+
+  int size() {
+    return (int) (tail.get() - head.get());
+  }
+
+  int capacity() {
+    return mask + 1;
+  }
+}
@@ -17,6 +17,7 @@
 package org.ehcache.impl.internal.events;
 
 import org.ehcache.core.events.StoreEventSink;
+import org.ehcache.impl.config.event.OrderedEventQueueConfiguration;
 
 /**
  * ThreadLocalStoreEventDispatcher
@@ -30,6 +31,10 @@ public class ThreadLocalStoreEventDispatcher<K, V> extends AbstractStoreEventDis
     super(dispatcherConcurrency);
   }
 
+  public ThreadLocalStoreEventDispatcher(int dispatcherConcurrency, OrderedEventQueueConfiguration queueConfiguration) {
+    super(dispatcherConcurrency, queueConfiguration);
+  }
+
   @Override
   public StoreEventSink<K, V> eventSink() {
     if (getListeners().isEmpty()) {
@@ -39,7 +44,7 @@ public class ThreadLocalStoreEventDispatcher<K, V> extends AbstractStoreEventDis
     } else {
       StoreEventSink<K, V> eventSink = tlEventSink.get();
       if (eventSink == null) {
-        eventSink = new FudgingInvocationScopedEventSink<>(getFilters(), isEventOrdering(), getOrderedQueues(), getListeners());
+        eventSink = new FudgingInvocationScopedEventSink<>(getFilters(), isEventOrdering(), getOrderedQueues(), getBackpressure(), getListeners());
         tlEventSink.set(eventSink);
         usageDepth.set(0);
       } else {
@@ -0,0 +1,107 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ehcache.impl.internal.executor;
+
+import org.ehcache.core.spi.service.AsyncCacheExecutorProvider;
+import org.ehcache.core.spi.service.ExecutionService;
+import org.ehcache.core.spi.service.ServiceFactory;
+import org.ehcache.impl.config.executor.AsyncCacheExecutorProviderConfiguration;
+import org.ehcache.spi.service.Service;
+import org.ehcache.spi.service.ServiceCreationConfiguration;
+import org.ehcache.spi.service.ServiceDependencies;
+import org.ehcache.spi.service.ServiceProvider;
+import org.osgi.service.component.annotations.Component;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Creates the {@link AsyncCacheExecutorProvider} of cache managers configured with an
+ * {@link AsyncCacheExecutorProviderConfiguration}.
+ */
+@Component
+public class AsyncCacheExecutorProviderFactory implements ServiceFactory<AsyncCacheExecutorProvider> {
+
+  @Override
+  public AsyncCacheExecutorProvider create(ServiceCreationConfiguration<AsyncCacheExecutorProvider, ?> configuration) {
+    if (configuration == null) {
+      return new Provider(null);
+    } else if (configuration instanceof AsyncCacheExecutorProviderConfiguration) {
+      return new Provider(((AsyncCacheExecutorProviderConfiguration) configuration).getThreadPoolAlias());
+    } else {
+      throw new IllegalArgumentException("Expected a configuration of type AsyncCacheExecutorProviderConfiguration but got " + configuration
+          .getClass()
+          .getSimpleName());
+    }
+  }
+
+  @Override
+  public Class<? extends AsyncCacheExecutorProvider> getServiceType() {
+    return Provider.class;
+  }
+
+  /**
+   * Runs asynchronous cache operations on an unordered executor derived from the configured pool, or from the default
+   * pool when no alias is configured.
+   * <p>
+   * The executor is only derived once first needed, so that cache managers without a usable pool keep working as long
+   * as they do not use asynchronous operations.
+   */
+  @ServiceDependencies(ExecutionService.class)
+  public static class Provider implements AsyncCacheExecutorProvider {
+
+    private final String threadPoolAlias;
+    private volatile ExecutionService executionService;
+    private ExecutorService executor;
+
+    Provider(String threadPoolAlias) {
+      this.threadPoolAlias = threadPoolAlias;
+    }
+
+    @Override
+    public void start(ServiceProvider<Service> serviceProvider) {
+      executionService = serviceProvider.getService(ExecutionService.class);
+    }
+
+    @Override
+    public synchronized void stop() {
+      if (executor != null) {
+        executor.shutdown();
+        executor = null;
+      }
+    }
+
+    @Override
+    public synchronized Executor getExecutor() {
+      if (executor == null) {
+        try {
+          executor = executionService.getUnorderedExecutor(threadPoolAlias, new LinkedBlockingQueue<>());
+        } catch (IllegalArgumentException e) {
+          if (threadPoolAlias == null) {
+            throw new IllegalStateException("No thread pool available for asynchronous cache operations:"
+                                            + " configure a default pool or an asynchronous operations pool alias", e);
+          } else {
+            throw new IllegalStateException("Thread pool '" + threadPoolAlias + "' configured for asynchronous cache operations cannot be used", e);
+          }
+        }
+      }
+      return executor;
+    }
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ehcache.impl.internal.store;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps track of the keys a store is currently bulk loading.
+ * <p>
+ * A bulk compute claims its keys through {@link #claim(Iterable, Collection)}, invokes its mapping function once for all
+ * the absent ones and installs the results before closing the returned {@link Fault}. Single key computations on a
+ * claimed key are expected to {@link #await(Object)} the fault instead of loading the key a second time.
+ * <p>
+ * The thread owning a fault is never made to wait on it: a mapping function re-entering the store for one of the keys
+ * its own bulk load claimed loads that key inline instead of deadlocking against itself.
+ *
+ * @param <K> the key type of the store
+ */
+public final class BulkLoadFaults<K> {
+
+  private final ConcurrentMap<K, Fault> faults = new ConcurrentHashMap<>();
+
+  /**
+   * Claims the given keys for a new bulk load.
+   *
+   * @param keys the keys to claim
+   * @param contended collects the keys already claimed by a bulk load of another thread
+   * @return the fault covering the keys successfully claimed, to be closed once they are loaded
+   */
+  public Fault claim(Iterable<? extends K> keys, Collection<? super K> contended) {
+    Fault fault = new Fault();
+    for (K key : keys) {
+      Fault existing = faults.putIfAbsent(key, fault);
+      if (existing == null || existing.owner == fault.owner) {
+        // a re-entrant claim leaves the key registered to the outer fault
+        fault.keys.add(key);
+      } else {
+        contended.add(key);
+      }
+    }
+    return fault;
+  }
+
+  /**
+   * Waits for the bulk load of the given key, if any, to complete.
+   * <p>
+   * Returns immediately when the calling thread is the one bulk loading the key.
+   *
+   * @param key the key about to be computed
+   */
+  public void await(K key) {
+    Fault fault = faults.get(key);
+    if (fault != null && fault.owner != Thread.currentThread()) {
+      fault.await();
+    }
+  }
+
+  /**
+   * A set of keys claimed by a single bulk load.
+   */
+  public final class Fault implements AutoCloseable {
+
+    private final Thread owner = Thread.currentThread();
+    private final List<K> keys = new ArrayList<>();
+    private boolean complete;
+
+    /**
+     * @return the keys claimed by this fault
+     */
+    public List<K> keys() {
+      return keys;
+    }
+
+    private void await() {
+      boolean interrupted = false;
+      try {
+        synchronized (this) {
+          while (!complete) {
+            try {
+              wait();
+            } catch (InterruptedException e) {
+              interrupted = true;
+            }
+          }
+        }
+      } finally {
+        if (interrupted) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+
+    /**
+     * Releases the claimed keys and wakes up the threads waiting on them.
+     */
+    @Override
+    public void close() {
+      for (K key : keys) {
+        faults.remove(key, this);
+      }
+      synchronized (this) {
+        complete = true;
+        notifyAll();
+      }
+    }
+  }
+}
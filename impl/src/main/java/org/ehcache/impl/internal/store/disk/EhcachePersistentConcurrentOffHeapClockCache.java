@@ -18,17 +18,30 @@ package org.ehcache.impl.internal.store.disk;
 
 import org.ehcache.config.EvictionAdvisor;
 import org.ehcache.impl.internal.store.disk.factories.EhcachePersistentSegmentFactory;
+import org.ehcache.impl.internal.store.disk.factories.EhcachePersistentSegmentFactory.EhcachePersistentSegment;
 import org.ehcache.impl.internal.store.offheap.EhcacheOffHeapBackingMap;
 import org.terracotta.offheapstore.Metadata;
 import org.terracotta.offheapstore.MetadataTuple;
 import org.terracotta.offheapstore.Segment;
 import org.terracotta.offheapstore.disk.persistent.AbstractPersistentConcurrentOffHeapCache;
+import org.terracotta.offheapstore.disk.persistent.Persistent;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectInput;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutput;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
 import java.util.function.Function;
 
 import static org.ehcache.impl.internal.store.offheap.factories.EhcacheSegmentFactory.EhcacheSegment.ADVISED_AGAINST_EVICTION;
@@ -41,6 +54,9 @@ import static org.terracotta.offheapstore.MetadataTuple.metadataTuple;
  */
 public class EhcachePersistentConcurrentOffHeapClockCache<K, V> extends AbstractPersistentConcurrentOffHeapCache<K, V> implements EhcacheOffHeapBackingMap<K, V> {
 
+  /* marks an index persisted one block per segment, as opposed to the sequential format of {@link #persist(ObjectOutput)} */
+  static final int SEGMENTED_INDEX_MAGIC = 0x53454749;
+
   private final EvictionAdvisor<? super K, ? super V> evictionAdvisor;
   private final AtomicLong[] counters;
 
@@ -57,6 +73,119 @@ public class EhcachePersistentConcurrentOffHeapClockCache<K, V> extends Abstract
     }
   }
 
+  /**
+   * Writes a checkpoint of the index, one segment at a time, without blocking writers on other segments.
+   * <p>
+   * The checkpoint can be read back by creating a cache with the persisted segment count and bootstrapping it.
+   *
+   * @param output the output to write the checkpoint to
+   * @param generation the generation of the checkpoint
+   * @throws IOException if a segment cannot be flushed or persisted
+   */
+  public void checkpoint(ObjectOutput output, long generation) throws IOException {
+    output.writeInt(segments.length);
+    for (Segment<K, V> segment : segments) {
+      ((EhcachePersistentSegment<K, V>) segment).checkpoint(output, generation);
+    }
+  }
+
+  /**
+   * Persists the index as one length prefixed block per segment, so that the segments can be bootstrapped
+   * independently of each other.
+   * <p>
+   * The index can be read back with {@link #readSegments(ObjectInput)} once its leading
+   * {@link #SEGMENTED_INDEX_MAGIC} got consumed.
+   *
+   * @param output the output to persist the index to
+   * @throws IOException if a segment cannot be persisted
+   */
+  public void persistSegments(ObjectOutput output) throws IOException {
+    output.writeInt(SEGMENTED_INDEX_MAGIC);
+    output.writeInt(segments.length);
+    for (Segment<K, V> segment : segments) {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (ObjectOutputStream segmentOutput = new ObjectOutputStream(bytes)) {
+        ((Persistent) segment).persist(segmentOutput);
+      }
+      output.writeInt(bytes.size());
+      output.write(bytes.toByteArray());
+    }
+  }
+
+  /**
+   * Reads the per segment blocks of an index written by {@link #persistSegments(ObjectOutput)}.
+   *
+   * @param input the input positioned right after the {@link #SEGMENTED_INDEX_MAGIC}
+   * @return the persisted block of each segment
+   * @throws IOException if the index cannot be read
+   */
+  public static byte[][] readSegments(ObjectInput input) throws IOException {
+    byte[][] blocks = new byte[input.readInt()][];
+    for (int i = 0; i < blocks.length; i++) {
+      blocks[i] = new byte[input.readInt()];
+      input.readFully(blocks[i]);
+    }
+    return blocks;
+  }
+
+  /**
+   * Bootstraps the segments in parallel from the blocks returned by {@link #readSegments(ObjectInput)}.
+   * <p>
+   * The cache can be used right away: operations on a segment that is still bootstrapping wait for it, while the ones
+   * on already bootstrapped segments proceed.
+   *
+   * @param blocks the persisted block of each segment
+   * @param executor the executor running the segment bootstraps
+   * @return a future completing once every segment is bootstrapped
+   */
+  @SuppressWarnings("unchecked")
+  public CompletableFuture<Void> bootstrap(byte[][] blocks, Executor executor) {
+    if (blocks.length != segments.length) {
+      throw new IllegalArgumentException("Expected " + segments.length + " segments, got " + blocks.length);
+    }
+    CompletableFuture<?>[] bootstraps = new CompletableFuture<?>[segments.length];
+    for (int i = 0; i < segments.length; i++) {
+      EhcachePersistentSegment<K, V> segment = (EhcachePersistentSegment<K, V>) segments[i];
+      byte[] block = blocks[i];
+      segment.deferBootstrap();
+      bootstraps[i] = CompletableFuture.runAsync(() -> {
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(block))) {
+          segment.bootstrap(input);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }, executor);
+    }
+    return CompletableFuture.allOf(bootstraps);
+  }
+
+  /**
+   * @return the number of segments still waiting for their bootstrap
+   */
+  public int pendingBootstraps() {
+    int pending = 0;
+    for (Segment<K, V> segment : segments) {
+      if (((EhcachePersistentSegment<K, V>) segment).isBootstrapPending()) {
+        pending++;
+      }
+    }
+    return pending;
+  }
+
+  /**
+   * Hands over the mappings that can still be read back from the data file.
+   *
+   * @param consumer the consumer of the readable mappings
+   * @return the number of mappings skipped
+   */
+  public long salvage(BiConsumer<? super K, ? super V> consumer) {
+    long skipped = 0L;
+    for (Segment<K, V> segment : segments) {
+      skipped += ((EhcachePersistentSegment<K, V>) segment).salvage(consumer);
+    }
+    return skipped;
+  }
+
   public long allocatedMemory() {
     long total = 0L;
     for (Segment<K, V> segment : segments) {
@@ -206,6 +335,32 @@ public class EhcachePersistentConcurrentOffHeapClockCache<K, V> extends Abstract
     return result == null ? null : result.value();
   }
 
+  @Override
+  public long computeIfPresentReclaiming(K key, BiFunction<? super K, ? super V, ? extends V> mappingFunction) {
+    Segment<K, V> segment = segmentFor(key);
+    Lock lock = segment.writeLock();
+    lock.lock();
+    try {
+      long occupied = segment.getOccupiedMemory();
+      computeIfPresentWithMetadata(key, (k, current) -> {
+        if ((current.metadata() & PINNED) != 0) {
+          return current;
+        }
+        V newValue = mappingFunction.apply(k, current.value());
+        return newValue == null ? null : metadataTuple(newValue, current.metadata());
+      });
+      return Math.max(0L, occupied - segment.getOccupiedMemory());
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public V readOrComputeIfPresent(K key, BiPredicate<? super K, ? super V> accessPredicate, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+    // file backed write contexts queue their writes and are not safe to use concurrently: always take the write lock
+    return computeIfPresent(key, (k, v) -> accessPredicate.test(k, v) ? v : remappingFunction.apply(k, v));
+  }
+
   @Override
   public boolean computeIfPinned(final K key, final BiFunction<K,V,V> remappingFunction, final Function<V,Boolean> unpinFunction) {
     final AtomicBoolean unpin = new AtomicBoolean();
@@ -28,12 +28,15 @@ import org.ehcache.impl.config.store.disk.OffHeapDiskStoreConfiguration;
 import org.ehcache.config.units.MemoryUnit;
 import org.ehcache.core.events.StoreEventDispatcher;
 import org.ehcache.CachePersistenceException;
+import org.ehcache.impl.config.event.OrderedEventQueueConfiguration;
 import org.ehcache.impl.internal.events.ThreadLocalStoreEventDispatcher;
+import org.ehcache.impl.internal.store.disk.factories.CheckpointJournal;
 import org.ehcache.impl.internal.store.disk.factories.EhcachePersistentSegmentFactory;
 import org.ehcache.impl.internal.store.offheap.AbstractOffHeapStore;
 import org.ehcache.impl.internal.store.offheap.EhcacheOffHeapBackingMap;
 import org.ehcache.impl.internal.store.offheap.SwitchableEvictionAdvisor;
 import org.ehcache.impl.internal.store.offheap.OffHeapValueHolder;
+import org.ehcache.impl.internal.store.offheap.portability.OffHeapValueHolderPortability.HeaderFormat;
 import org.ehcache.impl.internal.store.offheap.portability.SerializerPortability;
 import org.ehcache.core.spi.time.TimeSource;
 import org.ehcache.core.spi.time.TimeSourceService;
@@ -47,6 +50,7 @@ import org.ehcache.core.spi.store.tiering.AuthoritativeTier;
 import org.ehcache.spi.serialization.SerializationProvider;
 import org.ehcache.spi.serialization.Serializer;
 import org.ehcache.core.spi.service.ExecutionService;
+import org.ehcache.impl.config.store.ExpiryReaperConfiguration;
 import org.ehcache.core.spi.service.FileBasedPersistenceContext;
 import org.ehcache.spi.service.Service;
 import org.ehcache.spi.service.ServiceConfiguration;
@@ -69,20 +73,37 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.lang.reflect.Proxy;
+import java.nio.file.Files;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static java.lang.Math.max;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.ehcache.config.Eviction.noAdvice;
+import static org.ehcache.core.statistics.StatisticType.GAUGE;
 import static org.ehcache.core.spi.service.ServiceUtils.findSingletonAmongst;
 import static java.util.Arrays.asList;
+import static org.ehcache.impl.internal.executor.ExecutorUtil.shutdownNow;
+import static org.ehcache.impl.internal.store.disk.EhcachePersistentConcurrentOffHeapClockCache.SEGMENTED_INDEX_MAGIC;
+import static org.ehcache.impl.internal.store.offheap.OffHeapStoreUtils.getAdvancedBooleanConfigProperty;
+import static org.ehcache.impl.internal.store.offheap.OffHeapStoreUtils.getAdvancedLongConfigProperty;
 import static org.terracotta.offheapstore.util.MemoryUnit.BYTES;
 
 /**
@@ -94,6 +115,19 @@ public class OffHeapDiskStore<K, V> extends AbstractOffHeapStore<K, V> implement
 
   private static final String KEY_TYPE_PROPERTY_NAME = "keyType";
   private static final String VALUE_TYPE_PROPERTY_NAME = "valueType";
+  private static final String VALUE_HEADER_VERSION_PROPERTY_NAME = "valueHeaderVersion";
+  private static final String VALUE_HEADER_EPOCH_PROPERTY_NAME = "valueHeaderEpoch";
+  private static final String VALUE_HEADER_ETERNAL_PROPERTY_NAME = "valueHeaderEternal";
+
+  /* interval in ms between two checkpoints of the index, zero disabling them */
+  private static final long CHECKPOINT_INTERVAL = TimeUnit.SECONDS.toMillis(30);
+  private static final String CHECKPOINT_INTERVAL_PROPERTY = "diskCheckpointInterval";
+  /* open a recovered store before all its segments are bootstrapped */
+  private static final boolean LAZY_RECOVERY = false;
+  private static final String LAZY_RECOVERY_PROPERTY = "diskLazyRecovery";
+  /* number of removed or updated keys each checkpoint generation can journal, beyond which recovery starts empty */
+  private static final long CHECKPOINT_JOURNAL_SIZE = 256 * 1024;
+  private static final String CHECKPOINT_JOURNAL_SIZE_PROPERTY = "diskCheckpointJournalSize";
 
   protected final AtomicReference<Status> status = new AtomicReference<>(Status.UNINITIALIZED);
 
@@ -112,6 +146,13 @@ public class OffHeapDiskStore<K, V> extends AbstractOffHeapStore<K, V> implement
 
   private volatile EhcachePersistentConcurrentOffHeapClockCache<K, OffHeapValueHolder<V>> map;
 
+  private final Object checkpointLock = new Object();
+  private volatile CheckpointJournal journal;
+  private long checkpointGeneration; // guarded by checkpointLock
+  private volatile ScheduledExecutorService checkpointExecutor;
+  private volatile ScheduledFuture<?> checkpointTask;
+  private volatile CompletableFuture<Void> recovery;
+
   public OffHeapDiskStore(FileBasedPersistenceContext fileBasedPersistenceContext,
                           ExecutionService executionService, String threadPoolAlias, int writerConcurrency, int diskSegments,
                           final Configuration<K, V> config, TimeSource timeSource, StoreEventDispatcher<K, V> eventDispatcher, long sizeInBytes, StatisticsService statisticsService) {
@@ -135,6 +176,15 @@ public class OffHeapDiskStore<K, V> extends AbstractOffHeapStore<K, V> implement
     this.valueSerializer = config.getValueSerializer();
     this.sizeInBytes = sizeInBytes;
 
+    registerStatistic("recoveryProgress", GAUGE, new HashSet<>(asList(getStatisticsTag(), "tier")), () -> {
+      EhcachePersistentConcurrentOffHeapClockCache<K, OffHeapValueHolder<V>> localMap = map;
+      if (localMap == null) {
+        return null;
+      }
+      long segments = localMap.getSegments().size();
+      return 100L * (segments - localMap.pendingBootstraps()) / segments;
+    });
+
     if (!status.compareAndSet(Status.UNINITIALIZED, Status.AVAILABLE)) {
       throw new AssertionError();
     }
@@ -155,6 +205,17 @@ public class OffHeapDiskStore<K, V> extends AbstractOffHeapStore<K, V> implement
     File indexFile = getIndexFile();
     File metadataFile = getMetadataFile();
 
+    try {
+      journal = new CheckpointJournal(fileBasedPersistenceContext.getDirectory(),
+        (int) getAdvancedLongConfigProperty(CHECKPOINT_JOURNAL_SIZE_PROPERTY, CHECKPOINT_JOURNAL_SIZE));
+    } catch (IOException ex) {
+      throw new RuntimeException(ex);
+    }
+    synchronized (checkpointLock) {
+      checkpointGeneration = readCheckpointGeneration() + 1;
+      journal.prepare(checkpointGeneration);
+    }
+
     if (dataFile.isFile() && indexFile.isFile() && metadataFile.isFile()) {
       try {
         // yukms TODO: 已存在则恢复
@@ -162,9 +223,20 @@ public class OffHeapDiskStore<K, V> extends AbstractOffHeapStore<K, V> implement
       } catch (IOException ex) {
         throw new RuntimeException(ex);
       }
+    } else if (dataFile.isFile() && getCheckpointFile().isFile() && metadataFile.isFile()) {
+      try {
+        HeaderFormat persistedFormat = checkPersistedMetadata(metadataFile);
+        LOGGER.warn("No index found for data file {}, probably due to an unclean shutdown. Recovering from the last checkpoint.",
+          dataFile.getName());
+        return salvageBackingMap(size, keySerializer, valueSerializer, evictionAdvisor, persistedFormat);
+      } catch (IOException ex) {
+        throw new RuntimeException(ex);
+      }
     } else {
       try {
         // yukms TODO: 不存在则创建
+        // a checkpoint left over describes another data file
+        deleteCheckpoint();
         return createBackingMap(size, keySerializer, valueSerializer, evictionAdvisor);
       } catch (IOException ex) {
         throw new RuntimeException(ex);
@@ -177,6 +249,102 @@ public class OffHeapDiskStore<K, V> extends AbstractOffHeapStore<K, V> implement
     File indexFile = getIndexFile();
     File metadataFile = getMetadataFile();
 
+    HeaderFormat persistedFormat = checkPersistedMetadata(metadataFile);
+
+    try (FileInputStream fin = new FileInputStream(indexFile)) {
+      ObjectInputStream input = new ObjectInputStream(fin);
+      long dataTimestampFromIndex = input.readLong();
+      long dataTimestampFromFile = dataFile.lastModified();
+      long delta = dataTimestampFromFile - dataTimestampFromIndex;
+      if (delta > TimeUnit.SECONDS.toMillis(1)) {
+        LOGGER.warn("The index for data file {} is out of date by {}ms, probably due to an unclean shutdown. Recovering from the last checkpoint.",
+          dataFile.getName(), delta);
+      } else {
+        if (delta < 0) {
+          LOGGER.info("The index for data file {} is more recent than the data file itself by {}ms : this is harmless.",
+            dataFile.getName(), -delta);
+        } else if (delta > 0) {
+          LOGGER.info("The index for data file {} is out of date by {}ms, assuming this small delta is a result of the OS/filesystem.",
+            dataFile.getName(), delta);
+        }
+
+        if (input.readInt() == SEGMENTED_INDEX_MAGIC) {
+          return bootstrapSegments(EhcachePersistentConcurrentOffHeapClockCache.readSegments(input), size, keySerializer, valueSerializer, evictionAdvisor, persistedFormat);
+        }
+
+        MappedPageSource source = new MappedPageSource(dataFile, false, size);
+        try {
+          EhcachePersistentSegmentFactory<K, OffHeapValueHolder<V>> factory = createSegmentFactory(source, size, keySerializer, valueSerializer, evictionAdvisor, persistedFormat, false, journal);
+          EhcachePersistentConcurrentOffHeapClockCache<K, OffHeapValueHolder<V>> m = new EhcachePersistentConcurrentOffHeapClockCache<>(evictionAdvisor, factory, input.readInt());
+
+          m.bootstrap(input);
+          return m;
+        } catch (IOException | RuntimeException e) {
+          source.close();
+          throw e;
+        }
+      }
+    } catch (Exception e) {
+      LOGGER.info("Index file was corrupt. Recovering data file {} from the last checkpoint. {}", dataFile.getAbsolutePath(), e.getMessage());
+      LOGGER.debug("Exception during recovery", e);
+    }
+    return salvageBackingMap(size, keySerializer, valueSerializer, evictionAdvisor, persistedFormat);
+  }
+
+  /**
+   * Bootstraps the segments of the store in parallel on the disk thread pool.
+   * <p>
+   * Unless lazy recovery is enabled this waits for all segments to be bootstrapped. Otherwise the store is returned
+   * right away, operations on a segment still bootstrapping waiting for it and allocations of new disk space waiting for
+   * all of them.
+   */
+  private EhcachePersistentConcurrentOffHeapClockCache<K, OffHeapValueHolder<V>> bootstrapSegments(byte[][] segments, long size, Serializer<K> keySerializer, Serializer<V> valueSerializer, SwitchableEvictionAdvisor<K, OffHeapValueHolder<V>> evictionAdvisor, HeaderFormat persistedFormat) throws IOException {
+    RecoveringMappedPageSource source = new RecoveringMappedPageSource(getDataFile(), size);
+    ExecutorService executor = executionService.getUnorderedExecutor(threadPoolAlias, new LinkedBlockingQueue<>());
+    try {
+      EhcachePersistentSegmentFactory<K, OffHeapValueHolder<V>> factory = createSegmentFactory(source, size, keySerializer, valueSerializer, evictionAdvisor, persistedFormat, false, journal);
+      EhcachePersistentConcurrentOffHeapClockCache<K, OffHeapValueHolder<V>> m = new EhcachePersistentConcurrentOffHeapClockCache<>(evictionAdvisor, factory, segments.length);
+
+      CompletableFuture<Void> bootstrap = m.bootstrap(segments, executor).whenComplete((v, t) -> {
+        source.recovered();
+        executor.shutdown();
+      });
+      if (getAdvancedBooleanConfigProperty(LAZY_RECOVERY_PROPERTY, LAZY_RECOVERY)) {
+        recovery = bootstrap;
+      } else {
+        bootstrap.join();
+      }
+      return m;
+    } catch (RuntimeException e) {
+      executor.shutdown();
+      source.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Waits for the segments bootstrapped in the background, if any.
+   *
+   * @return {@code false} if some segments could not be bootstrapped
+   */
+  private boolean awaitRecovery() {
+    CompletableFuture<Void> localRecovery = recovery;
+    if (localRecovery != null) {
+      try {
+        localRecovery.join();
+      } catch (CompletionException | CancellationException e) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Checks the persisted key and value types against the configured ones.
+   *
+   * @return the value header format of the persisted store
+   */
+  private HeaderFormat checkPersistedMetadata(File metadataFile) throws IOException {
     Properties properties = new Properties();
     try (FileInputStream fis = new FileInputStream(metadataFile)) {
       properties.load(fis);
@@ -197,79 +365,222 @@ public class OffHeapDiskStore<K, V> extends AbstractOffHeapStore<K, V> implement
     } catch (ClassNotFoundException cnfe) {
       throw new IllegalStateException("Persisted value type class not found", cnfe);
     }
+    String headerVersion = properties.getProperty(VALUE_HEADER_VERSION_PROPERTY_NAME);
+    if (headerVersion == null) {
+      return HeaderFormat.LEGACY;
+    } else {
+      return HeaderFormat.of(Integer.parseInt(headerVersion),
+        Long.parseLong(properties.getProperty(VALUE_HEADER_EPOCH_PROPERTY_NAME, "0")),
+        Boolean.parseBoolean(properties.getProperty(VALUE_HEADER_ETERNAL_PROPERTY_NAME)));
+    }
+  }
 
-    try (FileInputStream fin = new FileInputStream(indexFile)) {
-      ObjectInputStream input = new ObjectInputStream(fin);
-      long dataTimestampFromIndex = input.readLong();
-      long dataTimestampFromFile = dataFile.lastModified();
-      long delta = dataTimestampFromFile - dataTimestampFromIndex;
-      if (delta < 0) {
-        LOGGER.info("The index for data file {} is more recent than the data file itself by {}ms : this is harmless.",
-          dataFile.getName(), -delta);
-      } else if (delta > TimeUnit.SECONDS.toMillis(1)) {
-        LOGGER.warn("The index for data file {} is out of date by {}ms, probably due to an unclean shutdown. Creating a new empty store.",
-          dataFile.getName(), delta);
-        return createBackingMap(size, keySerializer, valueSerializer, evictionAdvisor);
-      } else if (delta > 0) {
-        LOGGER.info("The index for data file {} is out of date by {}ms, assuming this small delta is a result of the OS/filesystem.",
-          dataFile.getName(), delta);
-      }
+  /**
+   * Rebuilds the store from the last checkpoint of the index.
+   * <p>
+   * The data file is moved aside and the mappings referenced by the checkpoint are copied into a new store, skipping
+   * the ones whose storage was reused or torn after the checkpoint was taken. Keys removed or updated after the
+   * checkpoint are dropped as well: their freed storage may still read back cleanly, but holds a removed or stale
+   * value. If the {@link CheckpointJournal} cannot tell which keys got mutated the store starts empty. The
+   * checkpointed index is only read, so a stale checkpoint cannot corrupt the allocation state of the new store.
+   */
+  private EhcachePersistentConcurrentOffHeapClockCache<K, OffHeapValueHolder<V>> salvageBackingMap(long size, Serializer<K> keySerializer, Serializer<V> valueSerializer, SwitchableEvictionAdvisor<K, OffHeapValueHolder<V>> evictionAdvisor, HeaderFormat persistedFormat) throws IOException {
+    File dataFile = getDataFile();
+    File checkpointFile = getCheckpointFile();
+    if (!checkpointFile.isFile()) {
+      LOGGER.warn("No checkpoint found for data file {}. Creating a new empty store.", dataFile.getName());
+      return createBackingMap(size, keySerializer, valueSerializer, evictionAdvisor);
+    }
 
-      MappedPageSource source = new MappedPageSource(dataFile, false, size);
-      try {
-        PersistentPortability<K> keyPortability = persistent(new SerializerPortability<>(keySerializer));
-        PersistentPortability<OffHeapValueHolder<V>> valuePortability = persistent(createValuePortability(valueSerializer));
-        DiskWriteThreadPool writeWorkers = new DiskWriteThreadPool(executionService, threadPoolAlias, writerConcurrency);
-
-        Factory<FileBackedStorageEngine<K, OffHeapValueHolder<V>>> storageEngineFactory = FileBackedStorageEngine.createFactory(source,
-          max((size / diskSegments) / 10, 1024), BYTES, keyPortability, valuePortability, writeWorkers, false);
-
-        EhcachePersistentSegmentFactory<K, OffHeapValueHolder<V>> factory = new EhcachePersistentSegmentFactory<>(
-          source,
-          storageEngineFactory,
-          64,
-          evictionAdvisor,
-          mapEvictionListener, false);
-        EhcachePersistentConcurrentOffHeapClockCache<K, OffHeapValueHolder<V>> m = new EhcachePersistentConcurrentOffHeapClockCache<>(input, evictionAdvisor, factory);
-
-        m.bootstrap(input);
-        return m;
-      } catch (IOException e) {
-        source.close();
-        throw e;
+    File salvageFile = getSalvageFile();
+    Files.move(dataFile.toPath(), salvageFile.toPath(), REPLACE_EXISTING);
+    try {
+      EhcachePersistentConcurrentOffHeapClockCache<K, OffHeapValueHolder<V>> m = createBackingMap(size, keySerializer, valueSerializer, evictionAdvisor);
+      try (FileInputStream fin = new FileInputStream(checkpointFile)) {
+        ObjectInputStream input = new ObjectInputStream(fin);
+        long checkpointTimestamp = input.readLong();
+        long generation = input.readLong();
+        Set<Integer> mutated = journal.mutatedSince(generation);
+        if (mutated == null) {
+          LOGGER.warn("The keys mutated since the last checkpoint of data file {} are unknown, starting from an empty store.", dataFile.getName());
+          return m;
+        }
+        int segmentCount = input.readInt();
+
+        MappedPageSource source = new MappedPageSource(salvageFile, false, size);
+        EhcachePersistentConcurrentOffHeapClockCache<K, OffHeapValueHolder<V>> checkpointed;
+        try {
+          EhcachePersistentSegmentFactory<K, OffHeapValueHolder<V>> factory = createSegmentFactory(source, size, keySerializer, valueSerializer, evictionAdvisor, persistedFormat, false, null);
+          checkpointed = new EhcachePersistentConcurrentOffHeapClockCache<>(evictionAdvisor, factory, segmentCount);
+          checkpointed.bootstrap(input);
+        } catch (IOException | RuntimeException e) {
+          source.close();
+          throw e;
+        }
+        try {
+          long[] dropped = new long[1];
+          long skipped = checkpointed.salvage((key, value) -> {
+            if (mutated.contains(key.hashCode())) {
+              dropped[0]++;
+            } else {
+              m.put(key, value);
+            }
+          });
+          LOGGER.info("Recovered {} entries of data file {} from the checkpoint taken {}ms before its last modification, {} unreadable entries skipped, {} entries mutated since dropped.",
+            m.longSize(), dataFile.getName(), salvageFile.lastModified() - checkpointTimestamp, skipped, dropped[0]);
+        } finally {
+          checkpointed.close();
+        }
+      } catch (Exception e) {
+        LOGGER.warn("Checkpoint for data file {} could not be read, starting from an empty store. {}", dataFile.getName(), e.getMessage());
+        LOGGER.debug("Exception during recovery", e);
       }
-    } catch (Exception e) {
-      LOGGER.info("Index file was corrupt. Deleting data file {}. {}", dataFile.getAbsolutePath(), e.getMessage());
-      LOGGER.debug("Exception during recovery", e);
-      return createBackingMap(size, keySerializer, valueSerializer, evictionAdvisor);
+      return m;
+    } finally {
+      if (!salvageFile.delete()) {
+        LOGGER.warn("Could not delete {}", salvageFile.getAbsolutePath());
+      }
+      deleteCheckpoint();
     }
   }
 
   private EhcachePersistentConcurrentOffHeapClockCache<K, OffHeapValueHolder<V>> createBackingMap(long size, Serializer<K> keySerializer, Serializer<V> valueSerializer, SwitchableEvictionAdvisor<K, OffHeapValueHolder<V>> evictionAdvisor) throws IOException {
     File metadataFile = getMetadataFile();
+    HeaderFormat format = newHeaderFormat(true);
     try (FileOutputStream fos = new FileOutputStream(metadataFile)) {
       Properties properties = new Properties();
       properties.put(KEY_TYPE_PROPERTY_NAME, keyType.getName());
       properties.put(VALUE_TYPE_PROPERTY_NAME, valueType.getName());
+      properties.put(VALUE_HEADER_VERSION_PROPERTY_NAME, Integer.toString(format.getVersion()));
+      properties.put(VALUE_HEADER_EPOCH_PROPERTY_NAME, Long.toString(format.getEpoch()));
+      properties.put(VALUE_HEADER_ETERNAL_PROPERTY_NAME, Boolean.toString(format.isEternal()));
       properties.store(fos, "Key and value types");
     }
 
     MappedPageSource source = new MappedPageSource(getDataFile(), size);
+    EhcachePersistentSegmentFactory<K, OffHeapValueHolder<V>> factory = createSegmentFactory(source, size, keySerializer, valueSerializer, evictionAdvisor, format, true, journal);
+    return new EhcachePersistentConcurrentOffHeapClockCache<>(evictionAdvisor, factory, diskSegments);
+
+  }
+
+  private EhcachePersistentSegmentFactory<K, OffHeapValueHolder<V>> createSegmentFactory(MappedPageSource source, long size, Serializer<K> keySerializer, Serializer<V> valueSerializer, SwitchableEvictionAdvisor<K, OffHeapValueHolder<V>> evictionAdvisor, HeaderFormat format, boolean bootstrap, CheckpointJournal journal) {
     PersistentPortability<K> keyPortability = persistent(new SerializerPortability<>(keySerializer));
-    PersistentPortability<OffHeapValueHolder<V>> valuePortability = persistent(createValuePortability(valueSerializer));
+    // no pooled encoding buffers: the disk tier writes asynchronously from the encoded buffers
+    PersistentPortability<OffHeapValueHolder<V>> valuePortability = persistent(createValuePortability(valueSerializer, format, null));
     DiskWriteThreadPool writeWorkers = new DiskWriteThreadPool(executionService, threadPoolAlias, writerConcurrency);
 
     Factory<FileBackedStorageEngine<K, OffHeapValueHolder<V>>> storageEngineFactory = FileBackedStorageEngine.createFactory(source,
-        max((size / diskSegments) / 10, 1024), BYTES, keyPortability, valuePortability, writeWorkers, true);
+        max((size / diskSegments) / 10, 1024), BYTES, keyPortability, valuePortability, writeWorkers, bootstrap);
 
-    EhcachePersistentSegmentFactory<K, OffHeapValueHolder<V>> factory = new EhcachePersistentSegmentFactory<>(
+    return new EhcachePersistentSegmentFactory<>(
       source,
       storageEngineFactory,
       64,
       evictionAdvisor,
-      mapEvictionListener, true);
-    return new EhcachePersistentConcurrentOffHeapClockCache<>(evictionAdvisor, factory, diskSegments);
+      mapEvictionListener, bootstrap, journal, checkpointGeneration);
+  }
+
+  /**
+   * Writes a checkpoint of the index next to the data file, from which the store is recovered after an unclean
+   * shutdown.
+   * <p>
+   * The checkpoint is written to a temporary file first and then moved in place, so that a crash while checkpointing
+   * leaves the previous checkpoint untouched. Each checkpoint gets a new generation in the {@link CheckpointJournal},
+   * unless the previous one failed in which case its generation is reused.
+   *
+   * @throws IOException if the checkpoint cannot be written
+   */
+  void checkpoint() throws IOException {
+    synchronized (checkpointLock) {
+      EhcachePersistentConcurrentOffHeapClockCache<K, OffHeapValueHolder<V>> localMap = map;
+      if (localMap == null) {
+        return;
+      }
+      long generation = checkpointGeneration;
+      journal.prepare(generation);
+      File checkpointFile = getCheckpointFile();
+      File pendingFile = new File(checkpointFile.getPath() + ".pending");
+      try (FileOutputStream fos = new FileOutputStream(pendingFile)) {
+        ObjectOutputStream output = new ObjectOutputStream(fos);
+        output.writeLong(System.currentTimeMillis());
+        output.writeLong(generation);
+        localMap.checkpoint(output, generation);
+        output.flush();
+        fos.getFD().sync();
+      }
+      Files.move(pendingFile.toPath(), checkpointFile.toPath(), ATOMIC_MOVE, REPLACE_EXISTING);
+      checkpointGeneration = generation + 1;
+    }
+  }
+
+  /**
+   * @return the generation of the last checkpoint, or {@code -1} if there is none
+   */
+  private long readCheckpointGeneration() {
+    File checkpointFile = getCheckpointFile();
+    if (checkpointFile.isFile()) {
+      try (FileInputStream fin = new FileInputStream(checkpointFile)) {
+        ObjectInputStream input = new ObjectInputStream(fin);
+        input.readLong();
+        return input.readLong();
+      } catch (IOException e) {
+        LOGGER.debug("Checkpoint of data file {} could not be read", getDataFile().getName(), e);
+      }
+    }
+    return -1L;
+  }
+
+  private void deleteCheckpoint() {
+    File checkpointFile = getCheckpointFile();
+    if (checkpointFile.isFile() && !checkpointFile.delete()) {
+      LOGGER.warn("Could not delete checkpoint file {}", checkpointFile.getAbsolutePath());
+    }
+  }
+
+  private void startCheckpoints() {
+    try {
+      checkpoint();
+    } catch (IOException e) {
+      LOGGER.warn("Could not checkpoint the index of data file {}", getDataFile().getName(), e);
+    }
+    deleteIndex();
+
+    long interval = getAdvancedLongConfigProperty(CHECKPOINT_INTERVAL_PROPERTY, CHECKPOINT_INTERVAL);
+    if (interval > 0) {
+      ScheduledExecutorService executor = executionService.getScheduledExecutor(threadPoolAlias);
+      checkpointExecutor = executor;
+      checkpointTask = executor.scheduleWithFixedDelay(() -> {
+        try {
+          checkpoint();
+        } catch (IOException | RuntimeException e) {
+          LOGGER.warn("Could not checkpoint the index of data file {}", getDataFile().getName(), e);
+        }
+      }, interval, interval, MILLISECONDS);
+    }
+  }
+
+  /*
+   * Once the store is opened the index is out of date: removing it makes sure an unclean shutdown always goes through
+   * the checkpoint.
+   */
+  private void deleteIndex() {
+    File indexFile = getIndexFile();
+    if (indexFile.isFile() && !indexFile.delete()) {
+      LOGGER.warn("Could not delete index file {}", indexFile.getAbsolutePath());
+    }
+  }
 
+  private void stopCheckpoints() {
+    ScheduledFuture<?> task = checkpointTask;
+    if (task != null) {
+      checkpointTask = null;
+      task.cancel(false);
+    }
+    ScheduledExecutorService executor = checkpointExecutor;
+    if (executor != null) {
+      checkpointExecutor = null;
+      shutdownNow(executor);
+    }
   }
 
   @Override
@@ -286,7 +597,7 @@ public class OffHeapDiskStore<K, V> extends AbstractOffHeapStore<K, V> implement
     return new File(fileBasedPersistenceContext.getDirectory(), "ehcache-disk-store.data");
   }
 
-  private File getIndexFile() {
+  File getIndexFile() {
     return new File(fileBasedPersistenceContext.getDirectory(), "ehcache-disk-store.index");
   }
 
@@ -294,6 +605,14 @@ public class OffHeapDiskStore<K, V> extends AbstractOffHeapStore<K, V> implement
     return new File(fileBasedPersistenceContext.getDirectory(), "ehcache-disk-store.meta");
   }
 
+  File getCheckpointFile() {
+    return new File(fileBasedPersistenceContext.getDirectory(), "ehcache-disk-store.checkpoint");
+  }
+
+  private File getSalvageFile() {
+    return new File(fileBasedPersistenceContext.getDirectory(), "ehcache-disk-store.salvage");
+  }
+
   @ServiceDependencies({TimeSourceService.class, SerializationProvider.class, ExecutionService.class, DiskResourceService.class})
   public static class Provider extends BaseStoreProvider implements AuthoritativeTier.Provider {
 
@@ -328,7 +647,8 @@ public class OffHeapDiskStore<K, V> extends AbstractOffHeapStore<K, V> implement
 
     @Override
     public <K, V> OffHeapDiskStore<K, V> createStore(Configuration<K, V> storeConfig, ServiceConfiguration<?, ?>... serviceConfigs) {
-      OffHeapDiskStore<K, V> store = createStoreInternal(storeConfig, new ThreadLocalStoreEventDispatcher<>(storeConfig.getDispatcherConcurrency()), serviceConfigs);
+      OffHeapDiskStore<K, V> store = createStoreInternal(storeConfig, new ThreadLocalStoreEventDispatcher<>(storeConfig.getDispatcherConcurrency(),
+        findSingletonAmongst(OrderedEventQueueConfiguration.class, (Object[]) serviceConfigs)), serviceConfigs);
 
       tierOperationStatistics.put(store, new OperationStatistic<?>[] {
         createTranslatedStatistic(store, "get", TierOperationOutcomes.GET_TRANSLATION, "get"),
@@ -374,6 +694,10 @@ public class OffHeapDiskStore<K, V> extends AbstractOffHeapStore<K, V> implement
         OffHeapDiskStore<K, V> offHeapStore = new OffHeapDiskStore<>(persistenceContext,
           executionService, threadPoolAlias, writerConcurrency, diskSegments,
           storeConfig, timeSource, eventDispatcher, unit.toBytes(diskPool.getSize()), getServiceProvider().getService(StatisticsService.class));
+        ExpiryReaperConfiguration expiryReaperConfiguration = findSingletonAmongst(ExpiryReaperConfiguration.class, (Object[]) serviceConfigs);
+        if (expiryReaperConfiguration != null) {
+          offHeapStore.enableExpiryReaper(expiryReaperConfiguration);
+        }
         createdStores.put(offHeapStore, space);
         return offHeapStore;
       } catch (CachePersistenceException cpex) {
@@ -397,15 +721,30 @@ public class OffHeapDiskStore<K, V> extends AbstractOffHeapStore<K, V> implement
     }
 
     static <K, V> void close(final OffHeapDiskStore<K, V> resource) throws IOException {
-      EhcachePersistentConcurrentOffHeapClockCache<K, OffHeapValueHolder<V>> localMap = resource.map;
-      if (localMap != null) {
-        resource.map = null;
-        localMap.flush();
-        try (ObjectOutputStream output = new ObjectOutputStream(new FileOutputStream(resource.getIndexFile()))) {
-          output.writeLong(System.currentTimeMillis());
-          localMap.persist(output);
+      boolean recovered = resource.awaitRecovery();
+      resource.stopExpiryReaper();
+      resource.stopCheckpoints();
+      synchronized (resource.checkpointLock) {
+        EhcachePersistentConcurrentOffHeapClockCache<K, OffHeapValueHolder<V>> localMap = resource.map;
+        if (localMap != null) {
+          resource.map = null;
+          if (recovered) {
+            localMap.flush();
+            try (ObjectOutputStream output = new ObjectOutputStream(new FileOutputStream(resource.getIndexFile()))) {
+              output.writeLong(System.currentTimeMillis());
+              localMap.persistSegments(output);
+            }
+          } else {
+            LOGGER.warn("Not persisting the index of partially recovered data file {}, it will be recovered from its last checkpoint.",
+              resource.getDataFile().getName());
+          }
+          localMap.close();
+        }
+        CheckpointJournal localJournal = resource.journal;
+        if (localJournal != null) {
+          resource.journal = null;
+          localJournal.close();
         }
-        localMap.close();
       }
     }
 
@@ -443,6 +782,21 @@ public class OffHeapDiskStore<K, V> extends AbstractOffHeapStore<K, V> implement
 
     static <K, V> void init(final OffHeapDiskStore<K, V> resource) {
       resource.map = resource.getBackingMap(resource.sizeInBytes, resource.keySerializer, resource.valueSerializer, resource.evictionAdvisor);
+      resource.startExpiryReaper(resource.executionService);
+      CompletableFuture<Void> recovery = resource.recovery;
+      if (recovery == null) {
+        resource.startCheckpoints();
+      } else {
+        resource.deleteIndex();
+        resource.recovery = recovery.whenComplete((v, t) -> {
+          if (t == null) {
+            LOGGER.info("Data file {} fully recovered", resource.getDataFile().getName());
+            resource.startCheckpoints();
+          } else {
+            LOGGER.error("Data file {} could not be fully recovered, the affected segments are unavailable", resource.getDataFile().getName(), t);
+          }
+        });
+      }
     }
 
     @Override
@@ -467,7 +821,7 @@ public class OffHeapDiskStore<K, V> extends AbstractOffHeapStore<K, V> implement
     @Override
     public <K, V> AuthoritativeTier<K, V> createAuthoritativeTier(Configuration<K, V> storeConfig, ServiceConfiguration<?, ?>... serviceConfigs) {
       OffHeapDiskStore<K, V> authoritativeTier = createStoreInternal(storeConfig, new ThreadLocalStoreEventDispatcher<>(storeConfig
-        .getDispatcherConcurrency()), serviceConfigs);
+        .getDispatcherConcurrency(), findSingletonAmongst(OrderedEventQueueConfiguration.class, (Object[]) serviceConfigs)), serviceConfigs);
 
       tierOperationStatistics.put(authoritativeTier, new OperationStatistic<?>[] {
         createTranslatedStatistic(authoritativeTier, "get", TierOperationOutcomes.GET_AND_FAULT_TRANSLATION, "getAndFault"),
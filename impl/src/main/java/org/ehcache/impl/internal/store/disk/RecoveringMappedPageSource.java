@@ -0,0 +1,78 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ehcache.impl.internal.store.disk;
+
+import org.terracotta.offheapstore.disk.paging.MappedPage;
+import org.terracotta.offheapstore.disk.paging.MappedPageSource;
+import org.terracotta.offheapstore.paging.OffHeapStorageArea;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * A {@link MappedPageSource} holding back new allocations while the segments of a disk store are bootstrapped in the
+ * background.
+ * <p>
+ * Each segment claims the regions it references as it bootstraps, so until all of them are done an allocation could be
+ * handed a region still owned by a segment waiting for its turn.
+ */
+class RecoveringMappedPageSource extends MappedPageSource {
+
+  private final CountDownLatch recovered = new CountDownLatch(1);
+
+  RecoveringMappedPageSource(File file, long size) throws IOException {
+    super(file, false, size);
+  }
+
+  /**
+   * Releases the allocations held back so far, once every segment has claimed its regions.
+   */
+  void recovered() {
+    recovered.countDown();
+  }
+
+  @Override
+  public Long allocateRegion(long size) {
+    awaitRecovery();
+    return super.allocateRegion(size);
+  }
+
+  @Override
+  public MappedPage allocate(int size, boolean thief, boolean victim, OffHeapStorageArea owner) {
+    awaitRecovery();
+    return super.allocate(size, thief, victim, owner);
+  }
+
+  private void awaitRecovery() {
+    boolean interrupted = false;
+    try {
+      while (true) {
+        try {
+          recovered.await();
+          return;
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ehcache.impl.internal.store.disk.factories;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records the hash of every key removed or updated in a disk store since its last committed checkpoint.
+ * <p>
+ * The checkpointed index references storage that may have been freed since, yet still reads back cleanly. Recovery uses
+ * this journal to drop those mappings rather than bring back removed or replaced values.
+ * <p>
+ * Each segment writes to the journal of its own checkpoint generation: a segment moves to generation {@code g + 1} as
+ * soon as it has been persisted in checkpoint {@code g + 1}. Recovering from checkpoint {@code g} therefore needs the
+ * entries of generations {@code g} and {@code g + 1}, which are kept in two memory mapped files used in turn. A file
+ * is only reset when a checkpoint of a new generation starts, that is once the generation it held got superseded by a
+ * committed checkpoint. Being mapped, the files survive a crash of the JVM.
+ */
+public class CheckpointJournal implements Closeable {
+
+  private static final int GENERATION_OFFSET = 0;
+  private static final int FLAGS_OFFSET = 8;
+  private static final int ENTRIES_OFFSET = 16;
+  private static final int ENTRY_SIZE = 8;
+
+  private static final int OVERFLOWED = 1;
+  private static final int CLEARED = 2;
+
+  private static final long PRESENT = 1L << 32;
+
+  private final Generation[] generations;
+  private final int capacity;
+
+  /**
+   * Opens the journal files of a store, creating them if needed.
+   *
+   * @param directory the directory of the store
+   * @param capacity the number of keys each generation can record, beyond which recovery starts from an empty store
+   * @throws IOException if the files cannot be opened
+   */
+  public CheckpointJournal(File directory, int capacity) throws IOException {
+    this.capacity = capacity;
+    this.generations = new Generation[] {
+      new Generation(new File(directory, "ehcache-disk-store.journal.0")),
+      new Generation(new File(directory, "ehcache-disk-store.journal.1"))
+    };
+  }
+
+  /**
+   * Gets the file of a generation ready to record mutations, resetting it if it still holds an older generation.
+   * <p>
+   * Must be called before any segment moves to {@code generation}, and only once the checkpoint of
+   * {@code generation - 2} is no longer the last committed one.
+   *
+   * @param generation the generation of the checkpoint about to be taken
+   */
+  public void prepare(long generation) {
+    Generation file = generations[(int) (generation & 1)];
+    if (file.generation() != generation) {
+      file.reset(generation);
+    }
+  }
+
+  /**
+   * Records a key removed or updated in a segment of the given generation.
+   *
+   * @param generation the generation of the segment
+   * @param hash the hash of the key
+   */
+  public void record(long generation, int hash) {
+    generations[(int) (generation & 1)].record(hash);
+  }
+
+  /**
+   * Records a segment of the given generation being cleared.
+   *
+   * @param generation the generation of the segment
+   */
+  public void recordClear(long generation) {
+    generations[(int) (generation & 1)].flag(CLEARED);
+  }
+
+  /**
+   * Collects the hashes of the keys mutated since the given checkpoint was taken.
+   *
+   * @param generation the generation of the checkpoint
+   * @return the hashes of the mutated keys, or {@code null} if the journal cannot tell which keys got mutated
+   */
+  public Set<Integer> mutatedSince(long generation) {
+    Set<Integer> hashes = new HashSet<>();
+    boolean found = false;
+    for (Generation file : generations) {
+      long fileGeneration = file.generation();
+      if (fileGeneration == generation || fileGeneration == generation + 1) {
+        found |= fileGeneration == generation;
+        if ((file.flags() & (OVERFLOWED | CLEARED)) != 0) {
+          return null;
+        }
+        file.collect(hashes);
+      }
+    }
+    return found ? hashes : null;
+  }
+
+  @Override
+  public void close() {
+    for (Generation file : generations) {
+      file.force();
+    }
+  }
+
+  private class Generation {
+
+    private final MappedByteBuffer buffer;
+    private final AtomicInteger cursor;
+
+    Generation(File file) throws IOException {
+      boolean exists = file.isFile();
+      long size = ENTRIES_OFFSET + (long) capacity * ENTRY_SIZE;
+      boolean resized;
+      try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+        resized = exists && raf.length() != size;
+        buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+      }
+      if (!exists) {
+        buffer.putLong(GENERATION_OFFSET, -1L);
+      } else if (resized) {
+        // written with another capacity, some of its entries may not be readable
+        flag(OVERFLOWED);
+      }
+      int used = 0;
+      for (int i = 0; i < capacity; i++) {
+        if (buffer.getLong(ENTRIES_OFFSET + i * ENTRY_SIZE) != 0L) {
+          used = i + 1;
+        }
+      }
+      cursor = new AtomicInteger(used);
+    }
+
+    long generation() {
+      return buffer.getLong(GENERATION_OFFSET);
+    }
+
+    int flags() {
+      return buffer.getInt(FLAGS_OFFSET);
+    }
+
+    synchronized void flag(int flag) {
+      buffer.putInt(FLAGS_OFFSET, flags() | flag);
+    }
+
+    void record(int hash) {
+      int index = cursor.getAndIncrement();
+      if (index < capacity) {
+        buffer.putLong(ENTRIES_OFFSET + index * ENTRY_SIZE, PRESENT | (hash & 0xffffffffL));
+      } else if ((flags() & OVERFLOWED) == 0) {
+        flag(OVERFLOWED);
+      }
+    }
+
+    void collect(Set<Integer> hashes) {
+      int used = Math.min(cursor.get(), capacity);
+      for (int i = 0; i < used; i++) {
+        long entry = buffer.getLong(ENTRIES_OFFSET + i * ENTRY_SIZE);
+        if (entry != 0L) {
+          hashes.add((int) entry);
+        }
+      }
+    }
+
+    void reset(long generation) {
+      int used = Math.min(cursor.get(), capacity);
+      for (int i = 0; i < used; i++) {
+        buffer.putLong(ENTRIES_OFFSET + i * ENTRY_SIZE, 0L);
+      }
+      cursor.set(0);
+      buffer.putInt(FLAGS_OFFSET, 0);
+      buffer.putLong(GENERATION_OFFSET, generation);
+      buffer.force();
+    }
+
+    void force() {
+      buffer.force();
+    }
+  }
+}
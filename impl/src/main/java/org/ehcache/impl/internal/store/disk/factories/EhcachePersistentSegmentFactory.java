@@ -22,16 +22,23 @@ import org.ehcache.impl.internal.store.offheap.factories.EhcacheSegmentFactory.E
 import org.ehcache.impl.internal.store.offheap.factories.EhcacheSegmentFactory.EhcacheSegment.EvictionListener;
 import org.terracotta.offheapstore.Metadata;
 import org.terracotta.offheapstore.disk.paging.MappedPageSource;
+import org.terracotta.offheapstore.disk.persistent.Persistent;
 import org.terracotta.offheapstore.disk.persistent.PersistentReadWriteLockedOffHeapClockCache;
 import org.terracotta.offheapstore.disk.persistent.PersistentStorageEngine;
 import org.terracotta.offheapstore.pinning.PinnableSegment;
+import org.terracotta.offheapstore.storage.BinaryStorageEngine;
 import org.terracotta.offheapstore.util.Factory;
 
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.nio.IntBuffer;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.locks.Lock;
+import java.util.function.BiConsumer;
 
 import static org.ehcache.impl.internal.store.offheap.factories.EhcacheSegmentFactory.EhcacheSegment.ADVISED_AGAINST_EVICTION;
 
@@ -50,19 +57,35 @@ public class EhcachePersistentSegmentFactory<K, V> implements Factory<PinnableSe
 
   private final boolean bootstrap;
 
+  private final CheckpointJournal journal;
+  private final long generation;
+
   public EhcachePersistentSegmentFactory(MappedPageSource source, Factory<? extends PersistentStorageEngine<? super K, ? super V>> storageEngineFactory, int initialTableSize, SwitchableEvictionAdvisor<? super K, ? super V> evictionAdvisor, EhcacheSegment.EvictionListener<K, V> evictionListener, boolean bootstrap) {
+    this(source, storageEngineFactory, initialTableSize, evictionAdvisor, evictionListener, bootstrap, null, 0L);
+  }
+
+  /**
+   * Creates a factory of segments recording their removed and updated keys in the given journal.
+   *
+   * @param journal the journal of the mutations since the last checkpoint, {@code null} to record none
+   * @param generation the checkpoint generation the segments start in
+   */
+  public EhcachePersistentSegmentFactory(MappedPageSource source, Factory<? extends PersistentStorageEngine<? super K, ? super V>> storageEngineFactory, int initialTableSize, SwitchableEvictionAdvisor<? super K, ? super V> evictionAdvisor, EhcacheSegment.EvictionListener<K, V> evictionListener, boolean bootstrap,
+                                         CheckpointJournal journal, long generation) {
     this.storageEngineFactory = storageEngineFactory;
     this.tableSource = source;
     this.tableSize = initialTableSize;
     this.evictionAdvisor = evictionAdvisor;
     this.evictionListener = evictionListener;
     this.bootstrap = bootstrap;
+    this.journal = journal;
+    this.generation = generation;
   }
 
   public EhcachePersistentSegment<K, V> newInstance() {
     PersistentStorageEngine<? super K, ? super V> storageEngine = storageEngineFactory.newInstance();
     try {
-      return new EhcachePersistentSegment<>(tableSource, storageEngine, tableSize, bootstrap, evictionAdvisor, evictionListener);
+      return new EhcachePersistentSegment<>(tableSource, storageEngine, tableSize, bootstrap, evictionAdvisor, evictionListener, journal, generation);
     } catch (RuntimeException e) {
       storageEngine.destroy();
       throw e;
@@ -74,10 +97,103 @@ public class EhcachePersistentSegmentFactory<K, V> implements Factory<PinnableSe
     private final SwitchableEvictionAdvisor<? super K, ? super V> evictionAdvisor;
     private final EvictionListener<K, V> evictionListener;
 
+    private volatile CountDownLatch pendingBootstrap;
+    private volatile Thread bootstrapThread;
+    private volatile Throwable bootstrapFailure;
+
+    private final CheckpointJournal journal;
+    private volatile long generation;
+
     EhcachePersistentSegment(MappedPageSource source, PersistentStorageEngine<? super K, ? super V> storageEngine, int tableSize, boolean bootstrap, SwitchableEvictionAdvisor<? super K, ? super V> evictionAdvisor, EvictionListener<K, V> evictionListener) {
+      this(source, storageEngine, tableSize, bootstrap, evictionAdvisor, evictionListener, null, 0L);
+    }
+
+    EhcachePersistentSegment(MappedPageSource source, PersistentStorageEngine<? super K, ? super V> storageEngine, int tableSize, boolean bootstrap, SwitchableEvictionAdvisor<? super K, ? super V> evictionAdvisor, EvictionListener<K, V> evictionListener,
+                             CheckpointJournal journal, long generation) {
       super(source, storageEngine, tableSize, bootstrap);
       this.evictionAdvisor = evictionAdvisor;
       this.evictionListener = evictionListener;
+      this.journal = journal;
+      this.generation = generation;
+    }
+
+    /**
+     * Marks this segment as bootstrapped in the background: until {@link #bootstrap(ObjectInput)} completes, any other
+     * thread acquiring one of its locks waits for it.
+     */
+    public void deferBootstrap() {
+      pendingBootstrap = new CountDownLatch(1);
+    }
+
+    /**
+     * @return {@code true} if this segment is still waiting for its deferred bootstrap
+     */
+    public boolean isBootstrapPending() {
+      return pendingBootstrap != null;
+    }
+
+    @Override
+    public void bootstrap(ObjectInput input) throws IOException {
+      bootstrapThread = Thread.currentThread();
+      try {
+        super.bootstrap(input);
+      } catch (IOException | RuntimeException e) {
+        bootstrapFailure = e;
+        throw e;
+      } finally {
+        bootstrapThread = null;
+        CountDownLatch latch = pendingBootstrap;
+        if (latch != null) {
+          pendingBootstrap = null;
+          latch.countDown();
+        }
+      }
+    }
+
+    private void awaitBootstrap() {
+      CountDownLatch latch = pendingBootstrap;
+      if (latch != null && bootstrapThread != Thread.currentThread()) {
+        boolean interrupted = false;
+        try {
+          while (true) {
+            try {
+              latch.await();
+              break;
+            } catch (InterruptedException e) {
+              interrupted = true;
+            }
+          }
+        } finally {
+          if (interrupted) {
+            Thread.currentThread().interrupt();
+          }
+        }
+      }
+      Throwable failure = bootstrapFailure;
+      if (failure != null) {
+        throw new IllegalStateException("Segment could not be recovered", failure);
+      }
+    }
+
+    @Override
+    public Lock readLock() {
+      awaitBootstrap();
+      return super.readLock();
+    }
+
+    @Override
+    public Lock writeLock() {
+      awaitBootstrap();
+      return super.writeLock();
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (bootstrapFailure == null) {
+        super.close();
+      } else {
+        ((Persistent) storageEngine).close();
+      }
     }
 
     @Override
@@ -117,6 +233,99 @@ public class EhcachePersistentSegmentFactory<K, V> implements Factory<PinnableSe
       }
     }
 
+    @Override
+    protected void removed(int position, IntBuffer entry) {
+      if (journal != null) {
+        journal.record(generation, entry.get(KEY_HASHCODE));
+      }
+    }
+
+    @Override
+    protected void updated(int position, IntBuffer entry) {
+      if (journal != null) {
+        journal.record(generation, entry.get(KEY_HASHCODE));
+      }
+    }
+
+    @Override
+    public void clear() {
+      super.clear();
+      if (journal != null) {
+        journal.recordClear(generation);
+      }
+    }
+
+    /**
+     * Flushes and persists this segment under a single write lock acquisition, so that the persisted index only
+     * references mappings already written to disk.
+     * <p>
+     * Once persisted, the segment records its mutations in the journal of the new checkpoint generation.
+     *
+     * @param output the output to persist the index to
+     * @param generation the generation of the checkpoint
+     * @throws IOException if the segment cannot be flushed or persisted
+     */
+    public void checkpoint(ObjectOutput output, long generation) throws IOException {
+      Lock lock = writeLock();
+      lock.lock();
+      try {
+        flush();
+        persist(output);
+        this.generation = generation;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /**
+     * Hands over the mappings of this segment that can still be read back, skipping the ones whose storage got
+     * reused or torn since the index was persisted.
+     * <p>
+     * Storage freed but not reused still reads back cleanly: callers have to drop the keys mutated since the index
+     * was persisted, as recorded in the {@link CheckpointJournal}.
+     *
+     * @param consumer the consumer of the readable mappings
+     * @return the number of mappings skipped
+     */
+    @SuppressWarnings("unchecked")
+    public long salvage(BiConsumer<? super K, ? super V> consumer) {
+      long skipped = 0;
+      Lock lock = readLock();
+      lock.lock();
+      try {
+        IntBuffer table = hashtable.duplicate();
+        for (int offset = 0; offset < table.capacity(); offset += ENTRY_SIZE) {
+          IntBuffer entry = ((IntBuffer) table.duplicate().position(offset).limit(offset + ENTRY_SIZE)).slice();
+          if (isPresent(entry)) {
+            int hash = entry.get(KEY_HASHCODE);
+            long encoding = readLong(entry, ENCODING);
+            K key;
+            V value;
+            try {
+              if (storageEngine instanceof BinaryStorageEngine && ((BinaryStorageEngine) storageEngine).readKeyHash(encoding) != hash) {
+                skipped++;
+                continue;
+              }
+              key = (K) storageEngine.readKey(encoding, hash);
+              value = (V) storageEngine.readValue(encoding);
+              ((Store.ValueHolder<?>) value).get();
+            } catch (RuntimeException e) {
+              skipped++;
+              continue;
+            }
+            if (key.hashCode() == hash) {
+              consumer.accept(key, value);
+            } else {
+              skipped++;
+            }
+          }
+        }
+      } finally {
+        lock.unlock();
+      }
+      return skipped;
+    }
+
     @Override
     protected Set<Entry<K, V>> createEntrySet() {
       return new EntrySet();
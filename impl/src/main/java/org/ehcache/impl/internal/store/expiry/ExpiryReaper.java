@@ -0,0 +1,273 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ehcache.impl.internal.store.expiry;
+
+import org.ehcache.core.spi.service.ExecutionService;
+import org.ehcache.core.spi.time.TimeSource;
+import org.ehcache.impl.config.store.ExpiryReaperConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.ehcache.impl.internal.executor.ExecutorUtil.shutdownNow;
+
+/**
+ * Proactively removes expired mappings from a store.
+ * <p>
+ * Stores {@link #schedule(Object, long) schedule} keys as they create mappings with a finite expiration time. The
+ * scheduling is a lock free enqueue: the reaper task moves the queued keys into a {@link TimingWheel} and then offers
+ * at most {@link ExpiryReaperConfiguration#getMaxReapsPerTick()} due keys per run back to the store's {@link Target},
+ * which removes the mappings that actually expired. A key scheduled several times is only offered once, for its
+ * earliest expiration time.
+ * <p>
+ * Stores {@link #unschedule(Object) unschedule} the keys they remove or evict, so that the reaper does not keep them
+ * reachable until their expiration time. The reaper never tracks more than
+ * {@link ExpiryReaperConfiguration#getMaxScheduledKeys()} keys, further schedules are dropped.
+ * <p>
+ * Reaping is best effort: mappings whose expiration got pushed back are expected to be scheduled again by the target,
+ * and expired mappings not reaped yet, dropped ones included, are still expired lazily when accessed.
+ *
+ * @param <K> the key type
+ */
+public final class ExpiryReaper<K> {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ExpiryReaper.class);
+
+  /**
+   * Value returned by {@link Target#reap(Object, long)} when no mapping was removed.
+   */
+  public static final long NOT_REAPED = -1L;
+
+  private static final long UNSCHEDULED = Long.MIN_VALUE;
+
+  /**
+   * The store side of the reaper.
+   *
+   * @param <K> the key type
+   */
+  @FunctionalInterface
+  public interface Target<K> {
+
+    /**
+     * Removes the mapping of the given key if it expired, firing the events a lazy expiration would.
+     * <p>
+     * Targets are expected to {@link #schedule(Object, long) schedule} the key again when its mapping is still alive
+     * with a finite expiration time.
+     *
+     * @param key the due key
+     * @param now the current time
+     * @return the number of bytes reclaimed by the removal, {@link #NOT_REAPED} if no mapping was removed
+     */
+    long reap(K key, long now);
+  }
+
+  private final Target<K> target;
+  private final TimeSource timeSource;
+  private final long tickMillis;
+  private final int maxReapsPerTick;
+  private final int maxScheduledKeys;
+  private final String threadPoolAlias;
+
+  private final Queue<TimingWheel.Entry<K>> incoming = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger incomingCount = new AtomicInteger();
+  private final AtomicBoolean clearRequested = new AtomicBoolean();
+  private final TimingWheel<K> wheel;
+  private final Map<K, TimingWheel.Entry<K>> pending = new HashMap<>();
+
+  private final LongAdder reapedMappings = new LongAdder();
+  private final LongAdder reclaimedBytes = new LongAdder();
+
+  private volatile ScheduledExecutorService executor;
+  private volatile ScheduledFuture<?> task;
+
+  public ExpiryReaper(ExpiryReaperConfiguration configuration, TimeSource timeSource, Target<K> target) {
+    this.target = target;
+    this.timeSource = timeSource;
+    this.tickMillis = configuration.getTickInterval().toMillis();
+    this.maxReapsPerTick = configuration.getMaxReapsPerTick();
+    this.maxScheduledKeys = configuration.getMaxScheduledKeys();
+    this.threadPoolAlias = configuration.getThreadPoolAlias();
+    this.wheel = new TimingWheel<>(tickMillis, timeSource.getTimeMillis());
+  }
+
+  /**
+   * Schedules the given key for reaping once its mapping's expiration time has passed.
+   * <p>
+   * Safe to call from any thread.
+   *
+   * @param key the key to schedule
+   * @param expirationTime the expiration time of the key's mapping
+   */
+  public void schedule(K key, long expirationTime) {
+    enqueue(new TimingWheel.Entry<>(key, expirationTime));
+  }
+
+  /**
+   * Stops tracking the given key, whose mapping got removed or evicted.
+   * <p>
+   * Safe to call from any thread.
+   *
+   * @param key the key to unschedule
+   */
+  public void unschedule(K key) {
+    enqueue(new TimingWheel.Entry<>(key, UNSCHEDULED));
+  }
+
+  /**
+   * Stops tracking all keys scheduled so far, the store got cleared.
+   * <p>
+   * Safe to call from any thread.
+   */
+  public void unscheduleAll() {
+    clearRequested.set(true);
+  }
+
+  private void enqueue(TimingWheel.Entry<K> entry) {
+    if (incomingCount.incrementAndGet() > maxScheduledKeys) {
+      // backlog full, the reaper is lagging behind: the key is left to lazy expiry
+      incomingCount.decrementAndGet();
+    } else {
+      incoming.offer(entry);
+    }
+  }
+
+  /**
+   * Starts reaping every tick interval, on the configured thread pool.
+   *
+   * @param executionService the execution service providing the thread pool
+   */
+  public void start(ExecutionService executionService) {
+    ScheduledExecutorService executor = executionService.getScheduledExecutor(threadPoolAlias);
+    this.executor = executor;
+    this.task = executor.scheduleWithFixedDelay(() -> {
+      try {
+        tick();
+      } catch (RuntimeException e) {
+        LOGGER.warn("Expiry reaper run failed", e);
+      }
+    }, tickMillis, tickMillis, MILLISECONDS);
+  }
+
+  /**
+   * Stops reaping, pending keys are dropped.
+   */
+  public void stop() {
+    ScheduledFuture<?> task = this.task;
+    if (task != null) {
+      this.task = null;
+      task.cancel(false);
+    }
+    ScheduledExecutorService executor = this.executor;
+    if (executor != null) {
+      this.executor = null;
+      shutdownNow(executor);
+    }
+  }
+
+  /**
+   * Runs a single reaper pass.
+   * <p>
+   * Must not be called concurrently with itself.
+   */
+  void tick() {
+    long now = timeSource.getTimeMillis();
+    if (clearRequested.getAndSet(false)) {
+      pending.values().forEach(TimingWheel.Entry::cancel);
+      pending.clear();
+    }
+    for (TimingWheel.Entry<K> entry; (entry = incoming.poll()) != null; ) {
+      incomingCount.decrementAndGet();
+      TimingWheel.Entry<K> scheduled = pending.get(entry.key);
+      if (entry.expirationTime == UNSCHEDULED) {
+        if (scheduled != null) {
+          pending.remove(entry.key);
+          scheduled.cancel();
+        }
+      } else if (scheduled == null) {
+        if (wheel.size() >= maxScheduledKeys && pending.size() <= maxScheduledKeys / 2) {
+          // mostly cancelled entries, purging them is amortized over at least half the cap
+          wheel.purgeCancelled();
+        }
+        if (wheel.size() < maxScheduledKeys) {
+          pending.put(entry.key, entry);
+          wheel.schedule(entry);
+        }
+      } else if (entry.expirationTime < scheduled.expirationTime) {
+        scheduled.cancel();
+        pending.put(entry.key, entry);
+        wheel.schedule(entry);
+      }
+    }
+
+    wheel.advance(now);
+    for (int reaps = 0; reaps < maxReapsPerTick; ) {
+      TimingWheel.Entry<K> entry = wheel.pollDue();
+      if (entry == null) {
+        break;
+      }
+      K key = entry.key;
+      if (key == null) {
+        // unscheduled, or superseded by an earlier schedule of the same key
+        continue;
+      }
+      reaps++;
+      pending.remove(key);
+      long reclaimed = target.reap(key, now);
+      if (reclaimed != NOT_REAPED) {
+        reapedMappings.increment();
+        reclaimedBytes.add(reclaimed);
+      }
+    }
+  }
+
+  /**
+   * Returns the number of mappings removed by this reaper.
+   *
+   * @return the reaped mapping count
+   */
+  public long getReapedMappings() {
+    return reapedMappings.sum();
+  }
+
+  /**
+   * Returns the number of bytes reclaimed by the mappings this reaper removed.
+   *
+   * @return the reclaimed byte count, zero for stores that do not size their mappings
+   */
+  public long getReclaimedBytes() {
+    return reclaimedBytes.sum();
+  }
+
+  /**
+   * Returns the number of keys currently tracked by this reaper.
+   *
+   * @return the tracked key count
+   */
+  int getScheduledKeys() {
+    return pending.size();
+  }
+}
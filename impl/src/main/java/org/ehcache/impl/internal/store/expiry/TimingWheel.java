@@ -0,0 +1,199 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ehcache.impl.internal.store.expiry;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A hierarchical timing wheel bucketing keys by the tick at which their mapping expires.
+ * <p>
+ * Each level holds {@value #WHEEL_SIZE} slots, a slot on level {@code n} spanning {@code WHEEL_SIZE^n} ticks. A key is
+ * placed on the lowest level able to tell its tick apart from the current one and cascades down as the wheel turns, so
+ * that scheduling a key and finding it once due are both constant time operations. Deadlines beyond the top level
+ * wait in an overflow bucket redistributed on every top level rotation.
+ * <p>
+ * Instances are not thread safe, they are driven by a single reaper thread.
+ *
+ * @param <K> the key type
+ */
+final class TimingWheel<K> {
+
+  static final int WHEEL_BITS = 6;
+  static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+  static final int LEVELS = 4;
+
+  private static final long WHEEL_MASK = WHEEL_SIZE - 1;
+
+  private final long tickMillis;
+  private final List<ArrayDeque<Entry<K>>> slots = new ArrayList<>(LEVELS * WHEEL_SIZE);
+  private final ArrayDeque<Entry<K>> overflow = new ArrayDeque<>();
+  private final ArrayDeque<Entry<K>> due = new ArrayDeque<>();
+
+  private long currentTick;
+  private long scheduled;
+
+  TimingWheel(long tickMillis, long now) {
+    if (tickMillis <= 0) {
+      throw new IllegalArgumentException("Tick must be positive: " + tickMillis);
+    }
+    this.tickMillis = tickMillis;
+    this.currentTick = now / tickMillis;
+    for (int i = 0; i < LEVELS * WHEEL_SIZE; i++) {
+      slots.add(new ArrayDeque<>());
+    }
+  }
+
+  /**
+   * Schedules the given key for its mapping's expiration time.
+   * <p>
+   * Keys are due on the first tick starting at or after their expiration time, so they are never due early. Keys whose
+   * expiration time is not after the start of the current tick are immediately due.
+   *
+   * @param key the key to schedule
+   * @param expirationTime the expiration time of the key's mapping
+   */
+  void schedule(K key, long expirationTime) {
+    schedule(new Entry<>(key, expirationTime));
+  }
+
+  /**
+   * Schedules the given entry, which keeps counting in the {@link #size() size} of this wheel until due even if
+   * {@link Entry#cancel() cancelled}.
+   *
+   * @param entry the entry to schedule
+   */
+  void schedule(Entry<K> entry) {
+    insert(entry);
+    scheduled++;
+  }
+
+  /**
+   * Turns the wheel up to the tick containing {@code now}, making due all keys expired by the start of that tick.
+   *
+   * @param now the current time
+   */
+  void advance(long now) {
+    long target = now / tickMillis;
+    if (scheduled == due.size()) {
+      // nothing left on the wheel, no need to walk it tick by tick
+      currentTick = Math.max(currentTick, target);
+      return;
+    }
+    while (currentTick < target) {
+      long tick = ++currentTick;
+      if ((tick & ((1L << (WHEEL_BITS * LEVELS)) - 1)) == 0) {
+        cascade(overflow);
+      }
+      for (int level = LEVELS - 1; level > 0; level--) {
+        if ((tick & ((1L << (WHEEL_BITS * level)) - 1)) == 0) {
+          cascade(slot(level, tick));
+        }
+      }
+      due.addAll(slot(0, tick));
+      slot(0, tick).clear();
+    }
+  }
+
+  /**
+   * Removes and returns the next due entry.
+   *
+   * @return the next due entry, {@code null} if none is due
+   */
+  Entry<K> pollDue() {
+    Entry<K> entry = due.poll();
+    if (entry != null) {
+      scheduled--;
+    }
+    return entry;
+  }
+
+  /**
+   * Removes all {@link Entry#cancel() cancelled} entries from this wheel.
+   */
+  void purgeCancelled() {
+    for (ArrayDeque<Entry<K>> slot : slots) {
+      purgeCancelled(slot);
+    }
+    purgeCancelled(overflow);
+    purgeCancelled(due);
+  }
+
+  private void purgeCancelled(ArrayDeque<Entry<K>> bucket) {
+    int count = bucket.size();
+    bucket.removeIf(entry -> entry.key == null);
+    scheduled -= count - bucket.size();
+  }
+
+  /**
+   * Returns the number of entries scheduled on this wheel, due and cancelled ones included.
+   *
+   * @return the number of scheduled entries
+   */
+  long size() {
+    return scheduled;
+  }
+
+  private void cascade(ArrayDeque<Entry<K>> bucket) {
+    int count = bucket.size();
+    for (int i = 0; i < count; i++) {
+      insert(bucket.poll());
+    }
+  }
+
+  private void insert(Entry<K> entry) {
+    long tick = entry.expirationTime / tickMillis + (entry.expirationTime % tickMillis == 0 ? 0 : 1);
+    if (tick <= currentTick) {
+      due.add(entry);
+    } else {
+      int level = (Long.SIZE - 1 - Long.numberOfLeadingZeros(tick ^ currentTick)) / WHEEL_BITS;
+      if (level < LEVELS) {
+        slot(level, tick).add(entry);
+      } else {
+        overflow.add(entry);
+      }
+    }
+  }
+
+  private ArrayDeque<Entry<K>> slot(int level, long tick) {
+    return slots.get(level * WHEEL_SIZE + (int) ((tick >>> (WHEEL_BITS * level)) & WHEEL_MASK));
+  }
+
+  /**
+   * A key scheduled for the expiration time of its mapping.
+   *
+   * @param <K> the key type
+   */
+  static final class Entry<K> {
+
+    K key;
+    final long expirationTime;
+
+    Entry(K key, long expirationTime) {
+      this.key = key;
+      this.expirationTime = expirationTime;
+    }
+
+    /**
+     * Releases the key of this entry, which is then skipped once due.
+     */
+    void cancel() {
+      key = null;
+    }
+  }
+}
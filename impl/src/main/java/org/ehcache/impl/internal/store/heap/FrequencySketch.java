@@ -0,0 +1,146 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ehcache.impl.internal.store.heap;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-min sketch estimating the recent access frequency of keys, with 4-bit counters.
+ * <p>
+ * Each key maps to four counters, all in the same group of 16 counters packed in one {@code long} per row.
+ * Counters saturate at 15 and, once the number of increments reaches ten times the width of the sketch, all
+ * counters are halved so that the estimates favour recent history.
+ * <p>
+ * The sketch is lock-free. Increments racing with a halving may be lost, which only makes the estimate slightly
+ * less accurate.
+ */
+final class FrequencySketch {
+
+  private static final long[] SEEDS = {
+    0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+  };
+  private static final long RESET_MASK = 0x7777777777777777L;
+  private static final int MAXIMUM_WIDTH = 1 << 24;
+
+  private final AtomicInteger additions = new AtomicInteger();
+  private volatile AtomicLongArray table;
+  private volatile int sampleSize;
+
+  /**
+   * Creates a sketch sized for {@code expectedSize} distinct keys.
+   *
+   * @param expectedSize the number of keys the sketch is sized for
+   */
+  FrequencySketch(long expectedSize) {
+    resize(expectedSize);
+  }
+
+  /**
+   * Grows the sketch if {@code expectedSize} keys do not fit in it anymore, forgetting all frequencies.
+   *
+   * @param expectedSize the number of keys the sketch should be sized for
+   */
+  void ensureCapacity(long expectedSize) {
+    if (expectedSize > table.length() && table.length() < MAXIMUM_WIDTH) {
+      resize(expectedSize);
+    }
+  }
+
+  private synchronized void resize(long expectedSize) {
+    int width = ceilingPowerOfTwo((int) Math.min(Math.max(expectedSize, 16), MAXIMUM_WIDTH));
+    if (table == null || width > table.length()) {
+      sampleSize = 10 * width;
+      additions.set(0);
+      table = new AtomicLongArray(width);
+    }
+  }
+
+  /**
+   * Returns the estimated number of recent occurrences of {@code key}, capped at 15.
+   *
+   * @param key the key
+   * @return the estimated frequency
+   */
+  int frequency(Object key) {
+    AtomicLongArray counters = table;
+    int hash = spread(key.hashCode());
+    int start = (hash & 3) << 2;
+    int frequency = Integer.MAX_VALUE;
+    for (int i = 0; i < 4; i++) {
+      int offset = (start + i) << 2;
+      int count = (int) ((counters.get(indexOf(counters, hash, i)) >>> offset) & 0xfL);
+      frequency = Math.min(frequency, count);
+    }
+    return frequency;
+  }
+
+  /**
+   * Records an occurrence of {@code key}.
+   *
+   * @param key the key
+   */
+  void increment(Object key) {
+    AtomicLongArray counters = table;
+    int hash = spread(key.hashCode());
+    int start = (hash & 3) << 2;
+    boolean added = false;
+    for (int i = 0; i < 4; i++) {
+      added |= incrementAt(counters, indexOf(counters, hash, i), (start + i) << 2);
+    }
+    if (added && additions.incrementAndGet() == sampleSize) {
+      halve(counters);
+    }
+  }
+
+  private static boolean incrementAt(AtomicLongArray counters, int index, int offset) {
+    long mask = 0xfL << offset;
+    while (true) {
+      long value = counters.get(index);
+      if ((value & mask) == mask) {
+        return false;
+      } else if (counters.compareAndSet(index, value, value + (1L << offset))) {
+        return true;
+      }
+    }
+  }
+
+  private void halve(AtomicLongArray counters) {
+    for (int i = 0; i < counters.length(); i++) {
+      long value;
+      do {
+        value = counters.get(i);
+      } while (!counters.compareAndSet(i, value, (value >>> 1) & RESET_MASK));
+    }
+    additions.addAndGet(-(sampleSize >>> 1));
+  }
+
+  private static int indexOf(AtomicLongArray counters, int hash, int row) {
+    long h = (hash + SEEDS[row]) * SEEDS[row];
+    h += h >>> 32;
+    return ((int) h) & (counters.length() - 1);
+  }
+
+  private static int spread(int hash) {
+    int h = hash * 0x9e3779b9;
+    return h ^ (h >>> 16);
+  }
+
+  private static int ceilingPowerOfTwo(int value) {
+    return 1 << -Integer.numberOfLeadingZeros(value - 1);
+  }
+}
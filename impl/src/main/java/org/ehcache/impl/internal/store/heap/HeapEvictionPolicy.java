@@ -0,0 +1,75 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ehcache.impl.internal.store.heap;
+
+/**
+ * Eviction policy plugged into the {@link OnHeapStore}.
+ * <p>
+ * The heap tier always selects its eviction victim by sampling the least recently used mapping. A policy observes
+ * accesses and insertions, and can offer an admission candidate that competes against the sampled victim: when the
+ * policy does not {@link #admit(Object, Object) admit} the candidate, the candidate is evicted instead of the victim.
+ * <p>
+ * Implementations are called concurrently from all threads accessing the store and must be thread-safe. Calls happen
+ * on the hot path, including under the mapping locks, so they must neither block nor call back into the store.
+ */
+public interface HeapEvictionPolicy {
+
+  /**
+   * Records a read or an update of the mapping for {@code key}.
+   *
+   * @param key the accessed key
+   */
+  void recordAccess(Object key);
+
+  /**
+   * Records the installation of a new mapping for {@code key}.
+   *
+   * @param key the inserted key
+   */
+  void recordInsertion(Object key);
+
+  /**
+   * Returns the key that should compete against the sampled victim of the eviction in progress, if any.
+   *
+   * @param mappingCount the current number of mappings in the store
+   * @return a key competing for admission, or {@code null} if the sampled victim is to be evicted
+   */
+  Object admissionCandidate(long mappingCount);
+
+  /**
+   * Decides whether {@code candidate} deserves to stay in the store at the expense of {@code victim}.
+   *
+   * @param candidate the admission candidate
+   * @param victim the sampled victim
+   * @return {@code true} to evict the victim, {@code false} to evict the candidate
+   */
+  boolean admit(Object candidate, Object victim);
+
+  /**
+   * Creates {@link HeapEvictionPolicy} instances, one per store.
+   */
+  @FunctionalInterface
+  interface Factory {
+
+    /**
+     * Creates the eviction policy of a new store.
+     *
+     * @return a new eviction policy
+     */
+    HeapEvictionPolicy create();
+  }
+}
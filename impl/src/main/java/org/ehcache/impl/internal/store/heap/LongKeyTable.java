@@ -0,0 +1,266 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ehcache.impl.internal.store.heap;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * A concurrent open addressing hash table keyed by primitive {@code long}s, keeping keys and values in parallel arrays.
+ * <p>
+ * The table is split in {@link Segment}s, each guarded by its own {@link StampedLock}. Lookups run under the read lock
+ * while inserts, removals and resizes need the write lock. Collisions are resolved by linear probing and removals shift
+ * the following mappings back, so that the table never holds tombstones.
+ */
+final class LongKeyTable {
+
+  static final int DEFAULT_SEGMENT_COUNT = 16;
+  static final int DEFAULT_SEGMENT_CAPACITY = 16;
+
+  private static final int MAXIMUM_SEGMENT_CAPACITY = 1 << 30;
+  private static final float LOAD_FACTOR = 0.75f;
+  private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+  private final Segment[] segments;
+  private final int segmentShift;
+  private final LongAdder mappings = new LongAdder();
+
+  LongKeyTable() {
+    this(DEFAULT_SEGMENT_COUNT, DEFAULT_SEGMENT_CAPACITY);
+  }
+
+  LongKeyTable(int segmentCount, int segmentCapacity) {
+    if (Integer.bitCount(segmentCount) != 1 || Integer.bitCount(segmentCapacity) != 1 || segmentCapacity < 2) {
+      throw new IllegalArgumentException("Segment count and capacity must be powers of two: " + segmentCount + ", " + segmentCapacity);
+    }
+    this.segments = new Segment[segmentCount];
+    for (int i = 0; i < segmentCount; i++) {
+      segments[i] = new Segment(segmentCapacity, mappings);
+    }
+    this.segmentShift = 32 - Integer.numberOfTrailingZeros(segmentCount);
+  }
+
+  /**
+   * Returns the segment in charge of the given key.
+   *
+   * @param key the key
+   * @return the segment holding the key, if mapped
+   */
+  Segment segmentFor(long key) {
+    return segmentShift == 32 ? segments[0] : segments[hash(key) >>> segmentShift];
+  }
+
+  Segment segment(int index) {
+    return segments[index];
+  }
+
+  int segmentCount() {
+    return segments.length;
+  }
+
+  /**
+   * Returns the number of mappings, placeholders included.
+   *
+   * @return the mapping count
+   */
+  long size() {
+    return mappings.sum();
+  }
+
+  private static int hash(long key) {
+    long h = key * GOLDEN_RATIO;
+    return (int) (h ^ (h >>> 32));
+  }
+
+  /**
+   * A segment of the table. Every method expects the caller to hold the segment lock, the write lock for the ones
+   * changing the structure of the segment.
+   */
+  static final class Segment {
+
+    private final StampedLock lock = new StampedLock();
+    private final int initialCapacity;
+    private final LongAdder mappings;
+
+    private long[] keys;
+    private Object[] values;
+    private int count;
+    private int threshold;
+
+    private Segment(int capacity, LongAdder mappings) {
+      this.initialCapacity = capacity;
+      this.mappings = mappings;
+      allocate(capacity);
+    }
+
+    long readLock() {
+      return lock.readLock();
+    }
+
+    void unlockRead(long stamp) {
+      lock.unlockRead(stamp);
+    }
+
+    long writeLock() {
+      return lock.writeLock();
+    }
+
+    void unlockWrite(long stamp) {
+      lock.unlockWrite(stamp);
+    }
+
+    /**
+     * Returns the slot holding the given key.
+     *
+     * @param key the key to look for
+     * @return the slot of the key, or {@code -1} if the key is not mapped
+     */
+    int find(long key) {
+      long[] keys = this.keys;
+      Object[] values = this.values;
+      int mask = keys.length - 1;
+      for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+        if (values[slot] == null) {
+          return -1;
+        } else if (keys[slot] == key) {
+          return slot;
+        }
+      }
+    }
+
+    /**
+     * Maps a key that is not mapped yet. This may resize the segment, invalidating the slots previously returned.
+     *
+     * @param key the key
+     * @param value the value
+     * @return the slot of the new mapping
+     */
+    int insert(long key, Object value) {
+      if (count >= threshold) {
+        resize();
+      }
+      int mask = keys.length - 1;
+      int slot = hash(key) & mask;
+      while (values[slot] != null) {
+        slot = (slot + 1) & mask;
+      }
+      keys[slot] = key;
+      values[slot] = value;
+      count++;
+      mappings.increment();
+      return slot;
+    }
+
+    /**
+     * Replaces the value of an occupied slot.
+     *
+     * @param slot the slot
+     * @param value the value
+     */
+    void set(int slot, Object value) {
+      values[slot] = value;
+    }
+
+    /**
+     * Unmaps the key held in the given slot, shifting back the following mappings of its probe sequence.
+     *
+     * @param slot the slot
+     */
+    void remove(int slot) {
+      int mask = keys.length - 1;
+      int hole = slot;
+      for (int next = (slot + 1) & mask; values[next] != null; next = (next + 1) & mask) {
+        int ideal = hash(keys[next]) & mask;
+        if (((next - ideal) & mask) >= ((next - hole) & mask)) {
+          move(next, hole);
+          hole = next;
+        }
+      }
+      values[hole] = null;
+      count--;
+      mappings.decrement();
+    }
+
+    /**
+     * Unmaps all keys and shrinks the segment back to its initial capacity.
+     */
+    void clear() {
+      mappings.add(-count);
+      count = 0;
+      allocate(initialCapacity);
+    }
+
+    /**
+     * Returns the number of slots, to iterate over them.
+     *
+     * @return the slot count
+     */
+    int capacity() {
+      return keys.length;
+    }
+
+    int count() {
+      return count;
+    }
+
+    boolean isOccupied(int slot) {
+      return values[slot] != null;
+    }
+
+    long key(int slot) {
+      return keys[slot];
+    }
+
+    Object value(int slot) {
+      return values[slot];
+    }
+
+    private void move(int from, int to) {
+      keys[to] = keys[from];
+      values[to] = values[from];
+    }
+
+    private void resize() {
+      int capacity = keys.length;
+      if (capacity >= MAXIMUM_SEGMENT_CAPACITY) {
+        throw new IllegalStateException("Segment capacity exhausted");
+      }
+      long[] oldKeys = keys;
+      Object[] oldValues = values;
+
+      allocate(capacity << 1);
+      int mask = keys.length - 1;
+      for (int i = 0; i < capacity; i++) {
+        if (oldValues[i] != null) {
+          int slot = hash(oldKeys[i]) & mask;
+          while (values[slot] != null) {
+            slot = (slot + 1) & mask;
+          }
+          keys[slot] = oldKeys[i];
+          values[slot] = oldValues[i];
+        }
+      }
+    }
+
+    private void allocate(int capacity) {
+      this.keys = new long[capacity];
+      this.values = new Object[capacity];
+      this.threshold = (int) (capacity * LOAD_FACTOR);
+    }
+  }
+}
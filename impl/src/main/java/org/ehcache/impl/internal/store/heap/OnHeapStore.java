@@ -25,12 +25,14 @@ import org.ehcache.core.CacheConfigurationProperty;
 import org.ehcache.config.EvictionAdvisor;
 import org.ehcache.config.ResourcePools;
 import org.ehcache.config.ResourceType;
+import org.ehcache.config.units.EntryUnit;
 import org.ehcache.config.units.MemoryUnit;
 import org.ehcache.core.config.ExpiryUtils;
 import org.ehcache.core.events.StoreEventDispatcher;
 import org.ehcache.core.events.StoreEventSink;
 import org.ehcache.core.spi.service.StatisticsService;
 import org.ehcache.core.statistics.StatisticType;
+import org.ehcache.core.spi.service.ExecutionService;
 import org.ehcache.core.statistics.OperationObserver;
 import org.ehcache.core.statistics.OperationStatistic;
 import org.ehcache.impl.internal.concurrent.EvictingConcurrentMap;
@@ -42,9 +44,18 @@ import org.ehcache.impl.copy.IdentityCopier;
 import org.ehcache.impl.internal.concurrent.ConcurrentHashMap;
 import org.ehcache.impl.copy.SerializingCopier;
 import org.ehcache.core.events.NullStoreEventDispatcher;
+import org.ehcache.impl.config.event.OrderedEventQueueConfiguration;
+import org.ehcache.impl.config.store.CostAwareEvictionConfiguration;
+import org.ehcache.impl.config.store.ExpiryReaperConfiguration;
+import org.ehcache.impl.config.store.heap.HeapEvictionPolicyConfiguration;
+import org.ehcache.impl.config.store.heap.PrimitiveKeyHeapStoreConfiguration;
+import org.ehcache.impl.internal.store.expiry.ExpiryReaper;
 import org.ehcache.impl.store.DefaultStoreEventDispatcher;
 import org.ehcache.impl.internal.sizeof.NoopSizeOfEngine;
 import org.ehcache.impl.internal.store.heap.holders.CopiedOnHeapValueHolder;
+import org.ehcache.impl.internal.store.heap.holders.CostAwareCopiedOnHeapValueHolder;
+import org.ehcache.impl.internal.store.heap.holders.CostAwareSerializedOnHeapValueHolder;
+import org.ehcache.impl.internal.store.heap.holders.CostAwareValueHolder;
 import org.ehcache.impl.internal.store.heap.holders.OnHeapValueHolder;
 import org.ehcache.impl.internal.store.heap.holders.SerializedOnHeapValueHolder;
 import org.ehcache.core.spi.time.TimeSource;
@@ -59,6 +70,7 @@ import org.ehcache.core.spi.store.events.StoreEventSource;
 import org.ehcache.core.spi.store.tiering.CachingTier;
 import org.ehcache.core.spi.store.tiering.HigherCachingTier;
 import org.ehcache.impl.internal.store.BinaryValueHolder;
+import org.ehcache.impl.internal.store.BulkLoadFaults;
 import org.ehcache.spi.copy.Copier;
 import org.ehcache.spi.copy.CopyProvider;
 import org.ehcache.spi.service.OptionalServiceDependencies;
@@ -74,7 +86,9 @@ import org.ehcache.core.statistics.TierOperationOutcomes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.ByteBuffer;
 import java.time.Duration;
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -82,6 +96,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -90,6 +105,7 @@ import java.util.Objects;
 import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
@@ -99,6 +115,7 @@ import java.util.function.Supplier;
 import static org.ehcache.config.Eviction.noAdvice;
 import static org.ehcache.core.config.ExpiryUtils.isExpiryDurationInfinite;
 import static org.ehcache.core.exceptions.StorePassThroughException.handleException;
+import static org.ehcache.core.spi.service.ServiceUtils.findSingletonAmongst;
 
 /**
  * {@link Store} and {@link HigherCachingTier} implementation for on heap.
@@ -119,9 +136,9 @@ public class OnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingT
   private static final Logger LOG = LoggerFactory.getLogger(OnHeapStore.class);
 
   // yukms TODO: 尝试驱逐次数
-  private static final int ATTEMPT_RATIO = 4;
+  static final int ATTEMPT_RATIO = 4;
   // yukms TODO: 驱逐数
-  private static final int EVICTION_RATIO = 2;
+  static final int EVICTION_RATIO = 2;
 
   private static final EvictionAdvisor<Object, OnHeapValueHolder<?>> EVICTION_ADVISOR = (key, value) -> value.evictionAdvice();
 
@@ -141,6 +158,22 @@ public class OnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingT
     }
   };
 
+  /**
+   * Comparator for eviction candidates of cost-aware stores:
+   * The highest priority is the ValueHolder having the smallest GreedyDual priority, ties going to the smallest
+   * lastAccessTime.
+   */
+  private static final Comparator<ValueHolder<?>> GREEDY_DUAL_EVICTION_PRIORITIZER = (t, u) -> {
+    if (t instanceof Fault) {
+      return -1;
+    } else if (u instanceof Fault) {
+      return 1;
+    } else {
+      int byPriority = Long.compare(evictionPriority(u), evictionPriority(t));
+      return byPriority == 0 ? Long.signum(u.lastAccessTime() - t.lastAccessTime()) : byPriority;
+    }
+  };
+
   private static final InvalidationListener<?, ?> NULL_INVALIDATION_LISTENER = (InvalidationListener<Object, Object>) (key, valueHolder) -> {
     // Do nothing
   };
@@ -148,6 +181,7 @@ public class OnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingT
   static final int SAMPLE_SIZE = 8;
   private final Backend<K, V> map;
 
+  private final Copier<K> keyCopier;
   private final Copier<V> valueCopier;
 
   private final SizeOfEngine sizeOfEngine;
@@ -155,9 +189,14 @@ public class OnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingT
 
   private volatile long capacity;
   private final EvictionAdvisor<? super K, ? super V> evictionAdvisor;
+  private final HeapEvictionPolicy evictionPolicy;
+  private final boolean costAwareEviction;
+  private final AtomicLong inflation = new AtomicLong();
   private final ExpiryPolicy<? super K, ? super V> expiry;
   private final TimeSource timeSource;
   private final StoreEventDispatcher<K, V> storeEventDispatcher;
+  private final BulkLoadFaults<K> bulkLoadFaults = new BulkLoadFaults<>();
+  private volatile ExpiryReaper<K> expiryReaper;
   @SuppressWarnings("unchecked")
   private volatile InvalidationListener<K, V> invalidationListener = (InvalidationListener<K, V>) NULL_INVALIDATION_LISTENER;
 
@@ -209,9 +248,21 @@ public class OnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingT
 
   public OnHeapStore(Configuration<K, V> config, TimeSource timeSource, Copier<K> keyCopier, Copier<V> valueCopier,
                      SizeOfEngine sizeOfEngine, StoreEventDispatcher<K, V> eventDispatcher, Supplier<EvictingConcurrentMap<?, ?>> backingMapSupplier, StatisticsService statisticsService) {
+    this(config, timeSource, keyCopier, valueCopier, sizeOfEngine, eventDispatcher, backingMapSupplier, statisticsService, SampledLruEvictionPolicy.FACTORY.create());
+  }
+
+  public OnHeapStore(Configuration<K, V> config, TimeSource timeSource, Copier<K> keyCopier, Copier<V> valueCopier,
+                     SizeOfEngine sizeOfEngine, StoreEventDispatcher<K, V> eventDispatcher, Supplier<EvictingConcurrentMap<?, ?>> backingMapSupplier, StatisticsService statisticsService,
+                     HeapEvictionPolicy evictionPolicy) {
+    this(config, timeSource, keyCopier, valueCopier, sizeOfEngine, eventDispatcher, backingMapSupplier, statisticsService, evictionPolicy, false);
+  }
+
+  public OnHeapStore(Configuration<K, V> config, TimeSource timeSource, Copier<K> keyCopier, Copier<V> valueCopier,
+                     SizeOfEngine sizeOfEngine, StoreEventDispatcher<K, V> eventDispatcher, Supplier<EvictingConcurrentMap<?, ?>> backingMapSupplier, StatisticsService statisticsService,
+                     HeapEvictionPolicy evictionPolicy, boolean costAwareEviction) {
     super(config, statisticsService);
 
-    Objects.requireNonNull(keyCopier, "keyCopier must not be null");
+    this.keyCopier = Objects.requireNonNull(keyCopier, "keyCopier must not be null");
 
     this.valueCopier = Objects.requireNonNull(valueCopier, "valueCopier must not be null");
     this.timeSource = Objects.requireNonNull(timeSource, "timeSource must not be null");
@@ -230,6 +281,8 @@ public class OnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingT
     } else {
       this.evictionAdvisor = config.getEvictionAdvisor();
     }
+    this.evictionPolicy = Objects.requireNonNull(evictionPolicy, "evictionPolicy must not be null");
+    this.costAwareEviction = costAwareEviction;
     this.expiry = config.getExpiry();
     this.storeEventDispatcher = eventDispatcher;
 
@@ -239,7 +292,7 @@ public class OnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingT
       this.map = new KeyCopyBackend<>(byteSized, keyCopier, castBackend(backingMapSupplier));
     }
 
-    strategy = OnHeapStrategy.strategy(this, expiry, timeSource);
+    strategy = OnHeapStrategy.strategy(this, expiry);
 
     getObserver = createObserver("get", StoreOperationOutcomes.GetOutcome.class, true);
     putObserver = createObserver("put", StoreOperationOutcomes.PutOutcome.class, true);
@@ -285,14 +338,16 @@ public class OnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingT
 
     getObserver.begin();
     try {
-      OnHeapValueHolder<V> mapping = getQuiet(key);
+      long now = timeSource.getTimeMillis();
+      OnHeapValueHolder<V> mapping = getQuiet(key, now);
 
       if (mapping == null) {
         getObserver.end(StoreOperationOutcomes.GetOutcome.MISS);
         return null;
       }
 
-      strategy.setAccessAndExpiryTimeWhenCallerOutsideLock(key, mapping, timeSource.getTimeMillis());
+      strategy.setAccessAndExpiryTimeWhenCallerOutsideLock(key, mapping, now);
+      recordAccess(key, mapping);
 
       getObserver.end(StoreOperationOutcomes.GetOutcome.HIT);
       return mapping;
@@ -301,14 +356,14 @@ public class OnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingT
     }
   }
 
-  private OnHeapValueHolder<V> getQuiet(K key) throws StoreAccessException {
+  private OnHeapValueHolder<V> getQuiet(K key, long now) throws StoreAccessException {
     try {
       OnHeapValueHolder<V> mapping = map.get(key);
       if (mapping == null) {
         return null;
       }
 
-      if (strategy.isExpired(mapping)) {
+      if (strategy.isExpired(mapping, now)) {
         expireMappingUnderLock(key, mapping);
         return null;
       }
@@ -321,7 +376,7 @@ public class OnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingT
   @Override
   public boolean containsKey(K key) throws StoreAccessException {
     checkKey(key);
-    return getQuiet(key) != null;
+    return getQuiet(key, timeSource.getTimeMillis()) != null;
   }
 
   @Override
@@ -408,6 +463,7 @@ public class OnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingT
 
         statisticOutcome.set(StoreOperationOutcomes.RemoveOutcome.REMOVED);
         eventSink.removed(mappedKey, mappedValue);
+        unscheduleExpiry(mappedKey);
         return null;
       });
       storeEventDispatcher.releaseEventSink(eventSink);
@@ -506,6 +562,7 @@ public class OnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingT
         } else if (value.equals(mappedValue.get())) {
           updateUsageInBytesIfRequired(- mappedValue.size());
           eventSink.removed(mappedKey, mappedValue);
+          unscheduleExpiry(mappedKey);
           outcome.set(RemoveStatus.REMOVED);
           return null;
         } else {
@@ -645,6 +702,10 @@ public class OnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingT
   @Override
   public void clear() {
     map.clear();
+    ExpiryReaper<K> reaper = expiryReaper;
+    if (reaper != null) {
+      reaper.unscheduleAll();
+    }
   }
 
   @Override
@@ -673,7 +734,7 @@ public class OnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingT
         while (iterator.hasNext()) {
           Entry<K, OnHeapValueHolder<V>> next = iterator.next();
 
-          if (strategy.isExpired(next.getValue())) {
+          if (strategy.isExpired(next.getValue(), timeSource.getTimeMillis())) {
             expireMappingUnderLock(next.getKey(), next.getValue());
           } else {
             return new Cache.Entry<K, ValueHolder<V>>() {
@@ -741,6 +802,7 @@ public class OnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingT
         else {
           // yukms TODO: 没过期，更新过期时间
           strategy.setAccessAndExpiryTimeWhenCallerOutsideLock(key, cachedValue, now);
+          recordAccess(key, cachedValue);
         }
       }
 
@@ -782,15 +844,67 @@ public class OnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingT
     }
   }
 
+  @Override
+  public ValueHolder<V> installWritten(K key, Function<K, ValueHolder<V>> source) throws StoreAccessException {
+    checkKey(key);
+
+    Backend<K, V> backEnd = map;
+    Fault<V> fault = new Fault<>(() -> source.apply(key));
+    if (backEnd.putIfAbsent(key, fault) != null) {
+      return null;
+    }
+
+    long now = timeSource.getTimeMillis();
+    try {
+      ValueHolder<V> written = fault.getValueHolder();
+      if (written == null) {
+        backEnd.remove(key, fault);
+        return null;
+      }
+
+      // The written mapping keeps its write expiry, installing it is not an access
+      OnHeapValueHolder<V> installed;
+      try {
+        installed = cloneValueHolder(key, written, now, null, true);
+      } catch (LimitExceededException e) {
+        LOG.warn(e.getMessage());
+        invalidateInGetOrComputeIfAbsent(backEnd, key, written, fault, now, null);
+        return null;
+      }
+
+      if (backEnd.replace(key, fault, installed)) {
+        updateUsageInBytesIfRequired(installed.size());
+        evictionPolicy.recordInsertion(key);
+        enforceCapacity();
+        return installed;
+      }
+
+      // The fault was invalidated concurrently
+      backEnd.computeIfPresent(key, (mappedKey, mappedValue) -> {
+        notifyInvalidation(key, mappedValue);
+        updateUsageInBytesIfRequired(- mappedValue.size());
+        return null;
+      });
+      return null;
+    } catch (Throwable e) {
+      backEnd.remove(key, fault);
+      throw new StoreAccessException(e);
+    }
+  }
+
   private ValueHolder<V> resolveFault(K key, Backend<K, V> backEnd, long now, Fault<V> fault) throws StoreAccessException {
     try {
       // yukms TODO: 获取ValueHolder
+      long loadStart = costAwareEviction ? System.nanoTime() : 0L;
       ValueHolder<V> value = fault.getValueHolder();
       OnHeapValueHolder<V> newValue;
       if(value != null) {
         // yukms TODO: 获取到了值
         // yukms TODO: 从较低层导入值
         newValue = importValueFromLowerTier(key, value, now, backEnd, fault);
+        if (newValue != null && costAwareEviction) {
+          setMissPenalty(newValue, System.nanoTime() - loadStart);
+        }
         if (newValue == null) {
           // Inline expiry or sizing failure
           // yukms TODO: 内联失效或大小调整失败
@@ -813,6 +927,7 @@ public class OnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingT
         getOrComputeIfAbsentObserver.end(CachingTierOperationOutcomes.GetOrComputeIfAbsentOutcome.FAULTED);
         // yukms TODO: 更新大小
         updateUsageInBytesIfRequired(newValue.size());
+        evictionPolicy.recordInsertion(key);
         // yukms TODO: 强制驱逐
         enforceCapacity();
         // yukms TODO: 返回新值
@@ -880,6 +995,7 @@ public class OnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingT
       map.computeIfPresent(key, (k, present) -> {
         if (!(present instanceof Fault)) {
           notifyInvalidation(key, present);
+          unscheduleExpiry(k);
           outcome.set(CachingTierOperationOutcomes.InvalidateOutcome.REMOVED);
         }
         updateUsageInBytesIfRequired(- present.size());
@@ -907,6 +1023,7 @@ public class OnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingT
           size = mappedValue.size();
           if (!(mappedValue instanceof Fault)) {
             holderToPass = mappedValue;
+            unscheduleExpiry(mappedKey);
             outcome.set(HigherCachingTierOperationOutcomes.SilentInvalidateOutcome.REMOVED);
           }
         }
@@ -1027,7 +1144,7 @@ public class OnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingT
    *
    * @param <V> the value type of the caching tier
    */
-  private static class Fault<V> extends OnHeapValueHolder<V> {
+  static class Fault<V> extends OnHeapValueHolder<V> {
 
     private static final int FAULT_ID = -1;
 
@@ -1050,7 +1167,7 @@ public class OnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingT
       }
     }
 
-    private ValueHolder<V> getValueHolder() {
+    ValueHolder<V> getValueHolder() {
       synchronized (this) {
         if (!complete) {
           try {
@@ -1180,6 +1297,7 @@ public class OnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingT
         if (computedValue == null) {
           if (existingValue != null) {
             eventSink.removed(mappedKey, mappedValue);
+            unscheduleExpiry(mappedKey);
             outcome.set(StoreOperationOutcomes.ComputeOutcome.REMOVED);
             delta -= mappedValue.size();
           }
@@ -1245,6 +1363,7 @@ public class OnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingT
         if (computedValue == null) {
           if (existingValue != null) {
             eventSink.removed(mappedKey, mappedValue);
+            unscheduleExpiry(mappedKey);
             outcome.set(StoreOperationOutcomes.ComputeOutcome.REMOVED);
             delta -= mappedValue.size();
           }
@@ -1302,7 +1421,11 @@ public class OnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingT
   @Override
   public ValueHolder<V> computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) throws StoreAccessException {
     checkKey(key);
+    bulkLoadFaults.await(key);
+    return internalComputeIfAbsent(key, mappingFunction);
+  }
 
+  private ValueHolder<V> internalComputeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) throws StoreAccessException {
     computeIfAbsentObserver.begin();
 
     StoreEventSink<K, V> eventSink = storeEventDispatcher.eventSink();
@@ -1321,6 +1444,7 @@ public class OnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingT
             delta -= mappedValue.size();
             fireOnExpirationEvent(mappedKey, mappedValue, eventSink);
           }
+          long loadStart = costAwareEviction ? System.nanoTime() : 0L;
           V computedValue = mappingFunction.apply(mappedKey);
           if (computedValue == null) {
             holder = null;
@@ -1328,6 +1452,9 @@ public class OnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingT
             checkValue(computedValue);
             holder = newCreateValueHolder(key, computedValue, now, eventSink);
             if (holder != null) {
+              if (costAwareEviction) {
+                setMissPenalty(holder, System.nanoTime() - loadStart);
+              }
               outcome.set(StoreOperationOutcomes.ComputeIfAbsentOutcome.PUT);
               delta += holder.size();
             }
@@ -1367,25 +1494,51 @@ public class OnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingT
   public Map<K, ValueHolder<V>> bulkComputeIfAbsent(Set<? extends K> keys, Function<Iterable<? extends K>, Iterable<? extends Map.Entry<? extends K, ? extends V>>> mappingFunction) throws StoreAccessException {
     Map<K, ValueHolder<V>> result = new HashMap<>(keys.size());
 
-    for (K key : keys) {
-      ValueHolder<V> newValue = computeIfAbsent(key, k -> {
-        Iterable<K> keySet = Collections.singleton(k);
-        Iterable<? extends Entry<? extends K, ? extends V>> entries = mappingFunction.apply(keySet);
-        java.util.Iterator<? extends Entry<? extends K, ? extends V>> iterator = entries.iterator();
-        Entry<? extends K, ? extends V> next = iterator.next();
+    Collection<? extends K> pending = keys;
+    while (!pending.isEmpty()) {
+      List<K> contended = new ArrayList<>();
+      try (BulkLoadFaults<K>.Fault fault = bulkLoadFaults.claim(pending, contended)) {
+        Set<K> absentKeys = new LinkedHashSet<>();
+        Set<K> presentKeys = new HashSet<>();
+        long now = timeSource.getTimeMillis();
+        for (K key : fault.keys()) {
+          checkKey(key);
+          if (getQuiet(key, now) == null) {
+            // the mapping function sees the keys as they would be handed out by the backing map
+            absentKeys.add(keyCopier.copyForRead(keyCopier.copyForWrite(key)));
+          } else {
+            presentKeys.add(key);
+          }
+        }
 
-        K computedKey = next.getKey();
-        checkKey(computedKey);
+        Map<K, V> loaded = new HashMap<>(absentKeys.size());
+        if (!absentKeys.isEmpty()) {
+          try {
+            for (Entry<? extends K, ? extends V> entry : mappingFunction.apply(absentKeys)) {
+              K computedKey = entry.getKey();
+              checkKey(computedKey);
+              loaded.put(computedKey, entry.getValue());
+            }
+          } catch (RuntimeException re) {
+            throw handleException(re);
+          }
+        }
 
-        V computedValue = next.getValue();
-        if (computedValue == null) {
-          return null;
+        for (K key : fault.keys()) {
+          ValueHolder<V> holder = internalComputeIfAbsent(key, loaded::get);
+          if (holder == null && presentKeys.contains(key)) {
+            // removed since the absence check: check again rather than report it absent without loading it
+            contended.add(key);
+          } else {
+            result.put(key, holder);
+          }
         }
+      }
 
-        checkValue(computedValue);
-        return computedValue;
-      });
-      result.put(key, newValue);
+      for (K key : contended) {
+        bulkLoadFaults.await(key);
+      }
+      pending = contended;
     }
     return result;
   }
@@ -1437,6 +1590,73 @@ public class OnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingT
     return storeEventDispatcher;
   }
 
+  /**
+   * Makes this store proactively remove its expired mappings, once the reaper is started.
+   *
+   * @param configuration the reaper configuration
+   */
+  void enableExpiryReaper(ExpiryReaperConfiguration configuration) {
+    ExpiryReaper<K> reaper = new ExpiryReaper<>(configuration, timeSource, this::reap);
+    Set<String> tags = new HashSet<>(Arrays.asList(getStatisticsTag(), "tier"));
+    registerStatistic("reapedMappings", StatisticType.COUNTER, tags, reaper::getReapedMappings);
+    registerStatistic("reclaimedBytes", StatisticType.COUNTER, tags, reaper::getReclaimedBytes);
+    this.expiryReaper = reaper;
+  }
+
+  void startExpiryReaper(ExecutionService executionService) {
+    ExpiryReaper<K> reaper = expiryReaper;
+    if (reaper != null) {
+      reaper.start(executionService);
+    }
+  }
+
+  void stopExpiryReaper() {
+    ExpiryReaper<K> reaper = expiryReaper;
+    if (reaper != null) {
+      reaper.stop();
+    }
+  }
+
+  private void scheduleExpiry(K key, ValueHolder<V> valueHolder) {
+    ExpiryReaper<K> reaper = expiryReaper;
+    if (reaper != null && valueHolder.expirationTime() != ValueHolder.NO_EXPIRE) {
+      reaper.schedule(key, valueHolder.expirationTime());
+    }
+  }
+
+  private void unscheduleExpiry(K key) {
+    ExpiryReaper<K> reaper = expiryReaper;
+    if (reaper != null) {
+      reaper.unschedule(key);
+    }
+  }
+
+  private long reap(K key, long now) {
+    AtomicLong reclaimed = new AtomicLong(ExpiryReaper.NOT_REAPED);
+    StoreEventSink<K, V> eventSink = storeEventDispatcher.eventSink();
+    try {
+      map.computeIfPresent(key, (mappedKey, mappedValue) -> {
+        if (mappedValue instanceof Fault) {
+          return mappedValue;
+        } else if (mappedValue.isExpired(now)) {
+          fireOnExpirationEvent(mappedKey, mappedValue, eventSink);
+          updateUsageInBytesIfRequired(- mappedValue.size());
+          reclaimed.set(mappedValue.size());
+          return null;
+        } else {
+          // expiration pushed back by an access
+          scheduleExpiry(mappedKey, mappedValue);
+          return mappedValue;
+        }
+      });
+      storeEventDispatcher.releaseEventSink(eventSink);
+    } catch(RuntimeException re) {
+      storeEventDispatcher.releaseEventSinkAfterFailure(eventSink, re);
+      throw re;
+    }
+    return reclaimed.get();
+  }
+
   void expireMappingUnderLock(K key, ValueHolder<V> value) {
 
     StoreEventSink<K, V> eventSink = storeEventDispatcher.eventSink();
@@ -1482,7 +1702,11 @@ public class OnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingT
     OnHeapValueHolder<V> holder = null;
     try {
       holder = makeValue(key, newValue, now, expirationTime, this.valueCopier);
+      if (costAwareEviction) {
+        setMissPenalty(holder, missPenalty(oldValue));
+      }
       eventSink.updated(key, oldValue, newValue);
+      evictionPolicy.recordAccess(key);
     } catch (LimitExceededException e) {
       LOG.warn(e.getMessage());
       eventSink.removed(key, oldValue);
@@ -1504,6 +1728,7 @@ public class OnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingT
     try {
       holder = makeValue(key, value, now, expirationTime, this.valueCopier);
       eventSink.created(key, value);
+      evictionPolicy.recordInsertion(key);
     } catch (LimitExceededException e) {
       LOG.warn(e.getMessage());
     }
@@ -1543,21 +1768,30 @@ public class OnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingT
       // yukms TODO: 通过序列化复制
       if (valueHolder instanceof BinaryValueHolder && ((BinaryValueHolder) valueHolder).isBinaryValueAvailable()) {
         // yukms TODO: BinaryValueHolder可以访问，则直接获取二进制数据
-        clonedValueHolder = new SerializedOnHeapValueHolder<>(valueHolder, ((BinaryValueHolder) valueHolder).getBinaryValue(),
-          evictionAdvice, ((SerializingCopier<V>) valueCopier).getSerializer(), now, expiration);
+        ByteBuffer binaryValue = ((BinaryValueHolder) valueHolder).getBinaryValue();
+        Serializer<V> serializer = ((SerializingCopier<V>) valueCopier).getSerializer();
+        clonedValueHolder = costAwareEviction
+          ? new CostAwareSerializedOnHeapValueHolder<>(valueHolder, binaryValue, evictionAdvice, serializer, now, expiration)
+          : new SerializedOnHeapValueHolder<>(valueHolder, binaryValue, evictionAdvice, serializer, now, expiration);
       } else {
         // yukms TODO: 否则序列化
-        clonedValueHolder = new SerializedOnHeapValueHolder<>(valueHolder, realValue, evictionAdvice,
-          ((SerializingCopier<V>) valueCopier).getSerializer(), now, expiration);
+        Serializer<V> serializer = ((SerializingCopier<V>) valueCopier).getSerializer();
+        clonedValueHolder = costAwareEviction
+          ? new CostAwareSerializedOnHeapValueHolder<>(valueHolder, realValue, evictionAdvice, serializer, now, expiration)
+          : new SerializedOnHeapValueHolder<>(valueHolder, realValue, evictionAdvice, serializer, now, expiration);
       }
     } else {
       // yukms TODO: valueCopier
-      clonedValueHolder = new CopiedOnHeapValueHolder<>(valueHolder, realValue, evictionAdvice, valueCopier, now, expiration);
+      clonedValueHolder = costAwareEviction
+        ? new CostAwareCopiedOnHeapValueHolder<>(valueHolder, realValue, evictionAdvice, valueCopier, now, expiration)
+        : new CopiedOnHeapValueHolder<>(valueHolder, realValue, evictionAdvice, valueCopier, now, expiration);
     }
     // yukms TODO: 获取大小
     if (sizingEnabled) {
       clonedValueHolder.setSize(getSizeOfKeyValuePairs(key, clonedValueHolder));
     }
+    setPriorityInflation(clonedValueHolder);
+    scheduleExpiry(key, clonedValueHolder);
     return clonedValueHolder;
   }
 
@@ -1569,14 +1803,20 @@ public class OnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingT
     boolean evictionAdvice = checkEvictionAdvice(key, value);
     OnHeapValueHolder<V> valueHolder;
     if (valueCopier instanceof SerializingCopier) {
-      valueHolder = new SerializedOnHeapValueHolder<>(value, creationTime, expirationTime, evictionAdvice, ((SerializingCopier<V>) valueCopier)
-        .getSerializer());
+      Serializer<V> serializer = ((SerializingCopier<V>) valueCopier).getSerializer();
+      valueHolder = costAwareEviction
+        ? new CostAwareSerializedOnHeapValueHolder<>(value, creationTime, expirationTime, evictionAdvice, serializer)
+        : new SerializedOnHeapValueHolder<>(value, creationTime, expirationTime, evictionAdvice, serializer);
     } else {
-      valueHolder = new CopiedOnHeapValueHolder<>(value, creationTime, expirationTime, evictionAdvice, valueCopier);
+      valueHolder = costAwareEviction
+        ? new CostAwareCopiedOnHeapValueHolder<>(value, creationTime, expirationTime, evictionAdvice, valueCopier)
+        : new CopiedOnHeapValueHolder<>(value, creationTime, expirationTime, evictionAdvice, valueCopier);
     }
     if (size) {
       valueHolder.setSize(getSizeOfKeyValuePairs(key, valueHolder));
     }
+    setPriorityInflation(valueHolder);
+    scheduleExpiry(key, valueHolder);
     return valueHolder;
   }
 
@@ -1630,15 +1870,16 @@ public class OnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingT
     evictionObserver.begin();
     // yukms TODO: 随机
     Random random = new Random();
+    Comparator<ValueHolder<?>> prioritizer = costAwareEviction ? GREEDY_DUAL_EVICTION_PRIORITIZER : EVICTION_PRIORITIZER;
 
     @SuppressWarnings("unchecked")
     // yukms TODO: 获得驱逐候选人
-    Map.Entry<K, OnHeapValueHolder<V>> candidate = map.getEvictionCandidate(random, SAMPLE_SIZE, EVICTION_PRIORITIZER, EVICTION_ADVISOR);
+    Map.Entry<K, OnHeapValueHolder<V>> candidate = map.getEvictionCandidate(random, SAMPLE_SIZE, prioritizer, EVICTION_ADVISOR);
 
     if (candidate == null) {
       // 2nd attempt without any advisor
       // yukms TODO: 在没有任何顾问的情况下进行第二次尝试
-      candidate = map.getEvictionCandidate(random, SAMPLE_SIZE, EVICTION_PRIORITIZER, noAdvice());
+      candidate = map.getEvictionCandidate(random, SAMPLE_SIZE, prioritizer, noAdvice());
     }
 
     if (candidate == null) {
@@ -1646,7 +1887,7 @@ public class OnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingT
       return false;
     } else {
       // yukms TODO: 找到驱逐候选人
-      Map.Entry<K, OnHeapValueHolder<V>> evictionCandidate = candidate;
+      Map.Entry<K, OnHeapValueHolder<V>> evictionCandidate = applyAdmissionPolicy(candidate);
       AtomicBoolean removed = new AtomicBoolean(false);
       map.computeIfPresent(evictionCandidate.getKey(), (mappedKey, mappedValue) -> {
         if (mappedValue.equals(evictionCandidate.getValue())) {
@@ -1657,6 +1898,7 @@ public class OnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingT
             eventSink.evicted(evictionCandidate.getKey(), evictionCandidate.getValue());
             // yukms TODO: 通知过期
             invalidationListener.onInvalidation(mappedKey, evictionCandidate.getValue());
+            unscheduleExpiry(mappedKey);
           }
           // yukms TODO: 减少大小
           updateUsageInBytesIfRequired(-mappedValue.size());
@@ -1667,6 +1909,10 @@ public class OnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingT
       });
       if (removed.get()) {
         // yukms TODO: 驱逐成功
+        if (costAwareEviction && !(evictionCandidate.getValue() instanceof Fault)) {
+          long evictedPriority = evictionPriority(evictionCandidate.getValue());
+          inflation.accumulateAndGet(evictedPriority, Math::max);
+        }
         evictionObserver.end(StoreOperationOutcomes.EvictionOutcome.SUCCESS);
         return true;
       } else {
@@ -1677,6 +1923,58 @@ public class OnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingT
     }
   }
 
+  /**
+   * Records a hit on the given mapping with the eviction policy and, for cost-aware stores, restores its GreedyDual
+   * priority against the current inflation.
+   *
+   * @param key the key accessed
+   * @param valueHolder the mapping accessed
+   */
+  private void recordAccess(K key, OnHeapValueHolder<V> valueHolder) {
+    evictionPolicy.recordAccess(key);
+    setPriorityInflation(valueHolder);
+  }
+
+  private void setPriorityInflation(OnHeapValueHolder<V> valueHolder) {
+    if (valueHolder instanceof CostAwareValueHolder) {
+      ((CostAwareValueHolder) valueHolder).setPriorityInflation(inflation.get());
+    }
+  }
+
+  private static void setMissPenalty(OnHeapValueHolder<?> valueHolder, long missPenalty) {
+    if (valueHolder instanceof CostAwareValueHolder) {
+      ((CostAwareValueHolder) valueHolder).setMissPenalty(missPenalty);
+    }
+  }
+
+  private static long missPenalty(ValueHolder<?> valueHolder) {
+    return valueHolder instanceof CostAwareValueHolder ? ((CostAwareValueHolder) valueHolder).missPenalty() : 0L;
+  }
+
+  private static long evictionPriority(ValueHolder<?> valueHolder) {
+    return valueHolder instanceof CostAwareValueHolder ? ((CostAwareValueHolder) valueHolder).evictionPriority() : 0L;
+  }
+
+  /**
+   * Lets the eviction policy's admission candidate compete against the sampled victim.
+   *
+   * @param victim the sampled victim
+   * @return the mapping to evict
+   */
+  private Map.Entry<K, OnHeapValueHolder<V>> applyAdmissionPolicy(Map.Entry<K, OnHeapValueHolder<V>> victim) {
+    @SuppressWarnings("unchecked")
+    K candidateKey = (K) evictionPolicy.admissionCandidate(map.mappingCount());
+    if (candidateKey == null || candidateKey.equals(victim.getKey())) {
+      return victim;
+    }
+    OnHeapValueHolder<V> candidateValue = map.get(candidateKey);
+    if (candidateValue == null || candidateValue instanceof Fault || candidateValue.evictionAdvice()
+        || evictionPolicy.admit(candidateKey, victim.getKey())) {
+      return victim;
+    }
+    return new AbstractMap.SimpleImmutableEntry<>(candidateKey, candidateValue);
+  }
+
   void fireOnExpirationEvent(K mappedKey, ValueHolder<V> mappedValue, StoreEventSink<K, V> eventSink) {
     expirationObserver.begin();
     expirationObserver.end(StoreOperationOutcomes.ExpirationOutcome.SUCCESS);
@@ -1685,12 +1983,12 @@ public class OnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingT
   }
 
   @ServiceDependencies({TimeSourceService.class, CopyProvider.class, SizeOfEngineProvider.class})
-  @OptionalServiceDependencies("org.ehcache.core.spi.service.Statis" +
-    "ticsService")
+  @OptionalServiceDependencies({"org.ehcache.core.spi.service.Statis" +
+    "ticsService", "org.ehcache.core.spi.service.ExecutionService"})
   public static class Provider extends BaseStoreProvider implements CachingTier.Provider, HigherCachingTier.Provider {
 
     private final Map<Store<?, ?>, List<Copier<?>>> createdStores = new ConcurrentWeakIdentityHashMap<>();
-    private final Map<OnHeapStore<?, ?>, OperationStatistic<?>[]> tierOperationStatistics = new ConcurrentWeakIdentityHashMap<>();
+    private final Map<BaseStore<?, ?>, OperationStatistic<?>[]> tierOperationStatistics = new ConcurrentWeakIdentityHashMap<>();
 
     @Override
     protected ResourceType<SizedResourcePool> getResourceType() {
@@ -1709,9 +2007,19 @@ public class OnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingT
     }
 
     @Override
-    public <K, V> OnHeapStore<K, V> createStore(Configuration<K, V> storeConfig, ServiceConfiguration<?, ?>... serviceConfigs) {
+    public <K, V> Store<K, V> createStore(Configuration<K, V> storeConfig, ServiceConfiguration<?, ?>... serviceConfigs) {
       // yukms TODO: 创建OnHeapStore
-      OnHeapStore<K, V> store = createStoreInternal(storeConfig, new DefaultStoreEventDispatcher<>(storeConfig.getDispatcherConcurrency()), serviceConfigs);
+      StoreEventDispatcher<K, V> eventDispatcher = new DefaultStoreEventDispatcher<>(storeConfig.getDispatcherConcurrency(),
+        findSingletonAmongst(OrderedEventQueueConfiguration.class, (Object[]) serviceConfigs));
+      CopyProvider copyProvider = getServiceProvider().getService(CopyProvider.class);
+      Copier<K> keyCopier  = copyProvider.createKeyCopier(storeConfig.getKeyType(), storeConfig.getKeySerializer(), serviceConfigs);
+      Copier<V> valueCopier = copyProvider.createValueCopier(storeConfig.getValueType(), storeConfig.getValueSerializer(), serviceConfigs);
+      BaseStore<K, V> store;
+      if (usePrimitiveKeys(storeConfig, valueCopier, serviceConfigs)) {
+        store = createPrimitiveKeyStore(storeConfig, eventDispatcher, keyCopier, valueCopier);
+      } else {
+        store = createStoreInternal(storeConfig, eventDispatcher, keyCopier, valueCopier, serviceConfigs);
+      }
 
       // yukms TODO: 注册监听
       tierOperationStatistics.put(store, new OperationStatistic<?>[] {
@@ -1723,31 +2031,89 @@ public class OnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingT
 
     public <K, V> OnHeapStore<K, V> createStoreInternal(Configuration<K, V> storeConfig, StoreEventDispatcher<K, V> eventDispatcher,
                                                         ServiceConfiguration<?, ?>... serviceConfigs) {
-      TimeSource timeSource = getServiceProvider().getService(TimeSourceService.class).getTimeSource();
       CopyProvider copyProvider = getServiceProvider().getService(CopyProvider.class);
       Copier<K> keyCopier  = copyProvider.createKeyCopier(storeConfig.getKeyType(), storeConfig.getKeySerializer(), serviceConfigs);
       Copier<V> valueCopier = copyProvider.createValueCopier(storeConfig.getValueType(), storeConfig.getValueSerializer(), serviceConfigs);
+      return createStoreInternal(storeConfig, eventDispatcher, keyCopier, valueCopier, serviceConfigs);
+    }
+
+    private <K, V> OnHeapStore<K, V> createStoreInternal(Configuration<K, V> storeConfig, StoreEventDispatcher<K, V> eventDispatcher,
+                                                         Copier<K> keyCopier, Copier<V> valueCopier, ServiceConfiguration<?, ?>... serviceConfigs) {
+      TimeSource timeSource = getServiceProvider().getService(TimeSourceService.class).getTimeSource();
 
       List<Copier<?>> copiers = Arrays.asList(keyCopier, valueCopier);
 
       SizeOfEngineProvider sizeOfEngineProvider = getServiceProvider().getService(SizeOfEngineProvider.class);
       SizeOfEngine sizeOfEngine = sizeOfEngineProvider.createSizeOfEngine(
           storeConfig.getResourcePools().getPoolForResource(ResourceType.Core.HEAP).getUnit(), serviceConfigs);
-      OnHeapStore<K, V> onHeapStore = new OnHeapStore<>(storeConfig, timeSource, keyCopier, valueCopier, sizeOfEngine, eventDispatcher, ConcurrentHashMap::new, getServiceProvider().getService(StatisticsService.class));
+      HeapEvictionPolicyConfiguration evictionPolicyConfiguration = findSingletonAmongst(HeapEvictionPolicyConfiguration.class, (Object[]) serviceConfigs);
+      HeapEvictionPolicy.Factory evictionPolicyFactory = evictionPolicyConfiguration == null ? SampledLruEvictionPolicy.FACTORY : evictionPolicyConfiguration.getPolicyFactory();
+      boolean costAwareEviction = findSingletonAmongst(CostAwareEvictionConfiguration.class, (Object[]) serviceConfigs) != null;
+      OnHeapStore<K, V> onHeapStore = new OnHeapStore<>(storeConfig, timeSource, keyCopier, valueCopier, sizeOfEngine, eventDispatcher, ConcurrentHashMap::new,
+        getServiceProvider().getService(StatisticsService.class), evictionPolicyFactory.create(), costAwareEviction);
+      ExpiryReaperConfiguration expiryReaperConfiguration = findSingletonAmongst(ExpiryReaperConfiguration.class, (Object[]) serviceConfigs);
+      if (expiryReaperConfiguration != null) {
+        if (getServiceProvider().getService(ExecutionService.class) == null) {
+          throw new IllegalStateException("No ExecutionService could be found - the expiry reaper cannot be scheduled");
+        }
+        onHeapStore.enableExpiryReaper(expiryReaperConfiguration);
+      }
       createdStores.put(onHeapStore, copiers);
       return onHeapStore;
     }
 
+    /**
+     * Tells if a {@link PrimitiveKeyOnHeapStore} was requested through a {@link PrimitiveKeyHeapStoreConfiguration}.
+     * <p>
+     * Its keys must then be {@code Long}s or {@code Integer}s, its values stored by reference in a heap tier sized in
+     * entries, and it must not need any of the eviction or expiry features only an {@link OnHeapStore} offers.
+     *
+     * @throws IllegalArgumentException if the primitive keyed store was requested but cannot serve the configuration
+     */
+    private static boolean usePrimitiveKeys(Configuration<?, ?> storeConfig, Copier<?> valueCopier, ServiceConfiguration<?, ?>... serviceConfigs) {
+      if (findSingletonAmongst(PrimitiveKeyHeapStoreConfiguration.class, (Object[]) serviceConfigs) == null) {
+        return false;
+      }
+      HeapEvictionPolicyConfiguration evictionPolicyConfiguration = findSingletonAmongst(HeapEvictionPolicyConfiguration.class, (Object[]) serviceConfigs);
+      if (!PrimitiveKeyOnHeapStore.supportsKeyType(storeConfig.getKeyType())) {
+        throw new IllegalArgumentException("Primitive key heap store requires Long or Integer keys, not " + storeConfig.getKeyType().getName());
+      } else if (!(storeConfig.getResourcePools().getPoolForResource(ResourceType.Core.HEAP).getUnit() instanceof EntryUnit)) {
+        throw new IllegalArgumentException("Primitive key heap store requires a heap tier sized in entries");
+      } else if (!(valueCopier instanceof IdentityCopier)) {
+        throw new IllegalArgumentException("Primitive key heap store requires values stored by reference");
+      } else if (evictionPolicyConfiguration != null && evictionPolicyConfiguration.getPolicyFactory() != SampledLruEvictionPolicy.FACTORY) {
+        throw new IllegalArgumentException("Primitive key heap store only supports the default heap eviction policy");
+      } else if (findSingletonAmongst(CostAwareEvictionConfiguration.class, (Object[]) serviceConfigs) != null) {
+        throw new IllegalArgumentException("Primitive key heap store does not support cost-aware eviction");
+      } else if (findSingletonAmongst(ExpiryReaperConfiguration.class, (Object[]) serviceConfigs) != null) {
+        throw new IllegalArgumentException("Primitive key heap store does not support the expiry reaper");
+      }
+      return true;
+    }
+
+    private <K, V> PrimitiveKeyOnHeapStore<K, V> createPrimitiveKeyStore(Configuration<K, V> storeConfig, StoreEventDispatcher<K, V> eventDispatcher,
+                                                                         Copier<K> keyCopier, Copier<V> valueCopier) {
+      TimeSource timeSource = getServiceProvider().getService(TimeSourceService.class).getTimeSource();
+      PrimitiveKeyOnHeapStore<K, V> store = new PrimitiveKeyOnHeapStore<>(storeConfig, timeSource, eventDispatcher,
+        getServiceProvider().getService(StatisticsService.class));
+      createdStores.put(store, Arrays.asList(keyCopier, valueCopier));
+      return store;
+    }
+
     @Override
     public void releaseStore(Store<?, ?> resource) {
       List<Copier<?>> copiers = createdStores.remove(resource);
       if (copiers == null) {
         throw new IllegalArgumentException("Given store is not managed by this provider : " + resource);
       }
-      OnHeapStore<?, ?> onHeapStore = (OnHeapStore)resource;
-      close(onHeapStore);
-      getStatisticsService().ifPresent(s -> s.cleanForNode(onHeapStore));
-      tierOperationStatistics.remove(onHeapStore);
+      if (resource instanceof OnHeapStore) {
+        close((OnHeapStore<?, ?>) resource);
+      } else {
+        ((PrimitiveKeyOnHeapStore<?, ?>) resource).clear();
+      }
+      BaseStore<?, ?> store = (BaseStore<?, ?>) resource;
+      getStatisticsService().ifPresent(s -> s.cleanForNode(store));
+      tierOperationStatistics.remove(store);
 
       CopyProvider copyProvider = getServiceProvider().getService(CopyProvider.class);
       for (Copier<?> copier: copiers) {
@@ -1760,6 +2126,7 @@ public class OnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingT
     }
 
     static void close(OnHeapStore<?, ?> onHeapStore) {
+      onHeapStore.stopExpiryReaper();
       onHeapStore.clear();
     }
 
@@ -1776,6 +2143,13 @@ public class OnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingT
           }
         }
       }
+      startExpiryReaper(resource);
+    }
+
+    private void startExpiryReaper(Object resource) {
+      if (resource instanceof OnHeapStore) {
+        ((OnHeapStore<?, ?>) resource).startExpiryReaper(getServiceProvider().getService(ExecutionService.class));
+      }
     }
 
     private void checkResource(Object resource) {
@@ -1795,14 +2169,7 @@ public class OnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingT
 
     @Override
     public <K, V> CachingTier<K, V> createCachingTier(Configuration<K, V> storeConfig, ServiceConfiguration<?, ?>... serviceConfigs) {
-      OnHeapStore<K, V> cachingTier = createStoreInternal(storeConfig, NullStoreEventDispatcher.nullStoreEventDispatcher(), serviceConfigs);
-
-      this.tierOperationStatistics.put(cachingTier, new OperationStatistic<?>[] {
-        createTranslatedStatistic(cachingTier, "get", TierOperationOutcomes.GET_OR_COMPUTEIFABSENT_TRANSLATION, "getOrComputeIfAbsent"),
-        createTranslatedStatistic(cachingTier, "eviction", TierOperationOutcomes.EVICTION_TRANSLATION, "eviction")
-      });
-
-      return cachingTier;
+      return createHeapTier(storeConfig, NullStoreEventDispatcher.nullStoreEventDispatcher(), serviceConfigs);
     }
 
     @Override
@@ -1819,19 +2186,36 @@ public class OnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingT
     @Override
     public void initCachingTier(CachingTier<?, ?> resource) {
       checkResource(resource);
+      startExpiryReaper(resource);
     }
 
     @Override
     public <K, V> HigherCachingTier<K, V> createHigherCachingTier(Configuration<K, V> storeConfig, ServiceConfiguration<?, ?>... serviceConfigs) {
-      OnHeapStore<K, V> higherCachingTier = createStoreInternal(storeConfig, new DefaultStoreEventDispatcher<>(storeConfig
-        .getDispatcherConcurrency()), serviceConfigs);
+      return createHeapTier(storeConfig, new DefaultStoreEventDispatcher<>(storeConfig
+        .getDispatcherConcurrency(), findSingletonAmongst(OrderedEventQueueConfiguration.class, (Object[]) serviceConfigs)), serviceConfigs);
+    }
+
+    private <K, V> HigherCachingTier<K, V> createHeapTier(Configuration<K, V> storeConfig, StoreEventDispatcher<K, V> eventDispatcher,
+                                                          ServiceConfiguration<?, ?>... serviceConfigs) {
+      CopyProvider copyProvider = getServiceProvider().getService(CopyProvider.class);
+      Copier<K> keyCopier  = copyProvider.createKeyCopier(storeConfig.getKeyType(), storeConfig.getKeySerializer(), serviceConfigs);
+      Copier<V> valueCopier = copyProvider.createValueCopier(storeConfig.getValueType(), storeConfig.getValueSerializer(), serviceConfigs);
+      if (usePrimitiveKeys(storeConfig, valueCopier, serviceConfigs)) {
+        PrimitiveKeyOnHeapStore<K, V> higherCachingTier = createPrimitiveKeyStore(storeConfig, eventDispatcher, keyCopier, valueCopier);
+        registerTierStatistics(higherCachingTier);
+        return higherCachingTier;
+      } else {
+        OnHeapStore<K, V> higherCachingTier = createStoreInternal(storeConfig, eventDispatcher, keyCopier, valueCopier, serviceConfigs);
+        registerTierStatistics(higherCachingTier);
+        return higherCachingTier;
+      }
+    }
 
+    private void registerTierStatistics(BaseStore<?, ?> higherCachingTier) {
       this.tierOperationStatistics.put(higherCachingTier, new OperationStatistic<?>[] {
         createTranslatedStatistic(higherCachingTier, "get", TierOperationOutcomes.GET_OR_COMPUTEIFABSENT_TRANSLATION, "getOrComputeIfAbsent"),
         createTranslatedStatistic(higherCachingTier, "eviction", TierOperationOutcomes.EVICTION_TRANSLATION, "eviction")
       });
-
-      return higherCachingTier;
     }
 
     @Override
@@ -1842,6 +2226,7 @@ public class OnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingT
     @Override
     public void initHigherCachingTier(HigherCachingTier<?, ?> resource) {
       checkResource(resource);
+      startExpiryReaper(resource);
     }
   }
 }
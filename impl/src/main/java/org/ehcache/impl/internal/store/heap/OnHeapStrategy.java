@@ -18,7 +18,6 @@ package org.ehcache.impl.internal.store.heap;
 
 import org.ehcache.core.events.StoreEventSink;
 import org.ehcache.core.spi.store.Store;
-import org.ehcache.core.spi.time.TimeSource;
 import org.ehcache.expiry.ExpiryPolicy;
 import org.ehcache.impl.internal.store.heap.holders.OnHeapValueHolder;
 import org.slf4j.Logger;
@@ -39,26 +38,78 @@ interface OnHeapStrategy<K, V> {
 
   Logger LOG = LoggerFactory.getLogger(OnHeapStore.class);
 
-  static <K, V> OnHeapStrategy<K, V> strategy(OnHeapStore<K, V> store, ExpiryPolicy<? super K, ? super V> expiry, TimeSource timeSource) {
+  static <K, V> OnHeapStrategy<K, V> strategy(OnHeapStore<K, V> store, ExpiryPolicy<? super K, ? super V> expiry) {
+    return strategy(new ExpiringStore<K, V>() {
+      @Override
+      public void expireMappingUnderLock(K key, Store.ValueHolder<V> value) {
+        store.expireMappingUnderLock(key, value);
+      }
+
+      @Override
+      public void fireOnExpirationEvent(K key, Store.ValueHolder<V> value, StoreEventSink<K, V> eventSink) {
+        store.fireOnExpirationEvent(key, value, eventSink);
+      }
+    }, expiry);
+  }
+
+  static <K, V> OnHeapStrategy<K, V> strategy(ExpiringStore<K, V> store, ExpiryPolicy<? super K, ? super V> expiry) {
     if(expiry == ExpiryPolicy.NO_EXPIRY) {
       LOG.debug("No expiration strategy detected");
       return new NoExpirationStrategy<>();
     }
-    if(expiry.getClass().getName().equals("org.ehcache.config.builders.ExpiryPolicyBuilder$TimeToLiveExpiryPolicy")) {
+    if(isTimeToLive(expiry)) {
       LOG.debug("TTL expiration strategy detected");
-      return new TTLStrategy<>(expiry, timeSource);
+      return new TTLStrategy<>(expiry);
     }
     LOG.debug("TTI or custom expiration strategy detected");
-    return new AllStrategy<>(store, expiry, timeSource);
+    return new AllStrategy<>(store, expiry);
+  }
+
+  /**
+   * The store whose mappings a strategy expires when they expire on access.
+   *
+   * @param <K> type of the keys stored
+   * @param <V> type of the values stored
+   */
+  interface ExpiringStore<K, V> {
+
+    /**
+     * Expires the mapping if it is still the given value. Called by a caller not holding any lock.
+     *
+     * @param key key of the mapping
+     * @param value the expired mapping
+     */
+    void expireMappingUnderLock(K key, Store.ValueHolder<V> value);
+
+    /**
+     * Fires the expiration of a mapping the caller, holding its lock, is about to remove.
+     *
+     * @param key key of the mapping
+     * @param value the expired mapping
+     * @param eventSink sink where the expiration event will be sent
+     */
+    void fireOnExpirationEvent(K key, Store.ValueHolder<V> value, StoreEventSink<K, V> eventSink);
+  }
+
+  /**
+   * Tells if the given expiry policy is a time to live one, which never changes the expiration time of a mapping when
+   * it is accessed.
+   *
+   * @param expiry the expiry policy
+   * @return if the policy is a time to live policy
+   */
+  static boolean isTimeToLive(ExpiryPolicy<?, ?> expiry) {
+    return expiry.getClass().getName().equals("org.ehcache.config.builders.ExpiryPolicyBuilder$TimeToLiveExpiryPolicy");
   }
 
   /**
    * Tells if a given mapping is expired.
    *
    * @param mapping mapping to test for expiration
+   * @param now the current time
    * @return if the mapping is expired
    */
-  boolean isExpired(OnHeapValueHolder<V> mapping);
+  boolean isExpired(OnHeapValueHolder<V> mapping, long now);
 
   /**
    * Set the access time on the mapping and its expiry time if it is access sensitive (TTI). We  expect this action to
@@ -108,19 +159,17 @@ interface OnHeapStrategy<K, V> {
    * @param <V> type of the values stored
    */
   class AllStrategy<K, V> implements OnHeapStrategy<K, V> {
-    private final OnHeapStore<K, V> store;
+    private final ExpiringStore<K, V> store;
     private final ExpiryPolicy<? super K, ? super V> expiry;
-    private final TimeSource timeSource;
 
-    public AllStrategy(OnHeapStore<K, V> store, ExpiryPolicy<? super K, ? super V> expiry, TimeSource timeSource) {
+    public AllStrategy(ExpiringStore<K, V> store, ExpiryPolicy<? super K, ? super V> expiry) {
       this.store = store;
       this.expiry = expiry;
-      this.timeSource = timeSource;
     }
 
     @Override
-    public boolean isExpired(OnHeapValueHolder<V> mapping) {
-      return mapping.isExpired(timeSource.getTimeMillis());
+    public boolean isExpired(OnHeapValueHolder<V> mapping, long now) {
+      return mapping.isExpired(now);
     }
 
     @Override
@@ -186,7 +235,7 @@ interface OnHeapStrategy<K, V> {
   class NoExpirationStrategy<K, V> implements OnHeapStrategy<K, V> {
 
     @Override
-    public boolean isExpired(OnHeapValueHolder<V> mapping) {
+    public boolean isExpired(OnHeapValueHolder<V> mapping, long now) {
       return false;
     }
 
@@ -217,17 +266,15 @@ interface OnHeapStrategy<K, V> {
    * @param <V> type of the values stored
    */
   class TTLStrategy<K, V> implements OnHeapStrategy<K, V> {
-    private final TimeSource timeSource;
     private final ExpiryPolicy<? super K, ? super V> expiry;
 
-    public TTLStrategy(ExpiryPolicy<? super K, ? super V> expiry, TimeSource timeSource) {
-      this.timeSource = timeSource;
+    public TTLStrategy(ExpiryPolicy<? super K, ? super V> expiry) {
       this.expiry = expiry;
     }
 
     @Override
-    public boolean isExpired(OnHeapValueHolder<V> mapping) {
-      return mapping.isExpired(timeSource.getTimeMillis());
+    public boolean isExpired(OnHeapValueHolder<V> mapping, long now) {
+      return mapping.isExpired(now);
     }
 
     @Override
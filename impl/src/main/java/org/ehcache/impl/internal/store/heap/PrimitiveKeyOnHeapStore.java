@@ -0,0 +1,1612 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ehcache.impl.internal.store.heap;
+
+import org.ehcache.Cache;
+import org.ehcache.config.EvictionAdvisor;
+import org.ehcache.config.ResourcePools;
+import org.ehcache.config.ResourceType;
+import org.ehcache.config.SizedResourcePool;
+import org.ehcache.config.units.EntryUnit;
+import org.ehcache.core.CacheConfigurationChangeEvent;
+import org.ehcache.core.CacheConfigurationChangeListener;
+import org.ehcache.core.CacheConfigurationProperty;
+import org.ehcache.core.config.ExpiryUtils;
+import org.ehcache.core.events.StoreEventDispatcher;
+import org.ehcache.core.events.StoreEventSink;
+import org.ehcache.core.spi.service.StatisticsService;
+import org.ehcache.core.spi.store.Store;
+import org.ehcache.core.spi.store.events.StoreEventSource;
+import org.ehcache.core.spi.store.tiering.HigherCachingTier;
+import org.ehcache.core.spi.time.TimeSource;
+import org.ehcache.core.statistics.CachingTierOperationOutcomes;
+import org.ehcache.core.statistics.HigherCachingTierOperationOutcomes;
+import org.ehcache.core.statistics.OperationObserver;
+import org.ehcache.core.statistics.StatisticType;
+import org.ehcache.core.statistics.StoreOperationOutcomes;
+import org.ehcache.expiry.ExpiryPolicy;
+import org.ehcache.impl.copy.IdentityCopier;
+import org.ehcache.impl.internal.store.BulkLoadFaults;
+import org.ehcache.impl.internal.store.heap.OnHeapStore.Fault;
+import org.ehcache.impl.internal.store.heap.holders.CopiedOnHeapValueHolder;
+import org.ehcache.impl.internal.store.heap.holders.OnHeapValueHolder;
+import org.ehcache.impl.store.BaseStore;
+import org.ehcache.impl.store.HashUtils;
+import org.ehcache.spi.copy.Copier;
+import org.ehcache.spi.resilience.StoreAccessException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.function.LongToIntFunction;
+import java.util.function.Supplier;
+
+import static org.ehcache.config.Eviction.noAdvice;
+import static org.ehcache.core.config.ExpiryUtils.isExpiryDurationInfinite;
+import static org.ehcache.core.exceptions.StorePassThroughException.handleException;
+
+/**
+ * {@link Store} and {@link HigherCachingTier} implementation for on heap, specialized for {@code Long} and
+ * {@code Integer} keys.
+ *
+ * <p>
+ * Mappings are kept in a {@link LongKeyTable}: keys are stored unboxed next to the value holder of the mapping, so
+ * that a mapping costs neither a map entry nor a boxed key. As in an {@link OnHeapStore}, the value holders are handed
+ * out as is and expiry is handled by an {@link OnHeapStrategy}; keys are only boxed when handed out to callers, events
+ * and listeners.
+ * <p>
+ * Values are stored by reference, the heap tier is sized in entries and eviction is a sampled LRU, which are the
+ * conditions under which {@link OnHeapStore.Provider} picks this store over an {@link OnHeapStore}.
+ */
+public class PrimitiveKeyOnHeapStore<K, V> extends BaseStore<K, V> implements HigherCachingTier<K, V> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PrimitiveKeyOnHeapStore.class);
+
+  private static final InvalidationListener<?, ?> NULL_INVALIDATION_LISTENER = (InvalidationListener<Object, Object>) (key, valueHolder) -> {
+    // Do nothing
+  };
+
+  private static final Supplier<Boolean> REPLACE_EQUALS_TRUE = () -> Boolean.TRUE;
+
+  private final LongKeyTable table = new LongKeyTable();
+  private final LongFunction<K> keyFactory;
+  private final LongToIntFunction keyHash;
+  private final Copier<V> valueCopier = IdentityCopier.identityCopier();
+
+  private volatile long capacity;
+  private final EvictionAdvisor<? super K, ? super V> evictionAdvisor;
+  private final ExpiryPolicy<? super K, ? super V> expiry;
+  private final OnHeapStrategy<K, V> strategy;
+  private final TimeSource timeSource;
+  private final StoreEventDispatcher<K, V> storeEventDispatcher;
+  private final BulkLoadFaults<K> bulkLoadFaults = new BulkLoadFaults<>();
+  @SuppressWarnings("unchecked")
+  private volatile InvalidationListener<K, V> invalidationListener = (InvalidationListener<K, V>) NULL_INVALIDATION_LISTENER;
+
+  private final CacheConfigurationChangeListener cacheConfigurationChangeListener = new CacheConfigurationChangeListener() {
+    @Override
+    public void cacheConfigurationChange(CacheConfigurationChangeEvent event) {
+      if(event.getProperty().equals(CacheConfigurationProperty.UPDATE_SIZE)) {
+        ResourcePools updatedPools = (ResourcePools)event.getNewValue();
+        ResourcePools configuredPools = (ResourcePools)event.getOldValue();
+        if(updatedPools.getPoolForResource(ResourceType.Core.HEAP).getSize() !=
+            configuredPools.getPoolForResource(ResourceType.Core.HEAP).getSize()) {
+          LOG.info("Updating size to: {}", updatedPools.getPoolForResource(ResourceType.Core.HEAP).getSize());
+          capacity = updatedPools.getPoolForResource(ResourceType.Core.HEAP).getSize();
+        }
+      }
+    }
+  };
+
+  private final OperationObserver<StoreOperationOutcomes.GetOutcome> getObserver;
+  private final OperationObserver<StoreOperationOutcomes.PutOutcome> putObserver;
+  private final OperationObserver<StoreOperationOutcomes.RemoveOutcome> removeObserver;
+  private final OperationObserver<StoreOperationOutcomes.PutIfAbsentOutcome> putIfAbsentObserver;
+  private final OperationObserver<StoreOperationOutcomes.ConditionalRemoveOutcome> conditionalRemoveObserver;
+  private final OperationObserver<StoreOperationOutcomes.ReplaceOutcome> replaceObserver;
+  private final OperationObserver<StoreOperationOutcomes.ConditionalReplaceOutcome> conditionalReplaceObserver;
+  private final OperationObserver<StoreOperationOutcomes.ComputeOutcome> computeObserver;
+  private final OperationObserver<StoreOperationOutcomes.ComputeIfAbsentOutcome> computeIfAbsentObserver;
+  private final OperationObserver<StoreOperationOutcomes.EvictionOutcome> evictionObserver;
+  private final OperationObserver<StoreOperationOutcomes.ExpirationOutcome> expirationObserver;
+
+  private final OperationObserver<CachingTierOperationOutcomes.GetOrComputeIfAbsentOutcome> getOrComputeIfAbsentObserver;
+  private final OperationObserver<CachingTierOperationOutcomes.InvalidateOutcome> invalidateObserver;
+  private final OperationObserver<CachingTierOperationOutcomes.InvalidateAllOutcome> invalidateAllObserver;
+  private final OperationObserver<CachingTierOperationOutcomes.InvalidateAllWithHashOutcome> invalidateAllWithHashObserver;
+  private final OperationObserver<HigherCachingTierOperationOutcomes.SilentInvalidateOutcome> silentInvalidateObserver;
+  private final OperationObserver<HigherCachingTierOperationOutcomes.SilentInvalidateAllOutcome> silentInvalidateAllObserver;
+  private final OperationObserver<HigherCachingTierOperationOutcomes.SilentInvalidateAllWithHashOutcome> silentInvalidateAllWithHashObserver;
+
+  public PrimitiveKeyOnHeapStore(Configuration<K, V> config, TimeSource timeSource, StoreEventDispatcher<K, V> eventDispatcher, StatisticsService statisticsService) {
+    super(config, statisticsService);
+
+    this.keyFactory = keyFactory(config.getKeyType());
+    this.keyHash = keyHash(config.getKeyType());
+    this.timeSource = Objects.requireNonNull(timeSource, "timeSource must not be null");
+
+    SizedResourcePool heapPool = config.getResourcePools().getPoolForResource(ResourceType.Core.HEAP);
+    if (heapPool == null) {
+      throw new IllegalArgumentException("OnHeap store must be configured with a resource of type 'heap'");
+    }
+    if (!(heapPool.getUnit() instanceof EntryUnit)) {
+      throw new IllegalArgumentException("Primitive key OnHeap store must be sized in entries, not in " + heapPool.getUnit());
+    }
+    this.capacity = heapPool.getSize();
+
+    if (config.getEvictionAdvisor() == null) {
+      this.evictionAdvisor = noAdvice();
+    } else {
+      this.evictionAdvisor = config.getEvictionAdvisor();
+    }
+    this.expiry = config.getExpiry();
+    this.strategy = OnHeapStrategy.strategy(new OnHeapStrategy.ExpiringStore<K, V>() {
+      @Override
+      public void expireMappingUnderLock(K key, ValueHolder<V> value) {
+        PrimitiveKeyOnHeapStore.this.expireMappingUnderLock(key, value);
+      }
+
+      @Override
+      public void fireOnExpirationEvent(K key, ValueHolder<V> value, StoreEventSink<K, V> eventSink) {
+        PrimitiveKeyOnHeapStore.this.fireOnExpirationEvent(key, value, eventSink);
+      }
+    }, expiry);
+    this.storeEventDispatcher = eventDispatcher;
+
+    getObserver = createObserver("get", StoreOperationOutcomes.GetOutcome.class, true);
+    putObserver = createObserver("put", StoreOperationOutcomes.PutOutcome.class, true);
+    removeObserver = createObserver("remove", StoreOperationOutcomes.RemoveOutcome.class, true);
+    putIfAbsentObserver = createObserver("putIfAbsent", StoreOperationOutcomes.PutIfAbsentOutcome.class, true);
+    conditionalRemoveObserver = createObserver("conditionalRemove", StoreOperationOutcomes.ConditionalRemoveOutcome.class, true);
+    replaceObserver = createObserver("replace", StoreOperationOutcomes.ReplaceOutcome.class, true);
+    conditionalReplaceObserver = createObserver("conditionalReplace", StoreOperationOutcomes.ConditionalReplaceOutcome.class, true);
+    computeObserver = createObserver("compute", StoreOperationOutcomes.ComputeOutcome.class, true);
+    computeIfAbsentObserver = createObserver("computeIfAbsent", StoreOperationOutcomes.ComputeIfAbsentOutcome.class, true);
+    evictionObserver = createObserver("eviction", StoreOperationOutcomes.EvictionOutcome.class, false);
+    expirationObserver = createObserver("expiration", StoreOperationOutcomes.ExpirationOutcome.class, false);
+
+    getOrComputeIfAbsentObserver = createObserver("getOrComputeIfAbsent", CachingTierOperationOutcomes.GetOrComputeIfAbsentOutcome.class, true);
+    invalidateObserver = createObserver("invalidate", CachingTierOperationOutcomes.InvalidateOutcome.class, true);
+    invalidateAllObserver = createObserver("invalidateAll", CachingTierOperationOutcomes.InvalidateAllOutcome.class, true);
+    invalidateAllWithHashObserver = createObserver("invalidateAllWithHash", CachingTierOperationOutcomes.InvalidateAllWithHashOutcome.class, true);
+
+    silentInvalidateObserver = createObserver("silentInvalidate", HigherCachingTierOperationOutcomes.SilentInvalidateOutcome.class, true);
+    silentInvalidateAllObserver = createObserver("silentInvalidateAll", HigherCachingTierOperationOutcomes.SilentInvalidateAllOutcome.class, true);
+    silentInvalidateAllWithHashObserver = createObserver("silentInvalidateAllWithHash", HigherCachingTierOperationOutcomes.SilentInvalidateAllWithHashOutcome.class, true);
+
+    Set<String> tags = new HashSet<>(Arrays.asList(getStatisticsTag(), "tier"));
+    registerStatistic("mappings", StatisticType.COUNTER, tags, table::size);
+  }
+
+  /**
+   * Tells if this store can hold keys of the given type.
+   *
+   * @param keyType the key type
+   * @return {@code true} for {@code Long} and {@code Integer} keys
+   */
+  static boolean supportsKeyType(Class<?> keyType) {
+    return keyType == Long.class || keyType == Integer.class;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <K> LongFunction<K> keyFactory(Class<K> keyType) {
+    if (keyType == Long.class) {
+      return key -> (K) Long.valueOf(key);
+    } else if (keyType == Integer.class) {
+      return key -> (K) Integer.valueOf((int) key);
+    } else {
+      throw new IllegalArgumentException("Primitive key OnHeap store does not support keys of type " + keyType.getName());
+    }
+  }
+
+  /**
+   * Returns the hash code of the boxed form of a key, without boxing it.
+   */
+  private static LongToIntFunction keyHash(Class<?> keyType) {
+    if (keyType == Long.class) {
+      return Long::hashCode;
+    } else {
+      return key -> Integer.hashCode((int) key);
+    }
+  }
+
+  private static long longKey(Object key) {
+    return ((Number) key).longValue();
+  }
+
+  @Override
+  protected String getStatisticsTag() {
+    return "OnHeap";
+  }
+
+  @Override
+  public ValueHolder<V> get(K key) throws StoreAccessException {
+    checkKey(key);
+
+    getObserver.begin();
+    try {
+      long now = timeSource.getTimeMillis();
+      OnHeapValueHolder<V> mapping = getQuiet(key, now);
+
+      if (mapping == null) {
+        getObserver.end(StoreOperationOutcomes.GetOutcome.MISS);
+        return null;
+      }
+
+      strategy.setAccessAndExpiryTimeWhenCallerOutsideLock(key, mapping, now);
+
+      getObserver.end(StoreOperationOutcomes.GetOutcome.HIT);
+      return mapping;
+    } catch (RuntimeException re) {
+      throw handleException(re);
+    }
+  }
+
+  /**
+   * Reads the live mapping of a key, expiring it if needed.
+   *
+   * @param key the key
+   * @param now the current time
+   * @return the mapping, or {@code null} if there is none
+   */
+  private OnHeapValueHolder<V> getQuiet(K key, long now) {
+    long k = longKey(key);
+    OnHeapValueHolder<V> mapping = mappingOf(table.segmentFor(k), k);
+    if (mapping == null || mapping instanceof Fault) {
+      return null;
+    }
+
+    if (strategy.isExpired(mapping, now)) {
+      expireMappingUnderLock(key, mapping);
+      return null;
+    }
+    return mapping;
+  }
+
+  /**
+   * Reads the mapping of a key, faults included, under the read lock of its segment.
+   *
+   * @param segment the segment of the key
+   * @param k the key, unboxed
+   * @return the mapping, or {@code null} if there is none
+   */
+  private OnHeapValueHolder<V> mappingOf(LongKeyTable.Segment segment, long k) {
+    long stamp = segment.readLock();
+    try {
+      int slot = segment.find(k);
+      return slot < 0 ? null : mappingAt(segment, slot);
+    } finally {
+      segment.unlockRead(stamp);
+    }
+  }
+
+  @Override
+  public boolean containsKey(K key) throws StoreAccessException {
+    checkKey(key);
+    try {
+      return getQuiet(key, timeSource.getTimeMillis()) != null;
+    } catch (RuntimeException re) {
+      throw handleException(re);
+    }
+  }
+
+  @Override
+  public PutStatus put(K key, V value) throws StoreAccessException {
+    checkKey(key);
+    checkValue(value);
+
+    putObserver.begin();
+
+    long now = timeSource.getTimeMillis();
+    StoreEventSink<K, V> eventSink = storeEventDispatcher.eventSink();
+
+    try {
+      boolean put = true;
+      long k = longKey(key);
+      LongKeyTable.Segment segment = table.segmentFor(k);
+      long stamp = segment.writeLock();
+      try {
+        int slot = findLive(segment, k, key, now, eventSink, false);
+        if (slot < 0) {
+          put = create(segment, k, key, value, now, eventSink) != null;
+        } else {
+          update(segment, slot, key, mappingAt(segment, slot), value, now, eventSink);
+        }
+      } finally {
+        segment.unlockWrite(stamp);
+      }
+      storeEventDispatcher.releaseEventSink(eventSink);
+
+      enforceCapacity();
+
+      if (put) {
+        putObserver.end(StoreOperationOutcomes.PutOutcome.PUT);
+        return PutStatus.PUT;
+      } else {
+        putObserver.end(StoreOperationOutcomes.PutOutcome.NOOP);
+        return PutStatus.NOOP;
+      }
+    } catch (RuntimeException re) {
+      storeEventDispatcher.releaseEventSinkAfterFailure(eventSink, re);
+      putObserver.end(StoreOperationOutcomes.PutOutcome.FAILURE);
+      throw handleException(re);
+    }
+  }
+
+  @Override
+  public boolean remove(K key) throws StoreAccessException {
+    checkKey(key);
+
+    removeObserver.begin();
+    StoreEventSink<K, V> eventSink = storeEventDispatcher.eventSink();
+    long now = timeSource.getTimeMillis();
+
+    try {
+      boolean removed = false;
+      long k = longKey(key);
+      LongKeyTable.Segment segment = table.segmentFor(k);
+      long stamp = segment.writeLock();
+      try {
+        int slot = findLive(segment, k, key, now, eventSink, true);
+        if (slot >= 0) {
+          eventSink.removed(key, mappingAt(segment, slot));
+          segment.remove(slot);
+          removed = true;
+        }
+      } finally {
+        segment.unlockWrite(stamp);
+      }
+      storeEventDispatcher.releaseEventSink(eventSink);
+      removeObserver.end(removed ? StoreOperationOutcomes.RemoveOutcome.REMOVED : StoreOperationOutcomes.RemoveOutcome.MISS);
+      return removed;
+    } catch (RuntimeException re) {
+      storeEventDispatcher.releaseEventSinkAfterFailure(eventSink, re);
+      throw handleException(re);
+    }
+  }
+
+  @Override
+  public ValueHolder<V> putIfAbsent(K key, V value, Consumer<Boolean> put) throws StoreAccessException {
+    checkKey(key);
+    checkValue(value);
+
+    putIfAbsentObserver.begin();
+
+    ValueHolder<V> returnValue = null;
+    boolean entryActuallyAdded = false;
+    long now = timeSource.getTimeMillis();
+    StoreEventSink<K, V> eventSink = storeEventDispatcher.eventSink();
+
+    try {
+      long k = longKey(key);
+      LongKeyTable.Segment segment = table.segmentFor(k);
+      long stamp = segment.writeLock();
+      try {
+        int slot = findLive(segment, k, key, now, eventSink, true);
+        if (slot < 0) {
+          entryActuallyAdded = create(segment, k, key, value, now, eventSink) != null;
+        } else {
+          OnHeapValueHolder<V> mapping = mappingAt(segment, slot);
+          returnValue = mapping;
+          accessedUnderLock(segment, slot, key, mapping, now, eventSink);
+        }
+      } finally {
+        segment.unlockWrite(stamp);
+      }
+
+      storeEventDispatcher.releaseEventSink(eventSink);
+
+      if (entryActuallyAdded) {
+        enforceCapacity();
+        putIfAbsentObserver.end(StoreOperationOutcomes.PutIfAbsentOutcome.PUT);
+      } else {
+        putIfAbsentObserver.end(StoreOperationOutcomes.PutIfAbsentOutcome.HIT);
+      }
+    } catch (RuntimeException re) {
+      storeEventDispatcher.releaseEventSinkAfterFailure(eventSink, re);
+      throw handleException(re);
+    }
+
+    return returnValue;
+  }
+
+  @Override
+  public RemoveStatus remove(K key, V value) throws StoreAccessException {
+    checkKey(key);
+    checkValue(value);
+
+    conditionalRemoveObserver.begin();
+
+    StoreEventSink<K, V> eventSink = storeEventDispatcher.eventSink();
+
+    try {
+      RemoveStatus outcome = RemoveStatus.KEY_MISSING;
+      long now = timeSource.getTimeMillis();
+      long k = longKey(key);
+      LongKeyTable.Segment segment = table.segmentFor(k);
+      long stamp = segment.writeLock();
+      try {
+        int slot = findLive(segment, k, key, now, eventSink, true);
+        if (slot >= 0) {
+          OnHeapValueHolder<V> mapping = mappingAt(segment, slot);
+          if (value.equals(mapping.get())) {
+            eventSink.removed(key, mapping);
+            segment.remove(slot);
+            outcome = RemoveStatus.REMOVED;
+          } else {
+            outcome = RemoveStatus.KEY_PRESENT;
+            accessedUnderLock(segment, slot, key, mapping, now, eventSink);
+          }
+        }
+      } finally {
+        segment.unlockWrite(stamp);
+      }
+      storeEventDispatcher.releaseEventSink(eventSink);
+      if (outcome == RemoveStatus.REMOVED) {
+        conditionalRemoveObserver.end(StoreOperationOutcomes.ConditionalRemoveOutcome.REMOVED);
+      } else {
+        conditionalRemoveObserver.end(StoreOperationOutcomes.ConditionalRemoveOutcome.MISS);
+      }
+      return outcome;
+    } catch (RuntimeException re) {
+      storeEventDispatcher.releaseEventSinkAfterFailure(eventSink, re);
+      throw handleException(re);
+    }
+  }
+
+  @Override
+  public ValueHolder<V> replace(K key, V value) throws StoreAccessException {
+    checkKey(key);
+    checkValue(value);
+
+    replaceObserver.begin();
+
+    ValueHolder<V> returnValue = null;
+    StoreEventSink<K, V> eventSink = storeEventDispatcher.eventSink();
+
+    try {
+      long now = timeSource.getTimeMillis();
+      long k = longKey(key);
+      LongKeyTable.Segment segment = table.segmentFor(k);
+      long stamp = segment.writeLock();
+      try {
+        int slot = findLive(segment, k, key, now, eventSink, true);
+        if (slot >= 0) {
+          OnHeapValueHolder<V> mapping = mappingAt(segment, slot);
+          returnValue = mapping;
+          update(segment, slot, key, mapping, value, now, eventSink);
+        }
+      } finally {
+        segment.unlockWrite(stamp);
+      }
+      storeEventDispatcher.releaseEventSink(eventSink);
+      enforceCapacity();
+      if (returnValue != null) {
+        replaceObserver.end(StoreOperationOutcomes.ReplaceOutcome.REPLACED);
+      } else {
+        replaceObserver.end(StoreOperationOutcomes.ReplaceOutcome.MISS);
+      }
+    } catch (RuntimeException re) {
+      storeEventDispatcher.releaseEventSinkAfterFailure(eventSink, re);
+      throw handleException(re);
+    }
+
+    return returnValue;
+  }
+
+  @Override
+  public ReplaceStatus replace(K key, V oldValue, V newValue) throws StoreAccessException {
+    checkKey(key);
+    checkValue(oldValue);
+    checkValue(newValue);
+
+    conditionalReplaceObserver.begin();
+
+    StoreEventSink<K, V> eventSink = storeEventDispatcher.eventSink();
+
+    try {
+      ReplaceStatus outcome = ReplaceStatus.MISS_NOT_PRESENT;
+      long now = timeSource.getTimeMillis();
+      long k = longKey(key);
+      LongKeyTable.Segment segment = table.segmentFor(k);
+      long stamp = segment.writeLock();
+      try {
+        int slot = findLive(segment, k, key, now, eventSink, true);
+        if (slot >= 0) {
+          OnHeapValueHolder<V> mapping = mappingAt(segment, slot);
+          if (oldValue.equals(mapping.get())) {
+            outcome = ReplaceStatus.HIT;
+            update(segment, slot, key, mapping, newValue, now, eventSink);
+          } else {
+            outcome = ReplaceStatus.MISS_PRESENT;
+            accessedUnderLock(segment, slot, key, mapping, now, eventSink);
+          }
+        }
+      } finally {
+        segment.unlockWrite(stamp);
+      }
+      storeEventDispatcher.releaseEventSink(eventSink);
+      enforceCapacity();
+      if (outcome == ReplaceStatus.HIT) {
+        conditionalReplaceObserver.end(StoreOperationOutcomes.ConditionalReplaceOutcome.REPLACED);
+      } else {
+        conditionalReplaceObserver.end(StoreOperationOutcomes.ConditionalReplaceOutcome.MISS);
+      }
+      return outcome;
+    } catch (RuntimeException re) {
+      storeEventDispatcher.releaseEventSinkAfterFailure(eventSink, re);
+      throw handleException(re);
+    }
+  }
+
+  @Override
+  public void clear() {
+    for (int i = 0; i < table.segmentCount(); i++) {
+      LongKeyTable.Segment segment = table.segment(i);
+      long stamp = segment.writeLock();
+      try {
+        segment.clear();
+      } finally {
+        segment.unlockWrite(stamp);
+      }
+    }
+  }
+
+  @Override
+  public Iterator<Cache.Entry<K, ValueHolder<V>>> iterator() {
+    return new Iterator<Cache.Entry<K, ValueHolder<V>>>() {
+      private int segmentIndex = 0;
+      private long[] keys = new long[0];
+      private Object[] mappings = new Object[0];
+      private int index = 0;
+      private Cache.Entry<K, ValueHolder<V>> prefetched = advance();
+
+      @Override
+      public boolean hasNext() {
+        return prefetched != null;
+      }
+
+      @Override
+      public Cache.Entry<K, ValueHolder<V>> next() throws StoreAccessException {
+        if (prefetched == null) {
+          throw new NoSuchElementException();
+        } else {
+          Cache.Entry<K, ValueHolder<V>> next = prefetched;
+          prefetched = advance();
+          return next;
+        }
+      }
+
+      private Cache.Entry<K, ValueHolder<V>> advance() {
+        while (true) {
+          while (index < keys.length) {
+            long k = keys[index];
+            Object next = mappings[index++];
+            if (next instanceof Fault) {
+              continue;
+            }
+            K key = keyFactory.apply(k);
+            OnHeapValueHolder<V> mapping = cast(next);
+            if (strategy.isExpired(mapping, timeSource.getTimeMillis())) {
+              expireMappingUnderLock(key, mapping);
+            } else {
+              return new Cache.Entry<K, ValueHolder<V>>() {
+                @Override
+                public K getKey() {
+                  return key;
+                }
+
+                @Override
+                public ValueHolder<V> getValue() {
+                  return mapping;
+                }
+              };
+            }
+          }
+          if (segmentIndex == table.segmentCount()) {
+            return null;
+          }
+          LongKeyTable.Segment segment = table.segment(segmentIndex++);
+          long stamp = segment.readLock();
+          try {
+            keys = new long[segment.count()];
+            mappings = new Object[keys.length];
+            for (int slot = 0, i = 0; slot < segment.capacity(); slot++) {
+              if (segment.isOccupied(slot)) {
+                keys[i] = segment.key(slot);
+                mappings[i++] = segment.value(slot);
+              }
+            }
+          } finally {
+            segment.unlockRead(stamp);
+          }
+          index = 0;
+        }
+      }
+    };
+  }
+
+  @Override
+  public ValueHolder<V> getOrComputeIfAbsent(K key, Function<K, ValueHolder<V>> source) throws StoreAccessException {
+    try {
+      getOrComputeIfAbsentObserver.begin();
+      long k = longKey(key);
+      LongKeyTable.Segment segment = table.segmentFor(k);
+      long now = timeSource.getTimeMillis();
+
+      // First try to find a live value or a fault under the read lock
+      OnHeapValueHolder<V> cachedValue = mappingOf(segment, k);
+      if (cachedValue != null && !(cachedValue instanceof Fault)) {
+        if (strategy.isExpired(cachedValue, now)) {
+          cachedValue = null;
+        } else {
+          // if it expires on access, it is still returned
+          strategy.setAccessAndExpiryTimeWhenCallerOutsideLock(key, cachedValue, now);
+        }
+      }
+
+      if (cachedValue == null) {
+        // Absent or expired: install a fault, unless another thread raced us to it
+        Fault<V> fault = new Fault<>(() -> source.apply(key));
+        boolean installed = false;
+        StoreEventSink<K, V> eventSink = storeEventDispatcher.eventSink();
+        try {
+          long stamp = segment.writeLock();
+          try {
+            int slot = segment.find(k);
+            if (slot >= 0) {
+              cachedValue = mappingAt(segment, slot);
+              if (!(cachedValue instanceof Fault) && strategy.isExpired(cachedValue, now)) {
+                fireOnExpirationEvent(key, cachedValue, eventSink);
+                segment.remove(slot);
+                slot = -1;
+              }
+            }
+            if (slot < 0) {
+              segment.insert(k, fault);
+              installed = true;
+            } else if (!(cachedValue instanceof Fault)) {
+              // if it expires on access, it is still returned
+              accessedUnderLock(segment, slot, key, cachedValue, now, eventSink);
+            }
+          } finally {
+            segment.unlockWrite(stamp);
+          }
+          storeEventDispatcher.releaseEventSink(eventSink);
+        } catch (RuntimeException re) {
+          storeEventDispatcher.releaseEventSinkAfterFailure(eventSink, re);
+          throw re;
+        }
+
+        if (installed) {
+          return resolveFault(key, segment, k, now, fault);
+        }
+      }
+
+      getOrComputeIfAbsentObserver.end(CachingTierOperationOutcomes.GetOrComputeIfAbsentOutcome.HIT);
+
+      // Return the value that we found in the cache, waiting on the fault if another thread is loading it
+      if (cachedValue instanceof Fault) {
+        return getValue(cachedValue);
+      }
+      return cachedValue;
+    } catch (RuntimeException re) {
+      throw handleException(re);
+    }
+  }
+
+  @Override
+  public ValueHolder<V> getOrDefault(K key, Function<K, ValueHolder<V>> source) throws StoreAccessException {
+    try {
+      long k = longKey(key);
+      OnHeapValueHolder<V> cachedValue = mappingOf(table.segmentFor(k), k);
+
+      if (cachedValue == null) {
+        return source.apply(key);
+      } else if (cachedValue instanceof Fault) {
+        return getValue(cachedValue);
+      } else if (strategy.isExpired(cachedValue, timeSource.getTimeMillis())) {
+        expireMappingUnderLock(key, cachedValue);
+        return null;
+      }
+      return cachedValue;
+    } catch (RuntimeException re) {
+      throw handleException(re);
+    }
+  }
+
+  private ValueHolder<V> resolveFault(K key, LongKeyTable.Segment segment, long k, long now, Fault<V> fault) throws StoreAccessException {
+    try {
+      ValueHolder<V> value = fault.getValueHolder();
+      if (value == null) {
+        removeFault(segment, k, fault);
+        getOrComputeIfAbsentObserver.end(CachingTierOperationOutcomes.GetOrComputeIfAbsentOutcome.MISS);
+        return null;
+      }
+
+      Duration expiration = strategy.getAccessDuration(key, value);
+      V realValue = value.get();
+      OnHeapValueHolder<V> newValue = new CopiedOnHeapValueHolder<>(value, realValue, checkEvictionAdvice(key, realValue),
+        valueCopier, now, expiration);
+
+      if (Duration.ZERO.equals(expiration)) {
+        // Inline expiry: the lower tier gets the mapping back, the fault goes
+        long stamp = segment.writeLock();
+        try {
+          int slot = segment.find(k);
+          if (slot >= 0 && segment.value(slot) == fault) {
+            invalidationListener.onInvalidation(key, newValue);
+            segment.remove(slot);
+          }
+        } finally {
+          segment.unlockWrite(stamp);
+        }
+        getOrComputeIfAbsentObserver.end(CachingTierOperationOutcomes.GetOrComputeIfAbsentOutcome.FAULT_FAILED);
+        return value;
+      }
+
+      boolean installed = false;
+      OnHeapValueHolder<V> invalidatedValue = null;
+      long stamp = segment.writeLock();
+      try {
+        int slot = segment.find(k);
+        if (slot >= 0) {
+          if (segment.value(slot) == fault) {
+            segment.set(slot, newValue);
+            installed = true;
+          } else {
+            invalidatedValue = mappingAt(segment, slot);
+            if (!(invalidatedValue instanceof Fault)) {
+              notifyInvalidation(key, invalidatedValue);
+            }
+            segment.remove(slot);
+          }
+        }
+      } finally {
+        segment.unlockWrite(stamp);
+      }
+
+      if (installed) {
+        getOrComputeIfAbsentObserver.end(CachingTierOperationOutcomes.GetOrComputeIfAbsentOutcome.FAULTED);
+        enforceCapacity();
+        return newValue;
+      }
+
+      ValueHolder<V> p = invalidatedValue instanceof Fault ? getValue(invalidatedValue) : invalidatedValue;
+      if (p != null) {
+        if (p.isExpired(now)) {
+          getOrComputeIfAbsentObserver.end(CachingTierOperationOutcomes.GetOrComputeIfAbsentOutcome.FAULT_FAILED_MISS);
+          return null;
+        }
+
+        getOrComputeIfAbsentObserver.end(CachingTierOperationOutcomes.GetOrComputeIfAbsentOutcome.FAULT_FAILED);
+        return p;
+      }
+
+      getOrComputeIfAbsentObserver.end(CachingTierOperationOutcomes.GetOrComputeIfAbsentOutcome.FAULT_FAILED);
+      return newValue;
+
+    } catch (Throwable e) {
+      removeFault(segment, k, fault);
+      throw new StoreAccessException(e);
+    }
+  }
+
+  @Override
+  public ValueHolder<V> installWritten(K key, Function<K, ValueHolder<V>> source) throws StoreAccessException {
+    try {
+      long k = longKey(key);
+      LongKeyTable.Segment segment = table.segmentFor(k);
+      long now = timeSource.getTimeMillis();
+
+      Fault<V> fault = new Fault<>(() -> source.apply(key));
+      long stamp = segment.writeLock();
+      try {
+        if (segment.find(k) >= 0) {
+          return null;
+        }
+        segment.insert(k, fault);
+      } finally {
+        segment.unlockWrite(stamp);
+      }
+      return resolveWritten(key, segment, k, now, fault);
+    } catch (RuntimeException re) {
+      throw handleException(re);
+    }
+  }
+
+  private ValueHolder<V> resolveWritten(K key, LongKeyTable.Segment segment, long k, long now, Fault<V> fault) throws StoreAccessException {
+    try {
+      ValueHolder<V> written = fault.getValueHolder();
+      if (written == null) {
+        removeFault(segment, k, fault);
+        return null;
+      }
+
+      // The written mapping keeps its write expiry, installing it is not an access
+      V realValue = written.get();
+      OnHeapValueHolder<V> newValue = new CopiedOnHeapValueHolder<>(written, realValue, checkEvictionAdvice(key, realValue),
+        valueCopier, now, null);
+      boolean installed = false;
+      long stamp = segment.writeLock();
+      try {
+        int slot = segment.find(k);
+        if (slot >= 0) {
+          if (segment.value(slot) == fault) {
+            segment.set(slot, newValue);
+            installed = true;
+          } else {
+            // The fault was invalidated concurrently
+            OnHeapValueHolder<V> invalidated = mappingAt(segment, slot);
+            if (!(invalidated instanceof Fault)) {
+              notifyInvalidation(key, invalidated);
+            }
+            segment.remove(slot);
+          }
+        }
+      } finally {
+        segment.unlockWrite(stamp);
+      }
+
+      if (installed) {
+        enforceCapacity();
+        return newValue;
+      }
+      return null;
+    } catch (Throwable e) {
+      removeFault(segment, k, fault);
+      throw new StoreAccessException(e);
+    }
+  }
+
+  private void removeFault(LongKeyTable.Segment segment, long k, Fault<V> fault) {
+    long stamp = segment.writeLock();
+    try {
+      int slot = segment.find(k);
+      if (slot >= 0 && segment.value(slot) == fault) {
+        segment.remove(slot);
+      }
+    } finally {
+      segment.unlockWrite(stamp);
+    }
+  }
+
+  @Override
+  public void invalidate(K key) throws StoreAccessException {
+    checkKey(key);
+
+    invalidateObserver.begin();
+    try {
+      CachingTierOperationOutcomes.InvalidateOutcome outcome = CachingTierOperationOutcomes.InvalidateOutcome.MISS;
+      long k = longKey(key);
+      LongKeyTable.Segment segment = table.segmentFor(k);
+      long stamp = segment.writeLock();
+      try {
+        int slot = segment.find(k);
+        if (slot >= 0) {
+          OnHeapValueHolder<V> mapping = mappingAt(segment, slot);
+          if (!(mapping instanceof Fault)) {
+            notifyInvalidation(key, mapping);
+            outcome = CachingTierOperationOutcomes.InvalidateOutcome.REMOVED;
+          }
+          segment.remove(slot);
+        }
+      } finally {
+        segment.unlockWrite(stamp);
+      }
+      invalidateObserver.end(outcome);
+    } catch (RuntimeException re) {
+      throw handleException(re);
+    }
+  }
+
+  @Override
+  public void silentInvalidate(K key, Function<Store.ValueHolder<V>, Void> function) throws StoreAccessException {
+    checkKey(key);
+
+    silentInvalidateObserver.begin();
+    try {
+      HigherCachingTierOperationOutcomes.SilentInvalidateOutcome outcome = HigherCachingTierOperationOutcomes.SilentInvalidateOutcome.MISS;
+      long k = longKey(key);
+      LongKeyTable.Segment segment = table.segmentFor(k);
+      long stamp = segment.writeLock();
+      try {
+        int slot = segment.find(k);
+        ValueHolder<V> holderToPass = null;
+        if (slot >= 0 && !(segment.value(slot) instanceof Fault)) {
+          holderToPass = mappingAt(segment, slot);
+          outcome = HigherCachingTierOperationOutcomes.SilentInvalidateOutcome.REMOVED;
+        }
+        function.apply(holderToPass);
+        if (slot >= 0) {
+          segment.remove(slot);
+        }
+      } finally {
+        segment.unlockWrite(stamp);
+      }
+      silentInvalidateObserver.end(outcome);
+    } catch (RuntimeException re) {
+      throw handleException(re);
+    }
+  }
+
+  @Override
+  public void invalidateAll() throws StoreAccessException {
+    invalidateAllObserver.begin();
+    long errorCount = 0;
+    StoreAccessException firstException = null;
+    for (K key : keySet()) {
+      try {
+        invalidate(key);
+      } catch (StoreAccessException cae) {
+        errorCount++;
+        if (firstException == null) {
+          firstException = cae;
+        }
+      }
+    }
+    if (firstException != null) {
+      invalidateAllObserver.end(CachingTierOperationOutcomes.InvalidateAllOutcome.FAILURE);
+      throw new StoreAccessException("Error(s) during invalidation - count is " + errorCount, firstException);
+    }
+    clear();
+    invalidateAllObserver.end(CachingTierOperationOutcomes.InvalidateAllOutcome.SUCCESS);
+  }
+
+  @Override
+  public void silentInvalidateAll(BiFunction<K, ValueHolder<V>, Void> biFunction) throws StoreAccessException {
+    silentInvalidateAllObserver.begin();
+    StoreAccessException exception = null;
+    long errorCount = 0;
+
+    for (K k : keySet()) {
+      try {
+        silentInvalidate(k, mappedValue -> {
+          biFunction.apply(k, mappedValue);
+          return null;
+        });
+      } catch (StoreAccessException e) {
+        errorCount++;
+        if (exception == null) {
+          exception = e;
+        }
+      }
+    }
+
+    if (exception != null) {
+      silentInvalidateAllObserver.end(HigherCachingTierOperationOutcomes.SilentInvalidateAllOutcome.FAILURE);
+      throw new StoreAccessException("silentInvalidateAll failed - error count: " + errorCount, exception);
+    }
+    silentInvalidateAllObserver.end(HigherCachingTierOperationOutcomes.SilentInvalidateAllOutcome.SUCCESS);
+  }
+
+  @Override
+  public void silentInvalidateAllWithHash(long hash, BiFunction<K, ValueHolder<V>, Void> biFunction) {
+    silentInvalidateAllWithHashObserver.begin();
+    int intHash = HashUtils.longHashToInt(hash);
+    for (Map.Entry<K, ValueHolder<V>> entry : removeAllWithHash(intHash)) {
+      biFunction.apply(entry.getKey(), entry.getValue());
+    }
+    silentInvalidateAllWithHashObserver.end(HigherCachingTierOperationOutcomes.SilentInvalidateAllWithHashOutcome.SUCCESS);
+  }
+
+  @Override
+  public void invalidateAllWithHash(long hash) {
+    invalidateAllWithHashObserver.begin();
+    int intHash = HashUtils.longHashToInt(hash);
+    for (Map.Entry<K, ValueHolder<V>> entry : removeAllWithHash(intHash)) {
+      notifyInvalidation(entry.getKey(), entry.getValue());
+    }
+    LOG.debug("CLIENT: onheap store removed all with hash {}", intHash);
+    invalidateAllWithHashObserver.end(CachingTierOperationOutcomes.InvalidateAllWithHashOutcome.SUCCESS);
+  }
+
+  /**
+   * Removes all mappings whose key has the given hash code, faults included.
+   *
+   * @param hash the key hash code
+   * @return the removed mappings, faults excluded
+   */
+  private Collection<Map.Entry<K, ValueHolder<V>>> removeAllWithHash(int hash) {
+    List<Map.Entry<K, ValueHolder<V>>> removed = new ArrayList<>();
+    for (int i = 0; i < table.segmentCount(); i++) {
+      LongKeyTable.Segment segment = table.segment(i);
+      long stamp = segment.writeLock();
+      try {
+        for (long k : keys(segment)) {
+          if (keyHash.applyAsInt(k) == hash) {
+            int slot = segment.find(k);
+            OnHeapValueHolder<V> mapping = mappingAt(segment, slot);
+            if (!(mapping instanceof Fault)) {
+              removed.add(new AbstractMap.SimpleImmutableEntry<>(keyFactory.apply(k), mapping));
+            }
+            segment.remove(slot);
+          }
+        }
+      } finally {
+        segment.unlockWrite(stamp);
+      }
+    }
+    return removed;
+  }
+
+  private void notifyInvalidation(K key, ValueHolder<V> p) {
+    InvalidationListener<K, V> invalidationListener = this.invalidationListener;
+    if(invalidationListener != null) {
+      invalidationListener.onInvalidation(key, p);
+    }
+  }
+
+  @Override
+  public void setInvalidationListener(InvalidationListener<K, V> providedInvalidationListener) {
+    this.invalidationListener = providedInvalidationListener;
+  }
+
+  private ValueHolder<V> getValue(OnHeapValueHolder<V> cachedValue) {
+    return ((Fault<V>) cachedValue).getValueHolder();
+  }
+
+  @Override
+  public ValueHolder<V> getAndCompute(K key, BiFunction<? super K, ? super V, ? extends V> mappingFunction) throws StoreAccessException {
+    checkKey(key);
+
+    computeObserver.begin();
+
+    long now = timeSource.getTimeMillis();
+    StoreEventSink<K, V> eventSink = storeEventDispatcher.eventSink();
+    try {
+      OnHeapValueHolder<V> oldValue;
+      StoreOperationOutcomes.ComputeOutcome outcome = StoreOperationOutcomes.ComputeOutcome.MISS;
+
+      long k = longKey(key);
+      LongKeyTable.Segment segment = table.segmentFor(k);
+      long stamp = segment.writeLock();
+      try {
+        int slot = findLive(segment, k, key, now, eventSink, true);
+        oldValue = slot < 0 ? null : mappingAt(segment, slot);
+        V existingValue = oldValue == null ? null : oldValue.get();
+        V computedValue = mappingFunction.apply(key, existingValue);
+        if (computedValue == null) {
+          if (existingValue != null) {
+            eventSink.removed(key, oldValue);
+            segment.remove(slot);
+            outcome = StoreOperationOutcomes.ComputeOutcome.REMOVED;
+          }
+        } else {
+          checkValue(computedValue);
+          if (oldValue != null) {
+            outcome = StoreOperationOutcomes.ComputeOutcome.PUT;
+            update(segment, slot, key, oldValue, computedValue, now, eventSink);
+          } else if (create(segment, k, key, computedValue, now, eventSink) != null) {
+            outcome = StoreOperationOutcomes.ComputeOutcome.PUT;
+          }
+        }
+      } finally {
+        segment.unlockWrite(stamp);
+      }
+
+      storeEventDispatcher.releaseEventSink(eventSink);
+      enforceCapacity();
+      computeObserver.end(outcome);
+      return oldValue;
+    } catch (RuntimeException re) {
+      storeEventDispatcher.releaseEventSinkAfterFailure(eventSink, re);
+      throw handleException(re);
+    }
+  }
+
+  @Override
+  public ValueHolder<V> computeAndGet(K key, BiFunction<? super K, ? super V, ? extends V> mappingFunction, Supplier<Boolean> replaceEqual, Supplier<Boolean> invokeWriter) throws StoreAccessException {
+    checkKey(key);
+
+    computeObserver.begin();
+
+    long now = timeSource.getTimeMillis();
+    StoreEventSink<K, V> eventSink = storeEventDispatcher.eventSink();
+    try {
+      ValueHolder<V> computeResult = null;
+      StoreOperationOutcomes.ComputeOutcome outcome = StoreOperationOutcomes.ComputeOutcome.MISS;
+
+      long k = longKey(key);
+      LongKeyTable.Segment segment = table.segmentFor(k);
+      long stamp = segment.writeLock();
+      try {
+        int slot = findLive(segment, k, key, now, eventSink, true);
+        OnHeapValueHolder<V> mappedValue = slot < 0 ? null : mappingAt(segment, slot);
+        V existingValue = mappedValue == null ? null : mappedValue.get();
+        V computedValue = mappingFunction.apply(key, existingValue);
+        if (computedValue == null) {
+          if (existingValue != null) {
+            eventSink.removed(key, mappedValue);
+            segment.remove(slot);
+            outcome = StoreOperationOutcomes.ComputeOutcome.REMOVED;
+          }
+        } else if (Objects.equals(existingValue, computedValue) && !replaceEqual.get() && mappedValue != null) {
+          outcome = StoreOperationOutcomes.ComputeOutcome.HIT;
+          // if it expires on access, it is still returned
+          accessedUnderLock(segment, slot, key, mappedValue, now, eventSink);
+          computeResult = mappedValue;
+        } else {
+          checkValue(computedValue);
+          if (mappedValue != null) {
+            outcome = StoreOperationOutcomes.ComputeOutcome.PUT;
+            computeResult = update(segment, slot, key, mappedValue, computedValue, now, eventSink);
+            if (computeResult == null) {
+              computeResult = newValueHolder(key, computedValue, now, mappedValue.expirationTime());
+            }
+          } else {
+            computeResult = create(segment, k, key, computedValue, now, eventSink);
+            if (computeResult != null) {
+              outcome = StoreOperationOutcomes.ComputeOutcome.PUT;
+            }
+          }
+        }
+      } finally {
+        segment.unlockWrite(stamp);
+      }
+
+      storeEventDispatcher.releaseEventSink(eventSink);
+      enforceCapacity();
+      computeObserver.end(outcome);
+      return computeResult;
+    } catch (RuntimeException re) {
+      storeEventDispatcher.releaseEventSinkAfterFailure(eventSink, re);
+      throw handleException(re);
+    }
+  }
+
+  @Override
+  public ValueHolder<V> computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) throws StoreAccessException {
+    checkKey(key);
+    bulkLoadFaults.await(key);
+    return internalComputeIfAbsent(key, mappingFunction);
+  }
+
+  private ValueHolder<V> internalComputeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) throws StoreAccessException {
+    computeIfAbsentObserver.begin();
+
+    StoreEventSink<K, V> eventSink = storeEventDispatcher.eventSink();
+    try {
+      long now = timeSource.getTimeMillis();
+
+      ValueHolder<V> computeResult = null;
+      boolean created = false;
+      StoreOperationOutcomes.ComputeIfAbsentOutcome outcome = StoreOperationOutcomes.ComputeIfAbsentOutcome.NOOP;
+
+      long k = longKey(key);
+      LongKeyTable.Segment segment = table.segmentFor(k);
+      long stamp = segment.writeLock();
+      try {
+        int slot = findLive(segment, k, key, now, eventSink, true);
+        if (slot < 0) {
+          V computedValue = mappingFunction.apply(key);
+          if (computedValue != null) {
+            checkValue(computedValue);
+            computeResult = create(segment, k, key, computedValue, now, eventSink);
+            if (computeResult != null) {
+              outcome = StoreOperationOutcomes.ComputeIfAbsentOutcome.PUT;
+              created = true;
+            }
+          }
+        } else {
+          outcome = StoreOperationOutcomes.ComputeIfAbsentOutcome.HIT;
+          // There was a value - if it expires on access, it is still returned
+          OnHeapValueHolder<V> mapping = mappingAt(segment, slot);
+          accessedUnderLock(segment, slot, key, mapping, now, eventSink);
+          computeResult = mapping;
+        }
+      } finally {
+        segment.unlockWrite(stamp);
+      }
+
+      storeEventDispatcher.releaseEventSink(eventSink);
+      if (created) {
+        enforceCapacity();
+      }
+      computeIfAbsentObserver.end(outcome);
+      return computeResult;
+    } catch (RuntimeException re) {
+      storeEventDispatcher.releaseEventSinkAfterFailure(eventSink, re);
+      throw handleException(re);
+    }
+  }
+
+  @Override
+  public Map<K, ValueHolder<V>> bulkComputeIfAbsent(Set<? extends K> keys, Function<Iterable<? extends K>, Iterable<? extends Map.Entry<? extends K, ? extends V>>> mappingFunction) throws StoreAccessException {
+    Map<K, ValueHolder<V>> result = new HashMap<>(keys.size());
+
+    Collection<? extends K> pending = keys;
+    while (!pending.isEmpty()) {
+      List<K> contended = new ArrayList<>();
+      try (BulkLoadFaults<K>.Fault fault = bulkLoadFaults.claim(pending, contended)) {
+        Set<K> absentKeys = new LinkedHashSet<>();
+        Set<K> presentKeys = new HashSet<>();
+        long now = timeSource.getTimeMillis();
+        for (K key : fault.keys()) {
+          checkKey(key);
+          if (getQuiet(key, now) == null) {
+            absentKeys.add(key);
+          } else {
+            presentKeys.add(key);
+          }
+        }
+
+        Map<K, V> loaded = new HashMap<>(absentKeys.size());
+        if (!absentKeys.isEmpty()) {
+          try {
+            for (Map.Entry<? extends K, ? extends V> entry : mappingFunction.apply(absentKeys)) {
+              K computedKey = entry.getKey();
+              checkKey(computedKey);
+              loaded.put(computedKey, entry.getValue());
+            }
+          } catch (RuntimeException re) {
+            throw handleException(re);
+          }
+        }
+
+        for (K key : fault.keys()) {
+          ValueHolder<V> holder = internalComputeIfAbsent(key, loaded::get);
+          if (holder == null && presentKeys.contains(key)) {
+            // removed since the absence check: check again rather than report it absent without loading it
+            contended.add(key);
+          } else {
+            result.put(key, holder);
+          }
+        }
+      }
+
+      for (K key : contended) {
+        bulkLoadFaults.await(key);
+      }
+      pending = contended;
+    }
+    return result;
+  }
+
+  @Override
+  public List<CacheConfigurationChangeListener> getConfigurationChangeListeners() {
+    List<CacheConfigurationChangeListener> configurationChangeListenerList
+        = new ArrayList<>();
+    configurationChangeListenerList.add(this.cacheConfigurationChangeListener);
+    return configurationChangeListenerList;
+  }
+
+  @Override
+  public Map<K, ValueHolder<V>> bulkCompute(Set<? extends K> keys, Function<Iterable<? extends Map.Entry<? extends K, ? extends V>>, Iterable<? extends Map.Entry<? extends K, ? extends V>>> remappingFunction) throws StoreAccessException {
+    return bulkCompute(keys, remappingFunction, REPLACE_EQUALS_TRUE);
+  }
+
+  @Override
+  public Map<K, ValueHolder<V>> bulkCompute(Set<? extends K> keys, Function<Iterable<? extends Map.Entry<? extends K, ? extends V>>, Iterable<? extends Map.Entry<? extends K,? extends V>>> remappingFunction, Supplier<Boolean> replaceEqual) throws StoreAccessException {
+    Map<K, ValueHolder<V>> result = new HashMap<>();
+    for (K key : keys) {
+      checkKey(key);
+
+      ValueHolder<V> newValue = computeAndGet(key, (k, oldValue) -> {
+        Set<Map.Entry<K, V>> entrySet = Collections.singletonMap(k, oldValue).entrySet();
+        Iterable<? extends Map.Entry<? extends K, ? extends V>> entries = remappingFunction.apply(entrySet);
+        java.util.Iterator<? extends Map.Entry<? extends K, ? extends V>> iterator = entries.iterator();
+        Map.Entry<? extends K, ? extends V> next = iterator.next();
+
+        K key1 = next.getKey();
+        V value = next.getValue();
+        checkKey(key1);
+        if (value != null) {
+          checkValue(value);
+        }
+        return value;
+      }, replaceEqual, () -> false);
+      result.put(key, newValue);
+    }
+    return result;
+  }
+
+  @Override
+  public StoreEventSource<K, V> getStoreEventSource() {
+    return storeEventDispatcher;
+  }
+
+  /**
+   * Returns the keys of all mappings, faults included, segment by segment.
+   *
+   * @return the keys
+   */
+  private List<K> keySet() {
+    List<K> keySet = new ArrayList<>();
+    for (int i = 0; i < table.segmentCount(); i++) {
+      LongKeyTable.Segment segment = table.segment(i);
+      long stamp = segment.readLock();
+      try {
+        for (long k : keys(segment)) {
+          keySet.add(keyFactory.apply(k));
+        }
+      } finally {
+        segment.unlockRead(stamp);
+      }
+    }
+    return keySet;
+  }
+
+  /**
+   * Copies the keys of a segment, faults included. The caller must hold the segment lock.
+   *
+   * @param segment the segment
+   * @return the keys
+   */
+  private static long[] keys(LongKeyTable.Segment segment) {
+    long[] keys = new long[segment.count()];
+    int index = 0;
+    for (int slot = 0; slot < segment.capacity(); slot++) {
+      if (segment.isOccupied(slot)) {
+        keys[index++] = segment.key(slot);
+      }
+    }
+    return keys;
+  }
+
+  /**
+   * Finds the live mapping of a key, dropping it if it is a fault or expired. The caller must hold the write lock.
+   *
+   * @param segment the segment of the key
+   * @param k the key, unboxed
+   * @param key the key
+   * @param now the current time
+   * @param eventSink target of the expiration event
+   * @param fireExpiration if dropping an expired mapping fires an expiration
+   * @return the slot of the live mapping, or {@code -1}
+   */
+  private int findLive(LongKeyTable.Segment segment, long k, K key, long now, StoreEventSink<K, V> eventSink, boolean fireExpiration) {
+    int slot = segment.find(k);
+    if (slot >= 0) {
+      OnHeapValueHolder<V> mapping = mappingAt(segment, slot);
+      if (mapping instanceof Fault) {
+        segment.remove(slot);
+        return -1;
+      } else if (strategy.isExpired(mapping, now)) {
+        if (fireExpiration) {
+          fireOnExpirationEvent(key, mapping, eventSink);
+        }
+        segment.remove(slot);
+        return -1;
+      }
+    }
+    return slot;
+  }
+
+  /**
+   * Maps a key that is not mapped, unless the expiry policy expires the value right away. The caller must hold the
+   * write lock.
+   *
+   * @return the new mapping, or {@code null} if none was created
+   */
+  private OnHeapValueHolder<V> create(LongKeyTable.Segment segment, long k, K key, V value, long now, StoreEventSink<K, V> eventSink) {
+    Objects.requireNonNull(value);
+
+    Duration duration = ExpiryUtils.getExpiryForCreation(key, value, expiry);
+    if(duration.isZero()) {
+      return null;
+    }
+
+    long expirationTime = isExpiryDurationInfinite(duration) ? ValueHolder.NO_EXPIRE : ExpiryUtils.getExpirationMillis(now, duration);
+
+    OnHeapValueHolder<V> mapping = newValueHolder(key, value, now, expirationTime);
+    segment.insert(k, mapping);
+    eventSink.created(key, value);
+    return mapping;
+  }
+
+  /**
+   * Replaces the value of a live mapping, removing it if the expiry policy expires the new value right away. The
+   * caller must hold the write lock.
+   *
+   * @return the new mapping, or {@code null} if the mapping was removed
+   */
+  private OnHeapValueHolder<V> update(LongKeyTable.Segment segment, int slot, K key, OnHeapValueHolder<V> oldValue, V newValue, long now, StoreEventSink<K, V> eventSink) {
+    Objects.requireNonNull(newValue);
+
+    Duration duration = strategy.getUpdateDuration(key, oldValue, newValue);
+
+    if (Duration.ZERO.equals(duration)) {
+      eventSink.updated(key, oldValue, newValue);
+      eventSink.expired(key, () -> newValue);
+      segment.remove(slot);
+      return null;
+    }
+
+    long expirationTime;
+    if (duration == null) {
+      expirationTime = oldValue.expirationTime();
+    } else {
+      if (isExpiryDurationInfinite(duration)) {
+        expirationTime = ValueHolder.NO_EXPIRE;
+      } else {
+        expirationTime = ExpiryUtils.getExpirationMillis(now, duration);
+      }
+    }
+
+    OnHeapValueHolder<V> mapping = newValueHolder(key, newValue, now, expirationTime);
+    segment.set(slot, mapping);
+    eventSink.updated(key, oldValue, newValue);
+    return mapping;
+  }
+
+  private OnHeapValueHolder<V> newValueHolder(K key, V value, long creationTime, long expirationTime) {
+    return new CopiedOnHeapValueHolder<>(value, creationTime, expirationTime, checkEvictionAdvice(key, value), valueCopier);
+  }
+
+  /**
+   * Records an access to a live mapping under the write lock, removing the mapping if the expiry policy expires it on
+   * access.
+   */
+  private void accessedUnderLock(LongKeyTable.Segment segment, int slot, K key, OnHeapValueHolder<V> mapping, long now, StoreEventSink<K, V> eventSink) {
+    if (strategy.setAccessAndExpiryWhenCallerlUnderLock(key, mapping, now, eventSink) == null) {
+      segment.remove(slot);
+    }
+  }
+
+  private OnHeapValueHolder<V> mappingAt(LongKeyTable.Segment segment, int slot) {
+    return cast(segment.value(slot));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <V> OnHeapValueHolder<V> cast(Object mapping) {
+    return (OnHeapValueHolder<V>) mapping;
+  }
+
+  /**
+   * Removes an expired mapping, unless it was replaced since it was read.
+   *
+   * @param key the key
+   * @param value the expired mapping
+   */
+  void expireMappingUnderLock(K key, ValueHolder<V> value) {
+    StoreEventSink<K, V> eventSink = storeEventDispatcher.eventSink();
+    try {
+      long k = longKey(key);
+      LongKeyTable.Segment segment = table.segmentFor(k);
+      long stamp = segment.writeLock();
+      try {
+        int slot = segment.find(k);
+        if (slot >= 0 && segment.value(slot) == value) {
+          fireOnExpirationEvent(key, value, eventSink);
+          segment.remove(slot);
+        }
+      } finally {
+        segment.unlockWrite(stamp);
+      }
+      storeEventDispatcher.releaseEventSink(eventSink);
+    } catch(RuntimeException re) {
+      storeEventDispatcher.releaseEventSinkAfterFailure(eventSink, re);
+      throw re;
+    }
+  }
+
+  private boolean checkEvictionAdvice(K key, V value) {
+    try {
+      return evictionAdvisor.adviseAgainstEviction(key, value);
+    } catch (Exception e) {
+      LOG.error("Exception raised while running eviction advisor " +
+          "- Eviction will assume entry is NOT advised against eviction", e);
+      return false;
+    }
+  }
+
+  protected void enforceCapacity() {
+    StoreEventSink<K, V> eventSink = storeEventDispatcher.eventSink();
+    try {
+      for (int attempts = 0, evicted = 0; attempts < OnHeapStore.ATTEMPT_RATIO && evicted < OnHeapStore.EVICTION_RATIO
+              && capacity < table.size(); attempts++) {
+        if (evict(eventSink)) {
+          evicted++;
+        }
+      }
+      storeEventDispatcher.releaseEventSink(eventSink);
+    } catch (RuntimeException re){
+      storeEventDispatcher.releaseEventSinkAfterFailure(eventSink, re);
+      throw re;
+    }
+  }
+
+  /**
+   * Try to evict a mapping, sampling from a random segment the mappings that follow a random slot.
+   *
+   * @return true if a mapping was evicted, false otherwise.
+   * @param eventSink target of eviction event
+   */
+  boolean evict(StoreEventSink<K, V> eventSink) {
+    evictionObserver.begin();
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int segmentCount = table.segmentCount();
+    int first = random.nextInt(segmentCount);
+    for (int i = 0; i < segmentCount; i++) {
+      LongKeyTable.Segment segment = table.segment((first + i) & (segmentCount - 1));
+      long stamp = segment.writeLock();
+      try {
+        int victim = evictionCandidate(segment, random);
+        if (victim >= 0) {
+          K key = keyFactory.apply(segment.key(victim));
+          ValueHolder<V> evicted = mappingAt(segment, victim);
+          eventSink.evicted(key, evicted);
+          invalidationListener.onInvalidation(key, evicted);
+          segment.remove(victim);
+          evictionObserver.end(StoreOperationOutcomes.EvictionOutcome.SUCCESS);
+          return true;
+        }
+      } finally {
+        segment.unlockWrite(stamp);
+      }
+    }
+    evictionObserver.end(StoreOperationOutcomes.EvictionOutcome.FAILURE);
+    return false;
+  }
+
+  /**
+   * Samples up to {@link OnHeapStore#SAMPLE_SIZE} mappings of a segment, faults excepted, and picks the least recently
+   * accessed, preferring the mappings not advised against eviction.
+   *
+   * @return the slot to evict, or {@code -1} if the segment holds no mapping
+   */
+  private int evictionCandidate(LongKeyTable.Segment segment, ThreadLocalRandom random) {
+    if (segment.count() == 0) {
+      return -1;
+    }
+    int mask = segment.capacity() - 1;
+    int candidate = -1;
+    int advisedCandidate = -1;
+    int sampled = 0;
+    for (int n = 0, slot = random.nextInt(segment.capacity()); n <= mask && sampled < OnHeapStore.SAMPLE_SIZE; n++, slot = (slot + 1) & mask) {
+      if (segment.isOccupied(slot) && !(segment.value(slot) instanceof Fault)) {
+        sampled++;
+        OnHeapValueHolder<V> mapping = mappingAt(segment, slot);
+        if (mapping.evictionAdvice()) {
+          if (advisedCandidate < 0 || mapping.lastAccessTime() < mappingAt(segment, advisedCandidate).lastAccessTime()) {
+            advisedCandidate = slot;
+          }
+        } else if (candidate < 0 || mapping.lastAccessTime() < mappingAt(segment, candidate).lastAccessTime()) {
+          candidate = slot;
+        }
+      }
+    }
+    return candidate >= 0 ? candidate : advisedCandidate;
+  }
+
+  void fireOnExpirationEvent(K mappedKey, ValueHolder<V> mappedValue, StoreEventSink<K, V> eventSink) {
+    expirationObserver.begin();
+    expirationObserver.end(StoreOperationOutcomes.ExpirationOutcome.SUCCESS);
+    eventSink.expired(mappedKey, mappedValue);
+    invalidationListener.onInvalidation(mappedKey, mappedValue);
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ehcache.impl.internal.store.heap;
+
+/**
+ * The default {@link HeapEvictionPolicy}: the sampled least recently used mapping is always evicted.
+ */
+public final class SampledLruEvictionPolicy implements HeapEvictionPolicy {
+
+  private static final SampledLruEvictionPolicy INSTANCE = new SampledLruEvictionPolicy();
+
+  /**
+   * Factory of the stateless sampled LRU policy.
+   */
+  public static final Factory FACTORY = () -> INSTANCE;
+
+  private SampledLruEvictionPolicy() {
+  }
+
+  @Override
+  public void recordAccess(Object key) {
+    // Recency is tracked by the value holders
+  }
+
+  @Override
+  public void recordInsertion(Object key) {
+    // Recency is tracked by the value holders
+  }
+
+  @Override
+  public Object admissionCandidate(long mappingCount) {
+    return null;
+  }
+
+  @Override
+  public boolean admit(Object candidate, Object victim) {
+    return true;
+  }
+}
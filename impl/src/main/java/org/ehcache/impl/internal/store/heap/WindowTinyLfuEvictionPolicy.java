@@ -0,0 +1,104 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ehcache.impl.internal.store.heap;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * W-TinyLFU {@link HeapEvictionPolicy}.
+ * <p>
+ * Newly inserted keys first go through a small admission window, sized as a percentage of the store. A key leaving
+ * the window while the store is full only stays in the store if a {@link FrequencySketch frequency sketch} estimates
+ * that it was used more often than the sampled LRU victim. A one-off scan therefore only flushes the window, not
+ * the frequently used mappings.
+ */
+public class WindowTinyLfuEvictionPolicy implements HeapEvictionPolicy {
+
+  public static final float DEFAULT_WINDOW_PERCENTAGE = 0.01f;
+
+  /**
+   * Factory of W-TinyLFU policies using the {@link #DEFAULT_WINDOW_PERCENTAGE default window percentage}.
+   */
+  public static final Factory FACTORY = factory(DEFAULT_WINDOW_PERCENTAGE);
+
+  private static final int INITIAL_SKETCH_SIZE = 1024;
+  private static final int INITIAL_WINDOW_SIZE = 16;
+
+  private final float windowPercentage;
+  private final FrequencySketch sketch = new FrequencySketch(INITIAL_SKETCH_SIZE);
+  private final Queue<Object> window = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger windowSize = new AtomicInteger();
+  private volatile int maximumWindowSize = INITIAL_WINDOW_SIZE;
+
+  /**
+   * Creates a factory of W-TinyLFU policies with the given admission window size.
+   *
+   * @param windowPercentage the size of the admission window, as a fraction of the number of mappings
+   * @return a policy factory
+   */
+  public static Factory factory(float windowPercentage) {
+    if (windowPercentage <= 0 || windowPercentage >= 1) {
+      throw new IllegalArgumentException("Window percentage must be strictly between 0 and 1, was " + windowPercentage);
+    }
+    return () -> new WindowTinyLfuEvictionPolicy(windowPercentage);
+  }
+
+  WindowTinyLfuEvictionPolicy(float windowPercentage) {
+    this.windowPercentage = windowPercentage;
+  }
+
+  @Override
+  public void recordAccess(Object key) {
+    sketch.increment(key);
+  }
+
+  @Override
+  public void recordInsertion(Object key) {
+    sketch.increment(key);
+    window.offer(key);
+    // Until the store first fills up nothing competes for admission, keep the window bounded regardless
+    if (windowSize.incrementAndGet() > maximumWindowSize << 1 && window.poll() != null) {
+      windowSize.decrementAndGet();
+    }
+  }
+
+  @Override
+  public Object admissionCandidate(long mappingCount) {
+    sketch.ensureCapacity(mappingCount);
+    int maximum = (int) Math.max(1, Math.min(Integer.MAX_VALUE >>> 1, (long) (mappingCount * windowPercentage)));
+    maximumWindowSize = maximum;
+    if (windowSize.get() > maximum) {
+      Object candidate = window.poll();
+      if (candidate != null) {
+        windowSize.decrementAndGet();
+        return candidate;
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public boolean admit(Object candidate, Object victim) {
+    return sketch.frequency(candidate) > sketch.frequency(victim);
+  }
+
+  int windowSize() {
+    return windowSize.get();
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ehcache.impl.internal.store.heap.holders;
+
+import org.ehcache.core.spi.store.Store;
+import org.ehcache.spi.copy.Copier;
+
+/**
+ * A {@link CopiedOnHeapValueHolder} for cost-aware stores.
+ */
+public class CostAwareCopiedOnHeapValueHolder<V> extends CopiedOnHeapValueHolder<V> implements CostAwareValueHolder {
+
+  private long missPenalty;
+  private volatile long priorityInflation;
+
+  public CostAwareCopiedOnHeapValueHolder(Store.ValueHolder<V> valueHolder, V value, boolean evictionAdvice, Copier<V> valueCopier, long now, java.time.Duration expiration) {
+    super(valueHolder, value, evictionAdvice, valueCopier, now, expiration);
+  }
+
+  public CostAwareCopiedOnHeapValueHolder(V value, long creationTime, long expirationTime, boolean evictionAdvice, Copier<V> valueCopier) {
+    super(value, creationTime, expirationTime, evictionAdvice, valueCopier);
+  }
+
+  @Override
+  public long missPenalty() {
+    return missPenalty;
+  }
+
+  @Override
+  public void setMissPenalty(long missPenalty) {
+    this.missPenalty = missPenalty;
+  }
+
+  @Override
+  public long evictionPriority() {
+    return priorityInflation + missPenalty;
+  }
+
+  @Override
+  public void setPriorityInflation(long priorityInflation) {
+    this.priorityInflation = priorityInflation;
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ehcache.impl.internal.store.heap.holders;
+
+import org.ehcache.core.spi.store.Store;
+import org.ehcache.spi.serialization.Serializer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link SerializedOnHeapValueHolder} for cost-aware stores.
+ */
+public class CostAwareSerializedOnHeapValueHolder<V> extends SerializedOnHeapValueHolder<V> implements CostAwareValueHolder {
+
+  private long missPenalty;
+  private volatile long priorityInflation;
+
+  public CostAwareSerializedOnHeapValueHolder(V value, long creationTime, long expirationTime, boolean evictionAdvice, Serializer<V> serializer) {
+    super(value, creationTime, expirationTime, evictionAdvice, serializer);
+  }
+
+  public CostAwareSerializedOnHeapValueHolder(Store.ValueHolder<V> valueHolder, V value, boolean evictionAdvice, Serializer<V> serializer, long now, java.time.Duration expiration) {
+    super(valueHolder, value, evictionAdvice, serializer, now, expiration);
+  }
+
+  public CostAwareSerializedOnHeapValueHolder(Store.ValueHolder<V> valueHolder, ByteBuffer binaryValue, boolean evictionAdvice, Serializer<V> serializer, long now, java.time.Duration expiration) {
+    super(valueHolder, binaryValue, evictionAdvice, serializer, now, expiration);
+  }
+
+  @Override
+  public long missPenalty() {
+    return missPenalty;
+  }
+
+  @Override
+  public void setMissPenalty(long missPenalty) {
+    this.missPenalty = missPenalty;
+  }
+
+  @Override
+  public long evictionPriority() {
+    return priorityInflation + missPenalty;
+  }
+
+  @Override
+  public void setPriorityInflation(long priorityInflation) {
+    this.priorityInflation = priorityInflation;
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ehcache.impl.internal.store.heap.holders;
+
+/**
+ * The GreedyDual state of the value holders of cost-aware stores, only created when cost-aware eviction is configured
+ * so that other stores do not pay for it.
+ */
+public interface CostAwareValueHolder {
+
+  /**
+   * Returns the time it took to load this value when it was missing from the cache.
+   *
+   * @return the miss penalty in nanoseconds, {@code 0} if unknown
+   */
+  long missPenalty();
+
+  /**
+   * Set the time it took to load this value when it was missing from the cache.
+   * <p>
+   * Must be called before the value holder is published to other threads.
+   *
+   * @param missPenalty the miss penalty in nanoseconds
+   */
+  void setMissPenalty(long missPenalty);
+
+  /**
+   * Returns the GreedyDual priority of this mapping: the store inflation at its last access plus its miss penalty.
+   * Mappings with the lowest priority are evicted first by cost-aware stores.
+   *
+   * @return the eviction priority
+   */
+  long evictionPriority();
+
+  /**
+   * Records the store inflation at the time of an access to this mapping.
+   *
+   * @param priorityInflation the current store inflation
+   */
+  void setPriorityInflation(long priorityInflation);
+}
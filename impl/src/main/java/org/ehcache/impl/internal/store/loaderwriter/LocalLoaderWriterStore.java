@@ -459,7 +459,7 @@ public class LocalLoaderWriterStore<K, V> implements WrapperStore<K, V> {
                 }
               }
 
-              int size = CollectionUtil.findBestCollectionSize(keys1, 1); // this function is actually called with one key at the time
+              int size = CollectionUtil.findBestCollectionSize(keys1, 1);
               Map<K, V> computeResult = new LinkedHashMap<>(size);
 
               // put all the entries to get ordering correct
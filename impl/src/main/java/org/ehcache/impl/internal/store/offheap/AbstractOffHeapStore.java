@@ -18,10 +18,14 @@ package org.ehcache.impl.internal.store.offheap;
 
 import java.io.Serializable;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -37,12 +41,15 @@ import org.ehcache.config.EvictionAdvisor;
 import org.ehcache.core.config.ExpiryUtils;
 import org.ehcache.core.events.StoreEventDispatcher;
 import org.ehcache.core.events.StoreEventSink;
+import org.ehcache.core.spi.service.ExecutionService;
 import org.ehcache.core.spi.service.StatisticsService;
 import org.ehcache.core.statistics.StatisticType;
 import org.ehcache.core.statistics.OperationObserver;
 import org.ehcache.impl.store.BaseStore;
 import org.ehcache.spi.resilience.StoreAccessException;
+import org.ehcache.impl.internal.store.offheap.portability.EncodingBuffers;
 import org.ehcache.impl.internal.store.offheap.portability.OffHeapValueHolderPortability;
+import org.ehcache.impl.internal.store.offheap.portability.OffHeapValueHolderPortability.HeaderFormat;
 import org.ehcache.core.spi.time.TimeSource;
 import org.ehcache.expiry.ExpiryPolicy;
 import org.ehcache.impl.internal.store.offheap.factories.EhcacheSegmentFactory;
@@ -55,6 +62,9 @@ import org.ehcache.core.statistics.AuthoritativeTierOperationOutcomes;
 import org.ehcache.core.statistics.LowerCachingTierOperationsOutcome;
 import org.ehcache.core.statistics.StoreOperationOutcomes;
 import org.ehcache.impl.internal.store.BinaryValueHolder;
+import org.ehcache.impl.internal.store.BulkLoadFaults;
+import org.ehcache.impl.config.store.ExpiryReaperConfiguration;
+import org.ehcache.impl.internal.store.expiry.ExpiryReaper;
 import org.ehcache.impl.store.HashUtils;
 import org.ehcache.spi.serialization.Serializer;
 import org.slf4j.Logger;
@@ -63,6 +73,7 @@ import org.terracotta.offheapstore.exceptions.OversizeMappingException;
 
 import static org.ehcache.core.config.ExpiryUtils.isExpiryDurationInfinite;
 import static org.ehcache.core.exceptions.StorePassThroughException.handleException;
+import static org.ehcache.core.statistics.StatisticType.COUNTER;
 import static org.ehcache.core.statistics.StatisticType.GAUGE;
 
 public abstract class AbstractOffHeapStore<K, V> extends BaseStore<K, V> implements AuthoritativeTier<K, V>, LowerCachingTier<K, V> {
@@ -75,8 +86,10 @@ public abstract class AbstractOffHeapStore<K, V> extends BaseStore<K, V> impleme
 
   private final TimeSource timeSource;
   private final StoreEventDispatcher<K, V> eventDispatcher;
+  private final BulkLoadFaults<K> bulkLoadFaults = new BulkLoadFaults<>();
 
   private final ExpiryPolicy<? super K, ? super V> expiry;
+  private final boolean costAwareEviction;
 
   private final OperationObserver<StoreOperationOutcomes.GetOutcome> getObserver;
   private final OperationObserver<StoreOperationOutcomes.PutOutcome> putObserver;
@@ -102,14 +115,20 @@ public abstract class AbstractOffHeapStore<K, V> extends BaseStore<K, V> impleme
 
 
   private volatile InvalidationValve valve;
+  private volatile ExpiryReaper<K> expiryReaper;
   protected final BackingMapEvictionListener<K, V> mapEvictionListener;
   @SuppressWarnings("unchecked")
   private volatile CachingTier.InvalidationListener<K, V> invalidationListener = (CachingTier.InvalidationListener<K, V>) NULL_INVALIDATION_LISTENER;
 
   public AbstractOffHeapStore(Configuration<K, V> config, TimeSource timeSource, StoreEventDispatcher<K, V> eventDispatcher, StatisticsService statisticsService) {
+    this(config, timeSource, eventDispatcher, statisticsService, false);
+  }
+
+  public AbstractOffHeapStore(Configuration<K, V> config, TimeSource timeSource, StoreEventDispatcher<K, V> eventDispatcher, StatisticsService statisticsService, boolean costAwareEviction) {
     super(config, statisticsService);
 
     expiry = config.getExpiry();
+    this.costAwareEviction = costAwareEviction;
 
     this.timeSource = timeSource;
     this.eventDispatcher = eventDispatcher;
@@ -180,10 +199,28 @@ public abstract class AbstractOffHeapStore<K, V> extends BaseStore<K, V> impleme
 
     final StoreEventSink<K, V> eventSink = eventDispatcher.eventSink();
     final AtomicReference<OffHeapValueHolder<V>> heldValue = new AtomicReference<>();
+    final long now = timeSource.getTimeMillis();
     try {
-      OffHeapValueHolder<V> result = backingMap().computeIfPresent(key, (mappedKey, mappedValue) -> {
-        long now = timeSource.getTimeMillis();
+      // Hits are served under read lock, access metadata being written back in place. Expired mappings, whether already
+      // or on this access, are left to the write locked path below which re-validates them before removal.
+      OffHeapValueHolder<V> result = backingMap().readOrComputeIfPresent(key, (mappedKey, mappedValue) -> {
+        if (mappedValue.isExpired(now)) {
+          return false;
+        }
 
+        if (updateAccess) {
+          Duration duration = getAccessDuration(mappedKey, mappedValue);
+          if (Duration.ZERO.equals(duration)) {
+            return false;
+          }
+          mappedValue.forceDeserialization();
+          mappedValue.accessed(now, duration);
+          mappedValue.writeBack();
+        } else if (touchValue) {
+          mappedValue.forceDeserialization();
+        }
+        return true;
+      }, (mappedKey, mappedValue) -> {
         if (mappedValue.isExpired(now)) {
           // yukms TODO: 已过期
           onExpiration(mappedKey, mappedValue, eventSink);
@@ -285,11 +322,10 @@ public abstract class AbstractOffHeapStore<K, V> extends BaseStore<K, V> impleme
 
     final AtomicReference<Store.ValueHolder<V>> returnValue = new AtomicReference<>();
     final StoreEventSink<K, V> eventSink = eventDispatcher.eventSink();
+    final long now = timeSource.getTimeMillis();
 
     try {
       BiFunction<K, OffHeapValueHolder<V>, OffHeapValueHolder<V>> mappingFunction = (mappedKey, mappedValue) -> {
-        long now = timeSource.getTimeMillis();
-
         if (mappedValue == null || mappedValue.isExpired(now)) {
           if (mappedValue != null) {
             onExpiration(mappedKey, mappedValue, eventSink);
@@ -343,6 +379,7 @@ public abstract class AbstractOffHeapStore<K, V> extends BaseStore<K, V> impleme
           removed.set(true);
           // yukms TODO: 移除时事件
           eventSink.removed(mappedKey, mappedValue);
+          unscheduleExpiry(mappedKey);
         }
         return null;
       });
@@ -373,17 +410,17 @@ public abstract class AbstractOffHeapStore<K, V> extends BaseStore<K, V> impleme
     final AtomicBoolean removed = new AtomicBoolean(false);
     final StoreEventSink<K, V> eventSink = eventDispatcher.eventSink();
     final AtomicBoolean mappingExists = new AtomicBoolean();
+    final long now = timeSource.getTimeMillis();
 
     try {
       backingMap().computeIfPresent(key, (mappedKey, mappedValue) -> {
-        long now = timeSource.getTimeMillis();
-
         if (mappedValue.isExpired(now)) {
           onExpiration(mappedKey, mappedValue, eventSink);
           return null;
         } else if (mappedValue.get().equals(value)) {
           removed.set(true);
           eventSink.removed(mappedKey, mappedValue);
+          unscheduleExpiry(mappedKey);
           return null;
         } else {
           mappingExists.set(true);
@@ -420,9 +457,8 @@ public abstract class AbstractOffHeapStore<K, V> extends BaseStore<K, V> impleme
 
     final AtomicReference<Store.ValueHolder<V>> returnValue = new AtomicReference<>(null);
     final StoreEventSink<K, V> eventSink = eventDispatcher.eventSink();
+    final long now = timeSource.getTimeMillis();
     BiFunction<K, OffHeapValueHolder<V>, OffHeapValueHolder<V>> mappingFunction = (mappedKey, mappedValue) -> {
-      long now = timeSource.getTimeMillis();
-
       if (mappedValue == null || mappedValue.isExpired(now)) {
         if (mappedValue != null) {
           onExpiration(mappedKey, mappedValue, eventSink);
@@ -461,10 +497,9 @@ public abstract class AbstractOffHeapStore<K, V> extends BaseStore<K, V> impleme
     final AtomicBoolean replaced = new AtomicBoolean(false);
     final StoreEventSink<K, V> eventSink = eventDispatcher.eventSink();
     final AtomicBoolean mappingExists = new AtomicBoolean();
+    final long now = timeSource.getTimeMillis();
 
     BiFunction<K, OffHeapValueHolder<V>, OffHeapValueHolder<V>> mappingFunction = (mappedKey, mappedValue) -> {
-      long now = timeSource.getTimeMillis();
-
       if (mappedValue == null || mappedValue.isExpired(now)) {
         if (mappedValue != null) {
           onExpiration(mappedKey, mappedValue, eventSink);
@@ -503,6 +538,10 @@ public abstract class AbstractOffHeapStore<K, V> extends BaseStore<K, V> impleme
   public void clear() throws StoreAccessException {
     try {
       backingMap().clear();
+      ExpiryReaper<K> reaper = expiryReaper;
+      if (reaper != null) {
+        reaper.unscheduleAll();
+      }
     } catch (RuntimeException re) {
       throw handleException(re);
     }
@@ -552,8 +591,8 @@ public abstract class AbstractOffHeapStore<K, V> extends BaseStore<K, V> impleme
     AtomicReference<OffHeapValueHolder<V>> valueHeld = new AtomicReference<>();
     AtomicReference<OffHeapValueHolder<V>> existingValueHolder = new AtomicReference<>();
     StoreEventSink<K, V> eventSink = eventDispatcher.eventSink();
+    long now = timeSource.getTimeMillis();
     BiFunction<K, OffHeapValueHolder<V>, OffHeapValueHolder<V>> computeFunction = (mappedKey, mappedValue) -> {
-      long now = timeSource.getTimeMillis();
       V existingValue = null;
       if (mappedValue == null || mappedValue.isExpired(now)) {
         if (mappedValue != null) {
@@ -569,6 +608,7 @@ public abstract class AbstractOffHeapStore<K, V> extends BaseStore<K, V> impleme
         if (mappedValue != null) {
           write.set(true);
           eventSink.removed(mappedKey, mappedValue);
+          unscheduleExpiry(mappedKey);
         }
         return null;
       }
@@ -620,8 +660,8 @@ public abstract class AbstractOffHeapStore<K, V> extends BaseStore<K, V> impleme
     final AtomicBoolean write = new AtomicBoolean(false);
     final AtomicReference<OffHeapValueHolder<V>> valueHeld = new AtomicReference<>();
     final StoreEventSink<K, V> eventSink = eventDispatcher.eventSink();
+    final long now = timeSource.getTimeMillis();
     BiFunction<K, OffHeapValueHolder<V>, OffHeapValueHolder<V>> computeFunction = (mappedKey, mappedValue) -> {
-      long now = timeSource.getTimeMillis();
       V existingValue = null;
       if (mappedValue == null || mappedValue.isExpired(now)) {
         if (mappedValue != null) {
@@ -636,6 +676,7 @@ public abstract class AbstractOffHeapStore<K, V> extends BaseStore<K, V> impleme
         if (mappedValue != null) {
           write.set(true);
           eventSink.removed(mappedKey, mappedValue);
+          unscheduleExpiry(mappedKey);
         }
         return null;
       } else if (safeEquals(existingValue, computedValue) && !replaceEqual.get()) {
@@ -690,6 +731,7 @@ public abstract class AbstractOffHeapStore<K, V> extends BaseStore<K, V> impleme
 
   @Override
   public ValueHolder<V> computeIfAbsent(final K key, final Function<? super K, ? extends V> mappingFunction) throws StoreAccessException {
+    bulkLoadFaults.await(key);
     return internalComputeIfAbsent(key, mappingFunction, false, false);
   }
 
@@ -705,19 +747,24 @@ public abstract class AbstractOffHeapStore<K, V> extends BaseStore<K, V> impleme
     final AtomicBoolean write = new AtomicBoolean(false);
     final AtomicReference<OffHeapValueHolder<V>> valueHeld = new AtomicReference<>();
     final StoreEventSink<K, V> eventSink = eventDispatcher.eventSink();
+    final long now = timeSource.getTimeMillis();
     BiFunction<K, OffHeapValueHolder<V>, OffHeapValueHolder<V>> computeFunction = (mappedKey, mappedValue) -> {
-      long now = timeSource.getTimeMillis();
       if (mappedValue == null || mappedValue.isExpired(now)) {
         if (mappedValue != null) {
           onExpiration(mappedKey, mappedValue, eventSink);
         }
         write.set(true);
+        long loadStart = costAwareEviction ? System.nanoTime() : 0L;
         V computedValue = mappingFunction.apply(mappedKey);
         if (computedValue == null) {
           return null;
         } else {
           checkValue(computedValue);
-          return newCreateValueHolder(mappedKey, computedValue, now, eventSink);
+          OffHeapValueHolder<V> valueHolder = newCreateValueHolder(mappedKey, computedValue, now, eventSink);
+          if (valueHolder != null && costAwareEviction) {
+            valueHolder.setMissPenalty(System.nanoTime() - loadStart);
+          }
+          return valueHolder;
         }
       } else {
         OffHeapValueHolder<V> valueHolder = setAccessTimeAndExpiryThenReturnMapping(mappedKey, mappedValue, now, eventSink);
@@ -815,20 +862,50 @@ public abstract class AbstractOffHeapStore<K, V> extends BaseStore<K, V> impleme
   @Override
   public Map<K, ValueHolder<V>> bulkComputeIfAbsent(Set<? extends K> keys, final Function<Iterable<? extends K>, Iterable<? extends Map.Entry<? extends K, ? extends V>>> mappingFunction) throws StoreAccessException {
     Map<K, ValueHolder<V>> result = new HashMap<>(keys.size());
-    for (K key : keys) {
-      checkKey(key);
-      Function<K, V> function = k -> {
-        java.util.Iterator<? extends Map.Entry<? extends K, ? extends V>> iterator = mappingFunction.apply(Collections.singleton(k)).iterator();
-        Map.Entry<? extends K, ? extends V> result1 = iterator.next();
-        if (result1 != null) {
-          checkKey(result1.getKey());
-          return result1.getValue();
-        } else {
-          return null;
+
+    Collection<? extends K> pending = keys;
+    while (!pending.isEmpty()) {
+      List<K> contended = new ArrayList<>();
+      try (BulkLoadFaults<K>.Fault fault = bulkLoadFaults.claim(pending, contended)) {
+        Set<K> absentKeys = new LinkedHashSet<>();
+        Set<K> presentKeys = new HashSet<>();
+        for (K key : fault.keys()) {
+          checkKey(key);
+          if (internalGet(key, false, false) == null) {
+            absentKeys.add(key);
+          } else {
+            presentKeys.add(key);
+          }
         }
-      };
-      ValueHolder<V> computed = computeIfAbsent(key, function);
-      result.put(key, computed);
+
+        Map<K, V> loaded = new HashMap<>(absentKeys.size());
+        if (!absentKeys.isEmpty()) {
+          try {
+            for (Map.Entry<? extends K, ? extends V> entry : mappingFunction.apply(absentKeys)) {
+              K computedKey = entry.getKey();
+              checkKey(computedKey);
+              loaded.put(computedKey, entry.getValue());
+            }
+          } catch (RuntimeException re) {
+            throw handleException(re);
+          }
+        }
+
+        for (K key : fault.keys()) {
+          ValueHolder<V> holder = internalComputeIfAbsent(key, loaded::get, false, false);
+          if (holder == null && presentKeys.contains(key)) {
+            // removed since the absence check: check again rather than report it absent without loading it
+            contended.add(key);
+          } else {
+            result.put(key, holder);
+          }
+        }
+      }
+
+      for (K key : contended) {
+        bulkLoadFaults.await(key);
+      }
+      pending = contended;
     }
     return result;
   }
@@ -838,11 +915,29 @@ public abstract class AbstractOffHeapStore<K, V> extends BaseStore<K, V> impleme
     checkKey(key);
 
     getAndFaultObserver.begin();
+    ValueHolder<V> mappedValue = internalGetAndFault(key);
+    if (mappedValue == null) {
+      getAndFaultObserver.end(AuthoritativeTierOperationOutcomes.GetAndFaultOutcome.MISS);
+    } else {
+      getAndFaultObserver.end(AuthoritativeTierOperationOutcomes.GetAndFaultOutcome.HIT);
+    }
+    return mappedValue;
+  }
+
+  @Override
+  public ValueHolder<V> faultWritten(K key) throws StoreAccessException {
+    checkKey(key);
+
+    return internalGetAndFault(key);
+  }
+
+  private ValueHolder<V> internalGetAndFault(K key) throws StoreAccessException {
     ValueHolder<V> mappedValue;
     final StoreEventSink<K, V> eventSink = eventDispatcher.eventSink();
+    final long now = timeSource.getTimeMillis();
     try {
       mappedValue = backingMap().computeIfPresentAndPin(key, (mappedKey, mappedValue1) -> {
-        if(mappedValue1.isExpired(timeSource.getTimeMillis())) {
+        if(mappedValue1.isExpired(now)) {
           onExpiration(mappedKey, mappedValue1, eventSink);
           return null;
         }
@@ -851,12 +946,6 @@ public abstract class AbstractOffHeapStore<K, V> extends BaseStore<K, V> impleme
       });
 
       eventDispatcher.releaseEventSink(eventSink);
-
-      if (mappedValue == null) {
-        getAndFaultObserver.end(AuthoritativeTierOperationOutcomes.GetAndFaultOutcome.MISS);
-      } else {
-        getAndFaultObserver.end(AuthoritativeTierOperationOutcomes.GetAndFaultOutcome.HIT);
-      }
     } catch (RuntimeException re) {
       eventDispatcher.releaseEventSinkAfterFailure(eventSink, re);
       throw handleException(re);
@@ -866,6 +955,7 @@ public abstract class AbstractOffHeapStore<K, V> extends BaseStore<K, V> impleme
 
   @Override
   public ValueHolder<V> computeIfAbsentAndFault(K key, Function<? super K, ? extends V> mappingFunction) throws StoreAccessException {
+    bulkLoadFaults.await(key);
     return internalComputeIfAbsent(key, mappingFunction, true, true);
   }
 
@@ -875,12 +965,13 @@ public abstract class AbstractOffHeapStore<K, V> extends BaseStore<K, V> impleme
 
     flushObserver.begin();
     final StoreEventSink<K, V> eventSink = eventDispatcher.eventSink();
+    final long now = timeSource.getTimeMillis();
 
     try {
       boolean result = backingMap().computeIfPinned(key, (k, valuePresent) -> {
         if (valuePresent.getId() == valueFlushed.getId()) {
           // yukms TODO: 值还存在
-          if (valueFlushed.isExpired(timeSource.getTimeMillis())) {
+          if (valueFlushed.isExpired(now)) {
             // yukms TODO: 已过期
             onExpiration(k, valuePresent, eventSink);
             return null;
@@ -890,6 +981,8 @@ public abstract class AbstractOffHeapStore<K, V> extends BaseStore<K, V> impleme
           valuePresent.updateMetadata(valueFlushed);
           // yukms TODO: ？？？
           valuePresent.writeBack();
+          // the reaper skipped the mapping while it was pinned
+          scheduleExpiry(k, valuePresent);
         }
         return valuePresent;
       }, valuePresent -> valuePresent.getId() == valueFlushed.getId());
@@ -926,6 +1019,7 @@ public abstract class AbstractOffHeapStore<K, V> extends BaseStore<K, V> impleme
       backingMap().computeIfPresent(key, (k, present) -> {
         removed.set(true);
         notifyInvalidation(key, present);
+        unscheduleExpiry(k);
         return null;
       });
       if (removed.get()) {
@@ -967,6 +1061,7 @@ public abstract class AbstractOffHeapStore<K, V> extends BaseStore<K, V> impleme
     Map<K, OffHeapValueHolder<V>> removed = backingMap().removeAllWithHash(intHash);
     for (Map.Entry<K, OffHeapValueHolder<V>> entry : removed.entrySet()) {
       notifyInvalidation(entry.getKey(), entry.getValue());
+      unscheduleExpiry(entry.getKey());
     }
     invalidateAllWithHashObserver.end(LowerCachingTierOperationsOutcome.InvalidateAllWithHashOutcome.SUCCESS);
   }
@@ -989,8 +1084,8 @@ public abstract class AbstractOffHeapStore<K, V> extends BaseStore<K, V> impleme
     getAndRemoveObserver.begin();
 
     final AtomicReference<ValueHolder<V>> valueHolderAtomicReference = new AtomicReference<>();
+    final long now = timeSource.getTimeMillis();
     BiFunction<K, OffHeapValueHolder<V>, OffHeapValueHolder<V>> computeFunction = (mappedKey, mappedValue) -> {
-      long now = timeSource.getTimeMillis();
       if (mappedValue == null || mappedValue.isExpired(now)) {
         // yukms TODO: 过期
         if (mappedValue != null) {
@@ -1037,7 +1132,7 @@ public abstract class AbstractOffHeapStore<K, V> extends BaseStore<K, V> impleme
           onExpirationInCachingTier(valueHolder, key);
           return null;
         } else {
-          return newTransferValueHolder(valueHolder);
+          return newTransferValueHolder(k, valueHolder);
         }
       }
       return null;
@@ -1093,6 +1188,18 @@ public abstract class AbstractOffHeapStore<K, V> extends BaseStore<K, V> impleme
   private static final Supplier<Boolean> REPLACE_EQUALS_TRUE = () -> Boolean.TRUE;
 
   private OffHeapValueHolder<V> setAccessTimeAndExpiryThenReturnMapping(K key, OffHeapValueHolder<V> valueHolder, long now, StoreEventSink<K, V> eventSink) {
+    Duration duration = getAccessDuration(key, valueHolder);
+    if (Duration.ZERO.equals(duration)) {
+      onExpiration(key, valueHolder, eventSink);
+      return null;
+    }
+    valueHolder.accessed(now, duration);
+    // yukms TODO: 数据写会
+    valueHolder.writeBack();
+    return valueHolder;
+  }
+
+  private Duration getAccessDuration(K key, OffHeapValueHolder<V> valueHolder) {
     Duration duration = Duration.ZERO;
     try {
       duration = expiry.getExpiryForAccess(key, valueHolder);
@@ -1102,14 +1209,7 @@ public abstract class AbstractOffHeapStore<K, V> extends BaseStore<K, V> impleme
     } catch (RuntimeException re) {
       LOG.error("Expiry computation caused an exception - Expiry duration will be 0 ", re);
     }
-    if (Duration.ZERO.equals(duration)) {
-      onExpiration(key, valueHolder, eventSink);
-      return null;
-    }
-    valueHolder.accessed(now, duration);
-    // yukms TODO: 数据写会
-    valueHolder.writeBack();
-    return valueHolder;
+    return duration;
   }
 
   private OffHeapValueHolder<V> newUpdatedValueHolder(K key, V value, OffHeapValueHolder<V> existing, long now, StoreEventSink<K, V> eventSink) {
@@ -1138,7 +1238,7 @@ public abstract class AbstractOffHeapStore<K, V> extends BaseStore<K, V> impleme
       return new BasicOffHeapValueHolder<>(backingMap().nextIdFor(key), value, now, OffHeapValueHolder.NO_EXPIRE);
     } else {
       // yukms TODO: 设置过期时间
-      return new BasicOffHeapValueHolder<>(backingMap().nextIdFor(key), value, now, ExpiryUtils.getExpirationMillis(now, duration));
+      return scheduleExpiry(key, new BasicOffHeapValueHolder<>(backingMap().nextIdFor(key), value, now, ExpiryUtils.getExpirationMillis(now, duration)));
     }
   }
 
@@ -1158,17 +1258,91 @@ public abstract class AbstractOffHeapStore<K, V> extends BaseStore<K, V> impleme
     long expirationTime = isExpiryDurationInfinite(duration) ? ValueHolder.NO_EXPIRE : ExpiryUtils.getExpirationMillis(now, duration);
 
     // yukms TODO: org.ehcache.impl.internal.store.disk.EhcachePersistentConcurrentOffHeapClockCache
-    return new BasicOffHeapValueHolder<>(backingMap().nextIdFor(key), value, now, expirationTime);
+    return scheduleExpiry(key, new BasicOffHeapValueHolder<>(backingMap().nextIdFor(key), value, now, expirationTime));
   }
 
-  private OffHeapValueHolder<V> newTransferValueHolder(ValueHolder<V> valueHolder) {
+  private OffHeapValueHolder<V> newTransferValueHolder(K key, ValueHolder<V> valueHolder) {
     if (valueHolder instanceof BinaryValueHolder && ((BinaryValueHolder) valueHolder).isBinaryValueAvailable()) {
-      return new BinaryOffHeapValueHolder<>(valueHolder.getId(), valueHolder.get(), ((BinaryValueHolder) valueHolder).getBinaryValue(),
+      return scheduleExpiry(key, new BinaryOffHeapValueHolder<>(valueHolder.getId(), valueHolder.get(), ((BinaryValueHolder) valueHolder).getBinaryValue(),
         valueHolder.creationTime(), valueHolder.expirationTime(),
-        valueHolder.lastAccessTime());
+        valueHolder.lastAccessTime()));
     } else {
-      return new BasicOffHeapValueHolder<>(valueHolder.getId(), valueHolder.get(), valueHolder.creationTime(),
-        valueHolder.expirationTime(), valueHolder.lastAccessTime());
+      return scheduleExpiry(key, new BasicOffHeapValueHolder<>(valueHolder.getId(), valueHolder.get(), valueHolder.creationTime(),
+        valueHolder.expirationTime(), valueHolder.lastAccessTime()));
+    }
+  }
+
+  /**
+   * Makes this store proactively remove its expired mappings, once the reaper is started.
+   *
+   * @param configuration the reaper configuration
+   */
+  protected void enableExpiryReaper(ExpiryReaperConfiguration configuration) {
+    ExpiryReaper<K> reaper = new ExpiryReaper<>(configuration, timeSource, this::reap);
+    Set<String> tags = new HashSet<>(Arrays.asList(getStatisticsTag(), "tier"));
+    registerStatistic("reapedMappings", COUNTER, tags, reaper::getReapedMappings);
+    registerStatistic("reclaimedBytes", COUNTER, tags, reaper::getReclaimedBytes);
+    this.expiryReaper = reaper;
+    mapEvictionListener.setExpiryReaper(reaper);
+  }
+
+  protected void startExpiryReaper(ExecutionService executionService) {
+    ExpiryReaper<K> reaper = expiryReaper;
+    if (reaper != null) {
+      reaper.start(executionService);
+    }
+  }
+
+  protected void stopExpiryReaper() {
+    ExpiryReaper<K> reaper = expiryReaper;
+    if (reaper != null) {
+      reaper.stop();
+    }
+  }
+
+  private OffHeapValueHolder<V> scheduleExpiry(K key, OffHeapValueHolder<V> valueHolder) {
+    ExpiryReaper<K> reaper = expiryReaper;
+    if (reaper != null && valueHolder.expirationTime() != ValueHolder.NO_EXPIRE) {
+      reaper.schedule(key, valueHolder.expirationTime());
+    }
+    return valueHolder;
+  }
+
+  private void unscheduleExpiry(K key) {
+    ExpiryReaper<K> reaper = expiryReaper;
+    if (reaper != null) {
+      reaper.unschedule(key);
+    }
+  }
+
+  /**
+   * Reaps the mapping of the given key if it expired. Pinned mappings belong to the caching tier and are skipped, they
+   * are scheduled again when flushed back.
+   */
+  private long reap(K key, long now) {
+    EhcacheOffHeapBackingMap<K, OffHeapValueHolder<V>> map = backingMap();
+    if (map == null) {
+      return ExpiryReaper.NOT_REAPED;
+    }
+    AtomicBoolean reaped = new AtomicBoolean();
+    StoreEventSink<K, V> eventSink = eventDispatcher.eventSink();
+    try {
+      long reclaimed = map.computeIfPresentReclaiming(key, (mappedKey, mappedValue) -> {
+        if (mappedValue.isExpired(now)) {
+          onExpiration(mappedKey, mappedValue, eventSink);
+          reaped.set(true);
+          return null;
+        } else {
+          // expiration pushed back by an access
+          scheduleExpiry(mappedKey, mappedValue);
+          return mappedValue;
+        }
+      });
+      eventDispatcher.releaseEventSink(eventSink);
+      return reaped.get() ? reclaimed : ExpiryReaper.NOT_REAPED;
+    } catch (RuntimeException re) {
+      eventDispatcher.releaseEventSinkAfterFailure(eventSink, re);
+      throw re;
     }
   }
 
@@ -1200,8 +1374,18 @@ public abstract class AbstractOffHeapStore<K, V> extends BaseStore<K, V> impleme
 
   protected abstract SwitchableEvictionAdvisor<K, OffHeapValueHolder<V>> evictionAdvisor();
 
-  protected OffHeapValueHolderPortability<V> createValuePortability(Serializer<V> serializer) {
-    return new OffHeapValueHolderPortability<>(serializer);
+  protected OffHeapValueHolderPortability<V> createValuePortability(Serializer<V> serializer, HeaderFormat format, EncodingBuffers encodingBuffers) {
+    return new OffHeapValueHolderPortability<>(serializer, format, encodingBuffers);
+  }
+
+  /**
+   * Returns the compact value header format of a new store, using the current time as its epoch.
+   *
+   * @param persistent {@code true} if the store can be recovered later on, possibly with a different expiry
+   * @return the value header format of a new store
+   */
+  protected HeaderFormat newHeaderFormat(boolean persistent) {
+    return HeaderFormat.compact(timeSource.getTimeMillis(), !persistent && expiry == ExpiryPolicy.NO_EXPIRY);
   }
 
   protected static <K, V> SwitchableEvictionAdvisor<K, OffHeapValueHolder<V>> wrap(EvictionAdvisor<? super K, ? super V> delegate) {
@@ -1244,6 +1428,7 @@ public abstract class AbstractOffHeapStore<K, V> extends BaseStore<K, V> impleme
     private final StoreEventDispatcher<K, V> eventDispatcher;
     private final OperationObserver<StoreOperationOutcomes.EvictionOutcome> evictionObserver;
     private volatile CachingTier.InvalidationListener<K, V> invalidationListener;
+    private volatile ExpiryReaper<K> expiryReaper;
 
     private BackingMapEvictionListener(StoreEventDispatcher<K, V> eventDispatcher, OperationObserver<StoreOperationOutcomes.EvictionOutcome> evictionObserver) {
       this.eventDispatcher = eventDispatcher;
@@ -1260,6 +1445,10 @@ public abstract class AbstractOffHeapStore<K, V> extends BaseStore<K, V> impleme
       this.invalidationListener = invalidationListener;
     }
 
+    void setExpiryReaper(ExpiryReaper<K> expiryReaper) {
+      this.expiryReaper = expiryReaper;
+    }
+
     @Override
     public void onEviction(K key, OffHeapValueHolder<V> value) {
       evictionObserver.begin();
@@ -1271,6 +1460,10 @@ public abstract class AbstractOffHeapStore<K, V> extends BaseStore<K, V> impleme
         eventDispatcher.releaseEventSinkAfterFailure(eventSink, re);
       }
       invalidationListener.onInvalidation(key, value);
+      ExpiryReaper<K> reaper = expiryReaper;
+      if (reaper != null) {
+        reaper.unschedule(key);
+      }
       evictionObserver.end(StoreOperationOutcomes.EvictionOutcome.SUCCESS);
     }
   }
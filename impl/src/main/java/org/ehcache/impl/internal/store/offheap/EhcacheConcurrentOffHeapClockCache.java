@@ -26,10 +26,13 @@ import org.terracotta.offheapstore.pinning.PinnableSegment;
 import org.terracotta.offheapstore.util.Factory;
 
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
 import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
 import java.util.function.Function;
 
 import static org.ehcache.impl.internal.store.offheap.factories.EhcacheSegmentFactory.EhcacheSegment.ADVISED_AGAINST_EVICTION;
+import static org.ehcache.impl.internal.store.offheap.factories.EhcacheSegmentFactory.EhcacheSegment.evictionCostMetadata;
 import org.terracotta.offheapstore.Metadata;
 import static org.terracotta.offheapstore.MetadataTuple.metadataTuple;
 import static org.terracotta.offheapstore.Metadata.PINNED;
@@ -158,7 +161,7 @@ public class EhcacheConcurrentOffHeapClockCache<K, V> extends AbstractConcurrent
       } else if (oldValue == newValue) {
         return metadataTuple(newValue, (pin ? PINNED : 0) | current.metadata());
       } else {
-        return metadataTuple(newValue, (pin ? PINNED : 0) | (evictionAdvisor.adviseAgainstEviction(k, newValue) ? ADVISED_AGAINST_EVICTION : 0));
+        return metadataTuple(newValue, (pin ? PINNED : 0) | (evictionAdvisor.adviseAgainstEviction(k, newValue) ? ADVISED_AGAINST_EVICTION : 0) | evictionCostMetadata(newValue));
       }
     });
     return result == null ? null : result.value();
@@ -175,7 +178,7 @@ public class EhcacheConcurrentOffHeapClockCache<K, V> extends AbstractConcurrent
       } else if (oldValue == newValue) {
         return current;
       } else {
-        return metadataTuple(newValue, (evictionAdvisor.adviseAgainstEviction(k, newValue) ? ADVISED_AGAINST_EVICTION : 0));
+        return metadataTuple(newValue, (evictionAdvisor.adviseAgainstEviction(k, newValue) ? ADVISED_AGAINST_EVICTION : 0) | evictionCostMetadata(newValue));
       }
     });
     return result == null ? null : result.value();
@@ -192,12 +195,50 @@ public class EhcacheConcurrentOffHeapClockCache<K, V> extends AbstractConcurrent
       } else if (oldValue == newValue) {
         return metadataTuple(newValue, PINNED | current.metadata());
       } else {
-        return metadataTuple(newValue, PINNED | (evictionAdvisor.adviseAgainstEviction(k, newValue) ? ADVISED_AGAINST_EVICTION : 0));
+        return metadataTuple(newValue, PINNED | (evictionAdvisor.adviseAgainstEviction(k, newValue) ? ADVISED_AGAINST_EVICTION : 0) | evictionCostMetadata(newValue));
       }
     });
     return result == null ? null : result.value();
   }
 
+  @Override
+  public long computeIfPresentReclaiming(K key, BiFunction<? super K, ? super V, ? extends V> mappingFunction) {
+    Segment<K, V> segment = segmentFor(key);
+    Lock lock = segment.writeLock();
+    lock.lock();
+    try {
+      long occupied = segment.getOccupiedMemory();
+      computeIfPresentWithMetadata(key, (k, current) -> {
+        if ((current.metadata() & PINNED) != 0) {
+          return current;
+        }
+        V newValue = mappingFunction.apply(k, current.value());
+        return newValue == null ? null : metadataTuple(newValue, current.metadata());
+      });
+      return Math.max(0L, occupied - segment.getOccupiedMemory());
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public V readOrComputeIfPresent(K key, BiPredicate<? super K, ? super V> accessPredicate, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+    Segment<K, V> segment = segmentFor(key);
+    Lock lock = segment.readLock();
+    lock.lock();
+    try {
+      V value = segment.get(key);
+      if (value == null) {
+        return null;
+      } else if (accessPredicate.test(key, value)) {
+        return value;
+      }
+    } finally {
+      lock.unlock();
+    }
+    return computeIfPresent(key, remappingFunction);
+  }
+
   @Override
   public boolean computeIfPinned(final K key, final BiFunction<K,V,V> remappingFunction, final Function<V,Boolean> unpinFunction) {
     final AtomicBoolean unpin = new AtomicBoolean();
@@ -215,7 +256,7 @@ public class EhcacheConcurrentOffHeapClockCache<K, V> extends AbstractConcurrent
           return metadataTuple(oldValue, current.metadata() & (unpinLocal ? ~Metadata.PINNED : -1));
         } else {
           unpin.set(false);
-          return metadataTuple(newValue, (evictionAdvisor.adviseAgainstEviction(k, newValue) ? ADVISED_AGAINST_EVICTION : 0));
+          return metadataTuple(newValue, (evictionAdvisor.adviseAgainstEviction(k, newValue) ? ADVISED_AGAINST_EVICTION : 0) | evictionCostMetadata(newValue));
         }
       } else {
         return current;
@@ -20,6 +20,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
 import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
 import java.util.function.Function;
 
 import org.terracotta.offheapstore.Segment;
@@ -73,6 +74,38 @@ public interface EhcacheOffHeapBackingMap<K, V> extends ConcurrentMap<K, V>, Off
    */
   V computeIfPresentAndPin(K key, BiFunction<K, V, V> mappingFunction);
 
+  /**
+   * Returns the value mapped to the given key, first offering it to the {@code accessPredicate} under the
+   * appropriate read lock scope.
+   * <p>
+   * If the predicate accepts the mapping it is returned as is. Any in place update performed by the predicate (e.g. an
+   * access time write-back) therefore runs concurrently with other readers of the same segment. If the predicate
+   * rejects the mapping, it is recomputed using {@code remappingFunction} under write lock scope, exactly as
+   * {@link #computeIfPresent(Object, BiFunction)} would.
+   *
+   * @param key the key of the mapping to read
+   * @param accessPredicate the predicate deciding if the mapping can be served under read lock
+   * @param remappingFunction the function used to compute the new value when the predicate rejects the mapping
+   *
+   * @return the value mapped as the result of this call
+   */
+  V readOrComputeIfPresent(K key, BiPredicate<? super K, ? super V> accessPredicate, BiFunction<? super K, ? super V, ? extends V> remappingFunction);
+
+  /**
+   * Computes a new value for the given key if an unpinned mapping is present, and reports the memory the computation
+   * released.
+   * <p>
+   * Pinned mappings are left untouched, as eviction does, and a mapping kept by the function keeps its metadata. The
+   * segment holding the key is write locked for the whole operation so that the reported figure is not polluted by
+   * concurrent writes.
+   *
+   * @param key the key of the mapping to compute the value for
+   * @param mappingFunction the function used to compute the new value
+   *
+   * @return the number of bytes released by the segment holding the key, zero if none were
+   */
+  long computeIfPresentReclaiming(K key, BiFunction<? super K, ? super V, ? extends V> mappingFunction);
+
   long nextIdFor(K key);
 
   V getAndPin(K key);
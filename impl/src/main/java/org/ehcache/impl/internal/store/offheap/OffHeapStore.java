@@ -22,12 +22,17 @@ import org.ehcache.config.EvictionAdvisor;
 import org.ehcache.config.ResourceType;
 import org.ehcache.config.units.MemoryUnit;
 import org.ehcache.core.events.StoreEventDispatcher;
+import org.ehcache.core.spi.service.ExecutionService;
 import org.ehcache.core.spi.service.StatisticsService;
 import org.ehcache.core.statistics.OperationStatistic;
 import org.ehcache.spi.resilience.StoreAccessException;
 import org.ehcache.core.events.NullStoreEventDispatcher;
+import org.ehcache.impl.config.event.OrderedEventQueueConfiguration;
+import org.ehcache.impl.config.store.CostAwareEvictionConfiguration;
+import org.ehcache.impl.config.store.ExpiryReaperConfiguration;
 import org.ehcache.impl.internal.events.ThreadLocalStoreEventDispatcher;
 import org.ehcache.impl.internal.store.offheap.factories.EhcacheSegmentFactory;
+import org.ehcache.impl.internal.store.offheap.portability.EncodingBuffers;
 import org.ehcache.impl.internal.store.offheap.portability.SerializerPortability;
 import org.ehcache.core.spi.time.TimeSource;
 import org.ehcache.core.spi.time.TimeSourceService;
@@ -41,6 +46,7 @@ import org.ehcache.spi.serialization.SerializationProvider;
 import org.ehcache.spi.serialization.Serializer;
 import org.ehcache.spi.service.Service;
 import org.ehcache.spi.service.ServiceConfiguration;
+import org.ehcache.spi.service.OptionalServiceDependencies;
 import org.ehcache.spi.service.ServiceDependencies;
 import org.ehcache.core.collections.ConcurrentWeakIdentityHashMap;
 import org.ehcache.core.statistics.TierOperationOutcomes;
@@ -61,6 +67,8 @@ import java.util.Map;
 import java.util.Set;
 
 import static org.ehcache.config.Eviction.noAdvice;
+import static org.ehcache.core.spi.service.ServiceUtils.findSingletonAmongst;
+import static org.ehcache.impl.internal.store.offheap.OffHeapStoreUtils.getAdvancedMemorySizeConfigProperty;
 import static org.ehcache.impl.internal.store.offheap.OffHeapStoreUtils.getBufferSource;
 
 /**
@@ -68,6 +76,10 @@ import static org.ehcache.impl.internal.store.offheap.OffHeapStoreUtils.getBuffe
  */
 public class OffHeapStore<K, V> extends AbstractOffHeapStore<K, V> {
 
+  /* maximum size in bytes of the per-thread buffers keys and values are encoded into, zero disabling them */
+  private static final long ENCODING_BUFFER_SIZE = 8 * 1024;
+  private static final String ENCODING_BUFFER_SIZE_PROPERTY = "encodingBufferSize";
+
   private final SwitchableEvictionAdvisor<K, OffHeapValueHolder<V>> evictionAdvisor;
   private final Serializer<K> keySerializer;
   private final Serializer<V> valueSerializer;
@@ -76,7 +88,12 @@ public class OffHeapStore<K, V> extends AbstractOffHeapStore<K, V> {
   private volatile EhcacheConcurrentOffHeapClockCache<K, OffHeapValueHolder<V>> map;
 
   public OffHeapStore(final Configuration<K, V> config, TimeSource timeSource, StoreEventDispatcher<K, V> eventDispatcher, long sizeInBytes, StatisticsService statisticsService) {
-    super(config, timeSource, eventDispatcher, statisticsService);
+    this(config, timeSource, eventDispatcher, sizeInBytes, statisticsService, false);
+  }
+
+  public OffHeapStore(final Configuration<K, V> config, TimeSource timeSource, StoreEventDispatcher<K, V> eventDispatcher, long sizeInBytes, StatisticsService statisticsService,
+                      boolean costAwareEviction) {
+    super(config, timeSource, eventDispatcher, statisticsService, costAwareEviction);
     EvictionAdvisor<? super K, ? super V> evictionAdvisor = config.getEvictionAdvisor();
     if (evictionAdvisor != null) {
       this.evictionAdvisor = wrap(evictionAdvisor);
@@ -102,8 +119,10 @@ public class OffHeapStore<K, V> extends AbstractOffHeapStore<K, V> {
     // yukms TODO: 创建Map
     HeuristicConfiguration config = new HeuristicConfiguration(size);
     PageSource source = new UpfrontAllocatingPageSource(getBufferSource(), config.getMaximumSize(), config.getMaximumChunkSize(), config.getMinimumChunkSize());
-    Portability<K> keyPortability = new SerializerPortability<>(keySerializer);
-    Portability<OffHeapValueHolder<V>> valuePortability = createValuePortability(valueSerializer);
+    // the off-heap storage engines copy the encoded mappings before returning, so that the encoding buffers can be reused
+    long encodingBufferSize = getAdvancedMemorySizeConfigProperty(ENCODING_BUFFER_SIZE_PROPERTY, ENCODING_BUFFER_SIZE);
+    Portability<K> keyPortability = new SerializerPortability<>(keySerializer, encodingBuffers(encodingBufferSize));
+    Portability<OffHeapValueHolder<V>> valuePortability = createValuePortability(valueSerializer, newHeaderFormat(false), encodingBuffers(encodingBufferSize));
     Factory<OffHeapBufferStorageEngine<K, OffHeapValueHolder<V>>> storageEngineFactory = OffHeapBufferStorageEngine.createFactory(PointerSize.INT, source, config
         .getSegmentDataPageSize(), keyPortability, valuePortability, false, true);
 
@@ -117,6 +136,10 @@ public class OffHeapStore<K, V> extends AbstractOffHeapStore<K, V> {
 
   }
 
+  private static EncodingBuffers encodingBuffers(long maximumSize) {
+    return maximumSize > 0 ? new EncodingBuffers((int) Math.min(Integer.MAX_VALUE, maximumSize)) : null;
+  }
+
   @Override
   protected EhcacheOffHeapBackingMap<K, OffHeapValueHolder<V>> backingMap() {
     return map;
@@ -128,6 +151,7 @@ public class OffHeapStore<K, V> extends AbstractOffHeapStore<K, V> {
   }
 
   @ServiceDependencies({TimeSourceService.class, SerializationProvider.class})
+  @OptionalServiceDependencies({"org.ehcache.core.spi.service.StatisticsService", "org.ehcache.core.spi.service.ExecutionService"})
   public static class Provider extends BaseStoreProvider implements AuthoritativeTier.Provider, LowerCachingTier.Provider {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(Provider.class);
@@ -153,7 +177,8 @@ public class OffHeapStore<K, V> extends AbstractOffHeapStore<K, V> {
 
     @Override
     public <K, V> OffHeapStore<K, V> createStore(Configuration<K, V> storeConfig, ServiceConfiguration<?, ?>... serviceConfigs) {
-      OffHeapStore<K, V> store = createStoreInternal(storeConfig, new ThreadLocalStoreEventDispatcher<>(storeConfig.getDispatcherConcurrency()), serviceConfigs);
+      OffHeapStore<K, V> store = createStoreInternal(storeConfig, new ThreadLocalStoreEventDispatcher<>(storeConfig.getDispatcherConcurrency(),
+        findSingletonAmongst(OrderedEventQueueConfiguration.class, (Object[]) serviceConfigs)), serviceConfigs);
 
       tierOperationStatistics.put(store, new OperationStatistic<?>[] {
         createTranslatedStatistic(store, "get", TierOperationOutcomes.GET_TRANSLATION, "get"),
@@ -176,8 +201,16 @@ public class OffHeapStore<K, V> extends AbstractOffHeapStore<K, V> {
       MemoryUnit unit = (MemoryUnit)offHeapPool.getUnit();
 
 
+      boolean costAwareEviction = findSingletonAmongst(CostAwareEvictionConfiguration.class, (Object[]) serviceConfigs) != null;
       OffHeapStore<K, V> offHeapStore = new OffHeapStore<>(storeConfig, timeSource, eventDispatcher, unit.toBytes(offHeapPool
-        .getSize()), getServiceProvider().getService(StatisticsService.class));
+        .getSize()), getServiceProvider().getService(StatisticsService.class), costAwareEviction);
+      ExpiryReaperConfiguration expiryReaperConfiguration = findSingletonAmongst(ExpiryReaperConfiguration.class, (Object[]) serviceConfigs);
+      if (expiryReaperConfiguration != null) {
+        if (getServiceProvider().getService(ExecutionService.class) == null) {
+          throw new IllegalStateException("No ExecutionService could be found - the expiry reaper cannot be scheduled");
+        }
+        offHeapStore.enableExpiryReaper(expiryReaperConfiguration);
+      }
       createdStores.add(offHeapStore);
       return offHeapStore;
     }
@@ -194,6 +227,7 @@ public class OffHeapStore<K, V> extends AbstractOffHeapStore<K, V> {
     }
 
     static void close(final OffHeapStore<?, ?> resource) {
+      resource.stopExpiryReaper();
       EhcacheConcurrentOffHeapClockCache<?, ?> localMap = resource.map;
       if (localMap != null) {
         resource.map = null;
@@ -218,6 +252,7 @@ public class OffHeapStore<K, V> extends AbstractOffHeapStore<K, V> {
       }
 
       init(offHeapStore);
+      offHeapStore.startExpiryReaper(getServiceProvider().getService(ExecutionService.class));
     }
 
     static <K, V> void init(final OffHeapStore<K, V> resource) {
@@ -236,7 +271,7 @@ public class OffHeapStore<K, V> extends AbstractOffHeapStore<K, V> {
     @Override
     public <K, V> AuthoritativeTier<K, V> createAuthoritativeTier(Configuration<K, V> storeConfig, ServiceConfiguration<?, ?>... serviceConfigs) {
       OffHeapStore<K, V> authoritativeTier = createStoreInternal(storeConfig, new ThreadLocalStoreEventDispatcher<>(storeConfig
-        .getDispatcherConcurrency()), serviceConfigs);
+        .getDispatcherConcurrency(), findSingletonAmongst(OrderedEventQueueConfiguration.class, (Object[]) serviceConfigs)), serviceConfigs);
 
       tierOperationStatistics.put(authoritativeTier, new OperationStatistic<?>[] {
         createTranslatedStatistic(authoritativeTier, "get", TierOperationOutcomes.GET_AND_FAULT_TRANSLATION, "getAndFault"),
@@ -301,7 +336,9 @@ public class OffHeapStore<K, V> extends AbstractOffHeapStore<K, V> {
       if (!createdStores.contains(resource)) {
         throw new IllegalArgumentException("Given caching tier is not managed by this provider : " + resource);
       }
-      init((OffHeapStore<?, ?>) resource);
+      OffHeapStore<?, ?> offHeapStore = (OffHeapStore<?, ?>) resource;
+      init(offHeapStore);
+      offHeapStore.startExpiryReaper(getServiceProvider().getService(ExecutionService.class));
     }
   }
 }
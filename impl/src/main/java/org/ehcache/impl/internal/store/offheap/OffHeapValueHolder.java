@@ -26,10 +26,33 @@ import java.util.concurrent.TimeUnit;
 */
 public abstract class OffHeapValueHolder<V> extends AbstractValueHolder<V> {
 
+  private long missPenalty;
+
   public OffHeapValueHolder(long id, long creationTime, long expireTime) {
     super(id, creationTime, expireTime);
   }
 
+  /**
+   * Returns the time it took to load this value when it was missing from the cache.
+   *
+   * @return the miss penalty in nanoseconds, {@code 0} if unknown
+   */
+  public long missPenalty() {
+    return missPenalty;
+  }
+
+  /**
+   * Set the time it took to load this value when it was missing from the cache, recorded in the mapping's metadata
+   * when it is put in the backing map.
+   * <p>
+   * Must be called before the value holder is published to other threads.
+   *
+   * @param missPenalty the miss penalty in nanoseconds
+   */
+  public void setMissPenalty(long missPenalty) {
+    this.missPenalty = missPenalty;
+  }
+
   @Override
   public boolean equals(Object other) {
     if (this == other) return true;
@@ -17,6 +17,7 @@
 package org.ehcache.impl.internal.store.offheap.factories;
 
 import org.ehcache.core.spi.store.Store;
+import org.ehcache.impl.internal.store.offheap.OffHeapValueHolder;
 import org.ehcache.impl.internal.store.offheap.SwitchableEvictionAdvisor;
 import org.terracotta.offheapstore.Metadata;
 import org.terracotta.offheapstore.ReadWriteLockedOffHeapClockCache;
@@ -28,6 +29,7 @@ import org.terracotta.offheapstore.util.Factory;
 import java.nio.IntBuffer;
 import java.util.Iterator;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 
 /**
@@ -63,6 +65,23 @@ public class EhcacheSegmentFactory<K, V> implements Factory<PinnableSegment<K, V
 
     public static final int ADVISED_AGAINST_EVICTION = 1 << (Integer.SIZE - 3);
 
+    /**
+     * Status bits holding the log-scaled miss penalty class of a mapping, {@code 0} when the penalty is unknown.
+     */
+    static final int COST_CLASS_SHIFT = Integer.SIZE - 6;
+    static final int COST_CLASS_MASK = 0x7 << COST_CLASS_SHIFT;
+
+    /**
+     * Status bits holding the number of clock sweeps a mapping survives, refilled from its cost class on every hit.
+     */
+    static final int CREDIT_SHIFT = Integer.SIZE - 9;
+    static final int CREDIT_MASK = 0x7 << CREDIT_SHIFT;
+
+    /**
+     * Bound on the credited mappings skipped while looking for a single victim.
+     */
+    private static final int MAX_CREDIT_SKIPS = 32;
+
     private final SwitchableEvictionAdvisor<? super K, ? super V> evictionAdvisor;
     private final EvictionListener<K, V> evictionListener;
 
@@ -79,7 +98,27 @@ public class EhcacheSegmentFactory<K, V> implements Factory<PinnableSegment<K, V
     }
 
     private int getEvictionAdviceStatus(final K key, final V value) {
-      return evictionAdvisor.adviseAgainstEviction(key, value) ? ADVISED_AGAINST_EVICTION : 0;
+      return (evictionAdvisor.adviseAgainstEviction(key, value) ? ADVISED_AGAINST_EVICTION : 0) | evictionCostMetadata(value);
+    }
+
+    /**
+     * Returns the status bits recording the miss penalty of the given value, if it is a value holder that knows it.
+     * <p>
+     * Penalties are bucketed by powers of two of milliseconds, so that a mapping that took {@code 2^n} ms to load
+     * survives {@code n} more clock sweeps than one that is cheap to load again.
+     *
+     * @param value the mapped value
+     * @return the cost class and initial credit bits
+     */
+    public static int evictionCostMetadata(Object value) {
+      if (value instanceof OffHeapValueHolder) {
+        long penaltyMillis = TimeUnit.NANOSECONDS.toMillis(((OffHeapValueHolder<?>) value).missPenalty());
+        if (penaltyMillis > 0) {
+          int costClass = Math.min(0x7, Long.SIZE - Long.numberOfLeadingZeros(penaltyMillis));
+          return (costClass << COST_CLASS_SHIFT) | (costClass << CREDIT_SHIFT);
+        }
+      }
+      return 0;
     }
 
     @Override
@@ -88,6 +127,35 @@ public class EhcacheSegmentFactory<K, V> implements Factory<PinnableSegment<K, V
       return put(key, value, metadata);
     }
 
+    @Override
+    protected void hit(int position, IntBuffer entry) {
+      super.hit(position, entry);
+      int status = entry.get(STATUS);
+      int costClass = (status & COST_CLASS_MASK) >>> COST_CLASS_SHIFT;
+      if (costClass != 0) {
+        entry.put(STATUS, (status & ~CREDIT_MASK) | (costClass << CREDIT_SHIFT));
+      }
+    }
+
+    /**
+     * Runs the clock, letting mappings with remaining credit survive the sweep at the cost of one credit each.
+     */
+    @Override
+    public int getEvictionIndex() {
+      for (int skipped = 0; ; skipped++) {
+        int index = super.getEvictionIndex();
+        if (index < 0 || skipped >= MAX_CREDIT_SKIPS) {
+          return index;
+        }
+        int status = hashtable.get(index + STATUS);
+        int credit = (status & CREDIT_MASK) >>> CREDIT_SHIFT;
+        if (credit == 0) {
+          return index;
+        }
+        hashtable.put(index + STATUS, (status & ~CREDIT_MASK) | ((credit - 1) << CREDIT_SHIFT));
+      }
+    }
+
     @Override
     protected boolean evictable(int status) {
       return super.evictable(status) && (((status & ADVISED_AGAINST_EVICTION) == 0) || !evictionAdvisor.isSwitchedOn());
@@ -0,0 +1,98 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ehcache.impl.internal.store.offheap.portability;
+
+import org.ehcache.spi.serialization.BufferSerializer;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Per-thread direct buffers that {@link BufferSerializer}s encode into, so that writes to a tier do not allocate.
+ * <p>
+ * A buffer handed out by {@link #acquire()} is reused by the next encoding on the same thread: it must only be used
+ * by tiers that copy the encoded bytes before returning, like the off-heap tier does. Buffers double in size when an
+ * encoding overflows them, up to a maximum size above which callers fall back to allocating a buffer of their own.
+ */
+public final class EncodingBuffers {
+
+  static final int INITIAL_SIZE = 128;
+
+  private final int maximumSize;
+  private final ThreadLocal<ByteBuffer> buffers;
+
+  /**
+   * Creates encoding buffers that grow up to the given size.
+   *
+   * @param maximumSize the maximum size in bytes of a pooled buffer
+   */
+  public EncodingBuffers(int maximumSize) {
+    if (maximumSize <= 0) {
+      throw new IllegalArgumentException("Maximum encoding buffer size must be positive, got " + maximumSize);
+    }
+    this.maximumSize = maximumSize;
+    int initialSize = Math.min(INITIAL_SIZE, maximumSize);
+    this.buffers = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(initialSize));
+  }
+
+  /**
+   * Returns the cleared buffer of the calling thread.
+   *
+   * @return an empty buffer
+   */
+  ByteBuffer acquire() {
+    ByteBuffer buffer = buffers.get();
+    buffer.clear();
+    return buffer;
+  }
+
+  /**
+   * Replaces the buffer of the calling thread, that was too small for an encoding, by one twice as large.
+   *
+   * @param full the buffer that overflowed
+   * @return an empty larger buffer, or {@code null} if the buffer already reached the maximum size
+   */
+  ByteBuffer grow(ByteBuffer full) {
+    if (full.capacity() >= maximumSize) {
+      return null;
+    }
+    ByteBuffer buffer = ByteBuffer.allocateDirect(Math.min(maximumSize, full.capacity() << 1));
+    buffers.set(buffer);
+    return buffer;
+  }
+
+  /**
+   * Encodes the given object into the buffer of the calling thread.
+   *
+   * @param serializer the serializer to use
+   * @param object the object to encode
+   * @param <T> the type of the object
+   * @return the flipped buffer holding the encoding, or {@code null} if it exceeds the maximum size
+   */
+  <T> ByteBuffer encode(BufferSerializer<T> serializer, T object) {
+    ByteBuffer buffer = acquire();
+    do {
+      try {
+        serializer.serialize(object, buffer);
+        buffer.flip();
+        return buffer;
+      } catch (BufferOverflowException e) {
+        buffer = grow(buffer);
+      }
+    } while (buffer != null);
+    return null;
+  }
+}
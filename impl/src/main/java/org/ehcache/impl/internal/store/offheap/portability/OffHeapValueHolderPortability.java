@@ -19,15 +19,27 @@ package org.ehcache.impl.internal.store.offheap.portability;
 import org.ehcache.impl.internal.store.BinaryValueHolder;
 import org.ehcache.impl.internal.store.offheap.LazyOffHeapValueHolder;
 import org.ehcache.impl.internal.store.offheap.OffHeapValueHolder;
+import org.ehcache.spi.serialization.BufferSerializer;
 import org.ehcache.spi.serialization.Serializer;
 import org.terracotta.offheapstore.storage.portability.WriteBackPortability;
 import org.terracotta.offheapstore.storage.portability.WriteContext;
 
+import java.nio.BufferOverflowException;
 import java.nio.ByteBuffer;
 import java.util.concurrent.TimeUnit;
 
 /**
  * OffHeapValueHolderPortability
+ * <p>
+ * Values are stored behind a header holding the metadata of their value holder, laid out according to a
+ * {@link HeaderFormat}:
+ * <ul>
+ *   <li>{@link HeaderFormat#LEGACY}: five longs, id, creation time, last access time, expiration time and a zero hits
+ *   count kept for compatibility with previously persisted data,</li>
+ *   <li>{@link HeaderFormat#compact(long, boolean)}: last access and expiration times as longs, so that they can be
+ *   written back in place, followed by the id and the creation time relative to the epoch of the store as varints.
+ *   The expiration time is left out of the header of eternal stores.</li>
+ * </ul>
  */
 public class OffHeapValueHolderPortability<V> implements WriteBackPortability<OffHeapValueHolder<V>> {
 
@@ -37,31 +49,104 @@ public class OffHeapValueHolderPortability<V> implements WriteBackPortability<Of
   // 5 longs: id, access, expire, creation time, hits (which is kept for compatibility)
   private static final int FIELDS_OVERHEAD = 40;
 
+  private static final int COMPACT_ACCESS_TIME_OFFSET = 0;
+  private static final int COMPACT_EXPIRE_TIME_OFFSET = 8;
+
   private final Serializer<V> serializer;
+  private final HeaderFormat format;
+  private final BufferSerializer<V> bufferSerializer;
+  private final EncodingBuffers encodingBuffers;
 
   public OffHeapValueHolderPortability(Serializer<V> serializer) {
+    this(serializer, HeaderFormat.LEGACY);
+  }
+
+  public OffHeapValueHolderPortability(Serializer<V> serializer, HeaderFormat format) {
+    this(serializer, format, null);
+  }
+
+  /**
+   * Creates a portability encoding into the given buffers, serializing values straight into them when the serializer
+   * is a {@link BufferSerializer}.
+   *
+   * @param serializer the value serializer
+   * @param format the header format
+   * @param encodingBuffers the buffers to encode into, {@code null} to allocate a buffer per encoding
+   */
+  public OffHeapValueHolderPortability(Serializer<V> serializer, HeaderFormat format, EncodingBuffers encodingBuffers) {
     this.serializer = serializer;
+    this.format = format;
+    this.encodingBuffers = encodingBuffers;
+    if (encodingBuffers != null && serializer instanceof BufferSerializer) {
+      this.bufferSerializer = (BufferSerializer<V>) serializer;
+    } else {
+      this.bufferSerializer = null;
+    }
   }
 
   @Override
   public ByteBuffer encode(OffHeapValueHolder<V> valueHolder) {
-    ByteBuffer serialized;
+    ByteBuffer serialized = null;
     if (valueHolder instanceof BinaryValueHolder && ((BinaryValueHolder)valueHolder).isBinaryValueAvailable()) {
       serialized = ((BinaryValueHolder)valueHolder).getBinaryValue();
-    } else {
+    } else if (bufferSerializer == null) {
       serialized = serializer.serialize(valueHolder.get());
     }
-    ByteBuffer byteBuffer = ByteBuffer.allocate(serialized.remaining() + FIELDS_OVERHEAD);
-    byteBuffer.putLong(valueHolder.getId());
-    byteBuffer.putLong(valueHolder.creationTime());
-    byteBuffer.putLong(valueHolder.lastAccessTime());
-    byteBuffer.putLong(valueHolder.expirationTime());
-    byteBuffer.putLong(0L); // represent the hits on previous versions. It is kept for compatibility reasons with previously saved data
+
+    if (encodingBuffers != null) {
+      ByteBuffer buffer = encodingBuffers.acquire();
+      do {
+        try {
+          putHeader(buffer, valueHolder);
+          if (serialized == null) {
+            bufferSerializer.serialize(valueHolder.get(), buffer);
+          } else {
+            buffer.put(serialized.duplicate());
+          }
+          buffer.flip();
+          return buffer;
+        } catch (BufferOverflowException e) {
+          buffer = encodingBuffers.grow(buffer);
+        }
+      } while (buffer != null);
+    }
+
+    if (serialized == null) {
+      serialized = serializer.serialize(valueHolder.get());
+    }
+    ByteBuffer byteBuffer = ByteBuffer.allocate(serialized.remaining() + headerSize(valueHolder));
+    putHeader(byteBuffer, valueHolder);
     byteBuffer.put(serialized);
     byteBuffer.flip();
     return byteBuffer;
   }
 
+  private int headerSize(OffHeapValueHolder<V> valueHolder) {
+    if (format.isCompact()) {
+      long creationTime = zigZag(valueHolder.creationTime() - format.getEpoch());
+      return (format.isEternal() ? 8 : 16) + varLongSize(valueHolder.getId()) + varLongSize(creationTime);
+    } else {
+      return FIELDS_OVERHEAD;
+    }
+  }
+
+  private void putHeader(ByteBuffer byteBuffer, OffHeapValueHolder<V> valueHolder) {
+    if (format.isCompact()) {
+      byteBuffer.putLong(valueHolder.lastAccessTime());
+      if (!format.isEternal()) {
+        byteBuffer.putLong(valueHolder.expirationTime());
+      }
+      putVarLong(byteBuffer, valueHolder.getId());
+      putVarLong(byteBuffer, zigZag(valueHolder.creationTime() - format.getEpoch()));
+    } else {
+      byteBuffer.putLong(valueHolder.getId());
+      byteBuffer.putLong(valueHolder.creationTime());
+      byteBuffer.putLong(valueHolder.lastAccessTime());
+      byteBuffer.putLong(valueHolder.expirationTime());
+      byteBuffer.putLong(0L); // represent the hits on previous versions. It is kept for compatibility reasons with previously saved data
+    }
+  }
+
   @Override
   public OffHeapValueHolder<V> decode(ByteBuffer byteBuffer) {
     return decode(byteBuffer, null);
@@ -74,15 +159,166 @@ public class OffHeapValueHolderPortability<V> implements WriteBackPortability<Of
 
   @Override
   public OffHeapValueHolder<V> decode(ByteBuffer byteBuffer, WriteContext writeContext) {
-    long id = byteBuffer.getLong();
-    long creationTime = byteBuffer.getLong();
-    long lastAccessTime = byteBuffer.getLong();
-    long expireTime = byteBuffer.getLong();
-    byteBuffer.getLong(); // hits read from disk. It is kept for compatibility reasons with previously saved data
-    return createLazyOffHeapValueHolder(id, byteBuffer.slice(), serializer, creationTime, expireTime, lastAccessTime, writeContext);
+    if (format.isCompact()) {
+      long lastAccessTime = byteBuffer.getLong();
+      long expireTime = format.isEternal() ? OffHeapValueHolder.NO_EXPIRE : byteBuffer.getLong();
+      long id = getVarLong(byteBuffer);
+      long creationTime = format.getEpoch() + unZigZag(getVarLong(byteBuffer));
+      WriteContext compactWriteContext = writeContext == null ? null : new CompactWriteContext(writeContext, format.isEternal());
+      return createLazyOffHeapValueHolder(id, byteBuffer.slice(), serializer, creationTime, expireTime, lastAccessTime, compactWriteContext);
+    } else {
+      long id = byteBuffer.getLong();
+      long creationTime = byteBuffer.getLong();
+      long lastAccessTime = byteBuffer.getLong();
+      long expireTime = byteBuffer.getLong();
+      byteBuffer.getLong(); // hits read from disk. It is kept for compatibility reasons with previously saved data
+      return createLazyOffHeapValueHolder(id, byteBuffer.slice(), serializer, creationTime, expireTime, lastAccessTime, writeContext);
+    }
   }
 
   protected OffHeapValueHolder<V> createLazyOffHeapValueHolder(long id, ByteBuffer byteBuffer, Serializer<V> serializer, long creationTime, long expireTime, long lastAccessTime, WriteContext writeContext) {
     return new LazyOffHeapValueHolder<>(id, byteBuffer, serializer, creationTime, expireTime, lastAccessTime, writeContext);
   }
+
+  private static long zigZag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  private static long unZigZag(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  private static int varLongSize(long value) {
+    int size = 1;
+    while ((value & ~0x7fL) != 0) {
+      value >>>= 7;
+      size++;
+    }
+    return size;
+  }
+
+  private static void putVarLong(ByteBuffer buffer, long value) {
+    while ((value & ~0x7fL) != 0) {
+      buffer.put((byte) ((value & 0x7f) | 0x80));
+      value >>>= 7;
+    }
+    buffer.put((byte) value);
+  }
+
+  private static long getVarLong(ByteBuffer buffer) {
+    long value = 0;
+    for (int shift = 0; ; shift += 7) {
+      byte b = buffer.get();
+      value |= (long) (b & 0x7f) << shift;
+      if (b >= 0) {
+        return value;
+      }
+    }
+  }
+
+  /**
+   * Maps the legacy offsets written back by the value holders to the ones of the compact header.
+   */
+  private static class CompactWriteContext implements WriteContext {
+
+    private final WriteContext delegate;
+    private final boolean eternal;
+
+    CompactWriteContext(WriteContext delegate, boolean eternal) {
+      this.delegate = delegate;
+      this.eternal = eternal;
+    }
+
+    @Override
+    public void setLong(int offset, long value) {
+      switch (offset) {
+        case ACCESS_TIME_OFFSET:
+          delegate.setLong(COMPACT_ACCESS_TIME_OFFSET, value);
+          break;
+        case EXPIRE_TIME_OFFSET:
+          // values of an eternal store never expire, whatever the expiration time flushed from another tier
+          if (!eternal) {
+            delegate.setLong(COMPACT_EXPIRE_TIME_OFFSET, value);
+          }
+          break;
+        default:
+          throw new IllegalArgumentException("Unexpected header offset: " + offset);
+      }
+    }
+
+    @Override
+    public void flush() {
+      delegate.flush();
+    }
+  }
+
+  /**
+   * Layout of the header preceding the serialized values of a store.
+   */
+  public static final class HeaderFormat {
+
+    /**
+     * The fixed 40 bytes header of stores persisted before the compact header was introduced.
+     */
+    public static final HeaderFormat LEGACY = new HeaderFormat(1, 0L, false);
+
+    private static final int COMPACT_VERSION = 2;
+
+    private final int version;
+    private final long epoch;
+    private final boolean eternal;
+
+    private HeaderFormat(int version, long epoch, boolean eternal) {
+      this.version = version;
+      this.epoch = epoch;
+      this.eternal = eternal;
+    }
+
+    /**
+     * Creates a compact header format.
+     *
+     * @param epoch the time creation times are stored relative to
+     * @param eternal {@code true} if the values of the store never expire
+     * @return a compact header format
+     */
+    public static HeaderFormat compact(long epoch, boolean eternal) {
+      return new HeaderFormat(COMPACT_VERSION, epoch, eternal);
+    }
+
+    /**
+     * Returns the header format of the given version.
+     *
+     * @param version the persisted version
+     * @param epoch the persisted epoch, ignored by the legacy format
+     * @param eternal the persisted eternal flag, ignored by the legacy format
+     * @return the matching header format
+     * @throws IllegalArgumentException if the version is unknown
+     */
+    public static HeaderFormat of(int version, long epoch, boolean eternal) {
+      switch (version) {
+        case 1:
+          return LEGACY;
+        case COMPACT_VERSION:
+          return compact(epoch, eternal);
+        default:
+          throw new IllegalArgumentException("Unknown value header version " + version);
+      }
+    }
+
+    public int getVersion() {
+      return version;
+    }
+
+    public long getEpoch() {
+      return epoch;
+    }
+
+    public boolean isEternal() {
+      return eternal;
+    }
+
+    boolean isCompact() {
+      return version == COMPACT_VERSION;
+    }
+  }
 }
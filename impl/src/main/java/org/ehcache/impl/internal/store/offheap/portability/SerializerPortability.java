@@ -16,6 +16,7 @@
 
 package org.ehcache.impl.internal.store.offheap.portability;
 
+import org.ehcache.spi.serialization.BufferSerializer;
 import org.ehcache.spi.serialization.SerializerException;
 import org.ehcache.spi.serialization.Serializer;
 
@@ -29,13 +30,38 @@ import java.nio.ByteBuffer;
 public class SerializerPortability<T> implements Portability<T> {
 
   private final Serializer<T> serializer;
+  private final BufferSerializer<T> bufferSerializer;
+  private final EncodingBuffers encodingBuffers;
 
   public SerializerPortability(Serializer<T> serializer) {
+    this(serializer, null);
+  }
+
+  /**
+   * Creates a portability encoding into the given buffers when the serializer is a {@link BufferSerializer}.
+   *
+   * @param serializer the serializer
+   * @param encodingBuffers the buffers to encode into, {@code null} to allocate a buffer per encoding
+   */
+  public SerializerPortability(Serializer<T> serializer, EncodingBuffers encodingBuffers) {
     this.serializer = serializer;
+    if (encodingBuffers != null && serializer instanceof BufferSerializer) {
+      this.bufferSerializer = (BufferSerializer<T>) serializer;
+      this.encodingBuffers = encodingBuffers;
+    } else {
+      this.bufferSerializer = null;
+      this.encodingBuffers = null;
+    }
   }
 
   @Override
   public ByteBuffer encode(T t) {
+    if (encodingBuffers != null) {
+      ByteBuffer encoded = encodingBuffers.encode(bufferSerializer, t);
+      if (encoded != null) {
+        return encoded;
+      }
+    }
     return serializer.serialize(t);
   }
 
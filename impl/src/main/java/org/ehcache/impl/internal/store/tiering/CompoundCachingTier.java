@@ -141,6 +141,11 @@ public class CompoundCachingTier<K, V> implements CachingTier<K, V> {
     }
   }
 
+  @Override
+  public Store.ValueHolder<V> installWritten(K key, Function<K, Store.ValueHolder<V>> source) throws StoreAccessException {
+    return higher.installWritten(key, source);
+  }
+
   @Override
   public void invalidate(final K key) throws StoreAccessException {
     try {
@@ -27,6 +27,8 @@ import org.ehcache.spi.resilience.StoreAccessException;
 import org.ehcache.core.spi.store.events.StoreEventSource;
 import org.ehcache.core.spi.store.tiering.AuthoritativeTier;
 import org.ehcache.core.spi.store.tiering.CachingTier;
+import org.ehcache.impl.config.store.CachingTierWritePolicyConfiguration;
+import org.ehcache.impl.config.store.CachingTierWritePolicyConfiguration.WritePolicy;
 import org.ehcache.spi.service.OptionalServiceDependencies;
 import org.ehcache.spi.service.Service;
 import org.ehcache.spi.service.ServiceConfiguration;
@@ -37,18 +39,23 @@ import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
+import static org.ehcache.core.spi.service.ServiceUtils.findSingletonAmongst;
+
 /**
  * A {@link Store} implementation supporting a tiered caching model.
  * 支持分层缓存模型的{@link Store}实现。
@@ -59,10 +66,16 @@ public class TieredStore<K, V> implements Store<K, V> {
   private final CachingTier<K, V> noopCachingTier;
   private final CachingTier<K, V> realCachingTier;
   private final AuthoritativeTier<K, V> authoritativeTier;
+  private final WritePolicy writePolicy;
 
   public TieredStore(CachingTier<K, V> cachingTier, AuthoritativeTier<K, V> authoritativeTier) {
+    this(cachingTier, authoritativeTier, WritePolicy.WRITE_INVALIDATE);
+  }
+
+  public TieredStore(CachingTier<K, V> cachingTier, AuthoritativeTier<K, V> authoritativeTier, WritePolicy writePolicy) {
     this.cachingTierRef = new AtomicReference<>(cachingTier);
     this.authoritativeTier = authoritativeTier;
+    this.writePolicy = Objects.requireNonNull(writePolicy, "writePolicy must not be null");
     this.realCachingTier = cachingTier;
     this.noopCachingTier = new NoopCachingTier<>(authoritativeTier);
 
@@ -106,31 +119,17 @@ public class TieredStore<K, V> implements Store<K, V> {
 
   @Override
   public PutStatus put(final K key, final V value) throws StoreAccessException {
-    try {
-      // yukms TODO: put直接给最底层
-      return authoritativeTier.put(key, value);
-    } finally {
-      // yukms TODO: 高层的值直接移除
-      cachingTier().invalidate(key);
-    }
+    return write(key, () -> authoritativeTier.put(key, value), status -> status == PutStatus.PUT ? value : null);
   }
 
   @Override
   public ValueHolder<V> getAndPut(K key, V value) throws StoreAccessException {
-    try {
-      return authoritativeTier.getAndPut(key, value);
-    } finally {
-      cachingTier().invalidate(key);
-    }
+    return write(key, () -> authoritativeTier.getAndPut(key, value), previous -> value);
   }
 
   @Override
   public ValueHolder<V> putIfAbsent(K key, V value, Consumer<Boolean> put) throws StoreAccessException {
-    try {
-      return authoritativeTier.putIfAbsent(key, value, put);
-    } finally {
-      cachingTier().invalidate(key);
-    }
+    return write(key, () -> authoritativeTier.putIfAbsent(key, value, put), existing -> existing == null ? value : null);
   }
 
   @Override
@@ -164,20 +163,12 @@ public class TieredStore<K, V> implements Store<K, V> {
 
   @Override
   public ValueHolder<V> replace(K key, V value) throws StoreAccessException {
-    try {
-      return authoritativeTier.replace(key, value);
-    } finally {
-      cachingTier().invalidate(key);
-    }
+    return write(key, () -> authoritativeTier.replace(key, value), previous -> previous == null ? null : value);
   }
 
   @Override
   public ReplaceStatus replace(K key, V oldValue, V newValue) throws StoreAccessException {
-    try {
-      return authoritativeTier.replace(key, oldValue, newValue);
-    } finally {
-      cachingTier().invalidate(key);
-    }
+    return write(key, () -> authoritativeTier.replace(key, oldValue, newValue), status -> status == ReplaceStatus.HIT ? newValue : null);
   }
 
   @Override
@@ -309,17 +300,58 @@ public class TieredStore<K, V> implements Store<K, V> {
 
   @Override
   public ValueHolder<V> getAndCompute(final K key, final BiFunction<? super K, ? super V, ? extends V> mappingFunction) throws StoreAccessException {
-    try {
-      return authoritativeTier.getAndCompute(key, mappingFunction);
-    } finally {
-      cachingTier().invalidate(key);
-    }
+    return write(key, () -> authoritativeTier.getAndCompute(key, mappingFunction), previous -> null);
   }
 
   @Override
   public ValueHolder<V> computeAndGet(final K key, final BiFunction<? super K, ? super V, ? extends V> mappingFunction, final Supplier<Boolean> replaceEqual, Supplier<Boolean> invokeWriter) throws StoreAccessException {
+    return write(key, () -> authoritativeTier.computeAndGet(key, mappingFunction, replaceEqual, () -> false), computed -> computed == null ? null : computed.get());
+  }
+
+  /**
+   * Performs a write against the authority, keeping the caching tier coherent according to the write policy.
+   * <p>
+   * Under {@link WritePolicy#WRITE_UPDATE} the write runs as the fault of the key in the caching tier: a concurrent
+   * writer's invalidation then discards the fault exactly as it would discard a concurrent read. The written mapping
+   * keeps the expiry of the write, installing it is not an access. When the written value is known, it is installed
+   * in place of the faulted one so that the caching tier does not need to decode it.
+   *
+   * @param key the key written
+   * @param write the write against the authority
+   * @param writtenValue the value left mapped by the write given its result, {@code null} if unknown
+   * @param <R> the write result type
+   * @return the write result
+   * @throws StoreAccessException if the write fails
+   */
+  private <R> R write(K key, AuthorityWrite<R> write, Function<R, V> writtenValue) throws StoreAccessException {
+    if (writePolicy == WritePolicy.WRITE_UPDATE) {
+      AtomicReference<R> result = new AtomicReference<>();
+      AtomicBoolean written = new AtomicBoolean();
+      try {
+        CachingTier<K, V> cachingTier = cachingTier();
+        cachingTier.invalidate(key);
+        cachingTier.installWritten(key, keyParam -> {
+          try {
+            R r = write.apply();
+            result.set(r);
+            written.set(true);
+            ValueHolder<V> faulted = authoritativeTier.faultWritten(keyParam);
+            V value = writtenValue.apply(r);
+            return faulted == null || value == null ? faulted : new WrittenValueHolder<>(value, faulted);
+          } catch (StoreAccessException cae) {
+            throw new StorePassThroughException(cae);
+          }
+        });
+      } catch (StoreAccessException ce) {
+        handleStoreAccessException(ce);
+      }
+      if (written.get()) {
+        return result.get();
+      }
+      // The key was faulted in concurrently, or the caching tier cannot install it: fall back to invalidating it
+    }
     try {
-      return authoritativeTier.computeAndGet(key, mappingFunction, replaceEqual, () -> false);
+      return write.apply();
     } finally {
       cachingTier().invalidate(key);
     }
@@ -341,33 +373,83 @@ public class TieredStore<K, V> implements Store<K, V> {
 
   @Override
   public Map<K, ValueHolder<V>> bulkCompute(Set<? extends K> keys, Function<Iterable<? extends Map.Entry<? extends K, ? extends V>>, Iterable<? extends Map.Entry<? extends K, ? extends V>>> remappingFunction) throws StoreAccessException {
+    Map<K, ValueHolder<V>> result;
     try {
-      return authoritativeTier.bulkCompute(keys, remappingFunction);
+      result = authoritativeTier.bulkCompute(keys, remappingFunction);
     } finally {
       for (K key : keys) {
         cachingTier().invalidate(key);
       }
     }
+    installInCachingTier(result);
+    return result;
   }
 
   @Override
   public Map<K, ValueHolder<V>> bulkCompute(Set<? extends K> keys, Function<Iterable<? extends Map.Entry<? extends K, ? extends V>>, Iterable<? extends Map.Entry<? extends K, ? extends V>>> remappingFunction, Supplier<Boolean> replaceEqual) throws StoreAccessException {
+    Map<K, ValueHolder<V>> result;
     try {
-      return authoritativeTier.bulkCompute(keys, remappingFunction, replaceEqual);
+      result = authoritativeTier.bulkCompute(keys, remappingFunction, replaceEqual);
     } finally {
       for (K key : keys) {
         cachingTier().invalidate(key);
       }
     }
+    installInCachingTier(result);
+    return result;
   }
 
   @Override
   public Map<K, ValueHolder<V>> bulkComputeIfAbsent(Set<? extends K> keys, Function<Iterable<? extends K>, Iterable<? extends Map.Entry<? extends K, ? extends V>>> mappingFunction) throws StoreAccessException {
-    try {
-      return authoritativeTier.bulkComputeIfAbsent(keys, mappingFunction);
-    } finally {
-      for (K key : keys) {
-        cachingTier().invalidate(key);
+    Map<K, ValueHolder<V>> result = new HashMap<>(keys.size());
+
+    // Serve what the caching tier holds, exactly as get would
+    Set<K> misses = new HashSet<>();
+    for (K key : keys) {
+      ValueHolder<V> cached = cachingTier().getOrDefault(key, keyParam -> null);
+      ValueHolder<V> valueHolder = cached == null ? null : get(key);
+      if (valueHolder == null) {
+        misses.add(key);
+      } else {
+        result.put(key, valueHolder);
+      }
+    }
+
+    // Compute all misses in a single batch, then fault them in
+    if (!misses.isEmpty()) {
+      for (Map.Entry<K, ValueHolder<V>> entry : authoritativeTier.bulkComputeIfAbsent(misses, mappingFunction).entrySet()) {
+        ValueHolder<V> computed = entry.getValue();
+        ValueHolder<V> installed = computed == null ? null : get(entry.getKey());
+        result.put(entry.getKey(), installed == null ? computed : installed);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Installs the mappings a bulk write left in the authority into the caching tier, so that they can be read without
+   * going back to the authority.
+   * <p>
+   * The mappings keep the expiry of the write: installing them is not a read, so neither access expiry nor access
+   * statistics apply.
+   *
+   * @param computed the mappings as computed by the authority
+   * @throws StoreAccessException if a mapping cannot be installed
+   */
+  private void installInCachingTier(Map<K, ValueHolder<V>> computed) throws StoreAccessException {
+    for (Map.Entry<K, ValueHolder<V>> entry : computed.entrySet()) {
+      if (entry.getValue() != null) {
+        try {
+          cachingTier().installWritten(entry.getKey(), keyParam -> {
+            try {
+              return authoritativeTier.faultWritten(keyParam);
+            } catch (StoreAccessException cae) {
+              throw new StorePassThroughException(cae);
+            }
+          });
+        } catch (StoreAccessException ce) {
+          handleStoreAccessException(ce);
+        }
       }
     }
   }
@@ -385,7 +467,7 @@ public class TieredStore<K, V> implements Store<K, V> {
     return cachingTierRef.get();
   }
 
-  private ValueHolder<V> handleStoreAccessException(StoreAccessException ce) throws StoreAccessException {
+  private <T> T handleStoreAccessException(StoreAccessException ce) throws StoreAccessException {
     Throwable cause = ce.getCause();
     if (cause instanceof StorePassThroughException) {
       throw (StoreAccessException) cause.getCause();
@@ -485,7 +567,9 @@ public class TieredStore<K, V> implements Store<K, V> {
       CachingTier<K, V> cachingTier = cachingTierProvider.createCachingTier(storeConfig, configurations);
       AuthoritativeTier<K, V> authoritativeTier = authoritativeTierProvider.createAuthoritativeTier(storeConfig, configurations);
 
-      TieredStore<K, V> store = new TieredStore<>(cachingTier, authoritativeTier);
+      CachingTierWritePolicyConfiguration writePolicyConfiguration = findSingletonAmongst(CachingTierWritePolicyConfiguration.class, (Object[]) serviceConfigs);
+      WritePolicy writePolicy = writePolicyConfiguration == null ? WritePolicy.WRITE_INVALIDATE : writePolicyConfiguration.getWritePolicy();
+      TieredStore<K, V> store = new TieredStore<>(cachingTier, authoritativeTier, writePolicy);
       StatisticsService statisticsService = serviceProvider.getService(StatisticsService.class);
       if (statisticsService != null) {
         statisticsService.registerWithParent(cachingTier, store);
@@ -580,6 +664,56 @@ public class TieredStore<K, V> implements Store<K, V> {
     }
   }
 
+  @FunctionalInterface
+  private interface AuthorityWrite<R> {
+    R apply() throws StoreAccessException;
+  }
+
+  /**
+   * The value holder installed in the caching tier on write-update: the value just written, along with the mapping
+   * metadata of the authority so that it can later be flushed back to it.
+   */
+  private static class WrittenValueHolder<V> implements ValueHolder<V> {
+
+    private final V value;
+    private final ValueHolder<V> faulted;
+
+    WrittenValueHolder(V value, ValueHolder<V> faulted) {
+      this.value = value;
+      this.faulted = faulted;
+    }
+
+    @Override
+    public long creationTime() {
+      return faulted.creationTime();
+    }
+
+    @Override
+    public long expirationTime() {
+      return faulted.expirationTime();
+    }
+
+    @Override
+    public boolean isExpired(long expirationTime) {
+      return faulted.isExpired(expirationTime);
+    }
+
+    @Override
+    public long lastAccessTime() {
+      return faulted.lastAccessTime();
+    }
+
+    @Override
+    public long getId() {
+      return faulted.getId();
+    }
+
+    @Override
+    public V get() {
+      return value;
+    }
+  }
+
   private static class NoopCachingTier<K, V> implements CachingTier<K, V> {
 
     private final AuthoritativeTier<K, V> authoritativeTier;
@@ -16,6 +16,7 @@
 
 package org.ehcache.impl.serialization;
 
+import org.ehcache.spi.serialization.BufferSerializer;
 import org.ehcache.spi.serialization.SerializerException;
 import org.ehcache.spi.serialization.Serializer;
 
@@ -28,7 +29,7 @@ import java.nio.ByteBuffer;
  * Note that {@link #equals(byte[], ByteBuffer)} does not follow the {@code byte[].equals(Object)} contract but does
  * byte-to-byte comparison of both byte arrays.
  */
-public class ByteArraySerializer implements Serializer<byte[]> {
+public class ByteArraySerializer implements BufferSerializer<byte[]> {
 
   /**
    * No arg constructor
@@ -56,6 +57,14 @@ public class ByteArraySerializer implements Serializer<byte[]> {
     return ByteBuffer.wrap(object);
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void serialize(byte[] object, ByteBuffer target) {
+    target.put(object);
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -16,6 +16,7 @@
 
 package org.ehcache.impl.serialization;
 
+import org.ehcache.spi.serialization.BufferSerializer;
 import org.ehcache.spi.serialization.Serializer;
 
 import java.nio.ByteBuffer;
@@ -24,7 +25,7 @@ import java.nio.ByteBuffer;
  * Default {@link Serializer} for {@code Char} type. Simply writes the char value
  * to a byte buffer.
  */
-public class CharSerializer implements Serializer<Character> {
+public class CharSerializer implements BufferSerializer<Character> {
 
   /**
    * No arg constructor
@@ -54,6 +55,14 @@ public class CharSerializer implements Serializer<Character> {
     return byteBuffer;
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void serialize(Character object, ByteBuffer target) {
+    target.putChar(object);
+  }
+
   /**
    * {@inheritDoc}
    */
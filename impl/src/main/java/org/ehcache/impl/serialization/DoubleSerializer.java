@@ -16,6 +16,7 @@
 
 package org.ehcache.impl.serialization;
 
+import org.ehcache.spi.serialization.BufferSerializer;
 import org.ehcache.spi.serialization.Serializer;
 
 import java.nio.ByteBuffer;
@@ -24,7 +25,7 @@ import java.nio.ByteBuffer;
  * Default {@link Serializer} for {@code Double} type. Simply writes the double value
  * to a byte buffer.
  */
-public class DoubleSerializer implements Serializer<Double> {
+public class DoubleSerializer implements BufferSerializer<Double> {
 
   /**
    * No arg constructor
@@ -54,6 +55,14 @@ public class DoubleSerializer implements Serializer<Double> {
     return byteBuffer;
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void serialize(Double object, ByteBuffer target) {
+    target.putDouble(object);
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -16,6 +16,7 @@
 
 package org.ehcache.impl.serialization;
 
+import org.ehcache.spi.serialization.BufferSerializer;
 import org.ehcache.spi.serialization.Serializer;
 
 import java.nio.ByteBuffer;
@@ -24,7 +25,7 @@ import java.nio.ByteBuffer;
  * Default {@link Serializer} for {@code Float} type. Simply writes the float value
  * to a byte buffer.
  */
-public class FloatSerializer implements Serializer<Float> {
+public class FloatSerializer implements BufferSerializer<Float> {
 
   /**
    * No arg constructor
@@ -54,6 +55,14 @@ public class FloatSerializer implements Serializer<Float> {
     return byteBuffer;
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void serialize(Float object, ByteBuffer target) {
+    target.putFloat(object);
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -16,6 +16,7 @@
 
 package org.ehcache.impl.serialization;
 
+import org.ehcache.spi.serialization.BufferSerializer;
 import org.ehcache.spi.serialization.Serializer;
 
 import java.nio.ByteBuffer;
@@ -24,7 +25,7 @@ import java.nio.ByteBuffer;
  * Default {@link Serializer} for {@code Integer} type. Simply writes the integer value
  * to a byte buffer.
  */
-public class IntegerSerializer implements Serializer<Integer> {
+public class IntegerSerializer implements BufferSerializer<Integer> {
 
   /**
    * No arg constructor
@@ -54,6 +55,14 @@ public class IntegerSerializer implements Serializer<Integer> {
     return byteBuffer;
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void serialize(Integer object, ByteBuffer target) {
+    target.putInt(object);
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -16,6 +16,7 @@
 
 package org.ehcache.impl.serialization;
 
+import org.ehcache.spi.serialization.BufferSerializer;
 import org.ehcache.spi.serialization.Serializer;
 
 import java.nio.ByteBuffer;
@@ -24,7 +25,7 @@ import java.nio.ByteBuffer;
  * Default {@link Serializer} for {@code Long} type. Simply writes the long value
  * to a byte buffer.
  */
-public class LongSerializer implements Serializer<Long> {
+public class LongSerializer implements BufferSerializer<Long> {
 
   /**
    * No arg constructor
@@ -54,6 +55,14 @@ public class LongSerializer implements Serializer<Long> {
     return byteBuffer;
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void serialize(Long object, ByteBuffer target) {
+    target.putLong(object);
+  }
+
   /**
    * {@inheritDoc}
    */
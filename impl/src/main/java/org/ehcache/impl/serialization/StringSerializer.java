@@ -16,10 +16,9 @@
 
 package org.ehcache.impl.serialization;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.nio.ByteBuffer;
 
+import org.ehcache.spi.serialization.BufferSerializer;
 import org.ehcache.spi.serialization.Serializer;
 import org.ehcache.spi.serialization.SerializerException;
 
@@ -27,7 +26,7 @@ import org.ehcache.spi.serialization.SerializerException;
  * Default {@link Serializer} for {@code String} type. Simply writes the string bytes in modified UTF-8
  * to a byte buffer.
  */
-public class StringSerializer implements Serializer<String> {
+public class StringSerializer implements BufferSerializer<String> {
 
   /**
    * No arg constructor
@@ -52,41 +51,58 @@ public class StringSerializer implements Serializer<String> {
    */
   @Override
   public ByteBuffer serialize(String object) {
-    int length = object.length();
+    ByteBuffer byteBuffer = ByteBuffer.allocate(encodedLength(object));
+    serialize(object, byteBuffer);
+    byteBuffer.flip();
+    return byteBuffer;
+  }
 
-    try(ByteArrayOutputStream bout = new ByteArrayOutputStream(length)) {
-      int i = 0;
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void serialize(String object, ByteBuffer target) {
+    int length = object.length();
+    int i = 0;
 
-      for (; i < length; i++) {
-        char c = object.charAt(i);
-        if (c == 0x0000 || c > 0x007f) {
-          break;
-        }
-        bout.write(c);
+    for (; i < length; i++) {
+      char c = object.charAt(i);
+      if (c == 0x0000 || c > 0x007f) {
+        break;
       }
+      target.put((byte) c);
+    }
 
-      for (; i < length; i++) {
-        char c = object.charAt(i);
-        if (c == 0x0000) {
-          bout.write(0xc0);
-          bout.write(0x80);
-        } else if (c < 0x0080) {
-          bout.write(c);
-        } else if (c < 0x800) {
-          bout.write(0xc0 | ((c >>> 6) & 0x1f));
-          bout.write(0x80 | (c & 0x3f));
-        } else {
-          bout.write(0xe0 | ((c >>> 12) & 0x1f));
-          bout.write(0x80 | ((c >>> 6) & 0x3f));
-          bout.write(0x80 | (c & 0x3f));
-        }
+    for (; i < length; i++) {
+      char c = object.charAt(i);
+      if (c == 0x0000) {
+        target.put((byte) 0xc0);
+        target.put((byte) 0x80);
+      } else if (c < 0x0080) {
+        target.put((byte) c);
+      } else if (c < 0x800) {
+        target.put((byte) (0xc0 | ((c >>> 6) & 0x1f)));
+        target.put((byte) (0x80 | (c & 0x3f)));
+      } else {
+        target.put((byte) (0xe0 | ((c >>> 12) & 0x1f)));
+        target.put((byte) (0x80 | ((c >>> 6) & 0x3f)));
+        target.put((byte) (0x80 | (c & 0x3f)));
       }
+    }
+  }
 
-      return ByteBuffer.wrap(bout.toByteArray());
-
-    } catch (IOException e) {
-      throw new RuntimeException(e);
+  private static int encodedLength(String object) {
+    int length = object.length();
+    int encodedLength = length;
+    for (int i = 0; i < length; i++) {
+      char c = object.charAt(i);
+      if (c == 0x0000 || (c >= 0x0080 && c < 0x800)) {
+        encodedLength += 1;
+      } else if (c >= 0x800) {
+        encodedLength += 2;
+      }
     }
+    return encodedLength;
   }
 
   /**
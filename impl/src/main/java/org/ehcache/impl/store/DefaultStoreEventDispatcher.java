@@ -17,6 +17,7 @@
 package org.ehcache.impl.store;
 
 import org.ehcache.core.events.StoreEventSink;
+import org.ehcache.impl.config.event.OrderedEventQueueConfiguration;
 import org.ehcache.impl.internal.events.AbstractStoreEventDispatcher;
 
 /**
@@ -28,6 +29,10 @@ public class DefaultStoreEventDispatcher<K, V> extends AbstractStoreEventDispatc
     super(dispatcherConcurrency);
   }
 
+  public DefaultStoreEventDispatcher(int dispatcherConcurrency, OrderedEventQueueConfiguration queueConfiguration) {
+    super(dispatcherConcurrency, queueConfiguration);
+  }
+
   @Override
   public StoreEventSink<K, V> eventSink() {
     if (getListeners().isEmpty()) {
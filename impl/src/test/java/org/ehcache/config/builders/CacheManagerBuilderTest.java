@@ -16,6 +16,7 @@
 
 package org.ehcache.config.builders;
 
+import org.ehcache.AsyncCache;
 import org.ehcache.CacheManager;
 import org.ehcache.PersistentCacheManager;
 import org.ehcache.config.CacheConfiguration;
@@ -30,6 +31,7 @@ import org.junit.Test;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.ehcache.config.builders.CacheManagerBuilder.newCacheManagerBuilder;
 import static org.mockito.Mockito.mock;
 
@@ -108,4 +110,56 @@ public class CacheManagerBuilderTest {
 
     assertThat(build.getRuntimeConfiguration().getCacheConfigurations().get(cacheAlias).getKeyType()).isEqualTo(Long.class);
   }
+
+  @Test
+  public void testAsyncCacheRunsOnConfiguredThreadPool() throws Exception {
+    CacheConfiguration<Long, String> config = CacheConfigurationBuilder
+      .newCacheConfigurationBuilder(Long.class, String.class, ResourcePoolsBuilder.heap(10))
+      .build();
+
+    try (CacheManager cacheManager = newCacheManagerBuilder()
+      .using(PooledExecutionServiceConfigurationBuilder.newPooledExecutionServiceConfigurationBuilder()
+        .defaultPool("default", 0, 1).pool("async", 1, 2).build())
+      .withDefaultAsyncCacheThreadPool("async")
+      .withCache("cache", config).build(true)) {
+      AsyncCache<Long, String> cache = cacheManager.getAsyncCache("cache", Long.class, String.class);
+
+      cache.putAsync(1L, "one").toCompletableFuture().get();
+      assertThat(cache.getAsync(1L).toCompletableFuture().get()).isEqualTo("one");
+    }
+  }
+
+  @Test
+  public void testAsyncCacheWithoutConfiguredThreadPoolNeedsNoPool() throws Exception {
+    CacheConfiguration<Long, String> config = CacheConfigurationBuilder
+      .newCacheConfigurationBuilder(Long.class, String.class, ResourcePoolsBuilder.heap(10))
+      .build();
+
+    try (CacheManager cacheManager = newCacheManagerBuilder()
+      .using(PooledExecutionServiceConfigurationBuilder.newPooledExecutionServiceConfigurationBuilder()
+        .pool("events", 0, 1).build())
+      .withDefaultEventListenersThreadPool("events")
+      .withCache("cache", config).build(true)) {
+      AsyncCache<Long, String> cache = cacheManager.getAsyncCache("cache", Long.class, String.class);
+
+      cache.putAsync(1L, "one").toCompletableFuture().get();
+      assertThat(cache.getAsync(1L).toCompletableFuture().get()).isEqualTo("one");
+    }
+  }
+
+  @Test
+  public void testAsyncCacheWithMissingThreadPoolFails() {
+    CacheConfiguration<Long, String> config = CacheConfigurationBuilder
+      .newCacheConfigurationBuilder(Long.class, String.class, ResourcePoolsBuilder.heap(10))
+      .build();
+
+    try (CacheManager cacheManager = newCacheManagerBuilder()
+      .using(PooledExecutionServiceConfigurationBuilder.newPooledExecutionServiceConfigurationBuilder()
+        .defaultPool("default", 0, 1).build())
+      .withDefaultAsyncCacheThreadPool("async")
+      .withCache("cache", config).build(true)) {
+      assertThatThrownBy(() -> cacheManager.getAsyncCache("cache", Long.class, String.class))
+        .isInstanceOf(IllegalStateException.class);
+    }
+  }
 }
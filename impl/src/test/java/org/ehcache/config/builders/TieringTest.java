@@ -20,12 +20,19 @@ import org.ehcache.Cache;
 import org.ehcache.CacheManager;
 import org.ehcache.PersistentCacheManager;
 import org.ehcache.config.CacheConfiguration;
+import org.ehcache.core.internal.statistics.DefaultStatisticsService;
+import org.ehcache.core.spi.service.StatisticsService;
+import org.ehcache.core.statistics.TierStatistics;
+import org.ehcache.impl.config.store.CachingTierWritePolicyConfiguration.WritePolicy;
 import org.ehcache.impl.config.persistence.CacheManagerPersistenceConfiguration;
 import org.ehcache.config.units.EntryUnit;
 import org.ehcache.config.units.MemoryUnit;
 import org.junit.Test;
 
 import java.io.File;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
@@ -74,6 +81,64 @@ public class TieringTest {
     cacheManager.close();
   }
 
+  @Test
+  public void testTieredPutAllWithZeroAccessExpiry() throws Exception {
+    CacheConfiguration<Long, String> tieredCacheConfiguration = CacheConfigurationBuilder.newCacheConfigurationBuilder(Long.class, String.class,
+        ResourcePoolsBuilder.newResourcePoolsBuilder().heap(10, EntryUnit.ENTRIES).offheap(10, MemoryUnit.MB))
+        .withExpiry(ExpiryPolicyBuilder.expiry().access(Duration.ZERO).build())
+        .build();
+
+    StatisticsService statisticsService = new DefaultStatisticsService();
+    CacheManager cacheManager = CacheManagerBuilder.newCacheManagerBuilder().using(statisticsService)
+        .withCache("tieredCache", tieredCacheConfiguration).build(true);
+
+    Cache<Long, String> tieredCache = cacheManager.getCache("tieredCache", Long.class, String.class);
+
+    Map<Long, String> entries = new HashMap<>();
+    entries.put(1L, "one");
+    entries.put(2L, "two");
+    tieredCache.putAll(entries);
+
+    // installing the written mappings is not an access: they are not expired, nor counted as reads
+    Map<String, TierStatistics> tierStatistics = statisticsService.getCacheStatistics("tieredCache").getTierStatistics();
+    assertThat(tierStatistics.get("OnHeap").getMisses(), is(0L));
+    assertThat(tierStatistics.get("OffHeap").getHits(), is(0L));
+
+    assertThat(tieredCache.get(1L), equalTo("one"));
+    assertThat(tierStatistics.get("OnHeap").getHits(), is(1L));
+    assertThat(tierStatistics.get("OffHeap").getHits(), is(0L));
+
+    cacheManager.close();
+  }
+
+  @Test
+  public void testTieredWriteUpdateWithZeroAccessExpiry() throws Exception {
+    CacheConfiguration<Long, String> tieredCacheConfiguration = CacheConfigurationBuilder.newCacheConfigurationBuilder(Long.class, String.class,
+        ResourcePoolsBuilder.newResourcePoolsBuilder().heap(10, EntryUnit.ENTRIES).offheap(10, MemoryUnit.MB))
+        .withExpiry(ExpiryPolicyBuilder.expiry().access(Duration.ZERO).build())
+        .withCachingTierWritePolicy(WritePolicy.WRITE_UPDATE)
+        .build();
+
+    StatisticsService statisticsService = new DefaultStatisticsService();
+    CacheManager cacheManager = CacheManagerBuilder.newCacheManagerBuilder().using(statisticsService)
+        .withCache("tieredCache", tieredCacheConfiguration).build(true);
+
+    Cache<Long, String> tieredCache = cacheManager.getCache("tieredCache", Long.class, String.class);
+
+    tieredCache.put(1L, "one");
+
+    // installing the written mapping is not an access: it is not expired, nor counted as a read
+    Map<String, TierStatistics> tierStatistics = statisticsService.getCacheStatistics("tieredCache").getTierStatistics();
+    assertThat(tierStatistics.get("OnHeap").getMisses(), is(0L));
+    assertThat(tierStatistics.get("OffHeap").getHits(), is(0L));
+
+    assertThat(tieredCache.get(1L), equalTo("one"));
+    assertThat(tierStatistics.get("OnHeap").getHits(), is(1L));
+    assertThat(tierStatistics.get("OffHeap").getHits(), is(0L));
+
+    cacheManager.close();
+  }
+
   @Test
   public void testPersistentDiskCache() throws Exception {
     CacheConfiguration<Long, String> cacheConfiguration = CacheConfigurationBuilder.newCacheConfigurationBuilder(Long.class, String.class,
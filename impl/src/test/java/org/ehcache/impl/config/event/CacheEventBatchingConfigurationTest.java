@@ -0,0 +1,45 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ehcache.impl.config.event;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.IsSame.sameInstance;
+
+public class CacheEventBatchingConfigurationTest {
+
+  @Test
+  public void testDeriveDetachesProperly() {
+    CacheEventBatchingConfiguration configuration = new CacheEventBatchingConfiguration(42, 10, TimeUnit.MILLISECONDS);
+    CacheEventBatchingConfiguration derived = configuration.build(configuration.derive());
+
+    assertThat(derived, is(not(sameInstance(configuration))));
+    assertThat(derived.getBatchSize(), is(configuration.getBatchSize()));
+    assertThat(derived.getMaxDelay(), is(configuration.getMaxDelay()));
+    assertThat(derived.getMaxDelayUnit(), is(configuration.getMaxDelayUnit()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectsEmptyBatches() {
+    new CacheEventBatchingConfiguration(0, 10, TimeUnit.MILLISECONDS);
+  }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ehcache.impl.config.store;
+
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.IsSame.sameInstance;
+
+public class ExpiryReaperConfigurationTest {
+
+  @Test
+  public void testDeriveDetachesProperly() {
+    ExpiryReaperConfiguration configuration = new ExpiryReaperConfiguration(Duration.ofMillis(250), 42, 1000, "reaper");
+    ExpiryReaperConfiguration derived = configuration.build(configuration.derive());
+
+    assertThat(derived, is(not(sameInstance(configuration))));
+    assertThat(derived.getTickInterval(), is(configuration.getTickInterval()));
+    assertThat(derived.getMaxReapsPerTick(), is(configuration.getMaxReapsPerTick()));
+    assertThat(derived.getMaxScheduledKeys(), is(configuration.getMaxScheduledKeys()));
+    assertThat(derived.getThreadPoolAlias(), is(configuration.getThreadPoolAlias()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSubMillisecondTickIntervalIsRejected() {
+    new ExpiryReaperConfiguration(Duration.ofNanos(10), 1, null);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNonPositiveMaxScheduledKeysIsRejected() {
+    new ExpiryReaperConfiguration(Duration.ofMillis(10), 1, 0, null);
+  }
+}
@@ -16,6 +16,7 @@
 
 package org.ehcache.impl.events;
 
+import org.ehcache.event.BatchCacheEventListener;
 import org.ehcache.event.CacheEvent;
 import org.ehcache.event.CacheEventListener;
 import org.ehcache.event.EventFiring;
@@ -23,6 +24,7 @@ import org.ehcache.event.EventOrdering;
 import org.ehcache.event.EventType;
 import org.ehcache.core.spi.store.events.StoreEventListener;
 import org.ehcache.core.spi.store.events.StoreEventSource;
+import org.ehcache.impl.config.event.CacheEventBatchingConfiguration;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -31,14 +33,23 @@ import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EnumSet;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.hamcrest.MockitoHamcrest.argThat;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
@@ -183,10 +194,70 @@ public class CacheEventDispatcherImplTest {
     inOrder.verifyNoMoreInteractions();
   }
 
+  @Test
+  public void testBatchListenerReceivesOrderedBatches() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    eventService = new CacheEventDispatcherImpl<>(executor, orderedExecutor, scheduler,
+      new CacheEventBatchingConfiguration(10, 50, TimeUnit.MILLISECONDS));
+    eventService.setStoreEventSource(storeEventDispatcher);
+    List<List<CacheEvent<?, ?>>> batches = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch delivered = new CountDownLatch(25);
+    BatchCacheEventListener<Number, String> batchListener = events -> {
+      batches.add(new ArrayList<>(events));
+      events.forEach(e -> delivered.countDown());
+    };
+    eventService.registerCacheEventListener(batchListener, EventOrdering.ORDERED, EventFiring.ASYNCHRONOUS, EnumSet.of(EventType.CREATED));
+
+    Object key = new Object();
+    List<CacheEvent<Number, String>> events = new ArrayList<>();
+    for (int i = 0; i < 25; i++) {
+      CacheEvent<Number, String> event = eventOfType(EventType.CREATED, key);
+      events.add(event);
+      eventService.onEvent(event);
+    }
+
+    try {
+      assertTrue(delivered.await(2, TimeUnit.SECONDS));
+      assertThat(batches.get(0).size(), is(10));
+      List<CacheEvent<?, ?>> received = new ArrayList<>();
+      for (List<CacheEvent<?, ?>> batch : batches) {
+        assertTrue(batch.size() <= 10);
+        received.addAll(batch);
+      }
+      assertThat(received, is(new ArrayList<CacheEvent<?, ?>>(events)));
+    } finally {
+      executor.shutdownNow();
+      scheduler.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testBatchListenerOnlyReceivesRegisteredEventTypes() {
+    BatchCacheEventListener<Number, String> batchListener = mock(BatchCacheEventListener.class);
+    doAnswer(invocation -> {
+      ((Runnable) invocation.getArguments()[0]).run();
+      return null;
+    }).when(unorderedExecutor).execute(any(Runnable.class));
+    eventService.registerCacheEventListener(batchListener, EventOrdering.UNORDERED, EventFiring.ASYNCHRONOUS, EnumSet.of(EventType.CREATED));
+
+    CacheEvent<Number, String> create = eventOfType(EventType.CREATED);
+    eventService.onEvent(create);
+    eventService.onEvent(eventOfType(EventType.REMOVED));
+
+    verify(batchListener).onEvents((List) argThat(contains(create)));
+    verify(batchListener, never()).onEvent(any(CacheEvent.class));
+    verify(unorderedExecutor, never()).submit(any(Runnable.class));
+  }
+
   private static <K, V> CacheEvent<K, V> eventOfType(EventType type) {
+    return eventOfType(type, new Object());
+  }
+
+  private static <K, V> CacheEvent<K, V> eventOfType(EventType type, Object key) {
     CacheEvent<K, V> event = mock(CacheEvent.class, type.name());
     when(event.getType()).thenReturn(type);
-    when(event.getKey()).thenReturn((K)new Object());
+    when(event.getKey()).thenReturn((K) key);
     return event;
   }
 }
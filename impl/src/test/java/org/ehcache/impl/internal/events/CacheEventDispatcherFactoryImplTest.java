@@ -16,6 +16,7 @@
 
 package org.ehcache.impl.internal.events;
 
+import org.ehcache.impl.config.event.CacheEventBatchingConfiguration;
 import org.ehcache.impl.config.event.DefaultCacheEventDispatcherConfiguration;
 import org.ehcache.core.events.CacheEventDispatcher;
 import org.ehcache.impl.events.CacheEventDispatcherImpl;
@@ -27,6 +28,8 @@ import org.junit.Test;
 
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.instanceOf;
@@ -34,6 +37,7 @@ import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -95,4 +99,24 @@ public class CacheEventDispatcherFactoryImplTest {
     CacheEventDispatcher<Object, Object> dispatcher = cacheEventDispatcherFactory.createCacheEventDispatcher(store, new DefaultCacheEventDispatcherConfiguration("myAlias"));
     assertThat(dispatcher, instanceOf(CacheEventDispatcherImpl.class));
   }
+
+  @Test
+  public void testBatchSchedulerOnlyRequestedForDelayedBatches() {
+    @SuppressWarnings("unchecked")
+    ServiceProvider<Service> serviceProvider = mock(ServiceProvider.class);
+    ExecutionService executionService = mock(ExecutionService.class);
+    when(serviceProvider.getService(ExecutionService.class)).thenReturn(executionService);
+    when(executionService.getScheduledExecutor("myAlias")).thenReturn(mock(ScheduledExecutorService.class));
+    CacheEventDispatcherFactoryImpl factory = new CacheEventDispatcherFactoryImpl();
+    factory.start(serviceProvider);
+    @SuppressWarnings("unchecked")
+    Store<Object, Object> store = mock(Store.class);
+
+    factory.createCacheEventDispatcher(store, new DefaultCacheEventDispatcherConfiguration("myAlias"));
+    verify(executionService, never()).getScheduledExecutor(any());
+
+    factory.createCacheEventDispatcher(store, new DefaultCacheEventDispatcherConfiguration("myAlias"),
+      new CacheEventBatchingConfiguration(100, 10, TimeUnit.MILLISECONDS));
+    verify(executionService).getScheduledExecutor("myAlias");
+  }
 }
@@ -19,6 +19,7 @@ package org.ehcache.impl.internal.events;
 import org.ehcache.core.spi.store.events.StoreEvent;
 import org.ehcache.event.EventType;
 import org.ehcache.core.spi.store.events.StoreEventListener;
+import org.ehcache.impl.config.event.OrderedEventQueueConfiguration.Backpressure;
 import org.hamcrest.Matcher;
 import org.junit.Before;
 import org.junit.Test;
@@ -26,8 +27,6 @@ import org.mockito.InOrder;
 
 import java.util.HashSet;
 import java.util.Set;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
 
 import static org.ehcache.impl.internal.store.offheap.AbstractOffHeapStoreTest.eventType;
 import static org.ehcache.test.MockitoUtil.mock;
@@ -52,8 +51,8 @@ public class FudgingInvocationScopedEventSinkTest {
     listener = mock(StoreEventListener.class);
     storeEventListeners.add(listener);
     @SuppressWarnings({"unchecked", "rawtypes"})
-    BlockingQueue<FireableStoreEventHolder<String, String>>[] blockingQueues = new BlockingQueue[] { new ArrayBlockingQueue<FireableStoreEventHolder<String, String>>(10) };
-    eventSink = new FudgingInvocationScopedEventSink<>(new HashSet<>(), false, blockingQueues, storeEventListeners);
+    OrderedEventRingBuffer<String, String>[] orderedQueues = new OrderedEventRingBuffer[] { new OrderedEventRingBuffer<String, String>(10) };
+    eventSink = new FudgingInvocationScopedEventSink<>(new HashSet<>(), false, orderedQueues, Backpressure.BLOCK, storeEventListeners);
   }
 
   @Test
@@ -20,7 +20,10 @@ import org.ehcache.core.spi.store.events.StoreEvent;
 import org.ehcache.core.spi.store.events.StoreEventFilter;
 import org.ehcache.core.spi.store.events.StoreEventListener;
 import org.ehcache.event.EventType;
+import org.ehcache.impl.config.event.OrderedEventQueueConfiguration.Backpressure;
+import org.hamcrest.Description;
 import org.hamcrest.Matcher;
+import org.hamcrest.TypeSafeMatcher;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -31,14 +34,16 @@ import org.mockito.junit.MockitoRule;
 
 import java.util.Collections;
 import java.util.Set;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.ehcache.impl.internal.store.offheap.AbstractOffHeapStoreTest.eventType;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.hamcrest.MockitoHamcrest.argThat;
 
@@ -54,19 +59,23 @@ public class InvocationScopedEventSinkTest {
   private StoreEventListener<String, String> listener;
 
   private InvocationScopedEventSink<String, String> eventSink;
-  private BlockingQueue<FireableStoreEventHolder<String, String>> blockingQueue;
+  private OrderedEventRingBuffer<String, String> orderedQueue;
   private Set<StoreEventListener<String, String>> storeEventListeners;
 
   @Before
   public void setUp() {
     storeEventListeners = Collections.singleton(listener);
-    blockingQueue = new ArrayBlockingQueue<>(10);
+    orderedQueue = new OrderedEventRingBuffer<>(16);
   }
 
   private InvocationScopedEventSink<String, String> createEventSink(boolean ordered) {
+    return createEventSink(ordered, Backpressure.BLOCK);
+  }
+
+  private InvocationScopedEventSink<String, String> createEventSink(boolean ordered, Backpressure backpressure) {
     @SuppressWarnings("unchecked")
-    BlockingQueue<FireableStoreEventHolder<String, String>>[] queues = (BlockingQueue<FireableStoreEventHolder<String, String>>[]) new BlockingQueue<?>[] { blockingQueue };
-    return new InvocationScopedEventSink<>(Collections.emptySet(), ordered, queues, storeEventListeners);
+    OrderedEventRingBuffer<String, String>[] queues = (OrderedEventRingBuffer<String, String>[]) new OrderedEventRingBuffer<?, ?>[] { orderedQueue };
+    return new InvocationScopedEventSink<>(Collections.emptySet(), ordered, queues, backpressure, storeEventListeners);
   }
 
   @Test
@@ -102,7 +111,7 @@ public class InvocationScopedEventSinkTest {
     eventSink = createEventSink(true);
 
     // Add enough elements to fill the queue
-    IntStream.range(0, 10).forEachOrdered(i -> eventSink.created("k" + i, "v" + i));
+    IntStream.range(0, 16).forEachOrdered(i -> eventSink.created("k" + i, "v" + i));
 
     AtomicBoolean wasInterrupted = new AtomicBoolean(false);
 
@@ -113,23 +122,79 @@ public class InvocationScopedEventSinkTest {
     });
 
     t.start();
-    while(blockingQueue.remainingCapacity() != 0) {
-      System.out.println(blockingQueue.remainingCapacity());
+    while(orderedQueue.size() != orderedQueue.capacity()) {
+      System.out.println(orderedQueue.size());
     }
 
     t.interrupt();
     t.join();
 
     assertThat(wasInterrupted).isTrue();
-    assertThat(blockingQueue).hasSize(10);
-    IntStream.range(0, 10).forEachOrdered(i -> {
-        try {
-          assertThat(blockingQueue.take().getEvent().getKey()).isEqualTo("k" + i);
-        } catch (InterruptedException e) {
-          throw new RuntimeException(e);
-        }
+    assertThat(orderedQueue.size()).isEqualTo(16);
+    IntStream.range(0, 16).forEachOrdered(i -> {
+      assertThat(orderedQueue.peek().getEvent().getKey()).isEqualTo("k" + i);
+      orderedQueue.poll();
     });
-    assertThat(eventSink.getEvents()).hasSize(10);
-    assertThat(eventSink.getEvents().getLast().getEvent().getKey()).isEqualTo("k9");
+    assertThat(eventSink.getEvents()).hasSize(16);
+    assertThat(eventSink.getEvents().getLast().getEvent().getKey()).isEqualTo("k15");
+  }
+
+  @Test
+  public void testOrderedReset() {
+    eventSink = createEventSink(true);
+
+    eventSink.created("k1", "v1");
+    eventSink.reset();
+    eventSink.updated("k1", () -> "v1", "v2");
+    eventSink.close();
+
+    Matcher<StoreEvent<String, String>> updatedMatcher = eventType(EventType.UPDATED);
+    verify(listener).onEvent(argThat(updatedMatcher));
+    verifyNoMoreInteractions(listener);
+    assertThat(orderedQueue.size()).isZero();
+  }
+
+  @Test
+  public void testDropOldestWhenFull() {
+    eventSink = createEventSink(true, Backpressure.DROP_OLDEST);
+
+    IntStream.range(0, 17).forEachOrdered(i -> eventSink.created("k" + i, "v" + i));
+    eventSink.close();
+
+    assertThat(orderedQueue.size()).isZero();
+    InOrder inOrder = inOrder(listener);
+    IntStream.range(1, 17).forEachOrdered(i -> inOrder.verify(listener).onEvent(argThat(eventKey("k" + i))));
+    verifyNoMoreInteractions(listener);
+  }
+
+  @Test
+  public void testFailFastWhenFull() {
+    eventSink = createEventSink(true, Backpressure.FAIL_FAST);
+
+    IntStream.range(0, 16).forEachOrdered(i -> eventSink.created("k" + i, "v" + i));
+    try {
+      eventSink.created("k", "v");
+      fail("Expected IllegalStateException");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+
+    assertThat(eventSink.getEvents()).hasSize(16);
+    eventSink.close();
+    verify(listener, times(16)).onEvent(any());
+  }
+
+  private static Matcher<StoreEvent<String, String>> eventKey(String key) {
+    return new TypeSafeMatcher<StoreEvent<String, String>>() {
+      @Override
+      protected boolean matchesSafely(StoreEvent<String, String> item) {
+        return item.getKey().equals(key);
+      }
+
+      @Override
+      public void describeTo(Description description) {
+        description.appendText("event for key ").appendValue(key);
+      }
+    };
   }
 }
@@ -0,0 +1,109 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ehcache.impl.internal.events;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.ehcache.impl.internal.events.StoreEvents.createEvent;
+
+/**
+ * OrderedEventRingBufferTest
+ */
+public class OrderedEventRingBufferTest {
+
+  @Test
+  public void testCapacityIsRoundedToPowerOfTwo() {
+    assertThat(new OrderedEventRingBuffer<String, String>(1).capacity()).isEqualTo(1);
+    assertThat(new OrderedEventRingBuffer<String, String>(10).capacity()).isEqualTo(16);
+    assertThat(new OrderedEventRingBuffer<String, String>(16).capacity()).isEqualTo(16);
+  }
+
+  @Test
+  public void testOfferPeekPollWrapsAround() {
+    OrderedEventRingBuffer<String, String> ring = new OrderedEventRingBuffer<>(4);
+    assertThat(ring.peek()).isNull();
+
+    for (int round = 0; round < 3; round++) {
+      List<FireableStoreEventHolder<String, String>> events = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        FireableStoreEventHolder<String, String> event = new FireableStoreEventHolder<>(createEvent("k" + i, "v" + i));
+        events.add(event);
+        assertThat(ring.offer(event)).isTrue();
+      }
+      assertThat(ring.offer(new FireableStoreEventHolder<>(createEvent("k", "v")))).isFalse();
+      assertThat(ring.size()).isEqualTo(4);
+
+      for (FireableStoreEventHolder<String, String> event : events) {
+        assertThat(ring.peek()).isSameAs(event);
+        ring.poll();
+      }
+      assertThat(ring.peek()).isNull();
+      assertThat(ring.size()).isZero();
+    }
+  }
+
+  @Test
+  public void testConcurrentProducersKeepTheirOwnOrder() throws Exception {
+    OrderedEventRingBuffer<String, Integer> ring = new OrderedEventRingBuffer<>(64);
+    int producers = 4;
+    int perProducer = 10000;
+    CountDownLatch start = new CountDownLatch(1);
+    List<Thread> threads = new ArrayList<>();
+    for (int p = 0; p < producers; p++) {
+      String key = "p" + p;
+      Thread thread = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          throw new AssertionError(e);
+        }
+        for (int i = 0; i < perProducer; i++) {
+          FireableStoreEventHolder<String, Integer> event = new FireableStoreEventHolder<>(createEvent(key, i));
+          while (!ring.offer(event)) {
+            Thread.yield();
+          }
+        }
+      });
+      thread.start();
+      threads.add(thread);
+    }
+
+    start.countDown();
+    int[] next = new int[producers];
+    int consumed = 0;
+    while (consumed < producers * perProducer) {
+      FireableStoreEventHolder<String, Integer> head = ring.peek();
+      if (head == null) {
+        Thread.yield();
+      } else {
+        int producer = Integer.parseInt(head.getEvent().getKey().substring(1));
+        assertThat(head.getEvent().getNewValue()).isEqualTo(next[producer]++);
+        ring.poll();
+        consumed++;
+      }
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertThat(ring.size()).isZero();
+  }
+}
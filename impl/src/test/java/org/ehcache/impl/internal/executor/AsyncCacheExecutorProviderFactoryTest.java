@@ -0,0 +1,137 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ehcache.impl.internal.executor;
+
+import org.ehcache.core.spi.service.AsyncCacheExecutorProvider;
+import org.ehcache.core.spi.service.ExecutionService;
+import org.ehcache.impl.config.executor.AsyncCacheExecutorProviderConfiguration;
+import org.ehcache.impl.config.executor.PooledExecutionServiceConfiguration;
+import org.ehcache.spi.service.Service;
+import org.ehcache.spi.service.ServiceProvider;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AsyncCacheExecutorProviderFactoryTest {
+
+  @Test
+  public void testFactoryIsNotMandatory() {
+    assertThat(new AsyncCacheExecutorProviderFactory().isMandatory()).isFalse();
+  }
+
+  @Test
+  public void testConfiguredPoolRunsTasksConcurrently() throws Exception {
+    PooledExecutionServiceConfiguration configuration = new PooledExecutionServiceConfiguration();
+    configuration.addPool("async", 2, 2);
+    PooledExecutionService executionService = new PooledExecutionService(configuration);
+    executionService.start(null);
+    try {
+      AsyncCacheExecutorProvider provider = startProvider(new AsyncCacheExecutorProviderConfiguration("async"), executionService);
+      try {
+        Executor executor = provider.getExecutor();
+        CountDownLatch running = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < 2; i++) {
+          executor.execute(() -> {
+            running.countDown();
+            try {
+              release.await();
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+          });
+        }
+        try {
+          assertThat(running.await(10, SECONDS)).isTrue();
+        } finally {
+          release.countDown();
+        }
+      } finally {
+        provider.stop();
+      }
+    } finally {
+      executionService.stop();
+    }
+  }
+
+  @Test
+  public void testConfiguredPoolIsUsed() throws Exception {
+    PooledExecutionServiceConfiguration configuration = new PooledExecutionServiceConfiguration();
+    configuration.addPool("async", 2, 2);
+    PooledExecutionService executionService = new PooledExecutionService(configuration);
+    executionService.start(null);
+    try {
+      AsyncCacheExecutorProvider provider = startProvider(new AsyncCacheExecutorProviderConfiguration("async"), executionService);
+      try {
+        CountDownLatch ran = new CountDownLatch(1);
+        provider.getExecutor().execute(ran::countDown);
+        assertThat(ran.await(10, SECONDS)).isTrue();
+      } finally {
+        provider.stop();
+      }
+    } finally {
+      executionService.stop();
+    }
+  }
+
+  @Test
+  public void testMissingDefaultPoolFailsWithConfigurationError() throws Exception {
+    PooledExecutionServiceConfiguration configuration = new PooledExecutionServiceConfiguration();
+    configuration.addPool("other", 0, 1);
+    PooledExecutionService executionService = new PooledExecutionService(configuration);
+    executionService.start(null);
+    try {
+      AsyncCacheExecutorProvider provider = startProvider(null, executionService);
+      assertThatThrownBy(provider::getExecutor).isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("No thread pool available for asynchronous cache operations");
+    } finally {
+      executionService.stop();
+    }
+  }
+
+  @Test
+  public void testMissingConfiguredPoolFailsWithConfigurationError() throws Exception {
+    PooledExecutionServiceConfiguration configuration = new PooledExecutionServiceConfiguration();
+    configuration.addDefaultPool("default", 0, 1);
+    PooledExecutionService executionService = new PooledExecutionService(configuration);
+    executionService.start(null);
+    try {
+      AsyncCacheExecutorProvider provider = startProvider(new AsyncCacheExecutorProviderConfiguration("async"), executionService);
+      assertThatThrownBy(provider::getExecutor).isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("'async'");
+    } finally {
+      executionService.stop();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static AsyncCacheExecutorProvider startProvider(AsyncCacheExecutorProviderConfiguration configuration, ExecutionService executionService) {
+    AsyncCacheExecutorProvider provider = new AsyncCacheExecutorProviderFactory().create(configuration);
+    ServiceProvider<Service> serviceProvider = mock(ServiceProvider.class);
+    when(serviceProvider.getService(ExecutionService.class)).thenReturn(executionService);
+    provider.start(serviceProvider);
+    return provider;
+  }
+}
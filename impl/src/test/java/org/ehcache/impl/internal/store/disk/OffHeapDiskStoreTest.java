@@ -34,7 +34,9 @@ import org.ehcache.CachePersistenceException;
 import org.ehcache.expiry.ExpiryPolicy;
 import org.ehcache.impl.config.store.disk.OffHeapDiskStoreConfiguration;
 import org.ehcache.impl.internal.store.offheap.portability.AssertingOffHeapValueHolderPortability;
+import org.ehcache.impl.internal.store.offheap.portability.EncodingBuffers;
 import org.ehcache.impl.internal.store.offheap.portability.OffHeapValueHolderPortability;
+import org.ehcache.impl.internal.store.offheap.portability.OffHeapValueHolderPortability.HeaderFormat;
 import org.ehcache.impl.internal.events.TestStoreEventDispatcher;
 import org.ehcache.impl.internal.executor.OnDemandExecutionService;
 import org.ehcache.impl.internal.persistence.TestDiskResourceService;
@@ -64,6 +66,7 @@ import org.terracotta.statistics.OperationStatistic;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.nio.file.Files;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
@@ -90,6 +93,7 @@ import static org.ehcache.impl.config.store.disk.OffHeapDiskStoreConfiguration.D
 import static org.ehcache.impl.internal.spi.TestServiceProvider.providerContaining;
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.fail;
@@ -124,6 +128,134 @@ public class OffHeapDiskStoreTest extends AbstractOffHeapStoreTest {
     }
   }
 
+  @Test
+  public void testRecoveryFromCheckpointAfterUncleanShutdown() throws Exception {
+    OffHeapDiskStore<String, String> offHeapDiskStore = createAndInitStore(SystemTimeSource.INSTANCE, noExpiration());
+    try {
+      offHeapDiskStore.put("key1", "value1");
+      offHeapDiskStore.checkpoint();
+      offHeapDiskStore.put("key2", "value2");
+
+      OffHeapDiskStore.Provider.close(offHeapDiskStore);
+      assertThat(offHeapDiskStore.getIndexFile().delete(), is(true));
+
+      OffHeapDiskStore.Provider.init(offHeapDiskStore);
+      assertThat(offHeapDiskStore.get("key1").get(), is("value1"));
+      assertThat(offHeapDiskStore.get("key2"), nullValue());
+    } finally {
+      destroyStore(offHeapDiskStore);
+    }
+  }
+
+  @Test
+  public void testRemoveAfterCheckpointIsNotRecovered() throws Exception {
+    OffHeapDiskStore<String, String> offHeapDiskStore = createAndInitStore(SystemTimeSource.INSTANCE, noExpiration());
+    try {
+      offHeapDiskStore.put("key1", "value1");
+      offHeapDiskStore.checkpoint();
+      offHeapDiskStore.remove("key1");
+      // grow the tables, leaving the checkpointed ones behind in freed storage
+      for (int i = 0; i < 1000; i++) {
+        offHeapDiskStore.put("other" + i, "value");
+      }
+
+      OffHeapDiskStore.Provider.close(offHeapDiskStore);
+      assertThat(offHeapDiskStore.getIndexFile().delete(), is(true));
+
+      OffHeapDiskStore.Provider.init(offHeapDiskStore);
+      assertThat(offHeapDiskStore.get("key1"), nullValue());
+    } finally {
+      destroyStore(offHeapDiskStore);
+    }
+  }
+
+  @Test
+  public void testUpdateAfterCheckpointDoesNotRecoverStaleValue() throws Exception {
+    OffHeapDiskStore<String, String> offHeapDiskStore = createAndInitStore(SystemTimeSource.INSTANCE, noExpiration());
+    try {
+      offHeapDiskStore.put("key1", "value1");
+      offHeapDiskStore.checkpoint();
+      offHeapDiskStore.put("key1", "updated");
+      for (int i = 0; i < 1000; i++) {
+        offHeapDiskStore.put("other" + i, "value");
+      }
+
+      OffHeapDiskStore.Provider.close(offHeapDiskStore);
+      assertThat(offHeapDiskStore.getIndexFile().delete(), is(true));
+
+      OffHeapDiskStore.Provider.init(offHeapDiskStore);
+      assertThat(offHeapDiskStore.get("key1"), nullValue());
+    } finally {
+      destroyStore(offHeapDiskStore);
+    }
+  }
+
+  @Test
+  public void testMutationsBeforeCheckpointAreRecovered() throws Exception {
+    OffHeapDiskStore<String, String> offHeapDiskStore = createAndInitStore(SystemTimeSource.INSTANCE, noExpiration());
+    try {
+      offHeapDiskStore.put("key1", "value1");
+      offHeapDiskStore.checkpoint();
+      offHeapDiskStore.put("key1", "updated");
+      offHeapDiskStore.remove("key2");
+      offHeapDiskStore.checkpoint();
+
+      OffHeapDiskStore.Provider.close(offHeapDiskStore);
+      assertThat(offHeapDiskStore.getIndexFile().delete(), is(true));
+
+      OffHeapDiskStore.Provider.init(offHeapDiskStore);
+      assertThat(offHeapDiskStore.get("key1").get(), is("updated"));
+      assertThat(offHeapDiskStore.get("key2"), nullValue());
+    } finally {
+      destroyStore(offHeapDiskStore);
+    }
+  }
+
+  @Test
+  public void testLazyRecoveryServesEntriesOfEverySegment() throws Exception {
+    System.setProperty("org.ehcache.offheap.config.diskLazyRecovery", "true");
+    OffHeapDiskStore<String, String> offHeapDiskStore = createAndInitStore(SystemTimeSource.INSTANCE, noExpiration());
+    try {
+      for (int i = 0; i < 100; i++) {
+        offHeapDiskStore.put("key" + i, "value" + i);
+      }
+
+      OffHeapDiskStore.Provider.close(offHeapDiskStore);
+      OffHeapDiskStore.Provider.init(offHeapDiskStore);
+      for (int i = 0; i < 100; i++) {
+        assertThat(offHeapDiskStore.get("key" + i).get(), is("value" + i));
+      }
+      offHeapDiskStore.put("key100", "value100");
+
+      OffHeapDiskStore.Provider.close(offHeapDiskStore);
+      OffHeapDiskStore.Provider.init(offHeapDiskStore);
+      assertThat(offHeapDiskStore.get("key0").get(), is("value0"));
+      assertThat(offHeapDiskStore.get("key100").get(), is("value100"));
+    } finally {
+      System.clearProperty("org.ehcache.offheap.config.diskLazyRecovery");
+      destroyStore(offHeapDiskStore);
+    }
+  }
+
+  @Test
+  public void testCorruptCheckpointRecoversEmptyStore() throws Exception {
+    OffHeapDiskStore<String, String> offHeapDiskStore = createAndInitStore(SystemTimeSource.INSTANCE, noExpiration());
+    try {
+      offHeapDiskStore.put("key1", "value1");
+
+      OffHeapDiskStore.Provider.close(offHeapDiskStore);
+      assertThat(offHeapDiskStore.getIndexFile().delete(), is(true));
+      Files.write(offHeapDiskStore.getCheckpointFile().toPath(), new byte[] { 1, 2, 3 });
+
+      OffHeapDiskStore.Provider.init(offHeapDiskStore);
+      assertThat(offHeapDiskStore.get("key1"), nullValue());
+      offHeapDiskStore.put("key2", "value2");
+      assertThat(offHeapDiskStore.get("key2").get(), is("value2"));
+    } finally {
+      destroyStore(offHeapDiskStore);
+    }
+  }
+
   @Test
   public void testRecoveryFailureWhenValueTypeChangesToIncompatibleClass() throws Exception {
     OffHeapDiskStore.Provider provider = new OffHeapDiskStore.Provider();
@@ -265,8 +397,8 @@ public class OffHeapDiskStoreTest extends AbstractOffHeapStoreTest {
         new TestStoreEventDispatcher<>(),
         MB.toBytes(1), new DefaultStatisticsService()) {
         @Override
-        protected OffHeapValueHolderPortability<String> createValuePortability(Serializer<String> serializer) {
-          return new AssertingOffHeapValueHolderPortability<>(serializer);
+        protected OffHeapValueHolderPortability<String> createValuePortability(Serializer<String> serializer, HeaderFormat format, EncodingBuffers encodingBuffers) {
+          return new AssertingOffHeapValueHolderPortability<>(serializer, format, encodingBuffers);
         }
       };
       OffHeapDiskStore.Provider.init(offHeapStore);
@@ -293,8 +425,8 @@ public class OffHeapDiskStoreTest extends AbstractOffHeapStoreTest {
         new TestStoreEventDispatcher<>(),
         MB.toBytes(1), new DefaultStatisticsService()) {
         @Override
-        protected OffHeapValueHolderPortability<byte[]> createValuePortability(Serializer<byte[]> serializer) {
-          return new AssertingOffHeapValueHolderPortability<>(serializer);
+        protected OffHeapValueHolderPortability<byte[]> createValuePortability(Serializer<byte[]> serializer, HeaderFormat format, EncodingBuffers encodingBuffers) {
+          return new AssertingOffHeapValueHolderPortability<>(serializer, format, encodingBuffers);
         }
       };
       OffHeapDiskStore.Provider.init(offHeapStore);
@@ -0,0 +1,86 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ehcache.impl.internal.store.disk.factories;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.nullValue;
+
+public class CheckpointJournalTest {
+
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testMutationsOfBothGenerationsAreReported() throws Exception {
+    File directory = folder.newFolder();
+    try (CheckpointJournal journal = new CheckpointJournal(directory, 16)) {
+      journal.prepare(1L);
+      journal.record(1L, 42);
+      journal.prepare(2L);
+      journal.record(2L, 43);
+      journal.record(1L, 44);
+    }
+    try (CheckpointJournal journal = new CheckpointJournal(directory, 16)) {
+      assertThat(journal.mutatedSince(1L), containsInAnyOrder(42, 43, 44));
+      assertThat(journal.mutatedSince(2L), containsInAnyOrder(43));
+    }
+  }
+
+  @Test
+  public void testPreparingANewGenerationResetsTheOldestOne() throws Exception {
+    File directory = folder.newFolder();
+    try (CheckpointJournal journal = new CheckpointJournal(directory, 16)) {
+      journal.prepare(1L);
+      journal.record(1L, 42);
+      journal.prepare(2L);
+      journal.prepare(3L);
+      assertThat(journal.mutatedSince(2L), empty());
+      assertThat(journal.mutatedSince(1L), nullValue());
+    }
+  }
+
+  @Test
+  public void testOverflowDisablesRecovery() throws Exception {
+    File directory = folder.newFolder();
+    try (CheckpointJournal journal = new CheckpointJournal(directory, 2)) {
+      journal.prepare(1L);
+      journal.record(1L, 1);
+      journal.record(1L, 2);
+      journal.record(1L, 3);
+      assertThat(journal.mutatedSince(1L), nullValue());
+    }
+  }
+
+  @Test
+  public void testClearDisablesRecovery() throws Exception {
+    File directory = folder.newFolder();
+    try (CheckpointJournal journal = new CheckpointJournal(directory, 16)) {
+      journal.prepare(1L);
+      journal.recordClear(1L);
+      assertThat(journal.mutatedSince(1L), nullValue());
+    }
+  }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ehcache.impl.internal.store.expiry;
+
+import org.ehcache.core.spi.service.ExecutionService;
+import org.ehcache.impl.config.store.ExpiryReaperConfiguration;
+import org.ehcache.internal.TestTimeSource;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ExpiryReaperTest {
+
+  private final TestTimeSource timeSource = new TestTimeSource();
+  private final Map<String, Long> expirations = new HashMap<>();
+  private final List<String> offered = new ArrayList<>();
+
+  private long reap(String key, long now) {
+    offered.add(key);
+    Long expiration = expirations.get(key);
+    if (expiration == null || expiration > now) {
+      return ExpiryReaper.NOT_REAPED;
+    }
+    expirations.remove(key);
+    return key.length();
+  }
+
+  private ExpiryReaper<String> newReaper(int maxReapsPerTick) {
+    return new ExpiryReaper<>(new ExpiryReaperConfiguration(Duration.ofMillis(10), maxReapsPerTick, null), timeSource, this::reap);
+  }
+
+  private ExpiryReaper<String> newCappedReaper(int maxScheduledKeys) {
+    return new ExpiryReaper<>(new ExpiryReaperConfiguration(Duration.ofMillis(10), 100, maxScheduledKeys, null), timeSource, this::reap);
+  }
+
+  private void put(ExpiryReaper<String> reaper, String key, long expiration) {
+    expirations.put(key, expiration);
+    reaper.schedule(key, expiration);
+  }
+
+  @Test
+  public void testExpiredKeysAreReapedOnceDue() {
+    ExpiryReaper<String> reaper = newReaper(100);
+    put(reaper, "a", 15);
+    put(reaper, "bb", 35);
+
+    timeSource.advanceTime(19);
+    reaper.tick();
+    assertThat(offered, is(empty()));
+
+    timeSource.advanceTime(1);
+    reaper.tick();
+    assertThat(offered, contains("a"));
+
+    timeSource.advanceTime(20);
+    reaper.tick();
+    assertThat(offered, contains("a", "bb"));
+    assertThat(expirations.isEmpty(), is(true));
+    assertThat(reaper.getReapedMappings(), is(2L));
+    assertThat(reaper.getReclaimedBytes(), is(3L));
+  }
+
+  @Test
+  public void testRepeatedSchedulesOfAKeyAreCoalesced() {
+    ExpiryReaper<String> reaper = newReaper(100);
+    put(reaper, "key", 25);
+    put(reaper, "key", 25);
+    put(reaper, "key", 28);
+
+    timeSource.advanceTime(30);
+    reaper.tick();
+    assertThat(offered, contains("key"));
+    assertThat(reaper.getReapedMappings(), is(1L));
+  }
+
+  @Test
+  public void testEarlierScheduleOfAKeyIsHonored() {
+    ExpiryReaper<String> reaper = newReaper(100);
+    put(reaper, "key", 50);
+    put(reaper, "key", 25);
+
+    timeSource.advanceTime(30);
+    reaper.tick();
+    assertThat(offered, contains("key"));
+    assertThat(reaper.getReapedMappings(), is(1L));
+  }
+
+  @Test
+  public void testReapsPerTickAreBounded() {
+    ExpiryReaper<String> reaper = newReaper(2);
+    put(reaper, "a", 5);
+    put(reaper, "b", 5);
+    put(reaper, "c", 5);
+
+    timeSource.advanceTime(10);
+    reaper.tick();
+    assertThat(offered, hasSize(2));
+
+    reaper.tick();
+    assertThat(offered, containsInAnyOrder("a", "b", "c"));
+    assertThat(reaper.getReapedMappings(), is(3L));
+  }
+
+  @Test
+  public void testUnscheduledKeysAreReleasedAndNotReaped() {
+    ExpiryReaper<String> reaper = newReaper(100);
+    put(reaper, "removed", 15);
+    put(reaper, "kept", 15);
+    reaper.tick();
+    assertThat(reaper.getScheduledKeys(), is(2));
+
+    reaper.unschedule("removed");
+    reaper.unschedule("unknown");
+    reaper.tick();
+    assertThat(reaper.getScheduledKeys(), is(1));
+
+    timeSource.advanceTime(20);
+    reaper.tick();
+    assertThat(offered, contains("kept"));
+    assertThat(reaper.getScheduledKeys(), is(0));
+  }
+
+  @Test
+  public void testUnscheduleAllReleasesAllKeys() {
+    ExpiryReaper<String> reaper = newReaper(100);
+    put(reaper, "a", 15);
+    put(reaper, "b", 25);
+    reaper.tick();
+
+    reaper.unscheduleAll();
+    reaper.tick();
+    assertThat(reaper.getScheduledKeys(), is(0));
+
+    timeSource.advanceTime(30);
+    reaper.tick();
+    assertThat(offered, is(empty()));
+  }
+
+  @Test
+  public void testScheduledKeysAreCapped() {
+    ExpiryReaper<String> reaper = newCappedReaper(2);
+    put(reaper, "a", 15);
+    put(reaper, "b", 15);
+    put(reaper, "c", 15);
+    reaper.tick();
+    put(reaper, "d", 15);
+    reaper.tick();
+    assertThat(reaper.getScheduledKeys(), is(2));
+
+    timeSource.advanceTime(20);
+    reaper.tick();
+    assertThat(offered, contains("a", "b"));
+  }
+
+  @Test
+  public void testCancelledEntriesDoNotHoldTheCap() {
+    ExpiryReaper<String> reaper = newCappedReaper(2);
+    put(reaper, "a", 1000);
+    put(reaper, "b", 1000);
+    reaper.tick();
+    reaper.unschedule("a");
+    reaper.unschedule("b");
+    reaper.tick();
+
+    put(reaper, "c", 15);
+    reaper.tick();
+    assertThat(reaper.getScheduledKeys(), is(1));
+
+    timeSource.advanceTime(20);
+    reaper.tick();
+    assertThat(offered, contains("c"));
+  }
+
+  @Test
+  public void testStartSchedulesOnTheConfiguredPoolAndStopShutsItDown() throws Exception {
+    ScheduledExecutorService executor = mock(ScheduledExecutorService.class);
+    ScheduledFuture<?> future = mock(ScheduledFuture.class);
+    doReturn(future).when(executor).scheduleWithFixedDelay(any(), anyLong(), anyLong(), any());
+    when(executor.awaitTermination(anyLong(), any())).thenReturn(true);
+    ExecutionService executionService = mock(ExecutionService.class);
+    when(executionService.getScheduledExecutor("reaper")).thenReturn(executor);
+
+    ExpiryReaper<String> reaper = new ExpiryReaper<>(new ExpiryReaperConfiguration(Duration.ofMillis(250), 1, "reaper"), timeSource, this::reap);
+    reaper.start(executionService);
+    verify(executor).scheduleWithFixedDelay(any(), eq(250L), eq(250L), eq(MILLISECONDS));
+
+    reaper.stop();
+    verify(future).cancel(false);
+    verify(executor).shutdownNow();
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ehcache.impl.internal.store.expiry;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class TimingWheelTest {
+
+  @Test
+  public void testPastDeadlinesAreImmediatelyDue() {
+    TimingWheel<String> wheel = new TimingWheel<>(10, 1000);
+
+    wheel.schedule("past", 500);
+    wheel.schedule("now", 1000);
+
+    assertThat(drain(wheel), contains("past", "now"));
+    assertThat(wheel.size(), is(0L));
+  }
+
+  @Test
+  public void testKeysBecomeDueOnceTheirTickHasPassed() {
+    TimingWheel<String> wheel = new TimingWheel<>(10, 0);
+
+    wheel.schedule("near", 35);
+    wheel.schedule("far", 10 * TimingWheel.WHEEL_SIZE * TimingWheel.WHEEL_SIZE + 5);
+
+    wheel.advance(39);
+    assertThat(drain(wheel), is(empty()));
+    wheel.advance(40);
+    assertThat(drain(wheel), contains("near"));
+
+    wheel.advance(10 * TimingWheel.WHEEL_SIZE * TimingWheel.WHEEL_SIZE + 9);
+    assertThat(drain(wheel), is(empty()));
+    wheel.advance(10 * TimingWheel.WHEEL_SIZE * TimingWheel.WHEEL_SIZE + 10);
+    assertThat(drain(wheel), contains("far"));
+    assertThat(wheel.size(), is(0L));
+  }
+
+  @Test
+  public void testDeadlinesBeyondTheTopLevelOverflow() {
+    long span = 1L << (TimingWheel.WHEEL_BITS * TimingWheel.LEVELS);
+    TimingWheel<String> wheel = new TimingWheel<>(1, 0);
+
+    wheel.schedule("overflow", 2 * span + 3);
+    wheel.schedule("marker", 1);
+
+    wheel.advance(2 * span + 2);
+    assertThat(drain(wheel), contains("marker"));
+    wheel.advance(2 * span + 3);
+    assertThat(drain(wheel), contains("overflow"));
+  }
+
+  @Test
+  public void testPurgeDropsCancelledEntriesOnly() {
+    TimingWheel<String> wheel = new TimingWheel<>(10, 0);
+    TimingWheel.Entry<String> cancelled = new TimingWheel.Entry<>("cancelled", 35);
+    TimingWheel.Entry<String> overflowing = new TimingWheel.Entry<>("overflowing", Long.MAX_VALUE);
+
+    wheel.schedule(cancelled);
+    wheel.schedule(overflowing);
+    wheel.schedule("live", 35);
+    cancelled.cancel();
+    overflowing.cancel();
+    assertThat(wheel.size(), is(3L));
+
+    wheel.purgeCancelled();
+    assertThat(wheel.size(), is(1L));
+    wheel.advance(40);
+    assertThat(drain(wheel), contains("live"));
+  }
+
+  @Test
+  public void testRandomDeadlinesAreNeitherEarlyNorLate() {
+    Random random = new Random(42);
+    long tick = 7;
+    long now = random.nextInt(1_000_000);
+    TimingWheel<Long> wheel = new TimingWheel<>(tick, now);
+
+    long horizon = now + 3 * tick * TimingWheel.WHEEL_SIZE * TimingWheel.WHEEL_SIZE;
+    int count = 10_000;
+    for (int i = 0; i < count; i++) {
+      long deadline = now + tick + (long) (random.nextDouble() * (horizon - now));
+      wheel.schedule(deadline, deadline);
+    }
+
+    int seen = 0;
+    while (now < horizon + tick) {
+      long previous = now;
+      now += 1 + random.nextInt((int) tick * 3);
+      wheel.advance(now);
+      for (TimingWheel.Entry<Long> entry; (entry = wheel.pollDue()) != null; ) {
+        // due once a tick starting at or after the expiration time has been reached, and not a tick later
+        assertThat(entry.expirationTime, lessThanOrEqualTo(now / tick * tick));
+        assertThat(entry.expirationTime, greaterThan(previous / tick * tick));
+        seen++;
+      }
+
+      // keys scheduled while the wheel turns must not be lost either
+      long deadline = now + tick + random.nextInt((int) tick * TimingWheel.WHEEL_SIZE);
+      wheel.schedule(deadline, deadline);
+      count++;
+    }
+    wheel.advance(now + tick * TimingWheel.WHEEL_SIZE * 2);
+    seen += drain(wheel).size();
+
+    assertThat(seen, is(count));
+    assertThat(wheel.size(), is(0L));
+  }
+
+  @Test
+  public void testNoKeyIsDueBeforeItsTick() {
+    TimingWheel<Long> wheel = new TimingWheel<>(1, 0);
+    for (long deadline = 1; deadline < 100_000; deadline += 37) {
+      wheel.schedule(deadline, deadline);
+    }
+    for (long now = 1; now < 100_000; now++) {
+      wheel.advance(now);
+      for (TimingWheel.Entry<Long> entry; (entry = wheel.pollDue()) != null; ) {
+        assertThat(entry.expirationTime, lessThanOrEqualTo(now));
+        assertThat(entry.expirationTime, greaterThan(now - 1));
+      }
+    }
+  }
+
+  private static <K> List<K> drain(TimingWheel<K> wheel) {
+    List<K> keys = new ArrayList<>();
+    for (TimingWheel.Entry<K> entry; (entry = wheel.pollDue()) != null; ) {
+      keys.add(entry.key);
+    }
+    return keys;
+  }
+}
@@ -21,6 +21,8 @@ import org.ehcache.config.EvictionAdvisor;
 import org.ehcache.config.builders.ExpiryPolicyBuilder;
 import org.ehcache.core.events.StoreEventDispatcher;
 import org.ehcache.core.events.StoreEventSink;
+import org.ehcache.core.spi.service.ExecutionService;
+import org.ehcache.impl.config.store.ExpiryReaperConfiguration;
 import org.ehcache.spi.resilience.StoreAccessException;
 import org.ehcache.expiry.ExpiryPolicy;
 import org.ehcache.impl.copy.IdentityCopier;
@@ -42,6 +44,7 @@ import org.junit.Test;
 import org.junit.rules.TestRule;
 import org.junit.rules.TestWatcher;
 import org.junit.runner.Description;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InOrder;
 
 import java.time.Duration;
@@ -51,6 +54,7 @@ import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Exchanger;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
@@ -65,6 +69,7 @@ import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.inOrder;
@@ -219,6 +224,55 @@ public abstract class BaseOnHeapStoreTest {
     StatisticsTestUtils.validateStats(store, EnumSet.of(StoreOperationOutcomes.GetOutcome.HIT));
   }
 
+  @Test
+  public void testExpiryReaperRemovesExpiredMappings() throws Exception {
+    TestTimeSource timeSource = new TestTimeSource();
+    StoreEventSink<String, String> eventSink = getStoreEventSink();
+    OnHeapStore<String, String> store = newStore(timeSource,
+      ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofMillis(10)));
+    Runnable reaper = startExpiryReaper(store);
+
+    store.put("key1", "value1");
+    timeSource.advanceTime(5);
+    store.put("key2", "value2");
+
+    timeSource.advanceTime(6);
+    reaper.run();
+    checkExpiryEvent(eventSink, "key1", "value1");
+    verify(eventSink, never()).expired(eq("key2"), anyValueSupplier());
+    StatisticsTestUtils.validateStats(store, EnumSet.of(StoreOperationOutcomes.ExpirationOutcome.SUCCESS));
+
+    // already reaped, not expired a second time
+    assertThat(store.get("key1"), nullValue());
+    assertThat(store.get("key2").get(), equalTo("value2"));
+    verify(eventSink, times(1)).expired(anyString(), anyValueSupplier());
+
+    timeSource.advanceTime(5);
+    reaper.run();
+    checkExpiryEvent(eventSink, "key2", "value2");
+  }
+
+  @Test
+  public void testExpiryReaperSparesMappingsKeptAliveByAccess() throws Exception {
+    TestTimeSource timeSource = new TestTimeSource();
+    StoreEventSink<String, String> eventSink = getStoreEventSink();
+    OnHeapStore<String, String> store = newStore(timeSource,
+      ExpiryPolicyBuilder.timeToIdleExpiration(Duration.ofMillis(10)));
+    Runnable reaper = startExpiryReaper(store);
+
+    store.put("key", "value");
+    timeSource.advanceTime(8);
+    assertThat(store.get("key").get(), equalTo("value"));
+
+    timeSource.advanceTime(3);
+    reaper.run();
+    verify(eventSink, never()).expired(anyString(), anyValueSupplier());
+
+    timeSource.advanceTime(8);
+    reaper.run();
+    checkExpiryEvent(eventSink, "key", "value");
+  }
+
   @Test
   public void testAccessTime() throws Exception {
     TestTimeSource timeSource = new TestTimeSource();
@@ -1305,6 +1359,20 @@ public abstract class BaseOnHeapStoreTest {
     assertThat(entry.getValue().get(), equalTo(value));
   }
 
+  private static Runnable startExpiryReaper(OnHeapStore<?, ?> store) throws Exception {
+    ScheduledExecutorService executor = mock(ScheduledExecutorService.class);
+    when(executor.awaitTermination(anyLong(), any())).thenReturn(true);
+    ExecutionService executionService = mock(ExecutionService.class);
+    when(executionService.getScheduledExecutor(null)).thenReturn(executor);
+
+    store.enableExpiryReaper(new ExpiryReaperConfiguration(Duration.ofMillis(1L), 100, null));
+    store.startExpiryReaper(executionService);
+
+    ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+    verify(executor).scheduleWithFixedDelay(task.capture(), eq(1L), eq(1L), eq(TimeUnit.MILLISECONDS));
+    return task.getValue();
+  }
+
   private static class TestTimeSource implements TimeSource {
 
     private long time = 0;
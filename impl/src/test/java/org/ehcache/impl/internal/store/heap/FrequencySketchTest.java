@@ -0,0 +1,68 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ehcache.impl.internal.store.heap;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.core.Is.is;
+
+public class FrequencySketchTest {
+
+  @Test
+  public void testIncrement() {
+    FrequencySketch sketch = new FrequencySketch(512);
+    assertThat(sketch.frequency("key"), is(0));
+    sketch.increment("key");
+    sketch.increment("key");
+    assertThat(sketch.frequency("key"), is(2));
+  }
+
+  @Test
+  public void testCountersSaturate() {
+    FrequencySketch sketch = new FrequencySketch(512);
+    for (int i = 0; i < 100; i++) {
+      sketch.increment("key");
+    }
+    assertThat(sketch.frequency("key"), is(15));
+  }
+
+  @Test
+  public void testCountersAreHalvedPeriodically() {
+    FrequencySketch sketch = new FrequencySketch(16);
+    for (int i = 0; i < 15; i++) {
+      sketch.increment("hot");
+    }
+    for (int i = 0; i < 10 * 16; i++) {
+      sketch.increment(i);
+    }
+    assertThat(sketch.frequency("hot"), lessThan(15));
+    assertThat(sketch.frequency("hot"), greaterThanOrEqualTo(3));
+  }
+
+  @Test
+  public void testEnsureCapacityResetsFrequencies() {
+    FrequencySketch sketch = new FrequencySketch(16);
+    sketch.increment("key");
+    sketch.ensureCapacity(16);
+    assertThat(sketch.frequency("key"), is(1));
+    sketch.ensureCapacity(1024);
+    assertThat(sketch.frequency("key"), is(0));
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ehcache.impl.internal.store.heap;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class LongKeyTableTest {
+
+  @Test
+  public void testInsertFindAndRemove() {
+    LongKeyTable table = new LongKeyTable();
+    LongKeyTable.Segment segment = table.segmentFor(42L);
+
+    assertThat(segment.find(42L), is(-1));
+
+    int slot = segment.insert(42L, "value");
+    assertThat(segment.find(42L), is(slot));
+    assertThat(segment.key(slot), is(42L));
+    assertThat(segment.value(slot), is((Object) "value"));
+    assertThat(table.size(), is(1L));
+
+    segment.set(slot, "other");
+    assertThat(segment.value(slot), is((Object) "other"));
+    assertThat(table.size(), is(1L));
+
+    segment.remove(slot);
+    assertThat(segment.find(42L), is(-1));
+    assertThat(table.size(), is(0L));
+  }
+
+  @Test
+  public void testRemoveShiftsCollidingKeysBack() {
+    LongKeyTable table = new LongKeyTable(1, 64);
+    LongKeyTable.Segment segment = table.segment(0);
+    for (long key = 0; key < 40; key++) {
+      segment.insert(key, key);
+    }
+    for (long key = 0; key < 40; key += 2) {
+      segment.remove(segment.find(key));
+    }
+    for (long key = 0; key < 40; key++) {
+      int slot = segment.find(key);
+      if (key % 2 == 0) {
+        assertThat(slot, is(-1));
+      } else {
+        assertThat(segment.value(slot), is((Object) key));
+      }
+    }
+    assertThat(segment.count(), is(20));
+  }
+
+  @Test
+  public void testSegmentGrowsAndClearShrinksIt() {
+    LongKeyTable table = new LongKeyTable(1, 4);
+    LongKeyTable.Segment segment = table.segment(0);
+    for (long key = 0; key < 1000; key++) {
+      segment.insert(key, key);
+    }
+    assertThat(segment.capacity(), greaterThan(1000));
+    for (long key = 0; key < 1000; key++) {
+      int slot = segment.find(key);
+      assertThat(segment.value(slot), is((Object) key));
+    }
+
+    segment.clear();
+    assertThat(segment.capacity(), is(4));
+    assertThat(segment.count(), is(0));
+    assertThat(table.size(), is(0L));
+    assertThat(segment.find(1L), is(-1));
+  }
+
+  @Test
+  public void testAgainstHashMap() {
+    LongKeyTable table = new LongKeyTable(4, 2);
+    Map<Long, Object> model = new HashMap<>();
+    Random random = new Random(0);
+
+    for (int i = 0; i < 100_000; i++) {
+      long key = random.nextInt(2_000) - 1_000L;
+      LongKeyTable.Segment segment = table.segmentFor(key);
+      int slot = segment.find(key);
+      Object expected = model.get(key);
+      assertThat(slot < 0 ? null : segment.value(slot), expected == null ? nullValue() : is(expected));
+
+      if (random.nextBoolean()) {
+        Object value = random.nextInt();
+        if (slot < 0) {
+          segment.insert(key, value);
+        } else {
+          segment.set(slot, value);
+        }
+        model.put(key, value);
+      } else if (slot >= 0) {
+        segment.remove(slot);
+        model.remove(key);
+      }
+    }
+    assertThat(table.size(), is((long) model.size()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSegmentCountMustBeAPowerOfTwo() {
+    new LongKeyTable(3, 16);
+  }
+}
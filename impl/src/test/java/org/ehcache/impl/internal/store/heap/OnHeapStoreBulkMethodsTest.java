@@ -25,18 +25,28 @@ import org.ehcache.core.events.NullStoreEventDispatcher;
 import org.ehcache.impl.internal.sizeof.NoopSizeOfEngine;
 import org.ehcache.core.spi.time.SystemTimeSource;
 import org.ehcache.core.spi.store.Store;
+import org.ehcache.spi.resilience.StoreAccessException;
 import org.hamcrest.Matchers;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.List;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.ehcache.config.builders.ResourcePoolsBuilder.newResourcePoolsBuilder;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.fail;
@@ -329,4 +339,132 @@ public class OnHeapStoreBulkMethodsTest {
     assertThat(store.get(5), is(nullValue()));
   }
 
+  @Test
+  public void testBulkComputeIfAbsentLoadsAllAbsentKeysInOneCall() throws Exception {
+    OnHeapStore<Number, CharSequence> store = newStore();
+    store.put(1, "one");
+
+    List<List<Number>> calls = new ArrayList<>();
+    Map<Number, Store.ValueHolder<CharSequence>> result = store.bulkComputeIfAbsent(new HashSet<Number>(Arrays.asList(1, 2, 3, 4)), numbers -> {
+      List<Number> call = new ArrayList<>();
+      Map<Number, CharSequence> result1 = new HashMap<>();
+      for (Number key : numbers) {
+        call.add(key);
+        result1.put(key, "value" + key);
+      }
+      calls.add(call);
+      return result1.entrySet();
+    });
+
+    assertThat(calls.size(), is(1));
+    assertThat(calls.get(0), containsInAnyOrder(2, 3, 4));
+    assertThat(result.get(1).get(), Matchers.equalTo("one"));
+    assertThat(result.get(2).get(), Matchers.equalTo("value2"));
+    assertThat(result.get(3).get(), Matchers.equalTo("value3"));
+    assertThat(result.get(4).get(), Matchers.equalTo("value4"));
+  }
+
+  @Test
+  public void testComputeIfAbsentWaitsForInFlightBulkLoad() throws Exception {
+    OnHeapStore<Number, CharSequence> store = newStore();
+
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<Map<Number, Store.ValueHolder<CharSequence>>> bulkLoad = executor.submit(() -> store.bulkComputeIfAbsent(new HashSet<Number>(Arrays.asList(1, 2)), numbers -> {
+        loading.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          throw new AssertionError(e);
+        }
+        Map<Number, CharSequence> result1 = new HashMap<>();
+        for (Number key : numbers) {
+          result1.put(key, "bulk" + key);
+        }
+        return result1.entrySet();
+      }));
+
+      assertThat(loading.await(10, TimeUnit.SECONDS), is(true));
+      new Thread(() -> {
+        try {
+          Thread.sleep(100);
+        } catch (InterruptedException e) {
+          // fall through
+        }
+        release.countDown();
+      }).start();
+
+      Store.ValueHolder<CharSequence> holder = store.computeIfAbsent(1, key -> {
+        fail("key is already being loaded");
+        return null;
+      });
+
+      assertThat(holder.get(), Matchers.equalTo("bulk1"));
+      assertThat(bulkLoad.get(10, TimeUnit.SECONDS).get(2).get(), Matchers.equalTo("bulk2"));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testBulkComputeIfAbsentLoadsKeysRemovedSinceTheAbsenceCheck() throws Exception {
+    OnHeapStore<Number, CharSequence> store = newStore();
+    store.put(1, "one");
+
+    List<List<Number>> calls = new ArrayList<>();
+    Map<Number, Store.ValueHolder<CharSequence>> result = store.bulkComputeIfAbsent(new HashSet<Number>(Arrays.asList(1, 2)), numbers -> {
+      List<Number> call = new ArrayList<>();
+      Map<Number, CharSequence> result1 = new HashMap<>();
+      for (Number key : numbers) {
+        call.add(key);
+        result1.put(key, "value" + key);
+      }
+      calls.add(call);
+      try {
+        // 1 was found present, but goes away before its turn to be installed
+        store.remove(1);
+      } catch (StoreAccessException e) {
+        throw new AssertionError(e);
+      }
+      return result1.entrySet();
+    });
+
+    assertThat(calls.size(), is(2));
+    assertThat(calls.get(0), containsInAnyOrder(2));
+    assertThat(calls.get(1), containsInAnyOrder(1));
+    assertThat(result.get(1).get(), Matchers.equalTo("value1"));
+    assertThat(result.get(2).get(), Matchers.equalTo("value2"));
+  }
+
+  @Test
+  public void testBulkComputeIfAbsentMappingFunctionCanReenterForItsOwnKeys() throws Exception {
+    OnHeapStore<Number, CharSequence> store = newStore();
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<Map<Number, Store.ValueHolder<CharSequence>>> bulkLoad = executor.submit(() -> store.bulkComputeIfAbsent(new HashSet<Number>(Arrays.asList(1, 2, 3)), numbers -> {
+        try {
+          store.computeIfAbsent(1, key -> "inline" + key);
+          store.bulkComputeIfAbsent(Collections.singleton(2), keys -> Collections.singletonMap(2, "nested2").entrySet());
+        } catch (StoreAccessException e) {
+          throw new AssertionError(e);
+        }
+        Map<Number, CharSequence> result1 = new HashMap<>();
+        for (Number key : numbers) {
+          result1.put(key, "bulk" + key);
+        }
+        return result1.entrySet();
+      }));
+
+      Map<Number, Store.ValueHolder<CharSequence>> result = bulkLoad.get(10, TimeUnit.SECONDS);
+      assertThat(result.get(1).get(), Matchers.equalTo("inline1"));
+      assertThat(result.get(2).get(), Matchers.equalTo("nested2"));
+      assertThat(result.get(3).get(), Matchers.equalTo("bulk3"));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
 }
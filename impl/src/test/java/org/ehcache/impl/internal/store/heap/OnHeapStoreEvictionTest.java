@@ -26,9 +26,11 @@ import org.ehcache.spi.resilience.StoreAccessException;
 import org.ehcache.event.EventType;
 import org.ehcache.expiry.ExpiryPolicy;
 import org.ehcache.impl.copy.IdentityCopier;
+import org.ehcache.impl.internal.concurrent.ConcurrentHashMap;
 import org.ehcache.core.events.NullStoreEventDispatcher;
 import org.ehcache.impl.internal.events.TestStoreEventDispatcher;
 import org.ehcache.impl.internal.sizeof.NoopSizeOfEngine;
+import org.ehcache.impl.internal.store.heap.holders.CostAwareValueHolder;
 import org.ehcache.impl.internal.store.heap.holders.OnHeapValueHolder;
 import org.ehcache.core.spi.time.SystemTimeSource;
 import org.ehcache.core.spi.time.TimeSource;
@@ -47,7 +49,10 @@ import static org.ehcache.config.Eviction.noAdvice;
 import static org.ehcache.config.builders.ResourcePoolsBuilder.heap;
 import static org.ehcache.config.builders.ResourcePoolsBuilder.newResourcePoolsBuilder;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
 
 public class OnHeapStoreEvictionTest {
 
@@ -123,6 +128,100 @@ public class OnHeapStoreEvictionTest {
     store.put("other", "otherValue");
   }
 
+  @Test
+  public void testWindowTinyLfuResistsScans() throws Exception {
+    assertThat(hotKeysSurvivingScan(WindowTinyLfuEvictionPolicy.FACTORY.create()), is(50));
+    assertThat(hotKeysSurvivingScan(SampledLruEvictionPolicy.FACTORY.create()), lessThan(50));
+  }
+
+  @Test
+  public void testCostAwareEvictionKeepsExpensiveMappings() throws Exception {
+    assertThat(expensiveKeysSurvivingChurn(true), is(5));
+    assertThat(expensiveKeysSurvivingChurn(false), lessThan(5));
+  }
+
+  @Test
+  public void testValueHoldersCarryCostsOnlyWhenCostAware() throws Exception {
+    OnHeapStore<String, String> costAwareStore = newCostAwareStore(new TestTimeSource(), true);
+    costAwareStore.put("key", "value");
+    assertThat(costAwareStore.get("key"), instanceOf(CostAwareValueHolder.class));
+
+    OnHeapStore<String, String> store = newCostAwareStore(new TestTimeSource(), false);
+    store.put("key", "value");
+    assertThat(store.get("key"), not(instanceOf(CostAwareValueHolder.class)));
+  }
+
+  private int expensiveKeysSurvivingChurn(boolean costAwareEviction) throws StoreAccessException {
+    TestTimeSource timeSource = new TestTimeSource();
+    OnHeapStore<String, String> store = newCostAwareStore(timeSource, costAwareEviction);
+
+    for (int i = 0; i < 5; i++) {
+      timeSource.advanceTime(1);
+      store.computeIfAbsent("expensive-" + i, k -> {
+        try {
+          Thread.sleep(5);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return "value";
+      });
+    }
+    for (int i = 0; i < 100; i++) {
+      timeSource.advanceTime(1);
+      store.computeIfAbsent("cheap-" + i, k -> "value");
+    }
+
+    int survivors = 0;
+    for (int i = 0; i < 5; i++) {
+      if (store.containsKey("expensive-" + i)) {
+        survivors++;
+      }
+    }
+    return survivors;
+  }
+
+  private OnHeapStore<String, String> newCostAwareStore(TestTimeSource timeSource, boolean costAwareEviction) {
+    StoreConfigurationImpl<String, String> configuration = new StoreConfigurationImpl<>(
+      String.class, String.class, noAdvice(),
+      getClass().getClassLoader(), ExpiryPolicyBuilder.noExpiration(), heap(10).build(), 1, null, null);
+    return new OnHeapStore<>(configuration, timeSource,
+      new IdentityCopier<>(), new IdentityCopier<>(), new NoopSizeOfEngine(), NullStoreEventDispatcher.nullStoreEventDispatcher(),
+      ConcurrentHashMap::new, new DefaultStatisticsService(), SampledLruEvictionPolicy.FACTORY.create(), costAwareEviction);
+  }
+
+  private int hotKeysSurvivingScan(HeapEvictionPolicy evictionPolicy) throws StoreAccessException {
+    TestTimeSource timeSource = new TestTimeSource();
+    StoreConfigurationImpl<String, String> configuration = new StoreConfigurationImpl<>(
+      String.class, String.class, noAdvice(),
+      getClass().getClassLoader(), ExpiryPolicyBuilder.noExpiration(), heap(100).build(), 1, null, null);
+    OnHeapStore<String, String> store = new OnHeapStore<>(configuration, timeSource,
+      new IdentityCopier<>(), new IdentityCopier<>(), new NoopSizeOfEngine(), NullStoreEventDispatcher.nullStoreEventDispatcher(),
+      ConcurrentHashMap::new, new DefaultStatisticsService(), evictionPolicy);
+
+    for (int i = 0; i < 50; i++) {
+      timeSource.advanceTime(1);
+      store.put("hot-" + i, "value");
+    }
+    for (int access = 0; access < 5; access++) {
+      for (int i = 0; i < 50; i++) {
+        timeSource.advanceTime(1);
+        store.get("hot-" + i);
+      }
+    }
+    for (int i = 0; i < 1000; i++) {
+      timeSource.advanceTime(1);
+      store.put("scan-" + i, "value");
+    }
+
+    int survivors = 0;
+    for (int i = 0; i < 50; i++) {
+      if (store.containsKey("hot-" + i)) {
+        survivors++;
+      }
+    }
+    return survivors;
+  }
+
   protected <K, V> OnHeapStoreForTests<K, V> newStore(final TimeSource timeSource,
       final EvictionAdvisor<? super K, ? super V> evictionAdvisor) {
     return new OnHeapStoreForTests<>(new Store.Configuration<K, V>() {
@@ -17,13 +17,23 @@
 package org.ehcache.impl.internal.store.heap;
 
 import org.ehcache.config.ResourcePool;
+import org.ehcache.config.ResourcePools;
 import org.ehcache.config.ResourceType;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.units.EntryUnit;
+import org.ehcache.config.units.MemoryUnit;
 import org.ehcache.core.internal.statistics.DefaultStatisticsService;
 import org.ehcache.core.spi.ServiceLocator;
+import org.ehcache.core.spi.service.CacheManagerProviderService;
 import org.ehcache.core.spi.store.Store;
+import org.ehcache.core.spi.store.tiering.CachingTier;
+import org.ehcache.core.store.StoreConfigurationImpl;
+import org.ehcache.impl.config.store.heap.HeapEvictionPolicyConfiguration;
+import org.ehcache.impl.config.store.heap.PrimitiveKeyHeapStoreConfiguration;
 import org.ehcache.impl.internal.util.UnmatchedResourceType;
 import org.ehcache.spi.service.ServiceConfiguration;
 import org.junit.Test;
+import org.mockito.Answers;
 
 import java.util.Arrays;
 import java.util.Collection;
@@ -31,9 +41,14 @@ import java.util.Collections;
 import java.util.HashSet;
 
 import static java.util.Collections.EMPTY_LIST;
+import static org.ehcache.config.builders.ResourcePoolsBuilder.newResourcePoolsBuilder;
+import static org.ehcache.core.spi.ServiceLocator.dependencySet;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
 
 /**
  * Basic tests for {@link org.ehcache.impl.internal.store.heap.OnHeapStore.Provider}.
@@ -84,6 +99,98 @@ public class OnHeapStoreProviderTest {
     assertThat(provider.rankCachingTier(Collections.<ResourceType<?>>singleton(new UnmatchedResourceType()), EMPTY_LIST), is(0));
   }
 
+  @Test
+  public void testCreatesOnHeapStoreForLongKeysByDefault() throws Exception {
+    OnHeapStore.Provider provider = startedProvider();
+
+    Store<Long, String> store = provider.createStore(storeConfig(Long.class, newResourcePoolsBuilder().heap(10, EntryUnit.ENTRIES).build()));
+    assertThat(store, instanceOf(OnHeapStore.class));
+    provider.releaseStore(store);
+  }
+
+  @Test
+  public void testCreatesPrimitiveKeyStoreForLongKeys() throws Exception {
+    OnHeapStore.Provider provider = startedProvider();
+
+    Store<Long, String> store = provider.createStore(storeConfig(Long.class, newResourcePoolsBuilder().heap(10, EntryUnit.ENTRIES).build()),
+      new PrimitiveKeyHeapStoreConfiguration());
+    assertThat(store, instanceOf(PrimitiveKeyOnHeapStore.class));
+    provider.initStore(store);
+
+    store.put(1L, "one");
+    assertThat(store.get(1L).get(), is("one"));
+    provider.releaseStore(store);
+  }
+
+  @Test
+  public void testCreatesPrimitiveKeyCachingTierForIntegerKeys() throws Exception {
+    OnHeapStore.Provider provider = startedProvider();
+
+    CachingTier<Integer, String> cachingTier = provider.createCachingTier(storeConfig(Integer.class, newResourcePoolsBuilder().heap(10, EntryUnit.ENTRIES).build()),
+      new PrimitiveKeyHeapStoreConfiguration());
+    assertThat(cachingTier, instanceOf(PrimitiveKeyOnHeapStore.class));
+    provider.initCachingTier(cachingTier);
+    provider.releaseCachingTier(cachingTier);
+  }
+
+  @Test
+  public void testRejectsPrimitiveKeyStoreForOtherKeys() throws Exception {
+    OnHeapStore.Provider provider = startedProvider();
+
+    try {
+      provider.createStore(storeConfig(String.class, newResourcePoolsBuilder().heap(10, EntryUnit.ENTRIES).build()),
+        new PrimitiveKeyHeapStoreConfiguration());
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testRejectsPrimitiveKeyStoreForByteSizedHeap() throws Exception {
+    OnHeapStore.Provider provider = startedProvider();
+
+    try {
+      provider.createStore(storeConfig(Long.class, newResourcePoolsBuilder().heap(1, MemoryUnit.MB).build()),
+        new PrimitiveKeyHeapStoreConfiguration());
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testRejectsPrimitiveKeyStoreForOtherEvictionPolicies() throws Exception {
+    OnHeapStore.Provider provider = startedProvider();
+    ResourcePools resourcePools = newResourcePoolsBuilder().heap(10, EntryUnit.ENTRIES).build();
+
+    try {
+      provider.createStore(storeConfig(Long.class, resourcePools), new PrimitiveKeyHeapStoreConfiguration(),
+        HeapEvictionPolicyConfiguration.windowTinyLfu());
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+
+    Store<Long, String> store = provider.createStore(storeConfig(Long.class, resourcePools), new PrimitiveKeyHeapStoreConfiguration(),
+      HeapEvictionPolicyConfiguration.sampledLru());
+    assertThat(store, instanceOf(PrimitiveKeyOnHeapStore.class));
+    provider.releaseStore(store);
+  }
+
+  private OnHeapStore.Provider startedProvider() throws Exception {
+    OnHeapStore.Provider provider = new OnHeapStore.Provider();
+    ServiceLocator serviceLocator = dependencySet().with(provider).with(new DefaultStatisticsService())
+      .with(mock(CacheManagerProviderService.class, Answers.RETURNS_DEEP_STUBS)).build();
+    serviceLocator.startAllServices();
+    return provider;
+  }
+
+  private <K> Store.Configuration<K, String> storeConfig(Class<K> keyType, ResourcePools resourcePools) {
+    return new StoreConfigurationImpl<>(keyType, String.class, null, getClass().getClassLoader(),
+      ExpiryPolicyBuilder.noExpiration(), resourcePools, 1, null, null);
+  }
+
   private void assertRank(final Store.Provider provider, final int expectedRank, final ResourceType<?>... resources) {
     assertThat(provider.rank(
       new HashSet<>(Arrays.asList(resources)),
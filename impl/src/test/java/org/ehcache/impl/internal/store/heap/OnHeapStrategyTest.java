@@ -74,37 +74,37 @@ public class OnHeapStrategyTest {
 
   @Test
   public void isExpired_10seconds() {
-    strategy = OnHeapStrategy.strategy(store, policy, timeSource);
+    strategy = OnHeapStrategy.strategy(store, policy);
 
     TestOnHeapValueHolder mapping = new TestOnHeapValueHolder(10);
-    assertThat(strategy.isExpired(mapping)).isFalse();
+    assertThat(strategy.isExpired(mapping, timeSource.getTimeMillis())).isFalse();
     timeSource.advanceTime(10);
-    assertThat(strategy.isExpired(mapping)).isTrue();
+    assertThat(strategy.isExpired(mapping, timeSource.getTimeMillis())).isTrue();
   }
 
   @Test
   public void isExpired_TTL10seconds() {
-    strategy = OnHeapStrategy.strategy(store, policy, timeSource);
+    strategy = OnHeapStrategy.strategy(store, policy);
 
     TestOnHeapValueHolder mapping = new TestOnHeapValueHolder(10);
-    assertThat(strategy.isExpired(mapping)).isFalse();
+    assertThat(strategy.isExpired(mapping, timeSource.getTimeMillis())).isFalse();
     timeSource.advanceTime(10);
-    assertThat(strategy.isExpired(mapping)).isTrue();
+    assertThat(strategy.isExpired(mapping, timeSource.getTimeMillis())).isTrue();
   }
 
   @Test
   public void isExpired_neverExpires() {
-    strategy = OnHeapStrategy.strategy(store, ExpiryPolicy.NO_EXPIRY, timeSource);
+    strategy = OnHeapStrategy.strategy(store, ExpiryPolicy.NO_EXPIRY);
 
     TestOnHeapValueHolder mapping = new TestOnHeapValueHolder(10);
-    assertThat(strategy.isExpired(mapping)).isFalse();
+    assertThat(strategy.isExpired(mapping, timeSource.getTimeMillis())).isFalse();
     timeSource.advanceTime(10);
-    assertThat(strategy.isExpired(mapping)).isFalse();
+    assertThat(strategy.isExpired(mapping, timeSource.getTimeMillis())).isFalse();
   }
 
   @Test
   public void setAccessTimeAndExpiryThenReturnMappingOutsideLock_nullExpiryForAccess() {
-    strategy = OnHeapStrategy.strategy(store, ExpiryPolicy.NO_EXPIRY, timeSource);
+    strategy = OnHeapStrategy.strategy(store, ExpiryPolicy.NO_EXPIRY);
 
     TestOnHeapValueHolder mapping = new TestOnHeapValueHolder(10);
     when(policy.getExpiryForAccess(1, mapping)).thenReturn(null);
@@ -119,7 +119,7 @@ public class OnHeapStrategyTest {
 
   @Test
   public void setAccessTimeAndExpiryThenReturnMappingOutsideLock_zeroExpiryOnAccess() {
-    strategy = OnHeapStrategy.strategy(store, policy, timeSource);
+    strategy = OnHeapStrategy.strategy(store, policy);
 
     TestOnHeapValueHolder mapping = new TestOnHeapValueHolder(10);
     when(policy.getExpiryForAccess(1, mapping)).thenReturn(Duration.ZERO);
@@ -131,7 +131,7 @@ public class OnHeapStrategyTest {
 
   @Test
   public void setAccessTimeAndExpiryThenReturnMappingOutsideLock_infiniteExpiryOnAccess() {
-    strategy = OnHeapStrategy.strategy(store, policy, timeSource);
+    strategy = OnHeapStrategy.strategy(store, policy);
 
     TestOnHeapValueHolder mapping = new TestOnHeapValueHolder(10);
     when(policy.getExpiryForAccess(1, mapping)).thenReturn(ExpiryPolicy.INFINITE);
@@ -146,7 +146,7 @@ public class OnHeapStrategyTest {
 
   @Test
   public void setAccessTimeAndExpiryThenReturnMappingOutsideLock_movingTime() {
-    strategy = OnHeapStrategy.strategy(store, policy, timeSource);
+    strategy = OnHeapStrategy.strategy(store, policy);
 
     TestOnHeapValueHolder mapping = new TestOnHeapValueHolder(10);
     when(policy.getExpiryForAccess(1, mapping)).thenReturn(Duration.ofMillis(20));
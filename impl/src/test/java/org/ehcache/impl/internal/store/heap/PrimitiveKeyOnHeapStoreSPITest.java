@@ -0,0 +1,143 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ehcache.impl.internal.store.heap;
+
+import org.ehcache.config.EvictionAdvisor;
+import org.ehcache.config.ResourcePools;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.units.EntryUnit;
+import org.ehcache.core.internal.statistics.DefaultStatisticsService;
+import org.ehcache.core.store.StoreConfigurationImpl;
+import org.ehcache.expiry.ExpiryPolicy;
+import org.ehcache.impl.copy.IdentityCopier;
+import org.ehcache.impl.internal.events.TestStoreEventDispatcher;
+import org.ehcache.impl.internal.store.heap.holders.CopiedOnHeapValueHolder;
+import org.ehcache.core.spi.time.SystemTimeSource;
+import org.ehcache.core.spi.time.TimeSource;
+import org.ehcache.internal.store.StoreFactory;
+import org.ehcache.internal.store.StoreSPITest;
+import org.ehcache.core.spi.ServiceLocator;
+import org.ehcache.core.spi.store.Store;
+import org.ehcache.spi.service.ServiceConfiguration;
+import org.junit.Before;
+import org.terracotta.statistics.StatisticsManager;
+
+import static org.ehcache.config.builders.ResourcePoolsBuilder.newResourcePoolsBuilder;
+import static org.ehcache.core.spi.ServiceLocator.dependencySet;
+
+/**
+ * Test the {@link PrimitiveKeyOnHeapStore} compliance to the {@link Store} contract.
+ */
+public class PrimitiveKeyOnHeapStoreSPITest extends StoreSPITest<Long, Long> {
+
+  private StoreFactory<Long, Long> storeFactory;
+
+  @Override
+  protected StoreFactory<Long, Long> getStoreFactory() {
+    return storeFactory;
+  }
+
+  @Before
+  public void setUp() {
+    storeFactory = new StoreFactory<Long, Long>() {
+
+      @Override
+      public Store<Long, Long> newStore() {
+        return newStore(null, null, ExpiryPolicyBuilder.noExpiration(), SystemTimeSource.INSTANCE);
+      }
+
+      @Override
+      public Store<Long, Long> newStoreWithCapacity(long capacity) {
+        return newStore(capacity, null, ExpiryPolicyBuilder.noExpiration(), SystemTimeSource.INSTANCE);
+      }
+
+      @Override
+      public Store<Long, Long> newStoreWithExpiry(ExpiryPolicy<? super Long, ? super Long> expiry, TimeSource timeSource) {
+        return newStore(null, null, expiry, timeSource);
+      }
+
+      @Override
+      public Store<Long, Long> newStoreWithEvictionAdvisor(EvictionAdvisor<Long, Long> evictionAdvisor) {
+        return newStore(null, evictionAdvisor, ExpiryPolicyBuilder.noExpiration(), SystemTimeSource.INSTANCE);
+      }
+
+      private Store<Long, Long> newStore(Long capacity, EvictionAdvisor<Long, Long> evictionAdvisor, ExpiryPolicy<? super Long, ? super Long> expiry, TimeSource timeSource) {
+        ResourcePools resourcePools = buildResourcePools(capacity);
+        Store.Configuration<Long, Long> config = new StoreConfigurationImpl<>(getKeyType(), getValueType(),
+          evictionAdvisor, getClass().getClassLoader(), expiry, resourcePools, 0, null, null);
+        return new PrimitiveKeyOnHeapStore<>(config, timeSource, new TestStoreEventDispatcher<>(), new DefaultStatisticsService());
+      }
+
+      @Override
+      @SuppressWarnings("unchecked")
+      public Store.ValueHolder<Long> newValueHolder(final Long value) {
+        return new CopiedOnHeapValueHolder<>(value, SystemTimeSource.INSTANCE.getTimeMillis(), false, IdentityCopier.identityCopier());
+      }
+
+      private ResourcePools buildResourcePools(Comparable<Long> capacityConstraint) {
+        if (capacityConstraint == null) {
+          return newResourcePoolsBuilder().heap(Long.MAX_VALUE, EntryUnit.ENTRIES).build();
+        } else {
+          return newResourcePoolsBuilder().heap((Long)capacityConstraint, EntryUnit.ENTRIES).build();
+        }
+      }
+
+      @Override
+      public Class<Long> getKeyType() {
+        return Long.class;
+      }
+
+      @Override
+      public Class<Long> getValueType() {
+        return Long.class;
+      }
+
+      @Override
+      public ServiceConfiguration<?, ?>[] getServiceConfigurations() {
+        return new ServiceConfiguration<?, ?>[0];
+      }
+
+      @Override
+      public Long createKey(long seed) {
+        return seed;
+      }
+
+      @Override
+      public Long createValue(long seed) {
+        return seed;
+      }
+
+      @Override
+      public void close(final Store<Long, Long> store) {
+        ((PrimitiveKeyOnHeapStore<?, ?>) store).clear();
+        StatisticsManager.nodeFor(store).clean();
+      }
+
+      @Override
+      public ServiceLocator getServiceProvider() {
+        ServiceLocator locator = dependencySet().build();
+        try {
+          locator.startAllServices();
+        } catch (Exception e) {
+          throw new RuntimeException(e);
+        }
+        return locator;
+      }
+    };
+  }
+
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ehcache.impl.internal.store.heap;
+
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.units.EntryUnit;
+import org.ehcache.core.internal.statistics.DefaultStatisticsService;
+import org.ehcache.core.spi.store.Store;
+import org.ehcache.core.spi.store.Store.ValueHolder;
+import org.ehcache.core.store.StoreConfigurationImpl;
+import org.ehcache.expiry.ExpiryPolicy;
+import org.ehcache.impl.internal.events.TestStoreEventDispatcher;
+import org.ehcache.impl.internal.store.heap.holders.CopiedOnHeapValueHolder;
+import org.ehcache.impl.copy.IdentityCopier;
+import org.ehcache.internal.TestTimeSource;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.ehcache.config.builders.ResourcePoolsBuilder.newResourcePoolsBuilder;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * Tests the access expiry handling of {@link PrimitiveKeyOnHeapStore}.
+ */
+public class PrimitiveKeyOnHeapStoreTest {
+
+  @Test
+  public void testAccessExpirationMatchesOnHeapValueHolders() throws Exception {
+    assertAccessExpirationMatchesOnHeapValueHolders(ValueHolder.NO_EXPIRE, Duration.ofMillis(10));
+    assertAccessExpirationMatchesOnHeapValueHolders(100, Duration.ofMillis(10));
+    assertAccessExpirationMatchesOnHeapValueHolders(5, Duration.ofMillis(10));
+    assertAccessExpirationMatchesOnHeapValueHolders(ValueHolder.NO_EXPIRE, ExpiryPolicy.INFINITE);
+    assertAccessExpirationMatchesOnHeapValueHolders(100, ExpiryPolicy.INFINITE);
+  }
+
+  @Test
+  public void testGetOrComputeIfAbsentConsultsExpiryOnceWhenExpiringOnAccess() throws Exception {
+    TestTimeSource timeSource = new TestTimeSource();
+    AtomicInteger accessCount = new AtomicInteger();
+    PrimitiveKeyOnHeapStore<Long, String> store = newStore(timeSource, new ExpiryPolicy<Long, String>() {
+      @Override
+      public Duration getExpiryForCreation(Long key, String value) {
+        return ExpiryPolicy.INFINITE;
+      }
+
+      @Override
+      public Duration getExpiryForAccess(Long key, Supplier<? extends String> value) {
+        accessCount.incrementAndGet();
+        return Duration.ZERO;
+      }
+
+      @Override
+      public Duration getExpiryForUpdate(Long key, Supplier<? extends String> oldValue, String newValue) {
+        return null;
+      }
+    });
+
+    store.put(1L, "one");
+    assertThat(store.getOrComputeIfAbsent(1L, k -> null).get(), is("one"));
+    assertThat(accessCount.get(), is(1));
+    assertThat(store.get(1L), nullValue());
+  }
+
+  private void assertAccessExpirationMatchesOnHeapValueHolders(long expirationTime, Duration access) throws Exception {
+    TestTimeSource timeSource = new TestTimeSource(1);
+    PrimitiveKeyOnHeapStore<Long, String> store = newStore(timeSource, ExpiryPolicyBuilder.expiry().access(access).build());
+
+    CopiedOnHeapValueHolder<String> lowerTierMapping = new CopiedOnHeapValueHolder<>("one", 0, expirationTime, false,
+      IdentityCopier.identityCopier());
+    CopiedOnHeapValueHolder<String> onHeapMapping = new CopiedOnHeapValueHolder<>(lowerTierMapping, "one", false,
+      IdentityCopier.identityCopier(), timeSource.getTimeMillis(), access);
+
+    // faulted in from the lower tier
+    assertThat(store.getOrComputeIfAbsent(1L, k -> lowerTierMapping).expirationTime(), is(onHeapMapping.expirationTime()));
+
+    // accessed again, later
+    timeSource.advanceTime(2);
+    onHeapMapping.accessed(timeSource.getTimeMillis(), access);
+    assertThat(store.get(1L).expirationTime(), is(onHeapMapping.expirationTime()));
+  }
+
+  private PrimitiveKeyOnHeapStore<Long, String> newStore(TestTimeSource timeSource, ExpiryPolicy<? super Long, ? super String> expiry) {
+    Store.Configuration<Long, String> config = new StoreConfigurationImpl<>(Long.class, String.class, null,
+      getClass().getClassLoader(), expiry, newResourcePoolsBuilder().heap(10, EntryUnit.ENTRIES).build(), 0, null, null);
+    return new PrimitiveKeyOnHeapStore<>(config, timeSource, new TestStoreEventDispatcher<>(), new DefaultStatisticsService());
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ehcache.impl.internal.store.heap;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+
+public class WindowTinyLfuEvictionPolicyTest {
+
+  @Test
+  public void testNoCandidateWhileWindowIsNotFull() {
+    WindowTinyLfuEvictionPolicy policy = new WindowTinyLfuEvictionPolicy(0.1f);
+    for (int i = 0; i < 10; i++) {
+      policy.recordInsertion(i);
+    }
+    assertThat(policy.admissionCandidate(100), nullValue());
+  }
+
+  @Test
+  public void testCandidatesLeaveWindowInInsertionOrder() {
+    WindowTinyLfuEvictionPolicy policy = new WindowTinyLfuEvictionPolicy(0.1f);
+    for (int i = 0; i < 12; i++) {
+      policy.recordInsertion(i);
+    }
+    assertThat(policy.admissionCandidate(100), is(0));
+    assertThat(policy.admissionCandidate(100), is(1));
+    assertThat(policy.admissionCandidate(100), nullValue());
+  }
+
+  @Test
+  public void testWindowIsBoundedBeforeFirstEviction() {
+    WindowTinyLfuEvictionPolicy policy = new WindowTinyLfuEvictionPolicy(0.1f);
+    for (int i = 0; i < 1000; i++) {
+      policy.recordInsertion(i);
+    }
+    assertThat(policy.windowSize(), is(32));
+  }
+
+  @Test
+  public void testAdmitsMoreFrequentCandidate() {
+    WindowTinyLfuEvictionPolicy policy = new WindowTinyLfuEvictionPolicy(0.1f);
+    policy.recordInsertion("frequent");
+    policy.recordAccess("frequent");
+    policy.recordInsertion("rare");
+
+    assertThat(policy.admit("frequent", "rare"), is(true));
+    assertThat(policy.admit("rare", "frequent"), is(false));
+    assertThat(policy.admit("rare", "rare"), is(false));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidWindowPercentage() {
+    WindowTinyLfuEvictionPolicy.factory(1.5f);
+  }
+}
@@ -200,6 +200,58 @@ public abstract class AbstractEhcacheOffHeapBackingMapTest {
     }
   }
 
+  @Test
+  public void testReadOrComputeIfPresentNotCalledOnNotContainedKey() throws Exception {
+    EhcacheOffHeapBackingMap<String, String> segment = createTestSegment();
+    try {
+      String value = segment.readOrComputeIfPresent("key", (s, s2) -> {
+        fail("Predicate should not be invoked");
+        return true;
+      }, (s, s2) -> {
+        fail("Function should not be invoked");
+        return null;
+      });
+      assertThat(value, nullValue());
+    } finally {
+      destroySegment(segment);
+    }
+  }
+
+  @Test
+  public void testReadOrComputeIfPresentAcceptedMappingReturned() throws Exception {
+    EhcacheOffHeapBackingMap<String, String> segment = createTestSegment();
+    try {
+      segment.put("key", "value");
+      String value = segment.readOrComputeIfPresent("key", (s, s2) -> {
+        assertThat(s2, is("value"));
+        return true;
+      }, (s, s2) -> {
+        fail("Function should not be invoked");
+        return null;
+      });
+      assertThat(value, is("value"));
+      assertThat(segment.get("key"), is("value"));
+    } finally {
+      destroySegment(segment);
+    }
+  }
+
+  @Test
+  public void testReadOrComputeIfPresentRejectedMappingRecomputed() throws Exception {
+    EhcacheOffHeapBackingMap<String, String> segment = createTestSegment();
+    try {
+      segment.put("key", "value");
+      String value = segment.readOrComputeIfPresent("key", (s, s2) -> false, (s, s2) -> {
+        assertThat(s2, is("value"));
+        return null;
+      });
+      assertThat(value, nullValue());
+      assertThat(segment.containsKey("key"), is(false));
+    } finally {
+      destroySegment(segment);
+    }
+  }
+
   @Test
   public void testComputeIfPinnedNoOpUnpinned() throws Exception {
     EhcacheOffHeapBackingMap<String, String> segment = createTestSegment();
@@ -21,6 +21,8 @@ import org.ehcache.config.EvictionAdvisor;
 import org.ehcache.config.builders.ExpiryPolicyBuilder;
 import org.ehcache.config.units.MemoryUnit;
 import org.ehcache.event.EventType;
+import org.ehcache.core.spi.service.ExecutionService;
+import org.ehcache.impl.config.store.ExpiryReaperConfiguration;
 import org.ehcache.spi.resilience.StoreAccessException;
 import org.ehcache.core.spi.time.TimeSource;
 import org.ehcache.core.spi.store.AbstractValueHolder;
@@ -36,6 +38,7 @@ import org.hamcrest.Matchers;
 import org.hamcrest.TypeSafeMatcher;
 import org.junit.After;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.terracotta.context.TreeNode;
 import org.terracotta.context.query.QueryBuilder;
 import org.terracotta.statistics.OperationStatistic;
@@ -43,9 +46,14 @@ import org.terracotta.statistics.StatisticsManager;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
@@ -58,15 +66,20 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.lessThan;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.mockito.hamcrest.MockitoHamcrest.argThat;
 
 /**
@@ -267,6 +280,85 @@ public abstract class AbstractOffHeapStoreTest {
     assertThat(getExpirationStatistic(offHeapStore).count(StoreOperationOutcomes.ExpirationOutcome.SUCCESS), is(2L));
   }
 
+  @Test
+  public void testExpiryReaperRemovesExpiredMappings() throws Exception {
+    offHeapStore = createAndInitStore(timeSource, ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofMillis(10L)));
+
+    final List<String> expiredKeys = new ArrayList<>();
+    offHeapStore.getStoreEventSource().addEventListener(event -> {
+      if (event.getType() == EventType.EXPIRED) {
+        expiredKeys.add(event.getKey());
+      }
+    });
+    Runnable reaper = startExpiryReaper(offHeapStore);
+
+    offHeapStore.put("key1", "value1");
+    timeSource.advanceTime(5);
+    offHeapStore.put("key2", "value2");
+
+    timeSource.advanceTime(6);
+    reaper.run();
+    assertThat(expiredKeys, contains("key1"));
+    assertThat(offHeapStore.backingMap().containsKey("key1"), is(false));
+    assertThat(offHeapStore.backingMap().containsKey("key2"), is(true));
+
+    timeSource.advanceTime(5);
+    reaper.run();
+    assertThat(expiredKeys, contains("key1", "key2"));
+    assertThat(offHeapStore.backingMap().isEmpty(), is(true));
+    assertThat(getExpirationStatistic(offHeapStore).count(StoreOperationOutcomes.ExpirationOutcome.SUCCESS), is(2L));
+  }
+
+  @Test
+  public void testExpiryReaperSparesMappingsKeptAliveByAccess() throws Exception {
+    offHeapStore = createAndInitStore(timeSource, ExpiryPolicyBuilder.timeToIdleExpiration(Duration.ofMillis(10L)));
+    Runnable reaper = startExpiryReaper(offHeapStore);
+
+    offHeapStore.put("key", "value");
+    timeSource.advanceTime(8);
+    assertThat(offHeapStore.get("key"), valueHeld("value"));
+
+    timeSource.advanceTime(3);
+    reaper.run();
+    assertThat(offHeapStore.backingMap().containsKey("key"), is(true));
+
+    timeSource.advanceTime(8);
+    reaper.run();
+    assertThat(offHeapStore.backingMap().containsKey("key"), is(false));
+  }
+
+  @Test
+  public void testExpiryReaperSkipsMappingsPinnedByTheCachingTier() throws Exception {
+    ExpiryPolicy<Object, Object> expiry = ExpiryPolicyBuilder.timeToIdleExpiration(Duration.ofMillis(10L));
+    offHeapStore = createAndInitStore(timeSource, expiry);
+
+    final List<String> expiredKeys = new ArrayList<>();
+    offHeapStore.getStoreEventSource().addEventListener(event -> {
+      if (event.getType() == EventType.EXPIRED) {
+        expiredKeys.add(event.getKey());
+      }
+    });
+    Runnable reaper = startExpiryReaper(offHeapStore);
+
+    offHeapStore.put("key", "value");
+    Store.ValueHolder<String> faulted = offHeapStore.getAndFault("key");
+
+    // accessed in the caching tier, the authority only learns about it on flush
+    timeSource.advanceTime(8);
+    ((AbstractValueHolder) faulted).accessed(timeSource.getTimeMillis(), expiry.getExpiryForAccess("key", () -> "value"));
+
+    timeSource.advanceTime(3);
+    reaper.run();
+    assertThat(expiredKeys.isEmpty(), is(true));
+    assertThat(offHeapStore.backingMap().containsKey("key"), is(true));
+
+    assertThat(offHeapStore.flush("key", new DelegatingValueHolder<>(faulted)), is(true));
+    timeSource.advanceTime(8);
+    reaper.run();
+    assertThat(expiredKeys, contains("key"));
+    assertThat(offHeapStore.backingMap().containsKey("key"), is(false));
+  }
+
   @Test
   public void testGetWithExpiryOnAccess() throws Exception {
     offHeapStore = createAndInitStore(timeSource, expiry().access(Duration.ZERO).build());
@@ -425,6 +517,83 @@ public abstract class AbstractOffHeapStoreTest {
     assertThat(getExpirationStatistic(offHeapStore).count(StoreOperationOutcomes.ExpirationOutcome.SUCCESS), is(1L));
   }
 
+  @Test
+  public void testBulkComputeIfAbsentLoadsAllAbsentKeysInOneCall() throws StoreAccessException {
+    offHeapStore = createAndInitStore(timeSource, ExpiryPolicyBuilder.noExpiration());
+
+    offHeapStore.put("1", "one");
+
+    List<List<String>> calls = new ArrayList<>();
+    Map<String, Store.ValueHolder<String>> result = offHeapStore.bulkComputeIfAbsent(new HashSet<>(Arrays.asList("1", "2", "3")), keys -> {
+      List<String> call = new ArrayList<>();
+      Map<String, String> loaded = new HashMap<>();
+      for (String key : keys) {
+        call.add(key);
+        loaded.put(key, "value" + key);
+      }
+      calls.add(call);
+      return loaded.entrySet();
+    });
+
+    assertThat(calls.size(), is(1));
+    assertThat(calls.get(0), containsInAnyOrder("2", "3"));
+    assertThat(result.get("1").get(), is("one"));
+    assertThat(result.get("2").get(), is("value2"));
+    assertThat(offHeapStore.get("3").get(), is("value3"));
+  }
+
+  @Test
+  public void testBulkComputeIfAbsentLoadsKeysRemovedSinceTheAbsenceCheck() throws StoreAccessException {
+    offHeapStore = createAndInitStore(timeSource, ExpiryPolicyBuilder.noExpiration());
+
+    offHeapStore.put("1", "one");
+
+    List<List<String>> calls = new ArrayList<>();
+    Map<String, Store.ValueHolder<String>> result = offHeapStore.bulkComputeIfAbsent(new HashSet<>(Arrays.asList("1", "2")), keys -> {
+      List<String> call = new ArrayList<>();
+      Map<String, String> loaded = new HashMap<>();
+      for (String key : keys) {
+        call.add(key);
+        loaded.put(key, "value" + key);
+      }
+      calls.add(call);
+      try {
+        // "1" was found present, but goes away before its turn to be installed
+        offHeapStore.remove("1");
+      } catch (StoreAccessException e) {
+        throw new AssertionError(e);
+      }
+      return loaded.entrySet();
+    });
+
+    assertThat(calls.size(), is(2));
+    assertThat(calls.get(0), containsInAnyOrder("2"));
+    assertThat(calls.get(1), containsInAnyOrder("1"));
+    assertThat(result.get("1").get(), is("value1"));
+    assertThat(result.get("2").get(), is("value2"));
+  }
+
+  @Test(timeout = 10000)
+  public void testBulkComputeIfAbsentMappingFunctionCanReenterForItsOwnKeys() throws StoreAccessException {
+    offHeapStore = createAndInitStore(timeSource, ExpiryPolicyBuilder.noExpiration());
+
+    Map<String, Store.ValueHolder<String>> result = offHeapStore.bulkComputeIfAbsent(new HashSet<>(Arrays.asList("1", "2")), keys -> {
+      try {
+        offHeapStore.computeIfAbsent("1", key -> "inline" + key);
+      } catch (StoreAccessException e) {
+        throw new AssertionError(e);
+      }
+      Map<String, String> loaded = new HashMap<>();
+      for (String key : keys) {
+        loaded.put(key, "bulk" + key);
+      }
+      return loaded.entrySet();
+    });
+
+    assertThat(result.get("1").get(), is("inline1"));
+    assertThat(result.get("2").get(), is("bulk2"));
+  }
+
   @Test
   public void testIteratorDoesNotSkipOrExpiresEntries() throws Exception {
     offHeapStore = createAndInitStore(timeSource, ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofMillis(10L)));
@@ -553,6 +722,20 @@ public abstract class AbstractOffHeapStoreTest {
     return value;
   }
 
+  private static Runnable startExpiryReaper(AbstractOffHeapStore<?, ?> store) throws Exception {
+    ScheduledExecutorService executor = mock(ScheduledExecutorService.class);
+    when(executor.awaitTermination(anyLong(), any())).thenReturn(true);
+    ExecutionService executionService = mock(ExecutionService.class);
+    when(executionService.getScheduledExecutor(null)).thenReturn(executor);
+
+    store.enableExpiryReaper(new ExpiryReaperConfiguration(Duration.ofMillis(1L), 100, null));
+    store.startExpiryReaper(executionService);
+
+    ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+    verify(executor).scheduleWithFixedDelay(task.capture(), eq(1L), eq(1L), eq(TimeUnit.MILLISECONDS));
+    return task.getValue();
+  }
+
   private static class TestTimeSource implements TimeSource {
 
     private long time = 0;
@@ -62,8 +62,10 @@ public class AssertingOffHeapValueHolder<V> extends LazyOffHeapValueHolder<V> {
     className("org.terracotta.offheapstore.AbstractLockedOffHeapHashMap").methodName("shrink"),
     className("org.terracotta.offheapstore.AbstractLockedOffHeapHashMap").methodName("computeWithMetadata"),
     className("org.terracotta.offheapstore.AbstractLockedOffHeapHashMap").methodName("computeIfPresentWithMetadata"),
+    className("org.ehcache.impl.internal.store.offheap.EhcacheConcurrentOffHeapClockCache").methodName("readOrComputeIfPresent"),
     className("org.ehcache.impl.internal.store.offheap.factories.EhcacheSegmentFactory$EhcacheSegment$EntrySet").methodName("iterator"),
     className("org.ehcache.impl.internal.store.disk.factories.EhcachePersistentSegmentFactory$EhcachePersistentSegment$EntrySet").methodName("iterator"),
+    className("org.ehcache.impl.internal.store.disk.factories.EhcachePersistentSegmentFactory$EhcachePersistentSegment").methodName("salvage"),
     className("org.terracotta.offheapstore.AbstractLockedOffHeapHashMap$LockedEntryIterator").methodName("next")
   );
 
@@ -28,7 +28,9 @@ import org.ehcache.impl.internal.spi.serialization.DefaultSerializationProvider;
 import org.ehcache.core.spi.time.TimeSource;
 import org.ehcache.impl.internal.util.UnmatchedResourceType;
 import org.ehcache.impl.internal.store.offheap.portability.AssertingOffHeapValueHolderPortability;
+import org.ehcache.impl.internal.store.offheap.portability.EncodingBuffers;
 import org.ehcache.impl.internal.store.offheap.portability.OffHeapValueHolderPortability;
+import org.ehcache.impl.internal.store.offheap.portability.OffHeapValueHolderPortability.HeaderFormat;
 import org.ehcache.spi.serialization.SerializationProvider;
 import org.ehcache.spi.serialization.Serializer;
 import org.ehcache.spi.serialization.UnsupportedTypeException;
@@ -60,8 +62,8 @@ public class OffHeapStoreTest extends AbstractOffHeapStoreTest {
       OffHeapStore<String, String> offHeapStore = new OffHeapStore<String, String>(storeConfiguration, timeSource, new TestStoreEventDispatcher<>(), MemoryUnit.MB
         .toBytes(1), new DefaultStatisticsService()) {
         @Override
-        protected OffHeapValueHolderPortability<String> createValuePortability(Serializer<String> serializer) {
-          return new AssertingOffHeapValueHolderPortability<>(serializer);
+        protected OffHeapValueHolderPortability<String> createValuePortability(Serializer<String> serializer, HeaderFormat format, EncodingBuffers encodingBuffers) {
+          return new AssertingOffHeapValueHolderPortability<>(serializer, format, encodingBuffers);
         }
       };
       OffHeapStore.Provider.init(offHeapStore);
@@ -84,8 +86,8 @@ public class OffHeapStoreTest extends AbstractOffHeapStoreTest {
       OffHeapStore<String, byte[]> offHeapStore = new OffHeapStore<String, byte[]>(storeConfiguration, timeSource, new TestStoreEventDispatcher<>(), MemoryUnit.MB
         .toBytes(1), new DefaultStatisticsService()) {
         @Override
-        protected OffHeapValueHolderPortability<byte[]> createValuePortability(Serializer<byte[]> serializer) {
-          return new AssertingOffHeapValueHolderPortability<>(serializer);
+        protected OffHeapValueHolderPortability<byte[]> createValuePortability(Serializer<byte[]> serializer, HeaderFormat format, EncodingBuffers encodingBuffers) {
+          return new AssertingOffHeapValueHolderPortability<>(serializer, format, encodingBuffers);
         }
       };
       OffHeapStore.Provider.init(offHeapStore);
@@ -16,10 +16,13 @@
 
 package org.ehcache.impl.internal.store.offheap;
 
+import org.ehcache.impl.internal.store.offheap.portability.EncodingBuffers;
 import org.ehcache.impl.internal.store.offheap.portability.OffHeapValueHolderPortability;
+import org.ehcache.impl.internal.store.offheap.portability.OffHeapValueHolderPortability.HeaderFormat;
 import org.ehcache.impl.internal.spi.serialization.DefaultSerializationProvider;
 import org.ehcache.impl.serialization.StringSerializer;
 import org.ehcache.spi.serialization.SerializationProvider;
+import org.ehcache.spi.serialization.Serializer;
 import org.ehcache.spi.serialization.UnsupportedTypeException;
 import org.junit.Before;
 import org.junit.Test;
@@ -31,15 +34,20 @@ import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Collections;
 
 import static org.ehcache.impl.internal.spi.TestServiceProvider.providerContaining;
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 
 public class OffHeapValueHolderPortabilityTest {
 
+  private Serializer<String> serializer;
   private OffHeapValueHolderPortability<String> valueHolderPortability;
   private OffHeapValueHolder<String> originalValue;
 
@@ -47,8 +55,8 @@ public class OffHeapValueHolderPortabilityTest {
   public void setup() throws UnsupportedTypeException {
     SerializationProvider provider = new DefaultSerializationProvider(null);
     provider.start(providerContaining());
-    valueHolderPortability = new OffHeapValueHolderPortability<>(provider
-      .createValueSerializer(String.class, getClass().getClassLoader()));
+    serializer = provider.createValueSerializer(String.class, getClass().getClassLoader());
+    valueHolderPortability = new OffHeapValueHolderPortability<>(serializer);
 
     originalValue = new BasicOffHeapValueHolder<>(-1, "aValue", 1L, 2L, 3L);
 
@@ -120,4 +128,82 @@ public class OffHeapValueHolderPortabilityTest {
     verify(writeContext).setLong(OffHeapValueHolderPortability.EXPIRE_TIME_OFFSET, 4L);
   }
 
+  @Test
+  public void testCompactEncodeDecode() {
+    long epoch = System.currentTimeMillis();
+    OffHeapValueHolderPortability<String> compactPortability = new OffHeapValueHolderPortability<>(serializer, HeaderFormat.compact(epoch, false));
+    OffHeapValueHolder<String> value = new BasicOffHeapValueHolder<>(42L, "aValue", epoch + 1000L, epoch + 5000L, epoch + 2000L);
+    OffHeapValueHolder<String> beforeEpoch = new BasicOffHeapValueHolder<>(43L, "aValue", epoch - 1000L, epoch + 5000L, epoch);
+
+    assertThat(compactPortability.decode(compactPortability.encode(value)), equalTo(value));
+    assertThat(compactPortability.decode(compactPortability.encode(beforeEpoch)), equalTo(beforeEpoch));
+  }
+
+  @Test
+  public void testCompactHeaderIsSmaller() {
+    long epoch = System.currentTimeMillis();
+    OffHeapValueHolder<String> value = new BasicOffHeapValueHolder<>(42L, "aValue", epoch + 1000L, OffHeapValueHolder.NO_EXPIRE, epoch + 2000L);
+
+    int legacySize = valueHolderPortability.encode(value).remaining();
+    int compactSize = new OffHeapValueHolderPortability<>(serializer, HeaderFormat.compact(epoch, false)).encode(value).remaining();
+    int eternalSize = new OffHeapValueHolderPortability<>(serializer, HeaderFormat.compact(epoch, true)).encode(value).remaining();
+
+    assertThat(compactSize, lessThan(legacySize - 16));
+    assertThat(eternalSize, equalTo(compactSize - 8));
+  }
+
+  @Test
+  public void testCompactEternalDecodesNoExpiration() {
+    long epoch = System.currentTimeMillis();
+    OffHeapValueHolderPortability<String> eternalPortability = new OffHeapValueHolderPortability<>(serializer, HeaderFormat.compact(epoch, true));
+    OffHeapValueHolder<String> value = new BasicOffHeapValueHolder<>(42L, "aValue", epoch, OffHeapValueHolder.NO_EXPIRE, epoch);
+
+    OffHeapValueHolder<String> decoded = eternalPortability.decode(eternalPortability.encode(value));
+    assertThat(decoded, equalTo(value));
+    assertThat(decoded.expirationTime(), equalTo(OffHeapValueHolder.NO_EXPIRE));
+  }
+
+  @Test
+  public void testCompactWriteBackSupport() {
+    OffHeapValueHolderPortability<String> compactPortability = new OffHeapValueHolderPortability<>(serializer, HeaderFormat.compact(0L, false));
+    ByteBuffer encoded = compactPortability.encode(originalValue);
+    WriteContext writeContext = mock(WriteContext.class);
+    OffHeapValueHolder<String> decoded = compactPortability.decode(encoded, writeContext);
+
+    decoded.setExpirationTime(4L);
+    decoded.setLastAccessTime(6L);
+    decoded.writeBack();
+
+    verify(writeContext).setLong(0, 6L);
+    verify(writeContext).setLong(8, 4L);
+  }
+
+  @Test
+  public void testPooledEncodingMatchesAllocatedOne() {
+    OffHeapValueHolderPortability<String> pooledPortability = new OffHeapValueHolderPortability<>(serializer, HeaderFormat.LEGACY, new EncodingBuffers(1024));
+
+    ByteBuffer encoded = pooledPortability.encode(originalValue);
+    assertThat(encoded, equalTo(valueHolderPortability.encode(originalValue)));
+    assertThat(pooledPortability.decode(encoded), equalTo(originalValue));
+
+    OffHeapValueHolder<String> otherValue = new BasicOffHeapValueHolder<>(-2, "anotherValue", 1L, 2L, 3L);
+    ByteBuffer otherEncoded = pooledPortability.encode(otherValue);
+    assertThat(otherEncoded, sameInstance(encoded));
+    assertThat(pooledPortability.decode(otherEncoded), equalTo(otherValue));
+  }
+
+  @Test
+  public void testPooledEncodingGrowsUpToItsMaximumSize() {
+    OffHeapValueHolderPortability<String> pooledPortability = new OffHeapValueHolderPortability<>(serializer, HeaderFormat.compact(0L, false), new EncodingBuffers(512));
+
+    OffHeapValueHolder<String> largeValue = new BasicOffHeapValueHolder<>(1L, String.join("", Collections.nCopies(400, "a")), 1L, 2L, 3L);
+    ByteBuffer encoded = pooledPortability.encode(largeValue);
+    assertThat(encoded.isDirect(), is(true));
+    assertThat(pooledPortability.decode(encoded), equalTo(largeValue));
+
+    OffHeapValueHolder<String> hugeValue = new BasicOffHeapValueHolder<>(2L, String.join("", Collections.nCopies(600, "a")), 1L, 2L, 3L);
+    ByteBuffer allocated = pooledPortability.encode(hugeValue);
+    assertThat(allocated.isDirect(), is(false));
+    assertThat(pooledPortability.decode(allocated), equalTo(hugeValue));
+  }
 }
@@ -18,6 +18,7 @@ package org.ehcache.impl.internal.store.offheap.factories;
 
 import org.ehcache.config.Eviction;
 import org.ehcache.config.EvictionAdvisor;
+import org.ehcache.impl.internal.store.offheap.BasicOffHeapValueHolder;
 import org.ehcache.impl.internal.store.offheap.SwitchableEvictionAdvisor;
 import org.ehcache.impl.internal.store.offheap.HeuristicConfiguration;
 import org.ehcache.impl.internal.store.offheap.portability.SerializerPortability;
@@ -33,6 +34,8 @@ import org.terracotta.offheapstore.storage.PointerSize;
 import org.terracotta.offheapstore.storage.portability.Portability;
 import org.terracotta.offheapstore.util.Factory;
 
+import java.util.concurrent.TimeUnit;
+
 import static org.ehcache.impl.internal.store.offheap.OffHeapStoreUtils.getBufferSource;
 import static org.ehcache.impl.internal.spi.TestServiceProvider.providerContaining;
 import static org.hamcrest.CoreMatchers.is;
@@ -129,6 +132,56 @@ public class EhcacheSegmentTest {
     }
   }
 
+  @Test
+  public void testEvictionCostMetadataIsLogScaled() {
+    assertThat(EhcacheSegmentFactory.EhcacheSegment.evictionCostMetadata("value"), is(0));
+    assertThat(EhcacheSegmentFactory.EhcacheSegment.evictionCostMetadata(valueHolderWithMissPenalty(TimeUnit.MICROSECONDS.toNanos(500))), is(0));
+    assertThat(costClass(EhcacheSegmentFactory.EhcacheSegment.evictionCostMetadata(valueHolderWithMissPenalty(TimeUnit.MILLISECONDS.toNanos(5)))), is(3));
+    assertThat(costClass(EhcacheSegmentFactory.EhcacheSegment.evictionCostMetadata(valueHolderWithMissPenalty(TimeUnit.SECONDS.toNanos(10)))), is(7));
+  }
+
+  @Test
+  public void testCreditedMappingSurvivesClockSweep() {
+    EhcacheSegmentFactory.EhcacheSegment<String, String> segment = createTestSegment();
+    try {
+      segment.put("costly", "value", costMetadata(2));
+      segment.put("cheap", "value");
+      segment.evict(segment.getEvictionIndex(), false);
+      assertThat(segment.containsKey("costly"), is(true));
+      assertThat(segment.containsKey("cheap"), is(false));
+    } finally {
+      segment.destroy();
+    }
+  }
+
+  @Test
+  public void testHitRefillsCredit() {
+    EhcacheSegmentFactory.EhcacheSegment<String, String> segment = createTestSegment();
+    try {
+      segment.put("costly", "value", costMetadata(2));
+      segment.getEvictionIndex();
+      assertThat(segment.getMetadata("costly", EhcacheSegmentFactory.EhcacheSegment.CREDIT_MASK), is(0));
+      segment.get("costly");
+      assertThat(segment.getMetadata("costly", EhcacheSegmentFactory.EhcacheSegment.CREDIT_MASK), is(2 << EhcacheSegmentFactory.EhcacheSegment.CREDIT_SHIFT));
+    } finally {
+      segment.destroy();
+    }
+  }
+
+  private static int costMetadata(int costClass) {
+    return (costClass << EhcacheSegmentFactory.EhcacheSegment.COST_CLASS_SHIFT) | (costClass << EhcacheSegmentFactory.EhcacheSegment.CREDIT_SHIFT);
+  }
+
+  private static int costClass(int metadata) {
+    return (metadata & EhcacheSegmentFactory.EhcacheSegment.COST_CLASS_MASK) >>> EhcacheSegmentFactory.EhcacheSegment.COST_CLASS_SHIFT;
+  }
+
+  private static BasicOffHeapValueHolder<String> valueHolderWithMissPenalty(long missPenalty) {
+    BasicOffHeapValueHolder<String> valueHolder = new BasicOffHeapValueHolder<>(1L, "value", 0L, 0L);
+    valueHolder.setMissPenalty(missPenalty);
+    return valueHolder;
+  }
+
   @Test
   public void testEvictionFiresEvent() {
     @SuppressWarnings("unchecked")
@@ -29,6 +29,10 @@ public class AssertingOffHeapValueHolderPortability<V> extends OffHeapValueHolde
     super(serializer);
   }
 
+  public AssertingOffHeapValueHolderPortability(Serializer<V> serializer, HeaderFormat format, EncodingBuffers encodingBuffers) {
+    super(serializer, format, encodingBuffers);
+  }
+
   @Override
   protected OffHeapValueHolder<V> createLazyOffHeapValueHolder(long id, ByteBuffer byteBuffer, Serializer<V> serializer, long creationTime, long expireTime, long lastAccessTime, WriteContext writeContext) {
     return new AssertingOffHeapValueHolder<>(id, byteBuffer, serializer, creationTime, expireTime, lastAccessTime, writeContext);
@@ -31,6 +31,7 @@ import org.ehcache.core.internal.statistics.DefaultStatisticsService;
 import org.ehcache.spi.resilience.StoreAccessException;
 import org.ehcache.core.spi.store.tiering.AuthoritativeTier;
 import org.ehcache.core.spi.store.tiering.CachingTier;
+import org.ehcache.impl.config.store.CachingTierWritePolicyConfiguration.WritePolicy;
 import org.ehcache.impl.internal.store.heap.OnHeapStore;
 import org.ehcache.impl.internal.store.offheap.OffHeapStore;
 import org.ehcache.spi.service.Service;
@@ -56,6 +57,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -457,6 +459,8 @@ public class TieredStoreTest {
     verify(numberCachingTier, times(1)).invalidate(1);
     verify(numberCachingTier, times(1)).invalidate(2);
     verify(numberCachingTier, times(1)).invalidate(3);
+    verify(numberCachingTier, times(3)).installWritten(any(Number.class), any(Function.class));
+    verify(numberCachingTier, never()).getOrComputeIfAbsent(any(Number.class), any(Function.class));
     verify(numberAuthoritativeTier, times(1)).bulkCompute(any(Set.class), any(Function.class));
   }
 
@@ -531,12 +535,83 @@ public class TieredStoreTest {
     assertThat(result.get(2).get(), Matchers.<CharSequence>equalTo("two"));
     assertThat(result.get(3).get(), Matchers.<CharSequence>equalTo("three"));
 
-    verify(numberCachingTier, times(1)).invalidate(1);
-    verify(numberCachingTier, times(1)).invalidate(2);
-    verify(numberCachingTier, times(1)).invalidate(3);
+    verify(numberCachingTier, never()).invalidate(any(Number.class));
+    verify(numberCachingTier, times(3)).getOrComputeIfAbsent(any(Number.class), any(Function.class));
     verify(numberAuthoritativeTier, times(1)).bulkComputeIfAbsent(any(Set.class), any(Function.class));
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testBulkComputeIfAbsentServesCachingTierHits() throws Exception {
+    Store.ValueHolder<CharSequence> one = newValueHolder("one");
+    when(numberCachingTier.getOrDefault(eq(1), any(Function.class))).thenReturn(one);
+    when(numberCachingTier.getOrComputeIfAbsent(eq(1), any(Function.class))).thenReturn(one);
+    when(numberAuthoritativeTier.bulkComputeIfAbsent(any(Set.class), any(Function.class))).thenAnswer((Answer<Map<Number, Store.ValueHolder<CharSequence>>>) invocation -> {
+      Set<Number> keys = (Set) invocation.getArguments()[0];
+      assertThat(keys, is(new HashSet<Number>(Arrays.asList(2, 3))));
+
+      Map<Number, Store.ValueHolder<CharSequence>> result = new HashMap<>();
+      result.put(2, newValueHolder("two"));
+      result.put(3, null);
+      return result;
+    });
+
+    TieredStore<Number, CharSequence> tieredStore = new TieredStore<>(numberCachingTier, numberAuthoritativeTier);
+
+    Map<Number, Store.ValueHolder<CharSequence>> result = tieredStore.bulkComputeIfAbsent(new HashSet<Number>(Arrays.asList(1, 2, 3)), numbers -> Collections.emptyList());
+
+    assertThat(result.size(), is(3));
+    assertSame(one, result.get(1));
+    assertThat(result.get(2).get(), Matchers.<CharSequence>equalTo("two"));
+    assertThat(result.get(3), is(nullValue()));
+
+    verify(numberCachingTier, times(1)).getOrComputeIfAbsent(eq(2), any(Function.class));
+    verify(numberCachingTier, never()).getOrComputeIfAbsent(eq(3), any(Function.class));
+    verify(numberCachingTier, never()).invalidate(any(Number.class));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testPutWithWriteUpdateInstallsWrittenValue() throws Exception {
+    Store.ValueHolder<CharSequence> faulted = mock(Store.ValueHolder.class);
+    when(faulted.getId()).thenReturn(42L);
+    when(numberAuthoritativeTier.put(1, "one")).thenReturn(Store.PutStatus.PUT);
+    when(numberAuthoritativeTier.faultWritten(1)).thenReturn(faulted);
+    AtomicReference<Store.ValueHolder<CharSequence>> installed = new AtomicReference<>();
+    when(numberCachingTier.installWritten(any(Number.class), any(Function.class))).then((Answer<Store.ValueHolder<CharSequence>>) invocation -> {
+      Number key = (Number) invocation.getArguments()[0];
+      Function<Number, Store.ValueHolder<CharSequence>> function = (Function<Number, Store.ValueHolder<CharSequence>>) invocation.getArguments()[1];
+      installed.set(function.apply(key));
+      return installed.get();
+    });
+
+    TieredStore<Number, CharSequence> tieredStore = new TieredStore<>(numberCachingTier, numberAuthoritativeTier, WritePolicy.WRITE_UPDATE);
+
+    assertThat(tieredStore.put(1, "one"), is(Store.PutStatus.PUT));
+
+    assertThat(installed.get().get(), Matchers.<CharSequence>equalTo("one"));
+    assertThat(installed.get().getId(), is(42L));
+    verify(faulted, never()).get();
+    verify(numberAuthoritativeTier, never()).getAndFault(any(Number.class));
+    verify(numberCachingTier, never()).getOrComputeIfAbsent(any(Number.class), any(Function.class));
+    verify(numberAuthoritativeTier, times(1)).put(1, "one");
+    verify(numberCachingTier, times(1)).invalidate(1);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testPutWithWriteUpdateFallsBackToInvalidateOnConcurrentFault() throws Exception {
+    when(numberAuthoritativeTier.put(1, "one")).thenReturn(Store.PutStatus.PUT);
+    when(numberCachingTier.installWritten(any(Number.class), any(Function.class))).thenReturn(null);
+
+    TieredStore<Number, CharSequence> tieredStore = new TieredStore<>(numberCachingTier, numberAuthoritativeTier, WritePolicy.WRITE_UPDATE);
+
+    assertThat(tieredStore.put(1, "one"), is(Store.PutStatus.PUT));
+
+    verify(numberAuthoritativeTier, times(1)).put(1, "one");
+    verify(numberCachingTier, times(2)).invalidate(1);
+  }
+
   @Test
   public void CachingTierDoesNotSeeAnyOperationDuringClear() throws StoreAccessException, BrokenBarrierException, InterruptedException {
     final TieredStore<String, String> tieredStore = new TieredStore<>(stringCachingTier, stringAuthoritativeTier);
@@ -20,6 +20,8 @@ import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.util.Random;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -46,6 +48,22 @@ public class LongSerializerTest {
     }
   }
 
+  @Test
+  public void testCanSerializeIntoBuffer() throws ClassNotFoundException {
+    LongSerializer serializer = new LongSerializer();
+    ByteBuffer buffer = ByteBuffer.allocateDirect(16);
+
+    serializer.serialize(42L, buffer);
+    buffer.flip();
+    assertThat(buffer, is(serializer.serialize(42L)));
+    assertThat(serializer.read(buffer), is(42L));
+  }
+
+  @Test(expected = BufferOverflowException.class)
+  public void testSerializeIntoBufferThrowsWhenFull() {
+    new LongSerializer().serialize(42L, ByteBuffer.allocate(4));
+  }
+
   @Test(expected = NullPointerException.class)
   public void testReadThrowsOnNullInput() throws ClassNotFoundException {
     new LongSerializer().read(null);
@@ -17,6 +17,7 @@
 package org.ehcache.impl.serialization;
 
 import java.io.UnsupportedEncodingException;
+import java.nio.BufferOverflowException;
 import java.nio.ByteBuffer;
 import java.util.Random;
 import org.junit.Test;
@@ -59,6 +60,11 @@ public class StringSerializerTest {
     String read = serializer.read(serialized.asReadOnlyBuffer());
     assertThat(read, is(s));
 
+    ByteBuffer buffer = ByteBuffer.allocateDirect(3 * s.length());
+    serializer.serialize(s, buffer);
+    buffer.flip();
+    assertThat(buffer, is(serialized));
+
     assertThat(serializer.equals(s, serialized), is(true));
 
     Random rndm = new Random();
@@ -79,6 +85,11 @@ public class StringSerializerTest {
     assertThat(serializer.equals(mutated, serialized.asReadOnlyBuffer()), is(false));
   }
 
+  @Test(expected = BufferOverflowException.class)
+  public void testSerializeIntoBufferThrowsWhenFull() {
+    new StringSerializer().serialize("\u00e9t\u00e9", ByteBuffer.allocate(4));
+  }
+
   @Test
   public void testBackwardsCompatibility() throws UnsupportedEncodingException, ClassNotFoundException {
     StringSerializer serializer = new StringSerializer();